@@ -31,6 +31,12 @@
 #include <unistd.h>
 #include <sys/errno.h>
 #include <stdlib.h>
+#ifdef __APPLE__
+#include <sys/types.h>
+#include <sys/uio.h>
+#else
+#include <sys/sendfile.h>
+#endif
 #include "net.h"
 
 int set_int_sockopt(int fd, int level, int opt, int value) {
@@ -138,6 +144,34 @@ JNIEXPORT jint JNICALL Java_io_questdb_network_Net_send
     return com_questdb_network_Net_EOTHERDISCONNECT;
 }
 
+JNIEXPORT jlong JNICALL Java_io_questdb_network_Net_sendFile
+        (JNIEnv *e, jclass cl, jlong fd, jlong fileFd, jlong offset, jlong count) {
+#ifdef __APPLE__
+    off_t len = (off_t) count;
+    if (sendfile((int) fileFd, (int) fd, (off_t) offset, &len, NULL, 0) == 0 || len > 0) {
+        // partial writes on non-blocking socket are reported via EAGAIN with len set
+        return (jlong) len;
+    }
+#else
+    off_t off = (off_t) offset;
+    const ssize_t n = sendfile((int) fd, (int) fileFd, &off, (size_t) count);
+    if (n > 0 || (n == 0 && count == 0)) {
+        return n;
+    }
+
+    if (n == 0) {
+        // file is shorter than caller expected, response cannot be completed
+        return com_questdb_network_Net_EOTHERDISCONNECT;
+    }
+#endif
+
+    if (errno == EWOULDBLOCK) {
+        return com_questdb_network_Net_ERETRY;
+    }
+
+    return com_questdb_network_Net_EOTHERDISCONNECT;
+}
+
 JNIEXPORT jint JNICALL Java_io_questdb_network_Net_recv
         (JNIEnv *e, jclass cl, jlong fd, jlong ptr, jint len) {
     const ssize_t n = recv((int) fd, (void *) ptr, (size_t) len, 0);
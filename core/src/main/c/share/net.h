@@ -157,6 +157,14 @@ JNIEXPORT jint JNICALL Java_io_questdb_network_Net_recvmmsg
 JNIEXPORT jint JNICALL Java_io_questdb_network_Net_send
         (JNIEnv *, jclass, jlong, jlong, jint);
 
+/*
+ * Class:     com_questdb_network_Net
+ * Method:    sendFile
+ * Signature: (JJJJ)J
+ */
+JNIEXPORT jlong JNICALL Java_io_questdb_network_Net_sendFile
+        (JNIEnv *, jclass, jlong, jlong, jlong, jlong);
+
 /*
  * Class:     com_questdb_network_Net
  * Method:    sendTo
@@ -233,6 +233,39 @@ JNIEXPORT jint JNICALL Java_io_questdb_network_Net_send
     return com_questdb_network_Net_EOTHERDISCONNECT;
 }
 
+#define SEND_FILE_BUF_SIZE 65536
+
+JNIEXPORT jlong JNICALL Java_io_questdb_network_Net_sendFile
+        (JNIEnv *e, jclass cl, jlong fd, jlong fileFd, jlong offset, jlong count) {
+    // there is no non-blocking equivalent of sendfile() for sockets on Windows,
+    // copy through stack buffer instead, one buffer per call
+    char buf[SEND_FILE_BUF_SIZE];
+    OVERLAPPED overlapped = {0};
+    DWORD read;
+
+    if (count == 0) {
+        return 0;
+    }
+
+    overlapped.Offset = (DWORD) (offset & 0xFFFFFFFF);
+    overlapped.OffsetHigh = (DWORD) (offset >> 32);
+    if (!ReadFile((HANDLE) fileFd, buf, count < SEND_FILE_BUF_SIZE ? (DWORD) count : SEND_FILE_BUF_SIZE, &read, &overlapped) || read == 0) {
+        SaveLastError();
+        return com_questdb_network_Net_EOTHERDISCONNECT;
+    }
+
+    const int n = send((SOCKET) fd, buf, (int) read, 0);
+    if (n > -1) {
+        return n;
+    }
+
+    if (WSAGetLastError() == WSAEWOULDBLOCK) {
+        return com_questdb_network_Net_ERETRY;
+    }
+
+    return com_questdb_network_Net_EOTHERDISCONNECT;
+}
+
 JNIEXPORT jint JNICALL Java_io_questdb_network_Net_sendTo
         (JNIEnv *e, jclass cl, jlong fd, jlong ptr, jint len, jlong sockaddr) {
     return (jint) sendto((SOCKET) fd, (const void *) ptr, len, 0, (const struct sockaddr *) sockaddr,
@@ -32,6 +32,7 @@ import io.questdb.cutlass.http.processors.StaticContentProcessorConfiguration;
 import io.questdb.cutlass.http.processors.TextImportProcessorConfiguration;
 import io.questdb.cutlass.json.JsonException;
 import io.questdb.cutlass.json.JsonLexer;
+import io.questdb.cutlass.line.tcp.LineTcpReceiverConfiguration;
 import io.questdb.cutlass.line.udp.LineUdpReceiverConfiguration;
 import io.questdb.cutlass.pgwire.DefaultPGWireConfiguration;
 import io.questdb.cutlass.pgwire.PGWireConfiguration;
@@ -63,6 +64,8 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final TextConfiguration textConfiguration = new PropTextConfiguration();
     private final CairoConfiguration cairoConfiguration = new PropCairoConfiguration();
     private final LineUdpReceiverConfiguration lineUdpReceiverConfiguration = new PropLineUdpReceiverConfiguration();
+    private final IODispatcherConfiguration lineTcpIODispatcherConfiguration = new LineTcpIODispatcherConfiguration();
+    private final LineTcpReceiverConfiguration lineTcpReceiverConfiguration = new PropLineTcpReceiverConfiguration();
     private final JsonQueryProcessorConfiguration jsonQueryProcessorConfiguration = new PropJsonQueryProcessorConfiguration();
     private final boolean httpServerEnabled;
     private final int createAsSelectRetryCount;
@@ -95,18 +98,58 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlModelPoolCapacity;
     private final int sqlSortKeyPageSize;
     private final int sqlSortLightValuePageSize;
+    private final long sqlSortSpillThreshold;
+    private final String sqlSpillRoot;
     private final int sqlHashJoinValuePageSize;
+    private final long sqlHashJoinSpillThreshold;
+    private final int sqlHashJoinSpillPartitionCount;
     private final long sqlLatestByRowCount;
     private final int sqlHashJoinLightValuePageSize;
     private final int sqlSortValuePageSize;
     private final long workStealTimeoutNanos;
     private final boolean parallelIndexingEnabled;
+    private final boolean indexPackingEnabled;
+    private final boolean partitionStatsEnabled;
+    private final boolean outOfOrderEnabled;
+    private final int outOfOrderPageSize;
+    private final int columnIndexerQueueCapacity;
+    private final int vectorAggregateQueueCapacity;
+    private final boolean vectorAggregationEnabled;
+    private final boolean vectorFilterEnabled;
+    private final boolean sqlJitEnabled;
+    private final int groupByQueueCapacity;
+    private final boolean parallelGroupByEnabled;
+    private final int hashJoinQueueCapacity;
+    private final boolean parallelHashJoinEnabled;
+    private final int textImportQueueCapacity;
+    private final boolean parallelImportEnabled;
     private final int sqlJoinMetadataPageSize;
-    private final int lineUdpCommitRate;
+    private final int lineUdpMaxUncommittedRows;
+    private final long lineUdpMaxUncommittedLatency;
+    private final long lineUdpCommitIdleTimeout;
     private final int lineUdpGroupIPv4Address;
     private final int lineUdpMsgBufferSize;
     private final int lineUdpMsgCount;
     private final int lineUdpReceiveBufferSize;
+    private final boolean lineTcpEnabled;
+    private final int lineTcpNetActiveConnectionLimit;
+    private final int lineTcpNetEventCapacity;
+    private final int lineTcpNetIOQueueCapacity;
+    private final long lineTcpNetIdleConnectionTimeout;
+    private final int lineTcpNetInterestQueueCapacity;
+    private final int lineTcpNetListenBacklog;
+    private final int lineTcpNetRcvBufSize;
+    private final int lineTcpConnectionPoolInitialCapacity;
+    private final int lineTcpMsgBufferSize;
+    private final int lineTcpRecvBufferSize;
+    private final int lineTcpMaxUncommittedRows;
+    private final long lineTcpMaxUncommittedLatency;
+    private final long lineTcpCommitIdleTimeout;
+    private final int lineTcpWorkerCount;
+    private final int[] lineTcpWorkerAffinity;
+    private final boolean lineTcpWorkerHaltOnError;
+    private final int lineTcpWriterCount;
+    private final int lineTcpWriterQueueCapacity;
     private final int[] sharedWorkerAffinity;
     private final int sharedWorkerCount;
     private final boolean shareWorkerHaltOnError;
@@ -132,6 +175,9 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int sendBufferSize;
     private CharSequence indexFileName;
     private String publicDirectory;
+    private boolean staticSendFileEnabled;
+    private int staticCacheMaxSize;
+    private int staticCacheFileMaxSize;
     private boolean abortBrokenUploads;
     private int activeConnectionLimit;
     private int eventCapacity;
@@ -159,10 +205,16 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int bindPort;
     private int lineUdpBindIPV4Address;
     private int lineUdpPort;
+    private int lineTcpBindIPv4Address;
+    private int lineTcpBindPort;
     private int jsonQueryFloatScale;
     private int jsonQueryDoubleScale;
     private int sqlCopyBufferSize;
     private int jsonQueryConnectionCheckFrequency;
+    private long tailHeartbeatInterval;
+    private int tailSubscriptionLimit;
+    private int queryCacheBlockCount;
+    private int queryCacheRowCount;
     private boolean httpFrozenClock;
     private int sqlAnalyticColumnPoolCapacity;
     private int sqlCreateTableModelPoolCapacity;
@@ -189,6 +241,9 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.httpWorkerHaltOnError = getBoolean(properties, "http.worker.haltOnError", false);
             this.sendBufferSize = getIntSize(properties, "http.send.buffer.size", 2 * 1024 * 1024);
             this.indexFileName = getString(properties, "http.static.index.file.name", "index.html");
+            this.staticSendFileEnabled = getBoolean(properties, "http.static.sendfile.enabled", true);
+            this.staticCacheMaxSize = getIntSize(properties, "http.static.cache.max.size", 4 * 1024 * 1024);
+            this.staticCacheFileMaxSize = getIntSize(properties, "http.static.cache.file.max.size", 128 * 1024);
             this.httpFrozenClock = getBoolean(properties, "http.frozen.clock", false);
             this.httpAllowDeflateBeforeSend = getBoolean(properties, "http.allow.deflate.before.send", false);
 
@@ -242,6 +297,10 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.jsonQueryConnectionCheckFrequency = getInt(properties, "http.json.query.connection.check.frequency", 1_000_000);
             this.jsonQueryDoubleScale = getInt(properties, "http.json.query.double.scale", 10);
             this.jsonQueryFloatScale = getInt(properties, "http.json.query.float.scale", 10);
+            this.tailHeartbeatInterval = getLong(properties, "http.tail.heartbeat.interval", 5_000);
+            this.tailSubscriptionLimit = getInt(properties, "http.tail.subscription.limit", 32);
+            this.queryCacheBlockCount = getInt(properties, "http.query.cache.block.count", 8);
+            this.queryCacheRowCount = getInt(properties, "http.query.cache.row.count", 64);
 
             parseBindTo(properties, "http.bind.to", "0.0.0.0:9000", (a, p) -> {
                 bindIPv4Address = a;
@@ -283,12 +342,36 @@ public class PropServerConfiguration implements ServerConfiguration {
         this.sqlModelPoolCapacity = getInt(properties, "cairo.model.pool.capacity", 1024);
         this.sqlSortKeyPageSize = getIntSize(properties, "cairo.sql.sort.key.page.size", 4 * 1024 * 1024);
         this.sqlSortLightValuePageSize = getIntSize(properties, "cairo.sql.sort.light.value.page.size", 1048576);
+        this.sqlSortSpillThreshold = getLongSize(properties, "cairo.sql.sort.spill.threshold", 1024 * 1024 * 1024L);
+        final String sqlSpillRoot = getString(properties, "cairo.sql.spill.root", "tmp");
+        if (new File(sqlSpillRoot).isAbsolute()) {
+            this.sqlSpillRoot = sqlSpillRoot;
+        } else {
+            this.sqlSpillRoot = new File(root, sqlSpillRoot).getAbsolutePath();
+        }
         this.sqlHashJoinValuePageSize = getIntSize(properties, "cairo.sql.hash.join.value.page.size", 16777216);
+        this.sqlHashJoinSpillThreshold = getLongSize(properties, "cairo.sql.hash.join.spill.threshold", 1024 * 1024 * 1024L);
+        this.sqlHashJoinSpillPartitionCount = getInt(properties, "cairo.sql.hash.join.spill.partition.count", 16);
         this.sqlLatestByRowCount = getInt(properties, "cairo.sql.latest.by.row.count", 1000);
         this.sqlHashJoinLightValuePageSize = getIntSize(properties, "cairo.sql.hash.join.light.value.page.size", 1048576);
         this.sqlSortValuePageSize = getIntSize(properties, "cairo.sql.sort.value.page.size", 16777216);
         this.workStealTimeoutNanos = getLong(properties, "cairo.work.steal.timeout.nanos", 10_000);
         this.parallelIndexingEnabled = getBoolean(properties, "cairo.parallel.indexing.enabled", true);
+        this.indexPackingEnabled = getBoolean(properties, "cairo.index.packing.enabled", false);
+        this.partitionStatsEnabled = getBoolean(properties, "cairo.partition.stats.enabled", true);
+        this.outOfOrderEnabled = getBoolean(properties, "cairo.out.of.order.enabled", false);
+        this.outOfOrderPageSize = getIntSize(properties, "cairo.out.of.order.page.size", 256 * 1024);
+        this.columnIndexerQueueCapacity = Numbers.ceilPow2(getInt(properties, "cairo.column.indexer.queue.capacity", 1024));
+        this.vectorAggregateQueueCapacity = Numbers.ceilPow2(getInt(properties, "cairo.vector.aggregate.queue.capacity", 1024));
+        this.vectorAggregationEnabled = getBoolean(properties, "cairo.vector.aggregation.enabled", true);
+        this.vectorFilterEnabled = getBoolean(properties, "cairo.vector.filter.enabled", true);
+        this.sqlJitEnabled = getBoolean(properties, "cairo.sql.jit.enabled", false);
+        this.groupByQueueCapacity = Numbers.ceilPow2(getInt(properties, "cairo.group.by.queue.capacity", 1024));
+        this.parallelGroupByEnabled = getBoolean(properties, "cairo.parallel.group.by.enabled", true);
+        this.hashJoinQueueCapacity = Numbers.ceilPow2(getInt(properties, "cairo.hash.join.queue.capacity", 1024));
+        this.parallelHashJoinEnabled = getBoolean(properties, "cairo.parallel.hash.join.enabled", true);
+        this.textImportQueueCapacity = Numbers.ceilPow2(getInt(properties, "cairo.text.import.queue.capacity", 64));
+        this.parallelImportEnabled = getBoolean(properties, "cairo.parallel.import.enabled", true);
         this.sqlJoinMetadataPageSize = getIntSize(properties, "cairo.sql.join.metadata.page.size", 16384);
         this.sqlAnalyticColumnPoolCapacity = getInt(properties, "cairo.sql.analytic.column.pool.capacity", 64);
         this.sqlCreateTableModelPoolCapacity = getInt(properties, "cairo.sql.create.table.model.pool.capacity", 16);
@@ -318,10 +401,36 @@ public class PropServerConfiguration implements ServerConfiguration {
         });
 
         this.lineUdpGroupIPv4Address = getIPv4Address(properties, "line.udp.join", "232.1.2.3");
-        this.lineUdpCommitRate = getInt(properties, "line.udp.commit.rate", 10_000);
+        this.lineUdpMaxUncommittedRows = getInt(properties, "line.udp.max.uncommitted.rows", 10_000);
+        this.lineUdpMaxUncommittedLatency = getLong(properties, "line.udp.max.uncommitted.latency", 500);
+        this.lineUdpCommitIdleTimeout = getLong(properties, "line.udp.commit.idle.timeout", 200);
         this.lineUdpMsgBufferSize = getIntSize(properties, "line.udp.msg.buffer.size", 1024 * 1024);
         this.lineUdpMsgCount = getInt(properties, "line.udp.msg.count", 10_000);
         this.lineUdpReceiveBufferSize = getIntSize(properties, "line.udp.receive.buffer.size", 2048);
+
+        this.lineTcpEnabled = getBoolean(properties, "line.tcp.enabled", true);
+        parseBindTo(properties, "line.tcp.bind.to", "0.0.0.0:9009", (a, p) -> {
+            this.lineTcpBindIPv4Address = a;
+            this.lineTcpBindPort = p;
+        });
+        this.lineTcpNetActiveConnectionLimit = getInt(properties, "line.tcp.net.active.connection.limit", 256);
+        this.lineTcpNetEventCapacity = getInt(properties, "line.tcp.net.event.capacity", 1024);
+        this.lineTcpNetIOQueueCapacity = getInt(properties, "line.tcp.net.io.queue.capacity", 1024);
+        this.lineTcpNetIdleConnectionTimeout = getLong(properties, "line.tcp.net.idle.connection.timeout", 5 * 60 * 1000L);
+        this.lineTcpNetInterestQueueCapacity = getInt(properties, "line.tcp.net.interest.queue.capacity", 1024);
+        this.lineTcpNetListenBacklog = getInt(properties, "line.tcp.net.listen.backlog", 256);
+        this.lineTcpNetRcvBufSize = getIntSize(properties, "line.tcp.net.rcv.buf.size", -1);
+        this.lineTcpConnectionPoolInitialCapacity = getInt(properties, "line.tcp.connection.pool.capacity", 64);
+        this.lineTcpMsgBufferSize = getIntSize(properties, "line.tcp.msg.buffer.size", 2048);
+        this.lineTcpRecvBufferSize = getIntSize(properties, "line.tcp.recv.buffer.size", 64 * 1024);
+        this.lineTcpMaxUncommittedRows = getInt(properties, "line.tcp.max.uncommitted.rows", 1000);
+        this.lineTcpMaxUncommittedLatency = getLong(properties, "line.tcp.max.uncommitted.latency", 500);
+        this.lineTcpCommitIdleTimeout = getLong(properties, "line.tcp.commit.idle.timeout", 200);
+        this.lineTcpWorkerCount = getInt(properties, "line.tcp.worker.count", 1);
+        this.lineTcpWorkerAffinity = getAffinity(properties, "line.tcp.worker.affinity", lineTcpWorkerCount);
+        this.lineTcpWorkerHaltOnError = getBoolean(properties, "line.tcp.worker.haltOnError", false);
+        this.lineTcpWriterCount = getInt(properties, "line.tcp.writer.count", 0);
+        this.lineTcpWriterQueueCapacity = Numbers.ceilPow2(getInt(properties, "line.tcp.writer.queue.capacity", 64));
     }
 
     @Override
@@ -339,6 +448,11 @@ public class PropServerConfiguration implements ServerConfiguration {
         return lineUdpReceiverConfiguration;
     }
 
+    @Override
+    public LineTcpReceiverConfiguration getLineTcpReceiverConfiguration() {
+        return lineTcpReceiverConfiguration;
+    }
+
     @Override
     public WorkerPoolConfiguration getWorkerPoolConfiguration() {
         return workerPoolConfiguration;
@@ -421,6 +535,15 @@ public class PropServerConfiguration implements ServerConfiguration {
         }
     }
 
+    private long getLongSize(Properties properties, String key, long defaultValue) throws ServerConfigurationException {
+        final String value = properties.getProperty(key);
+        try {
+            return value != null ? Numbers.parseLongSize(value) : defaultValue;
+        } catch (NumericException e) {
+            throw new ServerConfigurationException(key, value);
+        }
+    }
+
     private String getString(Properties properties, String key, String defaultValue) {
         String value = properties.getProperty(key);
         if (value == null) {
@@ -497,6 +620,21 @@ public class PropServerConfiguration implements ServerConfiguration {
         public String getKeepAliveHeader() {
             return keepAliveHeader;
         }
+
+        @Override
+        public boolean isSendFileEnabled() {
+            return staticSendFileEnabled;
+        }
+
+        @Override
+        public int getCacheMaxSize() {
+            return staticCacheMaxSize;
+        }
+
+        @Override
+        public int getCacheFileMaxSize() {
+            return staticCacheFileMaxSize;
+        }
     }
 
     private class PropTextImportProcessorConfiguration implements TextImportProcessorConfiguration {
@@ -755,6 +893,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlCopyBufferSize;
         }
 
+        @Override
+        public int getColumnIndexerQueueCapacity() {
+            return columnIndexerQueueCapacity;
+        }
+
         @Override
         public int getCopyPoolCapacity() {
             return sqlCopyModelPoolCapacity;
@@ -790,6 +933,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             return FilesFacadeImpl.INSTANCE;
         }
 
+        @Override
+        public int getGroupByQueueCapacity() {
+            return groupByQueueCapacity;
+        }
+
+        @Override
+        public int getHashJoinQueueCapacity() {
+            return hashJoinQueueCapacity;
+        }
+
         @Override
         public long getIdleCheckInterval() {
             return idleCheckInterval;
@@ -830,6 +983,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return mkdirMode;
         }
 
+        @Override
+        public int getOutOfOrderPageSize() {
+            return outOfOrderPageSize;
+        }
+
         @Override
         public int getParallelIndexThreshold() {
             return parallelIndexThreshold;
@@ -925,11 +1083,31 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlSortLightValuePageSize;
         }
 
+        @Override
+        public long getSqlSortSpillThreshold() {
+            return sqlSortSpillThreshold;
+        }
+
+        @Override
+        public CharSequence getSqlSpillRoot() {
+            return sqlSpillRoot;
+        }
+
         @Override
         public int getSqlHashJoinValuePageSize() {
             return sqlHashJoinValuePageSize;
         }
 
+        @Override
+        public long getSqlHashJoinSpillThreshold() {
+            return sqlHashJoinSpillThreshold;
+        }
+
+        @Override
+        public int getSqlHashJoinSpillPartitionCount() {
+            return sqlHashJoinSpillPartitionCount;
+        }
+
         @Override
         public long getSqlLatestByRowCount() {
             return sqlLatestByRowCount;
@@ -950,16 +1128,71 @@ public class PropServerConfiguration implements ServerConfiguration {
             return textConfiguration;
         }
 
+        @Override
+        public int getTextImportQueueCapacity() {
+            return textImportQueueCapacity;
+        }
+
+        @Override
+        public int getVectorAggregateQueueCapacity() {
+            return vectorAggregateQueueCapacity;
+        }
+
         @Override
         public long getWorkStealTimeoutNanos() {
             return workStealTimeoutNanos;
         }
 
+        @Override
+        public boolean isOutOfOrderEnabled() {
+            return outOfOrderEnabled;
+        }
+
+        @Override
+        public boolean isParallelGroupByEnabled() {
+            return parallelGroupByEnabled;
+        }
+
+        @Override
+        public boolean isParallelHashJoinEnabled() {
+            return parallelHashJoinEnabled;
+        }
+
+        @Override
+        public boolean isParallelImportEnabled() {
+            return parallelImportEnabled;
+        }
+
         @Override
         public boolean isParallelIndexingEnabled() {
             return parallelIndexingEnabled;
         }
 
+        @Override
+        public boolean isIndexPackingEnabled() {
+            return indexPackingEnabled;
+        }
+
+        @Override
+        public boolean isPartitionStatsEnabled() {
+            return partitionStatsEnabled;
+        }
+
+        @Override
+        public boolean isVectorAggregationEnabled() {
+            return vectorAggregationEnabled;
+        }
+
+        @Override
+        public boolean isVectorFilterEnabled() {
+            return vectorFilterEnabled;
+        }
+
+        @Override
+        public boolean isSqlJitEnabled() {
+            return sqlJitEnabled;
+        }
+
         @Override
         public int getSqlJoinMetadataPageSize() {
             return sqlJoinMetadataPageSize;
@@ -1003,8 +1236,8 @@ public class PropServerConfiguration implements ServerConfiguration {
         }
 
         @Override
-        public int getCommitRate() {
-            return lineUdpCommitRate;
+        public long getCommitIdleTimeout() {
+            return lineUdpCommitIdleTimeout;
         }
 
         @Override
@@ -1012,6 +1245,21 @@ public class PropServerConfiguration implements ServerConfiguration {
             return lineUdpGroupIPv4Address;
         }
 
+        @Override
+        public long getMaxUncommittedLatency() {
+            return lineUdpMaxUncommittedLatency;
+        }
+
+        @Override
+        public int getMaxUncommittedRows() {
+            return lineUdpMaxUncommittedRows;
+        }
+
+        @Override
+        public MillisecondClock getMillisecondClock() {
+            return MillisecondClockImpl.INSTANCE;
+        }
+
         @Override
         public int getMsgBufferSize() {
             return lineUdpMsgBufferSize;
@@ -1038,6 +1286,165 @@ public class PropServerConfiguration implements ServerConfiguration {
         }
     }
 
+    private class LineTcpIODispatcherConfiguration implements IODispatcherConfiguration {
+        @Override
+        public int getActiveConnectionLimit() {
+            return lineTcpNetActiveConnectionLimit;
+        }
+
+        @Override
+        public int getBindIPv4Address() {
+            return lineTcpBindIPv4Address;
+        }
+
+        @Override
+        public int getBindPort() {
+            return lineTcpBindPort;
+        }
+
+        @Override
+        public MillisecondClock getClock() {
+            return MillisecondClockImpl.INSTANCE;
+        }
+
+        @Override
+        public String getDispatcherLogName() {
+            return "line-tcp";
+        }
+
+        @Override
+        public EpollFacade getEpollFacade() {
+            return EpollFacadeImpl.INSTANCE;
+        }
+
+        @Override
+        public int getEventCapacity() {
+            return lineTcpNetEventCapacity;
+        }
+
+        @Override
+        public int getIOQueueCapacity() {
+            return lineTcpNetIOQueueCapacity;
+        }
+
+        @Override
+        public long getIdleConnectionTimeout() {
+            return lineTcpNetIdleConnectionTimeout;
+        }
+
+        @Override
+        public int getInitialBias() {
+            return IOOperation.READ;
+        }
+
+        @Override
+        public int getInterestQueueCapacity() {
+            return lineTcpNetInterestQueueCapacity;
+        }
+
+        @Override
+        public int getListenBacklog() {
+            return lineTcpNetListenBacklog;
+        }
+
+        @Override
+        public NetworkFacade getNetworkFacade() {
+            return NetworkFacadeImpl.INSTANCE;
+        }
+
+        @Override
+        public int getRcvBufSize() {
+            return lineTcpNetRcvBufSize;
+        }
+
+        @Override
+        public SelectFacade getSelectFacade() {
+            return SelectFacadeImpl.INSTANCE;
+        }
+
+        @Override
+        public int getSndBufSize() {
+            return -1;
+        }
+    }
+
+    private class PropLineTcpReceiverConfiguration implements LineTcpReceiverConfiguration {
+        @Override
+        public long getCommitIdleTimeout() {
+            return lineTcpCommitIdleTimeout;
+        }
+
+        @Override
+        public int getConnectionPoolInitialCapacity() {
+            return lineTcpConnectionPoolInitialCapacity;
+        }
+
+        @Override
+        public IODispatcherConfiguration getDispatcherConfiguration() {
+            return lineTcpIODispatcherConfiguration;
+        }
+
+        @Override
+        public long getMaxUncommittedLatency() {
+            return lineTcpMaxUncommittedLatency;
+        }
+
+        @Override
+        public int getMaxUncommittedRows() {
+            return lineTcpMaxUncommittedRows;
+        }
+
+        @Override
+        public MillisecondClock getMillisecondClock() {
+            return MillisecondClockImpl.INSTANCE;
+        }
+
+        @Override
+        public int getMsgBufferSize() {
+            return lineTcpMsgBufferSize;
+        }
+
+        @Override
+        public NetworkFacade getNetworkFacade() {
+            return NetworkFacadeImpl.INSTANCE;
+        }
+
+        @Override
+        public int getRecvBufferSize() {
+            return lineTcpRecvBufferSize;
+        }
+
+        @Override
+        public int[] getWorkerAffinity() {
+            return lineTcpWorkerAffinity;
+        }
+
+        @Override
+        public int getWorkerCount() {
+            return lineTcpWorkerCount;
+        }
+
+        @Override
+        public int getWriterCount() {
+            return lineTcpWriterCount;
+        }
+
+        @Override
+        public int getWriterQueueCapacity() {
+            return lineTcpWriterQueueCapacity;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return lineTcpEnabled;
+        }
+
+        @Override
+        public boolean workerHaltOnError() {
+            return lineTcpWorkerHaltOnError;
+        }
+    }
+
     private class PropJsonQueryProcessorConfiguration implements JsonQueryProcessorConfiguration {
         @Override
         public MillisecondClock getClock() {
@@ -1068,6 +1475,26 @@ public class PropServerConfiguration implements ServerConfiguration {
         public CharSequence getKeepAliveHeader() {
             return keepAliveHeader;
         }
+
+        @Override
+        public int getQueryCacheBlockCount() {
+            return queryCacheBlockCount;
+        }
+
+        @Override
+        public int getQueryCacheRowCount() {
+            return queryCacheRowCount;
+        }
+
+        @Override
+        public long getTailHeartbeatInterval() {
+            return tailHeartbeatInterval;
+        }
+
+        @Override
+        public int getTailSubscriptionLimit() {
+            return tailSubscriptionLimit;
+        }
     }
 
     private class PropWorkerPoolConfiguration implements WorkerPoolConfiguration {
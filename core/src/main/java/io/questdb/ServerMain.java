@@ -25,7 +25,9 @@
 package io.questdb;
 
 import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.DefaultCairoWorkScheduler;
 import io.questdb.cutlass.http.HttpServer;
+import io.questdb.cutlass.line.tcp.LineTcpServer;
 import io.questdb.cutlass.pgwire.PGWireServer;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
@@ -103,9 +105,13 @@ public class ServerMain {
         final WorkerPool workerPool = new WorkerPool(configuration.getWorkerPoolConfiguration());
         LogFactory.configureFromSystemProperties(workerPool);
         final Log log = LogFactory.getLog("server-main");
-        final CairoEngine cairoEngine = new CairoEngine(configuration.getCairoConfiguration());
+        final CairoEngine cairoEngine = new CairoEngine(
+                configuration.getCairoConfiguration(),
+                new DefaultCairoWorkScheduler(configuration.getCairoConfiguration(), workerPool)
+        );
         final HttpServer httpServer = HttpServer.create(configuration.getHttpServerConfiguration(), workerPool, log, cairoEngine);
         final PGWireServer pgWireServer = PGWireServer.create(configuration.getPGWireConfiguration(), workerPool, log, cairoEngine);
+        final LineTcpServer lineTcpServer = LineTcpServer.create(configuration.getLineTcpReceiverConfiguration(), workerPool, log, cairoEngine);
 
         workerPool.start(log);
 
@@ -118,6 +124,7 @@ public class ServerMain {
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             System.err.println(new Date() + " QuestDB is shutting down");
             workerPool.halt();
+            Misc.free(lineTcpServer);
             Misc.free(pgWireServer);
             Misc.free(httpServer);
             Misc.free(cairoEngine);
@@ -39,6 +39,7 @@ public abstract class AbstractIndexReader implements BitmapIndexReader {
     protected final ReadOnlyMemory valueMem = new ReadOnlyMemory();
     protected int blockValueCountMod;
     protected int blockCapacity;
+    protected boolean packed;
     protected long spinLockTimeoutUs;
     protected MicrosecondClock clock;
     protected int keyCount;
@@ -81,10 +82,12 @@ public abstract class AbstractIndexReader implements BitmapIndexReader {
             }
 
             // verify header signature
-            if (this.keyMem.getByte(BitmapIndexUtils.KEY_RESERVED_OFFSET_SIGNATURE) != BitmapIndexUtils.SIGNATURE) {
+            final byte signature = this.keyMem.getByte(BitmapIndexUtils.KEY_RESERVED_OFFSET_SIGNATURE);
+            if (signature != BitmapIndexUtils.SIGNATURE && signature != BitmapIndexUtils.SIGNATURE_PACKED) {
                 LOG.error().$("unknown format [corrupt] ").$(path).$();
                 throw CairoException.instance(0).put("Unknown format: ").put(path);
             }
+            this.packed = signature == BitmapIndexUtils.SIGNATURE_PACKED;
 
             // Triple check atomic read. We read first and last sequences. If they match - there is a chance at stable
             // read. Confirm start sequence hasn't changed after values read. If it has changed - retry the whole thing.
@@ -115,7 +118,11 @@ public abstract class AbstractIndexReader implements BitmapIndexReader {
             }
 
             this.blockValueCountMod = blockValueCountMod;
-            this.blockCapacity = (blockValueCountMod + 1) * 8 + BitmapIndexUtils.VALUE_BLOCK_FILE_RESERVED;
+            if (packed) {
+                this.blockCapacity = BitmapIndexUtils.getPackedBlockCapacity(blockValueCountMod + 1);
+            } else {
+                this.blockCapacity = (blockValueCountMod + 1) * 8 + BitmapIndexUtils.VALUE_BLOCK_FILE_RESERVED;
+            }
             this.keyCount = keyCount;
             this.valueMem.of(configuration.getFilesFacade(), BitmapIndexUtils.valueFileName(path.trimTo(plen), name), pageSize, 0);
             this.valueMem.grow(configuration.getFilesFacade().length(this.valueMem.getFd()));
@@ -127,6 +134,11 @@ public abstract class AbstractIndexReader implements BitmapIndexReader {
         }
     }
 
+    protected long[] newPackedValues(long[] values) {
+        final int count = BitmapIndexUtils.getPackedBlockValueCount(blockValueCountMod + 1);
+        return values != null && values.length >= count ? values : new long[count];
+    }
+
     protected void updateKeyCount() {
         int keyCount;
         final long deadline = clock.getTicks() + spinLockTimeoutUs;
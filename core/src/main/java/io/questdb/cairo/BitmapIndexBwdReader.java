@@ -78,17 +78,14 @@ public class BitmapIndexBwdReader extends AbstractIndexReader {
         protected long next;
         private long valueBlockOffset;
         private final BitmapIndexUtils.ValueBlockSeeker SEEKER = this::seekValue;
+        private long[] packedValues;
+        private int packedIndex;
+        private long countBefore;
 
         @Override
         public boolean hasNext() {
             if (valueCount > 0) {
-                long cellIndex = getValueCellIndex(--valueCount);
-                long result = valueMem.getLong(valueBlockOffset + cellIndex * 8);
-                if (cellIndex == 0 && valueCount > 0) {
-                    // we are at edge of block right now, next value will be in previous block
-                    jumpToPreviousValueBlock();
-                }
-
+                final long result = packed ? nextPackedValue() : nextValue();
                 if (result < minValue) {
                     valueCount = 0;
                     return false;
@@ -105,6 +102,11 @@ public class BitmapIndexBwdReader extends AbstractIndexReader {
             return next;
         }
 
+        private void decodePackedBlock(long upperCount) {
+            countBefore = valueMem.getLong(valueBlockOffset + BitmapIndexUtils.PACKED_BLOCK_OFFSET_COUNT_BEFORE);
+            BitmapIndexUtils.decodePackedBlock(valueMem, valueBlockOffset, (int) (upperCount - countBefore), packedValues);
+        }
+
         private long getPreviousBlock(long currentValueBlockOffset) {
             return valueMem.getLong(currentValueBlockOffset + blockCapacity - BitmapIndexUtils.VALUE_BLOCK_FILE_RESERVED);
         }
@@ -113,6 +115,28 @@ public class BitmapIndexBwdReader extends AbstractIndexReader {
             return absoluteValueIndex & blockValueCountMod;
         }
 
+        private long nextPackedValue() {
+            if (packedIndex < 0) {
+                // values of current block are exhausted, decode previous block
+                final long upperCount = countBefore;
+                valueBlockOffset = valueMem.getLong(valueBlockOffset + BitmapIndexUtils.PACKED_BLOCK_OFFSET_PREV);
+                decodePackedBlock(upperCount);
+                packedIndex = (int) (upperCount - countBefore) - 1;
+            }
+            valueCount--;
+            return packedValues[packedIndex--];
+        }
+
+        private long nextValue() {
+            long cellIndex = getValueCellIndex(--valueCount);
+            long result = valueMem.getLong(valueBlockOffset + cellIndex * 8);
+            if (cellIndex == 0 && valueCount > 0) {
+                // we are at edge of block right now, next value will be in previous block
+                jumpToPreviousValueBlock();
+            }
+            return result;
+        }
+
         private void jumpToPreviousValueBlock() {
             // we don't need to grow valueMem because we going from farthest block back to start of file
             // to closes, e.g. valueBlockOffset is decreasing.
@@ -150,7 +174,9 @@ public class BitmapIndexBwdReader extends AbstractIndexReader {
 
             valueMem.grow(valueBlockOffset + blockCapacity);
 
-            if (valueCount > 0) {
+            if (valueCount > 0 && packed) {
+                seekPackedValue(valueCount, valueBlockOffset, maxValue);
+            } else if (valueCount > 0) {
                 BitmapIndexUtils.seekValueBlockRTL(valueCount, valueBlockOffset, valueMem, maxValue, blockValueCountMod, SEEKER);
             } else {
                 seekValue(valueCount, valueBlockOffset);
@@ -158,6 +184,23 @@ public class BitmapIndexBwdReader extends AbstractIndexReader {
             this.minValue = minValue;
         }
 
+        private void seekPackedValue(long valueCount, long lastValueBlockOffset, long maxValue) {
+            this.packedValues = newPackedValues(packedValues);
+            this.valueBlockOffset = lastValueBlockOffset;
+            long upperCount = valueCount;
+            long countBefore = valueMem.getLong(valueBlockOffset + BitmapIndexUtils.PACKED_BLOCK_OFFSET_COUNT_BEFORE);
+            // skip blocks, which start above max value
+            while (countBefore > 0 && valueMem.getLong(valueBlockOffset + BitmapIndexUtils.PACKED_BLOCK_OFFSET_BASE) > maxValue) {
+                valueBlockOffset = valueMem.getLong(valueBlockOffset + BitmapIndexUtils.PACKED_BLOCK_OFFSET_PREV);
+                upperCount = countBefore;
+                countBefore = valueMem.getLong(valueBlockOffset + BitmapIndexUtils.PACKED_BLOCK_OFFSET_COUNT_BEFORE);
+            }
+            decodePackedBlock(upperCount);
+            final int count = BitmapIndexUtils.searchValues(packedValues, (int) (upperCount - this.countBefore), maxValue);
+            this.valueCount = this.countBefore + count;
+            this.packedIndex = count - 1;
+        }
+
         private void seekValue(long count, long offset) {
             this.valueCount = count;
             this.valueBlockOffset = offset;
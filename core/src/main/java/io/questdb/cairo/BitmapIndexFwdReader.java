@@ -79,23 +79,31 @@ public class BitmapIndexFwdReader extends AbstractIndexReader {
         private long valueBlockOffset;
         private final BitmapIndexUtils.ValueBlockSeeker SEEKER = this::seekValue;
         private long maxValue;
+        private long lastValueBlockOffset;
+        private long[] packedValues;
+        private int packedIndex;
+        private int packedCount;
 
         @Override
         public boolean hasNext() {
             if (position < valueCount) {
-                long cellIndex = getValueCellIndex(position++);
-                long result = valueMem.getLong(valueBlockOffset + cellIndex * 8);
+                final long result;
+                if (packed) {
+                    result = nextPackedValue();
+                } else {
+                    long cellIndex = getValueCellIndex(position++);
+                    result = valueMem.getLong(valueBlockOffset + cellIndex * 8);
+                    if (cellIndex == blockValueCountMod && position < valueCount && result <= maxValue) {
+                        // we are at edge of block right now, next value will be in previous block
+                        jumpToPreviousValueBlock();
+                    }
+                }
 
                 if (result > maxValue) {
                     valueCount = 0;
                     return false;
                 }
 
-                if (cellIndex == blockValueCountMod && position < valueCount) {
-                    // we are at edge of block right now, next value will be in previous block
-                    jumpToPreviousValueBlock();
-                }
-
                 this.next = result;
                 return true;
             }
@@ -107,6 +115,21 @@ public class BitmapIndexFwdReader extends AbstractIndexReader {
             return next;
         }
 
+        private void decodePackedBlock() {
+            final long countBefore = valueMem.getLong(valueBlockOffset + BitmapIndexUtils.PACKED_BLOCK_OFFSET_COUNT_BEFORE);
+            final long upperCount;
+            if (valueBlockOffset == lastValueBlockOffset) {
+                upperCount = valueCount;
+            } else {
+                // count of block that is followed by another block does not change
+                final long nextBlockOffset = valueMem.getLong(valueBlockOffset + BitmapIndexUtils.PACKED_BLOCK_OFFSET_NEXT);
+                upperCount = valueMem.getLong(nextBlockOffset + BitmapIndexUtils.PACKED_BLOCK_OFFSET_COUNT_BEFORE);
+            }
+            packedCount = (int) (upperCount - countBefore);
+            packedIndex = 0;
+            BitmapIndexUtils.decodePackedBlock(valueMem, valueBlockOffset, packedCount, packedValues);
+        }
+
         private long getNextBlock(long currentValueBlockOffset) {
             return valueMem.getLong(currentValueBlockOffset + blockCapacity - BitmapIndexUtils.VALUE_BLOCK_FILE_RESERVED + 8);
         }
@@ -121,6 +144,16 @@ public class BitmapIndexFwdReader extends AbstractIndexReader {
             valueBlockOffset = getNextBlock(valueBlockOffset);
         }
 
+        private long nextPackedValue() {
+            if (packedIndex == packedCount) {
+                // values of current block are exhausted, decode next block
+                valueBlockOffset = valueMem.getLong(valueBlockOffset + BitmapIndexUtils.PACKED_BLOCK_OFFSET_NEXT);
+                decodePackedBlock();
+            }
+            position++;
+            return packedValues[packedIndex++];
+        }
+
         void of(int key, long minValue, long maxValue) {
             assert key > -1 : "key must be positive integer: " + key;
             long offset = BitmapIndexUtils.getKeyEntryOffset(key);
@@ -154,7 +187,9 @@ public class BitmapIndexFwdReader extends AbstractIndexReader {
 
             valueMem.grow(lastValueBlockOffset + blockCapacity);
             this.valueCount = valueCount;
-            if (valueCount > 0) {
+            if (valueCount > 0 && packed) {
+                seekPackedValue(valueBlockOffset, lastValueBlockOffset, minValue);
+            } else if (valueCount > 0) {
                 BitmapIndexUtils.seekValueBlockLTR(valueCount, valueBlockOffset, valueMem, minValue, blockValueCountMod, SEEKER);
             } else {
                 seekValue(valueCount, valueBlockOffset);
@@ -163,6 +198,25 @@ public class BitmapIndexFwdReader extends AbstractIndexReader {
             this.maxValue = maxValue;
         }
 
+        private void seekPackedValue(long firstValueBlockOffset, long lastValueBlockOffset, long minValue) {
+            this.packedValues = newPackedValues(packedValues);
+            this.lastValueBlockOffset = lastValueBlockOffset;
+            this.valueBlockOffset = firstValueBlockOffset;
+            // skip blocks, which are followed by block starting below min value
+            while (valueBlockOffset != lastValueBlockOffset) {
+                final long nextBlockOffset = valueMem.getLong(valueBlockOffset + BitmapIndexUtils.PACKED_BLOCK_OFFSET_NEXT);
+                if (valueMem.getLong(nextBlockOffset + BitmapIndexUtils.PACKED_BLOCK_OFFSET_BASE) >= minValue) {
+                    break;
+                }
+                valueBlockOffset = nextBlockOffset;
+            }
+            decodePackedBlock();
+            if (minValue > packedValues[0]) {
+                packedIndex = BitmapIndexUtils.searchValues(packedValues, packedCount, minValue - 1);
+            }
+            this.position = valueMem.getLong(valueBlockOffset + BitmapIndexUtils.PACKED_BLOCK_OFFSET_COUNT_BEFORE) + packedIndex;
+        }
+
         private void seekValue(long count, long offset) {
             this.position = count;
             this.valueBlockOffset = offset;
@@ -47,6 +47,24 @@ public final class BitmapIndexUtils {
     static final byte SIGNATURE = (byte) 0xfa;
     static final int VALUE_BLOCK_FILE_RESERVED = 16;
 
+    /**
+     * Signature of index, which value blocks store deltas between consecutive values bit-packed
+     * at fixed width chosen for each block. Such blocks hold up to twice the configured block value count.
+     */
+    static final byte SIGNATURE_PACKED = (byte) 0xfb;
+
+    /**
+     * packed value block header offsets
+     */
+    static final int PACKED_BLOCK_OFFSET_PREV = 0;
+    static final int PACKED_BLOCK_OFFSET_NEXT = 8;
+    static final int PACKED_BLOCK_OFFSET_COUNT_BEFORE = 16;
+    static final int PACKED_BLOCK_OFFSET_BASE = 24;
+    static final int PACKED_BLOCK_OFFSET_LAST_VALUE = 32;
+    static final int PACKED_BLOCK_OFFSET_WIDTH = 40;
+    static final int PACKED_BLOCK_OFFSET_USED_WIDTH = 44;
+    static final int PACKED_BLOCK_RESERVED = 48;
+
     public static Path keyFileName(Path path, CharSequence name) {
         return path.concat(name).put(".k").$();
     }
@@ -178,6 +196,94 @@ public final class BitmapIndexUtils {
         return key * KEY_ENTRY_SIZE + KEY_FILE_RESERVED;
     }
 
+    /**
+     * Packed value block has fixed size header followed by 2 bytes per configured block value, which is
+     * 4 times less than classic value block.
+     *
+     * @param blockValueCount number of values in classic block
+     * @return size of packed value block in bytes
+     */
+    static int getPackedBlockCapacity(int blockValueCount) {
+        return PACKED_BLOCK_RESERVED + blockValueCount * 2;
+    }
+
+    static int getPackedBlockValueCount(int blockValueCount) {
+        return blockValueCount * 2;
+    }
+
+    /**
+     * Number of deltas packed block can hold at given bit width. First value of the block
+     * is stored in header and does not take a slot.
+     *
+     * @param blockValueCount number of values in classic block
+     * @param width           bit width of single delta
+     * @return number of delta slots in block
+     */
+    static int getPackedSlotCount(int blockValueCount, int width) {
+        return Math.min(blockValueCount * 2 - 1, blockValueCount * 16 / width);
+    }
+
+    static int getPackedWidth(long delta) {
+        return delta == 0 ? 1 : 64 - Long.numberOfLeadingZeros(delta);
+    }
+
+    static long getPackedBits(VirtualMemory memory, long offset, long bit, int width) {
+        final long wordOffset = offset + (bit >>> 6) * 8;
+        final int shift = (int) (bit & 63);
+        long bits = memory.getLong(wordOffset) >>> shift;
+        if (shift + width > 64) {
+            bits |= memory.getLong(wordOffset + 8) << (64 - shift);
+        }
+        return width == 64 ? bits : bits & ((1L << width) - 1);
+    }
+
+    /**
+     * Decodes values of packed block into array. Values are restored by adding deltas to base value
+     * of the block.
+     *
+     * @param memory      value block memory
+     * @param blockOffset offset of packed value block
+     * @param count       number of values to decode, it must not exceed number of values in the block
+     * @param values      array to receive values
+     */
+    static void decodePackedBlock(VirtualMemory memory, long blockOffset, int count, long[] values) {
+        long value = memory.getLong(blockOffset + PACKED_BLOCK_OFFSET_BASE);
+        values[0] = value;
+        if (count > 1) {
+            final int width = memory.getInt(blockOffset + PACKED_BLOCK_OFFSET_WIDTH);
+            final long offset = blockOffset + PACKED_BLOCK_RESERVED;
+            long bit = 0;
+            for (int i = 1; i < count; i++, bit += width) {
+                value += getPackedBits(memory, offset, bit, width);
+                values[i] = value;
+            }
+        }
+    }
+
+    /**
+     * Same as {@link #searchValueBlock(VirtualMemory, long, long, long)} but searches values decoded from
+     * packed block. Unlike its counterpart this method does not assume last value to be greater than
+     * searched value.
+     *
+     * @param values ordered list of values
+     * @param count  number of values in the list
+     * @param value  value we search for
+     * @return index directly behind the searched value or group of values if list contains duplicate values.
+     */
+    static int searchValues(long[] values, int count, long value) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (values[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
     /**
      * Searches ordered list of long values. Return value is either index behind matching value in the list or
      * index of where values would be inserted in order to maintain ascending order of the list. When list
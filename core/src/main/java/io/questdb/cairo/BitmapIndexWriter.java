@@ -39,8 +39,11 @@ public class BitmapIndexWriter implements Closeable {
     private final ReadWriteMemory keyMem = new ReadWriteMemory();
     private final ReadWriteMemory valueMem = new ReadWriteMemory();
     private final Cursor cursor = new Cursor();
+    private final PackedCursor packedCursor = new PackedCursor();
     private int blockCapacity;
     private int blockValueCountMod;
+    private boolean packed;
+    private long[] packedValues;
     private long valueMemSize = -1;
     private int keyCount = -1;
     private long seekValueCount;
@@ -55,11 +58,24 @@ public class BitmapIndexWriter implements Closeable {
     }
 
     public static void initKeyMemory(VirtualMemory keyMem, int blockValueCount) {
+        initKeyMemory(keyMem, blockValueCount, false);
+    }
+
+    /**
+     * Initializes header of index key file.
+     *
+     * @param keyMem          key memory
+     * @param blockValueCount number of values in value block, must be power of 2
+     * @param packed          when true value blocks will store bit-packed deltas between values instead of values.
+     *                        Such index is considerably smaller when values are ascending and close to each other,
+     *                        which is the case for row ids of symbol columns.
+     */
+    public static void initKeyMemory(VirtualMemory keyMem, int blockValueCount, boolean packed) {
 
         // block value count must be power of 2
         assert blockValueCount == Numbers.ceilPow2(blockValueCount);
 
-        keyMem.putByte(BitmapIndexUtils.SIGNATURE);
+        keyMem.putByte(packed ? BitmapIndexUtils.SIGNATURE_PACKED : BitmapIndexUtils.SIGNATURE);
         keyMem.putLong(1); // SEQUENCE
         Unsafe.getUnsafe().storeFence();
         keyMem.putLong(0); // VALUE MEM SIZE
@@ -82,6 +98,10 @@ public class BitmapIndexWriter implements Closeable {
      */
     public void add(int key, long value) {
         assert key > -1 : "key must be positive integer: " + key;
+        if (packed) {
+            addPacked(key, value);
+            return;
+        }
         final long offset = BitmapIndexUtils.getKeyEntryOffset(key);
         if (key < keyCount) {
             // when key exists we have possible outcomes with regards to values
@@ -133,6 +153,10 @@ public class BitmapIndexWriter implements Closeable {
 
     public RowCursor getCursor(int key) {
         if (key < keyCount) {
+            if (packed) {
+                packedCursor.of(key);
+                return packedCursor;
+            }
             cursor.of(key);
             return cursor;
         }
@@ -160,10 +184,12 @@ public class BitmapIndexWriter implements Closeable {
             }
 
             // verify header signature
-            if (this.keyMem.getByte(BitmapIndexUtils.KEY_RESERVED_OFFSET_SIGNATURE) != BitmapIndexUtils.SIGNATURE) {
+            final byte signature = this.keyMem.getByte(BitmapIndexUtils.KEY_RESERVED_OFFSET_SIGNATURE);
+            if (signature != BitmapIndexUtils.SIGNATURE && signature != BitmapIndexUtils.SIGNATURE_PACKED) {
                 LOG.error().$("unknown format [corrupt] ").$(path).$();
                 throw CairoException.instance(0).put("Unknown format: ").put(path);
             }
+            this.packed = signature == BitmapIndexUtils.SIGNATURE_PACKED;
 
             // verify key count
             this.keyCount = this.keyMem.getInt(BitmapIndexUtils.KEY_RESERVED_OFFSET_KEY_COUNT);
@@ -190,7 +216,15 @@ public class BitmapIndexWriter implements Closeable {
             // to calculate remainder we use faster 'x & (count-1)', which is equivalent to (x % count)
             this.blockValueCountMod = this.keyMem.getInt(BitmapIndexUtils.KEY_RESERVED_OFFSET_BLOCK_VALUE_COUNT) - 1;
             assert blockValueCountMod > 0;
-            this.blockCapacity = (this.blockValueCountMod + 1) * 8 + BitmapIndexUtils.VALUE_BLOCK_FILE_RESERVED;
+            if (packed) {
+                this.blockCapacity = BitmapIndexUtils.getPackedBlockCapacity(this.blockValueCountMod + 1);
+                final int packedValueCount = BitmapIndexUtils.getPackedBlockValueCount(this.blockValueCountMod + 1);
+                if (this.packedValues == null || this.packedValues.length < packedValueCount) {
+                    this.packedValues = new long[packedValueCount];
+                }
+            } else {
+                this.blockCapacity = (this.blockValueCountMod + 1) * 8 + BitmapIndexUtils.VALUE_BLOCK_FILE_RESERVED;
+            }
         } catch (CairoException e) {
             this.close();
             throw e;
@@ -206,6 +240,10 @@ public class BitmapIndexWriter implements Closeable {
      * @param maxValue maximum value allowed in index.
      */
     public void rollbackValues(long maxValue) {
+        if (packed) {
+            rollbackPackedValues(maxValue);
+            return;
+        }
 
         long maxValueBlockOffset = 0;
         for (int k = 0; k < keyCount; k++) {
@@ -238,6 +276,65 @@ public class BitmapIndexWriter implements Closeable {
         updateValueMemSize();
     }
 
+    private void addPacked(int key, long value) {
+        final long offset = BitmapIndexUtils.getKeyEntryOffset(key);
+        if (key < keyCount) {
+            final long valueCount = keyMem.getLong(offset + BitmapIndexUtils.KEY_ENTRY_OFFSET_VALUE_COUNT);
+            if (valueCount > 0) {
+                final long valueBlockOffset = keyMem.getLong(offset + BitmapIndexUtils.KEY_ENTRY_OFFSET_LAST_VALUE_BLOCK_OFFSET);
+                assert valueBlockOffset + blockCapacity <= valueMemSize;
+                final long delta = value - valueMem.getLong(valueBlockOffset + BitmapIndexUtils.PACKED_BLOCK_OFFSET_LAST_VALUE);
+                int width = valueMem.getInt(valueBlockOffset + BitmapIndexUtils.PACKED_BLOCK_OFFSET_WIDTH);
+                final int nextWidth;
+                // values are ascending in the block, out of order value always starts new block
+                if (delta > -1) {
+                    final long slot = valueCount - valueMem.getLong(valueBlockOffset + BitmapIndexUtils.PACKED_BLOCK_OFFSET_COUNT_BEFORE) - 1;
+                    final int deltaWidth = BitmapIndexUtils.getPackedWidth(delta);
+                    if (slot == 0) {
+                        // until block has its first delta, width field holds width suggested by previous block
+                        width = Math.max(deltaWidth, width);
+                        valueMem.putInt(valueBlockOffset + BitmapIndexUtils.PACKED_BLOCK_OFFSET_WIDTH, width);
+                    }
+
+                    if (deltaWidth <= width) {
+                        if (slot < BitmapIndexUtils.getPackedSlotCount(blockValueCountMod + 1, width)) {
+                            appendPackedValue(offset, valueBlockOffset, valueCount, slot * width, width, delta, deltaWidth, value);
+                            return;
+                        }
+                        // block is full, next block can be as narrow as deltas we actually stored
+                        nextWidth = valueMem.getInt(valueBlockOffset + BitmapIndexUtils.PACKED_BLOCK_OFFSET_USED_WIDTH);
+                    } else {
+                        // delta is too wide, widen next block but do not let one large gap inflate it
+                        nextWidth = Math.min(deltaWidth, width + 2);
+                    }
+                } else {
+                    nextWidth = width;
+                }
+                addPackedValueBlockAndStoreValue(offset, valueBlockOffset, valueCount, value, nextWidth);
+            } else {
+                initPackedValueBlockAndStoreValue(offset, value);
+            }
+        } else {
+            initPackedValueBlockAndStoreValue(offset, value);
+            updateKeyCount(key);
+        }
+    }
+
+    private void addPackedValueBlockAndStoreValue(long offset, long valueBlockOffset, long valueCount, long value, int width) {
+        final long newValueBlockOffset = allocatePackedValueBlockAndStore(value, valueCount, valueBlockOffset, width);
+
+        // link previous block to the new one before count makes new block visible to readers
+        valueMem.putLong(valueBlockOffset + BitmapIndexUtils.PACKED_BLOCK_OFFSET_NEXT, newValueBlockOffset);
+
+        Unsafe.getUnsafe().storeFence();
+        keyMem.putLong(offset, valueCount + 1);
+        Unsafe.getUnsafe().storeFence();
+        keyMem.putLong(offset + BitmapIndexUtils.KEY_ENTRY_OFFSET_LAST_VALUE_BLOCK_OFFSET, newValueBlockOffset);
+        Unsafe.getUnsafe().storeFence();
+        keyMem.putLong(offset + BitmapIndexUtils.KEY_ENTRY_OFFSET_COUNT_CHECK, valueCount + 1);
+        Unsafe.getUnsafe().storeFence();
+    }
+
     private void addValueBlockAndStoreValue(long offset, long valueBlockOffset, long valueCount, long value) {
         long newValueBlockOffset = allocateValueBlockAndStore(value);
 
@@ -290,6 +387,42 @@ public class BitmapIndexWriter implements Closeable {
         return newValueBlockOffset;
     }
 
+    private long allocatePackedValueBlockAndStore(long value, long countBefore, long prevValueBlockOffset, int width) {
+        final long newValueBlockOffset = valueMemSize;
+        valueMem.jumpTo(valueMemSize + blockCapacity);
+
+        // deltas are OR-ed into the block, memory may be left over from rolled back values and must be cleared
+        for (long p = newValueBlockOffset, lim = newValueBlockOffset + blockCapacity; p < lim; p += 8) {
+            valueMem.putLong(p, 0);
+        }
+        valueMem.putLong(newValueBlockOffset + BitmapIndexUtils.PACKED_BLOCK_OFFSET_PREV, prevValueBlockOffset);
+        valueMem.putLong(newValueBlockOffset + BitmapIndexUtils.PACKED_BLOCK_OFFSET_COUNT_BEFORE, countBefore);
+        valueMem.putLong(newValueBlockOffset + BitmapIndexUtils.PACKED_BLOCK_OFFSET_BASE, value);
+        valueMem.putLong(newValueBlockOffset + BitmapIndexUtils.PACKED_BLOCK_OFFSET_LAST_VALUE, value);
+        valueMem.putInt(newValueBlockOffset + BitmapIndexUtils.PACKED_BLOCK_OFFSET_WIDTH, width);
+
+        valueMemSize += blockCapacity;
+        updateValueMemSize();
+        return newValueBlockOffset;
+    }
+
+    private void appendPackedValue(long offset, long valueBlockOffset, long valueCount, long bit, int width, long delta, int deltaWidth, long value) {
+        // readers do not look past value count, so it is safe to OR bits into words they may be reading
+        final long wordOffset = valueBlockOffset + BitmapIndexUtils.PACKED_BLOCK_RESERVED + (bit >>> 6) * 8;
+        final int shift = (int) (bit & 63);
+        valueMem.putLong(wordOffset, valueMem.getLong(wordOffset) | (delta << shift));
+        if (shift + width > 64) {
+            valueMem.putLong(wordOffset + 8, valueMem.getLong(wordOffset + 8) | (delta >>> (64 - shift)));
+        }
+        valueMem.putLong(valueBlockOffset + BitmapIndexUtils.PACKED_BLOCK_OFFSET_LAST_VALUE, value);
+        if (deltaWidth > valueMem.getInt(valueBlockOffset + BitmapIndexUtils.PACKED_BLOCK_OFFSET_USED_WIDTH)) {
+            valueMem.putInt(valueBlockOffset + BitmapIndexUtils.PACKED_BLOCK_OFFSET_USED_WIDTH, deltaWidth);
+        }
+        Unsafe.getUnsafe().storeFence();
+        keyMem.putLong(offset, valueCount + 1);
+        keyMem.putLong(offset + BitmapIndexUtils.KEY_ENTRY_OFFSET_COUNT_CHECK, valueCount + 1);
+    }
+
     private void appendValue(long offset, long valueBlockOffset, long valueCount, int valueCellIndex, long value) {
         // first set value
         valueMem.putLong(valueBlockOffset + valueCellIndex * 8L, value);
@@ -324,10 +457,86 @@ public class BitmapIndexWriter implements Closeable {
         Unsafe.getUnsafe().storeFence();
     }
 
+    private void clearPackedBits(long valueBlockOffset, long bit) {
+        long wordOffset = valueBlockOffset + BitmapIndexUtils.PACKED_BLOCK_RESERVED + (bit >>> 6) * 8;
+        final int shift = (int) (bit & 63);
+        if (shift > 0) {
+            valueMem.putLong(wordOffset, valueMem.getLong(wordOffset) & ((1L << shift) - 1));
+            wordOffset += 8;
+        }
+        for (long lim = valueBlockOffset + blockCapacity; wordOffset < lim; wordOffset += 8) {
+            valueMem.putLong(wordOffset, 0);
+        }
+    }
+
+    private void initPackedValueBlockAndStoreValue(long offset, long value) {
+        final long newValueBlockOffset = allocatePackedValueBlockAndStore(value, 0, -1, 0);
+
+        Unsafe.getUnsafe().storeFence();
+        keyMem.putLong(offset, 1);
+        Unsafe.getUnsafe().storeFence();
+        keyMem.putLong(offset + BitmapIndexUtils.KEY_ENTRY_OFFSET_FIRST_VALUE_BLOCK_OFFSET, newValueBlockOffset);
+        keyMem.putLong(offset + BitmapIndexUtils.KEY_ENTRY_OFFSET_LAST_VALUE_BLOCK_OFFSET, newValueBlockOffset);
+        Unsafe.getUnsafe().storeFence();
+        keyMem.putLong(offset + BitmapIndexUtils.KEY_ENTRY_OFFSET_COUNT_CHECK, 1);
+        Unsafe.getUnsafe().storeFence();
+    }
+
     private long keyMemSize() {
         return this.keyCount * BitmapIndexUtils.KEY_ENTRY_SIZE + BitmapIndexUtils.KEY_FILE_RESERVED;
     }
 
+    private void rollbackPackedValues(long maxValue) {
+        long maxValueBlockOffset = 0;
+        for (int k = 0; k < keyCount; k++) {
+            final long offset = BitmapIndexUtils.getKeyEntryOffset(k);
+            final long valueCount = keyMem.getLong(offset + BitmapIndexUtils.KEY_ENTRY_OFFSET_VALUE_COUNT);
+
+            if (valueCount > 0) {
+                final long lastBlockOffset = keyMem.getLong(offset + BitmapIndexUtils.KEY_ENTRY_OFFSET_LAST_VALUE_BLOCK_OFFSET);
+                long blockOffset = lastBlockOffset;
+                long countBefore = valueMem.getLong(blockOffset + BitmapIndexUtils.PACKED_BLOCK_OFFSET_COUNT_BEFORE);
+                long blockValueCount = valueCount - countBefore;
+
+                // skip blocks, which start above max value
+                while (countBefore > 0 && valueMem.getLong(blockOffset + BitmapIndexUtils.PACKED_BLOCK_OFFSET_BASE) > maxValue) {
+                    blockOffset = valueMem.getLong(blockOffset + BitmapIndexUtils.PACKED_BLOCK_OFFSET_PREV);
+                    final long prevCountBefore = valueMem.getLong(blockOffset + BitmapIndexUtils.PACKED_BLOCK_OFFSET_COUNT_BEFORE);
+                    blockValueCount = countBefore - prevCountBefore;
+                    countBefore = prevCountBefore;
+                }
+
+                BitmapIndexUtils.decodePackedBlock(valueMem, blockOffset, (int) blockValueCount, packedValues);
+                final int keep = BitmapIndexUtils.searchValues(packedValues, (int) blockValueCount, maxValue);
+                final long newValueCount = countBefore + keep;
+
+                if (newValueCount != valueCount) {
+                    if (keep > 0) {
+                        // values appended later are OR-ed into the block, bits of removed values must go
+                        final int width = valueMem.getInt(blockOffset + BitmapIndexUtils.PACKED_BLOCK_OFFSET_WIDTH);
+                        clearPackedBits(blockOffset, (long) (keep - 1) * width);
+                        valueMem.putLong(blockOffset + BitmapIndexUtils.PACKED_BLOCK_OFFSET_LAST_VALUE, packedValues[keep - 1]);
+                        valueMem.putLong(blockOffset + BitmapIndexUtils.PACKED_BLOCK_OFFSET_NEXT, 0);
+                    }
+
+                    keyMem.putLong(offset + BitmapIndexUtils.KEY_ENTRY_OFFSET_VALUE_COUNT, newValueCount);
+                    if (blockOffset != lastBlockOffset) {
+                        Unsafe.getUnsafe().storeFence();
+                        keyMem.putLong(offset + BitmapIndexUtils.KEY_ENTRY_OFFSET_LAST_VALUE_BLOCK_OFFSET, blockOffset);
+                        Unsafe.getUnsafe().storeFence();
+                    }
+                    keyMem.putLong(offset + BitmapIndexUtils.KEY_ENTRY_OFFSET_COUNT_CHECK, newValueCount);
+                }
+
+                if (blockOffset > maxValueBlockOffset) {
+                    maxValueBlockOffset = blockOffset;
+                }
+            }
+        }
+        valueMemSize = maxValueBlockOffset + blockCapacity;
+        updateValueMemSize();
+    }
+
     private void seek(long count, long offset) {
         this.seekValueCount = count;
         this.seekValueBlockOffset = offset;
@@ -394,4 +603,45 @@ public class BitmapIndexWriter implements Closeable {
             this.valueBlockOffset = keyMem.getLong(offset + BitmapIndexUtils.KEY_ENTRY_OFFSET_LAST_VALUE_BLOCK_OFFSET);
         }
     }
+
+    private class PackedCursor implements RowCursor {
+        private long valueBlockOffset;
+        private long valueCount;
+        private long countBefore;
+        private int index;
+
+        @Override
+        public boolean hasNext() {
+            return valueCount > 0;
+        }
+
+        @Override
+        public long next() {
+            if (index < 0) {
+                // values of current block are exhausted, decode previous block
+                valueBlockOffset = valueMem.getLong(valueBlockOffset + BitmapIndexUtils.PACKED_BLOCK_OFFSET_PREV);
+                decode(countBefore);
+            }
+            valueCount--;
+            return packedValues[index--];
+        }
+
+        private void decode(long upperCount) {
+            countBefore = valueMem.getLong(valueBlockOffset + BitmapIndexUtils.PACKED_BLOCK_OFFSET_COUNT_BEFORE);
+            final int count = (int) (upperCount - countBefore);
+            BitmapIndexUtils.decodePackedBlock(valueMem, valueBlockOffset, count, packedValues);
+            index = count - 1;
+        }
+
+        void of(int key) {
+            assert key > -1 : "key must be positive integer: " + key;
+            long offset = BitmapIndexUtils.getKeyEntryOffset(key);
+            this.valueCount = keyMem.getLong(offset + BitmapIndexUtils.KEY_ENTRY_OFFSET_VALUE_COUNT);
+            assert valueCount > -1;
+            if (valueCount > 0) {
+                this.valueBlockOffset = keyMem.getLong(offset + BitmapIndexUtils.KEY_ENTRY_OFFSET_LAST_VALUE_BLOCK_OFFSET);
+                decode(valueCount);
+            }
+        }
+    }
 }
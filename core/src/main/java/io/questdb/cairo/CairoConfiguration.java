@@ -33,6 +33,8 @@ public interface CairoConfiguration {
 
     int getSqlCopyBufferSize();
 
+    int getColumnIndexerQueueCapacity();
+
     int getCopyPoolCapacity();
 
     int getCreateAsSelectRetryCount();
@@ -47,6 +49,10 @@ public interface CairoConfiguration {
 
     FilesFacade getFilesFacade();
 
+    int getGroupByQueueCapacity();
+
+    int getHashJoinQueueCapacity();
+
     long getIdleCheckInterval();
 
     long getInactiveReaderTTL();
@@ -63,6 +69,8 @@ public interface CairoConfiguration {
 
     int getMkDirMode();
 
+    int getOutOfOrderPageSize();
+
     int getParallelIndexThreshold();
 
     int getReaderPoolMaxSegments();
@@ -101,8 +109,28 @@ public interface CairoConfiguration {
 
     int getSqlSortLightValuePageSize();
 
+    /**
+     * Memory held by sort keys of a single "order by" before they are spilled to disk.
+     */
+    long getSqlSortSpillThreshold();
+
+    /**
+     * Directory for temporary files of queries, which spill to disk.
+     */
+    CharSequence getSqlSpillRoot();
+
     int getSqlHashJoinValuePageSize();
 
+    /**
+     * Memory held by build side of a single hash join before both sides are partitioned to disk.
+     */
+    long getSqlHashJoinSpillThreshold();
+
+    /**
+     * Number of disk partitions of each side of hash join, which exceeded spill threshold.
+     */
+    int getSqlHashJoinSpillPartitionCount();
+
     long getSqlLatestByRowCount();
 
     int getSqlHashJoinLightValuePageSize();
@@ -111,10 +139,32 @@ public interface CairoConfiguration {
 
     TextConfiguration getTextConfiguration();
 
+    int getTextImportQueueCapacity();
+
+    int getVectorAggregateQueueCapacity();
+
     long getWorkStealTimeoutNanos();
 
+    boolean isOutOfOrderEnabled();
+
+    boolean isParallelGroupByEnabled();
+
+    boolean isParallelHashJoinEnabled();
+
+    boolean isParallelImportEnabled();
+
     boolean isParallelIndexingEnabled();
 
+    boolean isIndexPackingEnabled();
+
+    boolean isPartitionStatsEnabled();
+
+    boolean isVectorAggregationEnabled();
+
+    boolean isVectorFilterEnabled();
+
+    boolean isSqlJitEnabled();
+
     /**
      * This holds table metadata, which is usually quite small. 16K page should be adequate.
      *
@@ -28,6 +28,10 @@ import io.questdb.cairo.pool.PoolListener;
 import io.questdb.cairo.pool.ReaderPool;
 import io.questdb.cairo.pool.WriterPool;
 import io.questdb.cairo.sql.ReaderOutOfDateException;
+import io.questdb.cutlass.text.TextImportJob;
+import io.questdb.griffin.engine.groupby.GroupByShardJob;
+import io.questdb.griffin.engine.groupby.vect.VectorAggregateJob;
+import io.questdb.griffin.engine.join.HashJoinProbeJob;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.mp.SynchronizedJob;
@@ -40,6 +44,7 @@ import io.questdb.std.str.Path;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class CairoEngine implements Closeable {
     private static final Log LOG = LogFactory.getLog(CairoEngine.class);
@@ -47,6 +52,9 @@ public class CairoEngine implements Closeable {
     private final WriterPool writerPool;
     private final ReaderPool readerPool;
     private final CairoConfiguration configuration;
+    private final CairoWorkScheduler workScheduler;
+    // incremented by every DDL that changes or removes a table, lets query caches drop compiled plans eagerly
+    private final AtomicLong structureVersion = new AtomicLong();
 
     public CairoEngine(CairoConfiguration configuration) {
         this(configuration, null);
@@ -54,11 +62,16 @@ public class CairoEngine implements Closeable {
 
     public CairoEngine(CairoConfiguration configuration, CairoWorkScheduler workScheduler) {
         this.configuration = configuration;
+        this.workScheduler = workScheduler;
         this.writerPool = new WriterPool(configuration, workScheduler);
         this.readerPool = new ReaderPool(configuration);
         if (workScheduler != null) {
             workScheduler.addJob(new WriterMaintenanceJob(configuration));
             workScheduler.addJob(new ColumnIndexerJob(workScheduler));
+            workScheduler.addJob(new VectorAggregateJob(workScheduler));
+            workScheduler.addJob(new GroupByShardJob(workScheduler));
+            workScheduler.addJob(new HashJoinProbeJob(workScheduler));
+            workScheduler.addJob(new TextImportJob(workScheduler));
         }
     }
 
@@ -84,6 +97,10 @@ public class CairoEngine implements Closeable {
         );
     }
 
+    public void bumpStructureVersion() {
+        structureVersion.incrementAndGet();
+    }
+
     public int getBusyReaderCount() {
         return readerPool.getBusyCount();
     }
@@ -96,6 +113,15 @@ public class CairoEngine implements Closeable {
         return configuration;
     }
 
+    public long getStructureVersion() {
+        return structureVersion.get();
+    }
+
+    @Nullable
+    public CairoWorkScheduler getWorkScheduler() {
+        return workScheduler;
+    }
+
     public PoolListener getPoolListener() {
         return this.writerPool.getPoolListener();
     }
@@ -193,6 +219,7 @@ public class CairoEngine implements Closeable {
                     LOG.error().$("remove failed [tableName='").utf8(tableName).$("', error=").$(error).$(']').$();
                     throw CairoException.instance(error).put("Table remove failed");
                 }
+                bumpStructureVersion();
                 return;
             } finally {
                 unlock(securityContext, tableName, null);
@@ -217,6 +244,7 @@ public class CairoEngine implements Closeable {
         if (lock(securityContext, tableName)) {
             try {
                 rename0(path, tableName, otherPath, newName);
+                bumpStructureVersion();
             } finally {
                 unlock(securityContext, tableName, null);
             }
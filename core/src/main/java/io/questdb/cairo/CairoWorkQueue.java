@@ -0,0 +1,63 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.mp.MCSequence;
+import io.questdb.mp.MPSequence;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.Sequence;
+
+/**
+ * Ring queue of tasks together with its publisher and subscriber sequences.
+ * Query threads publish tasks, jobs running on worker pool consume them.
+ */
+public class CairoWorkQueue<T> {
+    private final RingQueue<T> queue;
+    private final Sequence pubSeq;
+    private final Sequence subSeq;
+
+    public CairoWorkQueue(RingQueue<T> queue, Sequence pubSeq, Sequence subSeq) {
+        this.queue = queue;
+        this.pubSeq = pubSeq;
+        this.subSeq = subSeq;
+    }
+
+    public CairoWorkQueue(RingQueue<T> queue) {
+        this(queue, new MPSequence(queue.getCapacity()), new MCSequence(queue.getCapacity()));
+        pubSeq.then(subSeq).then(pubSeq);
+    }
+
+    public Sequence getPubSequence() {
+        return pubSeq;
+    }
+
+    public RingQueue<T> getQueue() {
+        return queue;
+    }
+
+    public Sequence getSubSequence() {
+        return subSeq;
+    }
+}
@@ -0,0 +1,60 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.mp.RingQueue;
+import io.questdb.std.ObjectFactory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Key under which {@link CairoWorkScheduler} looks up queue of particular task type.
+ * Types are declared as constants next to their queue entry classes.
+ */
+public final class CairoWorkQueueType<T> {
+    private static final AtomicInteger ID_SEQ = new AtomicInteger();
+    private final int id;
+    private final ObjectFactory<T> factory;
+    private final CapacityProvider capacityProvider;
+
+    public CairoWorkQueueType(ObjectFactory<T> factory, CapacityProvider capacityProvider) {
+        this.id = ID_SEQ.getAndIncrement();
+        this.factory = factory;
+        this.capacityProvider = capacityProvider;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public CairoWorkQueue<T> newQueue(CairoConfiguration configuration) {
+        return new CairoWorkQueue<>(new RingQueue<>(factory, capacityProvider.getCapacity(configuration)));
+    }
+
+    @FunctionalInterface
+    public interface CapacityProvider {
+        int getCapacity(CairoConfiguration configuration);
+    }
+}
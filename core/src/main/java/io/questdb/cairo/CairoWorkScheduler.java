@@ -25,15 +25,11 @@
 package io.questdb.cairo;
 
 import io.questdb.mp.Job;
-import io.questdb.mp.RingQueue;
-import io.questdb.mp.Sequence;
 
 public interface CairoWorkScheduler {
     void addJob(Job job);
 
-    Sequence getIndexerPubSequence();
+    <T> CairoWorkQueue<T> getWorkQueue(CairoWorkQueueType<T> type);
 
-    RingQueue<ColumnIndexerEntry> getIndexerQueue();
-
-    Sequence getIndexerSubSequence();
+    int getWorkerCount();
 }
@@ -26,20 +26,8 @@ package io.questdb.cairo;
 
 import io.questdb.std.str.Path;
 
-interface ColumnIndexer {
-    void distress();
-
-    long getFd();
-
-    long getSequence();
-
-    void index(long loRow, long hiRow);
-
-    boolean isDistressed();
-
+interface ColumnIndexer extends ColumnIndexerTask {
     void of(CairoConfiguration configuration, Path path, CharSequence name, AppendMemory mem1, long columnTop);
 
     void rollback(long maxRow);
-
-    boolean tryLock(long expectedSequence);
 }
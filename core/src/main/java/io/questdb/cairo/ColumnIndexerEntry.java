@@ -27,7 +27,9 @@ package io.questdb.cairo;
 import io.questdb.mp.SOCountDownLatch;
 
 class ColumnIndexerEntry {
-    ColumnIndexer indexer;
+    static final CairoWorkQueueType<ColumnIndexerEntry> QUEUE_TYPE = new CairoWorkQueueType<>(ColumnIndexerEntry::new, CairoConfiguration::getColumnIndexerQueueCapacity);
+
+    ColumnIndexerTask indexer;
     long lo;
     long hi;
     SOCountDownLatch countDownLatch;
@@ -34,8 +34,9 @@ class ColumnIndexerJob implements Job {
     private final Sequence sequence;
 
     public ColumnIndexerJob(CairoWorkScheduler workScheduler) {
-        this.queue = workScheduler.getIndexerQueue();
-        this.sequence = workScheduler.getIndexerSubSequence();
+        final CairoWorkQueue<ColumnIndexerEntry> workQueue = workScheduler.getWorkQueue(ColumnIndexerEntry.QUEUE_TYPE);
+        this.queue = workQueue.getQueue();
+        this.sequence = workQueue.getSubSequence();
     }
 
     @Override
@@ -47,7 +48,7 @@ class ColumnIndexerJob implements Job {
 
         ColumnIndexerEntry queueItem = queue.get(cursor);
         // copy values and release queue item
-        final ColumnIndexer indexer = queueItem.indexer;
+        final ColumnIndexerTask indexer = queueItem.indexer;
         final long lo = queueItem.lo;
         final long hi = queueItem.hi;
         final long indexSequence = queueItem.sequence;
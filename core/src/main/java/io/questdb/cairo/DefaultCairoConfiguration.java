@@ -35,13 +35,23 @@ import io.questdb.std.microtime.MicrosecondClockImpl;
 import io.questdb.std.time.MillisecondClock;
 import io.questdb.std.time.MillisecondClockImpl;
 
+import java.io.File;
+
 public class DefaultCairoConfiguration implements CairoConfiguration {
 
     private final CharSequence root;
+    private final CharSequence spillRoot;
     private final TextConfiguration textConfiguration = new DefaultTextConfiguration();
 
     public DefaultCairoConfiguration(CharSequence root) {
         this.root = Chars.stringOf(root);
+        // sibling of db root, directory inside root would clash with table of the same name
+        this.spillRoot = new File(this.root.toString()).getAbsolutePath() + ".tmp";
+    }
+
+    @Override
+    public int getColumnIndexerQueueCapacity() {
+        return 1024;
     }
 
     @Override
@@ -74,6 +84,16 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return FilesFacadeImpl.INSTANCE;
     }
 
+    @Override
+    public int getGroupByQueueCapacity() {
+        return 1024;
+    }
+
+    @Override
+    public int getHashJoinQueueCapacity() {
+        return 1024;
+    }
+
     @Override
     public long getIdleCheckInterval() {
         return 100;
@@ -114,6 +134,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 509;
     }
 
+    @Override
+    public int getOutOfOrderPageSize() {
+        return 256 * 1024;
+    }
+
     @Override
     public int getParallelIndexThreshold() {
         return 100000;
@@ -211,11 +236,31 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return Numbers.SIZE_1MB;
     }
 
+    @Override
+    public long getSqlSortSpillThreshold() {
+        return 1024L * Numbers.SIZE_1MB;
+    }
+
+    @Override
+    public CharSequence getSqlSpillRoot() {
+        return spillRoot;
+    }
+
     @Override
     public int getSqlHashJoinValuePageSize() {
         return Numbers.SIZE_1MB * 16;
     }
 
+    @Override
+    public long getSqlHashJoinSpillThreshold() {
+        return 1024L * Numbers.SIZE_1MB;
+    }
+
+    @Override
+    public int getSqlHashJoinSpillPartitionCount() {
+        return 16;
+    }
+
     @Override
     public long getSqlLatestByRowCount() {
         return 1000;
@@ -231,16 +276,66 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return Numbers.SIZE_1MB * 16;
     }
 
+    @Override
+    public int getVectorAggregateQueueCapacity() {
+        return 1024;
+    }
+
     @Override
     public long getWorkStealTimeoutNanos() {
         return 10000;
     }
 
+    @Override
+    public boolean isOutOfOrderEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isParallelGroupByEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isParallelHashJoinEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isParallelImportEnabled() {
+        return true;
+    }
+
     @Override
     public boolean isParallelIndexingEnabled() {
         return true;
     }
 
+    @Override
+    public boolean isIndexPackingEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isPartitionStatsEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isVectorAggregationEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isVectorFilterEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlJitEnabled() {
+        return false;
+    }
+
     @Override
     public int getSqlJoinMetadataPageSize() {
         return 16 * 1024;
@@ -290,4 +385,9 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
     public TextConfiguration getTextConfiguration() {
         return textConfiguration;
     }
+
+    @Override
+    public int getTextImportQueueCapacity() {
+        return 64;
+    }
 }
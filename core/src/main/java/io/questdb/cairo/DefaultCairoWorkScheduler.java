@@ -0,0 +1,66 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.mp.Job;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.ObjList;
+
+/**
+ * Work scheduler that runs Cairo jobs on shared worker pool. Jobs must be
+ * added before the pool is started. Queues are created on first lookup
+ * of their type.
+ */
+public class DefaultCairoWorkScheduler implements CairoWorkScheduler {
+    private final CairoConfiguration configuration;
+    private final WorkerPool workerPool;
+    private final ObjList<CairoWorkQueue<?>> queues = new ObjList<>();
+
+    public DefaultCairoWorkScheduler(CairoConfiguration configuration, WorkerPool workerPool) {
+        this.configuration = configuration;
+        this.workerPool = workerPool;
+    }
+
+    @Override
+    public void addJob(Job job) {
+        workerPool.assign(job);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public synchronized <T> CairoWorkQueue<T> getWorkQueue(CairoWorkQueueType<T> type) {
+        CairoWorkQueue<?> queue = queues.getQuiet(type.getId());
+        if (queue == null) {
+            queue = type.newQueue(configuration);
+            queues.extendAndSet(type.getId(), queue);
+        }
+        return (CairoWorkQueue<T>) queue;
+    }
+
+    @Override
+    public int getWorkerCount() {
+        return workerPool.getWorkerCount();
+    }
+}
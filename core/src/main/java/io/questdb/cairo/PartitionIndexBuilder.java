@@ -0,0 +1,149 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.std.FilesFacade;
+import io.questdb.std.Misc;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+
+/**
+ * Builds index files of one partition from column data already on disk. Unlike {@link SymbolColumnIndexer}
+ * builder does not follow column being appended to. It maps column file read-only and keeps files open only
+ * while {@link #index(long, long)} runs, which makes it safe to publish many builders on indexer queue at once.
+ */
+class PartitionIndexBuilder implements ColumnIndexerTask, Closeable {
+
+    private static final long SEQUENCE_OFFSET;
+
+    static {
+        SEQUENCE_OFFSET = Unsafe.getFieldOffset(PartitionIndexBuilder.class, "sequence");
+    }
+
+    private final CairoConfiguration configuration;
+    private final Path path = new Path();
+    private final AppendMemory initMem = new AppendMemory();
+    private final ReadOnlyMemory mem = new ReadOnlyMemory();
+    private final BitmapIndexWriter writer = new BitmapIndexWriter();
+    private final CharSequence name;
+    private final int indexValueBlockCapacity;
+    private long columnTop;
+    private long rowCount;
+    @SuppressWarnings({"unused", "FieldCanBeLocal"})
+    private volatile long sequence = 0L;
+    private volatile boolean distressed = false;
+
+    PartitionIndexBuilder(CairoConfiguration configuration, CharSequence name, int indexValueBlockCapacity) {
+        this.configuration = configuration;
+        this.name = name;
+        this.indexValueBlockCapacity = indexValueBlockCapacity;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(writer);
+        Misc.free(mem);
+        Misc.free(initMem);
+        Misc.free(path);
+    }
+
+    @Override
+    public void distress() {
+        distressed = true;
+    }
+
+    @Override
+    public long getFd() {
+        return mem.getFd();
+    }
+
+    @Override
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Creates index files, discarding whatever was there before, and indexes rows of the partition
+     * that fall into given interval.
+     *
+     * @param loRow partition-level row id to start with, inclusive
+     * @param hiRow partition-level row id to stop at, exclusive
+     */
+    @Override
+    public void index(long loRow, long hiRow) {
+        final FilesFacade ff = configuration.getFilesFacade();
+        final int plen = path.length();
+        try {
+            initMem.of(ff, BitmapIndexUtils.keyFileName(path, name), ff.getPageSize());
+            BitmapIndexWriter.initKeyMemory(initMem, indexValueBlockCapacity, configuration.isIndexPackingEnabled());
+            initMem.close();
+            // value file is truncated to zero on close
+            initMem.of(ff, BitmapIndexUtils.valueFileName(path.trimTo(plen), name), ff.getPageSize());
+            initMem.close();
+
+            writer.of(configuration, path.trimTo(plen), name);
+
+            final long lo = Math.max(loRow, columnTop);
+            final long hi = Math.min(hiRow, rowCount);
+            if (lo < hi) {
+                // column file starts at column top, index values are partition-level row ids
+                mem.of(ff, TableUtils.dFile(path.trimTo(plen), name), ff.getMapPageSize(), (hi - columnTop) * 4);
+                for (long row = lo; row < hi; row++) {
+                    writer.add(TableUtils.toIndexKey(mem.getInt((row - columnTop) * 4)), row);
+                }
+            }
+        } finally {
+            path.trimTo(plen);
+            Misc.free(mem);
+            Misc.free(writer);
+            Misc.free(initMem);
+        }
+    }
+
+    @Override
+    public boolean isDistressed() {
+        return distressed;
+    }
+
+    /**
+     * Points builder at partition directory. Column memory is mapped by the builder itself when index is built.
+     *
+     * @param partitionPath path to partition directory
+     * @param columnTop     number of rows at the top of partition column does not have values for
+     * @param rowCount      number of rows in partition
+     */
+    public void of(Path partitionPath, long columnTop, long rowCount) {
+        this.path.of(partitionPath);
+        this.columnTop = columnTop;
+        this.rowCount = rowCount;
+    }
+
+    @Override
+    public boolean tryLock(long expectedSequence) {
+        return Unsafe.cas(this, SEQUENCE_OFFSET, expectedSequence, expectedSequence + 1);
+    }
+}
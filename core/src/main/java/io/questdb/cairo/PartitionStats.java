@@ -0,0 +1,112 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.std.Numbers;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+
+/**
+ * Layout of partition statistics file. Statistics are written for each eligible column when
+ * writer closes partition and describe values of all partition rows:
+ * <pre>
+ * long  row count of partition at the time statistics were written
+ * long  min value, nulls included as stored
+ * long  max value, nulls included as stored
+ * long  bloom filter size in bits, power of 2 or zero when there is no filter
+ * long* bloom filter bits
+ * </pre>
+ * Statistics are valid only while partition row count matches the one in the file.
+ */
+final class PartitionStats {
+    static final long ROW_COUNT_OFFSET = 0;
+    static final long MIN_OFFSET = 8;
+    static final long MAX_OFFSET = 16;
+    static final long BLOOM_BITS_OFFSET = 24;
+    static final long BLOOM_OFFSET = 32;
+    static final int BLOOM_HASH_COUNT = 3;
+    static final int BLOOM_BITS_PER_ROW = 8;
+    static final long BLOOM_MIN_BITS = 64;
+    static final long BLOOM_MAX_BITS = 1 << 20;
+
+    private PartitionStats() {
+    }
+
+    static long bloomBitCount(long rowCount) {
+        return Math.max(BLOOM_MIN_BITS, Math.min(BLOOM_MAX_BITS, Numbers.ceilPow2(rowCount * BLOOM_BITS_PER_ROW)));
+    }
+
+    /**
+     * @param hash      value hash
+     * @param i         hash function index, from 0 to {@link #BLOOM_HASH_COUNT} exclusive
+     * @param bitCount  bloom filter size in bits
+     * @return index of bloom filter bit
+     */
+    static long bloomBit(long hash, int i, long bitCount) {
+        return (hash + i * ((hash >>> 32) | 1)) & (bitCount - 1);
+    }
+
+    static long hash(long value) {
+        // murmur3 finalizer
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    static long hash(CharSequence value) {
+        long h = 0;
+        for (int i = 0, n = value.length(); i < n; i++) {
+            h = 31 * h + value.charAt(i);
+        }
+        return hash(h);
+    }
+
+    static boolean hasBloomFilter(int columnType) {
+        switch (columnType) {
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.SYMBOL:
+            case ColumnType.STRING:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    static boolean hasMinMax(int columnType) {
+        return columnType == ColumnType.INT || columnType == ColumnType.LONG;
+    }
+
+    static boolean isSupported(int columnType) {
+        return hasBloomFilter(columnType) || hasMinMax(columnType);
+    }
+
+    static LPSZ statsFileName(Path path, CharSequence columnName) {
+        return path.concat(columnName).put(".st").$();
+    }
+}
@@ -0,0 +1,170 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+
+/**
+ * Conjunction of simple column predicates that can be checked against partition statistics.
+ * Predicate is only allowed to say that partition cannot match, false positives are expected.
+ */
+public class PartitionStatsFilter implements Mutable {
+    public static final int OP_EQ = 0;
+    public static final int OP_LT = 1;
+    public static final int OP_GT = 2;
+
+    private final IntList columnIndexes = new IntList();
+    private final IntList ops = new IntList();
+    private final LongList values = new LongList();
+    private final ObjList<CharSequence> symbols = new ObjList<>();
+
+    public void addLong(int columnIndex, int op, long value) {
+        add(columnIndex, op, value, null);
+    }
+
+    public void addStr(int columnIndex, CharSequence value) {
+        add(columnIndex, OP_EQ, PartitionStats.hash(value), null);
+    }
+
+    public void addSymbol(int columnIndex, CharSequence value) {
+        add(columnIndex, OP_EQ, 0, Chars.toString(value));
+    }
+
+    @Override
+    public void clear() {
+        columnIndexes.clear();
+        ops.clear();
+        values.clear();
+        symbols.clear();
+    }
+
+    public boolean isEmpty() {
+        return columnIndexes.size() == 0;
+    }
+
+    /**
+     * Resolves symbol values to keys of given reader.
+     *
+     * @param reader table reader filter will be checked against
+     * @return false when filter cannot match any row of the reader
+     */
+    public boolean of(TableReader reader) {
+        for (int i = 0, n = columnIndexes.size(); i < n; i++) {
+            final CharSequence symbol = symbols.getQuick(i);
+            if (symbol != null) {
+                final int key = reader.getSymbolMapReader(columnIndexes.getQuick(i)).getQuick(symbol);
+                if (key == SymbolTable.VALUE_NOT_FOUND) {
+                    return false;
+                }
+                values.setQuick(i, PartitionStats.hash(key));
+            }
+        }
+        return true;
+    }
+
+    public int size() {
+        return columnIndexes.size();
+    }
+
+    boolean mayMatch(FilesFacade ff, Path path, RecordMetadata metadata, long rowCount, long tempMem8b) {
+        final int plen = path.length();
+        for (int i = 0, n = columnIndexes.size(); i < n; i++) {
+            final int columnIndex = columnIndexes.getQuick(i);
+            final long fd = ff.openRO(PartitionStats.statsFileName(path.trimTo(plen), metadata.getColumnName(columnIndex)));
+            path.trimTo(plen);
+            if (fd == -1) {
+                // statistics are not available
+                continue;
+            }
+
+            try {
+                if (ff.read(fd, tempMem8b, 8, PartitionStats.ROW_COUNT_OFFSET) != 8
+                        || Unsafe.getUnsafe().getLong(tempMem8b) != rowCount) {
+                    // statistics are stale
+                    continue;
+                }
+
+                if (!mayMatch(ff, fd, metadata.getColumnType(columnIndex), ops.getQuick(i), values.getQuick(i), tempMem8b)) {
+                    return false;
+                }
+            } finally {
+                ff.close(fd);
+            }
+        }
+        return true;
+    }
+
+    private static boolean bloomMayContain(FilesFacade ff, long fd, long hash, long tempMem8b) {
+        if (ff.read(fd, tempMem8b, 8, PartitionStats.BLOOM_BITS_OFFSET) != 8) {
+            return true;
+        }
+        final long bitCount = Unsafe.getUnsafe().getLong(tempMem8b);
+        if (bitCount == 0) {
+            return true;
+        }
+
+        for (int i = 0; i < PartitionStats.BLOOM_HASH_COUNT; i++) {
+            final long bit = PartitionStats.bloomBit(hash, i, bitCount);
+            if (ff.read(fd, tempMem8b, 8, PartitionStats.BLOOM_OFFSET + (bit >>> 6) * 8) != 8) {
+                return true;
+            }
+            if ((Unsafe.getUnsafe().getLong(tempMem8b) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void add(int columnIndex, int op, long value, CharSequence symbol) {
+        columnIndexes.add(columnIndex);
+        ops.add(op);
+        values.add(value);
+        symbols.add(symbol);
+    }
+
+    private boolean mayMatch(FilesFacade ff, long fd, int columnType, int op, long value, long tempMem8b) {
+        if (!PartitionStats.hasMinMax(columnType)) {
+            return op != OP_EQ || bloomMayContain(ff, fd, value, tempMem8b);
+        }
+
+        switch (op) {
+            case OP_LT:
+                return ff.read(fd, tempMem8b, 8, PartitionStats.MIN_OFFSET) != 8 || Unsafe.getUnsafe().getLong(tempMem8b) < value;
+            case OP_GT:
+                return ff.read(fd, tempMem8b, 8, PartitionStats.MAX_OFFSET) != 8 || Unsafe.getUnsafe().getLong(tempMem8b) > value;
+            default:
+                if (ff.read(fd, tempMem8b, 8, PartitionStats.MIN_OFFSET) == 8 && Unsafe.getUnsafe().getLong(tempMem8b) > value) {
+                    return false;
+                }
+                if (ff.read(fd, tempMem8b, 8, PartitionStats.MAX_OFFSET) == 8 && Unsafe.getUnsafe().getLong(tempMem8b) < value) {
+                    return false;
+                }
+                return bloomMayContain(ff, fd, PartitionStats.hash(value), tempMem8b);
+        }
+    }
+}
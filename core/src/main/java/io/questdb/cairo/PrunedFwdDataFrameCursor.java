@@ -0,0 +1,90 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+/**
+ * Forward full table scan that skips partitions, statistics of which rule out all rows
+ * for the filter.
+ */
+public class PrunedFwdDataFrameCursor extends AbstractFullDataFrameCursor {
+    private final PartitionStatsFilter filter;
+    private boolean empty;
+
+    public PrunedFwdDataFrameCursor(PartitionStatsFilter filter) {
+        this.filter = filter;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (empty) {
+            return false;
+        }
+
+        while (this.partitionIndex < partitionHi) {
+            final TableReader reader = getTableReader();
+            if (!reader.partitionMayMatch(partitionIndex, filter)) {
+                partitionIndex++;
+                continue;
+            }
+
+            final long hi = reader.openPartition(partitionIndex);
+            if (hi < 1) {
+                // this partition is missing, skip
+                partitionIndex++;
+            } else {
+                frame.partitionIndex = partitionIndex;
+                frame.rowHi = hi;
+                partitionIndex++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public PrunedFwdDataFrameCursor of(TableReader reader) {
+        super.of(reader);
+        this.empty = !filter.of(reader);
+        return this;
+    }
+
+    @Override
+    public boolean reload() {
+        final boolean moreData = super.reload();
+        this.empty = !filter.of(reader);
+        return moreData;
+    }
+
+    @Override
+    public long size() {
+        // number of rows in partitions that are not pruned is unknown
+        return -1;
+    }
+
+    @Override
+    public void toTop() {
+        this.partitionIndex = 0;
+    }
+}
@@ -28,6 +28,7 @@ import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.std.Files;
 import io.questdb.std.FilesFacade;
+import io.questdb.std.Numbers;
 import io.questdb.std.str.LPSZ;
 
 public class ReadOnlyMemory extends VirtualMemory implements ReadOnlyColumn {
@@ -107,8 +108,13 @@ public class ReadOnlyMemory extends VirtualMemory implements ReadOnlyColumn {
         }
 
         if (size > this.size) {
-            final long fileSize = ff.length(fd);
-            grow0(Math.max(size, fileSize));
+            if (isTailPageMappedInFull() && this.size > 0 && pageIndex(size - 1) == pageIndex(this.size - 1) && computePageSize(size) == getMapPageSize()) {
+                // memory grows within tail page, which is mapped in full
+                this.size = size;
+            } else {
+                final long fileSize = ff.length(fd);
+                grow0(Math.max(size, fileSize));
+            }
         }
     }
 
@@ -129,7 +135,7 @@ public class ReadOnlyMemory extends VirtualMemory implements ReadOnlyColumn {
             throw CairoException.instance(ff.errno()).put("Cannot open file: ").put(name);
         }
 
-        this.pageSize = pageSize;
+        this.pageSize = Numbers.ceilPow2(pageSize);
         grow(size);
         LOG.info().$("open ").$(name).$(" [fd=").$(fd).$(", size=").$(this.size).$(']').$();
     }
@@ -145,12 +151,17 @@ public class ReadOnlyMemory extends VirtualMemory implements ReadOnlyColumn {
         return pageSize;
     }
 
+    private boolean isTailPageMappedInFull() {
+        // mapping past end of file is not allowed on restricted file systems
+        return !ff.isRestrictedFileSystem();
+    }
+
     private void grow0(long size) {
         long targetPageSize = computePageSize(size);
         if (targetPageSize != getMapPageSize()) {
             setPageSize(targetPageSize);
             ensurePagesListCapacity(size);
-            this.lastPageSize = Math.min(targetPageSize, size);
+            this.lastPageSize = isTailPageMappedInFull() ? getMapPageSize() : Math.min(targetPageSize, size);
         } else {
             ensurePagesListCapacity(size);
             if (lastPageSize < getMapPageSize()) {
@@ -177,6 +188,11 @@ public class ReadOnlyMemory extends VirtualMemory implements ReadOnlyColumn {
 
         if (sz > 0) {
             if (sz < getMapPageSize()) {
+                if (isTailPageMappedInFull()) {
+                    // file grows into mapped area without page being remapped,
+                    // we never read past "size" even though mapping extends past end of file
+                    sz = getMapPageSize();
+                }
                 this.lastPageSize = sz;
                 this.lastPageIndex = page;
             } else {
@@ -28,7 +28,9 @@ import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.std.BinarySequence;
 import io.questdb.std.Long256;
+import io.questdb.std.Long256Impl;
 import io.questdb.std.Mutable;
+import io.questdb.std.ObjList;
 import io.questdb.std.Transient;
 import io.questdb.std.str.CharSink;
 
@@ -48,7 +50,15 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
     private RecordCursor symbolTableResolver;
 
     public RecordChain(@Transient ColumnTypes columnTypes, RecordSink recordSink, long pageSize) {
-        this.mem = new VirtualMemory(pageSize);
+        this(columnTypes, recordSink, new VirtualMemory(pageSize));
+    }
+
+    /**
+     * Creates chain over given memory, which is closed together with the chain. Chain can be
+     * kept in a file by passing {@link ReadWriteMemory}.
+     */
+    public RecordChain(@Transient ColumnTypes columnTypes, RecordSink recordSink, VirtualMemory mem) {
+        this.mem = mem;
         this.recordSink = recordSink;
         int count = columnTypes.getColumnCount();
         long varOffset = 0L;
@@ -102,6 +112,13 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
         varAppendOffset = 0L;
     }
 
+    /**
+     * @return number of bytes taken by records put into chain
+     */
+    public long getMemoryUsed() {
+        return varAppendOffset;
+    }
+
     @Override
     public Record getRecord() {
         return record;
@@ -254,6 +271,11 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
     }
 
     private class RecordChainRecord implements Record {
+        // values are held per column so that a comparator can keep several of them at once
+        private final ObjList<VirtualMemory.CharSequenceView> csviewsA = new ObjList<>();
+        private final ObjList<VirtualMemory.CharSequenceView> csviewsB = new ObjList<>();
+        private final ObjList<Long256Impl> longs256A = new ObjList<>();
+        private final ObjList<Long256Impl> longs256B = new ObjList<>();
         long fixedOffset;
         long baseOffset;
 
@@ -321,24 +343,28 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
 
         @Override
         public Long256 getLong256A(int col) {
-            return mem.getLong256A(fixedWithColumnOffset(col));
+            Long256Impl long256 = long256(longs256A, col);
+            mem.getLong256(fixedWithColumnOffset(col), long256);
+            return long256;
         }
 
         @Override
         public Long256 getLong256B(int col) {
-            return mem.getLong256B(fixedWithColumnOffset(col));
+            Long256Impl long256 = long256(longs256B, col);
+            mem.getLong256(fixedWithColumnOffset(col), long256);
+            return long256;
         }
 
         @Override
         public CharSequence getStr(int col) {
             long offset = varWidthColumnOffset(col);
-            return offset == -1 ? null : mem.getStr(offset);
+            return offset == -1 ? null : mem.getStr0(offset, csview(csviewsA, col));
         }
 
         @Override
         public CharSequence getStrB(int col) {
             long offset = varWidthColumnOffset(col);
-            return offset == -1 ? null : mem.getStr2(offset);
+            return offset == -1 ? null : mem.getStr0(offset, csview(csviewsB, col));
         }
 
         @Override
@@ -355,6 +381,22 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
             return symbolTableResolver.getSymbolTable(col).value(getInt(col));
         }
 
+        private VirtualMemory.CharSequenceView csview(ObjList<VirtualMemory.CharSequenceView> csviews, int index) {
+            VirtualMemory.CharSequenceView view = csviews.getQuiet(index);
+            if (view == null) {
+                csviews.extendAndSet(index, view = mem.new CharSequenceView());
+            }
+            return view;
+        }
+
+        private Long256Impl long256(ObjList<Long256Impl> longs256, int index) {
+            Long256Impl long256 = longs256.getQuiet(index);
+            if (long256 == null) {
+                longs256.extendAndSet(index, long256 = new Long256Impl());
+            }
+            return long256;
+        }
+
         private long fixedWithColumnOffset(int index) {
             return fixedOffset + columnOffsets[index];
         }
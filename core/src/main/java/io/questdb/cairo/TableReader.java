@@ -157,7 +157,7 @@ public class TableReader implements Closeable {
         return Numbers.msb(Numbers.ceilPow2(columnCount) * 2);
     }
 
-    static int getPrimaryColumnIndex(int base, int index) {
+    public static int getPrimaryColumnIndex(int base, int index) {
         return base + index * 2;
     }
 
@@ -518,7 +518,7 @@ public class TableReader implements Closeable {
                 bitmapIndexes.setQuick(globalIndex + 1, reader);
             }
         } else {
-            Path path = partitionPathGenerator.generate(this, getPartitionIndex(columnBase));
+            Path path = partitionPath(getPartitionIndex(columnBase));
             try {
                 if (direction == BitmapIndexReader.DIR_BACKWARD) {
                     reader = new BitmapIndexBwdReader(configuration, path.chopZ(), metadata.getColumnName(columnIndex), getColumnTop(columnBase, columnIndex));
@@ -548,7 +548,7 @@ public class TableReader implements Closeable {
             final int base = partitionIndex << columnBits;
             final int oldBase = partitionIndex << columnCountBits;
             try {
-                Path path = partitionPathGenerator.generate(this, partitionIndex);
+                Path path = partitionPath(partitionIndex);
                 final long partitionRowCount = partitionRowCounts.getQuick(partitionIndex);
                 for (int i = 0; i < columnCount; i++) {
                     final int copyFrom = Unsafe.getUnsafe().getInt(pIndexBase + i * 8) - 1;
@@ -618,11 +618,11 @@ public class TableReader implements Closeable {
         }
     }
 
-    ReadOnlyColumn getColumn(int absoluteIndex) {
+    public ReadOnlyColumn getColumn(int absoluteIndex) {
         return columns.getQuick(absoluteIndex);
     }
 
-    int getColumnBase(int partitionIndex) {
+    public int getColumnBase(int partitionIndex) {
         return partitionIndex << columnCountBits;
     }
 
@@ -630,7 +630,7 @@ public class TableReader implements Closeable {
         return columnCount;
     }
 
-    long getColumnTop(int base, int columnIndex) {
+    public long getColumnTop(int base, int columnIndex) {
         return this.columnTops.getQuick(base / 2 + columnIndex);
     }
 
@@ -647,10 +647,19 @@ public class TableReader implements Closeable {
         return transientRowCount;
     }
 
-    long getTxn() {
+    public long getTxn() {
         return txn;
     }
 
+    /**
+     * Checks if writer committed since last reload without reloading the reader.
+     *
+     * @return true when reload() is going to see new transaction
+     */
+    public boolean hasNewTxn() {
+        return txMem.getLong(TableUtils.TX_OFFSET_TXN) != txn;
+    }
+
     private void incrementPartitionCountBy(int delta) {
         partitionRowCounts.seed(partitionCount, delta, -1);
         partitionCount += delta;
@@ -669,7 +678,7 @@ public class TableReader implements Closeable {
         }
     }
 
-    long openPartition(int partitionIndex) {
+    public long openPartition(int partitionIndex) {
         final long size = getPartitionRowCount(partitionIndex);
         if (size != -1) {
             return size;
@@ -677,6 +686,31 @@ public class TableReader implements Closeable {
         return openPartition0(partitionIndex);
     }
 
+    /**
+     * Checks filter against statistics of partition columns. Columns files are not opened.
+     *
+     * @param partitionIndex index of partition
+     * @param filter         predicates resolved against this reader
+     * @return false when statistics prove that none of partition rows match filter
+     */
+    public boolean partitionMayMatch(int partitionIndex, PartitionStatsFilter filter) {
+        try {
+            Path path = partitionPath(partitionIndex);
+            if (!ff.exists(path)) {
+                return true;
+            }
+            path.chopZ();
+
+            long size = getPartitionRowCount(partitionIndex);
+            if (size == -1) {
+                size = partitionIndex == partitionCount - 1 ? transientRowCount : TableUtils.readPartitionSize(ff, path, tempMem8b);
+            }
+            return filter.mayMatch(ff, path, metadata, size, tempMem8b);
+        } finally {
+            path.trimTo(rootLen);
+        }
+    }
+
     private long openPartition0(int partitionIndex) {
         // is this table is partitioned?
         if (partitionTimestampCalculatorMethod != null
@@ -692,7 +726,7 @@ public class TableReader implements Closeable {
         }
 
         try {
-            Path path = partitionPathGenerator.generate(this, partitionIndex);
+            Path path = partitionPath(partitionIndex);
             if (ff.exists(path)) {
 
                 path.chopZ();
@@ -708,7 +742,16 @@ public class TableReader implements Closeable {
                         .$(']').$();
 
                 if (partitionSize > 0) {
-                    openPartitionColumns(path, getColumnBase(partitionIndex), partitionSize);
+                    try {
+                        openPartitionColumns(path, getColumnBase(partitionIndex), partitionSize);
+                    } catch (CairoException e) {
+                        // merged copy can be swapped in while we are opening it, it is then found under partition name
+                        if (!Chars.endsWith(path, TableUtils.O3_DIR_SUFFIX)) {
+                            throw e;
+                        }
+                        path.trimTo(rootLen);
+                        openPartitionColumns(partitionPath(partitionIndex).chopZ(), getColumnBase(partitionIndex), partitionSize);
+                    }
                     partitionRowCounts.setQuick(partitionIndex, partitionSize);
                     if (maxTimestamp != Numbers.LONG_NaN) {
                         if (reloadMethod == FIRST_TIME_PARTITIONED_RELOAD_METHOD) {
@@ -753,6 +796,29 @@ public class TableReader implements Closeable {
         }
     }
 
+    /**
+     * Generates path to directory of partition as of transaction this reader is at. Out-of-order merge
+     * writes merged copy next to partition and swaps it in after transaction is committed. Until swap
+     * is complete marker next to partition tells whether merged copy, partition or its backup belongs
+     * to our transaction. Reader that lags behind the swap may find partition replaced and has to
+     * reload, same as it would for partition that has been removed.
+     *
+     * @param partitionIndex index of partition
+     * @return path to partition directory
+     */
+    private Path partitionPath(int partitionIndex) {
+        final Path path = partitionPathGenerator.generate(this, partitionIndex).chopZ();
+        final long o3Txn = TableUtils.readO3Txn(ff, path, tempMem8b);
+        if (o3Txn != -1) {
+            final int plen = path.length();
+            if (ff.exists(path.put(o3Txn <= txn ? TableUtils.O3_DIR_SUFFIX : TableUtils.O3_BACKUP_DIR_SUFFIX).$())) {
+                return path;
+            }
+            path.trimTo(plen);
+        }
+        return path.$();
+    }
+
     private Path pathGenDay(int partitionIndex) {
         TableUtils.fmtDay.format(
                 Timestamps.addDays(minTimestamp, partitionIndex),
@@ -1004,23 +1070,38 @@ public class TableReader implements Closeable {
     }
 
     private boolean reloadNonPartitioned() {
+        final long dataVersion = this.dataVersion;
         // calling readTxn will set "rowCount" member variable
         if (readTxn()) {
             reloadStruct();
-            reloadPartition(0, rowCount);
+            if (this.dataVersion != dataVersion && rowCount > 0) {
+                // column files could have been replaced by writer, reopen them
+                openPartition0(0);
+            }
+            if (getPartitionRowCount(0) > -1) {
+                reloadPartition(0, rowCount);
+            }
+            // partition that is yet to be opened by cursor will pick up new row count,
+            // symbol tables are shared by all partitions and have to be current regardless
+            reloadSymbolMapCounts();
             return true;
         }
         return false;
     }
 
     /**
-     * Updates boundaries of all columns in partition.
+     * Updates boundaries of all columns in partition. Columns are only grown, which
+     * is a no-op for rows that are already mapped.
      *
      * @param partitionIndex index of partition
      * @param rowCount       number of rows in partition
      */
     private void reloadPartition(int partitionIndex, long rowCount) {
-        int symbolMapIndex = 0;
+        if (partitionRowCounts.getQuick(partitionIndex) == rowCount) {
+            // transaction did not add rows to this partition
+            return;
+        }
+
         int columnBase = getColumnBase(partitionIndex);
         for (int i = 0; i < columnCount; i++) {
             final int index = getPrimaryColumnIndex(columnBase, i);
@@ -1030,12 +1111,6 @@ public class TableReader implements Closeable {
                     metadata.getColumnType(i),
                     rowCount - getColumnTop(columnBase, i)
             );
-
-            // reload symbol map
-            SymbolMapReader reader = symbolMapReaders.getQuick(i);
-            if (reader != null) {
-                reader.updateSymbolCount(symbolCountSnapshot.getQuick(symbolMapIndex++));
-            }
         }
         partitionRowCounts.setQuick(partitionIndex, rowCount);
     }
@@ -1051,6 +1126,8 @@ public class TableReader implements Closeable {
                 return true;
             }
 
+            reloadSymbolMapCounts();
+
             if (partitionCount == 0) {
                 // old partition count was 0
                 incrementPartitionCountBy(calculatePartitionCount());
@@ -1066,7 +1143,7 @@ public class TableReader implements Closeable {
             if (getPartitionRowCount(partitionIndex) > -1) {
                 if (delta > 0) {
                     incrementPartitionCountBy(delta);
-                    Path path = partitionPathGenerator.generate(this, partitionIndex);
+                    Path path = partitionPath(partitionIndex);
                     try {
                         reloadPartition(partitionIndex, TableUtils.readPartitionSize(ff, path.chopZ(), tempMem8b));
                     } finally {
@@ -1125,7 +1202,7 @@ public class TableReader implements Closeable {
         for (int partitionIndex = 0; partitionIndex < partitionCount; partitionIndex++) {
             int base = getColumnBase(partitionIndex);
             try {
-                Path path = partitionPathGenerator.generate(this, partitionIndex);
+                Path path = partitionPath(partitionIndex);
                 final long partitionRowCount = partitionRowCounts.getQuick(partitionIndex);
 
                 Unsafe.getUnsafe().setMemory(pState, columnCount, (byte) 0);
@@ -64,6 +64,10 @@ public class TableReaderRecordCursor implements RecordCursor {
         return false;
     }
 
+    public TableReader getTableReader() {
+        return reader;
+    }
+
     @Override
     public Record newRecord() {
         TableReaderRecord record = new TableReaderRecord();
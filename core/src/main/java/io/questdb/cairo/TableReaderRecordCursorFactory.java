@@ -47,6 +47,14 @@ public class TableReaderRecordCursorFactory extends AbstractRecordCursorFactory
         return cursor;
     }
 
+    public String getTableName() {
+        return tableName;
+    }
+
+    public long getTableVersion() {
+        return tableVersion;
+    }
+
     @Override
     public boolean isRandomAccessCursor() {
         return true;
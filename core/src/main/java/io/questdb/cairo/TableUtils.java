@@ -53,6 +53,10 @@ public final class TableUtils {
     static final TimestampFormat fmtYear;
     static final String ARCHIVE_FILE_NAME = "_archive";
     static final String DEFAULT_PARTITION_NAME = "default";
+    // out-of-order merge leaves these next to partition directory until merge is committed and swapped in
+    static final String O3_DIR_SUFFIX = ".o3";
+    static final String O3_BACKUP_DIR_SUFFIX = ".o3bak";
+    static final String O3_TXN_FILE_SUFFIX = ".o3txn";
     // transaction file structure
     static final long TX_OFFSET_TXN = 0;
     static final long TX_OFFSET_TRANSIENT_ROW_COUNT = 8;
@@ -444,6 +448,34 @@ public final class TableUtils {
         }
     }
 
+    /**
+     * Reads transaction number of out-of-order merge from marker file next to partition directory.
+     *
+     * @param ff        files facade
+     * @param path      path to partition directory
+     * @param tempMem8b 8-byte buffer
+     * @return transaction number, -1 when there is no marker and Long.MAX_VALUE when marker cannot be read
+     */
+    static long readO3Txn(FilesFacade ff, Path path, long tempMem8b) {
+        int plen = path.length();
+        try {
+            if (!ff.exists(path.put(O3_TXN_FILE_SUFFIX).$())) {
+                return -1;
+            }
+            final long fd = ff.openRO(path);
+            if (fd == -1) {
+                return Long.MAX_VALUE;
+            }
+            try {
+                return ff.read(fd, tempMem8b, 8, 0) == 8 ? Unsafe.getUnsafe().getLong(tempMem8b) : Long.MAX_VALUE;
+            } finally {
+                ff.close(fd);
+            }
+        } finally {
+            path.trimTo(plen);
+        }
+    }
+
     static long readPartitionSize(FilesFacade ff, Path path, long tempMem8b) {
         int plen = path.length();
         try {
@@ -54,6 +54,8 @@ public class TableWriter implements Closeable {
     };
     private final static RemoveFileLambda REMOVE_OR_LOG = TableWriter::removeFileAndOrLog;
     private final static RemoveFileLambda REMOVE_OR_EXCEPTION = TableWriter::removeOrException;
+    private static final int O3_RUN_EXISTING = 0;
+    private static final int O3_RUN_OUT_OF_ORDER = 1;
 
     static {
         IGNORED_FILES.add("..");
@@ -99,6 +101,24 @@ public class TableWriter implements Closeable {
     private final LongHashSet removedPartitions = new LongHashSet();
     private final TableReader.TimestampFloorMethod timestampFloorMethod;
     private final TableReader.PartitionTimestampCalculatorMethod nextTimestampMethod;
+    private final boolean outOfOrderEnabled;
+    private final ObjList<VirtualMemory> o3Columns = new ObjList<>();
+    private final ObjList<Runnable> o3Nullers = new ObjList<>();
+    private final ObjList<Runnable> o3DstNullers = new ObjList<>();
+    private final LongList o3Index = new LongList();
+    private final LongList statsBloom = new LongList();
+    private final boolean partitionStatsEnabled;
+    private final LongList o3MergeRuns = new LongList();
+    // timestamps of partitions replaced by out-of-order merge, their backups are removed after commit
+    private final LongList o3MergedPartitions = new LongList();
+    private final ReadOnlyMemory o3SrcMem1 = new ReadOnlyMemory();
+    private final ReadOnlyMemory o3SrcMem2 = new ReadOnlyMemory();
+    private final AppendMemory o3DstMem1 = new AppendMemory();
+    private final AppendMemory o3DstMem2 = new AppendMemory();
+    private final BitmapIndexWriter o3IndexWriter = new BitmapIndexWriter();
+    private ObjList<? extends VirtualMemory> activeColumns;
+    private ObjList<Runnable> activeNullers;
+    private long o3RowCount = 0;
     private int txPartitionCount = 0;
     private long lockFd;
     private LongConsumer timestampSetter;
@@ -144,6 +164,8 @@ public class TableWriter implements Closeable {
         this.workScheduler = workScheduler;
         this.lifecycleManager = lifecycleManager;
         this.parallelIndexerEnabled = workScheduler != null && configuration.isParallelIndexingEnabled();
+        this.outOfOrderEnabled = configuration.isOutOfOrderEnabled();
+        this.partitionStatsEnabled = configuration.isPartitionStatsEnabled();
         this.ff = configuration.getFilesFacade();
         this.mkDirMode = configuration.getMkDirMode();
         this.fileOperationRetryCount = configuration.getFileOperationRetryCount();
@@ -192,6 +214,8 @@ public class TableWriter implements Closeable {
             this.denseSymbolMapWriters = new ObjList<>(metadata.getSymbolMapCount());
             this.nullers = new ObjList<>(columnCount);
             this.columnTops = new LongList(columnCount);
+            this.activeColumns = columns;
+            this.activeNullers = nullers;
             switch (partitionBy) {
                 case PartitionBy.DAY:
                     timestampFloorMethod = Timestamps::floorDD;
@@ -218,6 +242,7 @@ public class TableWriter implements Closeable {
 
             configureColumnMemory();
             timestampSetter = configureTimestampSetter();
+            recoverOutOfOrderSwap();
             configureAppendPosition();
             purgeUnusedPartitions();
             loadRemovedPartitions();
@@ -301,6 +326,150 @@ public class TableWriter implements Closeable {
         }
     }
 
+    private static void copyBytes(VirtualMemory src, long offset, long len, VirtualMemory dst) {
+        while (len > 0) {
+            final long n = Math.min(len, src.pageRemaining(offset));
+            dst.putBlockOfBytes(src.addressOf(offset), n);
+            offset += n;
+            len -= n;
+        }
+    }
+
+    private static void copyRows(int type, VirtualMemory src1, VirtualMemory src2, long lo, long hi, VirtualMemory dst1, VirtualMemory dst2) {
+        switch (type) {
+            case ColumnType.STRING:
+                for (long r = lo; r < hi; r++) {
+                    dst2.putLong(dst1.putStr(src1.getStr(src2.getLong(r * 8))));
+                }
+                break;
+            case ColumnType.BINARY:
+                for (long r = lo; r < hi; r++) {
+                    dst2.putLong(dst1.putBin(src1.getBin(src2.getLong(r * 8))));
+                }
+                break;
+            default:
+                final int size = ColumnType.sizeOf(type);
+                copyBytes(src1, lo * size, (hi - lo) * size, dst1);
+                break;
+        }
+    }
+
+    private static int compareO3(LongList index, int i, long timestamp, long row) {
+        final long ts = index.getQuick(i * 2);
+        if (ts < timestamp) {
+            return -1;
+        }
+
+        if (ts > timestamp) {
+            return 1;
+        }
+
+        return Long.compare(index.getQuick(i * 2 + 1), row);
+    }
+
+    /**
+     * Finds first row in [lo, hi) interval, which timestamp is greater than given value.
+     *
+     * @param mem   timestamp column
+     * @param value timestamp value
+     * @param lo    first row of search interval, inclusive
+     * @param hi    last row of search interval, exclusive
+     * @return row index
+     */
+    private static long searchO3Timestamp(VirtualMemory mem, long value, long lo, long hi) {
+        while (lo < hi) {
+            final long mid = (lo + hi) >>> 1;
+            if (mem.getLong(mid * 8) > value) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Finds first row of timestamp block which timestamp is not less than the value.
+     *
+     * @param timestamps address of ascending timestamp values
+     * @param value      timestamp to search for
+     * @param lo         first row to search, inclusive
+     * @param hi         last row to search, exclusive
+     * @return index of first row with timestamp greater or equal to value or hi when there is no such row
+     */
+    private static long searchBlockTimestamp(long timestamps, long value, long lo, long hi) {
+        long low = lo;
+        long high = hi;
+        while (low < high) {
+            final long mid = (low + high) >>> 1;
+            if (Unsafe.getUnsafe().getLong(timestamps + mid * Long.BYTES) < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Sorts (timestamp, row) pairs by timestamp. Pairs with the same timestamp
+     * are ordered by row so that out-of-order rows keep their insertion order.
+     *
+     * @param index list of pairs
+     * @param lo    index of first pair, inclusive
+     * @param hi    index of last pair, inclusive
+     */
+    private static void sortO3Index(LongList index, int lo, int hi) {
+        while (hi - lo > 16) {
+            final int mid = (lo + hi) >>> 1;
+            final long pivotTs = index.getQuick(mid * 2);
+            final long pivotRow = index.getQuick(mid * 2 + 1);
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (compareO3(index, i, pivotTs, pivotRow) < 0) {
+                    i++;
+                }
+                while (compareO3(index, j, pivotTs, pivotRow) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    swapO3(index, i++, j--);
+                }
+            }
+            // recurse into smaller half to keep stack shallow
+            if (j - lo < hi - i) {
+                sortO3Index(index, lo, j);
+                lo = i;
+            } else {
+                sortO3Index(index, i, hi);
+                hi = j;
+            }
+        }
+
+        for (int i = lo + 1; i <= hi; i++) {
+            final long ts = index.getQuick(i * 2);
+            final long row = index.getQuick(i * 2 + 1);
+            int j = i - 1;
+            while (j >= lo && compareO3(index, j, ts, row) > 0) {
+                index.setQuick((j + 1) * 2, index.getQuick(j * 2));
+                index.setQuick((j + 1) * 2 + 1, index.getQuick(j * 2 + 1));
+                j--;
+            }
+            index.setQuick((j + 1) * 2, ts);
+            index.setQuick((j + 1) * 2 + 1, row);
+        }
+    }
+
+    private static void swapO3(LongList index, int i, int j) {
+        final long ts = index.getQuick(i * 2);
+        final long row = index.getQuick(i * 2 + 1);
+        index.setQuick(i * 2, index.getQuick(j * 2));
+        index.setQuick(i * 2 + 1, index.getQuick(j * 2 + 1));
+        index.setQuick(j * 2, ts);
+        index.setQuick(j * 2 + 1, row);
+    }
+
     /**
      * This an O(n) method to find if column by the same name already exists. The benefit of poor performance
      * is that we don't keep column name strings on heap. We only use this method when adding new column, where
@@ -331,7 +500,7 @@ public class TableWriter implements Closeable {
         }
     }
 
-    static void indexAndCountDown(ColumnIndexer indexer, long lo, long hi, SOCountDownLatch latch) {
+    static void indexAndCountDown(ColumnIndexerTask indexer, long lo, long hi, SOCountDownLatch latch) {
         try {
             indexer.index(lo, hi);
         } catch (CairoException e) {
@@ -470,6 +639,188 @@ public class TableWriter implements Closeable {
         LOG.info().$("ADDED column '").utf8(name).$('[').$(ColumnType.nameOf(type)).$("]' to ").$(path).$();
     }
 
+    /**
+     * Adds index to existing SYMBOL column. Index files are built for every partition from column data on disk.
+     * When parallel indexing is enabled partitions are indexed concurrently on indexer queue, current thread
+     * takes on its share of partitions rather than waiting.
+     * <p>
+     * Readers do not use new index files until all partitions are indexed and "_meta" is swapped. Swap of "_meta"
+     * flips index flag of the column, it is the only step readers can observe.
+     *
+     * <b>Failures</b>
+     * When index cannot be built for one of partitions function throws CairoException and column remains
+     * not indexed. Index files that have been built so far are left on disk to be overwritten by next attempt.
+     *
+     * <b>Transactions</b>
+     * <p>
+     * Pending transaction will be committed before function attempts to build index.
+     *
+     * @param name                    of column either ASCII or UTF8 encoded.
+     * @param indexValueBlockCapacity approximation of number of rows for single index key, must be power of 2
+     */
+    public void addIndex(CharSequence name, int indexValueBlockCapacity) {
+
+        assert indexValueBlockCapacity == Numbers.ceilPow2(indexValueBlockCapacity) : "power of 2 expected";
+
+        checkDistressed();
+
+        final int columnIndex = getColumnIndex(name);
+
+        if (metadata.getColumnType(columnIndex) != ColumnType.SYMBOL) {
+            throw CairoException.instance(0).put("Column is not SYMBOL: ").put(name);
+        }
+
+        if (metadata.isColumnIndexed(columnIndex)) {
+            throw CairoException.instance(0).put("Column is already indexed: ").put(name);
+        }
+
+        LOG.info().$("adding index to '").utf8(name).$("' of ").$(path).$();
+
+        commit();
+
+        final CharSequence columnName = metadata.getColumnName(columnIndex);
+        buildPartitionIndexes(columnName, columnIndex, indexValueBlockCapacity);
+
+        // active partition is indexed incrementally from now on
+        final SymbolColumnIndexer indexer = new SymbolColumnIndexer();
+        try {
+            if (transientRowCount > 0 || partitionBy == PartitionBy.NONE) {
+                try {
+                    setStateForTimestamp(maxTimestamp, false);
+                    indexer.of(configuration, path, columnName, getPrimaryColumn(columnIndex), columnTops.getQuick(columnIndex));
+                } finally {
+                    path.trimTo(rootLen);
+                }
+            }
+
+            // create new _meta.swp
+            this.metaSwapIndex = indexColumnInMeta(columnIndex, indexValueBlockCapacity);
+
+            // close _meta so we can rename it
+            metaMem.close();
+
+            // validate new meta
+            validateSwapMeta(columnName);
+
+            // rename _meta to _meta.prev
+            renameMetaToMetaPrev(columnName);
+
+            // after we moved _meta to _meta.prev
+            // we have to have _todo to restore _meta should anything go wrong
+            writeRestoreMetaTodo(columnName);
+
+            // rename _meta.swp to _meta
+            renameSwapMetaToMeta(columnName);
+        } catch (CairoException e) {
+            Misc.free(indexer);
+            throw e;
+        }
+
+        indexers.extendAndSet(columnIndex, indexer);
+        populateDenseIndexerList();
+
+        try {
+            // open _meta file
+            openMetaFile();
+
+            // remove _todo
+            removeTodoFile();
+
+        } catch (CairoException err) {
+            throwDistressException(err);
+        }
+
+        bumpStructureVersion();
+
+        metadata.setColumnIndexed(columnIndex, indexValueBlockCapacity);
+
+        LOG.info().$("ADDED index to '").utf8(name).$("' of ").$(path).$();
+    }
+
+    /**
+     * Appends block of rows supplied column by column. Values of each column are copied into column
+     * files in bulk, block is split at partition boundaries as necessary. Rows become visible to readers
+     * after {@link #commit()}, same as rows appended via {@link #newRow(long)}.
+     * <p>
+     * Each column value list must be laid out as in column file, e.g. 4 bytes per INT and SYMBOL value,
+     * 8 bytes per DOUBLE and TIMESTAMP value. SYMBOL values are keys obtained from {@link #putSymbol(int, CharSequence)}.
+     * Zero address appends nulls to the column. STRING and BINARY columns are variable length and accept
+     * nulls only.
+     * <p>
+     * Designated timestamp values are mandatory. They must be in ascending order and not less than
+     * maximum timestamp of the table, out-of-order blocks are rejected without appending any rows.
+     *
+     * @param columnAddresses address of value list for each column in metadata order
+     * @param rowCount        number of rows in the block
+     */
+    public void appendBlock(LongList columnAddresses, long rowCount) {
+        checkDistressed();
+
+        if ((masterRef & 1) != 0) {
+            cancelRow();
+        }
+
+        if (columnAddresses.size() != columnCount) {
+            throw CairoException.instance(0).put("Column count mismatch [expected=").put(columnCount).put(", actual=").put(columnAddresses.size()).put(']');
+        }
+
+        for (int i = 0; i < columnCount; i++) {
+            final int type = metadata.getColumnType(i);
+            if (columnAddresses.getQuick(i) != 0 && (type == ColumnType.STRING || type == ColumnType.BINARY)) {
+                throw CairoException.instance(0).put("Only null values can be appended in block [column=").put(metadata.getColumnName(i)).put(", type=").put(ColumnType.nameOf(type)).put(']');
+            }
+        }
+
+        if (rowCount < 1) {
+            return;
+        }
+
+        final int timestampIndex = metadata.getTimestampIndex();
+        if (timestampIndex == -1) {
+            appendBlock0(columnAddresses, 0, rowCount);
+            return;
+        }
+
+        final long timestamps = columnAddresses.getQuick(timestampIndex);
+        if (timestamps == 0) {
+            throw CairoException.instance(0).put("Designated timestamp values are required [column=").put(metadata.getColumnName(timestampIndex)).put(']');
+        }
+
+        long prev = maxTimestamp;
+        for (long p = timestamps, hi = timestamps + rowCount * Long.BYTES; p < hi; p += Long.BYTES) {
+            final long timestamp = Unsafe.getUnsafe().getLong(p);
+            if (timestamp < prev) {
+                throw CairoException.instance(0).put("Cannot insert rows out of order. Table=").put(path);
+            }
+            prev = timestamp;
+        }
+
+        long lo = 0;
+        long timestamp = Unsafe.getUnsafe().getLong(timestamps);
+        if (rowFunction == openPartitionFunction) {
+            minTimestamp = timestamp;
+            openFirstPartition(timestamp);
+            rowFunction = switchPartitionFunction;
+        }
+
+        while (true) {
+            if (timestamp >= partitionHi) {
+                switchPartition(timestamp);
+            }
+
+            final long hi = searchBlockTimestamp(timestamps, partitionHi, lo, rowCount);
+            appendBlock0(columnAddresses, lo, hi);
+            prevMaxTimestamp = maxTimestamp;
+            maxTimestamp = Unsafe.getUnsafe().getLong(timestamps + (hi - 1) * Long.BYTES);
+
+            if (hi == rowCount) {
+                break;
+            }
+            lo = hi;
+            timestamp = Unsafe.getUnsafe().getLong(timestamps + lo * Long.BYTES);
+        }
+    }
+
     @Override
     public void close() {
         if (isOpen() && lifecycleManager.close()) {
@@ -495,6 +846,14 @@ public class TableWriter implements Closeable {
 
             updateIndexes();
 
+            // out-of-order rows are merged into partitions before
+            // transaction file is updated, this may change row counts
+            // of partitions that are not active
+            final boolean outOfOrder = o3RowCount > 0;
+            if (outOfOrder) {
+                processO3();
+            }
+
             txMem.putLong(TX_OFFSET_TXN, ++txn);
             Unsafe.getUnsafe().storeFence();
 
@@ -507,7 +866,13 @@ public class TableWriter implements Closeable {
                 txPartitionCount = 1;
             }
 
-            if (prevMinTimestamp == Long.MAX_VALUE) {
+            if (outOfOrder) {
+                // partition files have been replaced, readers have to reopen them
+                txMem.putLong(TX_OFFSET_FIXED_ROW_COUNT, fixedRowCount);
+                txMem.putLong(TX_OFFSET_DATA_VERSION, ++dataVersion);
+            }
+
+            if (prevMinTimestamp == Long.MAX_VALUE || minTimestamp != prevMinTimestamp) {
                 txMem.putLong(TX_OFFSET_MIN_TIMESTAMP, minTimestamp);
                 prevMinTimestamp = minTimestamp;
             }
@@ -521,6 +886,12 @@ public class TableWriter implements Closeable {
             Unsafe.getUnsafe().storeFence();
             txMem.putLong(TX_OFFSET_TXN_CHECK, txn);
             txPrevTransientRowCount = transientRowCount;
+
+            if (outOfOrder) {
+                // merged partitions are committed, they can replace originals now
+                swapO3Partitions();
+                removeO3Backups();
+            }
         }
     }
 
@@ -549,7 +920,7 @@ public class TableWriter implements Closeable {
     }
 
     public boolean inTransaction() {
-        return txPartitionCount > 1 || transientRowCount != txPrevTransientRowCount;
+        return txPartitionCount > 1 || transientRowCount != txPrevTransientRowCount || o3RowCount > 0;
     }
 
     public boolean isOpen() {
@@ -564,6 +935,21 @@ public class TableWriter implements Closeable {
         return newRow(0L);
     }
 
+    /**
+     * Adds value to symbol table of the column unless it is there already.
+     *
+     * @param columnIndex index of SYMBOL column
+     * @param value       symbol value, can be null
+     * @return key of the value to be used with {@link #appendBlock(LongList, long)}
+     */
+    public int putSymbol(int columnIndex, CharSequence value) {
+        final SymbolMapWriter symbolMapWriter = symbolMapWriters.getQuick(columnIndex);
+        if (symbolMapWriter == null) {
+            throw CairoException.instance(0).put("Not a SYMBOL column [column=").put(metadata.getColumnName(columnIndex)).put(']');
+        }
+        return symbolMapWriter.put(value);
+    }
+
     public void removeColumn(CharSequence name) {
 
         checkDistressed();
@@ -732,6 +1118,7 @@ public class TableWriter implements Closeable {
             LOG.info().$("tx rollback [name=").$(name).$(']').$();
             freeColumns(false);
             txPendingPartitionSizes.jumpTo(0);
+            resetO3();
             configureAppendPosition();
             rollbackIndexes();
             purgeUnusedPartitions();
@@ -744,7 +1131,7 @@ public class TableWriter implements Closeable {
     }
 
     public long size() {
-        return fixedRowCount + transientRowCount;
+        return fixedRowCount + transientRowCount + o3RowCount;
     }
 
     @Override
@@ -790,6 +1177,7 @@ public class TableWriter implements Closeable {
             rowFunction = openPartitionFunction;
         }
 
+        resetO3();
         prevMaxTimestamp = Long.MIN_VALUE;
         maxTimestamp = Long.MIN_VALUE;
         prevMinTimestamp = Long.MAX_VALUE;
@@ -858,6 +1246,125 @@ public class TableWriter implements Closeable {
         return index;
     }
 
+    /**
+     * Adds builder for partition of given timestamp when partition directory exists. Historical partitions
+     * are described by files on disk, which is requested by passing -1 as column top and row count.
+     */
+    private void addPartitionIndexBuilder(
+            ObjList<PartitionIndexBuilder> builders,
+            CharSequence columnName,
+            int indexValueBlockCapacity,
+            long timestamp,
+            long columnTop,
+            long rowCount
+    ) {
+        try {
+            setStateForTimestamp(timestamp, false);
+            final int plen = path.length();
+            if (!ff.exists(path.$())) {
+                LOG.info().$("partition does not exist, skipping [path=").$(path).$(']').$();
+                return;
+            }
+            path.chopZ();
+            if (!ff.exists(dFile(path, columnName))) {
+                // column was added after partition had been closed, readers treat it as null column
+                // and do not expect index files
+                return;
+            }
+            path.trimTo(plen);
+            if (rowCount == -1) {
+                rowCount = readPartitionSize(ff, path, tempMem8b);
+                columnTop = readColumnTop(ff, path, columnName, plen, tempMem8b);
+            }
+            final PartitionIndexBuilder builder = new PartitionIndexBuilder(configuration, columnName, indexValueBlockCapacity);
+            builders.add(builder);
+            builder.of(path, columnTop, rowCount);
+        } finally {
+            path.trimTo(rootLen);
+        }
+    }
+
+    private void addToStatsBloom(long hash, long bitCount) {
+        for (int i = 0; i < PartitionStats.BLOOM_HASH_COUNT; i++) {
+            final long bit = PartitionStats.bloomBit(hash, i, bitCount);
+            final int word = (int) (bit >>> 6);
+            statsBloom.setQuick(word, statsBloom.getQuick(word) | (1L << bit));
+        }
+    }
+
+    private void appendBlock0(LongList columnAddresses, long lo, long hi) {
+        final long count = hi - lo;
+        for (int i = 0; i < columnCount; i++) {
+            final long address = columnAddresses.getQuick(i);
+            if (address == 0) {
+                final Runnable nuller = nullers.getQuick(i);
+                for (long r = 0; r < count; r++) {
+                    nuller.run();
+                }
+            } else {
+                final int size = ColumnType.sizeOf(metadata.getColumnType(i));
+                getPrimaryColumn(i).putBlockOfBytes(address + lo * size, count * size);
+            }
+        }
+        transientRowCount += count;
+    }
+
+    private void buildO3Index(CharSequence columnName, int columnIndex, int olen, long rowCount) {
+        // index files are created in the same way as for new partition
+        o3DstMem1.of(ff, BitmapIndexUtils.keyFileName(other.trimTo(olen), columnName), ff.getPageSize());
+        BitmapIndexWriter.initKeyMemory(o3DstMem1, metadata.getIndexValueBlockCapacity(columnIndex), configuration.isIndexPackingEnabled());
+        o3DstMem1.close();
+        if (!ff.touch(BitmapIndexUtils.valueFileName(other.trimTo(olen), columnName))) {
+            throw CairoException.instance(ff.errno()).put("Cannot create ").put(other);
+        }
+
+        o3IndexWriter.of(configuration, other.trimTo(olen), columnName);
+        try {
+            o3SrcMem1.of(ff, dFile(other.trimTo(olen), columnName), ff.getMapPageSize(), rowCount * 4);
+            for (long r = 0; r < rowCount; r++) {
+                o3IndexWriter.add(TableUtils.toIndexKey(o3SrcMem1.getInt(r * 4)), r);
+            }
+        } finally {
+            o3SrcMem1.close();
+            o3IndexWriter.close();
+        }
+    }
+
+    private void buildPartitionIndexes(CharSequence columnName, int columnIndex, int indexValueBlockCapacity) {
+        final ObjList<PartitionIndexBuilder> builders = new ObjList<>();
+        try {
+            if (partitionBy == PartitionBy.NONE) {
+                addPartitionIndexBuilder(builders, columnName, indexValueBlockCapacity, Long.MIN_VALUE, columnTops.getQuick(columnIndex), transientRowCount);
+            } else if (maxTimestamp != Long.MIN_VALUE) {
+                final long activePartitionTimestamp = timestampFloorMethod.floor(maxTimestamp);
+                for (
+                        long timestamp = timestampFloorMethod.floor(minTimestamp);
+                        timestamp < activePartitionTimestamp;
+                        timestamp = nextTimestampMethod.calculate(timestamp, 1)
+                ) {
+                    if (!removedPartitions.contains(timestamp)) {
+                        addPartitionIndexBuilder(builders, columnName, indexValueBlockCapacity, timestamp, -1, -1);
+                    }
+                }
+                addPartitionIndexBuilder(builders, columnName, indexValueBlockCapacity, activePartitionTimestamp, columnTops.getQuick(columnIndex), transientRowCount);
+            }
+
+            final int builderCount = builders.size();
+            if (parallelIndexerEnabled && builderCount > 1) {
+                if (indexParallel(builders, builderCount, 0, Long.MAX_VALUE)) {
+                    throw CairoException.instance(0).put("Could not build index [column=").put(columnName).put(']');
+                }
+            } else {
+                for (int i = 0; i < builderCount; i++) {
+                    builders.getQuick(i).index(0, Long.MAX_VALUE);
+                }
+            }
+            LOG.info().$("built index [column=").utf8(columnName).$(", partitions=").$(builderCount).$(']').$();
+        } finally {
+            Misc.freeObjList(builders);
+        }
+    }
+
     private void bumpMasterRef() {
         if ((masterRef & 1) != 0) {
             cancelRow();
@@ -899,6 +1406,12 @@ public class TableWriter implements Closeable {
             return;
         }
 
+        if (activeColumns != columns) {
+            cancelRowO3();
+            refs.fill(0, columnCount, --masterRef);
+            return;
+        }
+
         if (transientRowCount == 0) {
             if (partitionBy != PartitionBy.NONE) {
                 // we have to undo creation of partition
@@ -970,6 +1483,33 @@ public class TableWriter implements Closeable {
         refs.fill(0, columnCount, --masterRef);
     }
 
+    private void cancelRowO3() {
+        // rewind out-of-order buffers to end of last complete row
+        for (int i = 0; i < columnCount; i++) {
+            final VirtualMemory mem1 = o3Columns.getQuick(getPrimaryColumnIndex(i));
+            final VirtualMemory mem2 = o3Columns.getQuick(getSecondaryColumnIndex(i));
+            final int type = metadata.getColumnType(i);
+            if (mem2 == null) {
+                mem1.jumpTo(o3RowCount * ColumnType.sizeOf(type));
+            } else if (o3RowCount == 0) {
+                mem1.jumpTo(0);
+                mem2.jumpTo(0);
+            } else {
+                final long offset = mem2.getLong((o3RowCount - 1) * 8);
+                if (type == ColumnType.STRING) {
+                    final int len = mem1.getStrLen(offset);
+                    mem1.jumpTo(offset + (len == TableUtils.NULL_LEN ? 4 : 4 + len * 2L));
+                } else {
+                    final long len = mem1.getBinLen(offset);
+                    mem1.jumpTo(offset + (len == TableUtils.NULL_LEN ? 8 : 8 + len));
+                }
+                mem2.jumpTo(o3RowCount * 8);
+            }
+        }
+        activeColumns = columns;
+        activeNullers = nullers;
+    }
+
     private void checkDistressed() {
         if (distressed) {
             throw new CairoError("Table '" + name.toString() + "' is distressed");
@@ -1041,7 +1581,15 @@ public class TableWriter implements Closeable {
         }
         columns.add(primary);
         columns.add(secondary);
-        configureNuller(type, primary, secondary);
+        configureNuller(type, primary, secondary, nullers);
+        if (outOfOrderEnabled) {
+            final VirtualMemory o3Primary = new VirtualMemory(configuration.getOutOfOrderPageSize());
+            final VirtualMemory o3Secondary = secondary == null ? null : new VirtualMemory(configuration.getOutOfOrderPageSize());
+            o3Columns.add(o3Primary);
+            o3Columns.add(o3Secondary);
+            configureNuller(type, o3Primary, o3Secondary, o3Nullers);
+            configureNuller(type, o3DstMem1, o3DstMem2, o3DstNullers);
+        }
         if (indexFlag) {
             indexers.extendAndSet((columns.size() - 1) / 2, new SymbolColumnIndexer());
             populateDenseIndexerList();
@@ -1073,7 +1621,7 @@ public class TableWriter implements Closeable {
         populateDenseIndexerList();
     }
 
-    private void configureNuller(int type, AppendMemory mem1, AppendMemory mem2) {
+    private void configureNuller(int type, VirtualMemory mem1, VirtualMemory mem2, ObjList<Runnable> nullers) {
         switch (type) {
             case ColumnType.BOOLEAN:
             case ColumnType.BYTE:
@@ -1123,6 +1671,10 @@ public class TableWriter implements Closeable {
             };
         } else {
             nullers.setQuick(index, NOOP);
+            if (outOfOrderEnabled) {
+                // timestamp of out-of-order row is written when row is created
+                o3Nullers.setQuick(index, NOOP);
+            }
             return getPrimaryColumn(index)::putLong;
         }
     }
@@ -1147,7 +1699,7 @@ public class TableWriter implements Closeable {
             // reuse memory column object to create index and close it at the end
             try (AppendMemory mem = getPrimaryColumn(columnIndex)) {
                 mem.of(ff, path, ff.getPageSize());
-                BitmapIndexWriter.initKeyMemory(mem, indexValueBlockCapacity);
+                BitmapIndexWriter.initKeyMemory(mem, indexValueBlockCapacity, configuration.isIndexPackingEnabled());
             } catch (CairoException e) {
                 // looks like we could not create key file properly
                 // lets not leave half baked file sitting around
@@ -1180,6 +1732,7 @@ public class TableWriter implements Closeable {
         } finally {
             Misc.free(metaMem);
             Misc.free(txPendingPartitionSizes);
+            freeO3();
             Misc.free(ddlMem);
             Misc.free(other);
             try {
@@ -1213,6 +1766,17 @@ public class TableWriter implements Closeable {
         }
     }
 
+    private void freeO3() {
+        for (int i = 0, n = o3Columns.size(); i < n; i++) {
+            Misc.free(o3Columns.getQuick(i));
+        }
+        Misc.free(o3SrcMem1);
+        Misc.free(o3SrcMem2);
+        Misc.free(o3DstMem1);
+        Misc.free(o3DstMem2);
+        Misc.free(o3IndexWriter);
+    }
+
     private void freeSymbolMapWriters() {
         if (denseSymbolMapWriters != null) {
             for (int i = 0, n = denseSymbolMapWriters.size(); i < n; i++) {
@@ -1311,19 +1875,126 @@ public class TableWriter implements Closeable {
         return symbolMapWriters.getQuick(columnIndex).isCached();
     }
 
-    private void loadRemovedPartitions() {
-        int symbolWriterCount = denseSymbolMapWriters.size();
-        int partitionTableSize = txMem.getInt(getPartitionTableSizeOffset(symbolWriterCount));
-        if (partitionTableSize > 0) {
-            for (int i = 0; i < partitionTableSize; i++) {
-                removedPartitions.add(txMem.getLong(getPartitionTableIndexOffset(symbolWriterCount, i)));
+    private int indexColumnInMeta(int columnIndex, int indexValueBlockCapacity) {
+        try {
+            int index = openMetaSwapFile(ff, ddlMem, path, rootLen, configuration.getMaxSwapFileCount());
+            ddlMem.putInt(columnCount);
+            ddlMem.putInt(partitionBy);
+            ddlMem.putInt(metaMem.getInt(META_OFFSET_TIMESTAMP_INDEX));
+            ddlMem.jumpTo(META_OFFSET_COLUMN_TYPES);
+            for (int i = 0; i < columnCount; i++) {
+                if (i == columnIndex) {
+                    ddlMem.putByte((byte) getColumnType(metaMem, i));
+                    ddlMem.putBool(true);
+                    ddlMem.putInt(indexValueBlockCapacity);
+                    ddlMem.skip(10);
+                } else {
+                    writeColumnEntry(i);
+                }
+            }
+
+            long nameOffset = getColumnNameOffset(columnCount);
+            for (int i = 0; i < columnCount; i++) {
+                CharSequence columnName = metaMem.getStr(nameOffset);
+                ddlMem.putStr(columnName);
+                nameOffset += VirtualMemory.getStorageLength(columnName);
             }
+            return index;
+        } finally {
+            ddlMem.close();
         }
     }
 
-    private void lock() {
-        try {
-            path.trimTo(rootLen);
+    /**
+     * Publishes all but last indexer on indexer queue and runs last indexer in current thread. Indexers
+     * that are not picked up by workers in time are stolen back by current thread.
+     *
+     * @return true when any of indexers is distressed
+     */
+    private boolean indexParallel(ObjList<? extends ColumnIndexerTask> indexers, int indexCount, long lo, long hi) {
+
+        indexSequences.clear();
+        indexLatch.setCount(indexCount);
+        final int nParallelIndexes = indexCount - 1;
+        final CairoWorkQueue<ColumnIndexerEntry> indexerWorkQueue = this.workScheduler.getWorkQueue(ColumnIndexerEntry.QUEUE_TYPE);
+        final Sequence indexPubSequence = indexerWorkQueue.getPubSequence();
+        final RingQueue<ColumnIndexerEntry> indexerQueue = indexerWorkQueue.getQueue();
+
+        // we are going to index last column in this thread while other columns are on the queue
+        OUT:
+        for (int i = 0; i < nParallelIndexes; i++) {
+
+            long cursor = indexPubSequence.next();
+            if (cursor == -1) {
+                // queue is full, process index in the current thread
+                indexAndCountDown(indexers.getQuick(i), lo, hi, indexLatch);
+                continue;
+            }
+
+            if (cursor == -2) {
+                // CAS issue, retry
+                do {
+                    cursor = indexPubSequence.next();
+                    if (cursor == -1) {
+                        indexAndCountDown(indexers.getQuick(i), lo, hi, indexLatch);
+                        continue OUT;
+                    }
+
+                } while (cursor < 0);
+            }
+
+            final ColumnIndexerEntry queueItem = indexerQueue.get(cursor);
+            final ColumnIndexerTask indexer = indexers.getQuick(i);
+            final long sequence = indexer.getSequence();
+            queueItem.indexer = indexer;
+            queueItem.lo = lo;
+            queueItem.hi = hi;
+            queueItem.countDownLatch = indexLatch;
+            queueItem.sequence = sequence;
+            indexSequences.add(sequence);
+            indexPubSequence.done(cursor);
+        }
+
+        // index last column while other columns are brewing on the queue
+        indexAndCountDown(indexers.getQuick(indexCount - 1), lo, hi, indexLatch);
+
+        // At this point we have re-indexed our column and if things are flowing nicely
+        // all other columns should have been done by other threads. Instead of actually
+        // waiting we gracefully check latch count.
+        if (!indexLatch.await(configuration.getWorkStealTimeoutNanos())) {
+            // other columns are still in-flight, we must attempt to steal work from other threads
+            for (int i = 0; i < nParallelIndexes; i++) {
+                ColumnIndexerTask indexer = indexers.getQuick(i);
+                if (indexer.tryLock(indexSequences.getQuick(i))) {
+                    indexAndCountDown(indexer, lo, hi, indexLatch);
+                }
+            }
+            // wait for the ones we cannot steal
+            indexLatch.await();
+        }
+
+        // reset lock on completed indexers
+        boolean distressed = false;
+        for (int i = 0; i < indexCount; i++) {
+            ColumnIndexerTask indexer = indexers.getQuick(i);
+            distressed = distressed | indexer.isDistressed();
+        }
+        return distressed;
+    }
+
+    private void loadRemovedPartitions() {
+        int symbolWriterCount = denseSymbolMapWriters.size();
+        int partitionTableSize = txMem.getInt(getPartitionTableSizeOffset(symbolWriterCount));
+        if (partitionTableSize > 0) {
+            for (int i = 0; i < partitionTableSize; i++) {
+                removedPartitions.add(txMem.getLong(getPartitionTableIndexOffset(symbolWriterCount, i)));
+            }
+        }
+    }
+
+    private void lock() {
+        try {
+            path.trimTo(rootLen);
             lockName(path);
             performRecovery = ff.exists(path);
             this.lockFd = TableUtils.lock(ff, path);
@@ -1336,6 +2007,215 @@ public class TableWriter implements Closeable {
         }
     }
 
+    /**
+     * Merges out-of-order rows with existing rows of single partition. Merged partition is written into
+     * a sibling directory, which then replaces the original. Partition directory is created
+     * when none of the out-of-order rows fall into existing partition.
+     *
+     * @param partitionTimestamp timestamp of partition
+     * @param lo                 first out-of-order row in sorted index, inclusive
+     * @param hi                 last out-of-order row in sorted index, exclusive
+     */
+    private void mergeO3Partition(long partitionTimestamp, int lo, int hi) {
+        final boolean active = partitionBy == PartitionBy.NONE || partitionTimestamp == timestampFloorMethod.floor(maxTimestamp);
+        long pendingOffset = -1;
+        final long srcRowCount;
+
+        try {
+            setStateForTimestamp(partitionTimestamp, false);
+            final int plen = path.length();
+
+            if (active) {
+                srcRowCount = transientRowCount;
+            } else {
+                for (int i = 0, n = txPartitionCount - 1; i < n; i++) {
+                    if (timestampFloorMethod.floor(txPendingPartitionSizes.getLong(i * 16 + 8)) == partitionTimestamp) {
+                        pendingOffset = i * 16;
+                        break;
+                    }
+                }
+
+                if (pendingOffset > -1) {
+                    srcRowCount = txPendingPartitionSizes.getLong(pendingOffset);
+                } else if (ff.exists(path.$())) {
+                    srcRowCount = readPartitionSize(ff, path.chopZ(), tempMem8b);
+                } else {
+                    srcRowCount = 0;
+                }
+            }
+
+            // plan merge as sequence of runs that alternate between existing and out-of-order rows,
+            // existing rows go first when timestamps are equal
+            o3MergeRuns.clear();
+            if (srcRowCount > 0) {
+                o3SrcMem1.of(ff, dFile(path.trimTo(plen), metadata.getColumnName(metadata.getTimestampIndex())), ff.getMapPageSize(), srcRowCount * 8);
+                try {
+                    long srcPos = 0;
+                    int o3Pos = lo;
+                    while (srcPos < srcRowCount && o3Pos < hi) {
+                        final long srcHi = searchO3Timestamp(o3SrcMem1, o3Index.getQuick(o3Pos * 2), srcPos, srcRowCount);
+                        if (srcHi > srcPos) {
+                            o3MergeRuns.add(O3_RUN_EXISTING);
+                            o3MergeRuns.add(srcPos);
+                            o3MergeRuns.add(srcHi);
+                            srcPos = srcHi;
+                        }
+
+                        if (srcPos < srcRowCount) {
+                            final long srcTimestamp = o3SrcMem1.getLong(srcPos * 8);
+                            int o3Hi = o3Pos + 1;
+                            while (o3Hi < hi && o3Index.getQuick(o3Hi * 2) < srcTimestamp) {
+                                o3Hi++;
+                            }
+                            o3MergeRuns.add(O3_RUN_OUT_OF_ORDER);
+                            o3MergeRuns.add(o3Pos);
+                            o3MergeRuns.add(o3Hi);
+                            o3Pos = o3Hi;
+                        }
+                    }
+
+                    if (srcPos < srcRowCount) {
+                        o3MergeRuns.add(O3_RUN_EXISTING);
+                        o3MergeRuns.add(srcPos);
+                        o3MergeRuns.add(srcRowCount);
+                    }
+
+                    if (o3Pos < hi) {
+                        o3MergeRuns.add(O3_RUN_OUT_OF_ORDER);
+                        o3MergeRuns.add(o3Pos);
+                        o3MergeRuns.add(hi);
+                    }
+                } finally {
+                    o3SrcMem1.close();
+                }
+            } else {
+                o3MergeRuns.add(O3_RUN_OUT_OF_ORDER);
+                o3MergeRuns.add(lo);
+                o3MergeRuns.add(hi);
+            }
+
+            other.trimTo(rootLen);
+            other.put(path, rootLen, plen);
+            other.put(O3_DIR_SUFFIX);
+            final int olen = other.length();
+            if (ff.exists(other.$()) && !ff.rmdir(other)) {
+                throw CairoException.instance(ff.errno()).put("Cannot remove directory: ").put(other);
+            }
+
+            if (ff.mkdirs(other.chopZ().put(Files.SEPARATOR).$(), mkDirMode) != 0) {
+                throw CairoException.instance(ff.errno()).put("Cannot create directory: ").put(other);
+            }
+
+            final long rowCount = srcRowCount + hi - lo;
+            for (int i = 0; i < columnCount; i++) {
+                mergeO3Column(i, plen, olen, srcRowCount, rowCount);
+            }
+
+            if (!active) {
+                // merged directory replaces partition after commit, it has to carry its own size
+                long fd = openAppend(other.trimTo(olen).concat(ARCHIVE_FILE_NAME).$());
+                try {
+                    Unsafe.getUnsafe().putLong(tempMem8b, rowCount);
+                    if (ff.append(fd, tempMem8b, 8) != 8) {
+                        throw CairoException.instance(ff.errno()).put("Cannot append ").put(other);
+                    }
+                } finally {
+                    ff.close(fd);
+                }
+            }
+
+            writeO3Marker(plen);
+            o3MergedPartitions.add(partitionTimestamp);
+
+            LOG.info()
+                    .$("merged out-of-order rows [path=").$(path.trimTo(plen).$())
+                    .$(", existing=").$(srcRowCount)
+                    .$(", added=").$(hi - lo)
+                    .$(']').$();
+        } finally {
+            path.trimTo(rootLen);
+            other.trimTo(rootLen);
+        }
+
+        if (active) {
+            // columns are reopened when merged partition is swapped in
+            transientRowCount += hi - lo;
+        } else {
+            fixedRowCount += hi - lo;
+            if (pendingOffset > -1) {
+                txPendingPartitionSizes.putLong(pendingOffset, srcRowCount + hi - lo);
+            }
+        }
+    }
+
+    private void mergeO3Column(int columnIndex, int plen, int olen, long srcRowCount, long rowCount) {
+        final CharSequence columnName = metadata.getColumnName(columnIndex);
+        final int type = metadata.getColumnType(columnIndex);
+        final VirtualMemory o3Mem1 = o3Columns.getQuick(getPrimaryColumnIndex(columnIndex));
+        final VirtualMemory o3Mem2 = o3Columns.getQuick(getSecondaryColumnIndex(columnIndex));
+        final Runnable nuller = o3DstNullers.getQuick(columnIndex);
+
+        try {
+            // existing rows above column top are read from partition files,
+            // rows below column top are nulls
+            long columnTop = srcRowCount;
+            if (srcRowCount > 0 && ff.exists(dFile(path.trimTo(plen), columnName))) {
+                columnTop = Math.min(readColumnTop(ff, path.trimTo(plen), columnName, plen, tempMem8b), srcRowCount);
+                if (columnTop < srcRowCount) {
+                    o3SrcMem1.of(ff, dFile(path.trimTo(plen), columnName), ff.getMapPageSize(), ff.length(path));
+                    if (o3Mem2 != null) {
+                        o3SrcMem2.of(ff, iFile(path.trimTo(plen), columnName), ff.getMapPageSize(), (srcRowCount - columnTop) * 8);
+                    }
+                }
+            }
+
+            o3DstMem1.of(ff, dFile(other.trimTo(olen), columnName), ff.getMapPageSize());
+            if (o3Mem2 != null) {
+                o3DstMem2.of(ff, iFile(other.trimTo(olen), columnName), ff.getMapPageSize());
+            }
+
+            for (int k = 0, n = o3MergeRuns.size(); k < n; k += 3) {
+                long runLo = o3MergeRuns.getQuick(k + 1);
+                final long runHi = o3MergeRuns.getQuick(k + 2);
+                if (o3MergeRuns.getQuick(k) == O3_RUN_EXISTING) {
+                    for (; runLo < runHi && runLo < columnTop; runLo++) {
+                        nuller.run();
+                    }
+
+                    if (runLo < runHi) {
+                        copyRows(type, o3SrcMem1, o3SrcMem2, runLo - columnTop, runHi - columnTop, o3DstMem1, o3DstMem2);
+                    }
+                } else {
+                    for (long p = runLo; p < runHi; p++) {
+                        final long row = o3Index.getQuick((int) p * 2 + 1);
+                        copyRows(type, o3Mem1, o3Mem2, row, row + 1, o3DstMem1, o3DstMem2);
+                    }
+                }
+            }
+        } finally {
+            o3SrcMem1.close();
+            o3SrcMem2.close();
+            o3DstMem1.close();
+            o3DstMem2.close();
+            path.trimTo(plen);
+            other.trimTo(olen);
+        }
+
+        if (metadata.isColumnIndexed(columnIndex)) {
+            buildO3Index(columnName, columnIndex, olen, rowCount);
+        }
+    }
+
+    private Row newRowO3(long timestamp) {
+        if (partitionBy != PartitionBy.NONE && removedPartitions.contains(timestampFloorMethod.floor(timestamp))) {
+            throw CairoException.instance(0).put("Cannot insert rows into removed partition. Table=").put(path);
+        }
+        activeColumns = o3Columns;
+        activeNullers = o3Nullers;
+        o3Columns.getQuick(getPrimaryColumnIndex(metadata.getTimestampIndex())).putLong(timestamp);
+        return row;
+    }
+
     private long openAppend(LPSZ name) {
         long fd = ff.openAppend(name);
         if (fd == -1) {
@@ -1429,6 +2309,13 @@ public class TableWriter implements Closeable {
 
                 openColumnFiles(name, i, plen);
                 columnTop = readColumnTop(ff, path, name, plen, tempMem8b);
+
+                // statistics describe partition as it was when writer left it, rows we
+                // are about to append make them obsolete
+                if (PartitionStats.isSupported(metadata.getColumnType(i))) {
+                    ff.remove(PartitionStats.statsFileName(path.trimTo(plen), name));
+                    path.trimTo(plen);
+                }
                 columnTops.extendAndSet(i, columnTop);
 
                 if (indexed) {
@@ -1472,6 +2359,67 @@ public class TableWriter implements Closeable {
         indexCount = denseIndexers.size();
     }
 
+    private void processO3() {
+        try {
+            final int n = (int) o3RowCount;
+            final VirtualMemory timestampMem = o3Columns.getQuick(getPrimaryColumnIndex(metadata.getTimestampIndex()));
+            o3Index.clear();
+            for (int i = 0; i < n; i++) {
+                o3Index.add(timestampMem.getLong(i * 8L));
+                o3Index.add(i);
+            }
+            sortO3Index(o3Index, 0, n - 1);
+
+            if (o3Index.getQuick(0) < minTimestamp) {
+                minTimestamp = o3Index.getQuick(0);
+            }
+
+            int lo = 0;
+            while (lo < n) {
+                int hi = n;
+                final long partitionTimestamp;
+                if (partitionBy == PartitionBy.NONE) {
+                    partitionTimestamp = o3Index.getQuick(lo * 2);
+                } else {
+                    partitionTimestamp = timestampFloorMethod.floor(o3Index.getQuick(lo * 2));
+                    final long partitionHi = nextTimestampMethod.calculate(partitionTimestamp, 1);
+                    hi = lo + 1;
+                    while (hi < n && o3Index.getQuick(hi * 2) < partitionHi) {
+                        hi++;
+                    }
+                }
+                mergeO3Partition(partitionTimestamp, lo, hi);
+                lo = hi;
+            }
+            resetO3();
+        } catch (CairoException e) {
+            LOG.error().$("out-of-order merge failed {").$((Sinkable) e).$('}').$();
+            throwDistressException(e);
+        }
+    }
+
+    private void removeO3Backups() {
+        try {
+            for (int i = 0, n = o3MergedPartitions.size(); i < n; i++) {
+                setStateForTimestamp(o3MergedPartitions.getQuick(i), false);
+                final int plen = path.length();
+                path.put(O3_BACKUP_DIR_SUFFIX).$();
+                if (ff.exists(path) && !ff.rmdir(path)) {
+                    LOG.error().$("cannot remove: ").$(path).$(" [errno=").$(ff.errno()).$(']').$();
+                }
+                // backup that is left behind is removed by recovery once marker is gone
+                path.trimTo(plen).put(O3_TXN_FILE_SUFFIX).$();
+                if (!ff.remove(path)) {
+                    LOG.error().$("cannot remove: ").$(path).$(" [errno=").$(ff.errno()).$(']').$();
+                }
+                path.trimTo(rootLen);
+            }
+        } finally {
+            path.trimTo(rootLen);
+            o3MergedPartitions.clear();
+        }
+    }
+
     private void purgeUnusedPartitions() {
         if (partitionBy != PartitionBy.NONE) {
             removePartitionDirsNewerThan(maxTimestamp);
@@ -1527,6 +2475,122 @@ public class TableWriter implements Closeable {
         recoverFromSwapRenameFailure(columnName);
     }
 
+    /**
+     * Out-of-order merge writes merged copy of partition next to it and marks it with number of transaction
+     * merge belongs to. Once this transaction is committed merged copy replaces partition directory and
+     * original is kept as backup until swap is complete. Swap that has been interrupted after commit is
+     * rolled forward, merge that has not been committed is discarded. Incomplete merge results are removed.
+     */
+    private void recoverOutOfOrderSwap() {
+        final long committedTxn = txMem.getLong(TX_OFFSET_TXN_CHECK);
+        try {
+            ff.iterateDir(path.$(), (pName, type) -> {
+                nativeLPSZ.of(pName);
+                if (type == Files.DT_DIR) {
+                    path.trimTo(rootLen).concat(nativeLPSZ).$();
+                    if (Chars.endsWith(nativeLPSZ, O3_DIR_SUFFIX)) {
+                        // merged copies with marker are taken care of when marker is found
+                        final int len = nativeLPSZ.length() - O3_DIR_SUFFIX.length();
+                        other.trimTo(rootLen).concat(nativeLPSZ, 0, len).put(O3_TXN_FILE_SUFFIX).$();
+                        if (!ff.exists(other) && !ff.rmdir(path)) {
+                            LOG.error().$("cannot remove: ").$(path).$(" [errno=").$(ff.errno()).$(']').$();
+                        }
+                    } else if (Chars.endsWith(nativeLPSZ, O3_BACKUP_DIR_SUFFIX)) {
+                        final int len = nativeLPSZ.length() - O3_BACKUP_DIR_SUFFIX.length();
+                        other.trimTo(rootLen).concat(nativeLPSZ, 0, len).put(O3_TXN_FILE_SUFFIX).$();
+                        // backups with marker are taken care of when marker is found
+                        if (!ff.exists(other)) {
+                            // backup without marker is left behind by commit that could not remove it
+                            other.trimTo(rootLen).concat(nativeLPSZ, 0, len).$();
+                            if (ff.exists(other)) {
+                                if (!ff.rmdir(path)) {
+                                    LOG.error().$("cannot remove: ").$(path).$(" [errno=").$(ff.errno()).$(']').$();
+                                }
+                            } else {
+                                restoreO3Backup();
+                            }
+                        }
+                    }
+                } else if (Chars.endsWith(nativeLPSZ, O3_TXN_FILE_SUFFIX)) {
+                    final int len = nativeLPSZ.length() - O3_TXN_FILE_SUFFIX.length();
+                    path.trimTo(rootLen).concat(nativeLPSZ, 0, len);
+                    final long markerTxn = readO3Txn(ff, path, tempMem8b);
+                    if (markerTxn <= committedTxn) {
+                        rollO3SwapForward(len);
+                    } else {
+                        // merge is not committed, partition directory is still the original
+                        path.trimTo(rootLen).concat(nativeLPSZ, 0, len).put(O3_DIR_SUFFIX).$();
+                        if (ff.exists(path) && !ff.rmdir(path)) {
+                            throw CairoException.instance(ff.errno()).put("Cannot remove uncommitted partition ").put(path);
+                        }
+                        path.trimTo(rootLen).concat(nativeLPSZ, 0, len).put(O3_BACKUP_DIR_SUFFIX).$();
+                        if (ff.exists(path)) {
+                            other.trimTo(rootLen).concat(nativeLPSZ, 0, len).$();
+                            restoreO3Backup();
+                        }
+                    }
+
+                    other.trimTo(rootLen).concat(nativeLPSZ).$();
+                    if (!ff.remove(other)) {
+                        throw CairoException.instance(ff.errno()).put("Cannot remove ").put(other);
+                    }
+                }
+            });
+        } finally {
+            path.trimTo(rootLen);
+            other.trimTo(rootLen);
+        }
+    }
+
+    /**
+     * Completes swap of committed merge, partition name is the first "len" characters of
+     * marker name in nativeLPSZ.
+     *
+     * @param len length of partition directory name
+     */
+    private void rollO3SwapForward(int len) {
+        path.trimTo(rootLen).concat(nativeLPSZ, 0, len).put(O3_DIR_SUFFIX).$();
+        if (ff.exists(path)) {
+            other.trimTo(rootLen).concat(nativeLPSZ, 0, len).$();
+            if (ff.exists(other)) {
+                path.trimTo(rootLen).concat(nativeLPSZ, 0, len).put(O3_BACKUP_DIR_SUFFIX).$();
+                if (ff.exists(path) && !ff.rmdir(path)) {
+                    throw CairoException.instance(ff.errno()).put("Cannot remove directory: ").put(path);
+                }
+                if (!ff.rename(other, path)) {
+                    throw CairoException.instance(ff.errno()).put("Cannot rename ").put(other).put(" -> ").put(path);
+                }
+                path.trimTo(rootLen).concat(nativeLPSZ, 0, len).put(O3_DIR_SUFFIX).$();
+            }
+            if (ff.rename(path, other)) {
+                LOG.info().$("completed out-of-order swap [path=").$(other).$(']').$();
+            } else {
+                throw CairoException.instance(ff.errno()).put("Cannot rename ").put(path).put(" -> ").put(other);
+            }
+        }
+
+        // merge is committed, discard original
+        path.trimTo(rootLen).concat(nativeLPSZ, 0, len).put(O3_BACKUP_DIR_SUFFIX).$();
+        if (ff.exists(path) && !ff.rmdir(path)) {
+            LOG.error().$("cannot remove: ").$(path).$(" [errno=").$(ff.errno()).$(']').$();
+        }
+    }
+
+    /**
+     * Removes partition directory, which has to be in "other", and renames its backup, which has
+     * to be in "path", back.
+     */
+    private void restoreO3Backup() {
+        if (ff.exists(other) && !ff.rmdir(other)) {
+            throw CairoException.instance(ff.errno()).put("Cannot remove uncommitted partition ").put(other);
+        }
+        if (ff.rename(path, other)) {
+            LOG.info().$("restored partition [path=").$(other).$(']').$();
+        } else {
+            throw CairoException.instance(ff.errno()).put("Cannot restore partition ").put(path).put(" -> ").put(other);
+        }
+    }
+
     private void releaseLock(boolean distressed) {
         if (lockFd != -1L) {
             ff.close(lockFd);
@@ -1550,6 +2614,14 @@ public class TableWriter implements Closeable {
         columns.remove(getPrimaryColumnIndex(columnIndex));
         columnTops.removeIndex(columnIndex);
         nullers.remove(columnIndex);
+        if (outOfOrderEnabled) {
+            Misc.free(o3Columns.getQuick(getPrimaryColumnIndex(columnIndex)));
+            Misc.free(o3Columns.getQuick(getSecondaryColumnIndex(columnIndex)));
+            o3Columns.remove(getSecondaryColumnIndex(columnIndex));
+            o3Columns.remove(getPrimaryColumnIndex(columnIndex));
+            o3Nullers.remove(columnIndex);
+            o3DstNullers.remove(columnIndex);
+        }
         if (columnIndex < indexers.size()) {
             Misc.free(indexers.getQuick(columnIndex));
             indexers.remove(columnIndex);
@@ -1570,6 +2642,7 @@ public class TableWriter implements Closeable {
                     removeLambda.remove(ff, topFile(path.trimTo(plen), columnName));
                     removeLambda.remove(ff, BitmapIndexUtils.keyFileName(path.trimTo(plen), columnName));
                     removeLambda.remove(ff, BitmapIndexUtils.valueFileName(path.trimTo(plen), columnName));
+                    removeLambda.remove(ff, PartitionStats.statsFileName(path.trimTo(plen), columnName));
                 }
             });
 
@@ -1808,6 +2881,20 @@ public class TableWriter implements Closeable {
         removeTodoFile();
     }
 
+    private void resetO3() {
+        if (o3RowCount > 0 || activeColumns != columns) {
+            for (int i = 0, n = o3Columns.size(); i < n; i++) {
+                VirtualMemory mem = o3Columns.getQuick(i);
+                if (mem != null) {
+                    mem.jumpTo(0);
+                }
+            }
+            o3RowCount = 0;
+            activeColumns = columns;
+            activeNullers = nullers;
+        }
+    }
+
     private void restoreMetaFrom(CharSequence fromBase, int fromIndex) {
         try {
             path.concat(fromBase);
@@ -1925,6 +3012,84 @@ public class TableWriter implements Closeable {
         }
     }
 
+    /**
+     * Replaces partition directories with the merged ones once transaction is committed. Originals
+     * are kept as backup until swap is complete, see {@link #recoverOutOfOrderSwap()}. Readers
+     * choose between merged, original and backup directories using transaction number in marker.
+     */
+    private void swapO3Partitions() {
+        final long activePartition = partitionBy == PartitionBy.NONE ? Long.MIN_VALUE : timestampFloorMethod.floor(maxTimestamp);
+        boolean activeMerged = false;
+        try {
+            for (int i = 0, n = o3MergedPartitions.size(); i < n; i++) {
+                final long partitionTimestamp = o3MergedPartitions.getQuick(i);
+                if (partitionBy == PartitionBy.NONE || partitionTimestamp == activePartition) {
+                    // active partition files have to be closed before directory can be replaced
+                    freeColumns(false);
+                    for (int k = 0; k < indexCount; k++) {
+                        Misc.free(denseIndexers.getQuick(k));
+                    }
+                    activeMerged = true;
+                }
+
+                setStateForTimestamp(partitionTimestamp, false);
+                final int plen = path.length();
+                other.trimTo(rootLen).put(path, rootLen, plen);
+                if (ff.exists(path.$())) {
+                    other.put(O3_BACKUP_DIR_SUFFIX).$();
+                    if (ff.exists(other) && !ff.rmdir(other)) {
+                        throw CairoException.instance(ff.errno()).put("Cannot remove directory: ").put(other);
+                    }
+                    if (!ff.rename(path, other)) {
+                        throw CairoException.instance(ff.errno()).put("Cannot rename ").put(path).put(" -> ").put(other);
+                    }
+                    other.trimTo(rootLen).put(path, rootLen, plen);
+                }
+
+                path.trimTo(plen).put(O3_DIR_SUFFIX).$();
+                if (!ff.rename(path, other.$())) {
+                    throw CairoException.instance(ff.errno()).put("Cannot rename ").put(path).put(" -> ").put(other);
+                }
+                path.trimTo(rootLen);
+                other.trimTo(rootLen);
+            }
+        } catch (CairoException e) {
+            LOG.error().$("out-of-order swap failed {").$((Sinkable) e).$('}').$();
+            throwDistressException(e);
+        } finally {
+            path.trimTo(rootLen);
+            other.trimTo(rootLen);
+        }
+
+        if (activeMerged) {
+            openPartition(maxTimestamp);
+            setAppendPosition(transientRowCount);
+        }
+    }
+
+    /**
+     * Writes marker with number of transaction that is about to be committed next to partition directory,
+     * which has to be in path. Marker tells readers and recovery that merged directory is complete.
+     *
+     * @param plen length of partition directory path
+     */
+    private void writeO3Marker(int plen) {
+        other.trimTo(rootLen).put(path, rootLen, plen);
+        other.put(O3_TXN_FILE_SUFFIX).$();
+        final long fd = ff.openRW(other);
+        if (fd == -1) {
+            throw CairoException.instance(ff.errno()).put("Cannot open ").put(other);
+        }
+        try {
+            Unsafe.getUnsafe().putLong(tempMem8b, txn + 1);
+            if (ff.write(fd, tempMem8b, 8, 0) != 8) {
+                throw CairoException.instance(ff.errno()).put("Cannot write ").put(other);
+            }
+        } finally {
+            ff.close(fd);
+        }
+    }
+
     private void switchPartition(long timestamp) {
         // Before partition can be switched we need to index records
         // added so far. Index writers will start point to different
@@ -1938,6 +3103,7 @@ public class TableWriter implements Closeable {
         if (txPartitionCount++ > 0) {
             txPendingPartitionSizes.putLong128(transientRowCount, maxTimestamp);
         }
+        writePartitionStats();
         fixedRowCount += transientRowCount;
         txPrevTransientRowCount = transientRowCount;
         transientRowCount = 0;
@@ -1963,74 +3129,7 @@ public class TableWriter implements Closeable {
     }
 
     private void updateIndexesParallel(long lo, long hi) {
-
-        indexSequences.clear();
-        indexLatch.setCount(indexCount);
-        final int nParallelIndexes = indexCount - 1;
-        final Sequence indexPubSequence = this.workScheduler.getIndexerPubSequence();
-        final RingQueue<ColumnIndexerEntry> indexerQueue = this.workScheduler.getIndexerQueue();
-
-        // we are going to index last column in this thread while other columns are on the queue
-        OUT:
-        for (int i = 0; i < nParallelIndexes; i++) {
-
-            long cursor = indexPubSequence.next();
-            if (cursor == -1) {
-                // queue is full, process index in the current thread
-                indexAndCountDown(denseIndexers.getQuick(i), lo, hi, indexLatch);
-                continue;
-            }
-
-            if (cursor == -2) {
-                // CAS issue, retry
-                do {
-                    cursor = indexPubSequence.next();
-                    if (cursor == -1) {
-                        indexAndCountDown(denseIndexers.getQuick(i), lo, hi, indexLatch);
-                        continue OUT;
-                    }
-
-                } while (cursor < 0);
-            }
-
-            final ColumnIndexerEntry queueItem = indexerQueue.get(cursor);
-            final ColumnIndexer indexer = denseIndexers.getQuick(i);
-            final long sequence = indexer.getSequence();
-            queueItem.indexer = indexer;
-            queueItem.lo = lo;
-            queueItem.hi = hi;
-            queueItem.countDownLatch = indexLatch;
-            queueItem.sequence = sequence;
-            indexSequences.add(sequence);
-            indexPubSequence.done(cursor);
-        }
-
-        // index last column while other columns are brewing on the queue
-        indexAndCountDown(denseIndexers.getQuick(indexCount - 1), lo, hi, indexLatch);
-
-        // At this point we have re-indexed our column and if things are flowing nicely
-        // all other columns should have been done by other threads. Instead of actually
-        // waiting we gracefully check latch count.
-        if (!indexLatch.await(configuration.getWorkStealTimeoutNanos())) {
-            // other columns are still in-flight, we must attempt to steal work from other threads
-            for (int i = 0; i < nParallelIndexes; i++) {
-                ColumnIndexer indexer = denseIndexers.getQuick(i);
-                if (indexer.tryLock(indexSequences.getQuick(i))) {
-                    indexAndCountDown(indexer, lo, hi, indexLatch);
-                }
-            }
-            // wait for the ones we cannot steal
-            indexLatch.await();
-        }
-
-        // reset lock on completed indexers
-        boolean distressed = false;
-        for (int i = 0; i < indexCount; i++) {
-            ColumnIndexer indexer = denseIndexers.getQuick(i);
-            distressed = distressed | indexer.isDistressed();
-        }
-
-        if (distressed) {
+        if (indexParallel(denseIndexers, indexCount, lo, hi)) {
             throwDistressException(null);
         }
     }
@@ -2091,6 +3190,125 @@ public class TableWriter implements Closeable {
         }
     }
 
+    private void writePartitionStats() {
+        if (!partitionStatsEnabled || transientRowCount < 1) {
+            return;
+        }
+
+        try {
+            setStateForTimestamp(maxTimestamp, false);
+            final int plen = path.length();
+            for (int i = 0; i < columnCount; i++) {
+                final int type = metadata.getColumnType(i);
+                if (PartitionStats.isSupported(type)) {
+                    final CharSequence columnName = metadata.getColumnName(i);
+                    try {
+                        writePartitionStats(columnName, type, columnTops.getQuick(i), plen);
+                    } catch (CairoException e) {
+                        // statistics are optional, partition without them is always scanned
+                        LOG.error().$("cannot write partition stats [path=").$(path.trimTo(plen)).$(", column=").$(columnName).$("] {").$((Sinkable) e).$('}').$();
+                        ff.remove(PartitionStats.statsFileName(path.trimTo(plen), columnName));
+                        path.trimTo(plen);
+                    }
+                }
+            }
+        } finally {
+            path.trimTo(rootLen);
+        }
+    }
+
+    private void writePartitionStats(CharSequence columnName, int type, long columnTop, int plen) {
+        final long dataRowCount = transientRowCount - columnTop;
+        final long bloomBitCount = PartitionStats.bloomBitCount(transientRowCount);
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+
+        statsBloom.seed((int) (bloomBitCount >>> 6), 0);
+
+        // rows above column top are nulls
+        if (columnTop > 0) {
+            switch (type) {
+                case ColumnType.INT:
+                    min = max = Numbers.INT_NaN;
+                    addToStatsBloom(PartitionStats.hash(Numbers.INT_NaN), bloomBitCount);
+                    break;
+                case ColumnType.LONG:
+                    min = max = Numbers.LONG_NaN;
+                    addToStatsBloom(PartitionStats.hash(Numbers.LONG_NaN), bloomBitCount);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        if (dataRowCount > 0) {
+            try {
+                switch (type) {
+                    case ColumnType.INT:
+                        o3SrcMem1.of(ff, dFile(path.trimTo(plen), columnName), ff.getMapPageSize(), dataRowCount * Integer.BYTES);
+                        for (long r = 0; r < dataRowCount; r++) {
+                            final int value = o3SrcMem1.getInt(r * Integer.BYTES);
+                            min = Math.min(min, value);
+                            max = Math.max(max, value);
+                            addToStatsBloom(PartitionStats.hash(value), bloomBitCount);
+                        }
+                        break;
+                    case ColumnType.LONG:
+                        o3SrcMem1.of(ff, dFile(path.trimTo(plen), columnName), ff.getMapPageSize(), dataRowCount * Long.BYTES);
+                        for (long r = 0; r < dataRowCount; r++) {
+                            final long value = o3SrcMem1.getLong(r * Long.BYTES);
+                            min = Math.min(min, value);
+                            max = Math.max(max, value);
+                            addToStatsBloom(PartitionStats.hash(value), bloomBitCount);
+                        }
+                        break;
+                    case ColumnType.SYMBOL:
+                        o3SrcMem1.of(ff, dFile(path.trimTo(plen), columnName), ff.getMapPageSize(), dataRowCount * Integer.BYTES);
+                        for (long r = 0; r < dataRowCount; r++) {
+                            final int key = o3SrcMem1.getInt(r * Integer.BYTES);
+                            if (key != SymbolTable.VALUE_IS_NULL) {
+                                addToStatsBloom(PartitionStats.hash(key), bloomBitCount);
+                            }
+                        }
+                        break;
+                    default:
+                        assert type == ColumnType.STRING;
+                        o3SrcMem1.of(ff, dFile(path.trimTo(plen), columnName), ff.getMapPageSize(), ff.length(path));
+                        long offset = 0;
+                        for (long r = 0; r < dataRowCount; r++) {
+                            final CharSequence value = o3SrcMem1.getStr(offset);
+                            if (value != null) {
+                                addToStatsBloom(PartitionStats.hash(value), bloomBitCount);
+                            }
+                            offset += VirtualMemory.getStorageLength(value);
+                        }
+                        break;
+                }
+            } finally {
+                o3SrcMem1.close();
+            }
+        }
+
+        if (!PartitionStats.hasMinMax(type)) {
+            min = Long.MIN_VALUE;
+            max = Long.MAX_VALUE;
+        }
+
+        try {
+            o3DstMem1.of(ff, PartitionStats.statsFileName(path.trimTo(plen), columnName), ff.getPageSize());
+            o3DstMem1.putLong(transientRowCount);
+            o3DstMem1.putLong(min);
+            o3DstMem1.putLong(max);
+            o3DstMem1.putLong(bloomBitCount);
+            for (int i = 0, n = statsBloom.size(); i < n; i++) {
+                o3DstMem1.putLong(statsBloom.getQuick(i));
+            }
+        } finally {
+            o3DstMem1.close();
+            path.trimTo(plen);
+        }
+    }
+
     private void writeRestoreMetaTodo(CharSequence columnName) {
         try {
             writeTodo(((long) metaPrevIndex << 8) | TODO_RESTORE_META);
@@ -2141,6 +3359,9 @@ public class TableWriter implements Closeable {
         public Row newRow(long timestamp) {
             bumpMasterRef();
             if (timestamp < maxTimestamp) {
+                if (outOfOrderEnabled && metadata.getTimestampIndex() > -1) {
+                    return newRowO3(timestamp);
+                }
                 throw CairoException.instance(ff.errno()).put("Cannot insert rows out of order. Table=").put(path);
             }
             updateMaxTimestamp(timestamp);
@@ -2163,6 +3384,9 @@ public class TableWriter implements Closeable {
         @NotNull
         private Row newRow0(long timestamp) {
             if (timestamp < maxTimestamp) {
+                if (outOfOrderEnabled) {
+                    return newRowO3(timestamp);
+                }
                 throw CairoException.instance(ff.errno()).put("Cannot insert rows out of order. Table=").put(path);
             }
 
@@ -2183,10 +3407,17 @@ public class TableWriter implements Closeable {
 
             for (int i = 0; i < columnCount; i++) {
                 if (refs.getQuick(i) < masterRef) {
-                    nullers.getQuick(i).run();
+                    activeNullers.getQuick(i).run();
                 }
             }
-            transientRowCount++;
+
+            if (activeColumns == columns) {
+                transientRowCount++;
+            } else {
+                o3RowCount++;
+                activeColumns = columns;
+                activeNullers = nullers;
+            }
             masterRef++;
         }
 
@@ -2195,27 +3426,27 @@ public class TableWriter implements Closeable {
         }
 
         public void putBin(int index, long address, long len) {
-            getSecondaryColumn(index).putLong(getPrimaryColumn(index).putBin(address, len));
+            getActiveSecondaryColumn(index).putLong(getActivePrimaryColumn(index).putBin(address, len));
             notNull(index);
         }
 
         public void putBin(int index, BinarySequence sequence) {
-            getSecondaryColumn(index).putLong(getPrimaryColumn(index).putBin(sequence));
+            getActiveSecondaryColumn(index).putLong(getActivePrimaryColumn(index).putBin(sequence));
             notNull(index);
         }
 
         public void putBool(int index, boolean value) {
-            getPrimaryColumn(index).putBool(value);
+            getActivePrimaryColumn(index).putBool(value);
             notNull(index);
         }
 
         public void putByte(int index, byte value) {
-            getPrimaryColumn(index).putByte(value);
+            getActivePrimaryColumn(index).putByte(value);
             notNull(index);
         }
 
         public void putChar(int index, char value) {
-            getPrimaryColumn(index).putChar(value);
+            getActivePrimaryColumn(index).putChar(value);
             notNull(index);
         }
 
@@ -2224,62 +3455,62 @@ public class TableWriter implements Closeable {
         }
 
         public void putDouble(int index, double value) {
-            getPrimaryColumn(index).putDouble(value);
+            getActivePrimaryColumn(index).putDouble(value);
             notNull(index);
         }
 
         public void putFloat(int index, float value) {
-            getPrimaryColumn(index).putFloat(value);
+            getActivePrimaryColumn(index).putFloat(value);
             notNull(index);
         }
 
         public void putInt(int index, int value) {
-            getPrimaryColumn(index).putInt(value);
+            getActivePrimaryColumn(index).putInt(value);
             notNull(index);
         }
 
         public void putLong256(int index, long l0, long l1, long l2, long l3) {
-            getPrimaryColumn(index).putLong256(l0, l1, l2, l3);
+            getActivePrimaryColumn(index).putLong256(l0, l1, l2, l3);
             notNull(index);
         }
 
         public void putLong256(int index, Long256 value) {
-            getPrimaryColumn(index).putLong256(value.getLong0(), value.getLong1(), value.getLong2(), value.getLong3());
+            getActivePrimaryColumn(index).putLong256(value.getLong0(), value.getLong1(), value.getLong2(), value.getLong3());
             notNull(index);
         }
 
         public void putLong256(int index, CharSequence hexString) {
-            getPrimaryColumn(index).putLong256(hexString);
+            getActivePrimaryColumn(index).putLong256(hexString);
             notNull(index);
         }
 
         public void putLong(int index, long value) {
-            getPrimaryColumn(index).putLong(value);
+            getActivePrimaryColumn(index).putLong(value);
             notNull(index);
         }
 
         public void putShort(int index, short value) {
-            getPrimaryColumn(index).putShort(value);
+            getActivePrimaryColumn(index).putShort(value);
             notNull(index);
         }
 
         public void putStr(int index, CharSequence value) {
-            getSecondaryColumn(index).putLong(getPrimaryColumn(index).putStr(value));
+            getActiveSecondaryColumn(index).putLong(getActivePrimaryColumn(index).putStr(value));
             notNull(index);
         }
 
         public void putStr(int index, char value) {
-            getSecondaryColumn(index).putLong(getPrimaryColumn(index).putStr(value));
+            getActiveSecondaryColumn(index).putLong(getActivePrimaryColumn(index).putStr(value));
             notNull(index);
         }
 
         public void putStr(int index, CharSequence value, int pos, int len) {
-            getSecondaryColumn(index).putLong(getPrimaryColumn(index).putStr(value, pos, len));
+            getActiveSecondaryColumn(index).putLong(getActivePrimaryColumn(index).putStr(value, pos, len));
             notNull(index);
         }
 
         public void putSym(int index, CharSequence value) {
-            getPrimaryColumn(index).putInt(symbolMapWriters.getQuick(index).put(value));
+            getActivePrimaryColumn(index).putInt(symbolMapWriters.getQuick(index).put(value));
             notNull(index);
         }
 
@@ -2287,6 +3518,14 @@ public class TableWriter implements Closeable {
             putLong(index, value);
         }
 
+        private VirtualMemory getActivePrimaryColumn(int index) {
+            return activeColumns.getQuick(getPrimaryColumnIndex(index));
+        }
+
+        private VirtualMemory getActiveSecondaryColumn(int index) {
+            return activeColumns.getQuick(getSecondaryColumnIndex(index));
+        }
+
         private void notNull(int index) {
             refs.setQuick(index, masterRef);
         }
@@ -89,4 +89,9 @@ public class TableWriterMetadata extends BaseRecordMetadata {
             columnNameIndexMap.put(columnMetadata.getQuick(i).getName(), i);
         }
     }
+
+    void setColumnIndexed(int columnIndex, int indexValueBlockCapacity) {
+        final TableColumnMetadata m = columnMetadata.getQuick(columnIndex);
+        columnMetadata.setQuick(columnIndex, new TableColumnMetadata(m.getName(), m.getType(), true, indexValueBlockCapacity));
+    }
 }
@@ -79,6 +79,17 @@ public class VirtualMemory implements Closeable {
         return addressOf0(offset);
     }
 
+    /**
+     * Same as {@link #addressOf(long)}, but does not cache page of given offset. Multiple threads can
+     * call this method at the same time, provided memory is not being written to.
+     *
+     * @param offset offset in memory, value at this offset must not cross page boundary
+     * @return native address of given offset
+     */
+    public long addressOfConcurrent(long offset) {
+        return getPageAddress(pageIndex(offset)) + offsetInPage(offset);
+    }
+
     public void clearHotPage() {
         roOffsetLo = roOffsetHi = 0;
     }
@@ -302,6 +313,22 @@ public class VirtualMemory implements Closeable {
         return offset;
     }
 
+    /**
+     * Appends block of native memory as is. Unlike {@link #putBin(long, long)} this method
+     * does not write length prefix.
+     *
+     * @param from address of the block
+     * @param len  length of the block in bytes
+     */
+    public final void putBlockOfBytes(long from, long len) {
+        if (len < pageHi - appendPointer) {
+            Unsafe.getUnsafe().copyMemory(from, appendPointer, len);
+            appendPointer += len;
+        } else {
+            putBinSlit(from, len);
+        }
+    }
+
     public void putBool(boolean value) {
         putByte((byte) (value ? 1 : 0));
     }
@@ -367,6 +367,13 @@ public class CompactMap implements Map {
             }
         }
 
+        public int hash() {
+            final int hash = (int) hashFunction.hash(entries, currentEntryOffset + entryKeyOffset, currentEntrySize - entryKeyOffset);
+            // undo this key append
+            currentEntrySize = 0;
+            return hash;
+        }
+
         public void put(Record record, RecordSink sink) {
             sink.copy(record, key);
         }
@@ -31,10 +31,13 @@ import io.questdb.std.*;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.Closeable;
+
 public class FastMap implements Map {
 
     private static final HashFunction DEFAULT_HASH = Hash::hashMem;
     private static final int MIN_INITIAL_CAPACITY = 128;
+    private static final int MIN_PROBE_CAPACITY = 64;
     private final double loadFactor;
     private final Key key = new Key();
     private final FastMapValue value;
@@ -42,6 +45,7 @@ public class FastMap implements Map {
     private final FastMapRecord record;
     private final int valueColumnCount;
     private final HashFunction hashFunction;
+    private final int[] valueOffsets;
     private long capacity;
     private int keyBlockOffset;
     private int keyDataOffset;
@@ -132,12 +136,14 @@ public class FastMap implements Map {
                         throw CairoException.instance(0).put("value type is not supported: ").put(ColumnType.nameOf(valueTypes.getColumnType(i)));
                 }
             }
+            this.valueOffsets = valueOffsets;
             this.value = new FastMapValue(valueOffsets);
             this.keyBlockOffset = offset;
             this.keyDataOffset = this.keyBlockOffset + 4 * keyTypes.getColumnCount();
             this.record = new FastMapRecord(valueOffsets, columnSplit, keyDataOffset, keyBlockOffset, value, keyTypes);
         } else {
             this.valueColumnCount = 0;
+            this.valueOffsets = null;
             this.value = new FastMapValue(null);
             this.keyBlockOffset = offset;
             this.keyDataOffset = this.keyBlockOffset + 4 * keyTypes.getColumnCount();
@@ -218,12 +224,44 @@ public class FastMap implements Map {
         return size;
     }
 
+    /**
+     * Adds entries of another map, which must have the same key and value types. Keys
+     * that are not yet in this map are copied along with their values in the order they
+     * appear in source map. Values of existing keys are combined via merge function.
+     *
+     * @param srcMap        map to copy entries from, it is left unchanged
+     * @param mergeFunction combines value of existing key with value from source map
+     */
+    public void merge(FastMap srcMap, MapValueMergeFunction mergeFunction) {
+        assert keyBlockOffset == srcMap.keyBlockOffset && keyDataOffset == srcMap.keyDataOffset;
+        long address = srcMap.kStart;
+        for (int i = 0, n = srcMap.size; i < n; i++) {
+            final int len = Unsafe.getUnsafe().getInt(address);
+            final MapValue value = key.init().copyOf(address, len).createValue();
+            if (value.isNew()) {
+                Unsafe.getUnsafe().copyMemory(address + 4, value.getAddress() + 4, keyBlockOffset - 4);
+            } else {
+                mergeFunction.merge(value, srcMap.valueAt(address));
+            }
+            address += len;
+        }
+    }
+
     @Override
     public MapValue valueAt(long address) {
         value.of(address, false);
         return value;
     }
 
+    /**
+     * Creates probe for concurrent read-only lookups. Probe must be closed by caller.
+     *
+     * @return new probe instance
+     */
+    public Probe newProbe() {
+        return new Probe();
+    }
+
     @Override
     public MapKey withKey() {
         return key.init();
@@ -239,7 +277,7 @@ public class FastMap implements Map {
         return value.of(keyWriter.startAddress, true);
     }
 
-    private boolean eq(Key keyWriter, long offset) {
+    private boolean eq(KeyWriter keyWriter, long offset) {
         long a = kStart + offset;
         long b = keyWriter.startAddress;
 
@@ -352,11 +390,7 @@ public class FastMap implements Map {
         int hash(long address, int len);
     }
 
-    public class Key implements MapKey {
-        private long startAddress;
-        private long appendAddress;
-        private int len;
-        private long nextColOffset;
+    public class Key extends KeyWriter implements MapKey {
 
         public MapValue createValue() {
             commit();
@@ -388,6 +422,12 @@ public class FastMap implements Map {
             }
         }
 
+        @Override
+        public int hash() {
+            commit();
+            return hashFunction.hash(startAddress + keyDataOffset, len - keyDataOffset);
+        }
+
         @Override
         public void put(Record record, RecordSink sink) {
             sink.copy(record, this);
@@ -400,6 +440,91 @@ public class FastMap implements Map {
             return this;
         }
 
+        private Key copyOf(long srcAddress, int srcLen) {
+            // key column offsets are relative to entry start, key block can be copied as is
+            final int size = srcLen - keyBlockOffset;
+            appendAddress = startAddress + keyBlockOffset;
+            checkSize(size);
+            Unsafe.getUnsafe().copyMemory(srcAddress + keyBlockOffset, appendAddress, size);
+            appendAddress += size;
+            return this;
+        }
+
+        @Override
+        void checkSize(int size) {
+            if (appendAddress + size > kLimit) {
+                resize(size);
+            }
+        }
+    }
+
+    /**
+     * Looks up keys without changing the map. Unlike {@link #withKey()} each probe has key buffer
+     * and value of its own, multiple threads can look up keys at the same time as long as the map
+     * is not being changed.
+     */
+    public class Probe extends KeyWriter implements Closeable {
+        private final FastMapValue value = new FastMapValue(valueOffsets);
+        private long address;
+        private long limit;
+
+        private Probe() {
+            final long capacity = Math.max(keyDataOffset * 2L, MIN_PROBE_CAPACITY);
+            this.address = Unsafe.malloc(capacity);
+            this.limit = address + capacity;
+        }
+
+        @Override
+        public void close() {
+            if (address != 0) {
+                Unsafe.free(address, limit - address);
+                address = limit = 0;
+            }
+        }
+
+        public MapValue findValue() {
+            commit();
+            int index = hashFunction.hash(startAddress + keyDataOffset, len - keyDataOffset) & mask;
+            long offset;
+            while ((offset = offsets.get(index)) != -1) {
+                if (eq(this, offset)) {
+                    return value.of(kStart + offset, false);
+                }
+                index = (index + 1) & mask;
+            }
+            return null;
+        }
+
+        public Probe of(Record record, RecordSink sink) {
+            startAddress = address;
+            appendAddress = address + keyDataOffset;
+            nextColOffset = address + keyBlockOffset;
+            sink.copy(record, this);
+            return this;
+        }
+
+        @Override
+        void checkSize(int size) {
+            if (appendAddress + size > limit) {
+                final long capacity = limit - address;
+                final long newCapacity = Numbers.ceilPow2(appendAddress + size - address);
+                final long newAddress = Unsafe.realloc(address, capacity, newCapacity);
+                final long d = newAddress - address;
+                startAddress += d;
+                appendAddress += d;
+                nextColOffset += d;
+                address = newAddress;
+                limit = newAddress + newCapacity;
+            }
+        }
+    }
+
+    abstract class KeyWriter implements RecordSinkSPI {
+        long startAddress;
+        long appendAddress;
+        int len;
+        long nextColOffset;
+
         @Override
         public void putBin(BinarySequence value) {
             if (value == null) {
@@ -536,13 +661,7 @@ public class FastMap implements Map {
             putLong(value);
         }
 
-        private void checkSize(int size) {
-            if (appendAddress + size > kLimit) {
-                resize(size);
-            }
-        }
-
-        private void commit() {
+        void commit() {
             Unsafe.getUnsafe().putInt(startAddress, len = (int) (appendAddress - startAddress));
         }
 
@@ -561,5 +680,7 @@ public class FastMap implements Map {
             Unsafe.getUnsafe().putInt(nextColOffset, (int) len);
             nextColOffset += 4;
         }
+
+        abstract void checkSize(int size);
     }
 }
\ No newline at end of file
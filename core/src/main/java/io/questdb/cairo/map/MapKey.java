@@ -38,6 +38,12 @@ public interface MapKey extends RecordSinkSPI {
 
     MapValue findValue();
 
+    /**
+     * Hash code of the key that has been put so far. Key is not added to the map, equal keys
+     * produce equal hash codes.
+     */
+    int hash();
+
     default boolean notFound() {
         return findValue() == null;
     }
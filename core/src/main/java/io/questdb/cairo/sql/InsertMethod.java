@@ -31,6 +31,8 @@ public interface InsertMethod extends Closeable {
 
     void commit();
 
+    void rollback();
+
     @Override
     void close();
 }
@@ -26,10 +26,15 @@ package io.questdb.cairo.sql;
 
 import io.questdb.griffin.SqlExecutionContext;
 
-public interface InsertStatement {
+import java.io.Closeable;
+
+public interface InsertStatement extends Closeable {
     CharSequence getTableName();
 
     long getStructureVersion();
 
     InsertMethod createMethod(SqlExecutionContext executionContext);
+
+    @Override
+    void close();
 }
@@ -65,6 +65,21 @@ class DefaultHttpServerConfiguration implements HttpServerConfiguration {
         public String getKeepAliveHeader() {
             return null;
         }
+
+        @Override
+        public boolean isSendFileEnabled() {
+            return true;
+        }
+
+        @Override
+        public int getCacheMaxSize() {
+            return 4 * 1024 * 1024;
+        }
+
+        @Override
+        public int getCacheFileMaxSize() {
+            return 128 * 1024;
+        }
     };
     private final TextImportProcessorConfiguration textImportProcessorConfiguration = new DefaultTextImportProcessorConfiguration();
     private final JsonQueryProcessorConfiguration jsonQueryProcessorConfiguration = new JsonQueryProcessorConfiguration() {
@@ -97,6 +112,26 @@ class DefaultHttpServerConfiguration implements HttpServerConfiguration {
         public CharSequence getKeepAliveHeader() {
             return "Keep-Alive: timeout=5, max=10000\r\n";
         }
+
+        @Override
+        public int getQueryCacheBlockCount() {
+            return 8;
+        }
+
+        @Override
+        public int getQueryCacheRowCount() {
+            return 64;
+        }
+
+        @Override
+        public long getTailHeartbeatInterval() {
+            return 5_000;
+        }
+
+        @Override
+        public int getTailSubscriptionLimit() {
+            return 32;
+        }
     };
 
     public DefaultHttpServerConfiguration() {
@@ -151,6 +151,9 @@ public class HttpConnectionContext implements IOContext, Locality, Mutable {
                     } catch (PeerIsSlowToReadException ignore) {
                         LOG.debug().$("peer is slow reader").$();
                         dispatcher.registerChannel(this, IOOperation.WRITE);
+                    } catch (RequestParkedException ignore) {
+                        // processor keeps resume processor and will register channel when it has data
+                        LOG.debug().$("parked").$();
                     } catch (PeerDisconnectedException ignore) {
                         dispatcher.disconnect(this);
                     }
@@ -182,6 +185,8 @@ public class HttpConnectionContext implements IOContext, Locality, Mutable {
             dispatcher.disconnect(this);
         } catch (PeerIsSlowToReadException e) {
             dispatcher.registerChannel(this, IOOperation.WRITE);
+        } catch (RequestParkedException e) {
+            LOG.debug().$("parked").$();
         }
     }
 
@@ -343,11 +348,17 @@ public class HttpConnectionContext implements IOContext, Locality, Mutable {
                 } else {
                     processor.onHeadersReady(this);
                     LOG.debug().$("good [fd=").$(fd).$(']').$();
+                    // processor that parks the request can have it resumed by another
+                    // thread before onRequestComplete() returns, resume processor has to
+                    // be in place beforehand
+                    resumeProcessor = processor;
                     try {
                         processor.onRequestComplete(this, dispatcher);
                         resumeProcessor = null;
                     } catch (PeerDisconnectedException ignore) {
                         dispatcher.disconnect(this);
+                    } catch (RequestParkedException ignore) {
+                        LOG.debug().$("parked").$();
                     } catch (PeerIsSlowToReadException ignore) {
                         LOG.debug().$("peer is slow reader [two]").$();
                         // it is important to assign resume processor before we fire
@@ -33,4 +33,19 @@ public interface HttpRawSocket {
     int getBufferSize();
 
     void send(int size) throws PeerDisconnectedException, PeerIsSlowToReadException;
+
+    boolean isSendFileSupported();
+
+    /**
+     * Sends file content directly to socket, bypassing response buffer. Response buffer
+     * must be flushed prior to calling this method.
+     *
+     * @param fileFd file descriptor opened for reading
+     * @param offset position in file to send from
+     * @param count  maximum number of bytes to send
+     * @return number of bytes sent, always positive
+     * @throws PeerDisconnectedException when peer disconnected or file could not be read
+     * @throws PeerIsSlowToReadException when socket cannot accept more data at the moment
+     */
+    long sendFile(long fileFd, long offset, long count) throws PeerDisconnectedException, PeerIsSlowToReadException;
 }
@@ -31,11 +31,22 @@ import io.questdb.network.PeerIsSlowToReadException;
 public interface HttpRequestProcessor {
     void onHeadersReady(HttpConnectionContext context);
 
-    void onRequestComplete(HttpConnectionContext context, IODispatcher<HttpConnectionContext> dispatcher) throws PeerDisconnectedException, PeerIsSlowToReadException;
+    void onRequestComplete(HttpConnectionContext context, IODispatcher<HttpConnectionContext> dispatcher) throws PeerDisconnectedException, PeerIsSlowToReadException, RequestParkedException;
+
+    /**
+     * Called by worker thread that owns the processor in between IO events. Processor that
+     * parked requests re-registers those that have something to send with the dispatcher.
+     *
+     * @param dispatcher dispatcher to register resumed connections with
+     * @return true when at least one request was resumed
+     */
+    default boolean resumeParked(IODispatcher<HttpConnectionContext> dispatcher) {
+        return false;
+    }
 
     default void resumeRecv(HttpConnectionContext context, IODispatcher<HttpConnectionContext> dispatcher) {
     }
 
-    default void resumeSend(HttpConnectionContext context, IODispatcher<HttpConnectionContext> dispatcher) throws PeerDisconnectedException, PeerIsSlowToReadException {
+    default void resumeSend(HttpConnectionContext context, IODispatcher<HttpConnectionContext> dispatcher) throws PeerDisconnectedException, PeerIsSlowToReadException, RequestParkedException {
     }
 }
@@ -345,6 +345,8 @@ public class HttpResponseSink implements Closeable, Mutable {
                 sent += n;
             }
         }
+        // buffer is fully sent, resumeSend() must not send it again
+        flushBufSize = 0;
     }
 
     private void dumpBuffer(char direction, long buffer, int size) {
@@ -576,6 +578,24 @@ public class HttpResponseSink implements Closeable, Mutable {
             flushBufSize = size;
             flushSingle();
         }
+
+        @Override
+        public boolean isSendFileSupported() {
+            return nf.isSendFileSupported();
+        }
+
+        @Override
+        public long sendFile(long fileFd, long offset, long count) throws PeerDisconnectedException, PeerIsSlowToReadException {
+            long n = nf.sendFile(fd, fileFd, offset, count);
+            if (n < 0) {
+                LOG.info().$("disconnected [errno=").$(nf.errno()).$(']').$();
+                throw PeerDisconnectedException.INSTANCE;
+            }
+            if (n == 0) {
+                throw PeerIsSlowToReadException.INSTANCE;
+            }
+            return n;
+        }
     }
 
     private class ChunkedResponseImpl extends ResponseSinkImpl implements HttpChunkedResponseSocket {
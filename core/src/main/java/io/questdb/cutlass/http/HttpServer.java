@@ -25,6 +25,7 @@
 package io.questdb.cutlass.http;
 
 import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cutlass.http.processors.*;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
@@ -49,9 +50,15 @@ public class HttpServer implements Closeable {
     private final int workerCount;
     private final HttpContextFactory httpContextFactory;
     private final WorkerPool workerPool;
+    // compiled queries are shared by all workers, query compiled by one worker can be executed by another
+    private final ConcurrentAssociativeCache<RecordCursorFactory> queryCache;
 
     public HttpServer(HttpServerConfiguration configuration, WorkerPool pool, boolean localPool) {
         this.workerCount = pool.getWorkerCount();
+        this.queryCache = new ConcurrentAssociativeCache<>(
+                configuration.getJsonQueryProcessorConfiguration().getQueryCacheBlockCount(),
+                configuration.getJsonQueryProcessorConfiguration().getQueryCacheRowCount()
+        );
         this.selectors = new ObjList<>(workerCount);
         if (localPool) {
             workerPool = pool;
@@ -73,13 +80,14 @@ public class HttpServer implements Closeable {
         for (int i = 0, n = pool.getWorkerCount(); i < n; i++) {
             final int index = i;
             pool.assign(i, new Job() {
-                private final HttpRequestProcessorSelector selector = selectors.getQuick(index);
+                private final HttpRequestProcessorSelectorImpl selector = selectors.getQuick(index);
                 private final IORequestProcessor<HttpConnectionContext> processor =
                         (operation, context, dispatcher) -> context.handleClientOperation(operation, dispatcher, selector);
 
                 @Override
                 public boolean run() {
-                    return dispatcher.processIOQueue(processor);
+                    final boolean useful = dispatcher.processIOQueue(processor);
+                    return selector.resumeParked(dispatcher) || useful;
                 }
             });
 
@@ -133,7 +141,8 @@ public class HttpServer implements Closeable {
                 public HttpRequestProcessor newInstance() {
                     return new JsonQueryProcessor(
                             configuration.getJsonQueryProcessorConfiguration(),
-                            cairoEngine
+                            cairoEngine,
+                            httpServer.getQueryCache()
                     );
                 }
             });
@@ -158,7 +167,26 @@ public class HttpServer implements Closeable {
 
                 @Override
                 public HttpRequestProcessor newInstance() {
-                    return new TextQueryProcessor(configuration.getJsonQueryProcessorConfiguration(), cairoEngine);
+                    return new TextQueryProcessor(
+                            configuration.getJsonQueryProcessorConfiguration(),
+                            cairoEngine,
+                            httpServer.getQueryCache()
+                    );
+                }
+            });
+
+            final TableTailSubscriptions tailSubscriptions = new TableTailSubscriptions(
+                    configuration.getJsonQueryProcessorConfiguration().getTailSubscriptionLimit()
+            );
+            httpServer.bind(new HttpRequestProcessorFactory() {
+                @Override
+                public String getUrl() {
+                    return "/tail";
+                }
+
+                @Override
+                public HttpRequestProcessor newInstance() {
+                    return new TableTailProcessor(configuration.getJsonQueryProcessorConfiguration(), cairoEngine, tailSubscriptions);
                 }
             });
 
@@ -200,11 +228,13 @@ public class HttpServer implements Closeable {
         assert url != null;
         for (int i = 0; i < workerCount; i++) {
             HttpRequestProcessorSelectorImpl selector = selectors.getQuick(i);
+            final HttpRequestProcessor processor = factory.newInstance();
             if (HttpServerConfiguration.DEFAULT_PROCESSOR_URL.equals(url)) {
-                selector.defaultRequestProcessor = factory.newInstance();
+                selector.defaultRequestProcessor = processor;
             } else {
-                selector.processorMap.put(url, factory.newInstance());
+                selector.processorMap.put(url, processor);
             }
+            selector.processors.add(processor);
         }
     }
 
@@ -215,11 +245,17 @@ public class HttpServer implements Closeable {
         }
         Misc.free(httpContextFactory);
         Misc.free(dispatcher);
+        Misc.free(queryCache);
+    }
+
+    public ConcurrentAssociativeCache<RecordCursorFactory> getQueryCache() {
+        return queryCache;
     }
 
     private static class HttpRequestProcessorSelectorImpl implements HttpRequestProcessorSelector {
 
         private final CharSequenceObjHashMap<HttpRequestProcessor> processorMap = new CharSequenceObjHashMap<>();
+        private final ObjList<HttpRequestProcessor> processors = new ObjList<>();
         private HttpRequestProcessor defaultRequestProcessor = null;
 
         @Override
@@ -232,6 +268,14 @@ public class HttpServer implements Closeable {
             return defaultRequestProcessor;
         }
 
+        private boolean resumeParked(IODispatcher<HttpConnectionContext> dispatcher) {
+            boolean useful = false;
+            for (int i = 0, n = processors.size(); i < n; i++) {
+                useful |= processors.getQuick(i).resumeParked(dispatcher);
+            }
+            return useful;
+        }
+
         @Override
         public void close() {
             Misc.free(defaultRequestProcessor);
@@ -266,6 +310,8 @@ public class HttpServer implements Closeable {
             if (closed) {
                 Misc.free(context);
             } else {
+                // request state, such as readers held by processors, is released before context is reused
+                context.clear();
                 context.of(-1);
                 contextPool.get().push(context);
                 LOG.info().$("pushed").$();
@@ -28,9 +28,10 @@ import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cairo.sql.RecordMetadata;
-import io.questdb.std.AssociativeCache;
+import io.questdb.std.ConcurrentAssociativeCache;
 import io.questdb.std.Misc;
 import io.questdb.std.Mutable;
+import io.questdb.std.str.StringSink;
 
 import java.io.Closeable;
 
@@ -45,11 +46,15 @@ public abstract class AbstractQueryContext implements Mutable, Closeable {
     static final int QUERY_METADATA_SUFFIX = 3;
     static final int QUERY_METADATA = 2;
     static final int QUERY_PREFIX = 1;
-    // Factory cache is thread local due to possibility of factory being
-    // closed by another thread. Peer disconnect is a typical example of this.
-    // Being asynchronous we may need to be able to return factory to the cache
-    // by the same thread that executes the dispatcher.
-    static final ThreadLocal<AssociativeCache<RecordCursorFactory>> FACTORY_CACHE = ThreadLocal.withInitial(() -> new AssociativeCache<>(8, 8));
+    // Factory is taken out of the cache, which is shared by all worker threads, for as
+    // long as query is executing. Query can be suspended by slow peer and resumed by another
+    // thread, or cancelled by peer disconnect, factory is returned to the cache by whichever
+    // thread gets to clear the context.
+    final ConcurrentAssociativeCache<RecordCursorFactory> queryCache;
+    // normalized query text the factory is cached under
+    final StringSink queryCacheKey = new StringSink();
+    // engine structure version the factory is known to be valid for
+    long queryCacheVersion;
     final long fd;
     RecordCursorFactory recordCursorFactory;
     CharSequence query;
@@ -62,8 +67,9 @@ public abstract class AbstractQueryContext implements Mutable, Closeable {
     int queryState = QUERY_PREFIX;
     int columnIndex;
 
-    public AbstractQueryContext(long fd) {
+    public AbstractQueryContext(long fd, ConcurrentAssociativeCache<RecordCursorFactory> queryCache) {
         this.fd = fd;
+        this.queryCache = queryCache;
     }
 
     @Override
@@ -72,11 +78,11 @@ public abstract class AbstractQueryContext implements Mutable, Closeable {
         cursor = Misc.free(cursor);
         record = null;
         if (recordCursorFactory != null) {
-            // todo: avoid toString()
-            FACTORY_CACHE.get().put(query.toString(), recordCursorFactory);
+            queryCache.put(queryCacheKey, recordCursorFactory, queryCacheVersion);
             recordCursorFactory = null;
         }
         query = null;
+        queryCacheKey.clear();
         queryState = QUERY_PREFIX;
         columnIndex = 0;
     }
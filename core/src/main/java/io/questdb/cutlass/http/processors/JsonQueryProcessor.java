@@ -37,6 +37,7 @@ import io.questdb.griffin.CompiledQuery;
 import io.questdb.griffin.SqlCompiler;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.griffin.SqlUtil;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.log.LogRecord;
@@ -62,13 +63,18 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
     private final ObjList<StateResumeAction> resumeActions = new ObjList<>();
     private final Path path = new Path();
     private final ObjList<QueryExecutor> queryExecutors = new ObjList<>();
+    // insert statements are cached by query text, same as select factories
+    private final AssociativeCache<InsertStatement> insertStatementCache = new AssociativeCache<>(8, 8);
+    private final ConcurrentAssociativeCache<RecordCursorFactory> queryCache;
 
     public JsonQueryProcessor(
             JsonQueryProcessorConfiguration configuration,
-            CairoEngine engine
+            CairoEngine engine,
+            ConcurrentAssociativeCache<RecordCursorFactory> queryCache
     ) {
         // todo: add scheduler
         this.configuration = configuration;
+        this.queryCache = queryCache;
         this.compiler = new SqlCompiler(engine);
         this.floatScale = configuration.getFloatScale();
         this.doubleScale = configuration.getDoubleScale();
@@ -122,7 +128,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
     public void close() {
         Misc.free(compiler);
         Misc.free(path);
-        AbstractQueryContext.FACTORY_CACHE.get().close();
+        Misc.free(insertStatementCache);
     }
 
     public void execute0(
@@ -132,21 +138,24 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
             HttpChunkedResponseSocket socket
     ) throws PeerDisconnectedException, PeerIsSlowToReadException {
         sqlExecutionContext.with(context.getCairoSecurityContext(), null);
-        final RecordCursorFactory factory = AbstractQueryContext.FACTORY_CACHE.get().poll(state.query);
+        state.queryCacheKey.clear();
+        SqlUtil.putQueryCacheKey(state.queryCacheKey, state.query, null);
+        state.queryCacheVersion = compiler.getEngine().getStructureVersion();
+        final RecordCursorFactory factory = queryCache.poll(state.queryCacheKey, state.queryCacheVersion);
         try {
             if (factory != null) {
-                executeCachedSelect(context, dispatcher, state, socket, factory);
-            } else {
-                // new query
-                LOG.info().$("exec [q='").$(state.query).$("']").$();
-                final CompiledQuery cc = compiler.compile(state.query, sqlExecutionContext);
-                queryExecutors.getQuick(cc.getType()).execute(
-                        context,
-                        dispatcher,
-                        state,
-                        socket,
-                        cc
-                );
+                try {
+                    executeCachedSelect(context, dispatcher, state, socket, factory);
+                } catch (ReaderOutOfDateException e) {
+                    // table structure has changed since query was compiled, other
+                    // copies of this factory in the cache are stale too
+                    state.recordCursorFactory = Misc.free(state.recordCursorFactory);
+                    queryCache.invalidate(state.queryCacheKey);
+                    info(state).$("invalidated [q=`").$(state.query).$("`]").$();
+                    compileAndExecute(context, dispatcher, state, socket);
+                }
+            } else if (!executeCachedInsert(context, dispatcher, state, socket)) {
+                compileAndExecute(context, dispatcher, state, socket);
             }
         } catch (SqlException e) {
             syntaxError(socket, e, state);
@@ -157,6 +166,23 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         }
     }
 
+    private void compileAndExecute(
+            HttpConnectionContext context,
+            IODispatcher<HttpConnectionContext> dispatcher,
+            JsonQueryProcessorState state,
+            HttpChunkedResponseSocket socket
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException, SqlException {
+        LOG.info().$("exec [q='").$(state.query).$("']").$();
+        final CompiledQuery cc = compiler.compile(state.query, sqlExecutionContext);
+        queryExecutors.getQuick(cc.getType()).execute(
+                context,
+                dispatcher,
+                state,
+                socket,
+                cc
+        );
+    }
+
     private void cannotCopyRemote(
             HttpConnectionContext context,
             IODispatcher<HttpConnectionContext> dispatcher,
@@ -200,6 +226,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
             CompiledQuery cc
     ) throws PeerDisconnectedException, PeerIsSlowToReadException {
         final InsertStatement insertStatement = cc.getInsertStatement();
+        insertStatementCache.put(state.queryCacheKey, insertStatement);
         try (InsertMethod insertMethod = insertStatement.createMethod(sqlExecutionContext)) {
             insertMethod.execute();
             insertMethod.commit();
@@ -207,6 +234,38 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         sendConfirmation(context, dispatcher, state, socket, cc);
     }
 
+    private boolean executeCachedInsert(
+            HttpConnectionContext context,
+            IODispatcher<HttpConnectionContext> dispatcher,
+            JsonQueryProcessorState state,
+            HttpChunkedResponseSocket socket
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        final InsertStatement insertStatement = insertStatementCache.peek(state.queryCacheKey);
+        if (insertStatement == null) {
+            return false;
+        }
+
+        final InsertMethod insertMethod;
+        try {
+            insertMethod = insertStatement.createMethod(sqlExecutionContext);
+        } catch (WriterOutOfDateException e) {
+            // table has changed since statement was compiled, it has to be compiled again
+            Misc.free(insertStatementCache.poll(state.queryCacheKey));
+            return false;
+        }
+
+        cacheHits.incrementAndGet();
+        info(state).$("execute-cached-insert [q=`").$(state.query).$("`]").$();
+        try {
+            insertMethod.execute();
+            insertMethod.commit();
+        } finally {
+            insertMethod.close();
+        }
+        sendConfirmation(context, dispatcher, state, socket, null);
+        return true;
+    }
+
     private void sendConfirmation(
             HttpConnectionContext context,
             IODispatcher<HttpConnectionContext> dispatcher,
@@ -245,7 +304,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
     ) throws PeerDisconnectedException, PeerIsSlowToReadException {
         JsonQueryProcessorState state = LV.get(context);
         if (state == null) {
-            LV.set(context, state = new JsonQueryProcessorState(context.getFd(), configuration.getConnectionCheckFrequency()));
+            LV.set(context, state = new JsonQueryProcessorState(context.getFd(), configuration.getConnectionCheckFrequency(), queryCache));
         }
         HttpChunkedResponseSocket socket = context.getChunkedResponseSocket();
         if (parseUrl(socket, context.getRequestHeader(), state)) {
@@ -40,4 +40,12 @@ public interface JsonQueryProcessorConfiguration {
     int getFloatScale();
 
     CharSequence getKeepAliveHeader();
+
+    int getQueryCacheBlockCount();
+
+    int getQueryCacheRowCount();
+
+    long getTailHeartbeatInterval();
+
+    int getTailSubscriptionLimit();
 }
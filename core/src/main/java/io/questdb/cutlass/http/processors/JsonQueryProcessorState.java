@@ -24,12 +24,15 @@
 
 package io.questdb.cutlass.http.processors;
 
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.std.ConcurrentAssociativeCache;
+
 public class JsonQueryProcessorState extends AbstractQueryContext {
     boolean countRows = false;
     boolean noMeta = false;
 
-    public JsonQueryProcessorState(long fd, int connectionCheckFrequency) {
-        super(fd);
+    public JsonQueryProcessorState(long fd, int connectionCheckFrequency, ConcurrentAssociativeCache<RecordCursorFactory> queryCache) {
+        super(fd, queryCache);
     }
 
     @Override
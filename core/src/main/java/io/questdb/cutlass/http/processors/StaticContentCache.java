@@ -0,0 +1,214 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.http.processors;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps content of small static files in memory together with gzip-compressed copy of
+ * that content. Cache is owned by single processor and is not thread-safe. Connections
+ * can however resume sending on other worker, which is why entries are reference counted:
+ * cache holds one reference and each in-flight response holds another. Memory is freed
+ * when the last reference is released.
+ */
+class StaticContentCache implements Closeable {
+    private static final Log LOG = LogFactory.getLog(StaticContentCache.class);
+    private final CharSequenceObjHashMap<Entry> entries = new CharSequenceObjHashMap<>();
+    private final FilesFacade ff;
+    private final long maxSize;
+    private final long fileMaxSize;
+    private long size;
+
+    StaticContentCache(FilesFacade ff, long maxSize, long fileMaxSize) {
+        this.ff = ff;
+        this.maxSize = maxSize;
+        this.fileMaxSize = fileMaxSize;
+    }
+
+    @Override
+    public void close() {
+        final ObjList<CharSequence> keys = entries.keys();
+        while (keys.size() > 0) {
+            final CharSequence key = keys.getQuick(0);
+            remove(entries.keyIndex(key), entries.get(key));
+        }
+    }
+
+    /**
+     * Finds cached content of file, loading it when necessary.
+     *
+     * @param path         path to file
+     * @param lastModified current last modified timestamp of the file
+     * @param length       current length of the file
+     * @return entry or null when file cannot be cached, in which case it should be sent from disk
+     */
+    Entry get(LPSZ path, long lastModified, long length) {
+        if (length == 0 || length > fileMaxSize || length > maxSize) {
+            return null;
+        }
+
+        final int index = entries.keyIndex(path);
+        if (index < 0) {
+            final Entry entry = entries.valueAt(index);
+            if (entry.lastModified == lastModified && entry.length == length) {
+                return entry;
+            }
+            remove(index, entry);
+        }
+
+        final Entry entry = load(path, lastModified, length);
+        if (entry != null) {
+            entries.put(entry.key, entry);
+        }
+        return entry;
+    }
+
+    private static long gzip(long address, long length, long out, long outSize) {
+        final long z = Zip.deflateInit();
+        try {
+            Zip.setInput(z, address, (int) length);
+            final long p = out + Zip.gzipHeaderLen;
+            final int sz = (int) (outSize - Zip.gzipHeaderLen - 8);
+            if (Zip.deflate(z, p, sz, true) != 1) {
+                // compressed content does not fit output buffer, content is not worth compressing
+                return -1;
+            }
+            final int len = sz - Zip.availOut(z);
+            Unsafe.getUnsafe().copyMemory(Zip.gzipHeader, out, Zip.gzipHeaderLen);
+            Unsafe.getUnsafe().putInt(p + len, Zip.crc32(0, address, (int) length));
+            Unsafe.getUnsafe().putInt(p + len + 4, (int) length);
+            return Zip.gzipHeaderLen + len + 8;
+        } finally {
+            Zip.deflateEnd(z);
+        }
+    }
+
+    private Entry load(LPSZ path, long lastModified, long length) {
+        // gzip copy is only kept when it is smaller than original, so
+        // entry takes at most twice the length of the file
+        if (!makeRoom(2 * length)) {
+            return null;
+        }
+
+        final long fd = ff.openRO(path);
+        if (fd == -1) {
+            return null;
+        }
+
+        final long address = Unsafe.malloc(length);
+        try {
+            long offset = 0;
+            while (offset < length) {
+                long n = ff.read(fd, address + offset, length - offset, offset);
+                if (n < 1) {
+                    LOG.info().$("could not read [path=").$(path).$(", errno=").$(ff.errno()).$(']').$();
+                    Unsafe.free(address, length);
+                    return null;
+                }
+                offset += n;
+            }
+        } finally {
+            ff.close(fd);
+        }
+
+        final Entry entry = new Entry(Chars.toString(path), address, length, lastModified);
+        final long gzipSize = length - 1;
+        if (gzipSize > Zip.gzipHeaderLen + 8) {
+            final long gzipAddress = Unsafe.malloc(gzipSize);
+            final long len = gzip(address, length, gzipAddress, gzipSize);
+            if (len > 0) {
+                entry.gzipAddress = Unsafe.realloc(gzipAddress, gzipSize, len);
+                entry.gzipLength = len;
+            } else {
+                Unsafe.free(gzipAddress, gzipSize);
+            }
+        }
+        size += entry.size();
+        LOG.info().$("cached [path=").$(path).$(", length=").$(length).$(", gzipLength=").$(entry.gzipLength).$(']').$();
+        return entry;
+    }
+
+    private boolean makeRoom(long required) {
+        final ObjList<CharSequence> keys = entries.keys();
+        while (size + required > maxSize && keys.size() > 0) {
+            // evict in order of insertion
+            final CharSequence key = keys.getQuick(0);
+            remove(entries.keyIndex(key), entries.get(key));
+        }
+        return size + required <= maxSize;
+    }
+
+    private void remove(int index, Entry entry) {
+        entries.removeAt(index);
+        size -= entry.size();
+        entry.release();
+    }
+
+    static class Entry {
+        final String key;
+        final long address;
+        final long length;
+        final long lastModified;
+        long gzipAddress = 0;
+        long gzipLength = -1;
+        // starts with reference held by cache
+        private final AtomicInteger refCount = new AtomicInteger(1);
+
+        Entry(String key, long address, long length, long lastModified) {
+            this.key = key;
+            this.address = address;
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+
+        void acquire() {
+            refCount.incrementAndGet();
+        }
+
+        void release() {
+            if (refCount.decrementAndGet() == 0) {
+                free();
+            }
+        }
+
+        private void free() {
+            Unsafe.free(address, length);
+            if (gzipAddress != 0) {
+                Unsafe.free(gzipAddress, gzipLength);
+                gzipAddress = 0;
+            }
+        }
+
+        private long size() {
+            return length + Math.max(gzipLength, 0);
+        }
+    }
+}
@@ -47,6 +47,8 @@ public class StaticContentProcessor implements HttpRequestProcessor, Closeable {
     private final CharSequence indexFileName;
     private final FilesFacade ff;
     private final String keepAliveHeader;
+    private final boolean sendFileEnabled;
+    private final StaticContentCache cache;
 
     public StaticContentProcessor(StaticContentProcessorConfiguration configuration) {
         this.mimeTypes = configuration.getMimeTypesCache();
@@ -54,11 +56,18 @@ public class StaticContentProcessor implements HttpRequestProcessor, Closeable {
         this.indexFileName = configuration.getIndexFileName();
         this.ff = configuration.getFilesFacade();
         this.keepAliveHeader = configuration.getKeepAliveHeader();
+        this.sendFileEnabled = configuration.isSendFileEnabled();
+        if (configuration.getCacheMaxSize() > 0) {
+            this.cache = new StaticContentCache(ff, configuration.getCacheMaxSize(), configuration.getCacheFileMaxSize());
+        } else {
+            this.cache = null;
+        }
     }
 
     @Override
     public void close() {
         Misc.free(prefixedPath);
+        Misc.free(cache);
     }
 
     @Override
@@ -101,27 +110,56 @@ public class StaticContentProcessor implements HttpRequestProcessor, Closeable {
         LOG.debug().$("resumeSend").$();
         StaticContentProcessorState state = LV.get(context);
 
-        if (state == null || state.fd == -1) {
+        if (state == null || (state.fd == -1 && state.entry == null)) {
             return;
         }
 
         final HttpRawSocket socket = context.getRawResponseSocket();
-        long address = socket.getBufferAddress();
-        int size = socket.getBufferSize();
-
-        long l;
-        // todo: check what happens when this code cannot read file
-        while (state.bytesSent < state.sendMax && (l = ff.read(state.fd, address, size, state.bytesSent)) > 0) {
-            if (l + state.bytesSent > state.sendMax) {
-                l = state.sendMax - state.bytesSent;
+        if (state.entry != null) {
+            resumeSendMemory(state, socket);
+        } else if (sendFileEnabled && socket.isSendFileSupported()) {
+            // response header has been flushed by now, file content goes
+            // from page cache to socket without copying via our buffer
+            while (state.bytesSent < state.sendMax) {
+                state.bytesSent += socket.sendFile(state.fd, state.bytesSent, state.sendMax - state.bytesSent);
+            }
+        } else {
+            long address = socket.getBufferAddress();
+            int size = socket.getBufferSize();
+
+            long l;
+            // todo: check what happens when this code cannot read file
+            while (state.bytesSent < state.sendMax && (l = ff.read(state.fd, address, size, state.bytesSent)) > 0) {
+                if (l + state.bytesSent > state.sendMax) {
+                    l = state.sendMax - state.bytesSent;
+                }
+                state.bytesSent += l;
+                socket.send((int) l);
             }
-            state.bytesSent += l;
-            socket.send((int) l);
         }
         // reached the end naturally?
         readyForNextRequest(context, dispatcher);
     }
 
+    private static void resumeSendMemory(StaticContentProcessorState state, HttpRawSocket socket) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        final long address = socket.getBufferAddress();
+        final int size = socket.getBufferSize();
+        while (state.bytesSent < state.sendMax) {
+            final int l = (int) Math.min(size, state.sendMax - state.bytesSent);
+            Unsafe.getUnsafe().copyMemory(state.address + state.bytesSent, address, l);
+            state.bytesSent += l;
+            socket.send(l);
+        }
+    }
+
+    private static StaticContentProcessorState getState(HttpConnectionContext context) {
+        StaticContentProcessorState state = LV.get(context);
+        if (state == null) {
+            LV.set(context, state = new StaticContentProcessorState());
+        }
+        return state;
+    }
+
     private void readyForNextRequest(HttpConnectionContext context, IODispatcher<HttpConnectionContext> dispatcher) {
         context.clear();
         dispatcher.registerChannel(context, IOOperation.READ);
@@ -167,6 +205,46 @@ public class StaticContentProcessor implements HttpRequestProcessor, Closeable {
         sendVanilla(context, dispatcher, path, contentType, asAttachment);
     }
 
+    private void sendCached(
+            HttpConnectionContext context,
+            IODispatcher<HttpConnectionContext> dispatcher,
+            StaticContentCache.Entry entry,
+            LPSZ path,
+            CharSequence contentType,
+            boolean asAttachment
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        final CharSequence acceptEncoding = context.getRequestHeader().getHeader("Accept-Encoding");
+        final boolean gzip = entry.gzipLength > -1 && acceptEncoding != null && Chars.contains(acceptEncoding, "gzip");
+
+        StaticContentProcessorState state = getState(context);
+        entry.acquire();
+        state.entry = entry;
+        state.bytesSent = 0;
+        if (gzip) {
+            state.address = entry.gzipAddress;
+            state.sendMax = entry.gzipLength;
+        } else {
+            state.address = entry.address;
+            state.sendMax = entry.length;
+        }
+
+        final HttpResponseHeader header = context.getResponseHeader();
+        header.status(200, contentType, state.sendMax);
+        if (asAttachment) {
+            header.put("Content-Disposition: attachment; filename=\"").put(FileNameExtractorCharSequence.get(path)).put("\"").put(Misc.EOL);
+        }
+        if (entry.gzipLength > -1) {
+            header.put("Vary: Accept-Encoding").put(Misc.EOL);
+        }
+        if (gzip) {
+            header.put("Content-Encoding: gzip").put(Misc.EOL);
+        }
+        header.put("ETag: ").put('"').put(entry.lastModified).put('"').put(Misc.EOL);
+        header.setKeepAlive(keepAliveHeader);
+        header.send();
+        resumeSend(context, dispatcher);
+    }
+
     private void sendRange(
             HttpConnectionContext context,
             IODispatcher<HttpConnectionContext> dispatcher,
@@ -176,11 +254,7 @@ public class StaticContentProcessor implements HttpRequestProcessor, Closeable {
             boolean asAttachment) throws PeerDisconnectedException, PeerIsSlowToReadException {
         if (rangeParser.of(range)) {
 
-            StaticContentProcessorState state = LV.get(context);
-            if (state == null) {
-                LV.set(context, state = new StaticContentProcessorState());
-            }
-
+            StaticContentProcessorState state = getState(context);
             state.fd = ff.openRO(path);
             if (state.fd == -1) {
                 LOG.info().$("Cannot open file: ").$(path).$();
@@ -229,15 +303,21 @@ public class StaticContentProcessor implements HttpRequestProcessor, Closeable {
             LPSZ path, CharSequence contentType,
             boolean asAttachment
     ) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        if (cache != null) {
+            final long lastModified = ff.getLastModified(path);
+            final StaticContentCache.Entry entry = cache.get(path, lastModified, ff.length(path));
+            if (entry != null) {
+                sendCached(context, dispatcher, entry, path, contentType, asAttachment);
+                return;
+            }
+        }
+
         long fd = ff.openRO(path);
         if (fd == -1) {
             LOG.info().$("Cannot open file: ").$(path).$('(').$(ff.errno()).$(')').$();
             sendStatusWithDefaultMessage(context, dispatcher, 404);
         } else {
-            StaticContentProcessorState h = LV.get(context);
-            if (h == null) {
-                LV.set(context, h = new StaticContentProcessorState());
-            }
+            StaticContentProcessorState h = getState(context);
             h.fd = fd;
             h.bytesSent = 0;
             final long length = ff.length(path);
@@ -37,4 +37,15 @@ public interface StaticContentProcessorConfiguration {
     CharSequence getPublicDirectory();
 
     String getKeepAliveHeader();
+
+    boolean isSendFileEnabled();
+
+    /**
+     * Maximum amount of memory each worker may use to cache static files. Zero disables the cache.
+     *
+     * @return cache size in bytes
+     */
+    int getCacheMaxSize();
+
+    int getCacheFileMaxSize();
 }
@@ -33,6 +33,9 @@ class StaticContentProcessorState implements Mutable, Closeable {
     long fd = -1;
     long bytesSent;
     long sendMax;
+    // cached content being sent, when set response is sent from memory rather than file
+    StaticContentCache.Entry entry;
+    long address;
 
     @Override
     public void clear() {
@@ -40,6 +43,11 @@ class StaticContentProcessorState implements Mutable, Closeable {
             Files.close(fd);
             fd = -1;
         }
+        if (entry != null) {
+            entry.release();
+            entry = null;
+        }
+        address = 0;
         bytesSent = 0;
         sendMax = Long.MAX_VALUE;
     }
@@ -0,0 +1,380 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.http.processors;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CairoError;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.TableReader;
+import io.questdb.cutlass.http.HttpChunkedResponseSocket;
+import io.questdb.cutlass.http.HttpConnectionContext;
+import io.questdb.cutlass.http.HttpRequestHeader;
+import io.questdb.cutlass.http.HttpRequestProcessor;
+import io.questdb.cutlass.http.RequestParkedException;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.log.LogRecord;
+import io.questdb.network.*;
+import io.questdb.std.Chars;
+import io.questdb.std.LocalValue;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.time.MillisecondClock;
+
+import java.io.Closeable;
+
+/**
+ * Streams rows committed to a table after subscription was made. Client
+ * requests table name and optional filter, e.g. /tail?table=trades&amp;filter=sym='BTC',
+ * and receives CSV rows in chunked response for as long as connection stays open.
+ * Subscription does not re-run the query, it follows table transactions with
+ * tail cursor and evaluates filter on new rows only. Idle subscriptions are parked
+ * with the processor rather than re-armed with dispatcher, worker thread checks them
+ * for commits in between IO events.
+ */
+public class TableTailProcessor implements HttpRequestProcessor, Closeable {
+    private static final LocalValue<TableTailProcessorState> LV = new LocalValue<>();
+    private static final Log LOG = LogFactory.getLog(TableTailProcessor.class);
+    private final CairoEngine engine;
+    private final SqlCompiler compiler;
+    private final JsonQueryProcessorConfiguration configuration;
+    private final int floatScale;
+    private final int doubleScale;
+    private final long heartbeatInterval;
+    private final SqlExecutionContextImpl sqlExecutionContext = new SqlExecutionContextImpl();
+    private final MillisecondClock clock;
+    private final TableTailSubscriptions subscriptions;
+    private final ObjList<HttpConnectionContext> parked = new ObjList<>();
+    private IODispatcher<HttpConnectionContext> parkedDispatcher;
+
+    public TableTailProcessor(
+            JsonQueryProcessorConfiguration configuration,
+            CairoEngine engine,
+            TableTailSubscriptions subscriptions
+    ) {
+        this.configuration = configuration;
+        this.engine = engine;
+        this.subscriptions = subscriptions;
+        this.compiler = new SqlCompiler(engine);
+        this.floatScale = configuration.getFloatScale();
+        this.doubleScale = configuration.getDoubleScale();
+        this.heartbeatInterval = configuration.getTailHeartbeatInterval();
+        this.clock = configuration.getClock();
+    }
+
+    @Override
+    public void close() {
+        synchronized (parked) {
+            for (int i = 0, n = parked.size(); i < n; i++) {
+                parkedDispatcher.disconnect(parked.getQuick(i));
+            }
+            parked.clear();
+        }
+        Misc.free(compiler);
+    }
+
+    @Override
+    public void onHeadersReady(HttpConnectionContext context) {
+    }
+
+    @Override
+    public void onRequestComplete(
+            HttpConnectionContext context,
+            IODispatcher<HttpConnectionContext> dispatcher
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException, RequestParkedException {
+        TableTailProcessorState state = LV.get(context);
+        if (state == null) {
+            LV.set(context, state = new TableTailProcessorState(context.getFd(), subscriptions));
+        }
+
+        final HttpChunkedResponseSocket socket = context.getChunkedResponseSocket();
+        final HttpRequestHeader request = context.getRequestHeader();
+        final CharSequence tableName = request.getUrlParam("table");
+        if (tableName == null || tableName.length() == 0) {
+            info(state).$("Empty table name received. Sending empty reply.").$();
+            sendException(socket, 0, "No table name", 400, null);
+            readyForNextRequest(context, dispatcher);
+            return;
+        }
+
+        final CharSequence filter = request.getUrlParam("filter");
+        if (!subscriptions.acquire(tableName)) {
+            info(state).$("subscription limit reached [table=").$(tableName).$(']').$();
+            sendException(socket, 0, "Too many subscriptions to table", 400, filter);
+            readyForNextRequest(context, dispatcher);
+            return;
+        }
+        state.tableName = Chars.toString(tableName);
+
+        try {
+            sqlExecutionContext.with(context.getCairoSecurityContext(), null);
+            final TableReader reader = engine.getReader(context.getCairoSecurityContext(), tableName);
+            state.cursor.of(reader);
+            state.reader = reader;
+            state.tableVersion = reader.getVersion();
+            state.metadata = reader.getMetadata();
+            state.record = state.cursor.getRecord();
+            if (filter != null && filter.length() > 0) {
+                state.filter = compiler.compileFilter(filter, state.metadata, sqlExecutionContext);
+                state.filter.init(state.cursor, sqlExecutionContext);
+            }
+
+            // rows that exist at the time of subscription are not sent
+            if (reader.size() > 0) {
+                state.cursor.toBottom();
+            }
+            state.lastSendTimestamp = clock.getTicks();
+
+            info(state).$("subscribed [table=").$(tableName).$(", filter=`").$(filter).$("`]").$();
+        } catch (SqlException e) {
+            info(state)
+                    .$("syntax-error [filter=`").$(filter)
+                    .$("`, at=").$(e.getPosition())
+                    .$(", message=`").$(e.getFlyweightMessage()).$('`')
+                    .$(']').$();
+            state.clear();
+            sendException(socket, e.getPosition(), e.getFlyweightMessage(), 400, filter);
+            readyForNextRequest(context, dispatcher);
+            return;
+        } catch (CairoException | CairoError e) {
+            error(state).$("cannot subscribe [table=").$(tableName).$(", e=").$(e).$(']').$();
+            state.clear();
+            sendException(socket, 0, e.getMessage(), 400, filter);
+            readyForNextRequest(context, dispatcher);
+            return;
+        }
+
+        header(socket, 200);
+        resumeSend(context, dispatcher);
+    }
+
+    @Override
+    public boolean resumeParked(IODispatcher<HttpConnectionContext> dispatcher) {
+        synchronized (parked) {
+            if (parked.size() == 0) {
+                return false;
+            }
+
+            final long now = clock.getTicks();
+            boolean useful = false;
+            for (int i = parked.size() - 1; i > -1; i--) {
+                final HttpConnectionContext context = parked.getQuick(i);
+                final TableTailProcessorState state = LV.get(context);
+                if (state.reader.hasNewTxn() || now - state.lastSendTimestamp >= heartbeatInterval) {
+                    // swap with last to avoid shifting the list
+                    final int last = parked.size() - 1;
+                    parked.setQuick(i, parked.getQuick(last));
+                    parked.setPos(last);
+                    dispatcher.registerChannel(context, IOOperation.WRITE);
+                    useful = true;
+                }
+            }
+            return useful;
+        }
+    }
+
+    @Override
+    public void resumeSend(
+            HttpConnectionContext context,
+            IODispatcher<HttpConnectionContext> dispatcher
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException, RequestParkedException {
+        final TableTailProcessorState state = LV.get(context);
+        if (state == null || state.metadata == null) {
+            return;
+        }
+
+        final HttpChunkedResponseSocket socket = context.getChunkedResponseSocket();
+        final int columnCount = state.metadata.getColumnCount();
+
+        OUT:
+        while (true) {
+            try {
+                switch (state.queryState) {
+                    case AbstractQueryContext.QUERY_PREFIX:
+                    case AbstractQueryContext.QUERY_METADATA:
+                        state.columnIndex = 0;
+                        state.queryState = AbstractQueryContext.QUERY_METADATA;
+                        for (; state.columnIndex < columnCount; state.columnIndex++) {
+                            socket.bookmark();
+                            if (state.columnIndex > 0) {
+                                socket.put(',');
+                            }
+                            socket.putQuoted(state.metadata.getColumnName(state.columnIndex));
+                        }
+                        socket.put(Misc.EOL);
+                        // header line is sent straight away for client to know subscription is active
+                        state.pendingRows = true;
+                        state.queryState = AbstractQueryContext.QUERY_RECORD_START;
+                        // fall through
+                    case AbstractQueryContext.QUERY_RECORD_START:
+                        if (!hasNext(state)) {
+                            if (state.pendingRows) {
+                                state.pendingRows = false;
+                                state.lastSendTimestamp = clock.getTicks();
+                                socket.sendChunk();
+                            }
+                            if (awaitCommit(context, dispatcher, state, socket)) {
+                                // table structure changed, rows we would send no longer match header
+                                info(state).$("unsubscribed [count=").$(state.count).$(']').$();
+                                state.queryState = AbstractQueryContext.QUERY_SUFFIX;
+                                socket.done();
+                                break OUT;
+                            }
+                            break;
+                        }
+                        state.queryState = AbstractQueryContext.QUERY_RECORD;
+                        state.columnIndex = 0;
+                        // fall through
+                    case AbstractQueryContext.QUERY_RECORD:
+                        for (; state.columnIndex < columnCount; state.columnIndex++) {
+                            socket.bookmark();
+                            if (state.columnIndex > 0) {
+                                socket.put(',');
+                            }
+                            TextQueryProcessor.putValue(socket, state.metadata.getColumnType(state.columnIndex), state.record, state.columnIndex, floatScale, doubleScale);
+                        }
+                        state.queryState = AbstractQueryContext.QUERY_RECORD_SUFFIX;
+                        // fall through
+                    case AbstractQueryContext.QUERY_RECORD_SUFFIX:
+                        socket.bookmark();
+                        socket.put(Misc.EOL);
+                        state.count++;
+                        state.pendingRows = true;
+                        state.queryState = AbstractQueryContext.QUERY_RECORD_START;
+                        break;
+                    case AbstractQueryContext.QUERY_SUFFIX:
+                    default:
+                        break OUT;
+                }
+            } catch (NoSpaceLeftInResponseBufferException ignored) {
+                if (socket.resetToBookmark()) {
+                    socket.sendChunk();
+                } else {
+                    info(state).$("Response buffer is too small, state=").$(state.queryState).$();
+                    throw PeerDisconnectedException.INSTANCE;
+                }
+            } catch (CairoException | CairoError e) {
+                // table could have been dropped or renamed, there is no way
+                // to report error in the middle of response
+                error(state).$("subscription failed [e=").$(e).$(']').$();
+                throw PeerDisconnectedException.INSTANCE;
+            }
+        }
+        readyForNextRequest(context, dispatcher);
+    }
+
+    private boolean hasNext(TableTailProcessorState state) {
+        while (state.cursor.hasNext()) {
+            if (state.filter == null || state.filter.getBool(state.record)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parks subscription until writer commits or heartbeat is due. Connection is not
+     * re-armed with dispatcher, which would keep calling us back while socket is writable.
+     * Instead {@link #resumeParked(IODispatcher)} checks table transaction number without
+     * reloading the reader and re-arms the connection when there is something to send.
+     *
+     * @return true when subscription has to end due to table structure change
+     */
+    private boolean awaitCommit(
+            HttpConnectionContext context,
+            IODispatcher<HttpConnectionContext> dispatcher,
+            TableTailProcessorState state,
+            HttpChunkedResponseSocket socket
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException, RequestParkedException {
+        if (state.cursor.reload()) {
+            if (state.reader.getVersion() != state.tableVersion) {
+                info(state).$("table structure changed [table=").$(state.reader.getTableName()).$(']').$();
+                return true;
+            }
+            if (state.filter != null) {
+                // symbol keys may have been added by this commit
+                state.filter.init(state.cursor, sqlExecutionContext);
+            }
+            return false;
+        }
+
+        final long now = clock.getTicks();
+        if (now - state.lastSendTimestamp >= heartbeatInterval) {
+            // empty line lets us find out if peer has gone away
+            state.lastSendTimestamp = now;
+            socket.put(Misc.EOL);
+            socket.sendChunk();
+        }
+
+        synchronized (parked) {
+            parkedDispatcher = dispatcher;
+            parked.add(context);
+        }
+        throw RequestParkedException.INSTANCE;
+    }
+
+    private LogRecord error(TableTailProcessorState state) {
+        return LOG.error().$('[').$(state.fd).$("] ");
+    }
+
+    private void header(
+            HttpChunkedResponseSocket socket,
+            int status
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        socket.status(status, "text/csv; charset=utf-8");
+        socket.headers().setKeepAlive(configuration.getKeepAliveHeader());
+        socket.sendHeader();
+    }
+
+    private LogRecord info(TableTailProcessorState state) {
+        return LOG.info().$('[').$(state.fd).$("] ");
+    }
+
+    private void readyForNextRequest(HttpConnectionContext context, IODispatcher<HttpConnectionContext> dispatcher) {
+        LOG.debug().$("all sent [fd=").$(context.getFd()).$(']').$();
+        context.clear();
+        dispatcher.registerChannel(context, IOOperation.READ);
+    }
+
+    private void sendException(
+            HttpChunkedResponseSocket socket,
+            int position,
+            CharSequence message,
+            int status,
+            CharSequence filter
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        header(socket, status);
+        socket.put('{').
+                putQuoted("filter").put(':').encodeUtf8AndQuote(filter == null ? "" : filter).put(',').
+                putQuoted("error").put(':').encodeUtf8AndQuote(message).put(',').
+                putQuoted("position").put(':').put(position);
+        socket.put('}');
+        socket.sendChunk();
+        socket.done();
+    }
+}
@@ -0,0 +1,80 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.http.processors;
+
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableReaderTailRecordCursor;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.std.Misc;
+import io.questdb.std.Mutable;
+
+import java.io.Closeable;
+
+public class TableTailProcessorState implements Mutable, Closeable {
+    final long fd;
+    final TableReaderTailRecordCursor cursor = new TableReaderTailRecordCursor();
+    private final TableTailSubscriptions subscriptions;
+    TableReader reader;
+    long tableVersion;
+    Function filter;
+    RecordMetadata metadata;
+    Record record;
+    int queryState = AbstractQueryContext.QUERY_PREFIX;
+    int columnIndex;
+    long count;
+    long lastSendTimestamp;
+    boolean pendingRows;
+    String tableName;
+
+    public TableTailProcessorState(long fd, TableTailSubscriptions subscriptions) {
+        this.fd = fd;
+        this.subscriptions = subscriptions;
+    }
+
+    @Override
+    public void clear() {
+        // cursor returns reader to the pool
+        cursor.close();
+        reader = null;
+        filter = Misc.free(filter);
+        metadata = null;
+        record = null;
+        queryState = AbstractQueryContext.QUERY_PREFIX;
+        columnIndex = 0;
+        count = 0;
+        pendingRows = false;
+        if (tableName != null) {
+            subscriptions.release(tableName);
+            tableName = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+}
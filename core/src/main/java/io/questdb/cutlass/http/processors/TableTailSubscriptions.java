@@ -0,0 +1,65 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.http.processors;
+
+import io.questdb.std.CharSequenceIntHashMap;
+
+/**
+ * Counts /tail subscriptions per table across all HTTP workers. Each subscription
+ * holds pooled table reader for as long as it lasts, limit stops subscribers from
+ * draining reader pool of the table.
+ */
+public class TableTailSubscriptions {
+    private final CharSequenceIntHashMap counts = new CharSequenceIntHashMap();
+    private final int limit;
+
+    public TableTailSubscriptions(int limit) {
+        this.limit = limit;
+    }
+
+    public synchronized boolean acquire(CharSequence tableName) {
+        final int index = counts.keyIndex(tableName);
+        final int count = counts.valueAt(index);
+        if (count < 0) {
+            counts.putAt(index, tableName, 1);
+            return true;
+        }
+        if (count < limit) {
+            counts.putAt(index, tableName, count + 1);
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized void release(CharSequence tableName) {
+        final int index = counts.keyIndex(tableName);
+        final int count = counts.valueAt(index);
+        if (count > 1) {
+            counts.putAt(index, tableName, count - 1);
+        } else {
+            counts.removeAt(index);
+        }
+    }
+}
@@ -28,7 +28,9 @@ import io.questdb.cairo.CairoEngine;
 import io.questdb.cairo.CairoError;
 import io.questdb.cairo.CairoException;
 import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.ReaderOutOfDateException;
 import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cutlass.http.HttpChunkedResponseSocket;
 import io.questdb.cutlass.http.HttpConnectionContext;
 import io.questdb.cutlass.http.HttpRequestHeader;
@@ -37,6 +39,7 @@ import io.questdb.griffin.CompiledQuery;
 import io.questdb.griffin.SqlCompiler;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.griffin.SqlUtil;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.log.LogRecord;
@@ -49,10 +52,6 @@ import java.io.Closeable;
 import java.util.concurrent.atomic.AtomicLong;
 
 public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
-    // Factory cache is thread local due to possibility of factory being
-    // closed by another thread. Peer disconnect is a typical example of this.
-    // Being asynchronous we may need to be able to return factory to the cache
-    // by the same thread that executes the dispatcher.
     private static final LocalValue<JsonQueryProcessorState> LV = new LocalValue<>();
     private static final Log LOG = LogFactory.getLog(TextQueryProcessor.class);
     private final AtomicLong cacheHits = new AtomicLong();
@@ -63,10 +62,16 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
     private final int doubleScale;
     private final SqlExecutionContextImpl sqlExecutionContext = new SqlExecutionContextImpl();
     private final MillisecondClock clock;
+    private final ConcurrentAssociativeCache<RecordCursorFactory> queryCache;
 
-    public TextQueryProcessor(JsonQueryProcessorConfiguration configuration, CairoEngine engine) {
+    public TextQueryProcessor(
+            JsonQueryProcessorConfiguration configuration,
+            CairoEngine engine,
+            ConcurrentAssociativeCache<RecordCursorFactory> queryCache
+    ) {
         // todo: add scheduler
         this.configuration = configuration;
+        this.queryCache = queryCache;
         this.compiler = new SqlCompiler(engine);
         this.floatScale = configuration.getFloatScale();
         this.doubleScale = configuration.getDoubleScale();
@@ -91,7 +96,10 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
             HttpChunkedResponseSocket socket
     ) throws PeerDisconnectedException, PeerIsSlowToReadException {
         try {
-            state.recordCursorFactory = AbstractQueryContext.FACTORY_CACHE.get().poll(state.query);
+            state.queryCacheKey.clear();
+            SqlUtil.putQueryCacheKey(state.queryCacheKey, state.query, null);
+            state.queryCacheVersion = compiler.getEngine().getStructureVersion();
+            state.recordCursorFactory = queryCache.poll(state.queryCacheKey, state.queryCacheVersion);
             int retryCount = 0;
             do {
                 sqlExecutionContext.with(context.getCairoSecurityContext(), null);
@@ -120,14 +128,13 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
                         header(socket, 200);
                         resumeSend(context, dispatcher);
                         break;
-                    } catch (CairoError | CairoException e) {
+                    } catch (CairoError | CairoException | ReaderOutOfDateException e) {
                         // todo: investigate why we need to keep retrying to execute query when it is failing
                         //  perhaps this is unnecessary because we don't even check the type of error it is
                         //  we could be having severe hardware issues and continue trying
                         if (retryCount == 0) {
-                            // todo: we want to clear cache, no need to create string to achieve this
-                            AbstractQueryContext.FACTORY_CACHE.get().put(state.query.toString(), null);
-                            state.recordCursorFactory = null;
+                            state.recordCursorFactory = Misc.free(state.recordCursorFactory);
+                            queryCache.invalidate(state.queryCacheKey);
                             LOG.error().$("RecordSource execution failed. ").$(e.getMessage()).$(". Retrying ...").$();
                             retryCount++;
                         } else {
@@ -162,7 +169,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
     ) throws PeerDisconnectedException, PeerIsSlowToReadException {
         JsonQueryProcessorState state = LV.get(context);
         if (state == null) {
-            LV.set(context, state = new JsonQueryProcessorState(context.getFd(), configuration.getConnectionCheckFrequency()));
+            LV.set(context, state = new JsonQueryProcessorState(context.getFd(), configuration.getConnectionCheckFrequency(), queryCache));
         }
         HttpChunkedResponseSocket socket = context.getChunkedResponseSocket();
         if (parseUrl(socket, context.getRequestHeader(), state)) {
@@ -250,7 +257,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
                             if (state.columnIndex > 0) {
                                 socket.put(',');
                             }
-                            putValue(socket, state.metadata.getColumnType(state.columnIndex), state.record, state.columnIndex);
+                            putValue(socket, state.metadata.getColumnType(state.columnIndex), state.record, state.columnIndex, floatScale, doubleScale);
                         }
 
                         state.queryState = AbstractQueryContext.QUERY_RECORD_SUFFIX;
@@ -370,7 +377,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
         return true;
     }
 
-    private void putValue(HttpChunkedResponseSocket socket, int type, Record rec, int col) {
+    static void putValue(HttpChunkedResponseSocket socket, int type, Record rec, int col, int floatScale, int doubleScale) {
         switch (type) {
             case ColumnType.BOOLEAN:
                 socket.put(rec.getBool(col));
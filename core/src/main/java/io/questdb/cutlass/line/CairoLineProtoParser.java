@@ -31,6 +31,8 @@ import io.questdb.log.LogFactory;
 import io.questdb.std.*;
 import io.questdb.std.microtime.MicrosecondClock;
 import io.questdb.std.str.Path;
+import io.questdb.std.time.MillisecondClock;
+import io.questdb.std.time.MillisecondClockImpl;
 
 import java.io.Closeable;
 
@@ -45,9 +47,31 @@ public class CairoLineProtoParser implements LineProtoParser, Closeable {
     };
     private static final FieldNameParser NOOP_FIELD_NAME = name -> {
     };
+    private static final LineProtoCommitConfiguration COMMIT_ALL_ONLY = new LineProtoCommitConfiguration() {
+        @Override
+        public long getCommitIdleTimeout() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public long getMaxUncommittedLatency() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public int getMaxUncommittedRows() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public MillisecondClock getMillisecondClock() {
+            return MillisecondClockImpl.INSTANCE;
+        }
+    };
     private final CairoEngine engine;
     private final CharSequenceObjHashMap<CacheEntry> writerCache = new CharSequenceObjHashMap<>();
-    private final CharSequenceObjHashMap<TableWriter> commitList = new CharSequenceObjHashMap<>();
+    // tables that have uncommitted rows, possibly followed by tables committed on row threshold
+    private final ObjList<CacheEntry> commitList = new ObjList<>();
     private final Path path = new Path();
     private final CairoConfiguration configuration;
     private final LongList columnNameType = new LongList();
@@ -58,6 +82,10 @@ public class CairoLineProtoParser implements LineProtoParser, Closeable {
     private final FieldValueParser MY_NEW_TAG_VALUE = this::parseTagValueNewTable;
     private final TableStructureAdapter tableStructureAdapter = new TableStructureAdapter();
     private final CairoSecurityContext cairoSecurityContext;
+    private final MillisecondClock commitClock;
+    private final int maxUncommittedRows;
+    private final long maxUncommittedLatency;
+    private final long commitIdleTimeout;
     // state
     // cache entry index is always a negative value
     private int cacheEntryIndex = 0;
@@ -79,11 +107,29 @@ public class CairoLineProtoParser implements LineProtoParser, Closeable {
     private final FieldValueParser MY_NEW_FIELD_VALUE = this::parseFieldValueNewTable;
     private final FieldValueParser MY_TAG_VALUE = this::parseTagValue;
 
+    /**
+     * Creates parser that commits only when {@link #commitAll()} is called.
+     *
+     * @param engine               engine to get table writers from
+     * @param cairoSecurityContext security context
+     */
     public CairoLineProtoParser(CairoEngine engine, CairoSecurityContext cairoSecurityContext) {
+        this(engine, cairoSecurityContext, COMMIT_ALL_ONLY);
+    }
+
+    public CairoLineProtoParser(
+            CairoEngine engine,
+            CairoSecurityContext cairoSecurityContext,
+            LineProtoCommitConfiguration commitConfiguration
+    ) {
         this.configuration = engine.getConfiguration();
         this.clock = configuration.getMicrosecondClock();
         this.engine = engine;
         this.cairoSecurityContext = cairoSecurityContext;
+        this.commitClock = commitConfiguration.getMillisecondClock();
+        this.maxUncommittedRows = commitConfiguration.getMaxUncommittedRows();
+        this.maxUncommittedLatency = commitConfiguration.getMaxUncommittedLatency();
+        this.commitIdleTimeout = commitConfiguration.getCommitIdleTimeout();
     }
 
     @Override
@@ -96,15 +142,50 @@ public class CairoLineProtoParser implements LineProtoParser, Closeable {
     }
 
     public void commitAll() {
-        if (writer != null) {
-            writer.commit();
-        }
         for (int i = 0, n = commitList.size(); i < n; i++) {
-            commitList.valueQuick(i).commit();
+            final CacheEntry entry = commitList.getQuick(i);
+            if (entry.uncommittedRows > 0) {
+                commit(entry);
+            }
+            entry.inCommitList = false;
         }
         commitList.clear();
     }
 
+    /**
+     * Commits tables which oldest uncommitted row has been waiting for longer than maximum latency
+     * or which have not received rows for idle timeout. Receivers are expected to call this method
+     * periodically, including when there is no incoming data.
+     *
+     * @return true when at least one table was committed
+     */
+    public boolean commitIfDue() {
+        final int n = commitList.size();
+        if (n == 0) {
+            return false;
+        }
+
+        final long now = commitClock.getTicks();
+        boolean committed = false;
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            final CacheEntry entry = commitList.getQuick(i);
+            if (entry.uncommittedRows > 0
+                    && (now - entry.firstUncommittedRowTime >= maxUncommittedLatency || now - entry.lastRowTime >= commitIdleTimeout)) {
+                commit(entry);
+                committed = true;
+            }
+
+            if (entry.uncommittedRows > 0) {
+                commitList.setQuick(k++, entry);
+            } else {
+                entry.inCommitList = false;
+            }
+        }
+        commitList.setPos(k);
+        return committed;
+    }
+
     @Override
     public void onError(int position, int state, int code) {
         clearState();
@@ -117,8 +198,9 @@ public class CairoLineProtoParser implements LineProtoParser, Closeable {
             case EVT_MEASUREMENT:
                 int wrtIndex = writerCache.keyIndex(token);
                 // this condition relies on the fact that this.cacheEntryIndex is always negative
-                // which indicates that entry is in cache
-                if (wrtIndex == this.cacheEntryIndex) {
+                // which indicates that entry is in cache, zero means there is no current entry
+                // and must not be confused with free slot zero
+                if (wrtIndex == this.cacheEntryIndex && wrtIndex < 0) {
                     // same table as from last line?
                     // make sure we append it in case it was in "create" mode
                     if (writer != null) {
@@ -189,6 +271,7 @@ public class CairoLineProtoParser implements LineProtoParser, Closeable {
                         , cache.get(columnValues.getQuick(i)));
             }
             row.append();
+            onRowAppended(writerCache.valueAt(cacheEntryIndex));
         } catch (BadCastException ignore) {
             row.cancel();
         }
@@ -219,6 +302,7 @@ public class CairoLineProtoParser implements LineProtoParser, Closeable {
                 );
             }
             row.append();
+            onRowAppended(writerCache.valueAt(cacheEntryIndex));
         } catch (BadCastException ignore) {
             row.cancel();
         }
@@ -241,6 +325,11 @@ public class CairoLineProtoParser implements LineProtoParser, Closeable {
         columnValues.clear();
     }
 
+    private void commit(CacheEntry entry) {
+        entry.writer.commit();
+        entry.uncommittedRows = 0;
+    }
+
     private void createState(CacheEntry entry) {
         writer = entry.writer;
         metadata = writer.getMetadata();
@@ -313,6 +402,22 @@ public class CairoLineProtoParser implements LineProtoParser, Closeable {
         }
     }
 
+    private void onRowAppended(CacheEntry entry) {
+        final long now = commitClock.getTicks();
+        if (entry.uncommittedRows++ == 0) {
+            entry.firstUncommittedRowTime = now;
+            if (!entry.inCommitList) {
+                entry.inCommitList = true;
+                commitList.add(entry);
+            }
+        }
+        entry.lastRowTime = now;
+
+        if (entry.uncommittedRows >= maxUncommittedRows) {
+            commit(entry);
+        }
+    }
+
     private void parseFieldName(CachedCharSequence token) {
         columnIndex = metadata.getColumnIndexQuiet(token);
         if (columnIndex == -1) {
@@ -442,14 +547,6 @@ public class CairoLineProtoParser implements LineProtoParser, Closeable {
     }
 
     private void switchTable(CachedCharSequence tableName, int entryIndex) {
-        if (this.cacheEntryIndex != 0) {
-            // add previous writer to commit list
-            CacheEntry e = writerCache.valueAt(cacheEntryIndex);
-            if (e.writer != null) {
-                commitList.put(e.writer.getName(), e.writer);
-            }
-        }
-
         CacheEntry entry;
         if (entryIndex < 0) {
             entry = writerCache.valueAt(entryIndex);
@@ -491,6 +588,10 @@ public class CairoLineProtoParser implements LineProtoParser, Closeable {
     private static class CacheEntry {
         private TableWriter writer;
         private int state = 0;
+        private int uncommittedRows = 0;
+        private long firstUncommittedRowTime;
+        private long lastRowTime;
+        private boolean inCommitList = false;
     }
 
     private class TableStructureAdapter implements TableStructure {
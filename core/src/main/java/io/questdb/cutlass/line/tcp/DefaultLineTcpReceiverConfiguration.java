@@ -0,0 +1,124 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.network.DefaultIODispatcherConfiguration;
+import io.questdb.network.IODispatcherConfiguration;
+import io.questdb.network.NetworkFacade;
+import io.questdb.network.NetworkFacadeImpl;
+import io.questdb.std.time.MillisecondClock;
+import io.questdb.std.time.MillisecondClockImpl;
+
+public class DefaultLineTcpReceiverConfiguration implements LineTcpReceiverConfiguration {
+
+    private final IODispatcherConfiguration ioDispatcherConfiguration = new DefaultIODispatcherConfiguration() {
+        @Override
+        public int getBindPort() {
+            return 9009;
+        }
+
+        @Override
+        public String getDispatcherLogName() {
+            return "line-tcp";
+        }
+    };
+
+    private final int[] workerAffinity = new int[]{-1};
+
+    @Override
+    public long getCommitIdleTimeout() {
+        return 200;
+    }
+
+    @Override
+    public int getConnectionPoolInitialCapacity() {
+        return 64;
+    }
+
+    @Override
+    public IODispatcherConfiguration getDispatcherConfiguration() {
+        return ioDispatcherConfiguration;
+    }
+
+    @Override
+    public long getMaxUncommittedLatency() {
+        return 500;
+    }
+
+    @Override
+    public int getMaxUncommittedRows() {
+        return 1000;
+    }
+
+    @Override
+    public MillisecondClock getMillisecondClock() {
+        return MillisecondClockImpl.INSTANCE;
+    }
+
+    @Override
+    public int getMsgBufferSize() {
+        return 2048;
+    }
+
+    @Override
+    public NetworkFacade getNetworkFacade() {
+        return NetworkFacadeImpl.INSTANCE;
+    }
+
+    @Override
+    public int getRecvBufferSize() {
+        return 64 * 1024;
+    }
+
+    @Override
+    public int[] getWorkerAffinity() {
+        return workerAffinity;
+    }
+
+    @Override
+    public int getWorkerCount() {
+        return 1;
+    }
+
+    @Override
+    public int getWriterCount() {
+        return 0;
+    }
+
+    @Override
+    public int getWriterQueueCapacity() {
+        return 64;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean workerHaltOnError() {
+        return false;
+    }
+}
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.network.IOContext;
+import io.questdb.network.NetworkFacade;
+import io.questdb.network.PeerDisconnectedException;
+import io.questdb.network.PeerIsSlowToWriteException;
+import io.questdb.std.Mutable;
+import io.questdb.std.Unsafe;
+
+/**
+ * Per-connection state of line protocol TCP receiver. Bytes received from the socket are
+ * accumulated in connection's own buffer and only complete lines are handed over to the job context.
+ * This allows lexer and parser to be shared by all connections served by the same worker.
+ */
+public class LineTcpConnectionContext implements IOContext, Mutable {
+    private static final Log LOG = LogFactory.getLog(LineTcpConnectionContext.class);
+    private final NetworkFacade nf;
+    private final long recvBuffer;
+    private final int recvBufferSize;
+    private long fd = -1;
+    private int recvBufferWriteOffset = 0;
+    private int recvBufferScanOffset = 0;
+
+    public LineTcpConnectionContext(LineTcpReceiverConfiguration configuration) {
+        this.nf = configuration.getNetworkFacade();
+        this.recvBufferSize = configuration.getRecvBufferSize();
+        this.recvBuffer = Unsafe.malloc(recvBufferSize);
+    }
+
+    @Override
+    public void clear() {
+        recvBufferWriteOffset = 0;
+        recvBufferScanOffset = 0;
+    }
+
+    @Override
+    public void close() {
+        this.fd = -1;
+        Unsafe.free(recvBuffer, recvBufferSize);
+    }
+
+    @Override
+    public long getFd() {
+        return fd;
+    }
+
+    @Override
+    public boolean invalid() {
+        return fd == -1;
+    }
+
+    public LineTcpConnectionContext of(long fd) {
+        this.fd = fd;
+        clear();
+        return this;
+    }
+
+    /**
+     * Reads available bytes from socket and feeds complete lines to the job context. Incomplete
+     * line at the end of the buffer is kept until the rest of it arrives. Reads are bounded
+     * by the size of receive buffer to let other connections have their turn.
+     *
+     * @param jobContext worker context to parse lines with
+     * @throws PeerDisconnectedException  when peer closed connection or sent line that does not fit receive buffer.
+     *                                    All lines received before disconnect, including the last unterminated one, are parsed.
+     * @throws PeerIsSlowToWriteException when there is no more data in the socket
+     */
+    public void handleIO(LineTcpJobContext jobContext) throws PeerDisconnectedException, PeerIsSlowToWriteException {
+        boolean parsed = false;
+        int bytesRead = 0;
+        while (bytesRead < recvBufferSize) {
+            final int remaining = recvBufferSize - recvBufferWriteOffset;
+            if (remaining < 1) {
+                LOG.error().$("line does not fit receive buffer [fd=").$(fd).$(", size=").$(recvBufferSize).$(']').$();
+                throw PeerDisconnectedException.INSTANCE;
+            }
+
+            final int n = nf.recv(fd, recvBuffer + recvBufferWriteOffset, remaining);
+            if (n < 0) {
+                parseRemaining(jobContext);
+                throw PeerDisconnectedException.INSTANCE;
+            }
+
+            if (n == 0) {
+                if (parsed) {
+                    break;
+                }
+                throw PeerIsSlowToWriteException.INSTANCE;
+            }
+
+            bytesRead += n;
+            recvBufferWriteOffset += n;
+            parsed |= parseLines(jobContext);
+        }
+    }
+
+    private boolean parseLines(LineTcpJobContext jobContext) {
+        long lastLineEnd = -1;
+        for (long p = recvBuffer + recvBufferScanOffset, hi = recvBuffer + recvBufferWriteOffset; p < hi; p++) {
+            switch (Unsafe.getUnsafe().getByte(p)) {
+                case '\n':
+                case '\r':
+                    lastLineEnd = p;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        if (lastLineEnd == -1) {
+            recvBufferScanOffset = recvBufferWriteOffset;
+            return false;
+        }
+
+        final long lo = lastLineEnd + 1;
+        jobContext.parseLines(recvBuffer, lo);
+
+        // move unterminated tail to the start of the buffer
+        final int tailLen = (int) (recvBuffer + recvBufferWriteOffset - lo);
+        if (tailLen > 0) {
+            Unsafe.getUnsafe().copyMemory(lo, recvBuffer, tailLen);
+        }
+        recvBufferWriteOffset = tailLen;
+        recvBufferScanOffset = tailLen;
+        return true;
+    }
+
+    private void parseRemaining(LineTcpJobContext jobContext) {
+        if (recvBufferWriteOffset > 0) {
+            // receive buffer is never full here, there is always room to terminate the last line
+            Unsafe.getUnsafe().putByte(recvBuffer + recvBufferWriteOffset++, (byte) '\n');
+            parseLines(jobContext);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CairoSecurityContext;
+import io.questdb.network.PeerDisconnectedException;
+import io.questdb.network.PeerIsSlowToWriteException;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+
+import java.io.Closeable;
+
+/**
+ * Worker-local state of line protocol TCP receiver. When there are no writer jobs lines are
+ * written by the worker that received them, using writer shared by all connections this worker
+ * happens to serve. Rows are also committed when peer disconnects.
+ * <p>
+ * Otherwise lines are routed to writer jobs by hash of table name. Lines are accumulated
+ * per writer job and published once all lines of the receive buffer are routed. Lines of
+ * the same table keep their order because they always go to the same writer job.
+ */
+public class LineTcpJobContext implements Closeable {
+    private final LineTcpWriter writer;
+    private final ObjList<LineTcpWriterJob> writerJobs;
+    private final ObjList<LineTcpWriterJob> ownWriterJobs;
+    private final ObjList<LineTcpWriterEntry> pendingEntries;
+
+    public LineTcpJobContext(LineTcpReceiverConfiguration configuration, CairoEngine engine, CairoSecurityContext cairoSecurityContext) {
+        this.writer = new LineTcpWriter(configuration, engine, cairoSecurityContext);
+        this.writerJobs = null;
+        this.ownWriterJobs = null;
+        this.pendingEntries = null;
+    }
+
+    /**
+     * @param configuration receiver configuration
+     * @param writerJobs    all writer jobs
+     * @param ownWriterJobs writer jobs that run on the same worker as this context. They are run
+     *                      by this context while queue of any writer job is full, this is to
+     *                      avoid workers waiting on each other's queues indefinitely.
+     */
+    LineTcpJobContext(LineTcpReceiverConfiguration configuration, ObjList<LineTcpWriterJob> writerJobs, ObjList<LineTcpWriterJob> ownWriterJobs) {
+        this.writer = null;
+        this.writerJobs = writerJobs;
+        this.ownWriterJobs = ownWriterJobs;
+        this.pendingEntries = new ObjList<>(writerJobs.size());
+        for (int i = 0, n = writerJobs.size(); i < n; i++) {
+            pendingEntries.add(new LineTcpWriterEntry(configuration.getRecvBufferSize()));
+        }
+    }
+
+    @Override
+    public void close() {
+        Misc.free(writer);
+        Misc.freeObjList(pendingEntries);
+    }
+
+    public boolean commitIfDue() {
+        return writer != null && writer.commitIfDue();
+    }
+
+    public void handleIO(LineTcpConnectionContext context) throws PeerDisconnectedException, PeerIsSlowToWriteException {
+        try {
+            context.handleIO(this);
+        } catch (PeerDisconnectedException e) {
+            if (writer != null) {
+                writer.commit();
+            }
+            throw e;
+        }
+    }
+
+    void parseLines(long lo, long hi) {
+        if (writer != null) {
+            writer.parseLines(lo, hi);
+            return;
+        }
+
+        long lineStart = lo;
+        for (long p = lo; p < hi; p++) {
+            switch (Unsafe.getUnsafe().getByte(p)) {
+                case '\n':
+                case '\r':
+                    // skip empty lines, such as '\n' of "\r\n"
+                    if (p > lineStart) {
+                        routeLine(lineStart, p + 1);
+                    }
+                    lineStart = p + 1;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        for (int i = 0, n = pendingEntries.size(); i < n; i++) {
+            if (pendingEntries.getQuick(i).getSize() > 0) {
+                publish(i);
+            }
+        }
+    }
+
+    private static int hashLine(long lo, long hi) {
+        // hash of table name, which is the first token of the line
+        int h = 0;
+        boolean escape = false;
+        for (long p = lo; p < hi; p++) {
+            final byte b = Unsafe.getUnsafe().getByte(p);
+            if (escape) {
+                escape = false;
+            } else if (b == '\\') {
+                escape = true;
+                continue;
+            } else if (b == ',' || b == ' ') {
+                break;
+            }
+            h = 31 * h + b;
+        }
+        return h;
+    }
+
+    private void publish(int writerIndex) {
+        final LineTcpWriterEntry entry = pendingEntries.getQuick(writerIndex);
+        final LineTcpWriterJob job = writerJobs.getQuick(writerIndex);
+        while (!job.tryPublish(entry)) {
+            for (int i = 0, n = ownWriterJobs.size(); i < n; i++) {
+                ownWriterJobs.getQuick(i).run();
+            }
+        }
+        entry.clear();
+    }
+
+    private void routeLine(long lo, long hi) {
+        final int writerIndex = (hashLine(lo, hi) & Integer.MAX_VALUE) % writerJobs.size();
+        final LineTcpWriterEntry entry = pendingEntries.getQuick(writerIndex);
+        if (!entry.fits(lo, hi)) {
+            publish(writerIndex);
+        }
+        entry.append(lo, hi);
+    }
+}
@@ -0,0 +1,60 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.cutlass.line.LineProtoCommitConfiguration;
+import io.questdb.network.IODispatcherConfiguration;
+import io.questdb.network.NetworkFacade;
+
+public interface LineTcpReceiverConfiguration extends LineProtoCommitConfiguration {
+
+    int getConnectionPoolInitialCapacity();
+
+    IODispatcherConfiguration getDispatcherConfiguration();
+
+    int getMsgBufferSize();
+
+    NetworkFacade getNetworkFacade();
+
+    int getRecvBufferSize();
+
+    int[] getWorkerAffinity();
+
+    int getWorkerCount();
+
+    /**
+     * Number of jobs lines are routed to by hash of table name. Each job owns writers of its tables.
+     * When zero, lines are written by the worker that received them.
+     *
+     * @return number of writer jobs
+     */
+    int getWriterCount();
+
+    int getWriterQueueCapacity();
+
+    boolean isEnabled();
+
+    boolean workerHaltOnError();
+}
@@ -0,0 +1,203 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.EagerThreadSetup;
+import io.questdb.mp.Job;
+import io.questdb.mp.WorkerPool;
+import io.questdb.mp.WorkerPoolConfiguration;
+import io.questdb.network.*;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.ThreadLocal;
+import io.questdb.std.WeakObjectPool;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+public class LineTcpServer implements Closeable {
+    private static final Log LOG = LogFactory.getLog(LineTcpServer.class);
+    private final IODispatcher<LineTcpConnectionContext> dispatcher;
+    private final LineTcpConnectionContextFactory contextFactory;
+    private final ObjList<LineTcpWriterJob> writerJobs = new ObjList<>();
+    private WorkerPool localPool;
+
+    public LineTcpServer(
+            LineTcpReceiverConfiguration configuration,
+            CairoEngine engine,
+            WorkerPool pool
+    ) {
+        this.contextFactory = new LineTcpConnectionContextFactory(configuration);
+        this.dispatcher = IODispatchers.create(
+                configuration.getDispatcherConfiguration(),
+                contextFactory
+        );
+
+        pool.assign(dispatcher);
+
+        final int workerCount = pool.getWorkerCount();
+        for (int i = 0, n = configuration.getWriterCount(); i < n; i++) {
+            final LineTcpWriterJob writerJob = new LineTcpWriterJob(configuration, engine, AllowAllCairoSecurityContext.INSTANCE);
+            writerJobs.add(writerJob);
+            // writer job is single consumer of its queue and has to stay on the same worker
+            pool.assign(i % workerCount, (Job) writerJob);
+        }
+
+        for (int i = 0; i < workerCount; i++) {
+            final LineTcpJobContext jobContext;
+            if (writerJobs.size() > 0) {
+                final ObjList<LineTcpWriterJob> ownWriterJobs = new ObjList<>();
+                for (int j = i, n = writerJobs.size(); j < n; j += workerCount) {
+                    ownWriterJobs.add(writerJobs.getQuick(j));
+                }
+                jobContext = new LineTcpJobContext(configuration, writerJobs, ownWriterJobs);
+            } else {
+                jobContext = new LineTcpJobContext(configuration, engine, AllowAllCairoSecurityContext.INSTANCE);
+            }
+            pool.assign(i, new Job() {
+                private final IORequestProcessor<LineTcpConnectionContext> processor = (operation, context, dispatcher) -> {
+                    try {
+                        jobContext.handleIO(context);
+                        dispatcher.registerChannel(context, IOOperation.READ);
+                    } catch (PeerIsSlowToWriteException e) {
+                        dispatcher.registerChannel(context, IOOperation.READ);
+                    } catch (PeerDisconnectedException e) {
+                        dispatcher.disconnect(context);
+                    }
+                };
+
+                @Override
+                public boolean run() {
+                    // rows that arrived before connections went quiet
+                    // must not wait for the next read to be committed
+                    return dispatcher.processIOQueue(processor) || jobContext.commitIfDue();
+                }
+            });
+
+            // context factory has thread local pools
+            // therefore we need each thread to clean their thread locals individually
+            pool.assign(i, () -> {
+                Misc.free(jobContext);
+                contextFactory.closeContextPool();
+            });
+        }
+    }
+
+    @Nullable
+    public static LineTcpServer create(LineTcpReceiverConfiguration configuration, WorkerPool workerPool, Log log, CairoEngine cairoEngine) {
+        LineTcpServer lineTcpServer;
+        if (configuration.isEnabled()) {
+            final WorkerPool localPool;
+            if (configuration.getWorkerCount() > 0) {
+                localPool = new WorkerPool(new WorkerPoolConfiguration() {
+                    @Override
+                    public int[] getWorkerAffinity() {
+                        return configuration.getWorkerAffinity();
+                    }
+
+                    @Override
+                    public int getWorkerCount() {
+                        return configuration.getWorkerCount();
+                    }
+
+                    @Override
+                    public boolean haltOnError() {
+                        return configuration.workerHaltOnError();
+                    }
+                });
+            } else {
+                localPool = workerPool;
+            }
+
+            lineTcpServer = new LineTcpServer(configuration, cairoEngine, localPool);
+
+            if (localPool != workerPool) {
+                // own pool is halted by close() to commit outstanding rows
+                lineTcpServer.localPool = localPool;
+                localPool.start(log);
+            }
+        } else {
+            lineTcpServer = null;
+        }
+        return lineTcpServer;
+    }
+
+    @Override
+    public void close() {
+        if (localPool != null) {
+            localPool.halt();
+            localPool = null;
+        }
+        Misc.free(contextFactory);
+        Misc.free(dispatcher);
+        // workers are stopped by now, writer jobs can be closed by any thread
+        Misc.freeObjList(writerJobs);
+    }
+
+    private static class LineTcpConnectionContextFactory implements IOContextFactory<LineTcpConnectionContext>, Closeable, EagerThreadSetup {
+        private final ThreadLocal<WeakObjectPool<LineTcpConnectionContext>> contextPool;
+        private boolean closed = false;
+
+        public LineTcpConnectionContextFactory(LineTcpReceiverConfiguration configuration) {
+            this.contextPool = new ThreadLocal<>(() -> new WeakObjectPool<>(() ->
+                    new LineTcpConnectionContext(configuration), configuration.getConnectionPoolInitialCapacity()));
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        @Override
+        public LineTcpConnectionContext newInstance(long fd) {
+            return contextPool.get().pop().of(fd);
+        }
+
+        @Override
+        public void done(LineTcpConnectionContext context) {
+            if (closed) {
+                Misc.free(context);
+            } else {
+                context.of(-1);
+                contextPool.get().push(context);
+                LOG.info().$("pushed").$();
+            }
+        }
+
+        @Override
+        public void setup() {
+            contextPool.get();
+        }
+
+        private void closeContextPool() {
+            Misc.free(this.contextPool.get());
+            LOG.info().$("closed").$();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CairoSecurityContext;
+import io.questdb.cutlass.line.CairoLineProtoParser;
+import io.questdb.cutlass.line.LineProtoLexer;
+import io.questdb.std.Misc;
+
+import java.io.Closeable;
+
+/**
+ * Parses blocks of complete lines into tables. Writers are cached by the parser and are
+ * exclusive to this instance. Each table is committed according to commit policy of receiver
+ * configuration, see {@link io.questdb.cutlass.line.LineProtoCommitConfiguration}.
+ */
+class LineTcpWriter implements Closeable {
+    private final LineProtoLexer lexer;
+    private final CairoLineProtoParser parser;
+
+    LineTcpWriter(LineTcpReceiverConfiguration configuration, CairoEngine engine, CairoSecurityContext cairoSecurityContext) {
+        this.lexer = new LineProtoLexer(configuration.getMsgBufferSize());
+        this.parser = new CairoLineProtoParser(engine, cairoSecurityContext, configuration);
+        this.lexer.withParser(parser);
+    }
+
+    @Override
+    public void close() {
+        parser.commitAll();
+        Misc.free(parser);
+        Misc.free(lexer);
+    }
+
+    void commit() {
+        parser.commitAll();
+    }
+
+    boolean commitIfDue() {
+        return parser.commitIfDue();
+    }
+
+    void parseLines(long lo, long hi) {
+        lexer.parse(lo, hi);
+        parser.commitIfDue();
+    }
+}
@@ -0,0 +1,75 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.std.Unsafe;
+
+import java.io.Closeable;
+
+/**
+ * Block of complete lines that belong to tables of the same writer job.
+ */
+class LineTcpWriterEntry implements Closeable {
+    private final long address;
+    private final int capacity;
+    private int size;
+
+    LineTcpWriterEntry(int capacity) {
+        this.capacity = capacity;
+        this.address = Unsafe.malloc(capacity);
+    }
+
+    @Override
+    public void close() {
+        Unsafe.free(address, capacity);
+    }
+
+    void append(long lo, long hi) {
+        final int len = (int) (hi - lo);
+        Unsafe.getUnsafe().copyMemory(lo, address + size, len);
+        size += len;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    void copyOf(LineTcpWriterEntry other) {
+        Unsafe.getUnsafe().copyMemory(other.address, address, other.size);
+        size = other.size;
+    }
+
+    boolean fits(long lo, long hi) {
+        return hi - lo <= capacity - size;
+    }
+
+    long getAddress() {
+        return address;
+    }
+
+    int getSize() {
+        return size;
+    }
+}
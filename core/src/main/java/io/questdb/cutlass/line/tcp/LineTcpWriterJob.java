@@ -0,0 +1,104 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CairoSecurityContext;
+import io.questdb.mp.Job;
+import io.questdb.mp.MPSequence;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.Misc;
+
+import java.io.Closeable;
+
+/**
+ * Consumes blocks of lines published by IO workers and writes them to the tables
+ * this job owns. Tables are assigned to writer jobs by hash of table name, so that
+ * each job has its own disjoint set of table writers. Job must always run on the same worker.
+ */
+class LineTcpWriterJob implements Job, Closeable {
+    private final RingQueue<LineTcpWriterEntry> queue;
+    private final MPSequence pubSeq;
+    private final SCSequence subSeq;
+    private final LineTcpWriter writer;
+
+    LineTcpWriterJob(LineTcpReceiverConfiguration configuration, CairoEngine engine, CairoSecurityContext cairoSecurityContext) {
+        final int queueCapacity = configuration.getWriterQueueCapacity();
+        final int entryCapacity = configuration.getRecvBufferSize();
+        this.queue = new RingQueue<>(() -> new LineTcpWriterEntry(entryCapacity), queueCapacity);
+        this.pubSeq = new MPSequence(queueCapacity);
+        this.subSeq = new SCSequence();
+        this.pubSeq.then(subSeq).then(pubSeq);
+        this.writer = new LineTcpWriter(configuration, engine, cairoSecurityContext);
+    }
+
+    @Override
+    public void close() {
+        // write out whatever was published before workers stopped
+        run();
+        Misc.free(writer);
+        for (int i = 0, n = queue.getCapacity(); i < n; i++) {
+            Misc.free(queue.get(i));
+        }
+    }
+
+    @Override
+    public boolean run() {
+        boolean useful = false;
+        long cursor;
+        while ((cursor = subSeq.next()) > -1) {
+            final LineTcpWriterEntry entry = queue.get(cursor);
+            try {
+                writer.parseLines(entry.getAddress(), entry.getAddress() + entry.getSize());
+            } finally {
+                subSeq.done(cursor);
+            }
+            useful = true;
+        }
+        return writer.commitIfDue() || useful;
+    }
+
+    /**
+     * Copies block of lines to the queue.
+     *
+     * @param entry lines to publish
+     * @return false when queue is full
+     */
+    boolean tryPublish(LineTcpWriterEntry entry) {
+        while (true) {
+            long cursor = pubSeq.next();
+            if (cursor > -1) {
+                queue.get(cursor).copyOf(entry);
+                pubSeq.done(cursor);
+                return true;
+            }
+
+            if (cursor == -1) {
+                return false;
+            }
+        }
+    }
+}
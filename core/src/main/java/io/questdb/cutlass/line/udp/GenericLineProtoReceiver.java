@@ -48,8 +48,6 @@ public class GenericLineProtoReceiver implements Closeable, Job {
     private final NetworkFacade nf;
     private final int bufLen;
     private long fd;
-    private int commitRate;
-    private long totalCount = 0;
     private long buf;
 
     public GenericLineProtoReceiver(
@@ -68,8 +66,6 @@ public class GenericLineProtoReceiver implements Closeable, Job {
         try {
             if (nf.bindUdp(fd, 0, receiverCfg.getPort())) {
                 if (nf.join(fd, receiverCfg.getBindIPv4Address(), receiverCfg.getGroupIPv4Address())) {
-                    this.commitRate = receiverCfg.getCommitRate();
-
                     if (receiverCfg.getReceiveBufferSize() != -1 && nf.setRcvBuf(fd, receiverCfg.getReceiveBufferSize()) != 0) {
                         LOG.error().$("cannot set receive buffer size [fd=").$(fd).$(", size=").$(receiverCfg.getReceiveBufferSize()).$(']').$();
                     }
@@ -77,7 +73,7 @@ public class GenericLineProtoReceiver implements Closeable, Job {
                     this.buf = Unsafe.malloc(this.bufLen = receiverCfg.getMsgBufferSize());
 
                     lexer = new LineProtoLexer(receiverCfg.getMsgBufferSize());
-                    parser = new CairoLineProtoParser(engine, cairoSecurityContext);
+                    parser = new CairoLineProtoParser(engine, cairoSecurityContext, receiverCfg);
                     lexer.withParser(parser);
 
                     LOG.info()
@@ -85,7 +81,8 @@ public class GenericLineProtoReceiver implements Closeable, Job {
                             .$(", bind=").$(receiverCfg.getBindIPv4Address())
                             .$(", group=").$(receiverCfg.getGroupIPv4Address())
                             .$(", port=").$(receiverCfg.getPort())
-                            .$(", commitRate=").$(commitRate)
+                            .$(", maxUncommittedRows=").$(receiverCfg.getMaxUncommittedRows())
+                            .$(", maxUncommittedLatency=").$(receiverCfg.getMaxUncommittedLatency())
                             .$(']').$();
 
                     return;
@@ -134,20 +131,12 @@ public class GenericLineProtoReceiver implements Closeable, Job {
             lexer.parse(buf, buf + count);
             lexer.parseLast();
 
-            totalCount++;
-
-            if (totalCount > commitRate) {
-                totalCount = 0;
-                parser.commitAll();
-            }
-
             if (ran) {
                 continue;
             }
 
             ran = true;
         }
-        parser.commitAll();
-        return ran;
+        return parser.commitIfDue() || ran;
     }
 }
@@ -24,14 +24,13 @@
 
 package io.questdb.cutlass.line.udp;
 
+import io.questdb.cutlass.line.LineProtoCommitConfiguration;
 import io.questdb.network.NetworkFacade;
 
-public interface LineUdpReceiverConfiguration {
+public interface LineUdpReceiverConfiguration extends LineProtoCommitConfiguration {
 
     int getBindIPv4Address();
 
-    int getCommitRate();
-
     int getGroupIPv4Address();
 
     int getMsgBufferSize();
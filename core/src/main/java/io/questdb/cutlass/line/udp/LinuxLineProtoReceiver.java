@@ -47,8 +47,6 @@ public class LinuxLineProtoReceiver implements Closeable, Job {
     private final NetworkFacade nf;
     private long fd;
     private long msgVec;
-    private int commitRate;
-    private long totalCount = 0;
 
     public LinuxLineProtoReceiver(
             LineUdpReceiverConfiguration receiverCfg,
@@ -69,7 +67,6 @@ public class LinuxLineProtoReceiver implements Closeable, Job {
             // when listening for multicast packets bind address must be 0
             if (nf.bindUdp(fd, 0, receiverCfg.getPort())) {
                 if (nf.join(fd, receiverCfg.getBindIPv4Address(), receiverCfg.getGroupIPv4Address())) {
-                    this.commitRate = receiverCfg.getCommitRate();
                     this.msgCount = receiverCfg.getMsgCount();
 
                     if (receiverCfg.getReceiveBufferSize() != -1 && nf.setRcvBuf(fd, receiverCfg.getReceiveBufferSize()) != 0) {
@@ -78,10 +75,10 @@ public class LinuxLineProtoReceiver implements Closeable, Job {
 
                     msgVec = nf.msgHeaders(receiverCfg.getMsgBufferSize(), msgCount);
                     lexer = new LineProtoLexer(receiverCfg.getMsgBufferSize());
-                    parser = new CairoLineProtoParser(engine, cairoSecurityContext);
+                    parser = new CairoLineProtoParser(engine, cairoSecurityContext, receiverCfg);
                     lexer.withParser(parser);
 
-                    LOG.info().$("started [fd=").$(fd).$(", bind=").$(receiverCfg.getBindIPv4Address()).$(", group=").$(receiverCfg.getGroupIPv4Address()).$(", port=").$(receiverCfg.getPort()).$(", batch=").$(msgCount).$(", commitRate=").$(commitRate).$(']').$();
+                    LOG.info().$("started [fd=").$(fd).$(", bind=").$(receiverCfg.getBindIPv4Address()).$(", group=").$(receiverCfg.getGroupIPv4Address()).$(", port=").$(receiverCfg.getPort()).$(", batch=").$(msgCount).$(", maxUncommittedRows=").$(receiverCfg.getMaxUncommittedRows()).$(", maxUncommittedLatency=").$(receiverCfg.getMaxUncommittedLatency()).$(']').$();
 
                     return;
                 }
@@ -133,20 +130,12 @@ public class LinuxLineProtoReceiver implements Closeable, Job {
                 p += Net.MMSGHDR_SIZE;
             }
 
-            totalCount += count;
-
-            if (totalCount > commitRate) {
-                totalCount = 0;
-                parser.commitAll();
-            }
-
             if (ran) {
                 continue;
             }
 
             ran = true;
         }
-        parser.commitAll();
-        return ran;
+        return parser.commitIfDue() || ran;
     }
 }
@@ -80,6 +80,11 @@ public class DefaultPGWireConfiguration implements PGWireConfiguration {
         return 16;
     }
 
+    @Override
+    public int getNamedStatementCacheCapacity() {
+        return 32;
+    }
+
     @Override
     public int getIdleRecvCountBeforeGivingUp() {
         return 10_000;
@@ -105,12 +110,27 @@ public class DefaultPGWireConfiguration implements PGWireConfiguration {
         return 10_000;
     }
 
+    @Override
+    public int getInsertCacheBlockCount() {
+        return 8;
+    }
+
+    @Override
+    public int getInsertCacheRowCount() {
+        return 8;
+    }
+
     @Override
     public int getMaxBlobSizeOnQuery() {
         // BLOBs must fit inside send buffer together with other column values
         return 512 * 1024;
     }
 
+    @Override
+    public int getMaxUncommittedRows() {
+        return 10_000;
+    }
+
     @Override
     public int[] getWorkerAffinity() {
         return workerAffinity;
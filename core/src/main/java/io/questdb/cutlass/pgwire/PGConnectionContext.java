@@ -25,10 +25,14 @@
 package io.questdb.cutlass.pgwire;
 
 import io.questdb.cairo.*;
+import io.questdb.cairo.sql.InsertMethod;
+import io.questdb.cairo.sql.InsertStatement;
+import io.questdb.cairo.sql.ReaderOutOfDateException;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.WriterOutOfDateException;
 import io.questdb.cutlass.text.TextLoader;
 import io.questdb.griffin.*;
 import io.questdb.griffin.engine.functions.bind.BindVariableService;
@@ -40,6 +44,7 @@ import io.questdb.std.*;
 import io.questdb.std.microtime.DateFormatUtils;
 import io.questdb.std.str.*;
 import io.questdb.std.time.DateLocaleFactory;
+import org.jetbrains.annotations.Nullable;
 
 import static io.questdb.cutlass.pgwire.PGJobContext.*;
 import static io.questdb.std.time.DateFormatUtils.*;
@@ -52,6 +57,7 @@ public class PGConnectionContext implements IOContext, Mutable {
     private static final int TAIL_NONE = 0;
     private static final int TAIL_SUCCESS = 1;
     private static final int TAIL_ERROR = 2;
+    private static final int TAIL_SUSPENDED = 3;
     private static final byte MESSAGE_TYPE_COMMAND_COMPLETE = 'C';
     private static final byte MESSAGE_TYPE_DATA_ROW = 'D';
     private static final byte MESSAGE_TYPE_READY_FOR_QUERY = 'Z';
@@ -62,7 +68,13 @@ public class PGConnectionContext implements IOContext, Mutable {
     private static final byte MESSAGE_TYPE_PARAMETER_STATUS = 'S';
     private static final byte MESSAGE_TYPE_ROW_DESCRIPTION = 'T';
     private static final byte MESSAGE_TYPE_PARSE_COMPLETE = '1';
+    private static final byte MESSAGE_TYPE_BIND_COMPLETE = '2';
+    private static final byte MESSAGE_TYPE_PARAMETER_DESCRIPTION = 't';
+    private static final byte MESSAGE_TYPE_NO_DATA = 'n';
+    private static final byte MESSAGE_TYPE_PORTAL_SUSPENDED = 's';
     private static final byte MESSAGE_TYPE_COPY_IN_RESPONSE = 'G';
+    // difference between PostgreSQL epoch (2000-01-01) and Unix epoch in microseconds
+    private static final long PG_EPOCH_OFFSET_MICROS = 946_684_800_000_000L;
 
     static {
         // todo: this should be sparse array
@@ -101,6 +113,18 @@ public class PGConnectionContext implements IOContext, Mutable {
     private final PGAuthenticator authenticator;
     private final SqlExecutionContextImpl sqlExecutionContext = new SqlExecutionContextImpl();
     private final Path path = new Path();
+    private final DirectByteCharSequence portalName = new DirectByteCharSequence();
+    private final DirectByteCharSequence statementName = new DirectByteCharSequence();
+    private final CharSequenceObjHashMap<NamedStatementWrapper> namedStatementMap = new CharSequenceObjHashMap<>();
+    private final CharSequenceObjHashMap<Portal> namedPortalMap = new CharSequenceObjHashMap<>();
+    private final WeakObjectPool<NamedStatementWrapper> namedStatementWrapperPool;
+    private final WeakObjectPool<Portal> namedPortalPool;
+    // PostgreSQL type OIDs of bind variables of the last parsed statement
+    private final IntList parameterTypes = new IntList();
+    // result format codes as sent by client in Bind message, empty list means text for all columns
+    private final IntList resultFormatCodes = new IntList();
+    // format code (0 - text, 1 - binary) of each column of current result set
+    private final IntList columnFormats = new IntList();
     private int sendCurrentCursorTail = TAIL_NONE;
     private long sendBufferPtr;
     private boolean requireInitalMessage = false;
@@ -110,13 +134,51 @@ public class PGConnectionContext implements IOContext, Mutable {
     private int bufferRemainingSize = 0;
     private RecordCursor currentCursor = null;
     private RecordCursorFactory currentFactory = null;
+    // named statement current factory belongs to, null when current factory belongs to unnamed statement or portal
+    private NamedStatementWrapper currentStatement = null;
+    // compiled queries are shared by all connections, factory is taken out of the cache
+    // by the statement that uses it and returned when statement is closed or replaced
+    private final ConcurrentAssociativeCache<RecordCursorFactory> factoryCache;
+    private final StringSink factoryCacheKey = new StringSink();
+    // factory of unnamed statement and the key it is cached under
+    private RecordCursorFactory unnamedFactory = null;
+    private final StringSink unnamedFactoryKey = new StringSink();
+    private long unnamedFactoryVersion;
     private long fd;
     private CharSequence queryText;
     private CharSequence username;
     private boolean authenticationRequired = true;
     private long transientCopyBuffer = 0;
-
-    public PGConnectionContext(PGWireConfiguration configuration) {
+    // responses are accumulated in send buffer until Sync, buffer is flushed early when it fills beyond this threshold
+    private final int sendBufferFlushThreshold;
+    // true while processing simple query, which responds with ReadyForQuery without waiting for Sync
+    private boolean simpleQuery = false;
+    // after error in extended query protocol messages are discarded until Sync
+    private boolean skipUntilSync = false;
+    // cursor is being sent and has to be resumed after peer catches up with reading
+    private boolean sendingCursor = false;
+    // cursor is positioned on record, which has not been sent yet
+    private boolean recordPending = false;
+    // maximum number of rows Execute message allows to send, 0 for no limit
+    private int executeRowLimit = 0;
+    private int executeRowCount = 0;
+    // named portal, which cursor is being executed; null for unnamed portal
+    private Portal executingPortal = null;
+    // insert statements compiled for unnamed statements, keyed by query text
+    private final AssociativeCache<InsertStatement> insertStatementCache;
+    private final int maxUncommittedRows;
+    private InsertStatement currentInsertStatement = null;
+    // rows inserted by Execute messages are committed at Sync or when there are too many of them,
+    // batch holds on to table writer until then
+    private InsertStatement batchInsertStatement = null;
+    private InsertMethod batchInsertMethod = null;
+    private int batchInsertRowCount = 0;
+
+    public PGConnectionContext(
+            PGWireConfiguration configuration,
+            ConcurrentAssociativeCache<RecordCursorFactory> factoryCache
+    ) {
+        this.factoryCache = factoryCache;
         this.nf = configuration.getNetworkFacade();
         this.recvBufferSize = Numbers.ceilPow2(configuration.getRecvBufferSize());
         this.recvBuffer = Unsafe.malloc(this.recvBufferSize);
@@ -135,6 +197,14 @@ public class PGConnectionContext implements IOContext, Mutable {
         this.idleRecvCountBeforeGivingUp = configuration.getIdleRecvCountBeforeGivingUp();
         this.serverVersion = configuration.getServerVersion();
         this.authenticator = new PGBasicAuthenticator(configuration.getDefaultUsername(), configuration.getDefaultPassword());
+        this.namedStatementWrapperPool = new WeakObjectPool<>(NamedStatementWrapper::new, configuration.getNamedStatementCacheCapacity());
+        this.namedPortalPool = new WeakObjectPool<>(Portal::new, configuration.getNamedStatementCacheCapacity());
+        this.sendBufferFlushThreshold = sendBufferSize / 2;
+        this.insertStatementCache = new AssociativeCache<>(
+                configuration.getInsertCacheBlockCount(),
+                configuration.getInsertCacheRowCount()
+        );
+        this.maxUncommittedRows = configuration.getMaxUncommittedRows();
     }
 
     public static int getInt(long address) {
@@ -223,9 +293,8 @@ public class PGConnectionContext implements IOContext, Mutable {
             long address,
             int len,
             @Transient SqlCompiler compiler,
-            @Transient AssociativeCache<RecordCursorFactory> factoryCache,
             @Transient ObjList<BindVariableSetter> bindVariableSetters
-    ) throws PeerDisconnectedException, PeerIsSlowToReadException, BadProtocolException, SqlException {
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException, BadProtocolException {
         long limit = address + len;
         final int remaining = (int) (limit - address);
 
@@ -257,6 +326,12 @@ public class PGConnectionContext implements IOContext, Mutable {
             // just exit.
             return;
         }
+        // responses are accumulated until Sync, make room for responses to this message
+        // before we consume it. Should peer be slow to read, message will be parsed again later.
+        if (sendBufferPtr - sendBuffer > sendBufferFlushThreshold) {
+            send();
+        }
+
         // we have enough to read entire message
         recvBufferReadOffset += msgLen + 1;
         final long msgLimit = address + msgLen + 1;
@@ -281,6 +356,36 @@ public class PGConnectionContext implements IOContext, Mutable {
             return;
         }
 
+        if (skipUntilSync && type != 'S') {
+            LOG.debug().$("skipping message after error [type=").$((char) type).$(']').$();
+            return;
+        }
+
+        simpleQuery = type == 'Q';
+        try {
+            processMessage(type, address, lo, msgLimit, msgLen, compiler, bindVariableSetters);
+        } catch (SqlException e) {
+            // error aborts implicit transaction
+            rollbackInsertBatch();
+            prepareError(e);
+            if (simpleQuery) {
+                prepareReadyForQuery(responseAsciiSink);
+                send();
+            } else {
+                skipUntilSync = true;
+            }
+        }
+    }
+
+    private void processMessage(
+            byte type,
+            long address,
+            long lo,
+            long msgLimit,
+            int msgLen,
+            @Transient SqlCompiler compiler,
+            @Transient ObjList<BindVariableSetter> bindVariableSetters
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException, BadProtocolException, SqlException {
         switch (type) {
             case 'P':
 
@@ -295,6 +400,8 @@ public class PGConnectionContext implements IOContext, Mutable {
                     throw BadProtocolException.INSTANCE;
                 }
 
+                statementName.of(lo, hi);
+
                 lo = hi + 1;
                 hi = getStringLength(lo, msgLimit);
                 if (hi == -1) {
@@ -314,6 +421,7 @@ public class PGConnectionContext implements IOContext, Mutable {
 
                 short parameterCount = getShort(lo);
 
+                parameterTypes.clear();
                 if (parameterCount > 0) {
                     if (lo + Short.BYTES + parameterCount * Integer.BYTES > msgLimit) {
                         LOG.error()
@@ -327,8 +435,11 @@ public class PGConnectionContext implements IOContext, Mutable {
                     LOG.debug().$("params [count=").$(parameterCount).$(']').$();
                     lo += Short.BYTES;
 
+                    for (int j = 0; j < parameterCount; j++) {
+                        parameterTypes.add(getInt(lo + j * Integer.BYTES));
+                    }
                     bindVariableService.clear();
-                    setupBindVariables(lo, parameterCount, bindVariableSetters);
+                    setupBindVariables(parameterTypes, bindVariableSetters);
                 } else if (parameterCount < 0) {
                     LOG.error()
                             .$("invalid parameter count [parameterCount=").$(parameterCount)
@@ -337,11 +448,18 @@ public class PGConnectionContext implements IOContext, Mutable {
                     throw BadProtocolException.INSTANCE;
                 }
 
-                parseQuery(queryText, compiler, factoryCache);
+                closeCurrentCursor();
+                if (statementName.length() > 0) {
+                    parseNamedStatement(compiler);
+                } else {
+                    currentStatement = null;
+                    parseQuery(queryText, compiler);
+                }
+                // client keeps statement prepared only after it receives ParseComplete, otherwise
+                // it discards statement description at Sync and cannot fetch from the portal later
+                prepareParseComplete();
                 if (currentFactory == null) {
-                    prepareReadyForQuery(responseAsciiSink);
                     LOG.info().$("executed DDL").$();
-                    send();
                 }
                 break;
             case 'X':
@@ -349,11 +467,25 @@ public class PGConnectionContext implements IOContext, Mutable {
                 throw PeerDisconnectedException.INSTANCE;
             case 'C':
                 // close
-                // todo: read what we are closing
+                if (lo + Byte.BYTES > msgLimit) {
+                    LOG.error().$("could not read close target [msgType='C']").$();
+                    throw BadProtocolException.INSTANCE;
+                }
+                final byte closeTarget = Unsafe.getUnsafe().getByte(lo);
+                hi = getStringLength(lo + 1, msgLimit);
+                if (hi == -1) {
+                    LOG.error().$("bad close target name length [msgType='C']").$();
+                    throw BadProtocolException.INSTANCE;
+                }
+                if (closeTarget == 'S') {
+                    closeNamedStatement(statementName.of(lo + 1, hi));
+                } else if (closeTarget == 'P') {
+                    closeNamedPortal(portalName.of(lo + 1, hi));
+                }
                 currentFactory = null;
+                currentStatement = null;
                 sink().put('3'); // close complete
                 sink().putNetworkInt(Integer.BYTES);
-                send();
                 break;
             case 'B': // bind
                 hi = getStringLength(lo, msgLimit);
@@ -363,6 +495,10 @@ public class PGConnectionContext implements IOContext, Mutable {
                     throw BadProtocolException.INSTANCE;
                 }
 
+                portalName.of(lo, hi);
+                // binding unnamed portal destroys previous one
+                closeCurrentCursor();
+
                 lo = hi + 1;
                 hi = getStringLength(lo, msgLimit);
                 if (hi == -1) {
@@ -371,6 +507,10 @@ public class PGConnectionContext implements IOContext, Mutable {
                     throw BadProtocolException.INSTANCE;
                 }
 
+                if (hi > lo) {
+                    bindNamedStatement(statementName.of(lo, hi), bindVariableSetters);
+                }
+
                 lo = hi + 1;
                 if (lo + Short.BYTES > msgLimit) {
                     LOG.error().$("could not read parameter format code count").$();
@@ -385,40 +525,111 @@ public class PGConnectionContext implements IOContext, Mutable {
                             .$(']').$();
                     throw BadProtocolException.INSTANCE;
                 }
+                lo += Short.BYTES;
                 if (parameterCount > 0) {
+                    lo = bindVariables(lo, msgLimit, parameterCount, bindVariableSetters);
+                } else {
+                    // skip parameter value count, which has to be 0 too
                     lo += Short.BYTES;
-                    bindVariables(lo, msgLimit, parameterCount, bindVariableSetters);
                 }
+                bindResultFormatCodes(lo, msgLimit);
+                if (portalName.length() > 0) {
+                    bindNamedPortal();
+                }
+                prepareBindComplete();
                 break;
             case 'E': // execute
+                hi = getStringLength(lo, msgLimit);
+                if (hi == -1 || hi + 1 + Integer.BYTES > msgLimit) {
+                    LOG.error().$("bad portal name length [msgType='E']").$();
+                    throw BadProtocolException.INSTANCE;
+                }
+                executeRowLimit = getInt(hi + 1);
+                executeRowCount = 0;
+                executingPortal = null;
+                if (hi > lo) {
+                    executeNamedPortal(portalName.of(lo, hi));
+                }
                 if (currentFactory != null) {
-                    LOG.info().$("executing query").$();
-                    currentCursor = currentFactory.getCursor(sqlExecutionContext);
+                    if (currentCursor == null) {
+                        LOG.info().$("executing query").$();
+                        // query has to see rows inserted earlier in the same batch
+                        commitInsertBatch();
+                        currentCursor = getCursor(compiler);
+                    } else {
+                        LOG.info().$("resuming portal").$();
+                    }
+                    setupColumnFormats(currentFactory.getMetadata(), resultFormatCodes);
                     sendCursor();
                     sendExecuteTail();
+                } else if (currentInsertStatement != null) {
+                    executeInsert(compiler);
+                } else {
+                    // statement was executed when it was parsed
+                    prepareCommandComplete();
                 }
                 break;
-            case 'S': // sync?
+            case 'S': // sync
+                skipUntilSync = false;
+                commitInsertBatch();
+                // unnamed portal does not outlive implicit transaction
+                closeCurrentCursor();
+                prepareReadyForQuery(responseAsciiSink);
+                send();
+                break;
+            case 'H': // flush
+                send();
                 break;
             case 'D': // describe?
-                if (currentFactory != null) {
-                    prepareRowDescription(currentFactory.getMetadata());
-                    send();
-                    LOG.info().$("described").$();
+                if (lo + Byte.BYTES > msgLimit) {
+                    LOG.error().$("could not read describe target [msgType='D']").$();
+                    throw BadProtocolException.INSTANCE;
+                }
+                hi = getStringLength(lo + 1, msgLimit);
+                if (hi == -1) {
+                    LOG.error().$("bad describe target name length [msgType='D']").$();
+                    throw BadProtocolException.INSTANCE;
                 }
+                describe(Unsafe.getUnsafe().getByte(lo), lo + 1, hi);
                 break;
             case 'Q':
                 // vanilla query
                 prepareForNewQuery();
-                parseQueryText(lo, limit - 1);
-
-                currentFactory = factoryCache.peek(queryText);
-                if (currentFactory == null) {
+                parseQueryText(lo, msgLimit - 1);
+
+                executeRowLimit = 0;
+                executeRowCount = 0;
+                executingPortal = null;
+                closeCurrentCursor();
+                currentStatement = null;
+                resultFormatCodes.clear();
+                commitInsertBatch();
+                releaseUnnamedFactory();
+                unnamedFactoryKey.clear();
+                SqlUtil.putQueryCacheKey(unnamedFactoryKey, queryText, null);
+                unnamedFactoryVersion = compiler.getEngine().getStructureVersion();
+                currentFactory = unnamedFactory = factoryCache.poll(unnamedFactoryKey, unnamedFactoryVersion);
+                currentInsertStatement = currentFactory == null ? insertStatementCache.peek(queryText) : null;
+                if (currentInsertStatement != null) {
+                    executeInsert(compiler);
+                    commitInsertBatch();
+                    prepareReadyForQuery(responseAsciiSink);
+                    send();
+                } else if (currentFactory == null && isTransactionControl(queryText)) {
+                    sendCurrentCursorTail = TAIL_SUCCESS;
+                    sendExecuteTail();
+                } else if (currentFactory == null) {
                     CompiledQuery cc = compiler.compile(queryText, sqlExecutionContext);
 
                     if (cc.getType() == CompiledQuery.SELECT) {
-                        currentFactory = cc.getRecordCursorFactory();
-                        factoryCache.put(queryText, currentFactory);
+                        currentFactory = unnamedFactory = cc.getRecordCursorFactory();
+                    } else if (cc.getType() == CompiledQuery.INSERT) {
+                        currentInsertStatement = cc.getInsertStatement();
+                        insertStatementCache.put(queryText, currentInsertStatement);
+                        executeInsert(compiler);
+                        commitInsertBatch();
+                        prepareReadyForQuery(responseAsciiSink);
+                        send();
                     } else if (cc.getType() == CompiledQuery.COPY_REMOTE) {
                         sendCopyInResponse(compiler.getEngine(), cc.getTextLoader());
                     } else {
@@ -429,12 +640,8 @@ public class PGConnectionContext implements IOContext, Mutable {
                 }
 
                 if (currentFactory != null) {
-                    if (currentCursor != null) {
-                        currentCursor.close();
-                    }
-
-                    currentCursor = currentFactory.getCursor(sqlExecutionContext);
-                    prepareRowDescription(currentFactory.getMetadata());
+                    currentCursor = getCursor(compiler);
+                    prepareRowDescription(currentFactory.getMetadata(), resultFormatCodes);
                     sendCursor();
                     sendExecuteTail();
                 }
@@ -456,12 +663,25 @@ public class PGConnectionContext implements IOContext, Mutable {
         sendCurrentCursorTail = TAIL_NONE;
         sendBufferPtr = sendBuffer;
         requireInitalMessage = true;
+        simpleQuery = false;
+        skipUntilSync = false;
+        sendingCursor = false;
+        recordPending = false;
+        executingPortal = null;
         recvBufferWriteOffset = 0;
         recvBufferReadOffset = 0;
         bufferRemainingOffset = 0;
         bufferRemainingSize = 0;
         currentCursor = Misc.free(currentCursor);
-        currentFactory = Misc.free(currentFactory);
+        // factory is owned by statement or portal, which are released below
+        currentFactory = null;
+        currentStatement = null;
+        // client went away without Sync
+        rollbackInsertBatch();
+        currentInsertStatement = null;
+        clearNamedStatements();
+        releaseUnnamedFactory();
+        resultFormatCodes.clear();
         responseAsciiSink.reset();
         prepareForNewQuery();
         // todo: test that both of these are cleared (unit test)
@@ -472,6 +692,12 @@ public class PGConnectionContext implements IOContext, Mutable {
     @Override
     public void close() {
         this.fd = -1;
+        rollbackInsertBatch();
+        clearNamedStatements();
+        releaseUnnamedFactory();
+        Misc.free(insertStatementCache);
+        Misc.free(namedStatementWrapperPool);
+        Misc.free(namedPortalPool);
         Unsafe.free(sendBuffer, sendBufferSize);
         Unsafe.free(recvBuffer, recvBufferSize);
         Misc.free(path);
@@ -489,7 +715,6 @@ public class PGConnectionContext implements IOContext, Mutable {
 
     public void handleClientOperation(
             @Transient SqlCompiler compiler,
-            @Transient AssociativeCache<RecordCursorFactory> factoryCache,
             @Transient ObjList<BindVariableSetter> binsVariableSetters
     ) throws PeerDisconnectedException,
             PeerIsSlowToReadException,
@@ -503,6 +728,10 @@ public class PGConnectionContext implements IOContext, Mutable {
             );
         }
 
+        // finish Execute, which was interrupted by slow peer, before we move on to the next message
+        if (sendingCursor) {
+            sendCursor();
+        }
         sendExecuteTail();
 
         // If we have empty buffer we need to try to read something from socket
@@ -513,69 +742,61 @@ public class PGConnectionContext implements IOContext, Mutable {
             recv();
         }
 
-        try {
-            long readOffsetBeforeParse = recvBufferReadOffset;
-
-            // Parse will update the value of recvBufferOffset upon completion of
-            // logical block. We cannot count on return value because 'parse' may try to
-            // respond to client and fail with exception. When it does fail we would have
-            // to retry 'send' but not parse the same input again
-            parse(
-                    recvBuffer + recvBufferReadOffset,
-                    (int) (recvBufferWriteOffset - recvBufferReadOffset),
-                    compiler,
-                    factoryCache,
-                    binsVariableSetters
-            );
+        long readOffsetBeforeParse = recvBufferReadOffset;
+
+        // Parse will update the value of recvBufferOffset upon completion of
+        // logical block. We cannot count on return value because 'parse' may try to
+        // respond to client and fail with exception. When it does fail we would have
+        // to retry 'send' but not parse the same input again
+        parse(
+                recvBuffer + recvBufferReadOffset,
+                (int) (recvBufferWriteOffset - recvBufferReadOffset),
+                compiler,
+                binsVariableSetters
+        );
 
-            // nothing changed?
-            if (readOffsetBeforeParse == recvBufferReadOffset) {
-                // how come we have something in buffer and parse didn't do anything?
-                if (readOffsetBeforeParse < recvBufferWriteOffset) {
-                    // may be content was incomplete?
-                    recv();
-                    // still nothing? oh well
-                    if (readOffsetBeforeParse == recvBufferReadOffset) {
-                        return;
-                    }
-                    // at this point we have some contact and parse did do something
-                } else {
+        // nothing changed?
+        if (readOffsetBeforeParse == recvBufferReadOffset) {
+            // how come we have something in buffer and parse didn't do anything?
+            if (readOffsetBeforeParse < recvBufferWriteOffset) {
+                // may be content was incomplete?
+                recv();
+                // still nothing? oh well
+                if (readOffsetBeforeParse == recvBufferReadOffset) {
                     return;
                 }
+                // at this point we have some contact and parse did do something
+            } else {
+                return;
             }
+        }
 
-            // we do not pre-compute length because 'parse' will mutate 'recvBufferReadOffset'
-            if (recvBufferWriteOffset - recvBufferReadOffset > 0) {
-                // did we not parse input fully?
-                do {
-                    readOffsetBeforeParse = recvBufferReadOffset;
-                    parse(
-                            recvBuffer + recvBufferReadOffset,
-                            (int) (recvBufferWriteOffset - recvBufferReadOffset),
-                            compiler,
-                            factoryCache,
-                            binsVariableSetters
-                    );
-                    // nothing changed?
-                    if (readOffsetBeforeParse == recvBufferReadOffset) {
-                        // shift to start
-                        Unsafe.getUnsafe().copyMemory(
-                                recvBuffer + readOffsetBeforeParse,
-                                recvBuffer,
-                                recvBufferWriteOffset - readOffsetBeforeParse);
-                        recvBufferWriteOffset = recvBufferWriteOffset - readOffsetBeforeParse;
-                        recvBufferReadOffset = 0;
-                        // read more
-                        return;
-                    }
-                } while (recvBufferReadOffset < recvBufferWriteOffset);
-            }
-            clearRecvBuffer();
-        } catch (SqlException e) {
-            sendCurrentCursorTail = TAIL_ERROR;
-            sendExecuteTail();
-            clearRecvBuffer();
+        // we do not pre-compute length because 'parse' will mutate 'recvBufferReadOffset'
+        if (recvBufferWriteOffset - recvBufferReadOffset > 0) {
+            // did we not parse input fully?
+            do {
+                readOffsetBeforeParse = recvBufferReadOffset;
+                parse(
+                        recvBuffer + recvBufferReadOffset,
+                        (int) (recvBufferWriteOffset - recvBufferReadOffset),
+                        compiler,
+                                binsVariableSetters
+                );
+                // nothing changed?
+                if (readOffsetBeforeParse == recvBufferReadOffset) {
+                    // shift to start
+                    Unsafe.getUnsafe().copyMemory(
+                            recvBuffer + readOffsetBeforeParse,
+                            recvBuffer,
+                            recvBufferWriteOffset - readOffsetBeforeParse);
+                    recvBufferWriteOffset = recvBufferWriteOffset - readOffsetBeforeParse;
+                    recvBufferReadOffset = 0;
+                    // read more
+                    return;
+                }
+            } while (recvBufferReadOffset < recvBufferWriteOffset);
         }
+        clearRecvBuffer();
     }
 
     public PGConnectionContext of(long clientFd) {
@@ -698,11 +919,15 @@ public class PGConnectionContext implements IOContext, Mutable {
         long a;
         responseAsciiSink.putNetworkShort((short) columnCount);
         for (int i = 0; i < columnCount; i++) {
+            final boolean binary = columnFormats.getQuick(i) == 1;
             switch (metadata.getColumnType(i)) {
                 case ColumnType.INT:
                     final int intValue = record.getInt(i);
                     if (intValue == Numbers.INT_NaN) {
                         responseAsciiSink.setNullValue();
+                    } else if (binary) {
+                        responseAsciiSink.putNetworkInt(Integer.BYTES);
+                        responseAsciiSink.putNetworkInt(intValue);
                     } else {
                         a = responseAsciiSink.skip();
                         responseAsciiSink.put(intValue);
@@ -733,6 +958,9 @@ public class PGConnectionContext implements IOContext, Mutable {
                     long longValue = record.getTimestamp(i);
                     if (longValue == Numbers.LONG_NaN) {
                         responseAsciiSink.setNullValue();
+                    } else if (binary) {
+                        responseAsciiSink.putNetworkInt(Long.BYTES);
+                        responseAsciiSink.putNetworkLong(longValue - PG_EPOCH_OFFSET_MICROS);
                     } else {
                         a = responseAsciiSink.skip();
                         DateFormatUtils.PG_TIMESTAMP_FORMAT.format(longValue, DateFormatUtils.defaultLocale, "", responseAsciiSink);
@@ -743,6 +971,9 @@ public class PGConnectionContext implements IOContext, Mutable {
                     longValue = record.getDate(i);
                     if (longValue == Numbers.LONG_NaN) {
                         responseAsciiSink.setNullValue();
+                    } else if (binary) {
+                        responseAsciiSink.putNetworkInt(Long.BYTES);
+                        responseAsciiSink.putNetworkLong(longValue * 1000 - PG_EPOCH_OFFSET_MICROS);
                     } else {
                         a = responseAsciiSink.skip();
                         PG_DATE_TIME_Z_FORMAT.format(longValue, defaultLocale, "", responseAsciiSink);
@@ -753,6 +984,9 @@ public class PGConnectionContext implements IOContext, Mutable {
                     final double doubleValue = record.getDouble(i);
                     if (Double.isNaN(doubleValue)) {
                         responseAsciiSink.setNullValue();
+                    } else if (binary) {
+                        responseAsciiSink.putNetworkInt(Long.BYTES);
+                        responseAsciiSink.putNetworkLong(Double.doubleToRawLongBits(doubleValue));
                     } else {
                         a = responseAsciiSink.skip();
                         responseAsciiSink.put(doubleValue, 3);
@@ -763,6 +997,9 @@ public class PGConnectionContext implements IOContext, Mutable {
                     final float floatValue = record.getFloat(i);
                     if (Float.isNaN(floatValue)) {
                         responseAsciiSink.setNullValue();
+                    } else if (binary) {
+                        responseAsciiSink.putNetworkInt(Integer.BYTES);
+                        responseAsciiSink.putNetworkInt(Float.floatToRawIntBits(floatValue));
                     } else {
                         a = responseAsciiSink.skip();
                         responseAsciiSink.put(floatValue, 3);
@@ -770,14 +1007,22 @@ public class PGConnectionContext implements IOContext, Mutable {
                     }
                     break;
                 case ColumnType.SHORT:
-                    a = responseAsciiSink.skip();
-                    responseAsciiSink.put(record.getShort(i));
-                    responseAsciiSink.putLenEx(a);
+                    if (binary) {
+                        responseAsciiSink.putNetworkInt(Short.BYTES);
+                        responseAsciiSink.putNetworkShort(record.getShort(i));
+                    } else {
+                        a = responseAsciiSink.skip();
+                        responseAsciiSink.put(record.getShort(i));
+                        responseAsciiSink.putLenEx(a);
+                    }
                     break;
                 case ColumnType.LONG:
                     longValue = record.getLong(i);
                     if (longValue == Numbers.LONG_NaN) {
                         responseAsciiSink.setNullValue();
+                    } else if (binary) {
+                        responseAsciiSink.putNetworkInt(Long.BYTES);
+                        responseAsciiSink.putNetworkLong(longValue);
                     } else {
                         a = responseAsciiSink.skip();
                         responseAsciiSink.put(longValue);
@@ -785,13 +1030,23 @@ public class PGConnectionContext implements IOContext, Mutable {
                     }
                     break;
                 case ColumnType.BYTE:
-                    a = responseAsciiSink.skip();
-                    responseAsciiSink.put((int) record.getByte(i));
-                    responseAsciiSink.putLenEx(a);
+                    if (binary) {
+                        // byte is sent as INT2, there is no single byte integer type in PostgreSQL
+                        responseAsciiSink.putNetworkInt(Short.BYTES);
+                        responseAsciiSink.putNetworkShort(record.getByte(i));
+                    } else {
+                        a = responseAsciiSink.skip();
+                        responseAsciiSink.put((int) record.getByte(i));
+                        responseAsciiSink.putLenEx(a);
+                    }
                     break;
                 case ColumnType.BOOLEAN:
                     responseAsciiSink.putNetworkInt(Byte.BYTES);
-                    responseAsciiSink.put(record.getBool(i) ? 't' : 'f');
+                    if (binary) {
+                        responseAsciiSink.put((byte) (record.getBool(i) ? 1 : 0));
+                    } else {
+                        responseAsciiSink.put(record.getBool(i) ? 't' : 'f');
+                    }
                     break;
                 default:
                     BinarySequence sequence = record.getBin(i);
@@ -816,7 +1071,7 @@ public class PGConnectionContext implements IOContext, Mutable {
         responseAsciiSink.putLen(b);
     }
 
-    private void bindVariables(
+    private long bindVariables(
             long lo,
             long msgLimit,
             short parameterCount,
@@ -885,6 +1140,55 @@ public class PGConnectionContext implements IOContext, Mutable {
             bindVariableSetters.getQuick(j * 2).set(j, lo, valueLen);
             lo += valueLen;
         }
+        return lo;
+    }
+
+    private void bindNamedPortal() {
+        final int index = namedPortalMap.keyIndex(portalName);
+        final Portal portal;
+        if (index < 0) {
+            portal = namedPortalMap.valueAt(index);
+            releasePortalFactory(portal);
+        } else {
+            portal = namedPortalPool.pop();
+            namedPortalMap.putAt(index, Chars.toString(portalName), portal);
+        }
+        portal.of(currentStatement, currentFactory, currentInsertStatement, queryText, resultFormatCodes);
+    }
+
+    private void bindNamedStatement(
+            CharSequence name,
+            @Transient ObjList<BindVariableSetter> bindVariableSetters
+    ) throws SqlException {
+        final NamedStatementWrapper wrapper = namedStatementMap.get(name);
+        if (wrapper == null) {
+            throw SqlException.$(0, "prepared statement does not exist [name=").put(name).put(']');
+        }
+        currentStatement = wrapper;
+        currentFactory = wrapper.factory;
+        currentInsertStatement = wrapper.insertStatement;
+        queryText = wrapper.queryText;
+        // setters are shared by all connections of the worker, we cannot assume
+        // they are still set up for this statement
+        bindVariableService.clear();
+        setupBindVariables(wrapper.parameterTypes, bindVariableSetters);
+    }
+
+    private void bindResultFormatCodes(long lo, long msgLimit) throws BadProtocolException {
+        if (lo + Short.BYTES > msgLimit) {
+            LOG.error().$("could not read result format code count").$();
+            throw BadProtocolException.INSTANCE;
+        }
+        final short formatCodeCount = getShort(lo);
+        lo += Short.BYTES;
+        if (formatCodeCount < 0 || lo + formatCodeCount * Short.BYTES > msgLimit) {
+            LOG.error().$("invalid result format code count [value=").$(formatCodeCount).$(']').$();
+            throw BadProtocolException.INSTANCE;
+        }
+        resultFormatCodes.clear();
+        for (int j = 0; j < formatCodeCount; j++) {
+            resultFormatCodes.add(getShort(lo + j * Short.BYTES));
+        }
     }
 
     void clearRecvBuffer() {
@@ -899,6 +1203,83 @@ public class PGConnectionContext implements IOContext, Mutable {
         return n;
     }
 
+    private void clearNamedStatements() {
+        final ObjList<CharSequence> portalNames = namedPortalMap.keys();
+        for (int i = 0, n = portalNames.size(); i < n; i++) {
+            final Portal portal = namedPortalMap.get(portalNames.getQuick(i));
+            releasePortalFactory(portal);
+            namedPortalPool.push(portal);
+        }
+        namedPortalMap.clear();
+
+        final ObjList<CharSequence> statementNames = namedStatementMap.keys();
+        for (int i = 0, n = statementNames.size(); i < n; i++) {
+            final NamedStatementWrapper wrapper = namedStatementMap.get(statementNames.getQuick(i));
+            Misc.free(wrapper.factory);
+            Misc.free(wrapper.insertStatement);
+            namedStatementWrapperPool.push(wrapper);
+        }
+        namedStatementMap.clear();
+    }
+
+    private void closeCurrentCursor() {
+        currentCursor = Misc.free(currentCursor);
+        recordPending = false;
+    }
+
+    private void closeNamedPortal(CharSequence name) {
+        final int index = namedPortalMap.keyIndex(name);
+        if (index < 0) {
+            final Portal portal = namedPortalMap.valueAt(index);
+            namedPortalMap.removeAt(index);
+            releasePortalFactory(portal);
+            namedPortalPool.push(portal);
+        }
+    }
+
+    private void closeNamedStatement(CharSequence name) {
+        final int index = namedStatementMap.keyIndex(name);
+        if (index < 0) {
+            final NamedStatementWrapper wrapper = namedStatementMap.valueAt(index);
+            namedStatementMap.removeAt(index);
+            releaseNamedStatement(wrapper);
+        }
+    }
+
+    private void describe(byte target, long lo, long hi) throws PeerDisconnectedException, PeerIsSlowToReadException, SqlException {
+        RecordCursorFactory factory = currentFactory;
+        // statement description is sent before client binds result format codes
+        IntList formatCodes = target == 'S' ? null : resultFormatCodes;
+        if (hi > lo) {
+            if (target == 'S') {
+                final NamedStatementWrapper wrapper = namedStatementMap.get(statementName.of(lo, hi));
+                if (wrapper == null) {
+                    throw SqlException.$(0, "prepared statement does not exist [name=").put(statementName).put(']');
+                }
+                factory = wrapper.factory;
+                prepareParameterDescription(wrapper.parameterTypes);
+            } else {
+                final Portal portal = namedPortalMap.get(portalName.of(lo, hi));
+                if (portal == null) {
+                    throw SqlException.$(0, "portal does not exist [name=").put(portalName).put(']');
+                }
+                factory = portal.factory;
+                formatCodes = portal.resultFormatCodes;
+            }
+        }
+
+        if (factory != null) {
+            prepareRowDescription(factory.getMetadata(), formatCodes);
+            send();
+            LOG.info().$("described").$();
+        } else if (target == 'S' && hi > lo) {
+            // statement does not return rows
+            sink().put(MESSAGE_TYPE_NO_DATA);
+            sink().putNetworkInt(Integer.BYTES);
+            send();
+        }
+    }
+
     void doSend(int offset, int size) throws PeerDisconnectedException, PeerIsSlowToReadException {
         final int n = nf.send(getFd(), sendBuffer + offset, size);
         dumpBuffer('<', sendBuffer + offset, n);
@@ -946,6 +1327,16 @@ public class PGConnectionContext implements IOContext, Mutable {
         }
     }
 
+    private void commitInsertBatch() {
+        if (batchInsertMethod != null) {
+            batchInsertMethod.commit();
+            LOG.info().$("committed insert batch [table=").$(batchInsertStatement.getTableName()).$(", rows=").$(batchInsertRowCount).$(']').$();
+            batchInsertMethod = Misc.free(batchInsertMethod);
+            batchInsertStatement = null;
+            batchInsertRowCount = 0;
+        }
+    }
+
     private void dumpBuffer(char direction, long buffer, int len) {
         if (dumpNetworkTraffic && len > 0) {
             StdoutSink.INSTANCE.put(direction);
@@ -953,6 +1344,110 @@ public class PGConnectionContext implements IOContext, Mutable {
         }
     }
 
+    private void executeNamedPortal(CharSequence name) throws SqlException {
+        final Portal portal = namedPortalMap.get(name);
+        if (portal == null) {
+            throw SqlException.$(0, "portal does not exist [name=").put(name).put(']');
+        }
+        currentStatement = portal.statement;
+        currentFactory = portal.factory;
+        currentInsertStatement = portal.insertStatement;
+        queryText = portal.queryText;
+        resultFormatCodes.clear();
+        resultFormatCodes.addAll(portal.resultFormatCodes);
+        // cursor of suspended portal is positioned on record that has not been sent yet
+        closeCurrentCursor();
+        currentCursor = portal.cursor;
+        recordPending = currentCursor != null;
+        portal.cursor = null;
+        executingPortal = portal;
+    }
+
+    private void executeInsert(@Transient SqlCompiler compiler) throws SqlException {
+        try {
+            if (batchInsertStatement != currentInsertStatement) {
+                commitInsertBatch();
+                batchInsertMethod = createInsertMethod(compiler);
+                batchInsertStatement = currentInsertStatement;
+            }
+            batchInsertMethod.execute();
+            if (++batchInsertRowCount >= maxUncommittedRows) {
+                batchInsertMethod.commit();
+                batchInsertRowCount = 0;
+            }
+        } catch (CairoException e) {
+            // writer can be busy or row can be out of order, this fails the statement rather than connection
+            throw SqlException.$(0, e.getFlyweightMessage());
+        }
+        prepareInsertComplete();
+    }
+
+    private InsertMethod createInsertMethod(@Transient SqlCompiler compiler) throws SqlException {
+        try {
+            return currentInsertStatement.createMethod(sqlExecutionContext);
+        } catch (WriterOutOfDateException e) {
+            // table structure changed after statement was compiled
+            final CompiledQuery cc = compiler.compile(queryText, sqlExecutionContext);
+            if (cc.getType() != CompiledQuery.INSERT) {
+                throw SqlException.$(0, "statement is no longer an insert");
+            }
+            final InsertStatement insertStatement = cc.getInsertStatement();
+            if (currentStatement != null && currentStatement.insertStatement == currentInsertStatement) {
+                currentStatement.insertStatement = insertStatement;
+                Misc.free(currentInsertStatement);
+            } else {
+                Misc.free(insertStatementCache.poll(queryText));
+                insertStatementCache.put(queryText, insertStatement);
+            }
+            currentInsertStatement = insertStatement;
+            return insertStatement.createMethod(sqlExecutionContext);
+        }
+    }
+
+    private RecordCursor getCursor(@Transient SqlCompiler compiler) throws SqlException {
+        try {
+            return currentFactory.getCursor(sqlExecutionContext);
+        } catch (ReaderOutOfDateException e) {
+            // table structure changed after query was compiled
+            recompileCurrentFactory(compiler);
+            return currentFactory.getCursor(sqlExecutionContext);
+        }
+    }
+
+    private void recompileCurrentFactory(@Transient SqlCompiler compiler) throws SqlException {
+        final long factoryVersion = compiler.getEngine().getStructureVersion();
+        final CompiledQuery cc = compiler.compile(queryText, sqlExecutionContext);
+        if (cc.getType() != CompiledQuery.SELECT) {
+            throw SqlException.$(0, "statement is no longer a query");
+        }
+        final RecordCursorFactory staleFactory = currentFactory;
+        final RecordCursorFactory factory = cc.getRecordCursorFactory();
+
+        // copies of stale factory in the cache are compiled against the same table structure
+        if (currentStatement != null && currentStatement.factory == staleFactory) {
+            currentStatement.factory = factory;
+            currentStatement.factoryVersion = factoryVersion;
+            factoryCacheKey.clear();
+            SqlUtil.putQueryCacheKey(factoryCacheKey, currentStatement.queryText, currentStatement.parameterTypes);
+            factoryCache.invalidate(factoryCacheKey);
+        } else if (unnamedFactory == staleFactory) {
+            unnamedFactory = factory;
+            unnamedFactoryVersion = factoryVersion;
+            factoryCache.invalidate(unnamedFactoryKey);
+        }
+
+        final ObjList<CharSequence> portalNames = namedPortalMap.keys();
+        for (int i = 0, n = portalNames.size(); i < n; i++) {
+            final Portal portal = namedPortalMap.get(portalNames.getQuick(i));
+            if (portal.factory == staleFactory) {
+                portal.factory = factory;
+            }
+        }
+        currentFactory = factory;
+        Misc.free(staleFactory);
+        LOG.info().$("recompiled stale query [q=`").$(queryText).$("`]").$();
+    }
+
     private void sendCopyInResponse(CairoEngine engine, TextLoader textLoader) throws PeerDisconnectedException, PeerIsSlowToReadException {
         if (TableUtils.TABLE_EXISTS == engine.getStatus(
                 sqlExecutionContext.getCairoSecurityContext(),
@@ -979,25 +1474,100 @@ public class PGConnectionContext implements IOContext, Mutable {
         }
     }
 
+    private void parseNamedStatement(@Transient SqlCompiler compiler) throws SqlException {
+        // named statement takes factory out of the cache for as long as statement lives,
+        // this way factory cannot be evicted and freed, or used by another connection,
+        // while client holds on to the statement
+        factoryCacheKey.clear();
+        SqlUtil.putQueryCacheKey(factoryCacheKey, queryText, parameterTypes);
+        final long factoryVersion = compiler.getEngine().getStructureVersion();
+        RecordCursorFactory factory = factoryCache.poll(factoryCacheKey, factoryVersion);
+        InsertStatement insertStatement = null;
+        if (factory == null) {
+            // same goes for insert statement
+            insertStatement = insertStatementCache.poll(queryText);
+            if (insertStatement == null) {
+                commitInsertBatch();
+                if (!isTransactionControl(queryText)) {
+                    final CompiledQuery cc = compiler.compile(queryText, sqlExecutionContext);
+                    if (cc.getType() == CompiledQuery.SELECT) {
+                        factory = cc.getRecordCursorFactory();
+                    } else if (cc.getType() == CompiledQuery.INSERT) {
+                        insertStatement = cc.getInsertStatement();
+                    }
+                }
+            }
+        }
+        final NamedStatementWrapper wrapper = namedStatementWrapperPool.pop();
+        wrapper.of(Chars.toString(queryText), factory, factoryVersion, insertStatement, parameterTypes);
+
+        final int index = namedStatementMap.keyIndex(statementName);
+        if (index < 0) {
+            // client re-used statement name without closing previous statement
+            releaseNamedStatement(namedStatementMap.valueAt(index));
+            namedStatementMap.putAt(index, statementName, wrapper);
+        } else {
+            namedStatementMap.putAt(index, Chars.toString(statementName), wrapper);
+        }
+        currentStatement = wrapper;
+        currentFactory = factory;
+        currentInsertStatement = insertStatement;
+    }
+
+    /**
+     * There are no transactions to demarcate, yet client drivers send BEGIN and COMMIT when auto-commit
+     * is off. These are accepted, rows batched so far have been committed by the time they execute.
+     * ROLLBACK cannot undo committed rows and fails.
+     *
+     * @param query text of the query
+     * @return true when query is BEGIN or COMMIT, there is nothing to compile or execute then
+     * @throws SqlException when query is ROLLBACK
+     */
+    private boolean isTransactionControl(CharSequence query) throws SqlException {
+        int lo = 0;
+        int hi = query.length();
+        while (lo < hi && Character.isWhitespace(query.charAt(lo))) {
+            lo++;
+        }
+        while (hi > lo && (Character.isWhitespace(query.charAt(hi - 1)) || query.charAt(hi - 1) == ';')) {
+            hi--;
+        }
+        if (Chars.equalsLowerCaseAscii(query, lo, hi, "begin", 0, 5) || Chars.equalsLowerCaseAscii(query, lo, hi, "commit", 0, 6)) {
+            return true;
+        }
+        if (Chars.equalsLowerCaseAscii(query, lo, hi, "rollback", 0, 8)) {
+            throw SqlException.$(lo, "transactions are not supported");
+        }
+        return false;
+    }
+
     private void parseQuery(
             CharSequence query,
-            @Transient SqlCompiler compiler,
-            @Transient AssociativeCache<RecordCursorFactory> factoryCache
+            @Transient SqlCompiler compiler
     ) throws SqlException {
-        // at this point we may have a current query that is not null
-        // this is ok to lose reference to this query because we have cache
-        // of all of them, which is looked up by query text
-
-        responseAsciiSink.reset();
-        currentFactory = factoryCache.peek(query);
+        // new unnamed statement replaces the previous one, factory of the previous
+        // statement goes back to the cache
+        releaseUnnamedFactory();
+        unnamedFactoryKey.clear();
+        SqlUtil.putQueryCacheKey(unnamedFactoryKey, query, parameterTypes);
+        unnamedFactoryVersion = compiler.getEngine().getStructureVersion();
+        currentFactory = unnamedFactory = factoryCache.poll(unnamedFactoryKey, unnamedFactoryVersion);
+        currentInsertStatement = null;
         if (currentFactory == null) {
-            final CompiledQuery cc = compiler.compile(query, sqlExecutionContext);
-            if (cc.getType() == CompiledQuery.SELECT) {
-                currentFactory = cc.getRecordCursorFactory();
-                factoryCache.put(query, currentFactory);
-            } else {
-                // DDL SQL
-                prepareParseComplete();
+            currentInsertStatement = insertStatementCache.peek(query);
+            if (currentInsertStatement == null) {
+                // DDL and insert statements will need table writer, which batch may hold on to
+                commitInsertBatch();
+                if (isTransactionControl(query)) {
+                    return;
+                }
+                final CompiledQuery cc = compiler.compile(query, sqlExecutionContext);
+                if (cc.getType() == CompiledQuery.SELECT) {
+                    currentFactory = unnamedFactory = cc.getRecordCursorFactory();
+                } else if (cc.getType() == CompiledQuery.INSERT) {
+                    currentInsertStatement = cc.getInsertStatement();
+                    insertStatementCache.put(query, currentInsertStatement);
+                }
             }
         }
     }
@@ -1051,14 +1621,41 @@ public class PGConnectionContext implements IOContext, Mutable {
         prepareReadyForQuery(sink);
     }
 
+    private void prepareParameterDescription(IntList parameterTypes) {
+        final ResponseAsciiSink sink = responseAsciiSink;
+        sink.put(MESSAGE_TYPE_PARAMETER_DESCRIPTION);
+        final long addr = sink.skip();
+        final int n = parameterTypes.size();
+        sink.putNetworkShort((short) n);
+        for (int i = 0; i < n; i++) {
+            sink.putNetworkInt(parameterTypes.getQuick(i));
+        }
+        sink.putLen(addr);
+    }
+
+    private void prepareInsertComplete() {
+        responseAsciiSink.put(MESSAGE_TYPE_COMMAND_COMPLETE);
+        long addr = responseAsciiSink.skip();
+        // command tag is "INSERT oid rows", clients take row count from it
+        responseAsciiSink.encodeUtf8Z("INSERT 0 1");
+        responseAsciiSink.putLen(addr);
+    }
+
+    private void prepareBindComplete() {
+        responseAsciiSink.put(MESSAGE_TYPE_BIND_COMPLETE);
+        responseAsciiSink.putNetworkInt(Integer.BYTES);
+    }
+
     private void prepareParseComplete() {
         responseAsciiSink.put(MESSAGE_TYPE_PARSE_COMPLETE);
         responseAsciiSink.putNetworkInt(Integer.BYTES);
     }
 
     private void prepareRowDescription(
-            RecordMetadata metadata
+            RecordMetadata metadata,
+            IntList formatCodes
     ) {
+        setupColumnFormats(metadata, formatCodes);
         ResponseAsciiSink sink = responseAsciiSink;
         sink.put(MESSAGE_TYPE_ROW_DESCRIPTION);
         final long addr = sink.skip();
@@ -1072,8 +1669,7 @@ public class PGConnectionContext implements IOContext, Mutable {
             sink.putNetworkInt(typeOidMap.get(columnType)); // type
             sink.putNetworkShort((short) 0); // type size?
             sink.putNetworkInt(0); // type mod?
-            // this is special behaviour for binary fields to prevent binary data being hex encoded on the wire
-            sink.putNetworkShort((short) (columnType == ColumnType.BINARY ? 1 : 0)); // format code
+            sink.putNetworkShort((short) columnFormats.getQuick(i)); // format code
         }
         sink.putLen(addr);
     }
@@ -1173,6 +1769,93 @@ public class PGConnectionContext implements IOContext, Mutable {
         }
     }
 
+    private void rollbackInsertBatch() {
+        if (batchInsertMethod != null) {
+            batchInsertMethod.rollback();
+            batchInsertMethod = Misc.free(batchInsertMethod);
+            batchInsertStatement = null;
+            batchInsertRowCount = 0;
+        }
+    }
+
+    private void releaseNamedStatement(NamedStatementWrapper wrapper) {
+        if (currentStatement == wrapper) {
+            currentStatement = null;
+            currentFactory = null;
+            currentInsertStatement = null;
+        }
+
+        // portals must not outlive their statement
+        final ObjList<CharSequence> portalNames = namedPortalMap.keys();
+        for (int i = portalNames.size() - 1; i > -1; i--) {
+            final int index = namedPortalMap.keyIndex(portalNames.getQuick(i));
+            if (namedPortalMap.valueAt(index).statement == wrapper) {
+                namedPortalPool.push(namedPortalMap.valueAt(index));
+                namedPortalMap.removeAt(index);
+            }
+        }
+
+        final RecordCursorFactory factory = wrapper.factory;
+        if (factory != null) {
+            factoryCacheKey.clear();
+            SqlUtil.putQueryCacheKey(factoryCacheKey, wrapper.queryText, wrapper.parameterTypes);
+            factoryCache.put(factoryCacheKey, factory, wrapper.factoryVersion);
+        }
+
+        final InsertStatement insertStatement = wrapper.insertStatement;
+        if (insertStatement != null) {
+            // cache eviction could free statement of the batch
+            commitInsertBatch();
+            if (insertStatementCache.peek(wrapper.queryText) == null) {
+                insertStatementCache.put(wrapper.queryText, insertStatement);
+            } else {
+                insertStatement.close();
+            }
+        }
+        namedStatementWrapperPool.push(wrapper);
+    }
+
+    private void releasePortalFactory(Portal portal) {
+        if (portal.ownsFactory) {
+            final RecordCursorFactory factory = portal.factory;
+            portal.cursor = Misc.free(portal.cursor);
+            portal.factory = null;
+            portal.ownsFactory = false;
+            if (!handOverFactory(factory)) {
+                if (currentFactory == factory) {
+                    currentFactory = null;
+                }
+                Misc.free(factory);
+            }
+        }
+    }
+
+    private void releaseUnnamedFactory() {
+        final RecordCursorFactory factory = unnamedFactory;
+        if (factory != null) {
+            unnamedFactory = null;
+            // portal bound to unnamed statement outlives the statement, it keeps the factory
+            if (!handOverFactory(factory)) {
+                if (currentFactory == factory) {
+                    currentFactory = null;
+                }
+                factoryCache.put(unnamedFactoryKey, factory, unnamedFactoryVersion);
+            }
+        }
+    }
+
+    private boolean handOverFactory(RecordCursorFactory factory) {
+        final ObjList<CharSequence> portalNames = namedPortalMap.keys();
+        for (int i = 0, n = portalNames.size(); i < n; i++) {
+            final Portal portal = namedPortalMap.get(portalNames.getQuick(i));
+            if (portal.statement == null && portal.factory == factory) {
+                portal.ownsFactory = true;
+                return true;
+            }
+        }
+        return false;
+    }
+
     void recv() throws PeerDisconnectedException, PeerIsSlowToWriteException, BadProtocolException {
         final int remaining = (int) (recvBufferSize - recvBufferWriteOffset);
 
@@ -1232,10 +1915,25 @@ public class PGConnectionContext implements IOContext, Mutable {
         // approach for general queries. For streaming protocol we will code something else. PostgeSQL Java driver is
         // slow anyway.
 
+        sendingCursor = true;
         final Record record = currentCursor.getRecord();
         final RecordMetadata metadata = currentFactory.getMetadata();
         final int columnCount = metadata.getColumnCount();
-        while (currentCursor.hasNext()) {
+        while (true) {
+            if (!recordPending) {
+                if (!currentCursor.hasNext()) {
+                    sendCurrentCursorTail = PGConnectionContext.TAIL_SUCCESS;
+                    break;
+                }
+                recordPending = true;
+            }
+
+            if (executeRowLimit > 0 && executeRowCount == executeRowLimit) {
+                // record stays pending until client asks for more rows
+                sendCurrentCursorTail = PGConnectionContext.TAIL_SUSPENDED;
+                break;
+            }
+
             // create checkpoint to which we can undo the buffer in case
             // current DataRow will does not fit fully.
             responseAsciiSink.bookmark();
@@ -1244,6 +1942,7 @@ public class PGConnectionContext implements IOContext, Mutable {
                     appendRecord(record, metadata, columnCount);
                 } catch (NoSpaceLeftInResponseBufferException e) {
                     responseAsciiSink.resetToBookmark();
+                    // when peer is slow to read we will send this record again once it catches up
                     send();
                     // this is now start of send buffer, when this fails we need to log and disconnect
                     appendRecord(record, metadata, columnCount);
@@ -1251,48 +1950,64 @@ public class PGConnectionContext implements IOContext, Mutable {
             } catch (SqlException e) {
                 responseAsciiSink.resetToBookmark();
                 LOG.error().$(e.getFlyweightMessage()).$();
-                currentCursor = Misc.free(currentCursor);
                 sendCurrentCursorTail = PGConnectionContext.TAIL_ERROR;
-                send();
-                return;
+                break;
             }
+            recordPending = false;
+            executeRowCount++;
         }
 
-        currentCursor = Misc.free(currentCursor);
-        sendCurrentCursorTail = PGConnectionContext.TAIL_SUCCESS;
-        send();
+        sendingCursor = false;
+        if (sendCurrentCursorTail == TAIL_SUSPENDED) {
+            if (executingPortal != null) {
+                // named portal keeps its cursor until client fetches the rest or closes portal
+                executingPortal.cursor = currentCursor;
+                currentCursor = null;
+                recordPending = false;
+            }
+        } else {
+            closeCurrentCursor();
+        }
+        executingPortal = null;
     }
 
     void sendExecuteTail() throws PeerDisconnectedException, PeerIsSlowToReadException {
         switch (sendCurrentCursorTail) {
             case TAIL_SUCCESS:
                 prepareCommandComplete();
-                prepareReadyForQuery(responseAsciiSink);
                 LOG.info().$("executed query").$();
-                sendCurrentCursorTail = PGConnectionContext.TAIL_NONE;
-                send();
+                break;
+            case TAIL_SUSPENDED:
+                responseAsciiSink.put(MESSAGE_TYPE_PORTAL_SUSPENDED);
+                responseAsciiSink.putNetworkInt(Integer.BYTES);
+                LOG.info().$("portal suspended [rows=").$(executeRowCount).$(']').$();
                 break;
             case PGConnectionContext.TAIL_ERROR:
                 SqlException e = SqlException.last();
                 prepareError(e);
-                prepareReadyForQuery(responseAsciiSink);
                 LOG.info().$("SQL exception [pos=").$(e.getPosition()).$(", msg=").$(e.getFlyweightMessage()).$(']').$();
-                sendCurrentCursorTail = PGConnectionContext.TAIL_NONE;
-                send();
+                if (!simpleQuery) {
+                    skipUntilSync = true;
+                }
                 break;
             default:
-                break;
+                return;
+        }
+        sendCurrentCursorTail = PGConnectionContext.TAIL_NONE;
+        // extended query protocol responds with ReadyForQuery on Sync
+        if (simpleQuery) {
+            prepareReadyForQuery(responseAsciiSink);
+            send();
         }
     }
 
     private void setupBindVariables(
-            long lo,
-            short pc,
+            IntList parameterTypes,
             @Transient ObjList<BindVariableSetter> bindVariableSetters
     ) throws SqlException {
         bindVariableSetters.clear();
-        for (int j = 0; j < pc; j++) {
-            int pgType = getInt(lo + j * Integer.BYTES);
+        for (int j = 0, n = parameterTypes.size(); j < n; j++) {
+            int pgType = parameterTypes.getQuick(j);
             switch (pgType) {
                 case PG_FLOAT8: // FLOAT8 - double
                     bindVariableService.setDouble(j, Double.NaN);
@@ -1353,6 +2068,39 @@ public class PGConnectionContext implements IOContext, Mutable {
         }
     }
 
+    private void setupColumnFormats(RecordMetadata metadata, @Nullable IntList formatCodes) {
+        columnFormats.clear();
+        final int formatCodeCount = formatCodes == null ? 0 : formatCodes.size();
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            final int columnType = metadata.getColumnType(i);
+            final int requested;
+            switch (formatCodeCount) {
+                case 0:
+                    requested = 0;
+                    break;
+                case 1:
+                    requested = formatCodes.getQuick(0);
+                    break;
+                default:
+                    requested = i < formatCodeCount ? formatCodes.getQuick(i) : 0;
+                    break;
+            }
+
+            switch (columnType) {
+                case ColumnType.BINARY:
+                    // this is special behaviour for binary fields to prevent binary data being hex encoded on the wire
+                    columnFormats.add(1);
+                    break;
+                case ColumnType.CHAR:
+                    columnFormats.add(0);
+                    break;
+                default:
+                    columnFormats.add(requested == 1 ? 1 : 0);
+                    break;
+            }
+        }
+    }
+
     ResponseAsciiSink sink() {
         return responseAsciiSink;
     }
@@ -1429,6 +2177,12 @@ public class PGConnectionContext implements IOContext, Mutable {
             sendBufferPtr += Integer.BYTES;
         }
 
+        public void putNetworkLong(long value) {
+            ensureCapacity(Long.BYTES);
+            Unsafe.getUnsafe().putLong(sendBufferPtr, Long.reverseBytes(value));
+            sendBufferPtr += Long.BYTES;
+        }
+
         public void putNetworkShort(short value) {
             ensureCapacity(Short.BYTES);
             putShort(sendBufferPtr, value);
@@ -1469,4 +2223,70 @@ public class PGConnectionContext implements IOContext, Mutable {
             return checkpoint;
         }
     }
+
+    private static class NamedStatementWrapper implements Mutable {
+        private final IntList parameterTypes = new IntList();
+        private String queryText;
+        private RecordCursorFactory factory;
+        private long factoryVersion;
+        private InsertStatement insertStatement;
+
+        @Override
+        public void clear() {
+            parameterTypes.clear();
+            queryText = null;
+            factory = null;
+            factoryVersion = 0;
+            insertStatement = null;
+        }
+
+        void of(String queryText, RecordCursorFactory factory, long factoryVersion, InsertStatement insertStatement, IntList parameterTypes) {
+            this.queryText = queryText;
+            this.factory = factory;
+            this.factoryVersion = factoryVersion;
+            this.insertStatement = insertStatement;
+            this.parameterTypes.clear();
+            this.parameterTypes.addAll(parameterTypes);
+        }
+    }
+
+    private static class Portal implements Mutable {
+        private final IntList resultFormatCodes = new IntList();
+        private NamedStatementWrapper statement;
+        private RecordCursorFactory factory;
+        private InsertStatement insertStatement;
+        private CharSequence queryText;
+        // cursor of suspended portal
+        private RecordCursor cursor;
+        // portal takes over factory of unnamed statement when statement is replaced
+        private boolean ownsFactory;
+
+        @Override
+        public void clear() {
+            cursor = Misc.free(cursor);
+            resultFormatCodes.clear();
+            statement = null;
+            factory = null;
+            ownsFactory = false;
+            insertStatement = null;
+            queryText = null;
+        }
+
+        void of(
+                NamedStatementWrapper statement,
+                RecordCursorFactory factory,
+                InsertStatement insertStatement,
+                CharSequence queryText,
+                IntList resultFormatCodes
+        ) {
+            this.cursor = Misc.free(cursor);
+            this.statement = statement;
+            this.factory = factory;
+            this.ownsFactory = false;
+            this.insertStatement = insertStatement;
+            this.queryText = Chars.toString(queryText);
+            this.resultFormatCodes.clear();
+            this.resultFormatCodes.addAll(resultFormatCodes);
+        }
+    }
 }
@@ -25,12 +25,10 @@
 package io.questdb.cutlass.pgwire;
 
 import io.questdb.cairo.CairoEngine;
-import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.griffin.SqlCompiler;
 import io.questdb.network.PeerDisconnectedException;
 import io.questdb.network.PeerIsSlowToReadException;
 import io.questdb.network.PeerIsSlowToWriteException;
-import io.questdb.std.AssociativeCache;
 import io.questdb.std.Misc;
 import io.questdb.std.ObjList;
 
@@ -51,15 +49,10 @@ public class PGJobContext implements Closeable {
     public static final int PG_BYTEA = 17;
     public static final int PG_UNSPECIFIED = 0;
     private final SqlCompiler compiler;
-    private final AssociativeCache<RecordCursorFactory> factoryCache;
     private final ObjList<BindVariableSetter> bindVariableSetters = new ObjList<>();
 
     public PGJobContext(PGWireConfiguration configuration, CairoEngine engine) {
         this.compiler = new SqlCompiler(engine);
-        this.factoryCache = new AssociativeCache<>(
-                configuration.getFactoryCacheColumnCount(),
-                configuration.getFactoryCacheRowCount()
-        );
     }
 
     @Override
@@ -72,6 +65,6 @@ public class PGJobContext implements Closeable {
             PeerIsSlowToReadException,
             PeerDisconnectedException,
             BadProtocolException {
-        context.handleClientOperation(compiler, factoryCache, bindVariableSetters);
+        context.handleClientOperation(compiler, bindVariableSetters);
     }
 }
@@ -52,8 +52,16 @@ public interface PGWireConfiguration {
 
     int getIdleSendCountBeforeGivingUp();
 
+    int getInsertCacheBlockCount();
+
+    int getInsertCacheRowCount();
+
     int getMaxBlobSizeOnQuery();
 
+    int getMaxUncommittedRows();
+
+    int getNamedStatementCacheCapacity();
+
     NetworkFacade getNetworkFacade();
 
     int getRecvBufferSize();
@@ -25,6 +25,7 @@
 package io.questdb.cutlass.pgwire;
 
 import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.mp.EagerThreadSetup;
@@ -32,6 +33,7 @@ import io.questdb.mp.Job;
 import io.questdb.mp.WorkerPool;
 import io.questdb.mp.WorkerPoolConfiguration;
 import io.questdb.network.*;
+import io.questdb.std.ConcurrentAssociativeCache;
 import io.questdb.std.Misc;
 import io.questdb.std.ThreadLocal;
 import io.questdb.std.WeakObjectPool;
@@ -43,13 +45,19 @@ public class PGWireServer implements Closeable {
     private static final Log LOG = LogFactory.getLog(PGWireServer.class);
     private final IODispatcher<PGConnectionContext> dispatcher;
     private final PGConnectionContextFactory contextFactory;
+    // compiled queries are shared by all workers, query compiled by one worker can be executed by another
+    private final ConcurrentAssociativeCache<RecordCursorFactory> factoryCache;
 
     public PGWireServer(
             PGWireConfiguration configuration,
             CairoEngine engine,
             WorkerPool pool
     ) {
-        this.contextFactory = new PGConnectionContextFactory(configuration);
+        this.factoryCache = new ConcurrentAssociativeCache<>(
+                configuration.getFactoryCacheColumnCount(),
+                configuration.getFactoryCacheRowCount()
+        );
+        this.contextFactory = new PGConnectionContextFactory(configuration, factoryCache);
         this.dispatcher = IODispatchers.create(
                 configuration.getDispatcherConfiguration(),
                 contextFactory
@@ -129,15 +137,23 @@ public class PGWireServer implements Closeable {
     public void close() {
         Misc.free(contextFactory);
         Misc.free(dispatcher);
+        Misc.free(factoryCache);
+    }
+
+    public ConcurrentAssociativeCache<RecordCursorFactory> getFactoryCache() {
+        return factoryCache;
     }
 
     private static class PGConnectionContextFactory implements IOContextFactory<PGConnectionContext>, Closeable, EagerThreadSetup {
         private final ThreadLocal<WeakObjectPool<PGConnectionContext>> contextPool;
         private boolean closed = false;
 
-        public PGConnectionContextFactory(PGWireConfiguration configuration) {
+        public PGConnectionContextFactory(
+                PGWireConfiguration configuration,
+                ConcurrentAssociativeCache<RecordCursorFactory> factoryCache
+        ) {
             this.contextPool = new ThreadLocal<>(() -> new WeakObjectPool<>(() ->
-                    new PGConnectionContext(configuration), configuration.getConnectionPoolInitialCapacity()));
+                    new PGConnectionContext(configuration, factoryCache), configuration.getConnectionPoolInitialCapacity()));
         }
 
         @Override
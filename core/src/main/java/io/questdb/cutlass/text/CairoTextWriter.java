@@ -26,6 +26,7 @@ package io.questdb.cutlass.text;
 
 import io.questdb.cairo.*;
 import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cutlass.text.types.AbstractStatelessTypeAdapter;
 import io.questdb.cutlass.text.types.BadDateAdapter;
 import io.questdb.cutlass.text.types.BadTimestampAdapter;
 import io.questdb.cutlass.text.types.TypeAdapter;
@@ -37,6 +38,7 @@ import io.questdb.std.LongList;
 import io.questdb.std.Misc;
 import io.questdb.std.Mutable;
 import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
 import io.questdb.std.str.DirectByteCharSequence;
 import io.questdb.std.str.DirectCharSink;
 import io.questdb.std.str.Path;
@@ -53,6 +55,7 @@ public class CairoTextWriter implements TextLexer.Listener, Closeable, Mutable {
     private final Path path;
     private final TableStructureAdapter tableStructureAdapter = new TableStructureAdapter();
     private final TypeManager typeManager;
+    private final DirectByteCharSequence stagedSequence = new DirectByteCharSequence();
     private CharSequence tableName;
     private TableWriter writer;
     private long _size;
@@ -136,17 +139,44 @@ public class CairoTextWriter implements TextLexer.Listener, Closeable, Mutable {
             try {
                 types.getQuick(i).write(w, i, dbcs);
             } catch (Exception ignore) {
-                logError(line, i, dbcs);
-                switch (atomicity) {
-                    case Atomicity.SKIP_ALL:
-                        writer.rollback();
-                        throw CairoException.instance(0).put("bad syntax [line=").put(line).put(", col=").put(i).put(']');
-                    case Atomicity.SKIP_ROW:
-                        w.cancel();
-                        return;
-                    default:
-                        // SKIP column
-                        break;
+                if (onError(w, line, i, dbcs)) {
+                    return;
+                }
+            }
+        }
+        w.append();
+    }
+
+    ObjList<TypeAdapter> getTypes() {
+        return types;
+    }
+
+    /**
+     * Appends row staged by {@link TextImportTask}. Values converted by worker thread are
+     * written as is, text fields are converted here with the same error handling as
+     * {@link #onFields(long, ObjList, int)} has.
+     */
+    void onStagedFields(long line, long address, int columnCount) {
+        final TableWriter.Row w = writer.newRow();
+        for (int i = 0; i < columnCount; i++, address += TextImportTask.STAGED_FIELD_SIZE) {
+            final long lo = Unsafe.getUnsafe().getLong(address);
+            final long hi = Unsafe.getUnsafe().getLong(address + 8);
+            if (hi == TextImportTask.STAGED_VALUE) {
+                // only stateless adapters stage converted values
+                ((AbstractStatelessTypeAdapter) types.getQuick(i)).write(w, i, lo);
+                continue;
+            }
+
+            if (lo == hi) {
+                continue;
+            }
+
+            stagedSequence.of(lo, hi);
+            try {
+                types.getQuick(i).write(w, i, stagedSequence);
+            } catch (Exception ignore) {
+                if (onError(w, line, i, stagedSequence)) {
+                    return;
                 }
             }
         }
@@ -173,6 +203,22 @@ public class CairoTextWriter implements TextLexer.Listener, Closeable, Mutable {
         this.types = detectedTypes;
     }
 
+    // returns true when row is cancelled
+    private boolean onError(TableWriter.Row w, long line, int i, DirectByteCharSequence dbcs) {
+        logError(line, i, dbcs);
+        switch (atomicity) {
+            case Atomicity.SKIP_ALL:
+                writer.rollback();
+                throw CairoException.instance(0).put("bad syntax [line=").put(line).put(", col=").put(i).put(']');
+            case Atomicity.SKIP_ROW:
+                w.cancel();
+                return true;
+            default:
+                // SKIP column
+                return false;
+        }
+    }
+
     private void logTypeError(int i) {
         LOG.info()
                 .$("mis-detected [table=").$(tableName)
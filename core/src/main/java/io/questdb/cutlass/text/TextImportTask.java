@@ -0,0 +1,235 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.text;
+
+import io.questdb.cutlass.text.types.AbstractStatelessTypeAdapter;
+import io.questdb.cutlass.text.types.TypeAdapter;
+import io.questdb.cutlass.text.types.TypeManager;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.SOCountDownLatch;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.DirectByteCharSequence;
+
+import java.io.Closeable;
+
+/**
+ * Chunk of memory-mapped text processed by parallel import. Task runs in one of two phases.
+ * Scan phase counts quotes and finds first and last line ends of the chunk for either quote
+ * parity at chunk start, loader uses them to move chunk boundaries to line ends outside of
+ * quoted values. Parse phase lexes chunk and stages every field as 16 bytes: value bits and
+ * {@link #STAGED_VALUE} when stateless type adapter converted the field, otherwise text
+ * address range. Staged rows are appended to table by loader thread in text order.
+ */
+class TextImportTask implements TextLexer.Listener, Closeable {
+    static final int PHASE_SCAN = 0;
+    static final int PHASE_PARSE = 1;
+    static final long STAGED_VALUE = -1;
+    static final int STAGED_FIELD_SIZE = 16;
+    private static final Log LOG = LogFactory.getLog(TextImportTask.class);
+    private static final long SEQUENCE_OFFSET;
+
+    static {
+        SEQUENCE_OFFSET = Unsafe.getFieldOffset(TextImportTask.class, "sequence");
+    }
+
+    private final TextLexer lexer;
+    // first and last line ends, index is quote parity at chunk start
+    private final long[] firstLineEnds = new long[2];
+    private final long[] lastLineEnds = new long[2];
+    private ObjList<TypeAdapter> types;
+    private CharSequence tableName;
+    private byte columnDelimiter;
+    private int columnCount;
+    private int fieldCount;
+    private int phase;
+    private long lo;
+    private long hi;
+    private long quoteCount;
+    private long stageAddress = 0;
+    private long stageCapacity = 0;
+    private long stageSize = 0;
+    private long rowCount;
+    private boolean failed;
+    @SuppressWarnings({"unused", "FieldCanBeLocal"})
+    private volatile long sequence = 0L;
+
+    TextImportTask(TextConfiguration textConfiguration, TypeManager typeManager) {
+        this.lexer = new TextLexer(textConfiguration, typeManager);
+    }
+
+    static void runAndCountDown(TextImportTask task, SOCountDownLatch latch) {
+        try {
+            if (task.phase == PHASE_SCAN) {
+                task.scan();
+            } else {
+                task.parse();
+            }
+        } catch (Throwable e) {
+            LOG.error().$("text import chunk failed [table=").$(task.tableName).$(", e=").$(e).$(']').$();
+            task.failed = true;
+        } finally {
+            latch.countDown();
+        }
+    }
+
+    @Override
+    public void close() {
+        Misc.free(lexer);
+        if (stageAddress != 0) {
+            Unsafe.free(stageAddress, stageCapacity);
+            stageAddress = 0;
+            stageCapacity = 0;
+        }
+    }
+
+    @Override
+    public void onFields(long line, ObjList<DirectByteCharSequence> fields, int hi) {
+        final long rowSize = (long) columnCount * STAGED_FIELD_SIZE;
+        if (stageSize + rowSize > stageCapacity) {
+            growStage(stageSize + rowSize);
+        }
+
+        long p = stageAddress + stageSize;
+        for (int i = 0; i < columnCount; i++, p += STAGED_FIELD_SIZE) {
+            if (i < hi) {
+                final DirectByteCharSequence dbcs = fields.getQuick(i);
+                if (dbcs.length() > 0) {
+                    final TypeAdapter type = types.getQuick(i);
+                    if (type instanceof AbstractStatelessTypeAdapter) {
+                        try {
+                            Unsafe.getUnsafe().putLong(p, ((AbstractStatelessTypeAdapter) type).parseLong(dbcs));
+                            Unsafe.getUnsafe().putLong(p + 8, STAGED_VALUE);
+                            continue;
+                        } catch (Exception ignore) {
+                            // staged as text, loader thread reports the error
+                        }
+                    }
+                }
+                Unsafe.getUnsafe().putLong(p, dbcs.getLo());
+                Unsafe.getUnsafe().putLong(p + 8, dbcs.getHi());
+            } else {
+                // text has fewer fields than table has columns
+                Unsafe.getUnsafe().putLong(p, 0);
+                Unsafe.getUnsafe().putLong(p + 8, 0);
+            }
+        }
+        stageSize += rowSize;
+        rowCount++;
+    }
+
+    long getFirstLineEnd(int parity) {
+        return firstLineEnds[parity];
+    }
+
+    long getLastLineEnd(int parity) {
+        return lastLineEnds[parity];
+    }
+
+    long getQuoteCount() {
+        return quoteCount;
+    }
+
+    long getRowCount() {
+        return rowCount;
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    long getStagedRowAddress(long row) {
+        return stageAddress + row * columnCount * STAGED_FIELD_SIZE;
+    }
+
+    boolean isFailed() {
+        return failed;
+    }
+
+    void of(CharSequence tableName, byte columnDelimiter, int fieldCount, ObjList<TypeAdapter> types, int columnCount) {
+        this.tableName = tableName;
+        this.columnDelimiter = columnDelimiter;
+        this.fieldCount = fieldCount;
+        this.types = types;
+        this.columnCount = columnCount;
+        this.lexer.setTableName(tableName);
+    }
+
+    void ofParse(long lo, long hi) {
+        this.phase = PHASE_PARSE;
+        this.lo = lo;
+        this.hi = hi;
+        this.stageSize = 0;
+        this.rowCount = 0;
+        this.failed = false;
+    }
+
+    void ofScan(long lo, long hi) {
+        this.phase = PHASE_SCAN;
+        this.lo = lo;
+        this.hi = hi;
+        this.failed = false;
+    }
+
+    boolean tryLock(long expectedSequence) {
+        return Unsafe.cas(this, SEQUENCE_OFFSET, expectedSequence, expectedSequence + 1);
+    }
+
+    private void growStage(long required) {
+        final long capacity = Math.max(required, Math.max(stageCapacity * 2, hi - lo));
+        stageAddress = stageAddress == 0 ? Unsafe.malloc(capacity) : Unsafe.realloc(stageAddress, stageCapacity, capacity);
+        stageCapacity = capacity;
+    }
+
+    private void parse() {
+        lexer.of(columnDelimiter, fieldCount);
+        lexer.parse(lo, hi, Integer.MAX_VALUE, this);
+        // only chunk at the end of text can have unterminated line
+        lexer.parseLast();
+    }
+
+    private void scan() {
+        long quotes = 0;
+        firstLineEnds[0] = firstLineEnds[1] = -1;
+        lastLineEnds[0] = lastLineEnds[1] = -1;
+        for (long p = lo; p < hi; p++) {
+            final byte b = Unsafe.getUnsafe().getByte(p);
+            if (b == '"') {
+                quotes++;
+            } else if (b == '\n') {
+                // line end is outside of quotes when quote count from line
+                // start is even, i.e. parity at chunk start equals local parity
+                final int parity = (int) (quotes & 1);
+                if (firstLineEnds[parity] == -1) {
+                    firstLineEnds[parity] = p + 1;
+                }
+                lastLineEnds[parity] = p + 1;
+            }
+        }
+        quoteCount = quotes;
+    }
+}
@@ -60,6 +60,7 @@ public class TextLexer implements Closeable, Mutable {
     private boolean eol;
     private boolean useLineRollBuf = false;
     private boolean rollBufferUnusable = false;
+    private boolean fieldCountFixed = false;
     private byte columnDelimiter;
     private boolean inQuote;
     private boolean delayedOutQuote;
@@ -116,6 +117,19 @@ public class TextLexer implements Closeable, Mutable {
         this.columnDelimiter = columnDelimiter;
     }
 
+    /**
+     * Prepares lexer for text that does not start with the first line. Field count is
+     * taken from lexer that parsed the first line, lines with more fields are errors
+     * regardless of where they are in text.
+     */
+    void of(byte columnDelimiter, int fieldCount) {
+        of(columnDelimiter);
+        for (int i = 0; i < fieldCount; i++) {
+            addField();
+        }
+        fieldCountFixed = true;
+    }
+
     public void parse(long lo, long hi, int lineCountLimit, Listener textLexerListener) {
         this.textLexerListener = textLexerListener;
         this.fieldHi = useLineRollBuf ? lineRollBufCur : (this.fieldLo = lo);
@@ -148,6 +162,7 @@ public class TextLexer implements Closeable, Mutable {
         this.useLineRollBuf = false;
         this.rollBufferUnusable = false;
         this.header = header;
+        this.fieldCountFixed = false;
         fields.clear();
         csPool.clear();
     }
@@ -179,6 +194,14 @@ public class TextLexer implements Closeable, Mutable {
         }
     }
 
+    byte getColumnDelimiter() {
+        return columnDelimiter;
+    }
+
+    int getFieldCount() {
+        return fieldMax + 1;
+    }
+
     ObjList<CharSequence> getColumnNames() {
         return metadataDetector.getColumnNames();
     }
@@ -380,7 +403,7 @@ public class TextLexer implements Closeable, Mutable {
     }
 
     private void stashField(int fieldIndex) {
-        if (lineCount == 0) {
+        if (lineCount == 0 && !fieldCountFixed) {
             addField();
         }
 
@@ -25,17 +25,21 @@
 package io.questdb.cutlass.text;
 
 import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CairoException;
 import io.questdb.cairo.CairoSecurityContext;
+import io.questdb.cairo.CairoWorkQueue;
+import io.questdb.cairo.CairoWorkScheduler;
 import io.questdb.cairo.sql.RecordMetadata;
 import io.questdb.cutlass.json.JsonException;
 import io.questdb.cutlass.json.JsonLexer;
+import io.questdb.cutlass.text.types.TypeAdapter;
 import io.questdb.cutlass.text.types.TypeManager;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
-import io.questdb.std.LongList;
-import io.questdb.std.Misc;
-import io.questdb.std.Mutable;
-import io.questdb.std.ObjList;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SOCountDownLatch;
+import io.questdb.mp.Sequence;
+import io.questdb.std.*;
 import io.questdb.std.str.DirectCharSink;
 import io.questdb.std.str.Path;
 
@@ -56,15 +60,23 @@ public class TextLoader implements Closeable, Mutable {
     private final DirectCharSink utf8Sink;
     private final TypeManager typeManager;
     private final ObjList<ParserMethod> parseMethods = new ObjList<>();
+    private final ObjList<TextImportTask> importTasks = new ObjList<>();
+    private final LongList importTaskSequences = new LongList();
+    private final LongList chunkBoundaries = new LongList();
+    private final SOCountDownLatch importLatch = new SOCountDownLatch();
+    private final TextConfiguration textConfiguration;
+    private final CairoWorkScheduler workScheduler;
     private int state;
     private boolean forceHeaders = false;
     private byte columnDelimiter = -1;
+    private long chunkLineCount = 0;
 
     /**
      *
      */
     public TextLoader(CairoEngine engine) {
-        final TextConfiguration textConfiguration = engine.getConfiguration().getTextConfiguration();
+        this.textConfiguration = engine.getConfiguration().getTextConfiguration();
+        this.workScheduler = engine.getConfiguration().isParallelImportEnabled() ? engine.getWorkScheduler() : null;
         this.utf8Sink = new DirectCharSink(textConfiguration.getUtf8SinkSize());
         jsonLexer = new JsonLexer(
                 textConfiguration.getJsonCacheSize(),
@@ -89,6 +101,7 @@ public class TextLoader implements Closeable, Mutable {
         jsonLexer.clear();
         forceHeaders = false;
         columnDelimiter = -1;
+        chunkLineCount = 0;
         typeManager.clear();
     }
 
@@ -101,6 +114,7 @@ public class TextLoader implements Closeable, Mutable {
         Misc.free(path);
         Misc.free(textDelimiterScanner);
         Misc.free(utf8Sink);
+        Misc.freeObjList(importTasks);
     }
 
     public void configureColumnDelimiter(byte columnDelimiter) {
@@ -135,7 +149,7 @@ public class TextLoader implements Closeable, Mutable {
     }
 
     public long getParsedLineCount() {
-        return textLexer.getLineCount();
+        return textLexer.getLineCount() + chunkLineCount;
     }
 
     public int getPartitionBy() {
@@ -166,6 +180,27 @@ public class TextLoader implements Closeable, Mutable {
         parseMethods.getQuick(state).parse(lo, hi, cairoSecurityContext);
     }
 
+    /**
+     * Loads text that is entirely in memory, such as memory-mapped file. Structure is analysed
+     * on the head of the text, up to the first line end after {@code analysisSize} bytes. The
+     * rest of the text is split into chunks of about {@code chunkSize} bytes, which are lexed and
+     * converted by worker threads and appended to table in text order. Chunks are split on line
+     * ends outside of quotes, quotes are tracked the same way {@link TextDelimiterScanner} does.
+     * Text is loaded by calling thread when there are no workers. Loader must be in
+     * {@link #ANALYZE_STRUCTURE} state, {@link #wrapUp()} is still required to commit.
+     */
+    public void parseMapped(long lo, long hi, int analysisSize, int chunkSize, CairoSecurityContext cairoSecurityContext) throws TextException {
+        final long analysisHi = findLineEnd(lo, hi, lo + analysisSize, false);
+        parse(lo, analysisHi, cairoSecurityContext);
+        if (analysisHi < hi) {
+            if (workScheduler == null || workScheduler.getWorkerCount() == 0) {
+                parse(analysisHi, hi, cairoSecurityContext);
+            } else {
+                parseChunks(analysisHi, hi, chunkSize);
+            }
+        }
+    }
+
     public void setState(int state) {
         LOG.debug().$("state change [old=").$(this.state).$(", new=").$(state).$(']').$();
         this.state = state;
@@ -191,6 +226,101 @@ public class TextLoader implements Closeable, Mutable {
         }
     }
 
+    // returns address after first line end at or past "from" that is outside of quotes
+    private static long findLineEnd(long lo, long hi, long from, boolean inQuote) {
+        for (long p = lo; p < hi; p++) {
+            final byte b = Unsafe.getUnsafe().getByte(p);
+            if (b == '"') {
+                inQuote = !inQuote;
+            } else if (b == '\n' && !inQuote && p + 1 >= from) {
+                return p + 1;
+            }
+        }
+        return hi;
+    }
+
+    private TextImportTask getImportTask(int index) {
+        TextImportTask task = importTasks.getQuiet(index);
+        if (task == null) {
+            task = new TextImportTask(textConfiguration, typeManager);
+            importTasks.extendAndSet(index, task);
+        }
+        return task;
+    }
+
+    private void parseChunks(long lo, long hi, int chunkSize) {
+        final int maxTaskCount = workScheduler.getWorkerCount() + 1;
+        final ObjList<TypeAdapter> types = textWriter.getTypes();
+        final int columnCount = types.size();
+        for (int i = 0; i < maxTaskCount; i++) {
+            getImportTask(i).of(
+                    textWriter.getTableName(),
+                    textLexer.getColumnDelimiter(),
+                    textLexer.getFieldCount(),
+                    types,
+                    columnCount
+            );
+        }
+
+        long line = textLexer.getLineCount();
+        long chunkLo = lo;
+        while (chunkLo < hi) {
+            // scan chunks of raw text for quotes and line ends
+            int taskCount = 0;
+            long scanHi = chunkLo;
+            while (taskCount < maxTaskCount && scanHi < hi) {
+                final long scanLo = scanHi;
+                scanHi = Math.min(hi, scanLo + chunkSize);
+                importTasks.getQuick(taskCount++).ofScan(scanLo, scanHi);
+            }
+            runImportTasks(taskCount);
+
+            // chunkLo is line start outside of quotes, parity of quote count from
+            // there tells which line ends of each chunk are outside of quotes
+            long quoteCount = importTasks.getQuick(0).getQuoteCount();
+            long chunkHi = importTasks.getQuick(0).getLastLineEnd(0);
+            chunkBoundaries.clear();
+            chunkBoundaries.add(chunkLo);
+            for (int i = 1; i < taskCount; i++) {
+                final TextImportTask task = importTasks.getQuick(i);
+                final int parity = (int) (quoteCount & 1);
+                final long first = task.getFirstLineEnd(parity);
+                if (first != -1) {
+                    chunkBoundaries.add(first);
+                    chunkHi = task.getLastLineEnd(parity);
+                }
+                quoteCount += task.getQuoteCount();
+            }
+
+            if (scanHi == hi) {
+                chunkHi = hi;
+            } else if (chunkHi == -1) {
+                // line is longer than all chunks together, keep looking for its end
+                chunkHi = findLineEnd(scanHi, hi, scanHi, (quoteCount & 1) == 1);
+            }
+
+            // parse text between line boundaries
+            taskCount = 0;
+            for (int i = 0, n = chunkBoundaries.size(); i < n; i++) {
+                final long parseLo = chunkBoundaries.getQuick(i);
+                final long parseHi = i + 1 < n ? chunkBoundaries.getQuick(i + 1) : chunkHi;
+                if (parseLo < parseHi) {
+                    importTasks.getQuick(taskCount++).ofParse(parseLo, parseHi);
+                }
+            }
+            runImportTasks(taskCount);
+
+            for (int i = 0; i < taskCount; i++) {
+                final TextImportTask task = importTasks.getQuick(i);
+                for (long r = 0, n = task.getRowCount(); r < n; r++) {
+                    textWriter.onStagedFields(line++, task.getStagedRowAddress(r), columnCount);
+                }
+                chunkLineCount += task.getRowCount();
+            }
+            chunkLo = chunkHi;
+        }
+    }
+
     private void parseData(long lo, long hi, CairoSecurityContext cairoSecurityContext) {
         textLexer.parse(lo, hi, Integer.MAX_VALUE, textWriter);
     }
@@ -222,6 +352,62 @@ public class TextLoader implements Closeable, Mutable {
         state = LOAD_DATA;
     }
 
+    private boolean publish(Sequence pubSequence, RingQueue<TextImportEntry> queue, TextImportTask task, long sequence) {
+        long cursor;
+        do {
+            cursor = pubSequence.next();
+            if (cursor == -1) {
+                // queue is full
+                return false;
+            }
+            // -2 is CAS issue, retry
+        } while (cursor < 0);
+
+        final TextImportEntry queueItem = queue.get(cursor);
+        queueItem.task = task;
+        queueItem.sequence = sequence;
+        queueItem.countDownLatch = importLatch;
+        pubSequence.done(cursor);
+        return true;
+    }
+
+    private void runImportTasks(int taskCount) {
+        importLatch.setCount(taskCount);
+        importTaskSequences.clear();
+        final CairoWorkQueue<TextImportEntry> workQueue = workScheduler.getWorkQueue(TextImportEntry.QUEUE_TYPE);
+        final Sequence pubSequence = workQueue.getPubSequence();
+        final RingQueue<TextImportEntry> queue = workQueue.getQueue();
+
+        // first task is left to this thread
+        for (int i = 0; i < taskCount; i++) {
+            final TextImportTask task = importTasks.getQuick(i);
+            final long sequence = task.getSequence();
+            importTaskSequences.add(sequence);
+            if (i > 0 && !publish(pubSequence, queue, task, sequence)) {
+                // queue is full, remaining tasks run on this thread
+                for (int j = i + 1; j < taskCount; j++) {
+                    importTaskSequences.add(importTasks.getQuick(j).getSequence());
+                }
+                break;
+            }
+        }
+
+        // steal tasks workers have not started on
+        for (int i = 0; i < taskCount; i++) {
+            final TextImportTask task = importTasks.getQuick(i);
+            if (task.tryLock(importTaskSequences.getQuick(i))) {
+                TextImportTask.runAndCountDown(task, importLatch);
+            }
+        }
+        importLatch.await();
+
+        for (int i = 0; i < taskCount; i++) {
+            if (importTasks.getQuick(i).isFailed()) {
+                throw CairoException.instance(0).put("text import failed [table=").put(textWriter.getTableName()).put(']');
+            }
+        }
+    }
+
     @FunctionalInterface
     private interface ParserMethod {
         void parse(long lo, long hi, CairoSecurityContext cairoSecurityContext) throws TextException;
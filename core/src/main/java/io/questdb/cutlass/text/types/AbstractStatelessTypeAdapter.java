@@ -0,0 +1,53 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.text.types;
+
+import io.questdb.cairo.TableWriter;
+import io.questdb.std.str.DirectByteCharSequence;
+
+/**
+ * Adapter of fixed-size column type that converts text without table writer or shared
+ * buffers. Parallel import calls {@link #parseLong(DirectByteCharSequence)} from worker
+ * threads and has loader thread write the result with {@link #write(TableWriter.Row, int, long)}.
+ */
+public abstract class AbstractStatelessTypeAdapter extends AbstractTypeAdapter {
+
+    /**
+     * Converts text to bits of column value, floats and doubles are returned
+     * as their raw bit representation.
+     *
+     * @param value text to convert
+     * @return column value bits
+     * @throws Exception when text cannot be converted
+     */
+    public abstract long parseLong(DirectByteCharSequence value) throws Exception;
+
+    public abstract void write(TableWriter.Row row, int column, long value);
+
+    @Override
+    public final void write(TableWriter.Row row, int column, DirectByteCharSequence value) throws Exception {
+        write(row, column, parseLong(value));
+    }
+}
@@ -29,7 +29,7 @@ import io.questdb.cairo.TableWriter;
 import io.questdb.std.Numbers;
 import io.questdb.std.str.DirectByteCharSequence;
 
-public final class BadDateAdapter extends AbstractTypeAdapter {
+public final class BadDateAdapter extends AbstractStatelessTypeAdapter {
 
     public static final BadDateAdapter INSTANCE = new BadDateAdapter();
 
@@ -41,13 +41,18 @@ public final class BadDateAdapter extends AbstractTypeAdapter {
         return ColumnType.DATE;
     }
 
+    @Override
+    public long parseLong(DirectByteCharSequence value) {
+        return Numbers.LONG_NaN;
+    }
+
     @Override
     public boolean probe(CharSequence text) {
         throw new UnsupportedOperationException();
     }
 
     @Override
-    public void write(TableWriter.Row row, int column, DirectByteCharSequence value) {
-        row.putDate(column, Numbers.LONG_NaN);
+    public void write(TableWriter.Row row, int column, long value) {
+        row.putDate(column, value);
     }
 }
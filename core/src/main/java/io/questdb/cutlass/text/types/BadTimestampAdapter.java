@@ -29,7 +29,7 @@ import io.questdb.cairo.TableWriter;
 import io.questdb.std.Numbers;
 import io.questdb.std.str.DirectByteCharSequence;
 
-public final class BadTimestampAdapter extends AbstractTypeAdapter {
+public final class BadTimestampAdapter extends AbstractStatelessTypeAdapter {
 
     public static final BadTimestampAdapter INSTANCE = new BadTimestampAdapter();
 
@@ -41,13 +41,18 @@ public final class BadTimestampAdapter extends AbstractTypeAdapter {
         return ColumnType.TIMESTAMP;
     }
 
+    @Override
+    public long parseLong(DirectByteCharSequence value) {
+        return Numbers.LONG_NaN;
+    }
+
     @Override
     public boolean probe(CharSequence text) {
         throw new UnsupportedOperationException();
     }
 
     @Override
-    public void write(TableWriter.Row row, int column, DirectByteCharSequence value) {
-        row.putTimestamp(column, Numbers.LONG_NaN);
+    public void write(TableWriter.Row row, int column, long value) {
+        row.putTimestamp(column, value);
     }
 }
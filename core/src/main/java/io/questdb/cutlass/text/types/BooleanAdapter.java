@@ -29,7 +29,7 @@ import io.questdb.cairo.TableWriter;
 import io.questdb.std.Chars;
 import io.questdb.std.str.DirectByteCharSequence;
 
-public final class BooleanAdapter extends AbstractTypeAdapter {
+public final class BooleanAdapter extends AbstractStatelessTypeAdapter {
 
     public static final BooleanAdapter INSTANCE = new BooleanAdapter();
 
@@ -41,13 +41,18 @@ public final class BooleanAdapter extends AbstractTypeAdapter {
         return ColumnType.BOOLEAN;
     }
 
+    @Override
+    public long parseLong(DirectByteCharSequence value) {
+        return Chars.equalsLowerCaseAscii(value, "true") ? 1 : 0;
+    }
+
     @Override
     public boolean probe(CharSequence text) {
         return Chars.equalsLowerCaseAscii(text, "true") || Chars.equalsLowerCaseAscii(text, "false");
     }
 
     @Override
-    public void write(TableWriter.Row row, int column, DirectByteCharSequence value) {
-        row.putBool(column, Chars.equalsLowerCaseAscii(value, "true"));
+    public void write(TableWriter.Row row, int column, long value) {
+        row.putBool(column, value != 0);
     }
 }
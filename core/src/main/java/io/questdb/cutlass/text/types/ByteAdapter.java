@@ -29,7 +29,7 @@ import io.questdb.cairo.TableWriter;
 import io.questdb.std.Numbers;
 import io.questdb.std.str.DirectByteCharSequence;
 
-public final class ByteAdapter extends AbstractTypeAdapter {
+public final class ByteAdapter extends AbstractStatelessTypeAdapter {
 
     public static final ByteAdapter INSTANCE = new ByteAdapter();
 
@@ -41,13 +41,18 @@ public final class ByteAdapter extends AbstractTypeAdapter {
         return ColumnType.BYTE;
     }
 
+    @Override
+    public long parseLong(DirectByteCharSequence value) throws Exception {
+        return Numbers.parseInt(value);
+    }
+
     @Override
     public boolean probe(CharSequence text) {
         throw new UnsupportedOperationException();
     }
 
     @Override
-    public void write(TableWriter.Row row, int column, DirectByteCharSequence value) throws Exception {
-        row.putByte(column, (byte) Numbers.parseInt(value));
+    public void write(TableWriter.Row row, int column, long value) {
+        row.putByte(column, (byte) value);
     }
 }
@@ -28,7 +28,7 @@ import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.TableWriter;
 import io.questdb.std.str.DirectByteCharSequence;
 
-public final class CharAdapter extends AbstractTypeAdapter {
+public final class CharAdapter extends AbstractStatelessTypeAdapter {
 
     public static final CharAdapter INSTANCE = new CharAdapter();
 
@@ -40,6 +40,11 @@ public final class CharAdapter extends AbstractTypeAdapter {
         return ColumnType.CHAR;
     }
 
+    @Override
+    public long parseLong(DirectByteCharSequence value) {
+        return value.charAt(0);
+    }
+
     @Override
     public boolean probe(CharSequence text) {
         if (text != null && text.length() == 1) {
@@ -49,7 +54,7 @@ public final class CharAdapter extends AbstractTypeAdapter {
     }
 
     @Override
-    public void write(TableWriter.Row row, int column, DirectByteCharSequence value) {
-        row.putChar(column, value.charAt(0));
+    public void write(TableWriter.Row row, int column, long value) {
+        row.putChar(column, (char) value);
     }
 }
@@ -32,7 +32,7 @@ import io.questdb.std.str.DirectByteCharSequence;
 import io.questdb.std.time.DateFormat;
 import io.questdb.std.time.DateLocale;
 
-public class DateAdapter extends AbstractTypeAdapter implements Mutable {
+public class DateAdapter extends AbstractStatelessTypeAdapter implements Mutable {
     private DateLocale locale;
     private DateFormat format;
 
@@ -47,6 +47,11 @@ public class DateAdapter extends AbstractTypeAdapter implements Mutable {
         return ColumnType.DATE;
     }
 
+    @Override
+    public long parseLong(DirectByteCharSequence value) throws Exception {
+        return format.parse(value, locale);
+    }
+
     @Override
     public boolean probe(CharSequence text) {
         try {
@@ -58,8 +63,8 @@ public class DateAdapter extends AbstractTypeAdapter implements Mutable {
     }
 
     @Override
-    public void write(TableWriter.Row row, int column, DirectByteCharSequence value) throws Exception {
-        row.putDate(column, format.parse(value, locale));
+    public void write(TableWriter.Row row, int column, long value) {
+        row.putDate(column, value);
     }
 
     public DateAdapter of(DateFormat format, DateLocale locale) {
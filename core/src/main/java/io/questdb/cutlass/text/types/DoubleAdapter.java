@@ -30,7 +30,7 @@ import io.questdb.std.Numbers;
 import io.questdb.std.NumericException;
 import io.questdb.std.str.DirectByteCharSequence;
 
-public final class DoubleAdapter extends AbstractTypeAdapter {
+public final class DoubleAdapter extends AbstractStatelessTypeAdapter {
 
     public static final DoubleAdapter INSTANCE = new DoubleAdapter();
 
@@ -42,6 +42,11 @@ public final class DoubleAdapter extends AbstractTypeAdapter {
         return ColumnType.DOUBLE;
     }
 
+    @Override
+    public long parseLong(DirectByteCharSequence value) throws Exception {
+        return Double.doubleToRawLongBits(Numbers.parseDouble(value));
+    }
+
     @Override
     public boolean probe(CharSequence text) {
         if (text.length() > 2 && text.charAt(0) == '0' && text.charAt(1) != '.') {
@@ -56,7 +61,7 @@ public final class DoubleAdapter extends AbstractTypeAdapter {
     }
 
     @Override
-    public void write(TableWriter.Row row, int column, DirectByteCharSequence value) throws Exception {
-        row.putDouble(column, Numbers.parseDouble(value));
+    public void write(TableWriter.Row row, int column, long value) {
+        row.putDouble(column, Double.longBitsToDouble(value));
     }
 }
@@ -29,7 +29,7 @@ import io.questdb.cairo.TableWriter;
 import io.questdb.std.Numbers;
 import io.questdb.std.str.DirectByteCharSequence;
 
-public final class FloatAdapter extends AbstractTypeAdapter {
+public final class FloatAdapter extends AbstractStatelessTypeAdapter {
 
     public static final FloatAdapter INSTANCE = new FloatAdapter();
 
@@ -41,13 +41,18 @@ public final class FloatAdapter extends AbstractTypeAdapter {
         return ColumnType.FLOAT;
     }
 
+    @Override
+    public long parseLong(DirectByteCharSequence value) throws Exception {
+        return Float.floatToRawIntBits(Numbers.parseFloat(value));
+    }
+
     @Override
     public boolean probe(CharSequence text) {
         throw new UnsupportedOperationException();
     }
 
     @Override
-    public void write(TableWriter.Row row, int column, DirectByteCharSequence value) throws Exception {
-        row.putFloat(column, Numbers.parseFloat(value));
+    public void write(TableWriter.Row row, int column, long value) {
+        row.putFloat(column, Float.intBitsToFloat((int) value));
     }
 }
@@ -30,7 +30,7 @@ import io.questdb.std.Numbers;
 import io.questdb.std.NumericException;
 import io.questdb.std.str.DirectByteCharSequence;
 
-public final class IntAdapter extends AbstractTypeAdapter {
+public final class IntAdapter extends AbstractStatelessTypeAdapter {
 
     public static final IntAdapter INSTANCE = new IntAdapter();
 
@@ -42,6 +42,11 @@ public final class IntAdapter extends AbstractTypeAdapter {
         return ColumnType.INT;
     }
 
+    @Override
+    public long parseLong(DirectByteCharSequence value) throws Exception {
+        return Numbers.parseInt(value);
+    }
+
     @Override
     public boolean probe(CharSequence text) {
         if (text.length() > 2 && text.charAt(0) == '0' && text.charAt(1) != '.') {
@@ -56,7 +61,7 @@ public final class IntAdapter extends AbstractTypeAdapter {
     }
 
     @Override
-    public void write(TableWriter.Row row, int column, DirectByteCharSequence value) throws Exception {
-        row.putInt(column, Numbers.parseInt(value));
+    public void write(TableWriter.Row row, int column, long value) {
+        row.putInt(column, (int) value);
     }
 }
@@ -30,7 +30,7 @@ import io.questdb.std.Numbers;
 import io.questdb.std.NumericException;
 import io.questdb.std.str.DirectByteCharSequence;
 
-public final class LongAdapter extends AbstractTypeAdapter {
+public final class LongAdapter extends AbstractStatelessTypeAdapter {
 
     public static final LongAdapter INSTANCE = new LongAdapter();
 
@@ -42,6 +42,11 @@ public final class LongAdapter extends AbstractTypeAdapter {
         return ColumnType.LONG;
     }
 
+    @Override
+    public long parseLong(DirectByteCharSequence value) throws Exception {
+        return Numbers.parseLong(value);
+    }
+
     @Override
     public boolean probe(CharSequence text) {
         if (text.length() > 2 && text.charAt(0) == '0' && text.charAt(1) != '.') {
@@ -56,7 +61,7 @@ public final class LongAdapter extends AbstractTypeAdapter {
     }
 
     @Override
-    public void write(TableWriter.Row row, int column, DirectByteCharSequence value) throws Exception {
-        row.putLong(column, Numbers.parseLong(value));
+    public void write(TableWriter.Row row, int column, long value) {
+        row.putLong(column, value);
     }
 }
@@ -29,7 +29,7 @@ import io.questdb.cairo.TableWriter;
 import io.questdb.std.Numbers;
 import io.questdb.std.str.DirectByteCharSequence;
 
-public final class ShortAdapter extends AbstractTypeAdapter {
+public final class ShortAdapter extends AbstractStatelessTypeAdapter {
 
     public static final ShortAdapter INSTANCE = new ShortAdapter();
 
@@ -41,13 +41,18 @@ public final class ShortAdapter extends AbstractTypeAdapter {
         return ColumnType.SHORT;
     }
 
+    @Override
+    public long parseLong(DirectByteCharSequence value) throws Exception {
+        return Numbers.parseInt(value);
+    }
+
     @Override
     public boolean probe(CharSequence text) {
         throw new UnsupportedOperationException();
     }
 
     @Override
-    public void write(TableWriter.Row row, int column, DirectByteCharSequence value) throws Exception {
-        row.putShort(column, (short) Numbers.parseInt(value));
+    public void write(TableWriter.Row row, int column, long value) {
+        row.putShort(column, (short) value);
     }
 }
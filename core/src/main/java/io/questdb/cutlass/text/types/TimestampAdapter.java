@@ -32,7 +32,7 @@ import io.questdb.std.microtime.TimestampFormat;
 import io.questdb.std.microtime.TimestampLocale;
 import io.questdb.std.str.DirectByteCharSequence;
 
-public class TimestampAdapter extends AbstractTypeAdapter implements Mutable {
+public class TimestampAdapter extends AbstractStatelessTypeAdapter implements Mutable {
     private TimestampLocale locale;
     private TimestampFormat format;
 
@@ -47,6 +47,11 @@ public class TimestampAdapter extends AbstractTypeAdapter implements Mutable {
         return ColumnType.TIMESTAMP;
     }
 
+    @Override
+    public long parseLong(DirectByteCharSequence value) throws Exception {
+        return format.parse(value, locale);
+    }
+
     @Override
     public boolean probe(CharSequence text) {
         try {
@@ -58,8 +63,8 @@ public class TimestampAdapter extends AbstractTypeAdapter implements Mutable {
     }
 
     @Override
-    public void write(TableWriter.Row row, int column, DirectByteCharSequence value) throws Exception {
-        row.putDate(column, format.parse(value, locale));
+    public void write(TableWriter.Row row, int column, long value) {
+        row.putDate(column, value);
     }
 
     public TimestampAdapter of(TimestampFormat format, TimestampLocale locale) {
@@ -39,7 +39,6 @@ public class InsertStatementImpl implements InsertStatement {
     private final String tableName;
     private final InsertMethodImpl insertMethod = new InsertMethodImpl();
     private final CairoEngine engine;
-    private SqlExecutionContext lastUsedContext;
 
     // todo: recycle these
     public InsertStatementImpl(
@@ -82,7 +81,6 @@ public class InsertStatementImpl implements InsertStatement {
     }
 
     private void initContext(SqlExecutionContext executionContext) {
-        lastUsedContext = executionContext;
         final ObjList<? extends Function> functions = virtualRecord.getFunctions();
         for (int i = 0, n = functions.size(); i < n; i++) {
             functions.getQuick(i).init(null, executionContext);
@@ -94,9 +92,9 @@ public class InsertStatementImpl implements InsertStatement {
 
     @Override
     public InsertMethod createMethod(SqlExecutionContext executionContext) {
-        if (lastUsedContext != executionContext) {
-            initContext(executionContext);
-        }
+        // statement can be cached and executed many times, functions such as now()
+        // and bind variable links are initialised for every batch of rows
+        initContext(executionContext);
 
         final TableWriter writer = engine.getWriter(executionContext.getCairoSecurityContext(), tableName);
         if (writer.getStructureVersion() != getStructureVersion()) {
@@ -107,6 +105,12 @@ public class InsertStatementImpl implements InsertStatement {
         return insertMethod;
     }
 
+    @Override
+    public void close() {
+        Misc.freeObjList(virtualRecord.getFunctions());
+        Misc.free(timestampFunction);
+    }
+
     @FunctionalInterface
     private interface RowFactory {
         TableWriter.Row getRow(TableWriter tableWriter);
@@ -127,6 +131,11 @@ public class InsertStatementImpl implements InsertStatement {
             writer.commit();
         }
 
+        @Override
+        public void rollback() {
+            writer.rollback();
+        }
+
         @Override
         public void close() {
             writer = Misc.free(writer);
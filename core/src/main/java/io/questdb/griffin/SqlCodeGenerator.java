@@ -31,8 +31,11 @@ import io.questdb.griffin.engine.EmptyTableRecordCursorFactory;
 import io.questdb.griffin.engine.LimitRecordCursorFactory;
 import io.questdb.griffin.engine.functions.columns.SymbolColumn;
 import io.questdb.griffin.engine.functions.constants.LongConstant;
+import io.questdb.griffin.engine.functions.jit.FunctionCompiler;
 import io.questdb.griffin.engine.groupby.*;
+import io.questdb.griffin.engine.groupby.vect.*;
 import io.questdb.griffin.engine.join.*;
+import io.questdb.griffin.engine.orderby.LimitedSizeSortedLightRecordCursorFactory;
 import io.questdb.griffin.engine.orderby.RecordComparatorCompiler;
 import io.questdb.griffin.engine.orderby.SortedLightRecordCursorFactory;
 import io.questdb.griffin.engine.orderby.SortedRecordCursorFactory;
@@ -68,6 +71,8 @@ public class SqlCodeGenerator {
     private final ArrayColumnTypes keyTypes = new ArrayColumnTypes();
     private final ArrayColumnTypes valueTypes = new ArrayColumnTypes();
     private final EntityColumnFilter entityColumnFilter = new EntityColumnFilter();
+    private final VectorFilterCompiler vectorFilterCompiler;
+    private final FunctionCompiler functionCompiler;
     private boolean fullFatJoins = false;
 
     public SqlCodeGenerator(
@@ -79,6 +84,12 @@ public class SqlCodeGenerator {
         this.configuration = configuration;
         this.functionParser = functionParser;
         this.recordComparatorCompiler = new RecordComparatorCompiler(asm);
+        this.vectorFilterCompiler = new VectorFilterCompiler(functionParser);
+        this.functionCompiler = new FunctionCompiler(asm);
+    }
+
+    private Function compileFunction(Function function) {
+        return configuration.isSqlJitEnabled() ? functionCompiler.compile(function) : function;
     }
 
     private GenericRecordMetadata copyMetadata(RecordMetadata that) {
@@ -86,6 +97,121 @@ public class SqlCodeGenerator {
         return GenericRecordMetadata.copyOf(that);
     }
 
+    private static VectorAggregateFunction createVectorAggregateFunction(ExpressionNode node, RecordMetadata metadata) {
+        if (node.type != FUNCTION) {
+            return null;
+        }
+
+        if (node.paramCount == 0) {
+            if (Chars.equalsLowerCaseAscii(node.token, "count")) {
+                return new CountVectorAggregateFunction(node.position);
+            }
+            return null;
+        }
+
+        if (node.paramCount != 1 || node.rhs.type != ExpressionNode.LITERAL) {
+            return null;
+        }
+
+        final int columnIndex = metadata.getColumnIndexQuiet(node.rhs.token);
+        if (columnIndex == -1) {
+            return null;
+        }
+
+        // only columns that match function signature exactly, any implicit
+        // conversion would have to be replicated here
+        switch (metadata.getColumnType(columnIndex)) {
+            case ColumnType.DOUBLE:
+                if (Chars.equalsLowerCaseAscii(node.token, "sum")) {
+                    return new SumDoubleVectorAggregateFunction(node.position, columnIndex);
+                }
+                if (Chars.equalsLowerCaseAscii(node.token, "min")) {
+                    return new MinDoubleVectorAggregateFunction(node.position, columnIndex);
+                }
+                if (Chars.equalsLowerCaseAscii(node.token, "max")) {
+                    return new MaxDoubleVectorAggregateFunction(node.position, columnIndex);
+                }
+                return null;
+            case ColumnType.LONG:
+                if (Chars.equalsLowerCaseAscii(node.token, "sum")) {
+                    return new SumLongVectorAggregateFunction(node.position, columnIndex);
+                }
+                if (Chars.equalsLowerCaseAscii(node.token, "min")) {
+                    return new MinLongVectorAggregateFunction(node.position, columnIndex);
+                }
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    private static void extractPartitionStatsFilter(ExpressionNode node, RecordMetadata metadata, PartitionStatsFilter statsFilter) {
+        if (node == null || node.queryModel != null || node.type != ExpressionNode.OPERATION || node.paramCount != 2) {
+            return;
+        }
+
+        if (Chars.equalsLowerCaseAscii(node.token, "and")) {
+            extractPartitionStatsFilter(node.lhs, metadata, statsFilter);
+            extractPartitionStatsFilter(node.rhs, metadata, statsFilter);
+            return;
+        }
+
+        final ExpressionNode column;
+        final ExpressionNode constant;
+        final boolean flip;
+        if (node.lhs.type == ExpressionNode.LITERAL && node.rhs.type == ExpressionNode.CONSTANT) {
+            column = node.lhs;
+            constant = node.rhs;
+            flip = false;
+        } else if (node.lhs.type == ExpressionNode.CONSTANT && node.rhs.type == ExpressionNode.LITERAL) {
+            column = node.rhs;
+            constant = node.lhs;
+            flip = true;
+        } else {
+            return;
+        }
+
+        final int op;
+        if (Chars.equals(node.token, '=')) {
+            op = PartitionStatsFilter.OP_EQ;
+        } else if (Chars.equals(node.token, '<')) {
+            op = flip ? PartitionStatsFilter.OP_GT : PartitionStatsFilter.OP_LT;
+        } else if (Chars.equals(node.token, '>')) {
+            op = flip ? PartitionStatsFilter.OP_LT : PartitionStatsFilter.OP_GT;
+        } else {
+            return;
+        }
+
+        final int columnIndex = metadata.getColumnIndexQuiet(column.token);
+        if (columnIndex == -1) {
+            return;
+        }
+
+        final CharSequence value = constant.token;
+        switch (metadata.getColumnType(columnIndex)) {
+            case ColumnType.INT:
+            case ColumnType.LONG:
+                try {
+                    statsFilter.addLong(columnIndex, op, Numbers.parseLong(value));
+                } catch (NumericException ignore) {
+                    // not an integer constant, comparison cannot be checked against statistics
+                }
+                break;
+            case ColumnType.SYMBOL:
+                if (op == PartitionStatsFilter.OP_EQ && Chars.isQuoted(value)) {
+                    statsFilter.addSymbol(columnIndex, value.subSequence(1, value.length() - 1));
+                }
+                break;
+            case ColumnType.STRING:
+                if (op == PartitionStatsFilter.OP_EQ && Chars.isQuoted(value)) {
+                    statsFilter.addStr(columnIndex, value.subSequence(1, value.length() - 1));
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
     private RecordCursorFactory createAsOfJoin(
             RecordMetadata metadata,
             RecordCursorFactory master,
@@ -261,10 +387,25 @@ public class SqlCodeGenerator {
         valueTypes.add(ColumnType.LONG);
         valueTypes.add(ColumnType.LONG);
 
+        // inner joins copy master records to disk partitions when slave records exceed spill threshold
+        final RecordSink masterChainSink;
+        if (joinType == QueryModel.JOIN_INNER) {
+            entityColumnFilter.of(masterMetadata.getColumnCount());
+            masterChainSink = RecordSinkFactory.getInstance(
+                    asm,
+                    masterMetadata,
+                    entityColumnFilter,
+                    false
+            );
+        } else {
+            masterChainSink = null;
+        }
+
         if (slave.isRandomAccessCursor() && !fullFatJoins) {
             if (joinType == QueryModel.JOIN_INNER) {
                 return new HashJoinLightRecordCursorFactory(
                         configuration,
+                        engine,
                         metadata,
                         master,
                         slave,
@@ -272,7 +413,9 @@ public class SqlCodeGenerator {
                         valueTypes,
                         masterKeySink,
                         slaveKeySink,
-                        masterMetadata.getColumnCount()
+                        masterChainSink,
+                        masterMetadata.getColumnCount(),
+                        configuration.isParallelHashJoinEnabled() ? engine.getWorkScheduler() : null
                 );
             }
 
@@ -307,6 +450,7 @@ public class SqlCodeGenerator {
                     valueTypes,
                     masterKeySink,
                     slaveKeySink,
+                    masterChainSink,
                     slaveSink,
                     masterMetadata.getColumnCount()
             );
@@ -413,7 +557,7 @@ public class SqlCodeGenerator {
         if (filter != null) {
             factory = new FilteredRecordCursorFactory(
                     factory,
-                    functionParser.parseFunction(filter, factory.getMetadata(), executionContext)
+                    compileFunction(functionParser.parseFunction(filter, factory.getMetadata(), executionContext))
             );
         }
 
@@ -545,7 +689,7 @@ public class SqlCodeGenerator {
                 // check if there are post-filters
                 ExpressionNode filter = slaveModel.getPostJoinWhereClause();
                 if (filter != null) {
-                    master = new FilteredRecordCursorFactory(master, functionParser.parseFunction(filter, master.getMetadata(), executionContext));
+                    master = new FilteredRecordCursorFactory(master, compileFunction(functionParser.parseFunction(filter, master.getMetadata(), executionContext)));
                 }
             }
 
@@ -770,12 +914,12 @@ public class SqlCodeGenerator {
         final RecordCursorFactory factory = generateSubQuery(model, executionContext);
         final ExpressionNode filter = model.getWhereClause();
         if (filter != null) {
-            return new FilteredRecordCursorFactory(factory, functionParser.parseFunction(filter, factory.getMetadata(), executionContext));
+            return new FilteredRecordCursorFactory(factory, compileFunction(functionParser.parseFunction(filter, factory.getMetadata(), executionContext)));
         }
         return factory;
     }
 
-    private RecordCursorFactory generateOrderBy(RecordCursorFactory recordCursorFactory, QueryModel model) throws SqlException {
+    private RecordCursorFactory generateOrderBy(RecordCursorFactory recordCursorFactory, QueryModel model, SqlExecutionContext executionContext) throws SqlException {
         try {
             final CharSequenceIntHashMap orderBy = model.getOrderHash();
             final ObjList<CharSequence> columnNames = orderBy.keys();
@@ -843,10 +987,24 @@ public class SqlCodeGenerator {
                 }
 
                 if (recordCursorFactory.isRandomAccessCursor()) {
+                    // constant limit allows us to keep only rows that can be returned
+                    final long limit = getOrderByLimit(model, executionContext);
+                    if (limit != Long.MIN_VALUE) {
+                        return new LimitedSizeSortedLightRecordCursorFactory(
+                                configuration,
+                                orderedMetadata,
+                                recordCursorFactory,
+                                recordComparatorCompiler.compile(metadata, listColumnFilterA),
+                                Math.abs(limit),
+                                limit < 0
+                        );
+                    }
+
                     return new SortedLightRecordCursorFactory(
                             configuration,
                             orderedMetadata,
                             recordCursorFactory,
+                            listColumnFilterA,
                             recordComparatorCompiler.compile(metadata, listColumnFilterA)
                     );
                 }
@@ -867,6 +1025,7 @@ public class SqlCodeGenerator {
                                 entityColumnFilter,
                                 false
                         ),
+                        listColumnFilterA,
                         recordComparatorCompiler.compile(metadata, listColumnFilterA)
                 );
             }
@@ -878,6 +1037,52 @@ public class SqlCodeGenerator {
         }
     }
 
+    private long getConstantLimit(ExpressionNode limit, SqlExecutionContext executionContext) throws SqlException {
+        final Function function = functionParser.parseFunction(limit, EmptyRecordMetadata.INSTANCE, executionContext);
+        try {
+            if (function.isConstant() && !limitTypes.excludes(function.getType())) {
+                return function.getLong(null);
+            }
+            return Long.MIN_VALUE;
+        } finally {
+            function.close();
+        }
+    }
+
+    /**
+     * Number of sorted rows that "limit" clause can return. Negative number denotes rows at the end
+     * of the ordering. Long.MIN_VALUE is returned when limit is not constant or it can return rows
+     * from both ends of the ordering.
+     */
+    private long getOrderByLimit(QueryModel model, SqlExecutionContext executionContext) throws SqlException {
+        final ExpressionNode limitLo = model.getLimitLo();
+        if (limitLo == null) {
+            return Long.MIN_VALUE;
+        }
+
+        final long lo = getConstantLimit(limitLo, executionContext);
+        final ExpressionNode limitHi = model.getLimitHi();
+        if (lo == Long.MIN_VALUE || limitHi == null) {
+            return lo;
+        }
+
+        final long hi = getConstantLimit(limitHi, executionContext);
+        if (hi == Long.MIN_VALUE) {
+            return Long.MIN_VALUE;
+        }
+
+        if (lo > -1 && hi > -1) {
+            // first "hi" rows
+            return Math.max(lo, hi);
+        }
+
+        if (lo < hi && hi < 0) {
+            // last "-lo" rows
+            return lo;
+        }
+        return Long.MIN_VALUE;
+    }
+
     private RecordCursorFactory generateQuery(QueryModel model, SqlExecutionContext executionContext, boolean processJoins) throws SqlException {
         RecordCursorFactory factory = generateQuery0(model, executionContext, processJoins);
         if (model.getUnionModel() != null) {
@@ -894,7 +1099,8 @@ public class SqlCodeGenerator {
                                 executionContext,
                                 processJoins
                         ),
-                        model
+                        model,
+                        executionContext
                 ),
                 model,
                 executionContext
@@ -1127,10 +1333,39 @@ public class SqlCodeGenerator {
                 }
             }
 
+            if (configuration.isVectorAggregationEnabled() && factory instanceof TableReaderRecordCursorFactory) {
+                final RecordCursorFactory vectorAggregateFactory = generateVectorAggregate(model, (TableReaderRecordCursorFactory) factory);
+                if (vectorAggregateFactory != null) {
+                    factory.close();
+                    return vectorAggregateFactory;
+                }
+            }
+
             keyTypes.reset();
             valueTypes.reset();
             listColumnFilterA.clear();
 
+            if (
+                    configuration.isParallelGroupByEnabled()
+                            && engine.getWorkScheduler() != null
+                            && factory instanceof TableReaderRecordCursorFactory
+                            && Chars.equalsLowerCaseAscii(configuration.getDefaultMapType(), "fast")
+            ) {
+                return new ParallelGroupByRecordCursorFactory(
+                        configuration,
+                        engine,
+                        (TableReaderRecordCursorFactory) factory,
+                        model,
+                        listColumnFilterA,
+                        functionParser,
+                        executionContext,
+                        asm,
+                        keyTypes,
+                        valueTypes,
+                        engine.getWorkScheduler()
+                );
+            }
+
             return new GroupByRecordCursorFactory(
                     configuration,
                     factory,
@@ -1177,11 +1412,11 @@ public class SqlCodeGenerator {
                     virtualMetadata.setTimestampIndex(i);
                 }
 
-                final Function function = functionParser.parseFunction(
+                final Function function = compileFunction(functionParser.parseFunction(
                         column.getAst(),
                         metadata,
                         executionContext
-                );
+                ));
                 functions.add(function);
 
 
@@ -1291,8 +1526,25 @@ public class SqlCodeGenerator {
                 }
 
                 Function filter;
+                VectorFilter vectorFilter = null;
+                ObjList<Function> residualFilters = null;
+
+                if (intrinsicModel.filter != null
+                        && latestByColumnCount == 0
+                        && intrinsicModel.keyColumn == null
+                        && configuration.isVectorFilterEnabled()) {
+                    residualFilters = new ObjList<>();
+                    vectorFilter = vectorFilterCompiler.compile(intrinsicModel.filter, metadata, executionContext, residualFilters);
+                    if (vectorFilter != null) {
+                        for (int i = 0, n = residualFilters.size(); i < n; i++) {
+                            residualFilters.setQuick(i, compileFunction(residualFilters.getQuick(i)));
+                        }
+                    }
+                }
 
-                if (intrinsicModel.filter != null) {
+                if (vectorFilter != null) {
+                    filter = null;
+                } else if (intrinsicModel.filter != null) {
                     filter = functionParser.parseFunction(intrinsicModel.filter, metadata, executionContext);
 
                     if (filter.getType() != ColumnType.BOOLEAN) {
@@ -1307,6 +1559,8 @@ public class SqlCodeGenerator {
                         } else {
                             return new EmptyTableRecordCursorFactory(metadata);
                         }
+                    } else {
+                        filter = compileFunction(filter);
                     }
                 } else {
                     filter = null;
@@ -1332,7 +1586,19 @@ public class SqlCodeGenerator {
                 if (intrinsicModel.intervals != null) {
                     dfcFactory = new IntervalFwdDataFrameCursorFactory(engine, tableName, model.getTableVersion(), intrinsicModel.intervals);
                 } else {
-                    dfcFactory = new FullFwdDataFrameCursorFactory(engine, tableName, model.getTableVersion());
+                    final PartitionStatsFilter statsFilter;
+                    if (configuration.isPartitionStatsEnabled() && reader.getPartitionedBy() != PartitionBy.NONE) {
+                        statsFilter = new PartitionStatsFilter();
+                        extractPartitionStatsFilter(intrinsicModel.filter, metadata, statsFilter);
+                    } else {
+                        statsFilter = null;
+                    }
+
+                    if (statsFilter != null && !statsFilter.isEmpty()) {
+                        dfcFactory = new PrunedFwdDataFrameCursorFactory(engine, tableName, model.getTableVersion(), statsFilter);
+                    } else {
+                        dfcFactory = new FullFwdDataFrameCursorFactory(engine, tableName, model.getTableVersion());
+                    }
                 }
 
                 if (intrinsicModel.keyColumn != null) {
@@ -1385,6 +1651,10 @@ public class SqlCodeGenerator {
                     );
                 }
 
+                if (vectorFilter != null) {
+                    return new VectorFilteredRecordCursorFactory(metadata, dfcFactory, vectorFilter, residualFilters);
+                }
+
                 if (filter != null) {
                     // filter lifecycle is managed by top level
                     return new FilteredRecordCursorFactory(new DataFrameRecordCursorFactory(metadata, dfcFactory, new DataFrameRowCursorFactory(), null), filter);
@@ -1418,6 +1688,33 @@ public class SqlCodeGenerator {
         }
     }
 
+    // keyless group-by over full table scan can aggregate column memory directly
+    // when all of its functions have vectorised counterparts
+    private RecordCursorFactory generateVectorAggregate(QueryModel model, TableReaderRecordCursorFactory factory) {
+        final RecordMetadata metadata = factory.getMetadata();
+        final ObjList<QueryColumn> columns = model.getColumns();
+        final ObjList<VectorAggregateFunction> functions = new ObjList<>(columns.size());
+        final GenericRecordMetadata groupByMetadata = new GenericRecordMetadata();
+
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            final QueryColumn column = columns.getQuick(i);
+            final VectorAggregateFunction function = createVectorAggregateFunction(column.getAst(), metadata);
+            if (function == null) {
+                return null;
+            }
+            functions.add(function);
+            groupByMetadata.add(new TableColumnMetadata(Chars.toString(column.getName()), function.getType()));
+        }
+
+        return new VectorAggregateRecordCursorFactory(
+                groupByMetadata,
+                new FullFwdDataFrameCursorFactory(engine, factory.getTableName(), factory.getTableVersion()),
+                functions,
+                engine.getWorkScheduler(),
+                configuration.getWorkStealTimeoutNanos()
+        );
+    }
+
     private RecordCursorFactory generateUnionAllFactory(QueryModel model, RecordCursorFactory masterFactory, SqlExecutionContext executionContext, RecordCursorFactory slaveFactory) throws SqlException {
         validateJoinColumnTypes(model, masterFactory, slaveFactory);
         final RecordCursorFactory unionAllFactory = new UnionAllRecordCursorFactory(masterFactory, slaveFactory);
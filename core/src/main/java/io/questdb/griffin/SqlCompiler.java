@@ -658,6 +658,42 @@ public class SqlCompiler implements Closeable {
         return executor.execute(executionContext);
     }
 
+    /**
+     * Compiles standalone boolean expression, such as "where" clause without the keyword,
+     * against given metadata. Caller owns returned function and must close it.
+     *
+     * @param expression       filter text
+     * @param metadata         metadata of records filter is going to be evaluated against
+     * @param executionContext execution context
+     * @return boolean function
+     * @throws SqlException when expression cannot be parsed or is not boolean
+     */
+    @NotNull
+    public Function compileFilter(
+            @NotNull CharSequence expression,
+            @NotNull RecordMetadata metadata,
+            @NotNull SqlExecutionContext executionContext
+    ) throws SqlException {
+        clear();
+        lexer.of(expression);
+        final ExpressionNode node = parser.expr(lexer, queryModelPool.next());
+        if (node == null) {
+            throw SqlException.$(0, "filter expected");
+        }
+
+        final CharSequence tok = SqlUtil.fetchNext(lexer);
+        if (tok != null) {
+            throw SqlException.$(lexer.lastTokenPosition(), "unexpected token: ").put(tok);
+        }
+
+        final Function filter = functionParser.parseFunction(node, metadata, executionContext);
+        if (filter.getType() != ColumnType.BOOLEAN) {
+            Misc.free(filter);
+            throw SqlException.$(node.position, "boolean expression expected");
+        }
+        return filter;
+    }
+
     public CairoEngine getEngine() {
         return engine;
     }
@@ -675,10 +711,12 @@ public class SqlCompiler implements Closeable {
         CharSequence tableName = GenericLexer.immutableOf(tok);
         try (TableWriter writer = engine.getWriter(executionContext.getCairoSecurityContext(), tableName)) {
 
-            tok = expectToken(lexer, "'add' or 'drop'");
+            tok = expectToken(lexer, "'add', 'alter' or 'drop'");
 
             if (Chars.equalsLowerCaseAscii("add", tok)) {
                 alterTableAddColumn(tableNamePosition, writer);
+            } else if (Chars.equalsLowerCaseAscii("alter", tok)) {
+                alterTableAlterColumn(tableNamePosition, writer);
             } else if (Chars.equalsLowerCaseAscii("drop", tok)) {
                 alterTableDropColumn(tableNamePosition, writer);
             } else {
@@ -687,6 +725,9 @@ public class SqlCompiler implements Closeable {
         } catch (CairoException e) {
             LOG.info().$("failed to lock table for alter: ").$((Sinkable) e).$();
             throw SqlException.$(tableNamePosition, "table '").put(tableName).put("' is busy");
+        } finally {
+            // a failed multi-column alter may still have changed the table
+            engine.bumpStructureVersion();
         }
 
         return compiledQuery.ofAlter();
@@ -812,6 +853,59 @@ public class SqlCompiler implements Closeable {
         } while (true);
     }
 
+    private void alterTableAlterColumn(int tableNamePosition, TableWriter writer) throws SqlException {
+        // only "alter column x add index" is supported for now
+        expectKeyword(lexer, "column");
+
+        CharSequence tok = expectToken(lexer, "column name");
+        final int columnNamePosition = lexer.lastTokenPosition();
+        final RecordMetadata metadata = writer.getMetadata();
+        final int columnIndex = metadata.getColumnIndexQuiet(tok);
+        if (columnIndex == -1) {
+            throw SqlException.invalidColumn(columnNamePosition, tok);
+        }
+
+        CharSequence columnName = GenericLexer.immutableOf(tok);
+
+        expectKeyword(lexer, "add");
+        expectKeyword(lexer, "index");
+
+        if (metadata.getColumnType(columnIndex) != ColumnType.SYMBOL) {
+            throw SqlException.$(columnNamePosition, "indexes are supported only for SYMBOL columns");
+        }
+
+        if (metadata.isColumnIndexed(columnIndex)) {
+            throw SqlException.$(columnNamePosition, "column '").put(columnName).put("' is already indexed");
+        }
+
+        tok = SqlUtil.fetchNext(lexer);
+
+        final int indexValueBlockCapacity;
+        if (Chars.equalsLowerCaseAsciiNc(tok, "capacity")) {
+            tok = expectToken(lexer, "symbol index capacity");
+
+            try {
+                indexValueBlockCapacity = Numbers.parseInt(tok);
+            } catch (NumericException e) {
+                throw SqlException.$(lexer.lastTokenPosition(), "numeric capacity expected");
+            }
+            tok = SqlUtil.fetchNext(lexer);
+        } else {
+            indexValueBlockCapacity = configuration.getIndexValueBlockSize();
+        }
+
+        if (tok != null) {
+            throw SqlException.$(lexer.lastTokenPosition(), "unexpected token: ").put(tok);
+        }
+
+        try {
+            writer.addIndex(columnName, Numbers.ceilPow2(indexValueBlockCapacity));
+        } catch (CairoException e) {
+            LOG.error().$("Cannot add index to '").$(writer.getName()).$('.').$(columnName).$("'. Exception: ").$((Sinkable) e).$();
+            throw SqlException.$(tableNamePosition, "Cannot add index [error=").put(e.getFlyweightMessage()).put(']');
+        }
+    }
+
     private void alterTableDropColumn(int tableNamePosition, TableWriter writer) throws SqlException {
         // add columns to table
         expectKeyword(lexer, "column");
@@ -920,36 +1014,35 @@ public class SqlCompiler implements Closeable {
 
     private void copyTable(SqlExecutionContext executionContext, CopyModel model) throws SqlException {
         try {
-            int len = configuration.getSqlCopyBufferSize();
-            long buf = Unsafe.malloc(len);
+            path.of(GenericLexer.unquote(model.getFileName().token)).$();
+            long fd = ff.openRO(path);
+            if (fd == -1) {
+                throw SqlException.$(model.getFileName().position, "could not open file [errno=").put(Os.errno()).put(']');
+            }
             try {
-                path.of(GenericLexer.unquote(model.getFileName().token)).$();
-                long fd = ff.openRO(path);
-                if (fd == -1) {
-                    throw SqlException.$(model.getFileName().position, "could not open file [errno=").put(Os.errno()).put(']');
-                }
                 long fileLen = ff.length(fd);
-                long n = ff.read(fd, buf, len, 0);
-                if (n > 0) {
-                    textLoader.parse(buf, buf + n, executionContext.getCairoSecurityContext());
-                    textLoader.setState(TextLoader.LOAD_DATA);
-                    int read;
-                    while (n < fileLen) {
-                        read = (int) ff.read(fd, buf, len, n);
-                        if (read < 1) {
-                            throw SqlException.$(model.getFileName().position, "could not read file [errno=").put(ff.errno()).put(']');
-                        }
-                        textLoader.parse(buf, buf + read, executionContext.getCairoSecurityContext());
-                        n += read;
+                if (fileLen > 0) {
+                    // text loader splits mapped file on line ends and parses chunks on worker threads
+                    long address = ff.mmap(fd, fileLen, 0, Files.MAP_RO);
+                    if (address == -1) {
+                        throw SqlException.$(model.getFileName().position, "could not mmap file [errno=").put(ff.errno()).put(']');
+                    }
+                    try {
+                        final int len = configuration.getSqlCopyBufferSize();
+                        textLoader.parseMapped(address, address + fileLen, len, len, executionContext.getCairoSecurityContext());
+                        textLoader.wrapUp();
+                    } finally {
+                        ff.munmap(address, fileLen);
                     }
-                    textLoader.wrapUp();
                 }
             } finally {
-                Unsafe.free(buf, len);
+                ff.close(fd);
             }
         } catch (TextException e) {
             // we do not expect JSON exception here
         } finally {
+            // release table writer
+            textLoader.clear();
             LOG.info().$("copied").$();
         }
     }
@@ -27,6 +27,8 @@ package io.questdb.griffin;
 import io.questdb.griffin.model.ExpressionNode;
 import io.questdb.griffin.model.QueryColumn;
 import io.questdb.std.*;
+import io.questdb.std.str.CharSink;
+import org.jetbrains.annotations.Nullable;
 
 public class SqlUtil {
 
@@ -73,6 +75,93 @@ public class SqlUtil {
         return null;
     }
 
+    /**
+     * Writes key, under which compiled query is cached. Runs of whitespace outside of quotes
+     * and comments are collapsed into single character and leading and trailing whitespace is
+     * dropped, so that queries, which differ only in formatting, share compiled factory. Whitespace
+     * that contains line break is collapsed into line break because line break terminates comment.
+     * Types of bind variables are appended to the key because query is compiled against them.
+     *
+     * @param sink              sink to write key to
+     * @param query             query text
+     * @param bindVariableTypes types of bind variables query is compiled with, can be null
+     */
+    public static void putQueryCacheKey(CharSink sink, CharSequence query, @Nullable IntList bindVariableTypes) {
+        char quote = 0;
+        boolean lineComment = false;
+        boolean blockComment = false;
+        boolean space = false;
+        boolean lineBreak = false;
+        boolean empty = true;
+        for (int i = 0, n = query.length(); i < n; i++) {
+            final char c = query.charAt(i);
+            if (quote != 0) {
+                sink.put(c);
+                if (c == quote) {
+                    quote = 0;
+                }
+                continue;
+            }
+
+            if (blockComment) {
+                sink.put(c);
+                if (c == '*' && i + 1 < n && query.charAt(i + 1) == '/') {
+                    sink.put('/');
+                    i++;
+                    blockComment = false;
+                }
+                continue;
+            }
+
+            if (c == '\n' || c == '\r') {
+                lineComment = false;
+                lineBreak = true;
+                continue;
+            }
+
+            if (lineComment) {
+                sink.put(c);
+                continue;
+            }
+
+            if (c == ' ' || c == '\t') {
+                space = true;
+                continue;
+            }
+
+            if (!empty) {
+                if (lineBreak) {
+                    sink.put('\n');
+                } else if (space) {
+                    sink.put(' ');
+                }
+            }
+            lineBreak = false;
+            space = false;
+            empty = false;
+
+            sink.put(c);
+            if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == '-' && i + 1 < n && query.charAt(i + 1) == '-') {
+                sink.put('-');
+                i++;
+                lineComment = true;
+            } else if (c == '/' && i + 1 < n && query.charAt(i + 1) == '*') {
+                sink.put('*');
+                i++;
+                blockComment = true;
+            }
+        }
+
+        if (bindVariableTypes != null && bindVariableTypes.size() > 0) {
+            sink.put('\u0000');
+            for (int i = 0, n = bindVariableTypes.size(); i < n; i++) {
+                sink.put(bindVariableTypes.getQuick(i)).put(',');
+            }
+        }
+    }
+
     static ExpressionNode nextLiteral(ObjectPool<ExpressionNode> pool, CharSequence token, int position) {
         return pool.next().of(ExpressionNode.LITERAL, token, 0, position);
     }
@@ -39,6 +39,11 @@ public class LimitRecordCursorFactory extends AbstractRecordCursorFactory {
         this.cursor = new LimitRecordCursor(loFunction, hiFunction);
     }
 
+    @Override
+    public void close() {
+        base.close();
+    }
+
     @Override
     public RecordCursor getCursor(SqlExecutionContext executionContext) {
         cursor.of(base.getCursor(executionContext), executionContext);
@@ -34,6 +34,25 @@ public interface GroupByFunction extends Function {
 
     void computeNext(MapValue mapValue, Record record);
 
+    /**
+     * @return true when partial values computed over disjoint sets of rows can be combined via
+     * {@link #merge(MapValue, MapValue)}. Order-sensitive functions must return false.
+     */
+    default boolean isMergeable() {
+        return false;
+    }
+
+    /**
+     * Combines partial value of the same key computed by another map into destination value.
+     * Both values have the same layout, which is defined by {@link #pushValueTypes(ArrayColumnTypes)}.
+     *
+     * @param destValue value to be updated
+     * @param srcValue  value computed over rows that follow rows of destination value
+     */
+    default void merge(MapValue destValue, MapValue srcValue) {
+        throw new UnsupportedOperationException();
+    }
+
     void pushValueTypes(ArrayColumnTypes columnTypes);
 
     default void setByte(MapValue mapValue, byte value) {
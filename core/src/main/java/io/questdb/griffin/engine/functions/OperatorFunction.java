@@ -0,0 +1,62 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions;
+
+import io.questdb.cairo.sql.Function;
+
+/**
+ * Function that applies primitive operator to its arguments, for example sum of two doubles.
+ * Functions compiler evaluates operators in generated code instead of calling them. Operator
+ * codes continue instruction codes of the compiler. Functions that are not operators, or
+ * report code compiler does not know, are called from generated code as they are.
+ */
+public interface OperatorFunction extends Function {
+    int ADD_DOUBLE = 5;
+    int SUB_DOUBLE = 6;
+    int MUL_DOUBLE = 7;
+    int DIV_DOUBLE = 8;
+    int ADD_FLOAT = 9;
+    int MUL_FLOAT = 10;
+    int ADD_INT = 11;
+    int SUB_INT = 12;
+    int MUL_INT = 13;
+    int ADD_LONG = 14;
+    int SUB_LONG = 15;
+    int MUL_LONG = 16;
+    int DIV_LONG = 17;
+    int LT_DOUBLE = 18;
+    int GT_DOUBLE = 19;
+    int EQ_DOUBLE = 20;
+    int EQ_INT = 21;
+    int EQ_LONG = 22;
+    int IS_NULL_INT = 23;
+    int IS_NULL_LONG = 24;
+    int IS_NAN_FLOAT = 25;
+    int IS_NAN_DOUBLE = 26;
+    int AND = 27;
+    int OR = 28;
+
+    int getOperator();
+}
@@ -31,9 +31,20 @@ import io.questdb.std.*;
 public class BindVariableService {
     private final CharSequenceObjHashMap<Function> namedVariables = new CharSequenceObjHashMap<>();
     private final ObjList<Function> indexedVariables = new ObjList<>();
+    private final ObjList<Function> recycledIndexedVariables = new ObjList<>();
 
     public void clear() {
         namedVariables.clear();
+        // parameter link functions resolve variable once at init(), insert statement
+        // that executes many times does not init again. We keep variable instances so that
+        // setting variable of the same type at the same index after clear() updates
+        // the instance such statements link to.
+        for (int i = 0, n = indexedVariables.size(); i < n; i++) {
+            final Function function = indexedVariables.getQuick(i);
+            if (function != null) {
+                recycledIndexedVariables.extendAndSet(i, function);
+            }
+        }
         indexedVariables.clear();
     }
 
@@ -75,6 +86,7 @@ public class BindVariableService {
     }
 
     public void setBin(int index, BinarySequence value) {
+        recycle(index, ColumnType.BINARY);
         if (index < indexedVariables.size()) {
             Function function = indexedVariables.getQuick(index);
             if (function == null) {
@@ -104,6 +116,7 @@ public class BindVariableService {
     }
 
     public void setBoolean(int index, boolean value) {
+        recycle(index, ColumnType.BOOLEAN);
         if (index < indexedVariables.size()) {
             Function function = indexedVariables.getQuick(index);
             if (function == null) {
@@ -133,6 +146,7 @@ public class BindVariableService {
     }
 
     public void setByte(int index, byte value) {
+        recycle(index, ColumnType.BYTE);
         if (index < indexedVariables.size()) {
             Function function = indexedVariables.getQuick(index);
             if (function == null) {
@@ -176,6 +190,7 @@ public class BindVariableService {
     }
 
     public void setDate(int index, long value) {
+        recycle(index, ColumnType.DATE);
         if (index < indexedVariables.size()) {
             Function function = indexedVariables.getQuick(index);
             if (function == null) {
@@ -205,6 +220,7 @@ public class BindVariableService {
     }
 
     public void setDouble(int index, double value) {
+        recycle(index, ColumnType.DOUBLE);
         if (index < indexedVariables.size()) {
             Function function = indexedVariables.getQuick(index);
             if (function == null) {
@@ -234,6 +250,7 @@ public class BindVariableService {
     }
 
     public void setFloat(int index, float value) {
+        recycle(index, ColumnType.FLOAT);
         if (index < indexedVariables.size()) {
             Function function = indexedVariables.getQuick(index);
             if (function == null) {
@@ -299,6 +316,7 @@ public class BindVariableService {
     }
 
     public void setInt(int index, int value) {
+        recycle(index, ColumnType.INT);
         if (index < indexedVariables.size()) {
             Function function = indexedVariables.getQuick(index);
             if (function == null) {
@@ -314,6 +332,7 @@ public class BindVariableService {
     }
 
     public void setLong256(int index, long l0, long l1, long l2, long l3) {
+        recycle(index, ColumnType.LONG256);
         if (index < indexedVariables.size()) {
             Function function = indexedVariables.getQuick(index);
             if (function == null) {
@@ -333,6 +352,7 @@ public class BindVariableService {
     }
 
     public void setChar(int index, char value) {
+        recycle(index, ColumnType.CHAR);
         if (index < indexedVariables.size()) {
             Function function = indexedVariables.getQuick(index);
             if (function == null) {
@@ -362,6 +382,7 @@ public class BindVariableService {
     }
 
     public void setLong(int index, long value) {
+        recycle(index, ColumnType.LONG);
         if (index < indexedVariables.size()) {
             Function function = indexedVariables.getQuick(index);
             if (function == null) {
@@ -377,6 +398,7 @@ public class BindVariableService {
     }
 
     public void setShort(int index, short value) {
+        recycle(index, ColumnType.SHORT);
         if (index < indexedVariables.size()) {
             Function function = indexedVariables.getQuick(index);
             if (function == null) {
@@ -406,6 +428,7 @@ public class BindVariableService {
     }
 
     public void setStr(int index, CharSequence value) {
+        recycle(index, ColumnType.STRING);
         if (index < indexedVariables.size()) {
             Function function = indexedVariables.getQuick(index);
             if (function == null) {
@@ -435,6 +458,7 @@ public class BindVariableService {
     }
 
     public void setTimestamp(int index, long value) {
+        recycle(index, ColumnType.TIMESTAMP);
         if (index < indexedVariables.size()) {
             Function function = indexedVariables.getQuick(index);
             if (function == null) {
@@ -462,4 +486,13 @@ public class BindVariableService {
             }
         }
     }
+
+    private void recycle(int index, int type) {
+        if (index < recycledIndexedVariables.size() && getFunction(index) == null) {
+            final Function function = recycledIndexedVariables.getQuick(index);
+            if (function != null && function.getType() == type) {
+                indexedVariables.extendAndSet(index, function);
+            }
+        }
+    }
 }
@@ -30,6 +30,7 @@ import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.engine.functions.BinaryFunction;
 import io.questdb.griffin.engine.functions.BooleanFunction;
+import io.questdb.griffin.engine.functions.OperatorFunction;
 import io.questdb.griffin.engine.functions.constants.BooleanConstant;
 import io.questdb.std.ObjList;
 
@@ -59,7 +60,7 @@ public class AndFunctionFactory implements FunctionFactory {
         return new MyBooleanFunction(position, leftFunc, rightFunc);
     }
 
-    private static class MyBooleanFunction extends BooleanFunction implements BinaryFunction {
+    private static class MyBooleanFunction extends BooleanFunction implements BinaryFunction, OperatorFunction {
         final Function left;
         final Function right;
 
@@ -79,6 +80,11 @@ public class AndFunctionFactory implements FunctionFactory {
             return left;
         }
 
+        @Override
+        public int getOperator() {
+            return OperatorFunction.AND;
+        }
+
         @Override
         public Function getRight() {
             return right;
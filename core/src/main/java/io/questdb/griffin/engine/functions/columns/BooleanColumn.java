@@ -36,6 +36,10 @@ public class BooleanColumn extends BooleanFunction implements StatelessFunction
         this.columnIndex = columnIndex;
     }
 
+    public int getColumnIndex() {
+        return columnIndex;
+    }
+
     @Override
     public boolean getBool(Record rec) {
         return rec.getBool(columnIndex);
@@ -36,6 +36,10 @@ public class FloatColumn extends FloatFunction implements StatelessFunction {
         this.columnIndex = columnIndex;
     }
 
+    public int getColumnIndex() {
+        return columnIndex;
+    }
+
     @Override
     public float getFloat(Record rec) {
         return rec.getFloat(columnIndex);
@@ -31,6 +31,7 @@ import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.engine.functions.BinaryFunction;
 import io.questdb.griffin.engine.functions.BooleanFunction;
+import io.questdb.griffin.engine.functions.OperatorFunction;
 import io.questdb.griffin.engine.functions.UnaryFunction;
 import io.questdb.std.Numbers;
 import io.questdb.std.ObjList;
@@ -88,7 +89,7 @@ public class EqDoubleFunctionFactory implements FunctionFactory {
         return new Func(position, args.getQuick(0), args.getQuick(1));
     }
 
-    private static class Func extends BooleanFunction implements BinaryFunction {
+    private static class Func extends BooleanFunction implements BinaryFunction, OperatorFunction {
         private final Function left;
         private final Function right;
 
@@ -110,13 +111,18 @@ public class EqDoubleFunctionFactory implements FunctionFactory {
             return left;
         }
 
+        @Override
+        public int getOperator() {
+            return OperatorFunction.EQ_DOUBLE;
+        }
+
         @Override
         public Function getRight() {
             return right;
         }
     }
 
-    private static class FuncIntIsNaN extends BooleanFunction implements UnaryFunction {
+    private static class FuncIntIsNaN extends BooleanFunction implements UnaryFunction, OperatorFunction {
         private final Function arg;
 
         public FuncIntIsNaN(int position, Function arg) {
@@ -133,9 +139,14 @@ public class EqDoubleFunctionFactory implements FunctionFactory {
         public Function getArg() {
             return arg;
         }
+
+        @Override
+        public int getOperator() {
+            return OperatorFunction.IS_NULL_INT;
+        }
     }
 
-    private static class FuncLongIsNaN extends BooleanFunction implements UnaryFunction {
+    private static class FuncLongIsNaN extends BooleanFunction implements UnaryFunction, OperatorFunction {
         private final Function arg;
 
         public FuncLongIsNaN(int position, Function arg) {
@@ -152,6 +163,11 @@ public class EqDoubleFunctionFactory implements FunctionFactory {
         public Function getArg() {
             return arg;
         }
+
+        @Override
+        public int getOperator() {
+            return OperatorFunction.IS_NULL_LONG;
+        }
     }
 
     private static class FuncDateIsNaN extends BooleanFunction implements UnaryFunction {
@@ -192,7 +208,7 @@ public class EqDoubleFunctionFactory implements FunctionFactory {
         }
     }
 
-    private static class FuncFloatIsNaN extends BooleanFunction implements UnaryFunction {
+    private static class FuncFloatIsNaN extends BooleanFunction implements UnaryFunction, OperatorFunction {
         private final Function arg;
 
         public FuncFloatIsNaN(int position, Function arg) {
@@ -209,9 +225,14 @@ public class EqDoubleFunctionFactory implements FunctionFactory {
         public Function getArg() {
             return arg;
         }
+
+        @Override
+        public int getOperator() {
+            return OperatorFunction.IS_NAN_FLOAT;
+        }
     }
 
-    private static class FuncDoubleIsNaN extends BooleanFunction implements UnaryFunction {
+    private static class FuncDoubleIsNaN extends BooleanFunction implements UnaryFunction, OperatorFunction {
         private final Function arg;
 
         public FuncDoubleIsNaN(int position, Function arg) {
@@ -228,5 +249,10 @@ public class EqDoubleFunctionFactory implements FunctionFactory {
         public Function getArg() {
             return arg;
         }
+
+        @Override
+        public int getOperator() {
+            return OperatorFunction.IS_NAN_DOUBLE;
+        }
     }
 }
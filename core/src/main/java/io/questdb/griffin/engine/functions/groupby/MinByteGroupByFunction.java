@@ -56,6 +56,20 @@ public class MinByteGroupByFunction extends ByteFunction implements GroupByFunct
         }
     }
 
+    @Override
+    public boolean isMergeable() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        byte min = destValue.getByte(valueIndex);
+        byte next = srcValue.getByte(valueIndex);
+        if (next < min) {
+            destValue.putByte(valueIndex, next);
+        }
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
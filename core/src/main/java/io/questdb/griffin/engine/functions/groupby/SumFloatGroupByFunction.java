@@ -52,6 +52,16 @@ public class SumFloatGroupByFunction extends FloatFunction implements GroupByFun
         mapValue.addFloat(valueIndex, value.getFloat(record));
     }
 
+    @Override
+    public boolean isMergeable() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        destValue.addFloat(valueIndex, srcValue.getFloat(valueIndex));
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -53,6 +53,16 @@ public class SumIntGroupByFunction extends IntFunction implements GroupByFunctio
         mapValue.addInt(valueIndex, value.getInt(record));
     }
 
+    @Override
+    public boolean isMergeable() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        destValue.addInt(valueIndex, srcValue.getInt(valueIndex));
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -52,6 +52,16 @@ public class SumShortGroupByFunction extends ShortFunction implements GroupByFun
         mapValue.addShort(valueIndex, value.getShort(record));
     }
 
+    @Override
+    public boolean isMergeable() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        destValue.addShort(valueIndex, srcValue.getShort(valueIndex));
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -30,6 +30,7 @@ import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.engine.functions.BinaryFunction;
 import io.questdb.griffin.engine.functions.BooleanFunction;
+import io.questdb.griffin.engine.functions.OperatorFunction;
 import io.questdb.std.ObjList;
 
 public class GtDoubleFunctionFactory implements FunctionFactory {
@@ -43,7 +44,7 @@ public class GtDoubleFunctionFactory implements FunctionFactory {
         return new FuncVV(position, args.getQuick(0), args.getQuick(1));
     }
 
-    private static class FuncVV extends BooleanFunction implements BinaryFunction {
+    private static class FuncVV extends BooleanFunction implements BinaryFunction, OperatorFunction {
         private final Function left;
         private final Function right;
 
@@ -63,6 +64,11 @@ public class GtDoubleFunctionFactory implements FunctionFactory {
             return left;
         }
 
+        @Override
+        public int getOperator() {
+            return OperatorFunction.GT_DOUBLE;
+        }
+
         @Override
         public Function getRight() {
             return right;
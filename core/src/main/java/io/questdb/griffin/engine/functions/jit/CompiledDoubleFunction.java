@@ -0,0 +1,68 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.jit;
+
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.DoubleFunction;
+
+/**
+ * Superclass of generated double functions, see {@link CompiledBooleanFunction}.
+ */
+public abstract class CompiledDoubleFunction extends DoubleFunction implements CompiledFunction {
+    protected Function[] args;
+    private Function base;
+
+    public CompiledDoubleFunction() {
+        super(0);
+    }
+
+    @Override
+    public void close() {
+        base.close();
+    }
+
+    @Override
+    public int getPosition() {
+        return base.getPosition();
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) {
+        base.init(symbolTableSource, executionContext);
+    }
+
+    @Override
+    public void toTop() {
+        base.toTop();
+    }
+
+    @Override
+    public void of(Function base, Function[] args) {
+        this.base = base;
+        this.args = args;
+    }
+}
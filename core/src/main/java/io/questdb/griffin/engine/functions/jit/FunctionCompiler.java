@@ -0,0 +1,731 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.jit;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.engine.functions.BinaryFunction;
+import io.questdb.griffin.engine.functions.OperatorFunction;
+import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.griffin.engine.functions.columns.*;
+import io.questdb.std.*;
+import io.questdb.std.ex.BytecodeException;
+
+/**
+ * Compiles function tree into a class that evaluates the whole tree in one method. Column reads,
+ * constants and arithmetic over primitive types become plain bytecode, which JIT can inline and
+ * optimise as a single piece of code. Interpreted tree is a chain of megamorphic Function calls
+ * HotSpot cannot inline. Functions compiler does not know are called from generated code as they
+ * are, so compiled function is always equivalent to the original.
+ * <p>
+ * Generated code has no branches. NaN-aware arithmetic and comparisons call static helpers,
+ * which JIT inlines, and "and"/"or" are inlined only when both sides are free of function calls.
+ * Evaluating both sides is then cheaper than short-circuiting and cannot have side effects.
+ */
+public class FunctionCompiler {
+    private static final int OP_COLUMN = 1;
+    private static final int OP_CONSTANT = 2;
+    private static final int OP_CALL = 3;
+    private static final int OP_CONVERT = 4;
+    // operators reported by functions, ops below this value are not worth compiling on their own
+    private static final int OP_ADD_DOUBLE = OperatorFunction.ADD_DOUBLE;
+    private static final int OP_SUB_DOUBLE = OperatorFunction.SUB_DOUBLE;
+    private static final int OP_MUL_DOUBLE = OperatorFunction.MUL_DOUBLE;
+    private static final int OP_DIV_DOUBLE = OperatorFunction.DIV_DOUBLE;
+    private static final int OP_ADD_FLOAT = OperatorFunction.ADD_FLOAT;
+    private static final int OP_MUL_FLOAT = OperatorFunction.MUL_FLOAT;
+    private static final int OP_ADD_INT = OperatorFunction.ADD_INT;
+    private static final int OP_SUB_INT = OperatorFunction.SUB_INT;
+    private static final int OP_MUL_INT = OperatorFunction.MUL_INT;
+    private static final int OP_ADD_LONG = OperatorFunction.ADD_LONG;
+    private static final int OP_SUB_LONG = OperatorFunction.SUB_LONG;
+    private static final int OP_MUL_LONG = OperatorFunction.MUL_LONG;
+    private static final int OP_DIV_LONG = OperatorFunction.DIV_LONG;
+    private static final int OP_LT = OperatorFunction.LT_DOUBLE;
+    private static final int OP_GT = OperatorFunction.GT_DOUBLE;
+    private static final int OP_EQ_DOUBLE = OperatorFunction.EQ_DOUBLE;
+    private static final int OP_EQ_INT = OperatorFunction.EQ_INT;
+    private static final int OP_EQ_LONG = OperatorFunction.EQ_LONG;
+    private static final int OP_IS_NULL_INT = OperatorFunction.IS_NULL_INT;
+    private static final int OP_IS_NULL_LONG = OperatorFunction.IS_NULL_LONG;
+    private static final int OP_IS_NAN_FLOAT = OperatorFunction.IS_NAN_FLOAT;
+    private static final int OP_IS_NAN_DOUBLE = OperatorFunction.IS_NAN_DOUBLE;
+    private static final int OP_AND = OperatorFunction.AND;
+    private static final int OP_OR = OperatorFunction.OR;
+    private static final int OP_COUNT = OperatorFunction.OR + 1;
+    private static final ObjIntHashMap<Class<?>> columnOps = new ObjIntHashMap<>();
+    private static final int[] operandCounts = new int[OP_COUNT];
+    private static final int[] operandTypes = new int[OP_COUNT];
+    private static final int[] resultTypes = new int[OP_COUNT];
+    private final BytecodeAssembler asm;
+    // instructions in the order of evaluation, operator follows its operands
+    private final IntList ops = new IntList();
+    private final IntList types = new IntList();
+    private final LongList values = new LongList();
+    private final IntList poolIndices = new IntList();
+    private final IntList recordAccessorIndices = new IntList(ColumnType.DOUBLE + 1);
+    private final IntList functionAccessorIndices = new IntList(ColumnType.DOUBLE + 1);
+    private final IntList helperIndices = new IntList(OP_COUNT);
+    private final ObjList<Function> callArgs = new ObjList<>();
+    private int depth;
+    private int maxDepth;
+
+    public FunctionCompiler(BytecodeAssembler asm) {
+        this.asm = asm;
+    }
+
+    public static int addInt(int l, int r) {
+        return l == Numbers.INT_NaN || r == Numbers.INT_NaN ? Numbers.INT_NaN : l + r;
+    }
+
+    public static long addLong(long l, long r) {
+        return l == Numbers.LONG_NaN || r == Numbers.LONG_NaN ? Numbers.LONG_NaN : l + r;
+    }
+
+    public static long divLong(long l, long r) {
+        return l == Numbers.LONG_NaN || r == Numbers.LONG_NaN || r == 0 ? Numbers.LONG_NaN : l / r;
+    }
+
+    public static boolean eq(double l, double r) {
+        return l != l && r != r || Math.abs(l - r) < 0.0000000001;
+    }
+
+    public static boolean eq(int l, int r) {
+        return l == r;
+    }
+
+    public static boolean eq(long l, long r) {
+        return l == r;
+    }
+
+    public static boolean gt(double l, double r) {
+        return l > r;
+    }
+
+    public static boolean isNull(int value) {
+        return value == Numbers.INT_NaN;
+    }
+
+    public static boolean isNull(long value) {
+        return value == Numbers.LONG_NaN;
+    }
+
+    public static boolean lt(double l, double r) {
+        return l < r;
+    }
+
+    public static int subInt(int l, int r) {
+        return l == Numbers.INT_NaN || r == Numbers.INT_NaN ? Numbers.INT_NaN : l - r;
+    }
+
+    public static long subLong(long l, long r) {
+        return l == Numbers.LONG_NaN || r == Numbers.LONG_NaN ? Numbers.LONG_NaN : l - r;
+    }
+
+    /**
+     * Compiles function into a class. Functions that would not benefit from compilation,
+     * such as columns, constants and functions compiler does not know, are returned as is.
+     * Compiled function takes ownership of the original function and closes it.
+     *
+     * @param function function to compile
+     * @return compiled function or the original function
+     */
+    public Function compile(Function function) {
+        final Class<?> superclass;
+        final int type = function.getType();
+        switch (type) {
+            case ColumnType.BOOLEAN:
+                superclass = CompiledBooleanFunction.class;
+                break;
+            case ColumnType.INT:
+                superclass = CompiledIntFunction.class;
+                break;
+            case ColumnType.LONG:
+                superclass = CompiledLongFunction.class;
+                break;
+            case ColumnType.DOUBLE:
+                superclass = CompiledDoubleFunction.class;
+                break;
+            default:
+                return function;
+        }
+
+        if (function.isConstant() || getOperator(function) < OP_ADD_DOUBLE) {
+            return function;
+        }
+
+        ops.clear();
+        types.clear();
+        values.clear();
+        callArgs.clear();
+        depth = 0;
+        maxDepth = 0;
+        build(function, type);
+
+        // root operator could not be inlined, e.g. "and" over function calls
+        if (ops.getLast() == OP_CALL) {
+            return function;
+        }
+
+        try {
+            return assemble(function, superclass);
+        } catch (BytecodeException e) {
+            return function;
+        }
+    }
+
+    private static String accessorName(int type) {
+        switch (type) {
+            case ColumnType.BOOLEAN:
+                return "getBool";
+            case ColumnType.BYTE:
+                return "getByte";
+            case ColumnType.SHORT:
+                return "getShort";
+            case ColumnType.INT:
+                return "getInt";
+            case ColumnType.LONG:
+                return "getLong";
+            case ColumnType.FLOAT:
+                return "getFloat";
+            default:
+                return "getDouble";
+        }
+    }
+
+    private static char descriptor(int type) {
+        switch (type) {
+            case ColumnType.BOOLEAN:
+                return 'Z';
+            case ColumnType.BYTE:
+                return 'B';
+            case ColumnType.SHORT:
+                return 'S';
+            case ColumnType.INT:
+                return 'I';
+            case ColumnType.LONG:
+                return 'J';
+            case ColumnType.FLOAT:
+                return 'F';
+            default:
+                return 'D';
+        }
+    }
+
+    private static int getColumnIndex(Function function) {
+        switch (function.getType()) {
+            case ColumnType.BOOLEAN:
+                return ((BooleanColumn) function).getColumnIndex();
+            case ColumnType.BYTE:
+                return ((ByteColumn) function).getColumnIndex();
+            case ColumnType.SHORT:
+                return ((ShortColumn) function).getColumnIndex();
+            case ColumnType.INT:
+                return ((IntColumn) function).getColumnIndex();
+            case ColumnType.LONG:
+                return ((LongColumn) function).getColumnIndex();
+            case ColumnType.FLOAT:
+                return ((FloatColumn) function).getColumnIndex();
+            default:
+                return ((DoubleColumn) function).getColumnIndex();
+        }
+    }
+
+    // operator the function has to be compiled as or -1 when function is called from generated code
+    private static int getOperator(Function function) {
+        if (function instanceof OperatorFunction) {
+            final int op = ((OperatorFunction) function).getOperator();
+            // operator code has to agree with the shape of the function, unknown operators are not compiled
+            if (op < OP_ADD_DOUBLE || op >= OP_COUNT || function.getType() != resultTypes[op]) {
+                return -1;
+            }
+            if (operandCounts[op] == 1 ? function instanceof UnaryFunction : function instanceof BinaryFunction) {
+                return op;
+            }
+            return -1;
+        }
+        return columnOps.get(function.getClass());
+    }
+
+    // mirrors widening done by getters of function base classes, e.g. IntFunction.getDouble()
+    private static boolean isConvertible(int from, int to) {
+        if (from == to) {
+            return true;
+        }
+        switch (to) {
+            case ColumnType.INT:
+                return from == ColumnType.BYTE || from == ColumnType.SHORT;
+            case ColumnType.LONG:
+                return from == ColumnType.BYTE || from == ColumnType.SHORT || from == ColumnType.INT;
+            case ColumnType.FLOAT:
+                return from == ColumnType.BYTE || from == ColumnType.SHORT || from == ColumnType.INT || from == ColumnType.LONG;
+            case ColumnType.DOUBLE:
+                return from == ColumnType.BYTE || from == ColumnType.SHORT || from == ColumnType.INT || from == ColumnType.LONG || from == ColumnType.FLOAT;
+            default:
+                return false;
+        }
+    }
+
+    private static void registerOperator(int op, int operandCount, int operandType, int resultType) {
+        operandCounts[op] = operandCount;
+        operandTypes[op] = operandType;
+        resultTypes[op] = resultType;
+    }
+
+    // stack slots taken by value of the type
+    private static int slots(int type) {
+        return type == ColumnType.LONG || type == ColumnType.DOUBLE ? 2 : 1;
+    }
+
+    // int, long, float and double values are distinct on the stack, smaller types are ints
+    private static int stackType(int type) {
+        switch (type) {
+            case ColumnType.LONG:
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+                return type;
+            default:
+                return ColumnType.INT;
+        }
+    }
+
+    private void add(int op, int type, long value, int operandSlots) {
+        ops.add(op);
+        types.add(type);
+        values.add(value);
+        // loading any value takes at most two extra slots, e.g. record and column index
+        maxDepth = Math.max(maxDepth, depth + 2);
+        depth += slots(type) - operandSlots;
+        maxDepth = Math.max(maxDepth, depth);
+    }
+
+    private void addCall(Function function, int type) {
+        add(OP_CALL, type, callArgs.size(), 0);
+        callArgs.add(function);
+    }
+
+    private void addConstant(Function function, int type) {
+        switch (type) {
+            case ColumnType.BOOLEAN:
+                add(OP_CONSTANT, type, function.getBool(null) ? 1 : 0, 0);
+                break;
+            case ColumnType.INT:
+                add(OP_CONSTANT, type, function.getInt(null), 0);
+                break;
+            case ColumnType.LONG:
+                add(OP_CONSTANT, type, function.getLong(null), 0);
+                break;
+            case ColumnType.FLOAT:
+                add(OP_CONSTANT, type, Double.doubleToRawLongBits(function.getFloat(null)), 0);
+                break;
+            default:
+                add(OP_CONSTANT, type, Double.doubleToRawLongBits(function.getDouble(null)), 0);
+                break;
+        }
+    }
+
+    private void addOperator(int op, int arity) {
+        add(op, resultTypes[op], 0, arity * slots(operandTypes[op]));
+    }
+
+    private Function assemble(Function function, Class<?> superclass) {
+        final int type = function.getType();
+        asm.init(superclass);
+        asm.setupPool();
+        final int thisClassIndex = asm.poolClass(asm.poolUtf8("io/questdb/griffin/engine/functions/jit/CompiledFunctionAsm"));
+        final int superclassIndex = asm.poolClass(superclass);
+        final int superIndex = asm.poolMethod(superclassIndex, "<init>", "()V");
+        // field is referenced via generated class, verifier cannot resolve it to check receiver type against superclass
+        final int argsIndex = asm.poolField(thisClassIndex, asm.poolNameAndType(asm.poolUtf8("args"), asm.poolUtf8("[Lio/questdb/cairo/sql/Function;")));
+        final int nameIndex = asm.poolUtf8(accessorName(type));
+        final int descIndex = asm.poolUtf8().put("(Lio/questdb/cairo/sql/Record;)").put(descriptor(type)).$();
+        poolInstructions();
+        asm.finishPool();
+
+        asm.defineClass(thisClassIndex, superclassIndex);
+        asm.interfaceCount(0);
+        asm.fieldCount(0);
+        asm.methodCount(2);
+        asm.defineDefaultConstructor(superIndex);
+
+        asm.startMethod(nameIndex, descIndex, maxDepth, 2);
+        emitInstructions(argsIndex);
+        switch (type) {
+            case ColumnType.LONG:
+                asm.lreturn();
+                break;
+            case ColumnType.DOUBLE:
+                asm.dreturn();
+                break;
+            default:
+                asm.ireturn();
+                break;
+        }
+        asm.endMethodCode();
+        // exceptions
+        asm.putShort(0);
+        // attributes
+        asm.putShort(0);
+        asm.endMethod();
+
+        // class attribute count
+        asm.putShort(0);
+
+        final Function[] args = new Function[callArgs.size()];
+        for (int i = 0, n = args.length; i < n; i++) {
+            args[i] = callArgs.getQuick(i);
+        }
+        final CompiledFunction compiled = asm.newInstance();
+        compiled.of(function, args);
+        return compiled;
+    }
+
+    private void build(Function function, int type) {
+        final int naturalType = function.getType();
+        if (!isConvertible(naturalType, type)) {
+            addCall(function, type);
+            return;
+        }
+
+        if (function.isConstant()) {
+            addConstant(function, type);
+            return;
+        }
+
+        final int op = getOperator(function);
+        switch (op) {
+            case -1:
+                addCall(function, type);
+                return;
+            case OP_COLUMN:
+                add(OP_COLUMN, naturalType, getColumnIndex(function), 0);
+                break;
+            case OP_AND:
+            case OP_OR:
+                if (!isInline(function, type)) {
+                    addCall(function, type);
+                    return;
+                }
+                // fall through
+            default:
+                if (function instanceof UnaryFunction) {
+                    build(((UnaryFunction) function).getArg(), operandTypes[op]);
+                    addOperator(op, 1);
+                } else {
+                    final BinaryFunction binary = (BinaryFunction) function;
+                    build(binary.getLeft(), operandTypes[op]);
+                    build(binary.getRight(), operandTypes[op]);
+                    addOperator(op, 2);
+                }
+                break;
+        }
+
+        if (stackType(naturalType) != stackType(type)) {
+            add(OP_CONVERT, type, naturalType, slots(naturalType));
+        }
+    }
+
+    private void emitConstant(int type, long value, int poolIndex) {
+        switch (type) {
+            case ColumnType.BOOLEAN:
+            case ColumnType.INT:
+                if (poolIndex == -1) {
+                    asm.iconst((int) value);
+                } else {
+                    asm.ldc2_w(poolIndex);
+                    asm.l2i();
+                }
+                break;
+            case ColumnType.FLOAT:
+                asm.ldc2_w(poolIndex);
+                asm.d2f();
+                break;
+            default:
+                asm.ldc2_w(poolIndex);
+                break;
+        }
+    }
+
+    private void emitConversion(int from, int to) {
+        switch (stackType(from)) {
+            case ColumnType.INT:
+                switch (to) {
+                    case ColumnType.LONG:
+                        asm.i2l();
+                        break;
+                    case ColumnType.FLOAT:
+                        asm.i2f();
+                        break;
+                    default:
+                        asm.i2d();
+                        break;
+                }
+                break;
+            case ColumnType.LONG:
+                if (to == ColumnType.FLOAT) {
+                    asm.l2f();
+                } else {
+                    asm.l2d();
+                }
+                break;
+            default:
+                asm.f2d();
+                break;
+        }
+    }
+
+    private void emitInstructions(int argsIndex) {
+        for (int i = 0, n = ops.size(); i < n; i++) {
+            final int op = ops.getQuick(i);
+            final int poolIndex = poolIndices.getQuick(i);
+            switch (op) {
+                case OP_COLUMN:
+                    asm.aload(1);
+                    asm.iconst((int) values.getQuick(i));
+                    asm.invokeInterface(poolIndex, 1);
+                    break;
+                case OP_CONSTANT:
+                    emitConstant(types.getQuick(i), values.getQuick(i), poolIndex);
+                    break;
+                case OP_CALL:
+                    asm.aload(0);
+                    asm.getfield(argsIndex);
+                    asm.iconst((int) values.getQuick(i));
+                    asm.aaload();
+                    asm.aload(1);
+                    asm.invokeInterface(poolIndex, 1);
+                    break;
+                case OP_CONVERT:
+                    emitConversion((int) values.getQuick(i), types.getQuick(i));
+                    break;
+                case OP_ADD_DOUBLE:
+                    asm.dadd();
+                    break;
+                case OP_SUB_DOUBLE:
+                    asm.dsub();
+                    break;
+                case OP_MUL_DOUBLE:
+                    asm.dmul();
+                    break;
+                case OP_DIV_DOUBLE:
+                    asm.ddiv();
+                    break;
+                case OP_ADD_FLOAT:
+                    asm.fadd();
+                    break;
+                case OP_MUL_FLOAT:
+                    asm.fmul();
+                    break;
+                case OP_MUL_INT:
+                    asm.imul();
+                    break;
+                case OP_MUL_LONG:
+                    asm.lmul();
+                    break;
+                case OP_AND:
+                    asm.iand();
+                    break;
+                case OP_OR:
+                    asm.ior();
+                    break;
+                default:
+                    asm.invokeStatic(poolIndex);
+                    break;
+            }
+        }
+    }
+
+    private boolean isInline(Function function, int type) {
+        if (!isConvertible(function.getType(), type)) {
+            return false;
+        }
+
+        if (function.isConstant()) {
+            return true;
+        }
+
+        final int op = getOperator(function);
+        switch (op) {
+            case -1:
+                return false;
+            case OP_COLUMN:
+                return true;
+            default:
+                if (function instanceof UnaryFunction) {
+                    return isInline(((UnaryFunction) function).getArg(), operandTypes[op]);
+                }
+                final BinaryFunction binary = (BinaryFunction) function;
+                return isInline(binary.getLeft(), operandTypes[op]) && isInline(binary.getRight(), operandTypes[op]);
+        }
+    }
+
+    private int poolConstant(int type, long value) {
+        switch (type) {
+            case ColumnType.BOOLEAN:
+            case ColumnType.INT:
+                return value == (short) value ? -1 : asm.poolLongConst(value);
+            case ColumnType.LONG:
+                return asm.poolLongConst(value);
+            default:
+                return asm.poolDoubleConst(Double.longBitsToDouble(value));
+        }
+    }
+
+    private int poolFunctionAccessor(int type) {
+        int index = functionAccessorIndices.getQuick(type);
+        if (index == -1) {
+            index = asm.poolInterfaceMethod(Function.class, accessorName(type), "(Lio/questdb/cairo/sql/Record;)" + descriptor(type));
+            functionAccessorIndices.setQuick(type, index);
+        }
+        return index;
+    }
+
+    private int poolHelper(int op) {
+        int index = helperIndices.getQuick(op);
+        if (index == -1) {
+            switch (op) {
+                case OP_ADD_INT:
+                    index = asm.poolMethod(FunctionCompiler.class, "addInt", "(II)I");
+                    break;
+                case OP_SUB_INT:
+                    index = asm.poolMethod(FunctionCompiler.class, "subInt", "(II)I");
+                    break;
+                case OP_ADD_LONG:
+                    index = asm.poolMethod(FunctionCompiler.class, "addLong", "(JJ)J");
+                    break;
+                case OP_SUB_LONG:
+                    index = asm.poolMethod(FunctionCompiler.class, "subLong", "(JJ)J");
+                    break;
+                case OP_DIV_LONG:
+                    index = asm.poolMethod(FunctionCompiler.class, "divLong", "(JJ)J");
+                    break;
+                case OP_LT:
+                    index = asm.poolMethod(FunctionCompiler.class, "lt", "(DD)Z");
+                    break;
+                case OP_GT:
+                    index = asm.poolMethod(FunctionCompiler.class, "gt", "(DD)Z");
+                    break;
+                case OP_EQ_DOUBLE:
+                    index = asm.poolMethod(FunctionCompiler.class, "eq", "(DD)Z");
+                    break;
+                case OP_EQ_INT:
+                    index = asm.poolMethod(FunctionCompiler.class, "eq", "(II)Z");
+                    break;
+                case OP_EQ_LONG:
+                    index = asm.poolMethod(FunctionCompiler.class, "eq", "(JJ)Z");
+                    break;
+                case OP_IS_NULL_INT:
+                    index = asm.poolMethod(FunctionCompiler.class, "isNull", "(I)Z");
+                    break;
+                case OP_IS_NULL_LONG:
+                    index = asm.poolMethod(FunctionCompiler.class, "isNull", "(J)Z");
+                    break;
+                case OP_IS_NAN_FLOAT:
+                    index = asm.poolMethod(Float.class, "isNaN", "(F)Z");
+                    break;
+                case OP_IS_NAN_DOUBLE:
+                    index = asm.poolMethod(Double.class, "isNaN", "(D)Z");
+                    break;
+                default:
+                    // operator has its own opcode
+                    return -1;
+            }
+            helperIndices.setQuick(op, index);
+        }
+        return index;
+    }
+
+    private void poolInstructions() {
+        poolIndices.clear();
+        recordAccessorIndices.setAll(ColumnType.DOUBLE + 1, -1);
+        functionAccessorIndices.setAll(ColumnType.DOUBLE + 1, -1);
+        helperIndices.setAll(OP_COUNT, -1);
+        for (int i = 0, n = ops.size(); i < n; i++) {
+            final int type = types.getQuick(i);
+            switch (ops.getQuick(i)) {
+                case OP_COLUMN:
+                    poolIndices.add(poolRecordAccessor(type));
+                    break;
+                case OP_CONSTANT:
+                    poolIndices.add(poolConstant(type, values.getQuick(i)));
+                    break;
+                case OP_CALL:
+                    poolIndices.add(poolFunctionAccessor(type));
+                    break;
+                case OP_CONVERT:
+                    poolIndices.add(-1);
+                    break;
+                default:
+                    poolIndices.add(poolHelper(ops.getQuick(i)));
+                    break;
+            }
+        }
+    }
+
+    private int poolRecordAccessor(int type) {
+        int index = recordAccessorIndices.getQuick(type);
+        if (index == -1) {
+            index = asm.poolInterfaceMethod(Record.class, accessorName(type), "(I)" + descriptor(type));
+            recordAccessorIndices.setQuick(type, index);
+        }
+        return index;
+    }
+
+    static {
+        columnOps.put(BooleanColumn.class, OP_COLUMN);
+        columnOps.put(ByteColumn.class, OP_COLUMN);
+        columnOps.put(ShortColumn.class, OP_COLUMN);
+        columnOps.put(IntColumn.class, OP_COLUMN);
+        columnOps.put(LongColumn.class, OP_COLUMN);
+        columnOps.put(FloatColumn.class, OP_COLUMN);
+        columnOps.put(DoubleColumn.class, OP_COLUMN);
+
+        registerOperator(OP_ADD_DOUBLE, 2, ColumnType.DOUBLE, ColumnType.DOUBLE);
+        registerOperator(OP_SUB_DOUBLE, 2, ColumnType.DOUBLE, ColumnType.DOUBLE);
+        registerOperator(OP_MUL_DOUBLE, 2, ColumnType.DOUBLE, ColumnType.DOUBLE);
+        registerOperator(OP_DIV_DOUBLE, 2, ColumnType.DOUBLE, ColumnType.DOUBLE);
+        registerOperator(OP_ADD_FLOAT, 2, ColumnType.FLOAT, ColumnType.FLOAT);
+        registerOperator(OP_MUL_FLOAT, 2, ColumnType.FLOAT, ColumnType.FLOAT);
+        registerOperator(OP_ADD_INT, 2, ColumnType.INT, ColumnType.INT);
+        registerOperator(OP_SUB_INT, 2, ColumnType.INT, ColumnType.INT);
+        registerOperator(OP_MUL_INT, 2, ColumnType.INT, ColumnType.INT);
+        registerOperator(OP_ADD_LONG, 2, ColumnType.LONG, ColumnType.LONG);
+        registerOperator(OP_SUB_LONG, 2, ColumnType.LONG, ColumnType.LONG);
+        registerOperator(OP_MUL_LONG, 2, ColumnType.LONG, ColumnType.LONG);
+        registerOperator(OP_DIV_LONG, 2, ColumnType.LONG, ColumnType.LONG);
+        registerOperator(OP_LT, 2, ColumnType.DOUBLE, ColumnType.BOOLEAN);
+        registerOperator(OP_GT, 2, ColumnType.DOUBLE, ColumnType.BOOLEAN);
+        registerOperator(OP_EQ_DOUBLE, 2, ColumnType.DOUBLE, ColumnType.BOOLEAN);
+        registerOperator(OP_IS_NULL_INT, 1, ColumnType.INT, ColumnType.BOOLEAN);
+        registerOperator(OP_IS_NULL_LONG, 1, ColumnType.LONG, ColumnType.BOOLEAN);
+        registerOperator(OP_IS_NAN_FLOAT, 1, ColumnType.FLOAT, ColumnType.BOOLEAN);
+        registerOperator(OP_IS_NAN_DOUBLE, 1, ColumnType.DOUBLE, ColumnType.BOOLEAN);
+        registerOperator(OP_EQ_INT, 2, ColumnType.INT, ColumnType.BOOLEAN);
+        registerOperator(OP_EQ_LONG, 2, ColumnType.LONG, ColumnType.BOOLEAN);
+        registerOperator(OP_AND, 2, ColumnType.BOOLEAN, ColumnType.BOOLEAN);
+        registerOperator(OP_OR, 2, ColumnType.BOOLEAN, ColumnType.BOOLEAN);
+    }
+}
@@ -29,7 +29,8 @@ import io.questdb.cairo.sql.Function;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.engine.functions.BooleanFunction;
-import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.griffin.engine.functions.BinaryFunction;
+import io.questdb.griffin.engine.functions.OperatorFunction;
 import io.questdb.griffin.engine.functions.constants.BooleanConstant;
 import io.questdb.std.ObjList;
 
@@ -42,25 +43,37 @@ public class LtDoubleCVFunctionFactory implements FunctionFactory {
 
     @Override
     public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration) {
-        final double left = args.getQuick(0).getDouble(null);
-        if (Double.isNaN(left)) {
+        final Function left = args.getQuick(0);
+        if (Double.isNaN(left.getDouble(null))) {
             return new BooleanConstant(position, false);
         }
         return new FuncCV(position, left, args.getQuick(1));
     }
 
-    private static class FuncCV extends BooleanFunction implements UnaryFunction {
+    private static class FuncCV extends BooleanFunction implements BinaryFunction, OperatorFunction {
+        private final Function leftFunc;
         private final double left;
         private final Function right;
 
-        public FuncCV(int position, double left, Function right) {
+        public FuncCV(int position, Function left, Function right) {
             super(position);
-            this.left = left;
+            this.leftFunc = left;
+            this.left = left.getDouble(null);
             this.right = right;
         }
 
         @Override
-        public Function getArg() {
+        public Function getLeft() {
+            return leftFunc;
+        }
+
+        @Override
+        public int getOperator() {
+            return OperatorFunction.LT_DOUBLE;
+        }
+
+        @Override
+        public Function getRight() {
             return right;
         }
 
@@ -29,7 +29,8 @@ import io.questdb.cairo.sql.Function;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.engine.functions.BooleanFunction;
-import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.griffin.engine.functions.BinaryFunction;
+import io.questdb.griffin.engine.functions.OperatorFunction;
 import io.questdb.griffin.engine.functions.constants.BooleanConstant;
 import io.questdb.std.ObjList;
 
@@ -42,28 +43,40 @@ public class LtDoubleVCFunctionFactory implements FunctionFactory {
 
     @Override
     public Function newInstance(ObjList<Function> args, int position, CairoConfiguration configuration) {
-        double right = args.getQuick(1).getDouble(null);
-        if (Double.isNaN(right)) {
+        final Function right = args.getQuick(1);
+        if (Double.isNaN(right.getDouble(null))) {
             return new BooleanConstant(position, false);
         }
         return new FuncVC(position, args.getQuick(0), right);
     }
 
-    private static class FuncVC extends BooleanFunction implements UnaryFunction {
+    private static class FuncVC extends BooleanFunction implements BinaryFunction, OperatorFunction {
         private final Function left;
+        private final Function rightFunc;
         private final double right;
 
-        public FuncVC(int position, Function left, double right) {
+        public FuncVC(int position, Function left, Function right) {
             super(position);
             this.left = left;
-            this.right = right;
+            this.rightFunc = right;
+            this.right = right.getDouble(null);
         }
 
         @Override
-        public Function getArg() {
+        public Function getLeft() {
             return left;
         }
 
+        @Override
+        public int getOperator() {
+            return OperatorFunction.LT_DOUBLE;
+        }
+
+        @Override
+        public Function getRight() {
+            return rightFunc;
+        }
+
         @Override
         public boolean getBool(Record rec) {
             return left.getDouble(rec) < right;
@@ -30,6 +30,7 @@ import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.engine.functions.BinaryFunction;
 import io.questdb.griffin.engine.functions.FloatFunction;
+import io.questdb.griffin.engine.functions.OperatorFunction;
 import io.questdb.std.ObjList;
 
 public class AddFloatFunctionFactory implements FunctionFactory {
@@ -43,7 +44,7 @@ public class AddFloatFunctionFactory implements FunctionFactory {
         return new Func(position, args.getQuick(0), args.getQuick(1));
     }
 
-    private static class Func extends FloatFunction implements BinaryFunction {
+    private static class Func extends FloatFunction implements BinaryFunction, OperatorFunction {
         final Function left;
         final Function right;
 
@@ -63,6 +64,11 @@ public class AddFloatFunctionFactory implements FunctionFactory {
             return left;
         }
 
+        @Override
+        public int getOperator() {
+            return OperatorFunction.ADD_FLOAT;
+        }
+
         @Override
         public Function getRight() {
             return right;
@@ -30,6 +30,7 @@ import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.engine.functions.BinaryFunction;
 import io.questdb.griffin.engine.functions.IntFunction;
+import io.questdb.griffin.engine.functions.OperatorFunction;
 import io.questdb.std.Numbers;
 import io.questdb.std.ObjList;
 
@@ -44,7 +45,7 @@ public class AddIntFunctionFactory implements FunctionFactory {
         return new AddIntFunc(position, args.getQuick(0), args.getQuick(1));
     }
 
-    private static class AddIntFunc extends IntFunction implements BinaryFunction {
+    private static class AddIntFunc extends IntFunction implements BinaryFunction, OperatorFunction {
         final Function left;
         final Function right;
 
@@ -78,6 +79,11 @@ public class AddIntFunctionFactory implements FunctionFactory {
             return left;
         }
 
+        @Override
+        public int getOperator() {
+            return OperatorFunction.ADD_INT;
+        }
+
         @Override
         public Function getRight() {
             return right;
@@ -30,6 +30,7 @@ import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.engine.functions.BinaryFunction;
 import io.questdb.griffin.engine.functions.LongFunction;
+import io.questdb.griffin.engine.functions.OperatorFunction;
 import io.questdb.std.Numbers;
 import io.questdb.std.ObjList;
 
@@ -44,7 +45,7 @@ public class DivLongFunctionFactory implements FunctionFactory {
         return new Func(position, args.getQuick(0), args.getQuick(1));
     }
 
-    private static class Func extends LongFunction implements BinaryFunction {
+    private static class Func extends LongFunction implements BinaryFunction, OperatorFunction {
         private final Function left;
         private final Function right;
 
@@ -59,6 +60,11 @@ public class DivLongFunctionFactory implements FunctionFactory {
             return left;
         }
 
+        @Override
+        public int getOperator() {
+            return OperatorFunction.DIV_LONG;
+        }
+
         @Override
         public Function getRight() {
             return right;
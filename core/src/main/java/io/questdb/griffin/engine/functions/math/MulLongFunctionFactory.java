@@ -30,6 +30,7 @@ import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.engine.functions.BinaryFunction;
 import io.questdb.griffin.engine.functions.LongFunction;
+import io.questdb.griffin.engine.functions.OperatorFunction;
 import io.questdb.std.ObjList;
 
 public class MulLongFunctionFactory implements FunctionFactory {
@@ -43,7 +44,7 @@ public class MulLongFunctionFactory implements FunctionFactory {
         return new Func(position, args.getQuick(0), args.getQuick(1));
     }
 
-    private static final class Func extends LongFunction implements BinaryFunction {
+    private static final class Func extends LongFunction implements BinaryFunction, OperatorFunction {
         private final Function left;
         private final Function right;
 
@@ -58,6 +59,11 @@ public class MulLongFunctionFactory implements FunctionFactory {
             return left;
         }
 
+        @Override
+        public int getOperator() {
+            return OperatorFunction.MUL_LONG;
+        }
+
         @Override
         public Function getRight() {
             return right;
@@ -0,0 +1,65 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.CairoWorkQueue;
+import io.questdb.cairo.CairoWorkScheduler;
+import io.questdb.mp.Job;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SOCountDownLatch;
+import io.questdb.mp.Sequence;
+
+public class GroupByShardJob implements Job {
+    private final RingQueue<GroupByShardEntry> queue;
+    private final Sequence sequence;
+
+    public GroupByShardJob(CairoWorkScheduler workScheduler) {
+        final CairoWorkQueue<GroupByShardEntry> workQueue = workScheduler.getWorkQueue(GroupByShardEntry.QUEUE_TYPE);
+        this.queue = workQueue.getQueue();
+        this.sequence = workQueue.getSubSequence();
+    }
+
+    @Override
+    public boolean run() {
+        long cursor = sequence.next();
+        if (cursor < 0) {
+            return false;
+        }
+
+        GroupByShardEntry queueItem = queue.get(cursor);
+        // copy values and release queue item
+        final GroupByShardTask task = queueItem.task;
+        final long taskSequence = queueItem.sequence;
+        final SOCountDownLatch latch = queueItem.countDownLatch;
+        sequence.done(cursor);
+
+        // thread that owns the task steals shards that are not yet picked up,
+        // CAS makes sure each shard is aggregated exactly once
+        if (task.tryLock(taskSequence)) {
+            GroupByShardTask.aggregateAndCountDown(task, latch);
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableReaderRecord;
+import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.SOCountDownLatch;
+import io.questdb.std.LongList;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+
+class GroupByShardTask {
+    private static final Log LOG = LogFactory.getLog(GroupByShardTask.class);
+    private static final long SEQUENCE_OFFSET;
+
+    static {
+        SEQUENCE_OFFSET = Unsafe.getFieldOffset(GroupByShardTask.class, "sequence");
+    }
+
+    // partition index, row lo and row hi triplets
+    private final LongList frames = new LongList();
+    private final TableReaderRecord record = new TableReaderRecord();
+    private final ObjList<GroupByFunction> groupByFunctions;
+    private final RecordSink mapSink;
+    private FastMap map;
+    private TableReader reader;
+    private boolean ownsReader;
+    private boolean failed;
+    @SuppressWarnings({"unused", "FieldCanBeLocal"})
+    private volatile long sequence = 0L;
+
+    GroupByShardTask(ObjList<GroupByFunction> groupByFunctions, RecordSink mapSink) {
+        this.groupByFunctions = groupByFunctions;
+        this.mapSink = mapSink;
+    }
+
+    static void aggregateAndCountDown(GroupByShardTask task, SOCountDownLatch latch) {
+        try {
+            task.aggregate();
+        } catch (Throwable e) {
+            LOG.error().$("group by shard failed [table=").$(task.reader.getTableName()).$(", e=").$(e).$(']').$();
+            task.failed = true;
+        } finally {
+            latch.countDown();
+        }
+    }
+
+    void addFrame(int partitionIndex, long rowLo, long rowHi) {
+        frames.add(partitionIndex);
+        frames.add(rowLo);
+        frames.add(rowHi);
+    }
+
+    void clear() {
+        frames.clear();
+        failed = false;
+    }
+
+    FastMap getMap() {
+        return map;
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    boolean isFailed() {
+        return failed;
+    }
+
+    boolean ownsReader() {
+        return ownsReader;
+    }
+
+    void of(FastMap map, TableReader reader, boolean ownsReader) {
+        this.map = map;
+        this.reader = reader;
+        this.ownsReader = ownsReader;
+        this.record.of(reader);
+        // this runs on thread that opens the cursor, it keeps
+        // file operations and logging away from workers
+        for (int i = 0, n = frames.size(); i < n; i += 3) {
+            reader.openPartition((int) frames.getQuick(i));
+        }
+    }
+
+    void releaseReader() {
+        if (ownsReader) {
+            reader.close();
+            ownsReader = false;
+        }
+        reader = null;
+    }
+
+    boolean tryLock(long expectedSequence) {
+        return Unsafe.cas(this, SEQUENCE_OFFSET, expectedSequence, expectedSequence + 1);
+    }
+
+    private void aggregate() {
+        final int n = groupByFunctions.size();
+        for (int i = 0, m = frames.size(); i < m; i += 3) {
+            final long hi = frames.getQuick(i + 2);
+            long row = frames.getQuick(i + 1);
+            record.jumpTo((int) frames.getQuick(i), row);
+            for (; row < hi; row++) {
+                record.setRecordIndex(row);
+                final MapKey key = map.withKey();
+                mapSink.copy(record, key);
+                GroupByUtils.updateFunctions(groupByFunctions, n, key.createValue(), record);
+            }
+        }
+    }
+}
@@ -0,0 +1,484 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.map.*;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.FunctionParser;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.model.ExpressionNode;
+import io.questdb.griffin.model.QueryColumn;
+import io.questdb.griffin.model.QueryModel;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SOCountDownLatch;
+import io.questdb.mp.Sequence;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Group-by over full table scan. Rows of the table are split into contiguous shards, one per
+ * worker plus one for the thread that opens the cursor. Each shard is aggregated into its own
+ * map using its own table reader, then maps are merged into the first one in shard order, which
+ * keeps keys in the same order as single-threaded group-by would.
+ * <p>
+ * Shards run in parallel only when all group-by functions are mergeable and their arguments
+ * are columns or constants. Otherwise there is a single shard, aggregated by calling thread.
+ */
+public class ParallelGroupByRecordCursorFactory implements RecordCursorFactory {
+    // shards smaller than this are not worth a table reader and a map of their own
+    private static final long MIN_SHARD_ROW_COUNT = 4096;
+    private final CairoConfiguration configuration;
+    private final CairoEngine engine;
+    private final RecordCursorFactory base;
+    private final String tableName;
+    private final long tableVersion;
+    private final DataFrameCursorFactory dataFrameCursorFactory;
+    private final FastMap dataMap;
+    private final ArrayColumnTypes keyTypes = new ArrayColumnTypes();
+    private final ArrayColumnTypes valueTypes = new ArrayColumnTypes();
+    private final ObjList<FastMap> shardMaps = new ObjList<>();
+    private final ObjList<GroupByShardTask> tasks = new ObjList<>();
+    private final LongList taskSequences = new LongList();
+    // partition index, row lo and row hi triplets of the entire table
+    private final LongList frames = new LongList();
+    private final SOCountDownLatch latch = new SOCountDownLatch();
+    private final ParallelGroupByRecordCursor cursor;
+    private final ObjList<Function> recordFunctions;
+    private final ObjList<GroupByFunction> groupByFunctions;
+    private final RecordSink mapSink;
+    private final RecordMetadata metadata;
+    private final MapValueMergeFunction mergeFunction = this::merge;
+    private final CairoWorkScheduler workScheduler;
+    private final long workStealTimeoutNanos;
+    private final int maxShardCount;
+
+    public ParallelGroupByRecordCursorFactory(
+            CairoConfiguration configuration,
+            CairoEngine engine,
+            TableReaderRecordCursorFactory base,
+            @Transient @NotNull QueryModel model,
+            @Transient @NotNull ListColumnFilter listColumnFilter,
+            @Transient @NotNull FunctionParser functionParser,
+            @Transient @NotNull SqlExecutionContext executionContext,
+            @Transient @NotNull BytecodeAssembler asm,
+            @Transient @NotNull ArrayColumnTypes keyTypes,
+            @Transient @NotNull ArrayColumnTypes valueTypes,
+            @Nullable CairoWorkScheduler workScheduler
+    ) throws SqlException {
+        final int columnCount = model.getColumns().size();
+        final RecordMetadata metadata = base.getMetadata();
+        this.groupByFunctions = new ObjList<>(columnCount);
+        GroupByUtils.prepareGroupByFunctions(
+                model,
+                metadata,
+                functionParser,
+                executionContext,
+                groupByFunctions,
+                valueTypes
+        );
+
+        this.recordFunctions = new ObjList<>(columnCount);
+        final GenericRecordMetadata groupByMetadata = new GenericRecordMetadata();
+        final IntIntHashMap symbolTableIndex = new IntIntHashMap();
+
+        GroupByUtils.prepareGroupByRecordFunctions(
+                model,
+                metadata,
+                listColumnFilter,
+                groupByFunctions,
+                recordFunctions,
+                groupByMetadata,
+                keyTypes,
+                valueTypes.getColumnCount(),
+                symbolTableIndex,
+                true
+        );
+
+        // shard maps are created on demand, types are transient
+        copyTypes(keyTypes, this.keyTypes);
+        copyTypes(valueTypes, this.valueTypes);
+
+        this.configuration = configuration;
+        this.engine = engine;
+        this.base = base;
+        this.tableName = base.getTableName();
+        this.tableVersion = base.getTableVersion();
+        this.dataFrameCursorFactory = new FullFwdDataFrameCursorFactory(engine, tableName, tableVersion);
+        // sink will be storing record columns to map key
+        this.mapSink = RecordSinkFactory.getInstance(asm, metadata, listColumnFilter, false);
+        this.dataMap = createMap();
+        this.metadata = groupByMetadata;
+        this.cursor = new ParallelGroupByRecordCursor(recordFunctions, symbolTableIndex);
+        this.workScheduler = workScheduler;
+        this.workStealTimeoutNanos = configuration.getWorkStealTimeoutNanos();
+        if (workScheduler != null && isMergeable(groupByFunctions) && hasPlainArguments(model)) {
+            this.maxShardCount = workScheduler.getWorkerCount() + 1;
+        } else {
+            this.maxShardCount = 1;
+        }
+    }
+
+    @Override
+    public void close() {
+        for (int i = 0, n = recordFunctions.size(); i < n; i++) {
+            recordFunctions.getQuick(i).close();
+        }
+        dataMap.close();
+        Misc.freeObjList(shardMaps);
+        base.close();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) {
+        dataMap.clear();
+        final DataFrameCursor dataFrameCursor = dataFrameCursorFactory.getCursor(executionContext.getCairoSecurityContext());
+        cursor.of(dataFrameCursor);
+        int shardCount = 0;
+        try {
+            // init all record function for this cursor, in case functions require metadata and/or symbol tables
+            for (int i = 0, m = recordFunctions.size(); i < m; i++) {
+                recordFunctions.getQuick(i).init(cursor, executionContext);
+            }
+
+            frames.clear();
+            long rowCount = 0;
+            while (dataFrameCursor.hasNext()) {
+                final DataFrame frame = dataFrameCursor.next();
+                frames.add(frame.getPartitionIndex());
+                frames.add(frame.getRowLo());
+                frames.add(frame.getRowHi());
+                rowCount += frame.getRowHi() - frame.getRowLo();
+            }
+
+            shardCount = splitFrames(rowCount);
+            prepareTasks(executionContext.getCairoSecurityContext(), dataFrameCursor.getTableReader(), shardCount);
+            runTasks(shardCount);
+
+            for (int i = 0; i < shardCount; i++) {
+                if (tasks.getQuick(i).isFailed()) {
+                    throw CairoException.instance(0).put("group by failed [table=").put(tableName).put(']');
+                }
+            }
+
+            for (int i = 1; i < shardCount; i++) {
+                dataMap.merge(tasks.getQuick(i).getMap(), mergeFunction);
+            }
+            cursor.setMapCursor(dataMap.getCursor());
+            return cursor;
+        } catch (CairoException e) {
+            dataFrameCursor.close();
+            throw e;
+        } finally {
+            for (int i = 0; i < shardCount; i++) {
+                tasks.getQuick(i).releaseReader();
+            }
+        }
+    }
+
+    @Override
+    public RecordMetadata getMetadata() {
+        return metadata;
+    }
+
+    @Override
+    public boolean isRandomAccessCursor() {
+        return true;
+    }
+
+    private static void copyTypes(ColumnTypes from, ArrayColumnTypes to) {
+        for (int i = 0, n = from.getColumnCount(); i < n; i++) {
+            to.add(from.getColumnType(i));
+        }
+    }
+
+    private static boolean hasPlainArguments(QueryModel model) {
+        // functions are shared by all shards, which is safe as long as they
+        // only read columns of the record they are given
+        final ObjList<QueryColumn> columns = model.getColumns();
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            final ExpressionNode node = columns.getQuick(i).getAst();
+            if (node.type == ExpressionNode.LITERAL) {
+                continue;
+            }
+            switch (node.paramCount) {
+                case 0:
+                    break;
+                case 1:
+                    if (isNotPlain(node.rhs)) {
+                        return false;
+                    }
+                    break;
+                case 2:
+                    if (isNotPlain(node.lhs) || isNotPlain(node.rhs)) {
+                        return false;
+                    }
+                    break;
+                default:
+                    for (int j = 0, m = node.args.size(); j < m; j++) {
+                        if (isNotPlain(node.args.getQuick(j))) {
+                            return false;
+                        }
+                    }
+                    break;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isMergeable(ObjList<GroupByFunction> groupByFunctions) {
+        for (int i = 0, n = groupByFunctions.size(); i < n; i++) {
+            if (!groupByFunctions.getQuick(i).isMergeable()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isNotPlain(ExpressionNode node) {
+        return node.type != ExpressionNode.LITERAL && node.type != ExpressionNode.CONSTANT;
+    }
+
+    private FastMap createMap() {
+        return new FastMap(
+                configuration.getSqlMapPageSize(),
+                keyTypes,
+                valueTypes,
+                configuration.getSqlMapKeyCapacity(),
+                configuration.getSqlFastMapLoadFactor()
+        );
+    }
+
+    private GroupByShardTask getTask(int index) {
+        if (index < tasks.size()) {
+            return tasks.getQuick(index);
+        }
+        GroupByShardTask task = new GroupByShardTask(groupByFunctions, mapSink);
+        tasks.add(task);
+        return task;
+    }
+
+    private void merge(MapValue destValue, MapValue srcValue) {
+        for (int i = 0, n = groupByFunctions.size(); i < n; i++) {
+            groupByFunctions.getQuick(i).merge(destValue, srcValue);
+        }
+    }
+
+    private void prepareTasks(CairoSecurityContext securityContext, TableReader reader, int shardCount) {
+        // first shard always belongs to calling thread
+        getTask(0).of(dataMap, reader, false);
+        for (int i = 1; i < shardCount; i++) {
+            final FastMap map;
+            if (i - 1 < shardMaps.size()) {
+                map = shardMaps.getQuick(i - 1);
+                map.clear();
+            } else {
+                map = createMap();
+                shardMaps.add(map);
+            }
+
+            // shards that cannot have reader of their own at the same transaction
+            // stay with calling thread
+            TableReader shardReader;
+            try {
+                shardReader = engine.getReader(securityContext, tableName, tableVersion);
+                if (shardReader.getTxn() != reader.getTxn()) {
+                    shardReader = Misc.free(shardReader);
+                }
+            } catch (CairoException | ReaderOutOfDateException e) {
+                shardReader = null;
+            }
+
+            if (shardReader != null) {
+                tasks.getQuick(i).of(map, shardReader, true);
+            } else {
+                tasks.getQuick(i).of(map, reader, false);
+            }
+        }
+    }
+
+    private boolean publish(Sequence pubSequence, RingQueue<GroupByShardEntry> queue, GroupByShardTask task, long sequence) {
+        long cursor;
+        do {
+            cursor = pubSequence.next();
+            if (cursor == -1) {
+                // queue is full
+                return false;
+            }
+            // -2 is CAS issue, retry
+        } while (cursor < 0);
+
+        final GroupByShardEntry queueItem = queue.get(cursor);
+        queueItem.task = task;
+        queueItem.sequence = sequence;
+        queueItem.countDownLatch = latch;
+        pubSequence.done(cursor);
+        return true;
+    }
+
+    private void runTasks(int shardCount) {
+        latch.setCount(shardCount);
+        taskSequences.clear();
+
+        final Sequence pubSequence;
+        final RingQueue<GroupByShardEntry> queue;
+        if (workScheduler != null && shardCount > 1) {
+            final CairoWorkQueue<GroupByShardEntry> workQueue = workScheduler.getWorkQueue(GroupByShardEntry.QUEUE_TYPE);
+            pubSequence = workQueue.getPubSequence();
+            queue = workQueue.getQueue();
+        } else {
+            pubSequence = null;
+            queue = null;
+        }
+
+        // publish shards that have reader of their own first, so that
+        // workers can start on them while this thread is busy
+        for (int i = 0; i < shardCount; i++) {
+            final GroupByShardTask task = tasks.getQuick(i);
+            final long sequence = task.getSequence();
+            taskSequences.add(sequence);
+            if (pubSequence != null && task.ownsReader() && !publish(pubSequence, queue, task, sequence)) {
+                break;
+            }
+        }
+
+        for (int i = 0; i < shardCount; i++) {
+            final GroupByShardTask task = tasks.getQuick(i);
+            if (!task.ownsReader() && task.tryLock(taskSequences.getQuick(i))) {
+                GroupByShardTask.aggregateAndCountDown(task, latch);
+            }
+        }
+
+        if (!latch.await(workStealTimeoutNanos)) {
+            // other shards are still in-flight, steal what workers have not started on
+            for (int i = 0; i < shardCount; i++) {
+                final GroupByShardTask task = tasks.getQuick(i);
+                if (task.tryLock(taskSequences.getQuick(i))) {
+                    GroupByShardTask.aggregateAndCountDown(task, latch);
+                }
+            }
+            // wait for the ones we cannot steal
+            latch.await();
+        }
+    }
+
+    private int splitFrames(long rowCount) {
+        final int shardCount = (int) Math.max(1, Math.min(maxShardCount, rowCount / MIN_SHARD_ROW_COUNT));
+        final long shardRowCount = (rowCount + shardCount - 1) / shardCount;
+        int shard = 0;
+        long remaining = shardRowCount;
+        GroupByShardTask task = getTask(shard);
+        task.clear();
+        for (int i = 0, n = frames.size(); i < n; i += 3) {
+            final int partitionIndex = (int) frames.getQuick(i);
+            final long hi = frames.getQuick(i + 2);
+            long lo = frames.getQuick(i + 1);
+            while (lo < hi) {
+                if (remaining == 0) {
+                    task = getTask(++shard);
+                    task.clear();
+                    remaining = shardRowCount;
+                }
+                final long size = Math.min(hi - lo, remaining);
+                task.addFrame(partitionIndex, lo, lo + size);
+                lo += size;
+                remaining -= size;
+            }
+        }
+        return shard + 1;
+    }
+
+    private static class ParallelGroupByRecordCursor implements RecordCursor {
+        private final VirtualRecord functionRecord;
+        private final IntIntHashMap symbolTableIndex;
+        private RecordCursor mapCursor;
+        private DataFrameCursor dataFrameCursor;
+
+        public ParallelGroupByRecordCursor(ObjList<Function> functions, IntIntHashMap symbolTableIndex) {
+            this.functionRecord = new VirtualRecord(functions);
+            this.symbolTableIndex = symbolTableIndex;
+        }
+
+        @Override
+        public void close() {
+            Misc.free(mapCursor);
+            Misc.free(dataFrameCursor);
+        }
+
+        @Override
+        public Record getRecord() {
+            return functionRecord;
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            return dataFrameCursor.getSymbolTable(symbolTableIndex.get(columnIndex));
+        }
+
+        @Override
+        public boolean hasNext() {
+            return mapCursor.hasNext();
+        }
+
+        @Override
+        public Record newRecord() {
+            VirtualRecord record = new VirtualRecord(functionRecord.getFunctions());
+            record.of(mapCursor.newRecord());
+            return record;
+        }
+
+        @Override
+        public long size() {
+            return -1;
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            assert record instanceof VirtualRecord;
+            mapCursor.recordAt(((VirtualRecord) record).getBaseRecord(), atRowId);
+        }
+
+        @Override
+        public void recordAt(long rowId) {
+            mapCursor.recordAt(functionRecord.getBaseRecord(), rowId);
+        }
+
+        @Override
+        public void toTop() {
+            mapCursor.toTop();
+        }
+
+        public void of(DataFrameCursor dataFrameCursor) {
+            this.dataFrameCursor = dataFrameCursor;
+        }
+
+        private void setMapCursor(RecordCursor mapCursor) {
+            this.mapCursor = mapCursor;
+            functionRecord.of(mapCursor.getRecord());
+        }
+    }
+}
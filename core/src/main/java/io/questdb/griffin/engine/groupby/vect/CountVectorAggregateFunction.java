@@ -0,0 +1,79 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.groupby.vect;
+
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.engine.functions.LongFunction;
+
+import java.util.Arrays;
+
+public class CountVectorAggregateFunction extends LongFunction implements VectorAggregateFunction {
+    private long[] values = new long[16];
+    private int slotCount = 0;
+    private long count;
+
+    public CountVectorAggregateFunction(int position) {
+        super(position);
+    }
+
+    @Override
+    public int addSlot() {
+        if (slotCount == values.length) {
+            values = Arrays.copyOf(values, slotCount * 2);
+        }
+        return slotCount++;
+    }
+
+    @Override
+    public void aggregate(int slot, long address, long count) {
+        values[slot] = count;
+    }
+
+    @Override
+    public void clear() {
+        slotCount = 0;
+        count = 0;
+    }
+
+    @Override
+    public int getColumnIndex() {
+        return -1;
+    }
+
+    @Override
+    public void merge() {
+        long count = 0;
+        for (int i = 0; i < slotCount; i++) {
+            count += values[i];
+        }
+        this.count = count;
+    }
+
+    @Override
+    public long getLong(Record rec) {
+        return count;
+    }
+}
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.groupby.vect;
+
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.engine.functions.DoubleFunction;
+import io.questdb.std.Unsafe;
+
+import java.util.Arrays;
+
+public class MinDoubleVectorAggregateFunction extends DoubleFunction implements VectorAggregateFunction {
+    private final int columnIndex;
+    private double[] values = new double[16];
+    private int slotCount = 0;
+    private double min;
+
+    public MinDoubleVectorAggregateFunction(int position, int columnIndex) {
+        super(position);
+        this.columnIndex = columnIndex;
+    }
+
+    @Override
+    public int addSlot() {
+        if (slotCount == values.length) {
+            values = Arrays.copyOf(values, slotCount * 2);
+        }
+        return slotCount++;
+    }
+
+    @Override
+    public void aggregate(int slot, long address, long count) {
+        if (address == 0) {
+            values[slot] = Double.NaN;
+            return;
+        }
+        double min = Unsafe.getUnsafe().getDouble(address);
+        for (long p = address + Double.BYTES, hi = address + count * Double.BYTES; p < hi; p += Double.BYTES) {
+            final double next = Unsafe.getUnsafe().getDouble(p);
+            if (next < min || Double.isNaN(min)) {
+                min = next;
+            }
+        }
+        values[slot] = min;
+    }
+
+    @Override
+    public void clear() {
+        slotCount = 0;
+        min = Double.NaN;
+    }
+
+    @Override
+    public int getColumnIndex() {
+        return columnIndex;
+    }
+
+    @Override
+    public void merge() {
+        if (slotCount > 0) {
+            double min = values[0];
+            for (int i = 1; i < slotCount; i++) {
+                final double next = values[i];
+                if (next < min || Double.isNaN(min)) {
+                    min = next;
+                }
+            }
+            this.min = min;
+        }
+    }
+
+    @Override
+    public double getDouble(Record rec) {
+        return min;
+    }
+}
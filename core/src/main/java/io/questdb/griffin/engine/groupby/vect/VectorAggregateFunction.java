@@ -0,0 +1,67 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.groupby.vect;
+
+import io.questdb.cairo.sql.Function;
+
+/**
+ * Keyless aggregate function, which consumes column values directly from mapped column memory.
+ * Column is split into chunks, each of which is aggregated into its own slot. Chunks are aggregated
+ * concurrently and slot values are then merged on the thread that owns the function.
+ */
+public interface VectorAggregateFunction extends Function {
+
+    /**
+     * Reserves slot for partial result. All slots must be reserved before any chunk is
+     * aggregated by another thread.
+     *
+     * @return index of reserved slot
+     */
+    int addSlot();
+
+    /**
+     * Aggregates chunk of column values into given slot. This method is called concurrently for
+     * distinct slots.
+     *
+     * @param slot    slot previously reserved via {@link #addSlot()}
+     * @param address address of first value in the chunk or 0 when chunk consists of nulls, such as
+     *                rows above column top
+     * @param count   number of values in the chunk
+     */
+    void aggregate(int slot, long address, long count);
+
+    void clear();
+
+    /**
+     * @return index of table column this function aggregates or -1 when function does not read column values
+     */
+    int getColumnIndex();
+
+    /**
+     * Combines partial results in the order of slots.
+     */
+    void merge();
+}
@@ -0,0 +1,296 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.groupby.vect;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SOCountDownLatch;
+import io.questdb.mp.Sequence;
+import io.questdb.std.LongList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Keyless group-by over full table scan. Column memory of each data frame is split into
+ * page-sized chunks, which are aggregated by worker threads. Thread that opens the cursor
+ * publishes chunks on the queue and steals back the ones workers have not yet picked up.
+ */
+public class VectorAggregateRecordCursorFactory implements RecordCursorFactory {
+    private final RecordMetadata metadata;
+    private final DataFrameCursorFactory dataFrameCursorFactory;
+    private final ObjList<VectorAggregateFunction> functions;
+    private final ObjList<VectorAggregateTask> tasks = new ObjList<>();
+    private final LongList taskSequences = new LongList();
+    private final SOCountDownLatch latch = new SOCountDownLatch();
+    private final VectorAggregateRecordCursor cursor;
+    private final CairoWorkScheduler workScheduler;
+    private final long workStealTimeoutNanos;
+    private int taskCount;
+
+    public VectorAggregateRecordCursorFactory(
+            RecordMetadata metadata,
+            DataFrameCursorFactory dataFrameCursorFactory,
+            ObjList<VectorAggregateFunction> functions,
+            @Nullable CairoWorkScheduler workScheduler,
+            long workStealTimeoutNanos
+    ) {
+        this.metadata = metadata;
+        this.dataFrameCursorFactory = dataFrameCursorFactory;
+        this.functions = functions;
+        this.workScheduler = workScheduler;
+        this.workStealTimeoutNanos = workStealTimeoutNanos;
+        this.cursor = new VectorAggregateRecordCursor(functions);
+    }
+
+    @Override
+    public void close() {
+        Misc.freeObjList(functions);
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) {
+        for (int i = 0, n = functions.size(); i < n; i++) {
+            functions.getQuick(i).clear();
+        }
+        taskCount = 0;
+
+        long rowCount = 0;
+        try (DataFrameCursor dataFrameCursor = dataFrameCursorFactory.getCursor(executionContext.getCairoSecurityContext())) {
+            final TableReader reader = dataFrameCursor.getTableReader();
+            while (dataFrameCursor.hasNext()) {
+                final DataFrame frame = dataFrameCursor.next();
+                rowCount += frame.getRowHi() - frame.getRowLo();
+                addTasks(reader, frame);
+            }
+
+            if (rowCount > 0) {
+                runTasks();
+                for (int i = 0, n = functions.size(); i < n; i++) {
+                    functions.getQuick(i).merge();
+                }
+            }
+        }
+        cursor.of(rowCount > 0);
+        return cursor;
+    }
+
+    @Override
+    public RecordMetadata getMetadata() {
+        return metadata;
+    }
+
+    @Override
+    public boolean isRandomAccessCursor() {
+        return true;
+    }
+
+    private void addTask(VectorAggregateFunction function, long address, long count) {
+        final VectorAggregateTask task;
+        if (taskCount < tasks.size()) {
+            task = tasks.getQuick(taskCount);
+        } else {
+            task = new VectorAggregateTask();
+            tasks.add(task);
+        }
+        task.of(function, function.addSlot(), address, count);
+        taskCount++;
+    }
+
+    private void addTasks(TableReader reader, DataFrame frame) {
+        final int partitionIndex = frame.getPartitionIndex();
+        final long lo = frame.getRowLo();
+        final long hi = frame.getRowHi();
+        final int base = reader.getColumnBase(partitionIndex);
+
+        for (int i = 0, n = functions.size(); i < n; i++) {
+            final VectorAggregateFunction function = functions.getQuick(i);
+            final int columnIndex = function.getColumnIndex();
+            if (columnIndex == -1) {
+                function.aggregate(function.addSlot(), 0, hi - lo);
+                continue;
+            }
+
+            final ReadOnlyColumn column = reader.getColumn(TableReader.getPrimaryColumnIndex(base, columnIndex));
+            if (!(column instanceof VirtualMemory)) {
+                // column was added after this partition had been written
+                function.aggregate(function.addSlot(), 0, hi - lo);
+                continue;
+            }
+
+            // rows above column top are nulls, there is nothing to read for them
+            final long columnTop = reader.getColumnTop(base, columnIndex);
+            if (lo < columnTop) {
+                function.aggregate(function.addSlot(), 0, Math.min(hi, columnTop) - lo);
+            }
+
+            final long valueLo = Math.max(lo, columnTop);
+            if (valueLo < hi) {
+                // page addresses are resolved here because mapping pages is not thread-safe,
+                // workers only ever read memory at the addresses they are given
+                final VirtualMemory mem = (VirtualMemory) column;
+                final int shift = ColumnType.pow2SizeOf(reader.getMetadata().getColumnType(columnIndex));
+                final long offsetHi = (hi - columnTop) << shift;
+                long offset = (valueLo - columnTop) << shift;
+                while (offset < offsetHi) {
+                    final long address = mem.addressOf(offset);
+                    final long size = Math.min(mem.pageRemaining(offset), offsetHi - offset);
+                    addTask(function, address, size >> shift);
+                    offset += size;
+                }
+            }
+        }
+    }
+
+    private boolean publish(Sequence pubSequence, RingQueue<VectorAggregateEntry> queue, VectorAggregateTask task, long sequence) {
+        long cursor;
+        do {
+            cursor = pubSequence.next();
+            if (cursor == -1) {
+                // queue is full
+                return false;
+            }
+            // -2 is CAS issue, retry
+        } while (cursor < 0);
+
+        final VectorAggregateEntry queueItem = queue.get(cursor);
+        queueItem.task = task;
+        queueItem.sequence = sequence;
+        queueItem.countDownLatch = latch;
+        pubSequence.done(cursor);
+        return true;
+    }
+
+    private void runTasks() {
+        final int n = taskCount;
+        latch.setCount(n);
+        taskSequences.clear();
+
+        final Sequence pubSequence;
+        final RingQueue<VectorAggregateEntry> queue;
+        if (workScheduler != null) {
+            final CairoWorkQueue<VectorAggregateEntry> workQueue = workScheduler.getWorkQueue(VectorAggregateEntry.QUEUE_TYPE);
+            pubSequence = workQueue.getPubSequence();
+            queue = workQueue.getQueue();
+        } else {
+            pubSequence = null;
+            queue = null;
+        }
+
+        // publish all chunks but the last one, which is aggregated by this thread
+        for (int i = 0; i < n; i++) {
+            final VectorAggregateTask task = tasks.getQuick(i);
+            final long sequence = task.getSequence();
+            taskSequences.add(sequence);
+            if (pubSequence != null && i < n - 1 && publish(pubSequence, queue, task, sequence)) {
+                continue;
+            }
+            if (task.tryLock(sequence)) {
+                VectorAggregateTask.aggregateAndCountDown(task, latch);
+            }
+        }
+
+        if (!latch.await(workStealTimeoutNanos)) {
+            // other chunks are still in-flight, steal what workers have not started on
+            for (int i = 0; i < n; i++) {
+                final VectorAggregateTask task = tasks.getQuick(i);
+                if (task.tryLock(taskSequences.getQuick(i))) {
+                    VectorAggregateTask.aggregateAndCountDown(task, latch);
+                }
+            }
+            // wait for the ones we cannot steal
+            latch.await();
+        }
+    }
+
+    private static class VectorAggregateRecordCursor implements RecordCursor {
+        // the cursor has a single row, its id is always 0
+        private static final Record ROW = new Record() {
+            @Override
+            public long getRowId() {
+                return 0;
+            }
+        };
+        private final VirtualRecord record;
+        private boolean hasRow;
+        private boolean hasNext;
+
+        public VectorAggregateRecordCursor(ObjList<? extends Function> functions) {
+            this.record = new VirtualRecord(functions);
+            this.record.of(ROW);
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (hasNext) {
+                hasNext = false;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public Record newRecord() {
+            VirtualRecord record = new VirtualRecord(this.record.getFunctions());
+            record.of(ROW);
+            return record;
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+        }
+
+        @Override
+        public void recordAt(long rowId) {
+        }
+
+        @Override
+        public long size() {
+            return -1;
+        }
+
+        @Override
+        public void toTop() {
+            hasNext = hasRow;
+        }
+
+        private void of(boolean hasRow) {
+            this.hasRow = hasRow;
+            toTop();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.groupby.vect;
+
+import io.questdb.mp.SOCountDownLatch;
+import io.questdb.std.Unsafe;
+
+class VectorAggregateTask {
+    private static final long SEQUENCE_OFFSET;
+
+    static {
+        SEQUENCE_OFFSET = Unsafe.getFieldOffset(VectorAggregateTask.class, "sequence");
+    }
+
+    private VectorAggregateFunction function;
+    private int slot;
+    private long address;
+    private long count;
+    @SuppressWarnings({"unused", "FieldCanBeLocal"})
+    private volatile long sequence = 0L;
+
+    static void aggregateAndCountDown(VectorAggregateTask task, SOCountDownLatch latch) {
+        try {
+            task.function.aggregate(task.slot, task.address, task.count);
+        } finally {
+            latch.countDown();
+        }
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    void of(VectorAggregateFunction function, int slot, long address, long count) {
+        this.function = function;
+        this.slot = slot;
+        this.address = address;
+        this.count = count;
+    }
+
+    boolean tryLock(long expectedSequence) {
+        return Unsafe.cas(this, SEQUENCE_OFFSET, expectedSequence, expectedSequence + 1);
+    }
+}
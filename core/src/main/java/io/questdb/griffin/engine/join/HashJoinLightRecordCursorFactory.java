@@ -25,6 +25,7 @@
 package io.questdb.griffin.engine.join;
 
 import io.questdb.cairo.*;
+import io.questdb.cairo.map.FastMap;
 import io.questdb.cairo.map.Map;
 import io.questdb.cairo.map.MapFactory;
 import io.questdb.cairo.map.MapKey;
@@ -33,18 +34,35 @@ import io.questdb.cairo.sql.*;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.Misc;
 import io.questdb.std.Transient;
+import org.jetbrains.annotations.Nullable;
 
+/**
+ * Inner hash join, which keeps row ids of slave records in memory. When row ids exceed
+ * hash join spill threshold slave row ids and master records are partitioned to disk by hash
+ * code of join key and each pair of partitions is joined in memory in turn. Rows of spilled
+ * join are grouped by partition.
+ * <p>
+ * When master is table scan and work scheduler is provided, rows of join that fits in memory
+ * are matched on workers, see {@link ParallelHashJoinProbe}. Rows come out in the same order
+ * either way.
+ */
 public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactory {
+    private static final RecordSink ROW_ID_SINK = (r, w) -> w.putLong(r.getRowId());
     private final Map joinKeyMap;
     private final LongChain slaveChain;
     private final RecordCursorFactory masterFactory;
     private final RecordCursorFactory slaveFactory;
     private final RecordSink masterKeySink;
     private final RecordSink slaveKeySink;
+    private final RecordChainPartitions masterPartitions;
+    private final RecordChainPartitions slavePartitions;
+    private final long spillThreshold;
     private final HashJoinRecordCursor cursor;
+    private final ParallelHashJoinProbe parallelProbe;
 
     public HashJoinLightRecordCursorFactory(
             CairoConfiguration configuration,
+            CairoEngine engine,
             RecordMetadata metadata,
             RecordCursorFactory masterFactory,
             RecordCursorFactory slaveFactory,
@@ -52,8 +70,9 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
             @Transient ColumnTypes valueTypes, // this expected to be just LONG, we store chain references in map
             RecordSink masterKeySink,
             RecordSink slaveKeySink,
-            int columnSplit
-
+            RecordSink masterChainSink,
+            int columnSplit,
+            @Nullable CairoWorkScheduler workScheduler
     ) {
         super(metadata);
         this.masterFactory = masterFactory;
@@ -62,13 +81,46 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
         slaveChain = new LongChain(configuration.getSqlHashJoinLightValuePageSize());
         this.masterKeySink = masterKeySink;
         this.slaveKeySink = slaveKeySink;
+        this.masterPartitions = new RecordChainPartitions(
+                configuration,
+                masterFactory.getMetadata(),
+                masterChainSink,
+                configuration.getSqlHashJoinValuePageSize(),
+                "join-master-"
+        );
+        this.slavePartitions = new RecordChainPartitions(
+                configuration,
+                new ArrayColumnTypes().add(ColumnType.LONG),
+                ROW_ID_SINK,
+                configuration.getSqlHashJoinLightValuePageSize(),
+                "join-slave-"
+        );
+        this.spillThreshold = configuration.getSqlHashJoinSpillThreshold();
         this.cursor = new HashJoinRecordCursor(columnSplit, joinKeyMap, slaveChain);
+        if (workScheduler != null && masterFactory instanceof TableReaderRecordCursorFactory && joinKeyMap instanceof FastMap) {
+            final TableReaderRecordCursorFactory tableFactory = (TableReaderRecordCursorFactory) masterFactory;
+            this.parallelProbe = new ParallelHashJoinProbe(
+                    configuration,
+                    engine,
+                    tableFactory.getTableName(),
+                    tableFactory.getTableVersion(),
+                    (FastMap) joinKeyMap,
+                    slaveChain,
+                    masterKeySink,
+                    workScheduler
+            );
+        } else {
+            this.parallelProbe = null;
+        }
     }
 
     @Override
     public void close() {
         joinKeyMap.close();
         slaveChain.close();
+        masterPartitions.close();
+        slavePartitions.close();
+        Misc.free(parallelProbe);
         ((JoinRecordMetadata) getMetadata()).close();
         masterFactory.close();
         slaveFactory.close();
@@ -77,13 +129,44 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
     @Override
     public RecordCursor getCursor(SqlExecutionContext executionContext) {
         RecordCursor slaveCursor = slaveFactory.getCursor(executionContext);
+        final boolean spilled;
         try {
-            buildMapOfSlaveRecords(slaveCursor);
+            spilled = !buildMapOfSlaveRecords(slaveCursor);
+            if (spilled) {
+                partitionRecords(slaveCursor, slaveKeySink, slavePartitions);
+            }
         } catch (CairoException e) {
+            slavePartitions.clear();
             slaveCursor.close();
             throw e;
         }
-        cursor.of(masterFactory.getCursor(executionContext), slaveCursor);
+
+        RecordCursor masterCursor = masterFactory.getCursor(executionContext);
+        boolean parallel = false;
+        if (spilled) {
+            try {
+                partitionRecords(masterCursor, masterKeySink, masterPartitions);
+            } catch (CairoException e) {
+                masterPartitions.clear();
+                slavePartitions.clear();
+                masterCursor.close();
+                slaveCursor.close();
+                throw e;
+            }
+        } else if (parallelProbe != null) {
+            try {
+                parallel = parallelProbe.of(
+                        executionContext.getCairoSecurityContext(),
+                        ((TableReaderRecordCursor) masterCursor).getTableReader()
+                );
+            } catch (CairoException e) {
+                parallelProbe.clear();
+                masterCursor.close();
+                slaveCursor.close();
+                throw e;
+            }
+        }
+        cursor.of(masterCursor, slaveCursor, spilled, parallel);
         return cursor;
     }
 
@@ -92,21 +175,43 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
         return false;
     }
 
-    private void buildMapOfSlaveRecords(RecordCursor slaveCursor) {
+    private boolean buildMapOfSlaveRecords(RecordCursor slaveCursor) {
         slaveChain.clear();
         joinKeyMap.clear();
         final Record record = slaveCursor.getRecord();
         while (slaveCursor.hasNext()) {
-            MapKey key = joinKeyMap.withKey();
-            key.put(record, slaveKeySink);
-            MapValue value = key.createValue();
-            if (value.isNew()) {
-                final long offset = slaveChain.put(record.getRowId(), -1);
-                value.putLong(0, offset);
-                value.putLong(1, offset);
-            } else {
-                value.putLong(1, slaveChain.put(record.getRowId(), value.getLong(1)));
+            if (slaveChain.getMemoryUsed() > spillThreshold) {
+                slaveChain.clear();
+                joinKeyMap.clear();
+                return false;
             }
+            putSlaveRecord(record);
+        }
+        return true;
+    }
+
+    private void partitionRecords(RecordCursor cursor, RecordSink keySink, RecordChainPartitions partitions) {
+        partitions.open();
+        partitions.setSymbolTableResolver(cursor);
+        cursor.toTop();
+        final Record record = cursor.getRecord();
+        while (cursor.hasNext()) {
+            MapKey key = joinKeyMap.withKey();
+            key.put(record, keySink);
+            partitions.put(key.hash(), record);
+        }
+    }
+
+    private void putSlaveRecord(Record record) {
+        MapKey key = joinKeyMap.withKey();
+        key.put(record, slaveKeySink);
+        MapValue value = key.createValue();
+        if (value.isNew()) {
+            final long offset = slaveChain.put(record.getRowId(), -1);
+            value.putLong(0, offset);
+            value.putLong(1, offset);
+        } else {
+            value.putLong(1, slaveChain.put(record.getRowId(), value.getLong(1)));
         }
     }
 
@@ -117,8 +222,15 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
         private final int columnSplit;
         private RecordCursor masterCursor;
         private RecordCursor slaveCursor;
+        private RecordCursor probeCursor;
         private Record masterRecord;
         private LongChain.TreeCursor slaveChainCursor;
+        private boolean spilled;
+        private int partition;
+        // true when master is probed by workers, see ParallelHashJoinProbe
+        private boolean parallel;
+        private RecordChain matches;
+        private Record matchRecord;
 
         public HashJoinRecordCursor(int columnSplit, Map joinKeyMap, LongChain slaveChain) {
             this.record = new JoinRecord(columnSplit);
@@ -129,8 +241,17 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
 
         @Override
         public void close() {
+            if (parallel) {
+                parallelProbe.clear();
+                parallel = false;
+            }
             masterCursor = Misc.free(masterCursor);
             slaveCursor = Misc.free(slaveCursor);
+            if (spilled) {
+                masterPartitions.clear();
+                slavePartitions.clear();
+                spilled = false;
+            }
         }
 
         @Override
@@ -153,38 +274,95 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
 
         @Override
         public boolean hasNext() {
+            if (parallel) {
+                return nextMatch();
+            }
+
             if (slaveChainCursor != null && slaveChainCursor.hasNext()) {
                 slaveCursor.recordAt(slaveChainCursor.next());
                 return true;
             }
 
-            while (masterCursor.hasNext()) {
-                MapKey key = joinKeyMap.withKey();
-                key.put(masterRecord, masterKeySink);
-                MapValue value = key.findValue();
-                if (value != null) {
-                    slaveChainCursor = slaveChain.getCursor(value.getLong(0));
-                    // we know cursor has values
-                    // advance to get first value
-                    slaveChainCursor.hasNext();
-                    slaveCursor.recordAt(slaveChainCursor.next());
-                    return true;
+            while (true) {
+                while (probeCursor.hasNext()) {
+                    MapKey key = joinKeyMap.withKey();
+                    key.put(masterRecord, masterKeySink);
+                    MapValue value = key.findValue();
+                    if (value != null) {
+                        slaveChainCursor = slaveChain.getCursor(value.getLong(0));
+                        // we know cursor has values
+                        // advance to get first value
+                        slaveChainCursor.hasNext();
+                        slaveCursor.recordAt(slaveChainCursor.next());
+                        return true;
+                    }
                 }
+
+                if (!spilled || partition == slavePartitions.getPartitionCount() - 1) {
+                    return false;
+                }
+                ofPartition(partition + 1);
             }
-            return false;
         }
 
         @Override
         public void toTop() {
-            masterCursor.toTop();
+            if (spilled) {
+                ofPartition(0);
+            } else if (parallel) {
+                parallelProbe.toTop();
+                matches = null;
+            } else {
+                masterCursor.toTop();
+            }
             slaveChainCursor = null;
         }
 
-        void of(RecordCursor masterCursor, RecordCursor slaveCursor) {
+        void of(RecordCursor masterCursor, RecordCursor slaveCursor, boolean spilled, boolean parallel) {
             this.masterCursor = masterCursor;
             this.slaveCursor = slaveCursor;
-            this.masterRecord = masterCursor.getRecord();
-            Record slaveRecord = slaveCursor.getRecord();
+            this.spilled = spilled;
+            this.parallel = parallel;
+            this.matches = null;
+            if (spilled) {
+                ofPartition(0);
+            } else {
+                this.probeCursor = masterCursor;
+                this.masterRecord = masterCursor.getRecord();
+                record.of(masterRecord, slaveCursor.getRecord());
+            }
+            slaveChainCursor = null;
+        }
+
+        private boolean nextMatch() {
+            while (true) {
+                if (matches != null && matches.hasNext()) {
+                    masterCursor.recordAt(matchRecord.getLong(0));
+                    slaveCursor.recordAt(matchRecord.getLong(1));
+                    return true;
+                }
+
+                matches = parallelProbe.nextMatches();
+                if (matches == null) {
+                    return false;
+                }
+                matchRecord = matches.getRecord();
+            }
+        }
+
+        private void ofPartition(int partition) {
+            this.partition = partition;
+            slaveChain.clear();
+            joinKeyMap.clear();
+            final RecordChain slavePartition = slavePartitions.get(partition);
+            final Record rowIdRecord = slavePartition.getRecord();
+            final Record slaveRecord = slaveCursor.getRecord();
+            while (slavePartition.hasNext()) {
+                slaveCursor.recordAt(rowIdRecord.getLong(0));
+                putSlaveRecord(slaveRecord);
+            }
+            this.probeCursor = masterPartitions.get(partition);
+            this.masterRecord = probeCursor.getRecord();
             record.of(masterRecord, slaveRecord);
             slaveChainCursor = null;
         }
@@ -0,0 +1,255 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.SOCountDownLatch;
+import io.questdb.std.LongList;
+import io.questdb.std.Misc;
+import io.questdb.std.Unsafe;
+
+import java.io.Closeable;
+
+/**
+ * Probes join key map with rows of one shard of master table. Matches are collected in chunks: once chunk
+ * reaches its memory limit probe stops and is resumed from the same row, and the same slave chain position,
+ * after consumer has read the chunk.
+ */
+class HashJoinProbeTask implements Closeable {
+    private static final Log LOG = LogFactory.getLog(HashJoinProbeTask.class);
+    private static final ArrayColumnTypes MATCH_TYPES = new ArrayColumnTypes().add(ColumnType.LONG).add(ColumnType.LONG);
+    private static final long SEQUENCE_OFFSET;
+
+    static {
+        SEQUENCE_OFFSET = Unsafe.getFieldOffset(HashJoinProbeTask.class, "sequence");
+    }
+
+    // partition index, row lo and row hi triplets
+    private final LongList frames = new LongList();
+    private final TableReaderRecord record = new TableReaderRecord();
+    private final RecordSink masterKeySink;
+    private final FastMap.Probe probe;
+    private final LongChain.TreeCursor slaveChainCursor;
+    // master and slave row id pairs of matching rows, row ids are put directly, chain has no sink
+    private final RecordChain matches;
+    // counted down when published chunk is probed or when publication is cancelled
+    private final SOCountDownLatch doneLatch = new SOCountDownLatch();
+    private TableReader reader;
+    private long matchMemoryLimit;
+    // position to resume probe from
+    private int frameIndex;
+    private long row;
+    private long masterRowId;
+    private boolean chainPending;
+    private long tail;
+    private boolean complete;
+    private boolean failed;
+    // sequence task was published with, -1 when task is not published
+    private long publishedSequence = -1;
+    @SuppressWarnings({"unused", "FieldCanBeLocal"})
+    private volatile long sequence = 0L;
+
+    HashJoinProbeTask(FastMap joinKeyMap, LongChain slaveChain, RecordSink masterKeySink, long pageSize) {
+        this.probe = joinKeyMap.newProbe();
+        this.slaveChainCursor = slaveChain.newCursor();
+        this.masterKeySink = masterKeySink;
+        this.matches = new RecordChain(MATCH_TYPES, null, pageSize);
+    }
+
+    static void probeAndCountDown(HashJoinProbeTask task, SOCountDownLatch latch) {
+        try {
+            task.probe();
+        } catch (Throwable e) {
+            LOG.error().$("hash join probe failed [table=").$(task.reader.getTableName()).$(", e=").$(e).$(']').$();
+            task.failed = true;
+        } finally {
+            latch.countDown();
+        }
+    }
+
+    @Override
+    public void close() {
+        probe.close();
+        matches.close();
+        releaseReader();
+    }
+
+    void addFrame(int partitionIndex, long rowLo, long rowHi) {
+        // this runs on thread that opens the cursor, it keeps
+        // file operations and logging away from workers
+        reader.openPartition(partitionIndex);
+        if (frames.size() == 0) {
+            row = rowLo;
+        }
+        frames.add(partitionIndex);
+        frames.add(rowLo);
+        frames.add(rowHi);
+    }
+
+    /**
+     * Waits for published chunk to be probed. Chunk is probed by current thread when no worker has picked it up yet.
+     */
+    void await() {
+        if (publishedSequence > -1) {
+            if (tryLock(publishedSequence)) {
+                probeAndCountDown(this, doneLatch);
+            }
+            doneLatch.await();
+            publishedSequence = -1;
+        }
+    }
+
+    /**
+     * Withdraws published chunk unless worker is already probing it, in which case waits for worker to finish.
+     */
+    void cancel() {
+        if (publishedSequence > -1) {
+            if (tryLock(publishedSequence)) {
+                doneLatch.countDown();
+            }
+            doneLatch.await();
+            publishedSequence = -1;
+        }
+    }
+
+    void clear() {
+        frames.clear();
+        matches.clear();
+        frameIndex = 0;
+        chainPending = false;
+        complete = false;
+        failed = false;
+    }
+
+    SOCountDownLatch getDoneLatch() {
+        return doneLatch;
+    }
+
+    /**
+     * @return chain of master and slave row id pairs positioned at the first pair
+     */
+    RecordChain getMatches() {
+        matches.toTop();
+        return matches;
+    }
+
+    /**
+     * @return true when all rows of shard are probed and there are no more chunks to come
+     */
+    boolean isComplete() {
+        return complete;
+    }
+
+    boolean isFailed() {
+        return failed;
+    }
+
+    void of(TableReader reader, long matchMemoryLimit) {
+        this.reader = reader;
+        this.matchMemoryLimit = matchMemoryLimit;
+        this.record.of(reader);
+    }
+
+    /**
+     * Makes task available to workers. Current thread must {@link #await()} or {@link #cancel()} the task
+     * before it touches the task again.
+     *
+     * @return sequence to be published on the queue alongside the task
+     */
+    long prepareToPublish() {
+        doneLatch.setCount(1);
+        publishedSequence = sequence;
+        return publishedSequence;
+    }
+
+    void releaseReader() {
+        reader = Misc.free(reader);
+    }
+
+    /**
+     * Probes next chunk on current thread.
+     */
+    void resume() {
+        probe();
+    }
+
+    boolean tryLock(long expectedSequence) {
+        return Unsafe.cas(this, SEQUENCE_OFFSET, expectedSequence, expectedSequence + 1);
+    }
+
+    /**
+     * Puts pairs of current master row and remaining rows of slave chain.
+     *
+     * @return true when chunk is full before slave chain is exhausted
+     */
+    private boolean appendChain() {
+        while (slaveChainCursor.hasNext()) {
+            if (matches.getMemoryUsed() >= matchMemoryLimit) {
+                return true;
+            }
+            tail = matches.beginRecord(tail);
+            matches.putLong(masterRowId);
+            matches.putLong(slaveChainCursor.next());
+        }
+        return false;
+    }
+
+    private void probe() {
+        matches.clear();
+        tail = -1;
+        if (chainPending) {
+            chainPending = appendChain();
+            if (chainPending) {
+                return;
+            }
+        }
+
+        for (int m = frames.size(); frameIndex < m; ) {
+            final long hi = frames.getQuick(frameIndex + 2);
+            record.jumpTo((int) frames.getQuick(frameIndex), row);
+            while (row < hi) {
+                record.setRecordIndex(row++);
+                final MapValue value = probe.of(record, masterKeySink).findValue();
+                if (value != null) {
+                    masterRowId = record.getRowId();
+                    slaveChainCursor.of(value.getLong(0));
+                    chainPending = appendChain();
+                    if (chainPending) {
+                        return;
+                    }
+                }
+            }
+            frameIndex += 3;
+            if (frameIndex < m) {
+                row = frames.getQuick(frameIndex + 1);
+            }
+        }
+        complete = true;
+    }
+}
@@ -34,6 +34,12 @@ import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.Misc;
 import io.questdb.std.Transient;
 
+/**
+ * Inner hash join, which copies slave records into memory. When slave records exceed
+ * hash join spill threshold both sides are partitioned to disk by hash code of join key and
+ * each pair of partitions is joined in memory in turn. Rows of spilled join are grouped by
+ * partition.
+ */
 public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
     private final Map joinKeyMap;
     private final RecordChain slaveChain;
@@ -41,6 +47,9 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
     private final RecordCursorFactory slaveFactory;
     private final RecordSink masterSink;
     private final RecordSink slaveKeySink;
+    private final RecordChainPartitions masterPartitions;
+    private final RecordChainPartitions slavePartitions;
+    private final long spillThreshold;
     private final HashJoinRecordCursor cursor;
 
     public HashJoinRecordCursorFactory(
@@ -52,6 +61,7 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
             @Transient ColumnTypes valueTypes, // this expected to be just LONG, we store chain references in map
             RecordSink masterSink,
             RecordSink slaveKeySink,
+            RecordSink masterChainSink,
             RecordSink slaveChainSink,
             int columnSplit
 
@@ -63,6 +73,21 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
         slaveChain = new RecordChain(slaveFactory.getMetadata(), slaveChainSink, configuration.getSqlHashJoinValuePageSize());
         this.masterSink = masterSink;
         this.slaveKeySink = slaveKeySink;
+        this.masterPartitions = new RecordChainPartitions(
+                configuration,
+                masterFactory.getMetadata(),
+                masterChainSink,
+                configuration.getSqlHashJoinValuePageSize(),
+                "join-master-"
+        );
+        this.slavePartitions = new RecordChainPartitions(
+                configuration,
+                slaveFactory.getMetadata(),
+                slaveChainSink,
+                configuration.getSqlHashJoinValuePageSize(),
+                "join-slave-"
+        );
+        this.spillThreshold = configuration.getSqlHashJoinSpillThreshold();
         this.cursor = new HashJoinRecordCursor(columnSplit, joinKeyMap, slaveChain);
     }
 
@@ -70,6 +95,8 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
     public void close() {
         joinKeyMap.close();
         slaveChain.close();
+        masterPartitions.close();
+        slavePartitions.close();
         ((JoinRecordMetadata) getMetadata()).close();
         masterFactory.close();
         slaveFactory.close();
@@ -78,13 +105,31 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
     @Override
     public RecordCursor getCursor(SqlExecutionContext executionContext) {
         RecordCursor slaveCursor = slaveFactory.getCursor(executionContext);
+        final boolean spilled;
         try {
-            buildMapOfSlaveRecords(slaveCursor);
+            spilled = !buildMapOfSlaveRecords(slaveCursor);
+            if (spilled) {
+                partitionRecords(slaveCursor, slaveKeySink, slavePartitions);
+            }
         } catch (CairoException e) {
+            slavePartitions.clear();
             slaveCursor.close();
             throw e;
         }
-        cursor.of(masterFactory.getCursor(executionContext), slaveCursor);
+
+        RecordCursor masterCursor = masterFactory.getCursor(executionContext);
+        if (spilled) {
+            try {
+                partitionRecords(masterCursor, masterSink, masterPartitions);
+            } catch (CairoException e) {
+                masterPartitions.clear();
+                slavePartitions.clear();
+                masterCursor.close();
+                slaveCursor.close();
+                throw e;
+            }
+        }
+        cursor.of(masterCursor, slaveCursor, spilled);
         return cursor;
     }
 
@@ -93,8 +138,40 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
         return false;
     }
 
-    private void buildMapOfSlaveRecords(RecordCursor slaveCursor) {
-        HashOuterJoinRecordCursorFactory.buildMap(slaveCursor, slaveCursor.getRecord(), joinKeyMap, slaveKeySink, slaveChain);
+    private boolean buildMapOfSlaveRecords(RecordCursor slaveCursor) {
+        joinKeyMap.clear();
+        slaveChain.clear();
+        final Record record = slaveCursor.getRecord();
+        while (slaveCursor.hasNext()) {
+            if (slaveChain.getMemoryUsed() > spillThreshold) {
+                joinKeyMap.clear();
+                slaveChain.clear();
+                return false;
+            }
+            MapKey key = joinKeyMap.withKey();
+            key.put(record, slaveKeySink);
+            MapValue value = key.createValue();
+            if (value.isNew()) {
+                long offset = slaveChain.put(record, -1);
+                value.putLong(0, offset);
+                value.putLong(1, offset);
+            } else {
+                value.putLong(1, slaveChain.put(record, value.getLong(1)));
+            }
+        }
+        return true;
+    }
+
+    private void partitionRecords(RecordCursor cursor, RecordSink keySink, RecordChainPartitions partitions) {
+        partitions.open();
+        partitions.setSymbolTableResolver(cursor);
+        cursor.toTop();
+        final Record record = cursor.getRecord();
+        while (cursor.hasNext()) {
+            MapKey key = joinKeyMap.withKey();
+            key.put(record, keySink);
+            partitions.put(key.hash(), record);
+        }
     }
 
     private class HashJoinRecordCursor implements NoRandomAccessRecordCursor {
@@ -104,8 +181,11 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
         private final int columnSplit;
         private RecordCursor masterCursor;
         private RecordCursor slaveCursor;
+        private RecordCursor probeCursor;
         private Record masterRecord;
         private boolean useSlaveCursor;
+        private boolean spilled;
+        private int partition;
 
         public HashJoinRecordCursor(int columnSplit, Map joinKeyMap, RecordChain slaveChain) {
             this.record = new JoinRecord(columnSplit);
@@ -118,6 +198,11 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
         public void close() {
             masterCursor = Misc.free(masterCursor);
             slaveCursor = Misc.free(slaveCursor);
+            if (spilled) {
+                masterPartitions.clear();
+                slavePartitions.clear();
+                spilled = false;
+            }
         }
 
         @Override
@@ -144,35 +229,60 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
                 return true;
             }
 
-            while (masterCursor.hasNext()) {
-                MapKey key = joinKeyMap.withKey();
-                key.put(masterRecord, masterSink);
-                MapValue value = key.findValue();
-                if (value != null) {
-                    slaveChain.of(value.getLong(0));
-                    // we know cursor has values
-                    // advance to get first value
-                    slaveChain.hasNext();
-                    useSlaveCursor = true;
-                    return true;
+            while (true) {
+                while (probeCursor.hasNext()) {
+                    MapKey key = joinKeyMap.withKey();
+                    key.put(masterRecord, masterSink);
+                    MapValue value = key.findValue();
+                    if (value != null) {
+                        slaveChain.of(value.getLong(0));
+                        // we know cursor has values
+                        // advance to get first value
+                        slaveChain.hasNext();
+                        useSlaveCursor = true;
+                        return true;
+                    }
                 }
+
+                if (!spilled || partition == slavePartitions.getPartitionCount() - 1) {
+                    return false;
+                }
+                ofPartition(partition + 1);
             }
-            return false;
         }
 
         @Override
         public void toTop() {
-            masterCursor.toTop();
+            if (spilled) {
+                ofPartition(0);
+            } else {
+                masterCursor.toTop();
+            }
             useSlaveCursor = false;
         }
 
-        void of(RecordCursor masterCursor, RecordCursor slaveCursor) {
+        void of(RecordCursor masterCursor, RecordCursor slaveCursor, boolean spilled) {
             this.masterCursor = masterCursor;
             this.slaveCursor = slaveCursor;
-            this.masterRecord = masterCursor.getRecord();
-            Record slaveRecord = slaveChain.getRecord();
+            this.spilled = spilled;
             this.slaveChain.setSymbolTableResolver(slaveCursor);
-            record.of(masterRecord, slaveRecord);
+            if (spilled) {
+                ofPartition(0);
+            } else {
+                this.probeCursor = masterCursor;
+                this.masterRecord = masterCursor.getRecord();
+                record.of(masterRecord, slaveChain.getRecord());
+            }
+            useSlaveCursor = false;
+        }
+
+        private void ofPartition(int partition) {
+            this.partition = partition;
+            final RecordChain slavePartition = slavePartitions.get(partition);
+            HashOuterJoinRecordCursorFactory.buildMap(slavePartition, slavePartition.getRecord(), joinKeyMap, slaveKeySink, slaveChain);
+            this.probeCursor = masterPartitions.get(partition);
+            this.masterRecord = probeCursor.getRecord();
+            record.of(masterRecord, slaveChain.getRecord());
             useSlaveCursor = false;
         }
     }
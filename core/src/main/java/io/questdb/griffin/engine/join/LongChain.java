@@ -26,6 +26,7 @@ package io.questdb.griffin.engine.join;
 
 import io.questdb.cairo.VirtualMemory;
 import io.questdb.std.Mutable;
+import io.questdb.std.Unsafe;
 
 import java.io.Closeable;
 
@@ -49,11 +50,26 @@ public class LongChain implements Closeable, Mutable {
         valueChain.close();
     }
 
+    public long getMemoryUsed() {
+        return valueChain.getAppendOffset();
+    }
+
     public TreeCursor getCursor(long tailOffset) {
         cursor.of(tailOffset);
         return cursor;
     }
 
+    /**
+     * Creates cursor independent of the one returned by {@link #getCursor(long)}. Cursors
+     * do not change chain state, each thread can read chain via its own cursor once chain
+     * is no longer being written to.
+     *
+     * @return new cursor instance
+     */
+    public TreeCursor newCursor() {
+        return new TreeCursor();
+    }
+
     public long put(long value, long parentOffset) {
         final long appendOffset = valueChain.getAppendOffset();
         if (parentOffset != -1) {
@@ -71,14 +87,17 @@ public class LongChain implements Closeable, Mutable {
         }
 
         public long next() {
-            long next = valueChain.getLong(nextOffset);
-            long value = valueChain.getLong(nextOffset + 8);
+            // entries are 16 bytes at 16 byte aligned offsets, they never cross page boundary
+            final long address = valueChain.addressOfConcurrent(nextOffset);
+            long next = Unsafe.getUnsafe().getLong(address);
+            long value = Unsafe.getUnsafe().getLong(address + 8);
             this.nextOffset = next;
             return value;
         }
 
-        void of(long startOffset) {
+        public TreeCursor of(long startOffset) {
             this.nextOffset = startOffset;
+            return this;
         }
     }
 }
@@ -0,0 +1,302 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.sql.ReaderOutOfDateException;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.Sequence;
+import io.questdb.std.LongList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+
+import java.io.Closeable;
+
+/**
+ * Probes join key map with rows of master table in parallel. Map and slave chain are built
+ * beforehand and are only read while probing. Master rows are split into contiguous shards, which
+ * are handed out to tasks in turn, one task per worker plus one. Each task reads the table with its
+ * own table reader and collects row ids of matching master and slave rows into chain of its own.
+ * <p>
+ * Matches are streamed: consumer reads chunks in shard order, which yields rows in the same order as
+ * single-threaded probe, and task is handed next shard as soon as consumer is done with its chunk.
+ * Chunks share what is left of hash join spill threshold after slave chain, shard that has more
+ * matches than that is resumed chunk by chunk. When cursor is closed early, shards that workers
+ * have not started on are withdrawn.
+ */
+class ParallelHashJoinProbe implements Closeable {
+    // shards smaller than this are not worth a table reader of their own
+    private static final long MIN_SHARD_ROW_COUNT = 4096;
+    // keeps work done ahead of consumer, e.g. when query has LIMIT, in check
+    private static final long MAX_SHARD_ROW_COUNT = 256 * 1024;
+    // shards per task, spreads uneven shards across workers
+    private static final int SHARDS_PER_TASK = 4;
+    private final CairoEngine engine;
+    private final String tableName;
+    private final long tableVersion;
+    private final FastMap joinKeyMap;
+    private final LongChain slaveChain;
+    private final RecordSink masterKeySink;
+    private final long pageSize;
+    private final long spillThreshold;
+    private final ObjList<HashJoinProbeTask> tasks = new ObjList<>();
+    // partition index, row lo and row hi triplets of the entire table
+    private final LongList frames = new LongList();
+    private final CairoWorkScheduler workScheduler;
+    private final int maxTaskCount;
+    private int taskCount;
+    private long shardRowCount;
+    // position in frames where next shard starts
+    private int frameIndex;
+    private long frameRow;
+    // task, which chunk is being read by consumer
+    private int current;
+    // task, which has been handed the last shard
+    private int last;
+    // false until first chunk of current task is returned
+    private boolean chunkReturned;
+
+    ParallelHashJoinProbe(
+            CairoConfiguration configuration,
+            CairoEngine engine,
+            String tableName,
+            long tableVersion,
+            FastMap joinKeyMap,
+            LongChain slaveChain,
+            RecordSink masterKeySink,
+            CairoWorkScheduler workScheduler
+    ) {
+        this.engine = engine;
+        this.tableName = tableName;
+        this.tableVersion = tableVersion;
+        this.joinKeyMap = joinKeyMap;
+        this.slaveChain = slaveChain;
+        this.masterKeySink = masterKeySink;
+        this.pageSize = configuration.getSqlHashJoinLightValuePageSize();
+        this.spillThreshold = configuration.getSqlHashJoinSpillThreshold();
+        this.workScheduler = workScheduler;
+        this.maxTaskCount = workScheduler.getWorkerCount() + 1;
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Misc.freeObjList(tasks);
+        tasks.clear();
+    }
+
+    /**
+     * Withdraws shards that are not yet probed, frees matches and releases table readers.
+     */
+    void clear() {
+        for (int i = 0; i < taskCount; i++) {
+            final HashJoinProbeTask task = tasks.getQuick(i);
+            task.cancel();
+            task.clear();
+            task.releaseReader();
+        }
+        taskCount = 0;
+    }
+
+    /**
+     * Returns next chunk of matches. Chunk returned previously must have been read by then.
+     *
+     * @return chain of master and slave row id pairs positioned at the first pair or null when all rows are probed
+     */
+    RecordChain nextMatches() {
+        if (current == -1) {
+            return null;
+        }
+
+        HashJoinProbeTask task = tasks.getQuick(current);
+        if (chunkReturned) {
+            if (!task.isComplete()) {
+                // shard has more matches than chunk can hold, there is no point handing it to
+                // a worker as consumer would have nothing else to do while waiting
+                task.resume();
+                return task.getMatches();
+            }
+
+            if (current == last) {
+                // this was the last shard of the table
+                current = -1;
+                return null;
+            }
+
+            // hand task next shard and move on to the task that follows in shard order
+            if (nextShard(task)) {
+                last = current;
+                publish(task);
+            }
+            current = (current + 1) % taskCount;
+            task = tasks.getQuick(current);
+        }
+
+        task.await();
+        chunkReturned = true;
+        if (task.isFailed()) {
+            throw CairoException.instance(0).put("hash join failed [table=").put(tableName).put(']');
+        }
+        return task.getMatches();
+    }
+
+    /**
+     * Hands out first shards to tasks. Matches are then read via {@link #nextMatches()}.
+     *
+     * @param securityContext security context of the query
+     * @param reader          reader of master cursor, row ids of matches are valid for this reader
+     * @return false when table is too small to be probed in parallel
+     */
+    boolean of(CairoSecurityContext securityContext, TableReader reader) {
+        clear();
+        frames.clear();
+        long rowCount = 0;
+        for (int i = 0, n = reader.getPartitionCount(); i < n; i++) {
+            final long size = reader.openPartition(i);
+            if (size > 0) {
+                frames.add(i);
+                frames.add(0);
+                frames.add(size);
+                rowCount += size;
+            }
+        }
+
+        final int targetTaskCount = (int) Math.min(maxTaskCount, rowCount / MIN_SHARD_ROW_COUNT);
+        if (targetTaskCount < 2) {
+            return false;
+        }
+
+        // memory of slave chain counts towards spill threshold too
+        final long matchMemoryLimit = Math.max(pageSize, (spillThreshold - slaveChain.getMemoryUsed()) / targetTaskCount);
+        for (int i = 0; i < targetTaskCount; i++) {
+            // tasks need reader at the same transaction as master cursor
+            final TableReader taskReader = getReader(securityContext, reader.getTxn());
+            if (taskReader == null) {
+                break;
+            }
+            getTask(i).of(taskReader, matchMemoryLimit);
+            taskCount++;
+        }
+
+        if (taskCount < 2) {
+            clear();
+            return false;
+        }
+
+        final long shardCount = (long) taskCount * SHARDS_PER_TASK;
+        shardRowCount = Math.max(MIN_SHARD_ROW_COUNT, Math.min(MAX_SHARD_ROW_COUNT, (rowCount + shardCount - 1) / shardCount));
+        toTop();
+        return true;
+    }
+
+    /**
+     * Withdraws shards that are in-flight and hands out shards from the start of the table.
+     */
+    void toTop() {
+        for (int i = 0; i < taskCount; i++) {
+            tasks.getQuick(i).cancel();
+        }
+
+        frameIndex = 0;
+        frameRow = 0;
+        current = 0;
+        last = 0;
+        chunkReturned = false;
+        for (int i = 0; i < taskCount; i++) {
+            final HashJoinProbeTask task = tasks.getQuick(i);
+            if (!nextShard(task)) {
+                break;
+            }
+            last = i;
+            publish(task);
+        }
+    }
+
+    private TableReader getReader(CairoSecurityContext securityContext, long txn) {
+        try {
+            final TableReader reader = engine.getReader(securityContext, tableName, tableVersion);
+            if (reader.getTxn() == txn) {
+                return reader;
+            }
+            reader.close();
+        } catch (CairoException | ReaderOutOfDateException ignore) {
+        }
+        return null;
+    }
+
+    private HashJoinProbeTask getTask(int index) {
+        if (index < tasks.size()) {
+            return tasks.getQuick(index);
+        }
+        HashJoinProbeTask task = new HashJoinProbeTask(joinKeyMap, slaveChain, masterKeySink, pageSize);
+        tasks.add(task);
+        return task;
+    }
+
+    /**
+     * Points task at rows that follow shard handed out last.
+     *
+     * @return false when there are no rows left
+     */
+    private boolean nextShard(HashJoinProbeTask task) {
+        task.clear();
+        long remaining = shardRowCount;
+        for (int n = frames.size(); frameIndex < n && remaining > 0; ) {
+            final long hi = frames.getQuick(frameIndex + 2);
+            final long size = Math.min(hi - frameRow, remaining);
+            task.addFrame((int) frames.getQuick(frameIndex), frameRow, frameRow + size);
+            frameRow += size;
+            remaining -= size;
+            if (frameRow == hi) {
+                frameIndex += 3;
+                frameRow = 0;
+            }
+        }
+        return remaining < shardRowCount;
+    }
+
+    private void publish(HashJoinProbeTask task) {
+        final long sequence = task.prepareToPublish();
+        final CairoWorkQueue<HashJoinProbeEntry> workQueue = workScheduler.getWorkQueue(HashJoinProbeEntry.QUEUE_TYPE);
+        final Sequence pubSequence = workQueue.getPubSequence();
+        final RingQueue<HashJoinProbeEntry> queue = workQueue.getQueue();
+        long cursor;
+        do {
+            cursor = pubSequence.next();
+            if (cursor == -1) {
+                // queue is full, consumer probes the task itself when it gets to it
+                return;
+            }
+            // -2 is CAS issue, retry
+        } while (cursor < 0);
+
+        final HashJoinProbeEntry queueItem = queue.get(cursor);
+        queueItem.task = task;
+        queueItem.sequence = sequence;
+        queueItem.countDownLatch = task.getDoneLatch();
+        pubSequence.done(cursor);
+    }
+}
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Disk backed partitions of records for hash joins, which build side does not fit in memory.
+ * Records are assigned to partitions by hash code of their join key, so that matching master
+ * and slave records end up in partitions of the same index. Each partition is {@link RecordChain}
+ * kept in its own file under spill root. Files are removed when partitions are cleared.
+ */
+class RecordChainPartitions implements Closeable, Mutable {
+    private static final AtomicLong SPILL_FILE_SEQUENCE = new AtomicLong();
+    private final FilesFacade ff;
+    private final CharSequence spillRoot;
+    private final int mkDirMode;
+    private final long pageSize;
+    private final String prefix;
+    private final ObjList<ReadWriteMemory> memories = new ObjList<>();
+    private final ObjList<RecordChain> chains = new ObjList<>();
+    private final LongList tails = new LongList();
+    private final Path path = new Path();
+    private long fileId = -1;
+
+    RecordChainPartitions(
+            CairoConfiguration configuration,
+            @Transient ColumnTypes columnTypes,
+            RecordSink recordSink,
+            long pageSize,
+            String prefix
+    ) {
+        this.ff = configuration.getFilesFacade();
+        this.spillRoot = configuration.getSqlSpillRoot();
+        this.mkDirMode = configuration.getMkDirMode();
+        this.pageSize = pageSize;
+        this.prefix = prefix;
+        final int partitionCount = configuration.getSqlHashJoinSpillPartitionCount();
+        for (int i = 0; i < partitionCount; i++) {
+            final ReadWriteMemory mem = new ReadWriteMemory();
+            memories.add(mem);
+            chains.add(new RecordChain(columnTypes, recordSink, mem));
+        }
+        tails.setPos(partitionCount);
+    }
+
+    static int partitionOf(int hash, int partitionCount) {
+        // high bits of the product are independent of low bits of hash code, which map uses to
+        // find key slot, keys within single partition are still spread evenly across the map
+        return (int) ((((hash & 0xffffffffL) * 0x9E3779B9L) >>> 32) * partitionCount >>> 32);
+    }
+
+    @Override
+    public void clear() {
+        if (fileId != -1) {
+            for (int i = 0, n = chains.size(); i < n; i++) {
+                // closes and truncates partition file
+                chains.getQuick(i).clear();
+                ff.remove(partitionPath(i));
+            }
+            fileId = -1;
+        }
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Misc.free(path);
+    }
+
+    /**
+     * @param partition partition index
+     * @return chain of partition records positioned at the first record
+     */
+    RecordChain get(int partition) {
+        final RecordChain chain = chains.getQuick(partition);
+        chain.toTop();
+        return chain;
+    }
+
+    int getPartitionCount() {
+        return chains.size();
+    }
+
+    /**
+     * Creates empty partition files. Files of previous use are removed.
+     */
+    void open() {
+        clear();
+        path.of(spillRoot).put(Files.SEPARATOR).$();
+        if (ff.mkdirs(path, mkDirMode) != 0) {
+            throw CairoException.instance(ff.errno()).put("could not create [dir=").put(path).put(']');
+        }
+        fileId = SPILL_FILE_SEQUENCE.incrementAndGet();
+        for (int i = 0, n = chains.size(); i < n; i++) {
+            tails.setQuick(i, -1);
+            final Path partitionPath = partitionPath(i);
+            // file may be left over by process that did not finish
+            ff.remove(partitionPath);
+            memories.getQuick(i).of(ff, partitionPath, pageSize);
+        }
+    }
+
+    /**
+     * Appends record to partition chosen by hash code of its join key.
+     *
+     * @param hash   hash code of record join key
+     * @param record record to append
+     */
+    void put(int hash, Record record) {
+        final int partition = partitionOf(hash, chains.size());
+        tails.setQuick(partition, chains.getQuick(partition).put(record, tails.getQuick(partition)));
+    }
+
+    void setSymbolTableResolver(RecordCursor resolver) {
+        for (int i = 0, n = chains.size(); i < n; i++) {
+            chains.getQuick(i).setSymbolTableResolver(resolver);
+        }
+    }
+
+    private Path partitionPath(int partition) {
+        path.of(spillRoot).put(Files.SEPARATOR).put(prefix);
+        path.put(fileId);
+        path.put('-');
+        path.put(partition);
+        return path.put(".d").$();
+    }
+}
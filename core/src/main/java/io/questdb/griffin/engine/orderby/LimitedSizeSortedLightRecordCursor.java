@@ -0,0 +1,239 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.sql.DelegatingRecordCursor;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.std.Unsafe;
+
+/**
+ * Keeps row ids of the first (or last) "limit" rows of the ordering in bounded binary heap. Heap entry
+ * is row id and sequence number of the row in base cursor. Sequence number breaks ties between
+ * equal rows, most recent row comes first, same as in full sort. Heap top is the entry, which is
+ * the first to be evicted. Once base cursor is exhausted heap is sorted in place.
+ */
+class LimitedSizeSortedLightRecordCursor implements DelegatingRecordCursor {
+    private static final int ENTRY_SIZE = 16;
+    private final RecordComparator comparator;
+    private final long limit;
+    private final boolean last;
+    private final long initialCapacity;
+    private RecordCursor base;
+    private Record baseRecord;
+    private Record placeHolderRecordA = null;
+    private Record placeHolderRecordB = null;
+    private long address = 0;
+    private long capacity = 0;
+    private long size = 0;
+    private long index = 0;
+
+    public LimitedSizeSortedLightRecordCursor(RecordComparator comparator, long limit, boolean last, long pageSize) {
+        this.comparator = comparator;
+        this.limit = limit;
+        this.last = last;
+        this.initialCapacity = Math.min(Math.max(pageSize / ENTRY_SIZE, 1), limit);
+    }
+
+    @Override
+    public void close() {
+        if (address != 0) {
+            Unsafe.free(address, capacity * ENTRY_SIZE);
+            address = 0;
+            capacity = 0;
+        }
+        size = 0;
+        base.close();
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public Record getRecord() {
+        return baseRecord;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return base.getSymbolTable(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (index < size) {
+            // heap is sorted with the first row of ordering at the end when last rows are kept
+            final long p = last ? size - 1 - index : index;
+            base.recordAt(getRowId(p));
+            index++;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public Record newRecord() {
+        return base.newRecord();
+    }
+
+    @Override
+    public void recordAt(Record record, long atRowId) {
+        base.recordAt(record, atRowId);
+    }
+
+    @Override
+    public void recordAt(long rowId) {
+        base.recordAt(rowId);
+    }
+
+    @Override
+    public void toTop() {
+        index = 0;
+    }
+
+    @Override
+    public void of(RecordCursor base) {
+        this.base = base;
+        this.baseRecord = base.getRecord();
+        if (placeHolderRecordA == null) {
+            placeHolderRecordA = base.newRecord();
+            placeHolderRecordB = base.newRecord();
+        }
+
+        size = 0;
+        if (limit > 0) {
+            long seq = 0;
+            while (base.hasNext()) {
+                if (size < limit) {
+                    if (size == capacity) {
+                        extend();
+                    }
+                    put(size, baseRecord.getRowId(), seq);
+                    siftUp(size++);
+                } else if (evicts()) {
+                    put(0, baseRecord.getRowId(), seq);
+                    siftDown(0, size);
+                }
+                seq++;
+            }
+
+            // heap sort, evicted entries are moved to the end
+            for (long n = size - 1; n > 0; n--) {
+                swap(0, n);
+                siftDown(0, n);
+            }
+        }
+        toTop();
+    }
+
+    private int compare(long i, long j) {
+        base.recordAt(placeHolderRecordA, getRowId(i));
+        comparator.setLeft(placeHolderRecordA);
+        base.recordAt(placeHolderRecordB, getRowId(j));
+        final int cmp = comparator.compare(placeHolderRecordB);
+        if (cmp != 0) {
+            return last ? -cmp : cmp;
+        }
+        // the more recent row, the earlier it is in the ordering
+        return last ? Long.compare(getSeq(i), getSeq(j)) : Long.compare(getSeq(j), getSeq(i));
+    }
+
+    // checks if current row of base cursor takes place of heap top
+    private boolean evicts() {
+        comparator.setLeft(baseRecord);
+        base.recordAt(placeHolderRecordA, getRowId(0));
+        final int cmp = comparator.compare(placeHolderRecordA);
+        // current row is more recent than any heap entry, it wins ties
+        // unless it is the last rows of the ordering that are kept
+        return last ? cmp > 0 : cmp <= 0;
+    }
+
+    private void extend() {
+        if (address == 0) {
+            capacity = initialCapacity;
+            address = Unsafe.malloc(capacity * ENTRY_SIZE);
+        } else {
+            final long newCapacity = Math.min(capacity * 2, limit);
+            address = Unsafe.realloc(address, capacity * ENTRY_SIZE, newCapacity * ENTRY_SIZE);
+            capacity = newCapacity;
+        }
+    }
+
+    private long getRowId(long i) {
+        return Unsafe.getUnsafe().getLong(address + i * ENTRY_SIZE);
+    }
+
+    private long getSeq(long i) {
+        return Unsafe.getUnsafe().getLong(address + i * ENTRY_SIZE + 8);
+    }
+
+    private void put(long i, long rowId, long seq) {
+        final long p = address + i * ENTRY_SIZE;
+        Unsafe.getUnsafe().putLong(p, rowId);
+        Unsafe.getUnsafe().putLong(p + 8, seq);
+    }
+
+    private void siftDown(long i, long n) {
+        while (true) {
+            long child = 2 * i + 1;
+            if (child >= n) {
+                break;
+            }
+            if (child + 1 < n && compare(child + 1, child) > 0) {
+                child++;
+            }
+            if (compare(child, i) <= 0) {
+                break;
+            }
+            swap(i, child);
+            i = child;
+        }
+    }
+
+    private void siftUp(long i) {
+        while (i > 0) {
+            final long parent = (i - 1) / 2;
+            if (compare(i, parent) <= 0) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void swap(long i, long j) {
+        final long pi = address + i * ENTRY_SIZE;
+        final long pj = address + j * ENTRY_SIZE;
+        final long rowId = Unsafe.getUnsafe().getLong(pi);
+        final long seq = Unsafe.getUnsafe().getLong(pi + 8);
+        Unsafe.getUnsafe().putLong(pi, Unsafe.getUnsafe().getLong(pj));
+        Unsafe.getUnsafe().putLong(pi + 8, Unsafe.getUnsafe().getLong(pj + 8));
+        Unsafe.getUnsafe().putLong(pj, rowId);
+        Unsafe.getUnsafe().putLong(pj + 8, seq);
+    }
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.SqlExecutionContext;
+
+/**
+ * Sorts rows of random access cursor when "order by" is followed by constant "limit". Only row ids
+ * of the rows that can be returned by limit are kept, rows are returned in the same order as
+ * by {@link SortedLightRecordCursorFactory}.
+ */
+public class LimitedSizeSortedLightRecordCursorFactory extends AbstractRecordCursorFactory {
+    private final RecordCursorFactory base;
+    private final LimitedSizeSortedLightRecordCursor cursor;
+
+    /**
+     * @param configuration provides initial size of row id memory
+     * @param metadata      metadata of sorted rows
+     * @param base          random access factory of rows being sorted
+     * @param comparator    comparator compiled for "order by" columns
+     * @param limit         number of rows to keep
+     * @param last          when true last rows of the ordering are kept instead of the first ones
+     */
+    public LimitedSizeSortedLightRecordCursorFactory(
+            CairoConfiguration configuration,
+            RecordMetadata metadata,
+            RecordCursorFactory base,
+            RecordComparator comparator,
+            long limit,
+            boolean last
+    ) {
+        super(metadata);
+        this.base = base;
+        this.cursor = new LimitedSizeSortedLightRecordCursor(
+                comparator,
+                limit,
+                last,
+                configuration.getSqlSortLightValuePageSize()
+        );
+    }
+
+    @Override
+    public void close() {
+        base.close();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) {
+        RecordCursor baseCursor = base.getCursor(executionContext);
+        this.cursor.of(baseCursor);
+        return cursor;
+    }
+
+    @Override
+    public boolean isRandomAccessCursor() {
+        return true;
+    }
+}
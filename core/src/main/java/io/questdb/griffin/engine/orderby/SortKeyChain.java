@@ -0,0 +1,590 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.ListColumnFilter;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sorts record references, such as row ids or record chain offsets, by materialising them together with
+ * fixed-width sort key in contiguous memory. When first column of "order by" is integral its value is encoded
+ * into 64-bit key and when this column is the only one entries are sorted with LSD radix sort. All other
+ * orderings are merge sorted, where keys are compared first and compiled comparator is only called to
+ * resolve key ties.
+ * <p>
+ * Memory held by entries is bounded by spill threshold. Once it is reached entries are sorted and
+ * written out to run file in spill directory. When chain is sorted run file is mapped into memory and
+ * runs are merged by cursor using binary heap of run heads.
+ * <p>
+ * Both sort algorithms and the merge are stable, entries with equal keys are returned in the order they
+ * were added or in reverse of that order when chain is created with reversed ties.
+ */
+public class SortKeyChain implements Closeable, Mutable {
+    private static final int ENTRY_SIZE = 16;
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX_SIZE = 1 << RADIX_BITS;
+    private static final int RADIX_PASSES = 64 / RADIX_BITS;
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+    private static final AtomicLong SPILL_FILE_SEQUENCE = new AtomicLong();
+    private final Cursor cursor = new Cursor();
+    private final long[] histogram = new long[RADIX_PASSES * RADIX_SIZE];
+    private final long initialCapacity;
+    private final long maxCapacity;
+    private final int keyColumnIndex;
+    private final int keyColumnType;
+    private final boolean keyDescending;
+    private final boolean tiesReversed;
+    private final RecordComparator comparator;
+    private final FilesFacade ff;
+    private final CharSequence spillRoot;
+    private final int mkDirMode;
+    // file offsets of spilled runs, pairs of lo and hi
+    private final LongList spilledRuns = new LongList();
+    // addresses of runs being merged, pairs of current entry and limit
+    private final LongList mergeRuns = new LongList();
+    private final IntList heap = new IntList();
+    private long address = 0;
+    private long tmpAddress = 0;
+    private long capacity = 0;
+    private long tmpCapacity = 0;
+    private long size = 0;
+    private Path path;
+    private long spillFd = -1;
+    private long spillSize = 0;
+    private long spillAddress = 0;
+    private long spillMapSize = 0;
+    // records are only used by merge sort to resolve key ties
+    private RecordCursor recordCursor;
+    private Record leftRecord;
+    private Record rightRecord;
+
+    /**
+     * @param columnTypes   column types of records being sorted
+     * @param orderBy       list of 1-based column indexes, negative index denotes descending order
+     * @param comparator    comparator compiled for the same list of columns
+     * @param tiesReversed  when true entries with equal keys are returned most recently added first
+     * @param configuration provides spill threshold and spill directory
+     * @param pageSize      initial size of entry memory
+     */
+    public SortKeyChain(
+            ColumnTypes columnTypes,
+            ListColumnFilter orderBy,
+            RecordComparator comparator,
+            boolean tiesReversed,
+            CairoConfiguration configuration,
+            long pageSize
+    ) {
+        final int index = orderBy.getColumnIndex(0);
+        final int columnIndex = (index > 0 ? index : -index) - 1;
+        final int columnType = columnTypes.getColumnType(columnIndex);
+        if (isIntegral(columnType)) {
+            this.keyColumnIndex = columnIndex;
+            this.keyColumnType = columnType;
+            this.keyDescending = index < 0;
+            // key defines order completely when there is only one column
+            this.comparator = orderBy.getColumnCount() > 1 ? comparator : null;
+        } else {
+            this.keyColumnIndex = -1;
+            this.keyColumnType = -1;
+            this.keyDescending = false;
+            this.comparator = comparator;
+        }
+        this.tiesReversed = tiesReversed;
+        this.ff = configuration.getFilesFacade();
+        this.spillRoot = configuration.getSqlSpillRoot();
+        this.mkDirMode = configuration.getMkDirMode();
+        // sort needs two buffers of the same capacity
+        this.maxCapacity = Math.max(configuration.getSqlSortSpillThreshold() / ENTRY_SIZE / 2, INSERTION_SORT_THRESHOLD);
+        this.initialCapacity = Math.min(Math.max(pageSize / ENTRY_SIZE, INSERTION_SORT_THRESHOLD), maxCapacity);
+    }
+
+    public static boolean isIntegral(int columnType) {
+        switch (columnType) {
+            case ColumnType.BOOLEAN:
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.CHAR:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        releaseSpill();
+    }
+
+    @Override
+    public void close() {
+        clear();
+        if (address != 0) {
+            Unsafe.free(address, capacity * ENTRY_SIZE);
+            address = 0;
+            capacity = 0;
+        }
+        if (tmpAddress != 0) {
+            Unsafe.free(tmpAddress, tmpCapacity * ENTRY_SIZE);
+            tmpAddress = 0;
+            tmpCapacity = 0;
+        }
+        path = Misc.free(path);
+        recordCursor = null;
+        leftRecord = null;
+        rightRecord = null;
+    }
+
+    public Cursor getCursor() {
+        cursor.toTop();
+        return cursor;
+    }
+
+    /**
+     * Clears the chain and sets up records, which are positioned at references held by the chain
+     * to resolve ties between keys via comparator. Ties can be resolved while entries are still being
+     * added when chain spills.
+     *
+     * @param recordCursor cursor that positions records at references
+     * @param leftRecord   record instance owned by the caller
+     * @param rightRecord  another record instance owned by the caller
+     */
+    public void of(RecordCursor recordCursor, Record leftRecord, Record rightRecord) {
+        clear();
+        this.recordCursor = recordCursor;
+        this.leftRecord = leftRecord;
+        this.rightRecord = rightRecord;
+    }
+
+    /**
+     * Adds record reference to the chain. Sort key is read from the record.
+     *
+     * @param record record, which is the source of sort key
+     * @param ref    reference that is returned by chain cursor once chain is sorted
+     */
+    public void put(Record record, long ref) {
+        if (size == capacity) {
+            if (capacity < maxCapacity) {
+                extend();
+            } else {
+                spill();
+            }
+        }
+        final long p = address + size * ENTRY_SIZE;
+        Unsafe.getUnsafe().putLong(p, keyColumnIndex > -1 ? getKey(record) : 0);
+        Unsafe.getUnsafe().putLong(p + 8, ref);
+        size++;
+    }
+
+    public long size() {
+        return size + spillSize / ENTRY_SIZE;
+    }
+
+    /**
+     * Sorts entries. When chain spilled, entries held in memory are sorted as the last run and
+     * runs are merged by the cursor.
+     */
+    public void sort() {
+        sortRun();
+        if (spillFd != -1) {
+            spillMapSize = spillSize;
+            spillAddress = ff.mmap(spillFd, spillMapSize, 0, Files.MAP_RO);
+            if (spillAddress == -1) {
+                spillAddress = 0;
+                throw CairoException.instance(ff.errno()).put("could not mmap sort spill [fd=").put(spillFd).put(", size=").put(spillMapSize).put(']');
+            }
+            mergeRuns.clear();
+            for (int i = 0, n = spilledRuns.size(); i < n; i += 2) {
+                mergeRuns.add(spillAddress + spilledRuns.getQuick(i));
+                mergeRuns.add(spillAddress + spilledRuns.getQuick(i + 1));
+            }
+            if (size > 0) {
+                mergeRuns.add(address);
+                mergeRuns.add(address + size * ENTRY_SIZE);
+            }
+        }
+    }
+
+    private int compare(long entryA, long entryB) {
+        final int cmp = Long.compare(Unsafe.getUnsafe().getLong(entryA), Unsafe.getUnsafe().getLong(entryB));
+        if (cmp != 0 || comparator == null) {
+            return cmp;
+        }
+        recordCursor.recordAt(leftRecord, Unsafe.getUnsafe().getLong(entryA + 8));
+        comparator.setLeft(leftRecord);
+        recordCursor.recordAt(rightRecord, Unsafe.getUnsafe().getLong(entryB + 8));
+        return comparator.compare(rightRecord);
+    }
+
+    private int compareRuns(int runA, int runB) {
+        final int cmp = compare(mergeRuns.getQuick(runA * 2), mergeRuns.getQuick(runB * 2));
+        if (cmp != 0) {
+            return cmp;
+        }
+        // runs hold entries in the order they were added
+        return tiesReversed ? Integer.compare(runB, runA) : Integer.compare(runA, runB);
+    }
+
+    private void extend() {
+        if (address == 0) {
+            capacity = initialCapacity;
+            address = Unsafe.malloc(capacity * ENTRY_SIZE);
+        } else {
+            final long newCapacity = Math.min(capacity * 2, maxCapacity);
+            address = Unsafe.realloc(address, capacity * ENTRY_SIZE, newCapacity * ENTRY_SIZE);
+            capacity = newCapacity;
+        }
+    }
+
+    private long getKey(Record record) {
+        final long value;
+        switch (keyColumnType) {
+            case ColumnType.BOOLEAN:
+                value = record.getBool(keyColumnIndex) ? 1 : 0;
+                break;
+            case ColumnType.BYTE:
+                value = record.getByte(keyColumnIndex);
+                break;
+            case ColumnType.SHORT:
+                value = record.getShort(keyColumnIndex);
+                break;
+            case ColumnType.CHAR:
+                value = record.getChar(keyColumnIndex);
+                break;
+            case ColumnType.INT:
+                value = record.getInt(keyColumnIndex);
+                break;
+            case ColumnType.DATE:
+                value = record.getDate(keyColumnIndex);
+                break;
+            case ColumnType.TIMESTAMP:
+                value = record.getTimestamp(keyColumnIndex);
+                break;
+            default:
+                value = record.getLong(keyColumnIndex);
+                break;
+        }
+        // bitwise negation reverses order of all long values without overflow
+        return keyDescending ? ~value : value;
+    }
+
+    private void insertionSort(long lo, long hi) {
+        for (long i = lo + ENTRY_SIZE; i < hi; i += ENTRY_SIZE) {
+            final long key = Unsafe.getUnsafe().getLong(i);
+            final long ref = Unsafe.getUnsafe().getLong(i + 8);
+            // entry is compared in place, it is moved only after insertion point is found
+            long j = i - ENTRY_SIZE;
+            while (j >= lo && compare(j, i) > 0) {
+                j -= ENTRY_SIZE;
+            }
+            j += ENTRY_SIZE;
+            if (j < i) {
+                Unsafe.getUnsafe().copyMemory(j, j + ENTRY_SIZE, i - j);
+                Unsafe.getUnsafe().putLong(j, key);
+                Unsafe.getUnsafe().putLong(j + 8, ref);
+            }
+        }
+    }
+
+    private void merge(long src, long dst, long lo, long mid, long hi) {
+        long i = lo;
+        long j = mid;
+        long k = dst + (lo - src);
+        // left entry wins ties to keep sort stable
+        while (i < mid && j < hi) {
+            if (compare(j, i) < 0) {
+                Unsafe.getUnsafe().copyMemory(j, k, ENTRY_SIZE);
+                j += ENTRY_SIZE;
+            } else {
+                Unsafe.getUnsafe().copyMemory(i, k, ENTRY_SIZE);
+                i += ENTRY_SIZE;
+            }
+            k += ENTRY_SIZE;
+        }
+        if (i < mid) {
+            Unsafe.getUnsafe().copyMemory(i, k, mid - i);
+        } else if (j < hi) {
+            Unsafe.getUnsafe().copyMemory(j, k, hi - j);
+        }
+    }
+
+    private void mergeSort() {
+        final long limit = address + size * ENTRY_SIZE;
+        final long run = INSERTION_SORT_THRESHOLD * ENTRY_SIZE;
+        for (long lo = address; lo < limit; lo += run) {
+            insertionSort(lo, Math.min(lo + run, limit));
+        }
+
+        long src = address;
+        long dst = tmpAddress;
+        final long bytes = size * ENTRY_SIZE;
+        for (long width = run; width < bytes; width *= 2) {
+            for (long lo = 0; lo < bytes; lo += 2 * width) {
+                final long mid = Math.min(lo + width, bytes);
+                final long hi = Math.min(lo + 2 * width, bytes);
+                if (mid < hi) {
+                    merge(src, dst, src + lo, src + mid, src + hi);
+                } else {
+                    Unsafe.getUnsafe().copyMemory(src + lo, dst + lo, mid - lo);
+                }
+            }
+            final long t = src;
+            src = dst;
+            dst = t;
+        }
+        swapBuffers(src);
+    }
+
+    private void radixSort() {
+        Arrays.fill(histogram, 0);
+        final long limit = address + size * ENTRY_SIZE;
+        for (long p = address; p < limit; p += ENTRY_SIZE) {
+            // flip sign bit for signed keys to sort as unsigned
+            final long key = Unsafe.getUnsafe().getLong(p) ^ Long.MIN_VALUE;
+            for (int pass = 0; pass < RADIX_PASSES; pass++) {
+                histogram[pass * RADIX_SIZE + (int) ((key >>> (pass * RADIX_BITS)) & (RADIX_SIZE - 1))]++;
+            }
+        }
+
+        long src = address;
+        long dst = tmpAddress;
+        final long firstKey = Unsafe.getUnsafe().getLong(address) ^ Long.MIN_VALUE;
+        for (int pass = 0; pass < RADIX_PASSES; pass++) {
+            final int shift = pass * RADIX_BITS;
+            final int offset = pass * RADIX_SIZE;
+            // skip pass when all keys have the same digit, narrow keys need only a few passes
+            if (histogram[offset + (int) ((firstKey >>> shift) & (RADIX_SIZE - 1))] == size) {
+                continue;
+            }
+
+            long pos = 0;
+            for (int i = offset; i < offset + RADIX_SIZE; i++) {
+                final long count = histogram[i];
+                histogram[i] = pos;
+                pos += count;
+            }
+
+            final long srcLimit = src + size * ENTRY_SIZE;
+            for (long p = src; p < srcLimit; p += ENTRY_SIZE) {
+                final long key = Unsafe.getUnsafe().getLong(p);
+                final int digit = (int) (((key ^ Long.MIN_VALUE) >>> shift) & (RADIX_SIZE - 1));
+                final long q = dst + histogram[offset + digit]++ * ENTRY_SIZE;
+                Unsafe.getUnsafe().putLong(q, key);
+                Unsafe.getUnsafe().putLong(q + 8, Unsafe.getUnsafe().getLong(p + 8));
+            }
+
+            final long t = src;
+            src = dst;
+            dst = t;
+        }
+        swapBuffers(src);
+    }
+
+    private void openSpill() {
+        if (path == null) {
+            path = new Path();
+        }
+        path.of(spillRoot).put(Files.SEPARATOR).$();
+        if (ff.mkdirs(path, mkDirMode) != 0) {
+            throw CairoException.instance(ff.errno()).put("could not create [dir=").put(path).put(']');
+        }
+        path.chopZ().put("sort-");
+        path.put(SPILL_FILE_SEQUENCE.incrementAndGet());
+        path.put(".d").$();
+        spillFd = ff.openRW(path);
+        if (spillFd == -1) {
+            throw CairoException.instance(ff.errno()).put("could not open sort spill [file=").put(path).put(']');
+        }
+        // file may be left behind by previous process
+        ff.truncate(spillFd, 0);
+    }
+
+    private void releaseSpill() {
+        if (spillAddress != 0) {
+            ff.munmap(spillAddress, spillMapSize);
+            spillAddress = 0;
+            spillMapSize = 0;
+        }
+        if (spillFd != -1) {
+            ff.close(spillFd);
+            spillFd = -1;
+            ff.remove(path);
+        }
+        spillSize = 0;
+        spilledRuns.clear();
+        mergeRuns.clear();
+        heap.clear();
+    }
+
+    private void reverse() {
+        for (long lo = address, hi = address + (size - 1) * ENTRY_SIZE; lo < hi; lo += ENTRY_SIZE, hi -= ENTRY_SIZE) {
+            final long key = Unsafe.getUnsafe().getLong(lo);
+            final long ref = Unsafe.getUnsafe().getLong(lo + 8);
+            Unsafe.getUnsafe().putLong(lo, Unsafe.getUnsafe().getLong(hi));
+            Unsafe.getUnsafe().putLong(lo + 8, Unsafe.getUnsafe().getLong(hi + 8));
+            Unsafe.getUnsafe().putLong(hi, key);
+            Unsafe.getUnsafe().putLong(hi + 8, ref);
+        }
+    }
+
+    private void siftDown(int index) {
+        final int n = heap.size();
+        final int run = heap.getQuick(index);
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= n) {
+                break;
+            }
+            if (child + 1 < n && compareRuns(heap.getQuick(child + 1), heap.getQuick(child)) < 0) {
+                child++;
+            }
+            if (compareRuns(heap.getQuick(child), run) >= 0) {
+                break;
+            }
+            heap.setQuick(index, heap.getQuick(child));
+            index = child;
+        }
+        heap.setQuick(index, run);
+    }
+
+    private void sortRun() {
+        if (size < 2) {
+            return;
+        }
+
+        if (tiesReversed) {
+            reverse();
+        }
+
+        if (tmpCapacity < capacity) {
+            if (tmpAddress == 0) {
+                tmpAddress = Unsafe.malloc(capacity * ENTRY_SIZE);
+            } else {
+                tmpAddress = Unsafe.realloc(tmpAddress, tmpCapacity * ENTRY_SIZE, capacity * ENTRY_SIZE);
+            }
+            tmpCapacity = capacity;
+        }
+
+        if (comparator == null) {
+            radixSort();
+        } else {
+            mergeSort();
+        }
+    }
+
+    private void spill() {
+        sortRun();
+        if (spillFd == -1) {
+            openSpill();
+        }
+        final long len = size * ENTRY_SIZE;
+        if (ff.write(spillFd, address, len, spillSize) != len) {
+            throw CairoException.instance(ff.errno()).put("could not write sort spill [fd=").put(spillFd).put(", size=").put(len).put(']');
+        }
+        spilledRuns.add(spillSize);
+        spilledRuns.add(spillSize + len);
+        spillSize += len;
+        size = 0;
+    }
+
+    private void swapBuffers(long sorted) {
+        if (sorted != address) {
+            final long t = address;
+            address = tmpAddress;
+            tmpAddress = t;
+            // buffers may have different capacity
+            final long c = capacity;
+            capacity = tmpCapacity;
+            tmpCapacity = c;
+        }
+    }
+
+    public class Cursor {
+        private long index;
+
+        public boolean hasNext() {
+            if (mergeRuns.size() == 0) {
+                return index < size;
+            }
+            return heap.size() > 0;
+        }
+
+        public long next() {
+            if (mergeRuns.size() == 0) {
+                return Unsafe.getUnsafe().getLong(address + index++ * ENTRY_SIZE + 8);
+            }
+
+            final int run = heap.getQuick(0);
+            final long p = mergeRuns.getQuick(run * 2);
+            if (p + ENTRY_SIZE < mergeRuns.getQuick(run * 2 + 1)) {
+                mergeRuns.setQuick(run * 2, p + ENTRY_SIZE);
+            } else {
+                // run is exhausted, last heap entry takes its place at the top
+                final int last = heap.size() - 1;
+                heap.setQuick(0, heap.getQuick(last));
+                heap.removeIndex(last);
+            }
+            if (heap.size() > 1) {
+                siftDown(0);
+            }
+            return Unsafe.getUnsafe().getLong(p + 8);
+        }
+
+        public void toTop() {
+            index = 0;
+            if (mergeRuns.size() > 0) {
+                // rewind runs to their first entries
+                for (int i = 0, n = spilledRuns.size(); i < n; i += 2) {
+                    mergeRuns.setQuick(i, spillAddress + spilledRuns.getQuick(i));
+                }
+                if (mergeRuns.size() > spilledRuns.size()) {
+                    mergeRuns.setQuick(spilledRuns.size(), address);
+                }
+                heap.clear();
+                for (int i = 0, n = mergeRuns.size() / 2; i < n; i++) {
+                    heap.add(i);
+                }
+                for (int i = heap.size() / 2 - 1; i > -1; i--) {
+                    siftDown(i);
+                }
+            }
+        }
+    }
+}
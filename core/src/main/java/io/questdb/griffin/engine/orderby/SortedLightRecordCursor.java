@@ -30,16 +30,15 @@ import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.SymbolTable;
 
 class SortedLightRecordCursor implements DelegatingRecordCursor {
-    private final LongTreeChain chain;
-    private final RecordComparator comparator;
-    private final LongTreeChain.TreeCursor chainCursor;
+    private final SortKeyChain chain;
+    private final SortKeyChain.Cursor chainCursor;
     private RecordCursor base;
     private Record baseRecord;
-    private Record placeHolderRecord = null;
+    private Record placeHolderRecordA = null;
+    private Record placeHolderRecordB = null;
 
-    public SortedLightRecordCursor(LongTreeChain chain, RecordComparator comparator) {
+    public SortedLightRecordCursor(SortKeyChain chain) {
         this.chain = chain;
-        this.comparator = comparator;
         // assign it once, its the same instance anyway
         this.chainCursor = chain.getCursor();
     }
@@ -98,23 +97,19 @@ class SortedLightRecordCursor implements DelegatingRecordCursor {
     public void of(RecordCursor base) {
         this.base = base;
         this.baseRecord = base.getRecord();
-        if (placeHolderRecord == null) {
-            placeHolderRecord = base.newRecord();
+        if (placeHolderRecordA == null) {
+            placeHolderRecordA = base.newRecord();
+            placeHolderRecordB = base.newRecord();
         }
 
-        chain.clear();
+        // Sort is liable to re-position records to other rows to
+        // do record comparison. We must use our own record instances
+        // in case base cursor keeps state in the record it returns.
+        chain.of(base, placeHolderRecordA, placeHolderRecordB);
         while (base.hasNext()) {
-            // Tree chain is liable to re-position record to
-            // other rows to do record comparison. We must use our
-            // own record instance in case base cursor keeps
-            // state in the record it returns.
-            chain.put(
-                    baseRecord.getRowId(),
-                    base,
-                    placeHolderRecord,
-                    comparator
-            );
+            chain.put(baseRecord, baseRecord.getRowId());
         }
+        chain.sort();
         chainCursor.toTop();
     }
 }
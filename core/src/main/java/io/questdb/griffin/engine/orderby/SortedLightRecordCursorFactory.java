@@ -26,6 +26,7 @@ package io.questdb.griffin.engine.orderby;
 
 import io.questdb.cairo.AbstractRecordCursorFactory;
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ListColumnFilter;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cairo.sql.RecordMetadata;
@@ -33,20 +34,26 @@ import io.questdb.griffin.SqlExecutionContext;
 
 public class SortedLightRecordCursorFactory extends AbstractRecordCursorFactory {
     private final RecordCursorFactory base;
-    private final LongTreeChain chain;
+    private final SortKeyChain chain;
     private final SortedLightRecordCursor cursor;
 
     public SortedLightRecordCursorFactory(
             CairoConfiguration configuration,
             RecordMetadata metadata,
             RecordCursorFactory base,
+            ListColumnFilter sortColumnFilter,
             RecordComparator comparator) {
         super(metadata);
-        this.chain = new LongTreeChain(
-                configuration.getSqlSortKeyPageSize(),
+        // rows with equal sort values are returned most recent first
+        this.chain = new SortKeyChain(
+                base.getMetadata(),
+                sortColumnFilter,
+                comparator,
+                true,
+                configuration,
                 configuration.getSqlSortLightValuePageSize());
         this.base = base;
-        this.cursor = new SortedLightRecordCursor(chain, comparator);
+        this.cursor = new SortedLightRecordCursor(chain);
     }
 
     @Override
@@ -24,53 +24,67 @@
 
 package io.questdb.griffin.engine.orderby;
 
+import io.questdb.cairo.RecordChain;
 import io.questdb.cairo.sql.DelegatingRecordCursor;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.SymbolTable;
 
 class SortedRecordCursor implements DelegatingRecordCursor {
-    private final RecordTreeChain chain;
-    private RecordTreeChain.TreeCursor chainCursor;
+    private final RecordChain recordChain;
+    private final SortKeyChain chain;
+    private final SortKeyChain.Cursor chainCursor;
+    private final Record recordA;
+    private final Record recordB;
+    private RecordCursor base;
 
-    public SortedRecordCursor(RecordTreeChain chain) {
+    public SortedRecordCursor(RecordChain recordChain, SortKeyChain chain) {
+        this.recordChain = recordChain;
         this.chain = chain;
+        this.chainCursor = chain.getCursor();
+        this.recordA = recordChain.newRecord();
+        this.recordB = recordChain.newRecord();
     }
 
     @Override
     public void close() {
-        chainCursor.close();
+        base.close();
+        recordChain.clear();
         chain.clear();
     }
 
     @Override
     public Record getRecord() {
-        return chainCursor.getRecord();
+        return recordChain.getRecord();
     }
 
     @Override
     public SymbolTable getSymbolTable(int columnIndex) {
-        return chainCursor.getSymbolTable(columnIndex);
+        return base.getSymbolTable(columnIndex);
     }
 
     @Override
     public boolean hasNext() {
-        return chainCursor.hasNext();
+        if (chainCursor.hasNext()) {
+            recordChain.recordAt(chainCursor.next());
+            return true;
+        }
+        return false;
     }
 
     @Override
     public Record newRecord() {
-        return chainCursor.newRecord();
+        return recordChain.newRecord();
     }
 
     @Override
     public void recordAt(Record record, long atRowId) {
-        chainCursor.recordAt(record, atRowId);
+        recordChain.recordAt(record, atRowId);
     }
 
     @Override
     public void recordAt(long rowId) {
-        chainCursor.recordAt(rowId);
+        recordChain.recordAt(rowId);
     }
 
     @Override
@@ -80,22 +94,23 @@ class SortedRecordCursor implements DelegatingRecordCursor {
 
     @Override
     public long size() {
-        return chainCursor.size();
+        return base.size();
     }
 
     @Override
     public void of(RecordCursor base) {
-        this.chainCursor = chain.getCursor(base);
+        this.base = base;
         final Record record = base.getRecord();
 
-        chain.clear();
+        recordChain.clear();
+        recordChain.setSymbolTableResolver(base);
+        chain.of(recordChain, recordA, recordB);
         while (base.hasNext()) {
-            // Tree chain is liable to re-position record to
-            // other rows to do record comparison. We must use our
-            // own record instance in case base cursor keeps
-            // state in the record it returns.
-            chain.put(record);
+            // sort key is read from base record, records are
+            // compared as copies held by record chain
+            chain.put(record, recordChain.put(record, -1L));
         }
+        chain.sort();
         chainCursor.toTop();
     }
 }
@@ -27,6 +27,8 @@ package io.questdb.griffin.engine.orderby;
 import io.questdb.cairo.AbstractRecordCursorFactory;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.ListColumnFilter;
+import io.questdb.cairo.RecordChain;
 import io.questdb.cairo.RecordSink;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
@@ -35,7 +37,8 @@ import io.questdb.griffin.SqlExecutionContext;
 
 public class SortedRecordCursorFactory extends AbstractRecordCursorFactory {
     private final RecordCursorFactory base;
-    private final RecordTreeChain chain;
+    private final RecordChain recordChain;
+    private final SortKeyChain chain;
     private final SortedRecordCursor cursor;
 
     public SortedRecordCursorFactory(
@@ -44,21 +47,25 @@ public class SortedRecordCursorFactory extends AbstractRecordCursorFactory {
             RecordCursorFactory base,
             ColumnTypes columnTypes,
             RecordSink recordSink,
+            ListColumnFilter sortColumnFilter,
             RecordComparator comparator) {
         super(metadata);
-        this.chain = new RecordTreeChain(
-                columnTypes,
-                recordSink,
+        this.recordChain = new RecordChain(columnTypes, recordSink, configuration.getSqlSortValuePageSize());
+        this.chain = new SortKeyChain(
+                base.getMetadata(),
+                sortColumnFilter,
                 comparator,
-                configuration.getSqlSortKeyPageSize(),
-                configuration.getSqlSortValuePageSize());
+                false,
+                configuration,
+                configuration.getSqlSortKeyPageSize());
         this.base = base;
-        this.cursor = new SortedRecordCursor(chain);
+        this.cursor = new SortedRecordCursor(recordChain, chain);
     }
 
     @Override
     public void close() {
         base.close();
+        recordChain.close();
         chain.close();
     }
 
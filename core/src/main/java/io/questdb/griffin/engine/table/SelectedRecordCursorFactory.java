@@ -57,4 +57,8 @@ public class SelectedRecordCursorFactory extends AbstractRecordCursorFactory {
     public boolean isRandomAccessCursor() {
         return base.isRandomAccessCursor();
     }
+
+    RecordCursorFactory getBase() {
+        return base;
+    }
 }
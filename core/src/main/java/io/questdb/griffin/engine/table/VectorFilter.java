@@ -0,0 +1,58 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.SqlExecutionContext;
+
+import java.io.Closeable;
+
+/**
+ * Filter, which is evaluated over a batch of consecutive rows of a partition rather than
+ * row by row. Column values are read straight from column memory, which avoids virtual
+ * call per row and function tree node.
+ */
+public interface VectorFilter extends Closeable {
+    int BATCH_SIZE = 4096;
+
+    @Override
+    default void close() {
+    }
+
+    /**
+     * Evaluates filter for rows lo to lo + count of partition. Bit N of the mask is set when row
+     * lo + N satisfies the filter. Bits of the last mask word beyond count are undefined.
+     *
+     * @param reader     table reader
+     * @param columnBase column base of the partition
+     * @param lo         first row of the batch, local to partition
+     * @param count      number of rows in the batch, up to {@link #BATCH_SIZE}
+     * @param mask       words of the bit mask
+     */
+    void filter(TableReader reader, int columnBase, long lo, int count, long[] mask);
+
+    void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext);
+}
@@ -0,0 +1,600 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ReadOnlyColumn;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.VirtualMemory;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.FunctionParser;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.bind.IndexedParameterLinkFunction;
+import io.questdb.griffin.engine.functions.bind.NamedParameterLinkFunction;
+import io.questdb.griffin.model.ExpressionNode;
+import io.questdb.std.*;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Compiles where clause into {@link VectorFilter}. Supported predicates are comparisons of
+ * numeric column with constant or bind variable, equality of symbol column and constant, boolean
+ * columns and their combinations by "and" and "or". Optimiser pushes "not" down into comparisons,
+ * so it does not reach here. Top level conjuncts, which cannot be compiled, are returned as
+ * functions to be evaluated on rows that pass the vector filter.
+ * <p>
+ * Predicates follow semantics of the functions they replace. Numeric equality is evaluated on
+ * the widest type of both arguments, "&lt;" and "&gt;" on doubles and equality with NaN constant
+ * checks for null value of the column type.
+ */
+public class VectorFilterCompiler {
+    private static final int OP_EQ_INT = 0;
+    private static final int OP_EQ_LONG = 1;
+    private static final int OP_EQ_DOUBLE = 2;
+    private static final int OP_LT = 3;
+    private static final int OP_GT = 4;
+    private static final int OP_IS_NAN = 5;
+    private final FunctionParser functionParser;
+    private final ObjList<ExpressionNode> conjuncts = new ObjList<>();
+    private final ObjList<ExpressionNode> residualConjuncts = new ObjList<>();
+
+    public VectorFilterCompiler(FunctionParser functionParser) {
+        this.functionParser = functionParser;
+    }
+
+    /**
+     * @param filter          where clause
+     * @param metadata        metadata of the table
+     * @param residualFilters receives functions for conjuncts, which could not be compiled
+     * @return vector filter or null when none of conjuncts can be compiled or where clause
+     * needs to be validated or folded by function parser
+     */
+    @Nullable
+    public VectorFilter compile(
+            ExpressionNode filter,
+            RecordMetadata metadata,
+            SqlExecutionContext executionContext,
+            ObjList<Function> residualFilters
+    ) throws SqlException {
+        conjuncts.clear();
+        residualConjuncts.clear();
+        collectConjuncts(filter);
+
+        VectorFilter result = null;
+        try {
+            for (int i = 0, n = conjuncts.size(); i < n; i++) {
+                final ExpressionNode node = conjuncts.getQuick(i);
+                final VectorFilter f = compile0(node, metadata, executionContext);
+                if (f == null) {
+                    residualConjuncts.add(node);
+                } else {
+                    result = result == null ? f : new AndFilter(result, f);
+                }
+            }
+
+            if (result != null) {
+                for (int i = 0, n = residualConjuncts.size(); i < n; i++) {
+                    final Function function = functionParser.parseFunction(residualConjuncts.getQuick(i), metadata, executionContext);
+                    residualFilters.add(function);
+                    if (function.getType() != ColumnType.BOOLEAN || function.isConstant()) {
+                        // leave validation and constant folding to the row-by-row filter
+                        Misc.free(result);
+                        Misc.freeObjList(residualFilters);
+                        residualFilters.clear();
+                        return null;
+                    }
+                }
+            }
+            return result;
+        } catch (SqlException e) {
+            Misc.free(result);
+            Misc.freeObjList(residualFilters);
+            residualFilters.clear();
+            throw e;
+        }
+    }
+
+    private static boolean isColumn(ExpressionNode node, RecordMetadata metadata) {
+        return node.type == ExpressionNode.LITERAL
+                && !Chars.startsWith(node.token, ':')
+                && !Chars.startsWith(node.token, '$')
+                && metadata.getColumnIndexQuiet(node.token) > -1;
+    }
+
+    private static boolean isNumeric(int type) {
+        return type >= ColumnType.BYTE && type <= ColumnType.DOUBLE && type != ColumnType.CHAR;
+    }
+
+    private void collectConjuncts(ExpressionNode node) {
+        if (node.type == ExpressionNode.OPERATION && node.paramCount == 2 && Chars.equalsLowerCaseAscii(node.token, "and")) {
+            collectConjuncts(node.lhs);
+            collectConjuncts(node.rhs);
+        } else {
+            conjuncts.add(node);
+        }
+    }
+
+    private VectorFilter compile0(ExpressionNode node, RecordMetadata metadata, SqlExecutionContext executionContext) throws SqlException {
+        if (isColumn(node, metadata)) {
+            final int columnIndex = metadata.getColumnIndexQuiet(node.token);
+            if (metadata.getColumnType(columnIndex) == ColumnType.BOOLEAN) {
+                return new ColumnFilter(columnIndex, ColumnType.BOOLEAN, OP_EQ_LONG, null, 1);
+            }
+            return null;
+        }
+
+        if (node.type != ExpressionNode.OPERATION && node.type != ExpressionNode.FUNCTION) {
+            return null;
+        }
+
+        if (node.paramCount != 2) {
+            return null;
+        }
+
+        final boolean and = Chars.equalsLowerCaseAscii(node.token, "and");
+        if (and || Chars.equalsLowerCaseAscii(node.token, "or")) {
+            final VectorFilter left = compile0(node.lhs, metadata, executionContext);
+            if (left == null) {
+                return null;
+            }
+            final VectorFilter right;
+            try {
+                right = compile0(node.rhs, metadata, executionContext);
+            } catch (SqlException e) {
+                left.close();
+                throw e;
+            }
+            if (right == null) {
+                left.close();
+                return null;
+            }
+            return and ? new AndFilter(left, right) : new OrFilter(left, right);
+        }
+
+        if (Chars.equals(node.token, '=')) {
+            return compileComparison(node, OP_EQ_DOUBLE, metadata, executionContext);
+        }
+
+        if (Chars.equals(node.token, '<')) {
+            return compileComparison(node, OP_LT, metadata, executionContext);
+        }
+
+        if (Chars.equals(node.token, '>')) {
+            return compileComparison(node, OP_GT, metadata, executionContext);
+        }
+        return null;
+    }
+
+    private VectorFilter compileComparison(ExpressionNode node, int op, RecordMetadata metadata, SqlExecutionContext executionContext) throws SqlException {
+        final ExpressionNode columnNode;
+        final ExpressionNode constantNode;
+        if (isColumn(node.lhs, metadata) && !isColumn(node.rhs, metadata)) {
+            columnNode = node.lhs;
+            constantNode = node.rhs;
+        } else if (isColumn(node.rhs, metadata) && !isColumn(node.lhs, metadata)) {
+            columnNode = node.rhs;
+            constantNode = node.lhs;
+            // constant < column is the same as column > constant
+            if (op == OP_LT) {
+                op = OP_GT;
+            } else if (op == OP_GT) {
+                op = OP_LT;
+            }
+        } else {
+            return null;
+        }
+
+        final int columnIndex = metadata.getColumnIndexQuiet(columnNode.token);
+        final int columnType = metadata.getColumnType(columnIndex);
+        final Function constant = functionParser.parseFunction(constantNode, metadata, executionContext);
+        if (!constant.isConstant()
+                && !(constant instanceof IndexedParameterLinkFunction)
+                && !(constant instanceof NamedParameterLinkFunction)) {
+            constant.close();
+            return null;
+        }
+
+        final int constantType = constant.getType();
+        if (columnType == ColumnType.SYMBOL) {
+            if (op == OP_EQ_DOUBLE && constant.isConstant()) {
+                if (constantType == ColumnType.STRING) {
+                    return new SymbolFilter(columnIndex, Chars.toString(constant.getStr(null)));
+                }
+                if (constantType == ColumnType.CHAR) {
+                    return new SymbolFilter(columnIndex, String.valueOf(constant.getChar(null)));
+                }
+            }
+            constant.close();
+            return null;
+        }
+
+        if (!isNumeric(columnType) || !isNumeric(constantType)) {
+            constant.close();
+            return null;
+        }
+
+        if (op == OP_EQ_DOUBLE) {
+            if (constant.isConstant() && constantType == ColumnType.DOUBLE && Double.isNaN(constant.getDouble(null))) {
+                // comparison with NaN is a null check of column type
+                constant.close();
+                switch (columnType) {
+                    case ColumnType.INT:
+                        return new ColumnFilter(columnIndex, columnType, OP_EQ_LONG, null, Numbers.INT_NaN);
+                    case ColumnType.LONG:
+                        return new ColumnFilter(columnIndex, columnType, OP_EQ_LONG, null, Numbers.LONG_NaN);
+                    default:
+                        return new ColumnFilter(columnIndex, columnType, OP_IS_NAN, null, 0);
+                }
+            }
+
+            final int type = Math.max(columnType, constantType);
+            if (type <= ColumnType.INT) {
+                op = OP_EQ_INT;
+            } else if (type == ColumnType.LONG) {
+                op = OP_EQ_LONG;
+            }
+        }
+        return new ColumnFilter(columnIndex, columnType, op, constant, 0);
+    }
+
+    private static class AndFilter implements VectorFilter {
+        private final VectorFilter left;
+        private final VectorFilter right;
+        private final long[] rightMask = new long[BATCH_SIZE >>> 6];
+
+        public AndFilter(VectorFilter left, VectorFilter right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public void close() {
+            left.close();
+            right.close();
+        }
+
+        @Override
+        public void filter(TableReader reader, int columnBase, long lo, int count, long[] mask) {
+            left.filter(reader, columnBase, lo, count, mask);
+            final int words = (count + 63) >>> 6;
+            long any = 0;
+            for (int i = 0; i < words; i++) {
+                any |= mask[i];
+            }
+            // skip right side when no row passed left side
+            if (any != 0) {
+                right.filter(reader, columnBase, lo, count, rightMask);
+                for (int i = 0; i < words; i++) {
+                    mask[i] &= rightMask[i];
+                }
+            }
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) {
+            left.init(symbolTableSource, executionContext);
+            right.init(symbolTableSource, executionContext);
+        }
+    }
+
+    private static class OrFilter implements VectorFilter {
+        private final VectorFilter left;
+        private final VectorFilter right;
+        private final long[] rightMask = new long[BATCH_SIZE >>> 6];
+
+        public OrFilter(VectorFilter left, VectorFilter right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public void close() {
+            left.close();
+            right.close();
+        }
+
+        @Override
+        public void filter(TableReader reader, int columnBase, long lo, int count, long[] mask) {
+            left.filter(reader, columnBase, lo, count, mask);
+            right.filter(reader, columnBase, lo, count, rightMask);
+            for (int i = 0, n = (count + 63) >>> 6; i < n; i++) {
+                mask[i] |= rightMask[i];
+            }
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) {
+            left.init(symbolTableSource, executionContext);
+            right.init(symbolTableSource, executionContext);
+        }
+    }
+
+    private static class ColumnFilter implements VectorFilter {
+        protected final int columnIndex;
+        private final int columnType;
+        private final int shift;
+        private final int op;
+        private final Function constant;
+        private final long[] longs;
+        private final double[] doubles;
+        protected long longValue;
+        private double doubleValue;
+
+        public ColumnFilter(int columnIndex, int columnType, int op, @Nullable Function constant, long longValue) {
+            this.columnIndex = columnIndex;
+            this.columnType = columnType;
+            this.shift = ColumnType.pow2SizeOf(columnType);
+            this.op = op;
+            this.constant = constant;
+            this.longValue = longValue;
+            if (op == OP_EQ_INT || op == OP_EQ_LONG) {
+                this.longs = new long[BATCH_SIZE];
+                this.doubles = null;
+            } else {
+                this.longs = null;
+                this.doubles = new double[BATCH_SIZE];
+            }
+        }
+
+        @Override
+        public void close() {
+            Misc.free(constant);
+        }
+
+        @Override
+        public void filter(TableReader reader, int columnBase, long lo, int count, long[] mask) {
+            final ReadOnlyColumn column = reader.getColumn(TableReader.getPrimaryColumnIndex(columnBase, columnIndex));
+            // column that was added after partition had been written has no memory, all its values are null
+            final long columnTop = column instanceof VirtualMemory ? reader.getColumnTop(columnBase, columnIndex) : Long.MAX_VALUE;
+            final long hi = lo + count;
+            long row = lo;
+            if (row < columnTop) {
+                final int n = (int) (Math.min(hi, columnTop) - lo);
+                if (longs != null) {
+                    Arrays.fill(longs, 0, n, nullLong());
+                } else {
+                    Arrays.fill(doubles, 0, n, nullDouble());
+                }
+                row += n;
+            }
+
+            if (row < hi) {
+                final VirtualMemory mem = (VirtualMemory) column;
+                while (row < hi) {
+                    final long offset = (row - columnTop) << shift;
+                    final int n = (int) Math.min(mem.pageRemaining(offset) >> shift, hi - row);
+                    if (longs != null) {
+                        loadLongs(mem.addressOf(offset), (int) (row - lo), n);
+                    } else {
+                        loadDoubles(mem.addressOf(offset), (int) (row - lo), n);
+                    }
+                    row += n;
+                }
+            }
+
+            switch (op) {
+                case OP_EQ_INT:
+                case OP_EQ_LONG:
+                    matchEq(longs, longValue, count, mask);
+                    break;
+                case OP_EQ_DOUBLE:
+                    matchEq(doubles, doubleValue, count, mask);
+                    break;
+                case OP_LT:
+                    matchLt(doubles, doubleValue, count, mask);
+                    break;
+                case OP_GT:
+                    matchGt(doubles, doubleValue, count, mask);
+                    break;
+                default:
+                    matchNaN(doubles, count, mask);
+                    break;
+            }
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) {
+            if (constant != null) {
+                constant.init(symbolTableSource, executionContext);
+                switch (op) {
+                    case OP_EQ_INT:
+                        longValue = constant.getInt(null);
+                        break;
+                    case OP_EQ_LONG:
+                        longValue = constant.getLong(null);
+                        break;
+                    default:
+                        doubleValue = constant.getDouble(null);
+                        break;
+                }
+            }
+        }
+
+        private static void matchEq(long[] values, long value, int count, long[] mask) {
+            for (int i = 0, w = 0; i < count; w++) {
+                long bits = 0;
+                for (int b = 0, n = Math.min(64, count - i); b < n; b++, i++) {
+                    bits |= (values[i] == value ? 1L : 0L) << b;
+                }
+                mask[w] = bits;
+            }
+        }
+
+        private static void matchEq(double[] values, double value, int count, long[] mask) {
+            final boolean nan = value != value;
+            for (int i = 0, w = 0; i < count; w++) {
+                long bits = 0;
+                for (int b = 0, n = Math.min(64, count - i); b < n; b++, i++) {
+                    final double v = values[i];
+                    bits |= (v != v && nan || Math.abs(v - value) < 0.0000000001 ? 1L : 0L) << b;
+                }
+                mask[w] = bits;
+            }
+        }
+
+        private static void matchGt(double[] values, double value, int count, long[] mask) {
+            for (int i = 0, w = 0; i < count; w++) {
+                long bits = 0;
+                for (int b = 0, n = Math.min(64, count - i); b < n; b++, i++) {
+                    bits |= (values[i] > value ? 1L : 0L) << b;
+                }
+                mask[w] = bits;
+            }
+        }
+
+        private static void matchLt(double[] values, double value, int count, long[] mask) {
+            for (int i = 0, w = 0; i < count; w++) {
+                long bits = 0;
+                for (int b = 0, n = Math.min(64, count - i); b < n; b++, i++) {
+                    bits |= (values[i] < value ? 1L : 0L) << b;
+                }
+                mask[w] = bits;
+            }
+        }
+
+        private static void matchNaN(double[] values, int count, long[] mask) {
+            for (int i = 0, w = 0; i < count; w++) {
+                long bits = 0;
+                for (int b = 0, n = Math.min(64, count - i); b < n; b++, i++) {
+                    final double v = values[i];
+                    bits |= (v != v ? 1L : 0L) << b;
+                }
+                mask[w] = bits;
+            }
+        }
+
+        private void loadDoubles(long address, int pos, int count) {
+            final double[] values = doubles;
+            switch (columnType) {
+                case ColumnType.BYTE:
+                    for (int i = 0; i < count; i++) {
+                        values[pos + i] = Unsafe.getUnsafe().getByte(address + i);
+                    }
+                    break;
+                case ColumnType.SHORT:
+                    for (int i = 0; i < count; i++) {
+                        values[pos + i] = Unsafe.getUnsafe().getShort(address + ((long) i << 1));
+                    }
+                    break;
+                case ColumnType.INT:
+                    for (int i = 0; i < count; i++) {
+                        values[pos + i] = Unsafe.getUnsafe().getInt(address + ((long) i << 2));
+                    }
+                    break;
+                case ColumnType.LONG:
+                    for (int i = 0; i < count; i++) {
+                        values[pos + i] = Unsafe.getUnsafe().getLong(address + ((long) i << 3));
+                    }
+                    break;
+                case ColumnType.FLOAT:
+                    for (int i = 0; i < count; i++) {
+                        values[pos + i] = Unsafe.getUnsafe().getFloat(address + ((long) i << 2));
+                    }
+                    break;
+                default:
+                    for (int i = 0; i < count; i++) {
+                        values[pos + i] = Unsafe.getUnsafe().getDouble(address + ((long) i << 3));
+                    }
+                    break;
+            }
+        }
+
+        private void loadLongs(long address, int pos, int count) {
+            final long[] values = longs;
+            switch (columnType) {
+                case ColumnType.BOOLEAN:
+                case ColumnType.BYTE:
+                    for (int i = 0; i < count; i++) {
+                        values[pos + i] = Unsafe.getUnsafe().getByte(address + i);
+                    }
+                    break;
+                case ColumnType.SHORT:
+                    for (int i = 0; i < count; i++) {
+                        values[pos + i] = Unsafe.getUnsafe().getShort(address + ((long) i << 1));
+                    }
+                    break;
+                case ColumnType.INT:
+                case ColumnType.SYMBOL:
+                    for (int i = 0; i < count; i++) {
+                        values[pos + i] = Unsafe.getUnsafe().getInt(address + ((long) i << 2));
+                    }
+                    break;
+                default:
+                    for (int i = 0; i < count; i++) {
+                        values[pos + i] = Unsafe.getUnsafe().getLong(address + ((long) i << 3));
+                    }
+                    break;
+            }
+        }
+
+        // values table reader returns for rows above column top
+        private double nullDouble() {
+            switch (columnType) {
+                case ColumnType.BYTE:
+                case ColumnType.SHORT:
+                    return 0;
+                case ColumnType.INT:
+                    return Numbers.INT_NaN;
+                case ColumnType.LONG:
+                    return Numbers.LONG_NaN;
+                default:
+                    return Double.NaN;
+            }
+        }
+
+        private long nullLong() {
+            switch (columnType) {
+                case ColumnType.BOOLEAN:
+                case ColumnType.BYTE:
+                case ColumnType.SHORT:
+                    return 0;
+                case ColumnType.INT:
+                case ColumnType.SYMBOL:
+                    return Numbers.INT_NaN;
+                default:
+                    return Numbers.LONG_NaN;
+            }
+        }
+    }
+
+    private static class SymbolFilter extends ColumnFilter {
+        private final String value;
+
+        public SymbolFilter(int columnIndex, String value) {
+            super(columnIndex, ColumnType.SYMBOL, OP_EQ_LONG, null, 0);
+            this.value = value;
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) {
+            // symbol keys are not known until table is open, key is not found for unknown value
+            longValue = symbolTableSource.getSymbolTable(columnIndex).getQuick(value);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.ObjList;
+
+/**
+ * Scans data frames in batches of {@link VectorFilter#BATCH_SIZE} rows. Each batch is filtered
+ * into a bitmask, which is then expanded into a selection vector of matching row ids. Rows are
+ * handed out of the selection vector and checked against residual filters, if any.
+ */
+class VectorFilteredRecordCursor extends AbstractDataFrameRecordCursor {
+    private final VectorFilter filter;
+    private final ObjList<Function> residualFilters;
+    private final long[] mask = new long[VectorFilter.BATCH_SIZE >>> 6];
+    private final long[] rows = new long[VectorFilter.BATCH_SIZE];
+    private TableReader reader;
+    private int columnBase;
+    private long batchLo;
+    private long frameHi;
+    private int rowCount;
+    private int rowIndex;
+
+    public VectorFilteredRecordCursor(VectorFilter filter, ObjList<Function> residualFilters) {
+        this.filter = filter;
+        this.residualFilters = residualFilters;
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            while (true) {
+                while (rowIndex < rowCount) {
+                    record.setRecordIndex(rows[rowIndex++]);
+                    if (acceptResidual()) {
+                        return true;
+                    }
+                }
+
+                if (batchLo < frameHi) {
+                    nextBatch();
+                } else if (dataFrameCursor.hasNext()) {
+                    final DataFrame dataFrame = dataFrameCursor.next();
+                    record.jumpTo(dataFrame.getPartitionIndex(), dataFrame.getRowLo());
+                    columnBase = reader.getColumnBase(dataFrame.getPartitionIndex());
+                    batchLo = dataFrame.getRowLo();
+                    frameHi = dataFrame.getRowHi();
+                } else {
+                    return false;
+                }
+            }
+        } catch (NoMoreFramesException ignore) {
+            return false;
+        }
+    }
+
+    @Override
+    public void toTop() {
+        dataFrameCursor.toTop();
+        resetFrame();
+        for (int i = 0, n = residualFilters.size(); i < n; i++) {
+            residualFilters.getQuick(i).toTop();
+        }
+    }
+
+    @Override
+    public long size() {
+        return -1;
+    }
+
+    @Override
+    void of(DataFrameCursor dataFrameCursor, SqlExecutionContext executionContext) {
+        if (this.dataFrameCursor != dataFrameCursor) {
+            close();
+            this.dataFrameCursor = dataFrameCursor;
+        }
+        this.reader = dataFrameCursor.getTableReader();
+        this.record.of(reader);
+        resetFrame();
+        filter.init(dataFrameCursor, executionContext);
+        for (int i = 0, n = residualFilters.size(); i < n; i++) {
+            residualFilters.getQuick(i).init(dataFrameCursor, executionContext);
+        }
+    }
+
+    private boolean acceptResidual() {
+        for (int i = 0, n = residualFilters.size(); i < n; i++) {
+            if (!residualFilters.getQuick(i).getBool(record)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void nextBatch() {
+        final int count = (int) Math.min(VectorFilter.BATCH_SIZE, frameHi - batchLo);
+        filter.filter(reader, columnBase, batchLo, count, mask);
+
+        int n = 0;
+        final int words = (count + 63) >>> 6;
+        for (int w = 0; w < words; w++) {
+            long bits = mask[w];
+            final int tail = count - (w << 6);
+            if (tail < 64) {
+                // bits past the end of batch are undefined
+                bits &= (1L << tail) - 1;
+            }
+            final long base = batchLo + (w << 6);
+            while (bits != 0) {
+                rows[n++] = base + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        rowCount = n;
+        rowIndex = 0;
+        batchLo += count;
+    }
+
+    private void resetFrame() {
+        batchLo = 0;
+        frameHi = 0;
+        rowCount = 0;
+        rowIndex = 0;
+    }
+}
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+
+public class VectorFilteredRecordCursorFactory extends AbstractDataFrameRecordCursorFactory {
+    private final VectorFilteredRecordCursor cursor;
+    private final VectorFilter filter;
+    private final ObjList<Function> residualFilters;
+
+    public VectorFilteredRecordCursorFactory(
+            RecordMetadata metadata,
+            DataFrameCursorFactory dataFrameCursorFactory,
+            VectorFilter filter,
+            ObjList<Function> residualFilters
+    ) {
+        super(metadata, dataFrameCursorFactory);
+        this.cursor = new VectorFilteredRecordCursor(filter, residualFilters);
+        this.filter = filter;
+        this.residualFilters = residualFilters;
+    }
+
+    @Override
+    public void close() {
+        filter.close();
+        Misc.freeObjList(residualFilters);
+    }
+
+    @Override
+    public boolean isRandomAccessCursor() {
+        return true;
+    }
+
+    @Override
+    protected RecordCursor getCursorInstance(
+            DataFrameCursor dataFrameCursor,
+            SqlExecutionContext executionContext
+    ) {
+        cursor.of(dataFrameCursor, executionContext);
+        return cursor;
+    }
+}
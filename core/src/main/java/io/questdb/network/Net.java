@@ -39,6 +39,7 @@ public final class Net {
     public static final int EPEERDISCONNECT = -1;
     @SuppressWarnings("unused")
     public static final int EOTHERDISCONNECT = -2;
+    public static final boolean SENDFILE_SUPPORTED;
 
     static {
         Os.init();
@@ -52,11 +53,23 @@ public final class Net {
             MMSGHDR_BUFFER_ADDRESS_OFFSET = -1L;
             MMSGHDR_BUFFER_LENGTH_OFFSET = -1L;
         }
+        SENDFILE_SUPPORTED = probeSendFile();
     }
 
     private Net() {
     }
 
+    private static boolean probeSendFile() {
+        // native library built before sendFile() was added does not export it,
+        // callers then have to copy file content via user space
+        try {
+            sendFile(-1, -1, 0, 0);
+            return true;
+        } catch (UnsatisfiedLinkError e) {
+            return false;
+        }
+    }
+
     /**
      * Aborts blocking accept() call. On Darwin and Windows
      * this method simply closes the underlying file descriptor.
@@ -177,6 +190,18 @@ public final class Net {
 
     public static native int send(long fd, long ptr, int len);
 
+    /**
+     * Sends up to count bytes of file content, starting at offset, to socket without copying
+     * it through user space.
+     *
+     * @param fd     socket file descriptor
+     * @param fileFd file descriptor opened for reading
+     * @param offset position in file to send from
+     * @param count  maximum number of bytes to send
+     * @return number of bytes sent, {@link #ERETRY} when socket buffer is full or negative value on error
+     */
+    public static native long sendFile(long fd, long fileFd, long offset, long count);
+
     public native static int sendTo(long fd, long ptr, int len, long sockaddr);
 
     public native static int setMulticastInterface(long fd, int ipv4address);
@@ -56,6 +56,10 @@ public interface NetworkFacade {
 
     int send(long fd, long buffer, int bufferLen);
 
+    long sendFile(long fd, long fileFd, long offset, long count);
+
+    boolean isSendFileSupported();
+
     int errno();
 
     long sockaddr(int address, int port);
@@ -102,6 +102,16 @@ public class NetworkFacadeImpl implements NetworkFacade {
         return Net.send(fd, buffer, bufferLen);
     }
 
+    @Override
+    public long sendFile(long fd, long fileFd, long offset, long count) {
+        return Net.sendFile(fd, fileFd, offset, count);
+    }
+
+    @Override
+    public boolean isSendFileSupported() {
+        return Net.SENDFILE_SUPPORTED;
+    }
+
     @Override
     public int errno() {
         return Os.errno();
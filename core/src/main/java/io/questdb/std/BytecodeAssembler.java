@@ -91,6 +91,10 @@ public class BytecodeAssembler {
         this.poolCount = 1;
     }
 
+    public void aaload() {
+        putByte(0x32);
+    }
+
     public void aload(int value) {
         optimisedIO(aload_0, aload_1, aload_2, aload_3, aload, value);
     }
@@ -112,6 +116,14 @@ public class BytecodeAssembler {
         putShort(0x8F);
     }
 
+    public void dadd() {
+        putByte(0x63);
+    }
+
+    public void ddiv() {
+        putByte(0x6f);
+    }
+
     public void defineClass(int thisClassIndex) {
         defineClass(thisClassIndex, objectClassIndex);
     }
@@ -153,6 +165,18 @@ public class BytecodeAssembler {
         putShort(0);
     }
 
+    public void dmul() {
+        putByte(0x6b);
+    }
+
+    public void dreturn() {
+        putByte(0xaf);
+    }
+
+    public void dsub() {
+        putByte(0x67);
+    }
+
     public void dump(String path) {
         try (FileOutputStream fos = new FileOutputStream(path)) {
             int p = buf.position();
@@ -195,6 +219,10 @@ public class BytecodeAssembler {
         putShort(0x8C);
     }
 
+    public void fadd() {
+        putByte(0x62);
+    }
+
     public void fieldCount(int count) {
         putShort(count);
     }
@@ -203,6 +231,10 @@ public class BytecodeAssembler {
         putShort(O_POOL_COUNT, poolCount);
     }
 
+    public void fmul() {
+        putByte(0x6a);
+    }
+
     public void full_frame(int offset) {
         putByte(0xff);
         putShort(offset);
@@ -245,6 +277,10 @@ public class BytecodeAssembler {
         putByte(0x60);
     }
 
+    public void iand() {
+        putByte(0x7e);
+    }
+
     public void iconst(int v) {
         if (v == -1) {
             putByte(iconst_m1);
@@ -284,6 +320,10 @@ public class BytecodeAssembler {
         optimisedIO(iload_0, iload_1, iload_2, iload_3, iload, value);
     }
 
+    public void imul() {
+        putByte(0x68);
+    }
+
     public void ineg() {
         putByte(0x74);
     }
@@ -317,6 +357,10 @@ public class BytecodeAssembler {
         putShort(index);
     }
 
+    public void ior() {
+        putByte(0x80);
+    }
+
     public void irem() {
         putByte(0x70);
     }
@@ -428,6 +472,14 @@ public class BytecodeAssembler {
         return classCache.valueAt(index);
     }
 
+    public int poolDoubleConst(double value) {
+        putByte(0x06);
+        putLong(Double.doubleToRawLongBits(value));
+        int index = poolCount;
+        poolCount += 2;
+        return index;
+    }
+
     public int poolField(int classIndex, int nameAndTypeIndex) {
         return poolRef(0x09, classIndex, nameAndTypeIndex);
     }
@@ -0,0 +1,215 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.std;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Associative cache, which can be shared by multiple threads. Values are checked out of
+ * the cache by {@link #poll(CharSequence, long)} and returned by {@link #put(CharSequence, Object, long)}
+ * after use, so that value is used by one thread at a time. Cache can hold several values
+ * under the same key when they were checked out concurrently.
+ * <p>
+ * Keys are hashed to a row, each row keeps up to "blocks" values ordered by how recently
+ * they were returned to the cache. When row is full the least recently returned value is evicted
+ * and closed. Rows are locked independently of each other.
+ * <p>
+ * Each value is stamped with the version it was created at. Values older than the version
+ * caller asks for are closed instead of being returned.
+ */
+public class ConcurrentAssociativeCache<V> implements Closeable {
+
+    private static final int MIN_BLOCKS = 2;
+    private static final int MINROWS = 16;
+    private final CharSequence[] keys;
+    private final V[] values;
+    private final long[] versions;
+    private final Object[] locks;
+    private final int rmask;
+    private final int bmask;
+    private final int blocks;
+    private final int bshift;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong invalidationCount = new AtomicLong();
+    private volatile boolean closed = false;
+
+    @SuppressWarnings("unchecked")
+    public ConcurrentAssociativeCache(int blocks, int rows) {
+        this.blocks = Math.max(MIN_BLOCKS, Numbers.ceilPow2(blocks));
+        rows = Math.max(MINROWS, Numbers.ceilPow2(rows));
+
+        int size = rows * this.blocks;
+        if (size < 0) {
+            throw new OutOfMemoryError();
+        }
+        this.keys = new CharSequence[size];
+        this.values = (V[]) new Object[size];
+        this.versions = new long[size];
+        this.locks = new Object[rows];
+        for (int i = 0; i < rows; i++) {
+            locks[i] = new Object();
+        }
+        this.rmask = rows - 1;
+        this.bmask = this.blocks - 1;
+        this.bshift = Numbers.msb(this.blocks);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (int i = 0, n = locks.length; i < n; i++) {
+            synchronized (locks[i]) {
+                for (int j = i << bshift, hi = j + blocks; j < hi; j++) {
+                    keys[j] = null;
+                    Unsafe.arrayPut(values, j, Misc.free(values[j]));
+                }
+            }
+        }
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getInvalidationCount() {
+        return invalidationCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Closes all values cached under given key. This is used when value is known to be stale,
+     * for example when table structure has changed since query was compiled.
+     *
+     * @param key the key
+     */
+    public void invalidate(CharSequence key) {
+        poll0(key, Long.MAX_VALUE);
+    }
+
+    /**
+     * Takes value out of the cache. Caller owns the value until it is returned
+     * via {@link #put(CharSequence, Object, long)}. Values under the key that are older than
+     * given version are closed and removed.
+     *
+     * @param key     the key
+     * @param version minimum version of the value
+     * @return the most recently returned value for the key or null when there isn't one
+     */
+    public V poll(CharSequence key, long version) {
+        final V value = poll0(key, version);
+        if (value != null) {
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+        }
+        return value;
+    }
+
+    /**
+     * Returns value to the cache. Value that does not fit is closed, it is also
+     * closed when cache itself is closed.
+     *
+     * @param key     the key, which is copied when value is cached
+     * @param value   the value
+     * @param version version value was created at
+     */
+    public void put(CharSequence key, V value, long version) {
+        if (closed) {
+            Misc.free(value);
+            return;
+        }
+        final String k = Chars.toString(key);
+        final int row = row(key);
+        final int lo = row << bshift;
+        V evicted;
+        synchronized (locks[row]) {
+            // cache could have been closed since the check above, row may be cleared already
+            if (closed) {
+                Misc.free(value);
+                return;
+            }
+            evicted = values[lo + bmask];
+            System.arraycopy(keys, lo, keys, lo + 1, bmask);
+            System.arraycopy(values, lo, values, lo + 1, bmask);
+            System.arraycopy(versions, lo, versions, lo + 1, bmask);
+            Unsafe.arrayPut(keys, lo, k);
+            Unsafe.arrayPut(values, lo, value);
+            versions[lo] = version;
+        }
+        if (evicted != null) {
+            evictionCount.incrementAndGet();
+            Misc.free(evicted);
+        }
+    }
+
+    private V poll0(CharSequence key, long version) {
+        final int row = row(key);
+        final int lo = row << bshift;
+        final int last = lo + bmask;
+        synchronized (locks[row]) {
+            int index = lo;
+            while (index <= last) {
+                final CharSequence k = keys[index];
+                // row is kept contiguous, lookup stops at first empty slot
+                if (k == null) {
+                    return null;
+                }
+
+                if (Chars.equals(k, key)) {
+                    final V value = values[index];
+                    final long v = versions[index];
+                    System.arraycopy(keys, index + 1, keys, index, last - index);
+                    System.arraycopy(values, index + 1, values, index, last - index);
+                    System.arraycopy(versions, index + 1, versions, index, last - index);
+                    Unsafe.arrayPut(keys, last, null);
+                    Unsafe.arrayPut(values, last, null);
+                    if (v >= version) {
+                        return value;
+                    }
+                    // stale values are rare, they are closed under the lock to keep lookup simple
+                    invalidationCount.incrementAndGet();
+                    Misc.free(value);
+                } else {
+                    index++;
+                }
+            }
+            return null;
+        }
+    }
+
+    private int row(CharSequence key) {
+        return Chars.hashCode(key) & rmask;
+    }
+}
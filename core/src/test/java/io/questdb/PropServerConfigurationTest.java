@@ -90,6 +90,10 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(new File(root, "public").getAbsolutePath(),
                 configuration.getHttpServerConfiguration().getStaticContentProcessorConfiguration().getPublicDirectory());
 
+        Assert.assertTrue(configuration.getHttpServerConfiguration().getStaticContentProcessorConfiguration().isSendFileEnabled());
+        Assert.assertEquals(4 * 1024 * 1024, configuration.getHttpServerConfiguration().getStaticContentProcessorConfiguration().getCacheMaxSize());
+        Assert.assertEquals(128 * 1024, configuration.getHttpServerConfiguration().getStaticContentProcessorConfiguration().getCacheFileMaxSize());
+
         Assert.assertTrue(configuration.getHttpServerConfiguration().getTextImportProcessorConfiguration().abortBrokenUploads());
 
         Assert.assertEquals(256, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getActiveConnectionLimit());
@@ -118,6 +122,10 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(1_000_000, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getConnectionCheckFrequency());
         Assert.assertEquals(10, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getDoubleScale());
         Assert.assertEquals(10, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getFloatScale());
+        Assert.assertEquals(5_000, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getTailHeartbeatInterval());
+        Assert.assertEquals(32, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getTailSubscriptionLimit());
+        Assert.assertEquals(8, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getQueryCacheBlockCount());
+        Assert.assertEquals(64, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getQueryCacheRowCount());
         Assert.assertEquals(2097152, configuration.getCairoConfiguration().getSqlCopyBufferSize());
 
         Assert.assertEquals(5, configuration.getCairoConfiguration().getCreateAsSelectRetryCount());
@@ -150,12 +158,31 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(1024, configuration.getCairoConfiguration().getSqlModelPoolCapacity());
         Assert.assertEquals(4 * 1024 * 1024, configuration.getCairoConfiguration().getSqlSortKeyPageSize());
         Assert.assertEquals(1024 * 1024, configuration.getCairoConfiguration().getSqlSortLightValuePageSize());
+        Assert.assertEquals(1024 * 1024 * 1024L, configuration.getCairoConfiguration().getSqlSortSpillThreshold());
+        TestUtils.assertEquals(new File(root, "tmp").getAbsolutePath(), configuration.getCairoConfiguration().getSqlSpillRoot());
         Assert.assertEquals(16 * 1024 * 1024, configuration.getCairoConfiguration().getSqlHashJoinValuePageSize());
+        Assert.assertEquals(1024 * 1024 * 1024L, configuration.getCairoConfiguration().getSqlHashJoinSpillThreshold());
+        Assert.assertEquals(16, configuration.getCairoConfiguration().getSqlHashJoinSpillPartitionCount());
         Assert.assertEquals(1000, configuration.getCairoConfiguration().getSqlLatestByRowCount());
         Assert.assertEquals(1024 * 1024, configuration.getCairoConfiguration().getSqlHashJoinLightValuePageSize());
         Assert.assertEquals(16 * 1024 * 1024, configuration.getCairoConfiguration().getSqlSortValuePageSize());
         Assert.assertEquals(10000, configuration.getCairoConfiguration().getWorkStealTimeoutNanos());
         Assert.assertTrue(configuration.getCairoConfiguration().isParallelIndexingEnabled());
+        Assert.assertFalse(configuration.getCairoConfiguration().isIndexPackingEnabled());
+        Assert.assertTrue(configuration.getCairoConfiguration().isPartitionStatsEnabled());
+        Assert.assertFalse(configuration.getCairoConfiguration().isOutOfOrderEnabled());
+        Assert.assertEquals(256 * 1024, configuration.getCairoConfiguration().getOutOfOrderPageSize());
+        Assert.assertEquals(1024, configuration.getCairoConfiguration().getColumnIndexerQueueCapacity());
+        Assert.assertEquals(1024, configuration.getCairoConfiguration().getVectorAggregateQueueCapacity());
+        Assert.assertTrue(configuration.getCairoConfiguration().isVectorAggregationEnabled());
+        Assert.assertTrue(configuration.getCairoConfiguration().isVectorFilterEnabled());
+        Assert.assertFalse(configuration.getCairoConfiguration().isSqlJitEnabled());
+        Assert.assertEquals(1024, configuration.getCairoConfiguration().getGroupByQueueCapacity());
+        Assert.assertTrue(configuration.getCairoConfiguration().isParallelGroupByEnabled());
+        Assert.assertEquals(1024, configuration.getCairoConfiguration().getHashJoinQueueCapacity());
+        Assert.assertTrue(configuration.getCairoConfiguration().isParallelHashJoinEnabled());
+        Assert.assertEquals(64, configuration.getCairoConfiguration().getTextImportQueueCapacity());
+        Assert.assertTrue(configuration.getCairoConfiguration().isParallelImportEnabled());
         Assert.assertEquals(16 * 1024, configuration.getCairoConfiguration().getSqlJoinMetadataPageSize());
         Assert.assertEquals(64, configuration.getCairoConfiguration().getAnalyticColumnPoolCapacity());
         Assert.assertEquals(128, configuration.getCairoConfiguration().getWithClauseModelPoolCapacity());
@@ -168,12 +195,32 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(9009, configuration.getLineUdpReceiverConfiguration().getPort());
         Assert.assertEquals(-402587133, configuration.getLineUdpReceiverConfiguration().getGroupIPv4Address());
 
-        Assert.assertEquals(10000, configuration.getLineUdpReceiverConfiguration().getCommitRate());
+        Assert.assertEquals(10000, configuration.getLineUdpReceiverConfiguration().getMaxUncommittedRows());
+        Assert.assertEquals(500, configuration.getLineUdpReceiverConfiguration().getMaxUncommittedLatency());
+        Assert.assertEquals(200, configuration.getLineUdpReceiverConfiguration().getCommitIdleTimeout());
 
         Assert.assertEquals(1024 * 1024, configuration.getLineUdpReceiverConfiguration().getMsgBufferSize());
         Assert.assertEquals(10000, configuration.getLineUdpReceiverConfiguration().getMsgCount());
         Assert.assertEquals(2048, configuration.getLineUdpReceiverConfiguration().getReceiveBufferSize());
 
+        Assert.assertTrue(configuration.getLineTcpReceiverConfiguration().isEnabled());
+        Assert.assertEquals(0, configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().getBindIPv4Address());
+        Assert.assertEquals(9009, configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().getBindPort());
+        Assert.assertEquals(256, configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().getActiveConnectionLimit());
+        Assert.assertEquals(300000, configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().getIdleConnectionTimeout());
+        Assert.assertEquals(-1, configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().getRcvBufSize());
+        Assert.assertEquals(64, configuration.getLineTcpReceiverConfiguration().getConnectionPoolInitialCapacity());
+        Assert.assertEquals(2048, configuration.getLineTcpReceiverConfiguration().getMsgBufferSize());
+        Assert.assertEquals(64 * 1024, configuration.getLineTcpReceiverConfiguration().getRecvBufferSize());
+        Assert.assertEquals(1000, configuration.getLineTcpReceiverConfiguration().getMaxUncommittedRows());
+        Assert.assertEquals(500, configuration.getLineTcpReceiverConfiguration().getMaxUncommittedLatency());
+        Assert.assertEquals(200, configuration.getLineTcpReceiverConfiguration().getCommitIdleTimeout());
+        Assert.assertEquals(1, configuration.getLineTcpReceiverConfiguration().getWorkerCount());
+        Assert.assertArrayEquals(new int[]{-1}, configuration.getLineTcpReceiverConfiguration().getWorkerAffinity());
+        Assert.assertFalse(configuration.getLineTcpReceiverConfiguration().workerHaltOnError());
+        Assert.assertEquals(0, configuration.getLineTcpReceiverConfiguration().getWriterCount());
+        Assert.assertEquals(64, configuration.getLineTcpReceiverConfiguration().getWriterQueueCapacity());
+
         // statics
         Assert.assertSame(FilesFacadeImpl.INSTANCE, configuration.getHttpServerConfiguration().getStaticContentProcessorConfiguration().getFilesFacade());
         Assert.assertSame(MillisecondClockImpl.INSTANCE, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getClock());
@@ -185,6 +232,8 @@ public class PropServerConfigurationTest {
         Assert.assertSame(MillisecondClockImpl.INSTANCE, configuration.getCairoConfiguration().getMillisecondClock());
         Assert.assertSame(MicrosecondClockImpl.INSTANCE, configuration.getCairoConfiguration().getMicrosecondClock());
         Assert.assertSame(NetworkFacadeImpl.INSTANCE, configuration.getLineUdpReceiverConfiguration().getNetworkFacade());
+        Assert.assertSame(NetworkFacadeImpl.INSTANCE, configuration.getLineTcpReceiverConfiguration().getNetworkFacade());
+        Assert.assertSame(MillisecondClockImpl.INSTANCE, configuration.getLineTcpReceiverConfiguration().getMillisecondClock());
         TestUtils.assertEquals(new File(root, "db").getAbsolutePath(), configuration.getCairoConfiguration().getRoot());
 
         // assert mime types
@@ -274,6 +323,9 @@ public class PropServerConfigurationTest {
 
             Assert.assertEquals(new File(root, "public_ok").getAbsolutePath(),
                     configuration.getHttpServerConfiguration().getStaticContentProcessorConfiguration().getPublicDirectory());
+            Assert.assertFalse(configuration.getHttpServerConfiguration().getStaticContentProcessorConfiguration().isSendFileEnabled());
+            Assert.assertEquals(1024 * 1024, configuration.getHttpServerConfiguration().getStaticContentProcessorConfiguration().getCacheMaxSize());
+            Assert.assertEquals(16 * 1024, configuration.getHttpServerConfiguration().getStaticContentProcessorConfiguration().getCacheFileMaxSize());
 
             Assert.assertFalse(configuration.getHttpServerConfiguration().getTextImportProcessorConfiguration().abortBrokenUploads());
             Assert.assertEquals(64, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getActiveConnectionLimit());
@@ -302,6 +354,10 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(2_000, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getConnectionCheckFrequency());
             Assert.assertEquals(6, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getDoubleScale());
             Assert.assertEquals(4, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getFloatScale());
+            Assert.assertEquals(1_000, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getTailHeartbeatInterval());
+            Assert.assertEquals(4, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getTailSubscriptionLimit());
+            Assert.assertEquals(16, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getQueryCacheBlockCount());
+            Assert.assertEquals(32, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getQueryCacheRowCount());
             Assert.assertEquals(4194304, configuration.getCairoConfiguration().getSqlCopyBufferSize());
             Assert.assertSame(FilesFacadeImpl.INSTANCE, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getFilesFacade());
 
@@ -334,12 +390,31 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(256, configuration.getCairoConfiguration().getSqlModelPoolCapacity());
             Assert.assertEquals(10 * 1024 * 1024, configuration.getCairoConfiguration().getSqlSortKeyPageSize());
             Assert.assertEquals(3 * 1024 * 1024, configuration.getCairoConfiguration().getSqlSortLightValuePageSize());
+            Assert.assertEquals(256 * 1024 * 1024L, configuration.getCairoConfiguration().getSqlSortSpillThreshold());
+            TestUtils.assertEquals("/tmp/questdb-spill", configuration.getCairoConfiguration().getSqlSpillRoot());
             Assert.assertEquals(8 * 1024 * 1024, configuration.getCairoConfiguration().getSqlHashJoinValuePageSize());
+            Assert.assertEquals(512 * 1024 * 1024L, configuration.getCairoConfiguration().getSqlHashJoinSpillThreshold());
+            Assert.assertEquals(32, configuration.getCairoConfiguration().getSqlHashJoinSpillPartitionCount());
             Assert.assertEquals(10000, configuration.getCairoConfiguration().getSqlLatestByRowCount());
             Assert.assertEquals(2 * 1024 * 1024, configuration.getCairoConfiguration().getSqlHashJoinLightValuePageSize());
             Assert.assertEquals(4 * 1024 * 1024, configuration.getCairoConfiguration().getSqlSortValuePageSize());
             Assert.assertEquals(1000000, configuration.getCairoConfiguration().getWorkStealTimeoutNanos());
             Assert.assertFalse(configuration.getCairoConfiguration().isParallelIndexingEnabled());
+            Assert.assertTrue(configuration.getCairoConfiguration().isIndexPackingEnabled());
+            Assert.assertFalse(configuration.getCairoConfiguration().isPartitionStatsEnabled());
+            Assert.assertTrue(configuration.getCairoConfiguration().isOutOfOrderEnabled());
+            Assert.assertEquals(512 * 1024, configuration.getCairoConfiguration().getOutOfOrderPageSize());
+            Assert.assertEquals(2048, configuration.getCairoConfiguration().getColumnIndexerQueueCapacity());
+            Assert.assertEquals(512, configuration.getCairoConfiguration().getVectorAggregateQueueCapacity());
+            Assert.assertFalse(configuration.getCairoConfiguration().isVectorAggregationEnabled());
+            Assert.assertFalse(configuration.getCairoConfiguration().isVectorFilterEnabled());
+            Assert.assertTrue(configuration.getCairoConfiguration().isSqlJitEnabled());
+            Assert.assertEquals(256, configuration.getCairoConfiguration().getGroupByQueueCapacity());
+            Assert.assertFalse(configuration.getCairoConfiguration().isParallelGroupByEnabled());
+            Assert.assertEquals(128, configuration.getCairoConfiguration().getHashJoinQueueCapacity());
+            Assert.assertFalse(configuration.getCairoConfiguration().isParallelHashJoinEnabled());
+            Assert.assertEquals(128, configuration.getCairoConfiguration().getTextImportQueueCapacity());
+            Assert.assertFalse(configuration.getCairoConfiguration().isParallelImportEnabled());
             Assert.assertEquals(8 * 1024, configuration.getCairoConfiguration().getSqlJoinMetadataPageSize());
 
             Assert.assertEquals(256, configuration.getCairoConfiguration().getAnalyticColumnPoolCapacity());
@@ -352,10 +427,30 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(167903521, configuration.getLineUdpReceiverConfiguration().getBindIPv4Address());
             Assert.assertEquals(9915, configuration.getLineUdpReceiverConfiguration().getPort());
             Assert.assertEquals(-536805119, configuration.getLineUdpReceiverConfiguration().getGroupIPv4Address());
-            Assert.assertEquals(100_000, configuration.getLineUdpReceiverConfiguration().getCommitRate());
+            Assert.assertEquals(100_000, configuration.getLineUdpReceiverConfiguration().getMaxUncommittedRows());
+            Assert.assertEquals(750, configuration.getLineUdpReceiverConfiguration().getMaxUncommittedLatency());
+            Assert.assertEquals(150, configuration.getLineUdpReceiverConfiguration().getCommitIdleTimeout());
             Assert.assertEquals(4 * 1024 * 1024, configuration.getLineUdpReceiverConfiguration().getMsgBufferSize());
             Assert.assertEquals(4000, configuration.getLineUdpReceiverConfiguration().getMsgCount());
             Assert.assertEquals(512, configuration.getLineUdpReceiverConfiguration().getReceiveBufferSize());
+
+            Assert.assertFalse(configuration.getLineTcpReceiverConfiguration().isEnabled());
+            Assert.assertEquals(167903521, configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().getBindIPv4Address());
+            Assert.assertEquals(9916, configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().getBindPort());
+            Assert.assertEquals(1024, configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().getActiveConnectionLimit());
+            Assert.assertEquals(60000, configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().getIdleConnectionTimeout());
+            Assert.assertEquals(1024 * 1024, configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().getRcvBufSize());
+            Assert.assertEquals(128, configuration.getLineTcpReceiverConfiguration().getConnectionPoolInitialCapacity());
+            Assert.assertEquals(4096, configuration.getLineTcpReceiverConfiguration().getMsgBufferSize());
+            Assert.assertEquals(1024 * 1024, configuration.getLineTcpReceiverConfiguration().getRecvBufferSize());
+            Assert.assertEquals(5000, configuration.getLineTcpReceiverConfiguration().getMaxUncommittedRows());
+            Assert.assertEquals(250, configuration.getLineTcpReceiverConfiguration().getMaxUncommittedLatency());
+            Assert.assertEquals(50, configuration.getLineTcpReceiverConfiguration().getCommitIdleTimeout());
+            Assert.assertEquals(2, configuration.getLineTcpReceiverConfiguration().getWorkerCount());
+            Assert.assertArrayEquals(new int[]{1, 2}, configuration.getLineTcpReceiverConfiguration().getWorkerAffinity());
+            Assert.assertTrue(configuration.getLineTcpReceiverConfiguration().workerHaltOnError());
+            Assert.assertEquals(4, configuration.getLineTcpReceiverConfiguration().getWriterCount());
+            Assert.assertEquals(128, configuration.getLineTcpReceiverConfiguration().getWriterQueueCapacity());
         }
     }
 }
\ No newline at end of file
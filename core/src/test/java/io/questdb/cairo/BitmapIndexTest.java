@@ -44,11 +44,15 @@ public class BitmapIndexTest extends AbstractCairoTest {
     private int plen;
 
     public static void create(CairoConfiguration configuration, Path path, CharSequence name, int valueBlockCapacity) {
+        create(configuration, path, name, valueBlockCapacity, false);
+    }
+
+    public static void create(CairoConfiguration configuration, Path path, CharSequence name, int valueBlockCapacity, boolean packed) {
         int plen = path.length();
         try {
             FilesFacade ff = configuration.getFilesFacade();
             try (AppendMemory mem = new AppendMemory(ff, BitmapIndexUtils.keyFileName(path, name), ff.getPageSize())) {
-                BitmapIndexWriter.initKeyMemory(mem, Numbers.ceilPow2(valueBlockCapacity));
+                BitmapIndexWriter.initKeyMemory(mem, Numbers.ceilPow2(valueBlockCapacity), packed);
             }
             ff.touch(BitmapIndexUtils.valueFileName(path.trimTo(plen), name));
         } finally {
@@ -80,35 +84,75 @@ public class BitmapIndexTest extends AbstractCairoTest {
 
     @Test
     public void testAdd() throws Exception {
+        testAdd(false);
+    }
+
+    @Test
+    public void testAddPacked() throws Exception {
+        testAdd(true);
+    }
+
+    @Test
+    public void testAddPackedAscending() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
-            LongList list = new LongList();
-            create(configuration, path.trimTo(plen), "x", 4);
+            Rnd rnd = new Rnd();
+            final int maxKeys = 1024;
+            final int N = 1000000;
+
+            IntList keys = new IntList();
+            IntObjHashMap<LongList> lists = new IntObjHashMap<>();
+
+            create(configuration, path.trimTo(plen), "x", 128, true);
             try (BitmapIndexWriter writer = new BitmapIndexWriter(configuration, path, "x")) {
-                writer.add(0, 1000);
-                writer.add(256, 1234);
-                writer.add(64, 10);
-                writer.add(64, 987);
-                writer.add(256, 5567);
-                writer.add(64, 91);
-                writer.add(64, 92);
-                writer.add(64, 93);
+                long value = 0;
+                for (int i = 0; i < N; i++) {
+                    int key = rnd.nextPositiveInt() % maxKeys;
+                    // mostly small gaps between values with occasional duplicates and large jumps
+                    switch (rnd.nextPositiveInt() % 64) {
+                        case 0:
+                            break;
+                        case 1:
+                            value += rnd.nextPositiveLong() % (1L << 48);
+                            break;
+                        default:
+                            value += rnd.nextPositiveInt() % 4096;
+                            break;
+                    }
+                    writer.add(key, value);
 
-                assertThat("[5567,1234]", writer.getCursor(256), list);
-                assertThat("[93,92,91,987,10]", writer.getCursor(64), list);
-                assertThat("[1000]", writer.getCursor(0), list);
-                assertThat("[]", writer.getCursor(1000), list);
+                    LongList list = lists.get(key);
+                    if (list == null) {
+                        lists.put(key, list = new LongList());
+                        keys.add(key);
+                    }
+                    list.add(value);
+                }
             }
 
             try (BitmapIndexBwdReader reader = new BitmapIndexBwdReader(configuration, path.trimTo(plen), "x", 0)) {
-                assertThat("[5567,1234]", reader.getCursor(true, 256, 0, Long.MAX_VALUE), list);
-                assertThat("[93,92,91,987,10]", reader.getCursor(true, 64, 0, Long.MAX_VALUE), list);
-                assertThat("[1000]", reader.getCursor(true, 0, 0, Long.MAX_VALUE), list);
+                for (int i = 0, n = keys.size(); i < n; i++) {
+                    LongList list = lists.get(keys.getQuick(i));
+                    RowCursor cursor = reader.getCursor(true, keys.getQuick(i), Long.MIN_VALUE, Long.MAX_VALUE);
+                    int z = list.size();
+                    while (cursor.hasNext()) {
+                        Assert.assertTrue(z > 0);
+                        Assert.assertEquals(list.getQuick(--z), cursor.next());
+                    }
+                    Assert.assertEquals(0, z);
+                }
             }
 
             try (BitmapIndexFwdReader reader = new BitmapIndexFwdReader(configuration, path.trimTo(plen), "x", 0)) {
-                assertThat("[1234,5567]", reader.getCursor(true, 256, 0, Long.MAX_VALUE), list);
-                assertThat("[10,987,91,92,93]", reader.getCursor(true, 64, 0, Long.MAX_VALUE), list);
-                assertThat("[1000]", reader.getCursor(true, 0, 0, Long.MAX_VALUE), list);
+                for (int i = 0, n = keys.size(); i < n; i++) {
+                    LongList list = lists.get(keys.getQuick(i));
+                    RowCursor cursor = reader.getCursor(true, keys.getQuick(i), Long.MIN_VALUE, Long.MAX_VALUE);
+                    int z = 0;
+                    while (cursor.hasNext()) {
+                        Assert.assertTrue(z < list.size());
+                        Assert.assertEquals(list.getQuick(z++), cursor.next());
+                    }
+                    Assert.assertEquals(list.size(), z);
+                }
             }
         });
     }
@@ -354,6 +398,11 @@ public class BitmapIndexTest extends AbstractCairoTest {
         testConcurrentBackwardRW(10000000, 1024);
     }
 
+    @Test
+    public void testConcurrentWriterAndBackwardReadBreadthPacked() throws Exception {
+        testConcurrentBackwardRW(10000000, 1024, true);
+    }
+
     @Test
     public void testConcurrentWriterAndBackwardReadHeight() throws Exception {
         testConcurrentBackwardRW(1000000, 100000);
@@ -364,6 +413,11 @@ public class BitmapIndexTest extends AbstractCairoTest {
         testConcurrentForwardRW(10000000, 1024);
     }
 
+    @Test
+    public void testConcurrentWriterAndForwardReadBreadthPacked() throws Exception {
+        testConcurrentForwardRW(10000000, 1024, true);
+    }
+
     @Test
     public void testConcurrentWriterAndForwardReadHeight() throws Exception {
         testConcurrentForwardRW(1000000, 100000);
@@ -560,177 +614,75 @@ public class BitmapIndexTest extends AbstractCairoTest {
 
     @Test
     public void testLimitBackwardCursor() throws Exception {
-        TestUtils.assertMemoryLeak(() -> {
-            create(configuration, path.trimTo(plen), "x", 128);
-
-            try (BitmapIndexWriter writer = new BitmapIndexWriter(configuration, path.trimTo(plen), "x")) {
-                for (int i = 0; i < 265; i++) {
-                    if (i % 3 == 0) {
-                        continue;
-                    }
-                    writer.add(0, i);
-                    writer.add(0, i);
-                    writer.add(0, i);
-                }
-            }
+        testLimitBackwardCursor(false);
+    }
 
-            LongList tmp = new LongList();
-            try (BitmapIndexBwdReader reader = new BitmapIndexBwdReader(configuration, path.trimTo(plen), "x", 0)) {
-                assertBackwardCursorLimit(reader, 260L, tmp);
-                assertBackwardCursorLimit(reader, 16L, tmp);
-                assertBackwardCursorLimit(reader, 9L, tmp);
-                Assert.assertFalse(reader.getCursor(true, 0, -1L, -1L).hasNext());
-            }
-        });
+    @Test
+    public void testLimitBackwardCursorPacked() throws Exception {
+        testLimitBackwardCursor(true);
     }
 
     @Test
     public void testLimitForwardCursor() throws Exception {
-        TestUtils.assertMemoryLeak(() -> {
-            create(configuration, path.trimTo(plen), "x", 128);
-
-            int N = 265;
-            try (BitmapIndexWriter writer = new BitmapIndexWriter(configuration, path.trimTo(plen), "x")) {
-                for (int i = 0; i < N; i++) {
-                    if (i % 3 == 0) {
-                        continue;
-                    }
-                    writer.add(0, i);
-                    writer.add(0, i);
-                    writer.add(0, i);
-                }
-            }
+        testLimitForwardCursor(false);
+    }
 
-            LongList tmp = new LongList();
-            try (BitmapIndexFwdReader reader = new BitmapIndexFwdReader(configuration, path.trimTo(plen), "x", 0)) {
-                assertForwardCursorLimit(reader, 260, N - 2, tmp);
-                assertForwardCursorLimit(reader, 16, N, tmp);
-                assertForwardCursorLimit(reader, 9, N, tmp);
-                Assert.assertFalse(reader.getCursor(true, 0, 266, Long.MAX_VALUE).hasNext());
-                Assert.assertFalse(reader.getCursor(true, 0, Long.MAX_VALUE, Long.MAX_VALUE).hasNext());
-            }
-        });
+    @Test
+    public void testLimitForwardCursorPacked() throws Exception {
+        testLimitForwardCursor(true);
     }
 
     @Test
-    public void testSimpleRollback() throws Exception {
+    public void testPackedIndexIsSmaller() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
-            Rnd modelRnd = new Rnd();
-            final int maxKeys = 1024;
+            final int maxKeys = 64;
             final int N = 1000000;
-            final int CUTOFF = 60000;
-
-            // this is an assertion in case somebody change the test
-            //noinspection ConstantConditions
-            assert CUTOFF < N;
-
-            IntList keys = new IntList();
-            IntObjHashMap<LongList> lists = new IntObjHashMap<>();
-
-            // populate model for both reader and writer
-            for (int i = 0; i < N; i++) {
-                int key = modelRnd.nextPositiveInt() % maxKeys;
-                LongList list = lists.get(key);
-                if (list == null) {
-                    lists.put(key, list = new LongList());
-                    keys.add(key);
-                }
-
-                if (i > CUTOFF) {
-                    continue;
-                }
-
-                list.add(i);
-            }
-
-            Rnd rnd = new Rnd();
-            create(configuration, path.trimTo(plen), "x", 1024);
-            try (BitmapIndexWriter writer = new BitmapIndexWriter(configuration, path.trimTo(plen), "x")) {
-                for (int i = 0; i < N; i++) {
-                    writer.add(rnd.nextPositiveInt() % maxKeys, i);
-                }
-                writer.rollbackValues(CUTOFF);
-            }
-
-            try (BitmapIndexBwdReader reader = new BitmapIndexBwdReader(configuration, path.trimTo(plen), "x", 0)) {
-                for (int i = 0, n = keys.size(); i < n; i++) {
-                    int key = keys.getQuick(i);
-                    // do not limit reader, we have to read everything index has
-                    RowCursor cursor = reader.getCursor(true, key, 0, Long.MAX_VALUE);
-                    LongList list = lists.get(key);
-
-                    int v = list.size();
-                    while (cursor.hasNext()) {
-                        Assert.assertEquals(list.getQuick(--v), cursor.next());
-                    }
-                    Assert.assertEquals(0, v);
-                }
-            }
-
-            try (BitmapIndexFwdReader reader = new BitmapIndexFwdReader(configuration, path.trimTo(plen), "x", 0)) {
-                for (int i = 0, n = keys.size(); i < n; i++) {
-                    int key = keys.getQuick(i);
-                    // do not limit reader, we have to read everything index has
-                    RowCursor cursor = reader.getCursor(true, key, 0, Long.MAX_VALUE);
-                    LongList list = lists.get(key);
-
-                    int v = 0;
-                    while (cursor.hasNext()) {
-                        Assert.assertEquals(list.getQuick(v++), cursor.next());
-                    }
-                    Assert.assertEquals(list.size(), v);
-                }
-            }
-
-            // add more data to model
-            for (int i = 0; i < N; i++) {
-                int key = modelRnd.nextPositiveInt() % maxKeys;
-                LongList list = lists.get(key);
-                if (list == null) {
-                    lists.put(key, list = new LongList());
-                    keys.add(key);
-                }
-                list.add(i + N);
-            }
-
-            // add more date to index
-            try (BitmapIndexWriter writer = new BitmapIndexWriter(configuration, path.trimTo(plen), "x")) {
+            create(configuration, path.trimTo(plen), "x", 256);
+            create(configuration, path.trimTo(plen), "y", 256, true);
+            try (
+                    BitmapIndexWriter writer = new BitmapIndexWriter(configuration, path.trimTo(plen), "x");
+                    BitmapIndexWriter packedWriter = new BitmapIndexWriter(configuration, path.trimTo(plen), "y")
+            ) {
+                Rnd rnd = new Rnd();
                 for (int i = 0; i < N; i++) {
-                    writer.add(rnd.nextPositiveInt() % maxKeys, i + N);
+                    int key = rnd.nextPositiveInt() % maxKeys;
+                    writer.add(key, i);
+                    packedWriter.add(key, i);
                 }
             }
 
-            // assert against model again
-            try (BitmapIndexBwdReader reader = new BitmapIndexBwdReader(configuration, path.trimTo(plen), "x", 0)) {
-                for (int i = 0, n = keys.size(); i < n; i++) {
-                    int key = keys.getQuick(i);
-                    // do not limit reader, we have to read everything index has
-                    RowCursor cursor = reader.getCursor(true, key, 0, Long.MAX_VALUE);
-                    LongList list = lists.get(key);
+            final FilesFacade ff = configuration.getFilesFacade();
+            final long size = ff.length(BitmapIndexUtils.valueFileName(path.trimTo(plen), "x"));
+            final long packedSize = ff.length(BitmapIndexUtils.valueFileName(path.trimTo(plen), "y"));
+            // row ids of symbol with 64 distinct values are about 64 apart, their deltas take 1-2 bytes instead of 8
+            Assert.assertTrue("size=" + size + ", packedSize=" + packedSize, packedSize * 4 < size);
 
-                    int v = list.size();
+            LongList list = new LongList();
+            LongList packedList = new LongList();
+            try (
+                    BitmapIndexFwdReader reader = new BitmapIndexFwdReader(configuration, path.trimTo(plen), "x", 0);
+                    BitmapIndexFwdReader packedReader = new BitmapIndexFwdReader(configuration, path.trimTo(plen), "y", 0)
+            ) {
+                for (int key = 0; key < maxKeys; key++) {
+                    list.clear();
+                    RowCursor cursor = reader.getCursor(true, key, 1000, 900000);
                     while (cursor.hasNext()) {
-                        Assert.assertEquals(list.getQuick(--v), cursor.next());
+                        list.add(cursor.next());
                     }
-                    Assert.assertEquals(0, v);
+                    assertThat(list.toString(), packedReader.getCursor(true, key, 1000, 900000), packedList);
                 }
             }
+        });
+    }
 
-            try (BitmapIndexFwdReader reader = new BitmapIndexFwdReader(configuration, path.trimTo(plen), "x", 0)) {
-                for (int i = 0, n = keys.size(); i < n; i++) {
-                    int key = keys.getQuick(i);
-                    // do not limit reader, we have to read everything index has
-                    RowCursor cursor = reader.getCursor(true, key, 0, Long.MAX_VALUE);
-                    LongList list = lists.get(key);
+    @Test
+    public void testSimpleRollback() throws Exception {
+        testSimpleRollback(false);
+    }
 
-                    int v = 0;
-                    while (cursor.hasNext()) {
-                        Assert.assertEquals(list.getQuick(v++), cursor.next());
-                    }
-                    Assert.assertEquals(list.size(), v);
-                }
-            }
-        });
+    @Test
+    public void testSimpleRollbackPacked() throws Exception {
+        testSimpleRollback(true);
     }
 
     @Test
@@ -879,7 +831,45 @@ public class BitmapIndexTest extends AbstractCairoTest {
         }
     }
 
+    private void testAdd(boolean packed) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            LongList list = new LongList();
+            create(configuration, path.trimTo(plen), "x", 4, packed);
+            try (BitmapIndexWriter writer = new BitmapIndexWriter(configuration, path, "x")) {
+                writer.add(0, 1000);
+                writer.add(256, 1234);
+                writer.add(64, 10);
+                writer.add(64, 987);
+                writer.add(256, 5567);
+                writer.add(64, 91);
+                writer.add(64, 92);
+                writer.add(64, 93);
+
+                assertThat("[5567,1234]", writer.getCursor(256), list);
+                assertThat("[93,92,91,987,10]", writer.getCursor(64), list);
+                assertThat("[1000]", writer.getCursor(0), list);
+                assertThat("[]", writer.getCursor(1000), list);
+            }
+
+            try (BitmapIndexBwdReader reader = new BitmapIndexBwdReader(configuration, path.trimTo(plen), "x", 0)) {
+                assertThat("[5567,1234]", reader.getCursor(true, 256, 0, Long.MAX_VALUE), list);
+                assertThat("[93,92,91,987,10]", reader.getCursor(true, 64, 0, Long.MAX_VALUE), list);
+                assertThat("[1000]", reader.getCursor(true, 0, 0, Long.MAX_VALUE), list);
+            }
+
+            try (BitmapIndexFwdReader reader = new BitmapIndexFwdReader(configuration, path.trimTo(plen), "x", 0)) {
+                assertThat("[1234,5567]", reader.getCursor(true, 256, 0, Long.MAX_VALUE), list);
+                assertThat("[10,987,91,92,93]", reader.getCursor(true, 64, 0, Long.MAX_VALUE), list);
+                assertThat("[1000]", reader.getCursor(true, 0, 0, Long.MAX_VALUE), list);
+            }
+        });
+    }
+
     private void testConcurrentBackwardRW(int N, int maxKeys) throws Exception {
+        testConcurrentBackwardRW(N, maxKeys, false);
+    }
+
+    private void testConcurrentBackwardRW(int N, int maxKeys, boolean packed) throws Exception {
         TestUtils.assertMemoryLeak(() -> {
             Rnd rnd = new Rnd();
 
@@ -904,7 +894,7 @@ public class BitmapIndexTest extends AbstractCairoTest {
             AtomicInteger errors = new AtomicInteger();
 
             // create empty index
-            create(configuration, path.trimTo(plen), "x", 1024);
+            create(configuration, path.trimTo(plen), "x", 1024, packed);
 
             new Thread(() -> {
                 try {
@@ -991,6 +981,10 @@ public class BitmapIndexTest extends AbstractCairoTest {
     }
 
     private void testConcurrentForwardRW(int N, int maxKeys) throws Exception {
+        testConcurrentForwardRW(N, maxKeys, false);
+    }
+
+    private void testConcurrentForwardRW(int N, int maxKeys, boolean packed) throws Exception {
         TestUtils.assertMemoryLeak(() -> {
             Rnd rnd = new Rnd();
 
@@ -1015,7 +1009,7 @@ public class BitmapIndexTest extends AbstractCairoTest {
             AtomicInteger errors = new AtomicInteger();
 
             // create empty index
-            create(configuration, path.trimTo(plen), "x", 1024);
+            create(configuration, path.trimTo(plen), "x", 1024, packed);
 
             new Thread(() -> {
                 try {
@@ -1101,4 +1095,175 @@ public class BitmapIndexTest extends AbstractCairoTest {
         });
     }
 
-}
\ No newline at end of file
+    private void testLimitBackwardCursor(boolean packed) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            create(configuration, path.trimTo(plen), "x", 128, packed);
+
+            try (BitmapIndexWriter writer = new BitmapIndexWriter(configuration, path.trimTo(plen), "x")) {
+                for (int i = 0; i < 265; i++) {
+                    if (i % 3 == 0) {
+                        continue;
+                    }
+                    writer.add(0, i);
+                    writer.add(0, i);
+                    writer.add(0, i);
+                }
+            }
+
+            LongList tmp = new LongList();
+            try (BitmapIndexBwdReader reader = new BitmapIndexBwdReader(configuration, path.trimTo(plen), "x", 0)) {
+                assertBackwardCursorLimit(reader, 260L, tmp);
+                assertBackwardCursorLimit(reader, 16L, tmp);
+                assertBackwardCursorLimit(reader, 9L, tmp);
+                Assert.assertFalse(reader.getCursor(true, 0, -1L, -1L).hasNext());
+            }
+        });
+    }
+
+    private void testLimitForwardCursor(boolean packed) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            create(configuration, path.trimTo(plen), "x", 128, packed);
+
+            int N = 265;
+            try (BitmapIndexWriter writer = new BitmapIndexWriter(configuration, path.trimTo(plen), "x")) {
+                for (int i = 0; i < N; i++) {
+                    if (i % 3 == 0) {
+                        continue;
+                    }
+                    writer.add(0, i);
+                    writer.add(0, i);
+                    writer.add(0, i);
+                }
+            }
+
+            LongList tmp = new LongList();
+            try (BitmapIndexFwdReader reader = new BitmapIndexFwdReader(configuration, path.trimTo(plen), "x", 0)) {
+                assertForwardCursorLimit(reader, 260, N - 2, tmp);
+                assertForwardCursorLimit(reader, 16, N, tmp);
+                assertForwardCursorLimit(reader, 9, N, tmp);
+                Assert.assertFalse(reader.getCursor(true, 0, 266, Long.MAX_VALUE).hasNext());
+                Assert.assertFalse(reader.getCursor(true, 0, Long.MAX_VALUE, Long.MAX_VALUE).hasNext());
+            }
+        });
+    }
+
+    private void testSimpleRollback(boolean packed) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            Rnd modelRnd = new Rnd();
+            final int maxKeys = 1024;
+            final int N = 1000000;
+            final int CUTOFF = 60000;
+
+            // this is an assertion in case somebody change the test
+            //noinspection ConstantConditions
+            assert CUTOFF < N;
+
+            IntList keys = new IntList();
+            IntObjHashMap<LongList> lists = new IntObjHashMap<>();
+
+            // populate model for both reader and writer
+            for (int i = 0; i < N; i++) {
+                int key = modelRnd.nextPositiveInt() % maxKeys;
+                LongList list = lists.get(key);
+                if (list == null) {
+                    lists.put(key, list = new LongList());
+                    keys.add(key);
+                }
+
+                if (i > CUTOFF) {
+                    continue;
+                }
+
+                list.add(i);
+            }
+
+            Rnd rnd = new Rnd();
+            create(configuration, path.trimTo(plen), "x", 1024, packed);
+            try (BitmapIndexWriter writer = new BitmapIndexWriter(configuration, path.trimTo(plen), "x")) {
+                for (int i = 0; i < N; i++) {
+                    writer.add(rnd.nextPositiveInt() % maxKeys, i);
+                }
+                writer.rollbackValues(CUTOFF);
+            }
+
+            try (BitmapIndexBwdReader reader = new BitmapIndexBwdReader(configuration, path.trimTo(plen), "x", 0)) {
+                for (int i = 0, n = keys.size(); i < n; i++) {
+                    int key = keys.getQuick(i);
+                    // do not limit reader, we have to read everything index has
+                    RowCursor cursor = reader.getCursor(true, key, 0, Long.MAX_VALUE);
+                    LongList list = lists.get(key);
+
+                    int v = list.size();
+                    while (cursor.hasNext()) {
+                        Assert.assertEquals(list.getQuick(--v), cursor.next());
+                    }
+                    Assert.assertEquals(0, v);
+                }
+            }
+
+            try (BitmapIndexFwdReader reader = new BitmapIndexFwdReader(configuration, path.trimTo(plen), "x", 0)) {
+                for (int i = 0, n = keys.size(); i < n; i++) {
+                    int key = keys.getQuick(i);
+                    // do not limit reader, we have to read everything index has
+                    RowCursor cursor = reader.getCursor(true, key, 0, Long.MAX_VALUE);
+                    LongList list = lists.get(key);
+
+                    int v = 0;
+                    while (cursor.hasNext()) {
+                        Assert.assertEquals(list.getQuick(v++), cursor.next());
+                    }
+                    Assert.assertEquals(list.size(), v);
+                }
+            }
+
+            // add more data to model
+            for (int i = 0; i < N; i++) {
+                int key = modelRnd.nextPositiveInt() % maxKeys;
+                LongList list = lists.get(key);
+                if (list == null) {
+                    lists.put(key, list = new LongList());
+                    keys.add(key);
+                }
+                list.add(i + N);
+            }
+
+            // add more date to index
+            try (BitmapIndexWriter writer = new BitmapIndexWriter(configuration, path.trimTo(plen), "x")) {
+                for (int i = 0; i < N; i++) {
+                    writer.add(rnd.nextPositiveInt() % maxKeys, i + N);
+                }
+            }
+
+            // assert against model again
+            try (BitmapIndexBwdReader reader = new BitmapIndexBwdReader(configuration, path.trimTo(plen), "x", 0)) {
+                for (int i = 0, n = keys.size(); i < n; i++) {
+                    int key = keys.getQuick(i);
+                    // do not limit reader, we have to read everything index has
+                    RowCursor cursor = reader.getCursor(true, key, 0, Long.MAX_VALUE);
+                    LongList list = lists.get(key);
+
+                    int v = list.size();
+                    while (cursor.hasNext()) {
+                        Assert.assertEquals(list.getQuick(--v), cursor.next());
+                    }
+                    Assert.assertEquals(0, v);
+                }
+            }
+
+            try (BitmapIndexFwdReader reader = new BitmapIndexFwdReader(configuration, path.trimTo(plen), "x", 0)) {
+                for (int i = 0, n = keys.size(); i < n; i++) {
+                    int key = keys.getQuick(i);
+                    // do not limit reader, we have to read everything index has
+                    RowCursor cursor = reader.getCursor(true, key, 0, Long.MAX_VALUE);
+                    LongList list = lists.get(key);
+
+                    int v = 0;
+                    while (cursor.hasNext()) {
+                        Assert.assertEquals(list.getQuick(v++), cursor.next());
+                    }
+                    Assert.assertEquals(list.size(), v);
+                }
+            }
+        });
+    }
+}
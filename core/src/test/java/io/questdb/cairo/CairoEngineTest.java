@@ -28,8 +28,6 @@ import io.questdb.cairo.pool.PoolListener;
 import io.questdb.cairo.security.AllowAllCairoSecurityContext;
 import io.questdb.cairo.sql.ReaderOutOfDateException;
 import io.questdb.mp.Job;
-import io.questdb.mp.RingQueue;
-import io.questdb.mp.Sequence;
 import io.questdb.std.FilesFacade;
 import io.questdb.std.ObjHashSet;
 import io.questdb.std.str.LPSZ;
@@ -101,18 +99,13 @@ public class CairoEngineTest extends AbstractCairoTest {
                 }
 
                 @Override
-                public Sequence getIndexerPubSequence() {
-                    return null;
+                public <T> CairoWorkQueue<T> getWorkQueue(CairoWorkQueueType<T> type) {
+                    return type.newQueue(configuration);
                 }
 
                 @Override
-                public RingQueue<ColumnIndexerEntry> getIndexerQueue() {
-                    return null;
-                }
-
-                @Override
-                public Sequence getIndexerSubSequence() {
-                    return null;
+                public int getWorkerCount() {
+                    return 0;
                 }
             }
 
@@ -125,7 +118,7 @@ public class CairoEngineTest extends AbstractCairoTest {
                 assertWriter(engine, "x");
                 assertReader(engine, "x");
 
-                Assert.assertEquals(2, workScheduler.jobs.size());
+                Assert.assertEquals(6, workScheduler.jobs.size());
 
                 Job job = workScheduler.jobs.get(0);
                 Assert.assertNotNull(job);
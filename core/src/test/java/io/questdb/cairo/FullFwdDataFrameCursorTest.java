@@ -77,6 +77,65 @@ public class FullFwdDataFrameCursorTest extends AbstractCairoTest {
         Assert.assertEquals(expectedRowCount, rowCount);
     }
 
+    @Test
+    public void testAddIndexByDay() throws Exception {
+        testAddIndex(PartitionBy.DAY, 100000000L, WORK_STEALING_DONT_TEST);
+    }
+
+    @Test
+    public void testAddIndexByDayBusy() throws Exception {
+        testAddIndex(PartitionBy.DAY, 100000000L, WORK_STEALING_BUSY_QUEUE);
+    }
+
+    @Test
+    public void testAddIndexByDayNoPickup() throws Exception {
+        testAddIndex(PartitionBy.DAY, 100000000L, WORK_STEALING_NO_PICKUP);
+    }
+
+    @Test
+    public void testAddIndexByMonth() throws Exception {
+        testAddIndex(PartitionBy.MONTH, 1000000000L, WORK_STEALING_DONT_TEST);
+    }
+
+    @Test
+    public void testAddIndexByNone() throws Exception {
+        testAddIndex(PartitionBy.NONE, 10L, WORK_STEALING_DONT_TEST);
+    }
+
+    @Test
+    public void testAddIndexSerially() throws Exception {
+        testAddIndex(PartitionBy.DAY, 100000000L, -1);
+    }
+
+    @Test
+    public void testAddIndexToIndexedColumn() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (TableModel model = new TableModel(configuration, "x", PartitionBy.NONE)
+                    .col("a", ColumnType.SYMBOL).indexed(true, 256)
+                    .col("b", ColumnType.INT)
+                    .timestamp()
+            ) {
+                CairoTestUtils.create(model);
+            }
+
+            try (TableWriter writer = new TableWriter(configuration, "x")) {
+                try {
+                    writer.addIndex("a", 256);
+                    Assert.fail();
+                } catch (CairoException e) {
+                    TestUtils.assertContains(e.getMessage(), "already indexed");
+                }
+
+                try {
+                    writer.addIndex("b", 256);
+                    Assert.fail();
+                } catch (CairoException e) {
+                    TestUtils.assertContains(e.getMessage(), "not SYMBOL");
+                }
+            }
+        });
+    }
+
     @Test
     public void testClose() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
@@ -1034,6 +1093,115 @@ public class FullFwdDataFrameCursorTest extends AbstractCairoTest {
         return timestamp;
     }
 
+    private void testAddIndex(int partitionBy, long increment, int testWorkStealing) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final int N = 10000;
+            final int S = 64;
+            final Rnd rnd = new Rnd();
+
+            final String[] symA = new String[S];
+            final String[] symC = new String[S];
+            for (int i = 0; i < S; i++) {
+                symA[i] = rnd.nextChars(10).toString();
+                symC[i] = rnd.nextChars(8).toString();
+            }
+
+            try (TableModel model = new TableModel(configuration, "ABC", partitionBy)
+                    .col("a", ColumnType.SYMBOL)
+                    .col("b", ColumnType.SYMBOL)
+                    .col("d", ColumnType.DOUBLE)
+                    .timestamp()
+            ) {
+                CairoTestUtils.create(model);
+            }
+
+            long timestamp = 0;
+            try (TableWriter writer = new TableWriter(configuration, "ABC")) {
+                for (int i = 0; i < N; i++) {
+                    TableWriter.Row r = writer.newRow(timestamp += increment);
+                    r.putSym(0, symA[rnd.nextPositiveInt() % S]);
+                    r.putSym(1, symA[rnd.nextPositiveInt() % S]);
+                    r.putDouble(2, rnd.nextDouble());
+                    r.append();
+                }
+                writer.commit();
+
+                // column "c" has top in active partition and no files in older partitions
+                writer.addColumn("c", ColumnType.SYMBOL);
+                for (int i = 0; i < N; i++) {
+                    TableWriter.Row r = writer.newRow(timestamp += increment);
+                    r.putSym(0, symA[rnd.nextPositiveInt() % S]);
+                    r.putSym(1, symA[rnd.nextPositiveInt() % S]);
+                    r.putDouble(2, rnd.nextDouble());
+                    r.putSym(4, symC[rnd.nextPositiveInt() % S]);
+                    r.append();
+                }
+                writer.commit();
+            }
+
+            final MyWorkScheduler workScheduler;
+            switch (testWorkStealing) {
+                case WORK_STEALING_DONT_TEST:
+                    workScheduler = new MyWorkScheduler();
+                    workScheduler.addJob(new ColumnIndexerJob(workScheduler));
+                    workScheduler.start();
+                    break;
+                case WORK_STEALING_BUSY_QUEUE:
+                    workScheduler = new MyWorkScheduler(new MPSequence(1024) {
+                        @Override
+                        public long next() {
+                            return -1;
+                        }
+                    }, null);
+                    break;
+                case WORK_STEALING_NO_PICKUP:
+                    workScheduler = new MyWorkScheduler(new MPSequence(1024), null);
+                    break;
+                default:
+                    workScheduler = null;
+                    break;
+            }
+
+            try (TableWriter writer = new TableWriter(configuration, "ABC", workScheduler)) {
+                writer.addIndex("a", 128);
+                writer.addIndex("c", 128);
+                Assert.assertTrue(writer.getMetadata().isColumnIndexed(0));
+                Assert.assertTrue(writer.getMetadata().isColumnIndexed(4));
+
+                // rows appended after index is built are indexed by writer as usual
+                for (int i = 0; i < N; i++) {
+                    TableWriter.Row r = writer.newRow(timestamp += increment);
+                    r.putSym(0, symA[rnd.nextPositiveInt() % S]);
+                    r.putSym(1, symA[rnd.nextPositiveInt() % S]);
+                    r.putDouble(2, rnd.nextDouble());
+                    r.putSym(4, symC[rnd.nextPositiveInt() % S]);
+                    r.append();
+                }
+                writer.commit();
+            } finally {
+                if (workScheduler != null) {
+                    workScheduler.halt();
+                }
+            }
+
+            try (TableReader reader = new TableReader(configuration, "ABC")) {
+                Assert.assertTrue(reader.getMetadata().isColumnIndexed(0));
+                Assert.assertFalse(reader.getMetadata().isColumnIndexed(1));
+                Assert.assertTrue(reader.getMetadata().isColumnIndexed(4));
+
+                FullFwdDataFrameCursor cursor = new FullFwdDataFrameCursor();
+                TableReaderRecord record = new TableReaderRecord();
+
+                cursor.of(reader);
+                record.of(reader);
+
+                assertIndexRowsMatchSymbol(cursor, record, 0, 3 * N);
+                cursor.toTop();
+                assertIndexRowsMatchSymbol(cursor, record, 4, 3 * N);
+            }
+        });
+    }
+
     private void testFailToRemoveDistressFile(int partitionBy, long increment) throws Exception {
         TestUtils.assertMemoryLeak(() -> {
             int N = 10000;
@@ -2231,15 +2399,16 @@ public class FullFwdDataFrameCursorTest extends AbstractCairoTest {
         private final int nWorkers = 2;
         private final SOCountDownLatch workerHaltLatch = new SOCountDownLatch(nWorkers);
         private final Worker[] workers = new Worker[nWorkers];
-        private final RingQueue<ColumnIndexerEntry> queue = new RingQueue<>(ColumnIndexerEntry::new, 1024);
         private final Sequence pubSeq;
         private final Sequence subSeq;
+        private final CairoWorkQueue<ColumnIndexerEntry> indexerQueue;
         private final ObjHashSet<Job> jobs = new ObjHashSet<>();
         private final AtomicBoolean active = new AtomicBoolean(false);
 
         public MyWorkScheduler(Sequence pubSequence, Sequence subSequence) {
             this.pubSeq = pubSequence;
             this.subSeq = subSequence;
+            this.indexerQueue = new CairoWorkQueue<>(new RingQueue<>(ColumnIndexerEntry::new, 1024), pubSequence, subSequence);
         }
 
         public MyWorkScheduler() {
@@ -2251,19 +2420,15 @@ public class FullFwdDataFrameCursorTest extends AbstractCairoTest {
             jobs.add(job);
         }
 
+        @SuppressWarnings("unchecked")
         @Override
-        public Sequence getIndexerPubSequence() {
-            return pubSeq;
-        }
-
-        @Override
-        public RingQueue<ColumnIndexerEntry> getIndexerQueue() {
-            return queue;
+        public <T> CairoWorkQueue<T> getWorkQueue(CairoWorkQueueType<T> type) {
+            return type == ColumnIndexerEntry.QUEUE_TYPE ? (CairoWorkQueue<T>) indexerQueue : null;
         }
 
         @Override
-        public Sequence getIndexerSubSequence() {
-            return subSeq;
+        public int getWorkerCount() {
+            return nWorkers;
         }
 
         void halt() {
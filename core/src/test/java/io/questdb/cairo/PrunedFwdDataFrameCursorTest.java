@@ -0,0 +1,241 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.std.FilesFacade;
+import io.questdb.std.Unsafe;
+import io.questdb.std.microtime.Timestamps;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PrunedFwdDataFrameCursorTest extends AbstractCairoTest {
+    private static final long START = 1000L * Timestamps.DAY_MICROS;
+
+    @Test
+    public void testAddedColumn() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            createTable();
+            try (TableWriter writer = new TableWriter(configuration, "x")) {
+                writer.addColumn("j", ColumnType.INT);
+                appendDay(writer, 5);
+                appendDay(writer, 6);
+                writer.commit();
+            }
+
+            final PartitionStatsFilter filter = new PartitionStatsFilter();
+            try (TableReader reader = new TableReader(configuration, "x")) {
+                final int j = reader.getMetadata().getColumnIndex("j");
+
+                // partitions 0..3 were closed before column was added and have no statistics for it,
+                // partition 4 was closed afterwards and its statistics account for column top nulls
+                filter.addLong(j, PartitionStatsFilter.OP_GT, 0);
+                assertPartitions(reader, filter, "0,1,2,3,5,6");
+
+                filter.clear();
+                filter.addLong(j, PartitionStatsFilter.OP_LT, 0);
+                assertPartitions(reader, filter, "0,1,2,3,4,6");
+            }
+        });
+    }
+
+    @Test
+    public void testConjunction() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            createTable();
+            final PartitionStatsFilter filter = new PartitionStatsFilter();
+            try (TableReader reader = new TableReader(configuration, "x")) {
+                filter.addLong(reader.getMetadata().getColumnIndex("l"), PartitionStatsFilter.OP_GT, 150);
+                filter.addSymbol(reader.getMetadata().getColumnIndex("s"), "sym3");
+                assertPartitions(reader, filter, "3,4");
+            }
+        });
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public boolean isPartitionStatsEnabled() {
+                    return false;
+                }
+            };
+            createTable(configuration);
+
+            final PartitionStatsFilter filter = new PartitionStatsFilter();
+            try (TableReader reader = new TableReader(configuration, "x")) {
+                filter.addLong(reader.getMetadata().getColumnIndex("i"), PartitionStatsFilter.OP_EQ, 205);
+                assertPartitions(reader, filter, "0,1,2,3,4");
+            }
+        });
+    }
+
+    @Test
+    public void testEqualsInt() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            createTable();
+            final PartitionStatsFilter filter = new PartitionStatsFilter();
+            try (TableReader reader = new TableReader(configuration, "x")) {
+                final int i = reader.getMetadata().getColumnIndex("i");
+                filter.addLong(i, PartitionStatsFilter.OP_EQ, 205);
+                // last partition is still open for writing and does not have statistics
+                assertPartitions(reader, filter, "2,4");
+
+                // within min and max, rejected by bloom filter
+                filter.clear();
+                filter.addLong(i, PartitionStatsFilter.OP_EQ, 251);
+                assertPartitions(reader, filter, "4");
+            }
+        });
+    }
+
+    @Test
+    public void testEqualsStr() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            createTable();
+            final PartitionStatsFilter filter = new PartitionStatsFilter();
+            try (TableReader reader = new TableReader(configuration, "x")) {
+                filter.addStr(reader.getMetadata().getColumnIndex("str"), "str1");
+                assertPartitions(reader, filter, "1,4");
+            }
+        });
+    }
+
+    @Test
+    public void testEqualsSymbol() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            createTable();
+            final PartitionStatsFilter filter = new PartitionStatsFilter();
+            try (TableReader reader = new TableReader(configuration, "x")) {
+                filter.addSymbol(reader.getMetadata().getColumnIndex("s"), "sym2");
+                assertPartitions(reader, filter, "2,4");
+
+                // symbol is not in the table
+                filter.clear();
+                filter.addSymbol(reader.getMetadata().getColumnIndex("s"), "abc");
+                assertPartitions(reader, filter, "");
+            }
+        });
+    }
+
+    @Test
+    public void testLessAndGreater() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            createTable();
+            final PartitionStatsFilter filter = new PartitionStatsFilter();
+            try (TableReader reader = new TableReader(configuration, "x")) {
+                final int l = reader.getMetadata().getColumnIndex("l");
+                filter.addLong(l, PartitionStatsFilter.OP_LT, 200);
+                assertPartitions(reader, filter, "0,1,4");
+
+                filter.clear();
+                filter.addLong(l, PartitionStatsFilter.OP_GT, 209);
+                assertPartitions(reader, filter, "3,4");
+            }
+        });
+    }
+
+    @Test
+    public void testStaleStats() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            createTable();
+
+            // overwrite row count of partition 2 statistics
+            final FilesFacade ff = configuration.getFilesFacade();
+            try (Path path = new Path().of(root).concat("x").concat("1972-09-29").concat("i.st").$()) {
+                Assert.assertTrue(ff.exists(path));
+                final long fd = ff.openRW(path);
+                Assert.assertTrue(fd > -1);
+                final long mem = Unsafe.malloc(8);
+                try {
+                    Unsafe.getUnsafe().putLong(mem, 1);
+                    Assert.assertEquals(8, ff.write(fd, mem, 8, PartitionStats.ROW_COUNT_OFFSET));
+                } finally {
+                    Unsafe.free(mem, 8);
+                    ff.close(fd);
+                }
+            }
+
+            final PartitionStatsFilter filter = new PartitionStatsFilter();
+            try (TableReader reader = new TableReader(configuration, "x")) {
+                filter.addLong(reader.getMetadata().getColumnIndex("i"), PartitionStatsFilter.OP_EQ, 105);
+                assertPartitions(reader, filter, "1,2,4");
+            }
+        });
+    }
+
+    private static void appendDay(TableWriter writer, int day) {
+        for (int k = 0; k < 10; k++) {
+            TableWriter.Row row = writer.newRow(START + day * Timestamps.DAY_MICROS + k * Timestamps.HOUR_MICROS);
+            row.putInt(0, day * 100 + k);
+            row.putLong(1, day * 100 + k);
+            row.putSym(2, "sym" + day);
+            row.putStr(3, "str" + day);
+            if (writer.getMetadata().getColumnCount() > 5) {
+                row.putInt(5, day);
+            }
+            row.append();
+        }
+    }
+
+    private static void assertPartitions(TableReader reader, PartitionStatsFilter filter, CharSequence expected) {
+        final PrunedFwdDataFrameCursor cursor = new PrunedFwdDataFrameCursor(filter);
+        final StringSink sink = new StringSink();
+        cursor.of(reader);
+        while (cursor.hasNext()) {
+            if (sink.length() > 0) {
+                sink.put(',');
+            }
+            sink.put(cursor.next().getPartitionIndex());
+        }
+        TestUtils.assertEquals(expected, sink);
+    }
+
+    private void createTable() {
+        createTable(configuration);
+    }
+
+    private void createTable(CairoConfiguration configuration) {
+        try (TableModel model = new TableModel(configuration, "x", PartitionBy.DAY)
+                .col("i", ColumnType.INT)
+                .col("l", ColumnType.LONG)
+                .col("s", ColumnType.SYMBOL)
+                .col("str", ColumnType.STRING)
+                .timestamp()
+        ) {
+            CairoTestUtils.create(model);
+        }
+
+        try (TableWriter writer = new TableWriter(configuration, "x")) {
+            for (int day = 0; day < 5; day++) {
+                appendDay(writer, day);
+            }
+            writer.commit();
+        }
+    }
+}
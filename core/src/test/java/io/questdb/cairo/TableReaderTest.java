@@ -26,6 +26,7 @@ package io.questdb.cairo;
 
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.SymbolTable;
 import io.questdb.std.*;
 import io.questdb.std.microtime.DateFormatUtils;
 import io.questdb.std.microtime.TimestampFormat;
@@ -2130,6 +2131,115 @@ public class TableReaderTest extends AbstractCairoTest {
         }
     }
 
+    @Test
+    public void testReloadDoesNotRemapColumns() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (TableModel model = new TableModel(configuration, "tab", PartitionBy.NONE)
+                    .col("i", ColumnType.INT)
+                    .col("s", ColumnType.STRING)
+            ) {
+                CairoTestUtils.create(model);
+            }
+
+            final AtomicInteger mapCount = new AtomicInteger();
+            final FilesFacade ff = new FilesFacadeImpl() {
+                @Override
+                public long mmap(long fd, long len, long offset, int mode) {
+                    mapCount.incrementAndGet();
+                    return super.mmap(fd, len, offset, mode);
+                }
+
+                @Override
+                public void munmap(long address, long size) {
+                    mapCount.incrementAndGet();
+                    super.munmap(address, size);
+                }
+            };
+
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public FilesFacade getFilesFacade() {
+                    return ff;
+                }
+            };
+
+            try (TableReader reader = new TableReader(configuration, "tab")) {
+                for (int i = 0; i < 10; i++) {
+                    // writer truncates column files on close, which makes
+                    // reader see them grow with every transaction
+                    try (TableWriter writer = new TableWriter(AbstractCairoTest.configuration, "tab")) {
+                        TableWriter.Row r = writer.newRow();
+                        r.putInt(0, i);
+                        r.putStr(1, "str" + i);
+                        r.append();
+                        writer.commit();
+                    }
+
+                    final int count = mapCount.get();
+                    Assert.assertTrue(reader.reload());
+
+                    RecordCursor cursor = reader.getCursor();
+                    final Record record = cursor.getRecord();
+                    int n = 0;
+                    while (cursor.hasNext()) {
+                        Assert.assertEquals(n, record.getInt(0));
+                        TestUtils.assertEquals("str" + n, record.getStr(1));
+                        n++;
+                    }
+                    Assert.assertEquals(i + 1, n);
+
+                    if (i > 0) {
+                        Assert.assertEquals(count, mapCount.get());
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testReloadSymbolsWhenLastPartitionIsNotOpen() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (TableModel model = new TableModel(configuration, "tab", PartitionBy.DAY).col("x", ColumnType.SYMBOL).timestamp()) {
+                CairoTestUtils.create(model);
+            }
+
+            final long timestamp = DateFormatUtils.parseDateTime("2020-10-01T00:00:00.000Z");
+            try (TableWriter writer = new TableWriter(configuration, "tab")) {
+                TableWriter.Row r = writer.newRow(timestamp);
+                r.putSym(0, "a");
+                r.append();
+                r = writer.newRow(timestamp + Timestamps.DAY_MICROS);
+                r.putSym(0, "b");
+                r.append();
+                writer.commit();
+
+                try (TableReader reader = new TableReader(configuration, "tab")) {
+                    // open first partition only, last partition is yet to be opened by cursor
+                    Assert.assertEquals(1, reader.openPartition(0));
+                    Assert.assertEquals(SymbolTable.VALUE_NOT_FOUND, reader.getSymbolMapReader(0).getQuick("c"));
+
+                    r = writer.newRow(timestamp + Timestamps.DAY_MICROS + 1);
+                    r.putSym(0, "c");
+                    r.append();
+                    writer.commit();
+
+                    Assert.assertTrue(reader.reload());
+                    Assert.assertEquals(2, reader.getSymbolMapReader(0).getQuick("c"));
+                    TestUtils.assertEquals("c", reader.getSymbolMapReader(0).value(2));
+
+                    r = writer.newRow(timestamp + 2 * Timestamps.DAY_MICROS);
+                    r.putSym(0, "d");
+                    r.append();
+                    writer.commit();
+
+                    Assert.assertTrue(reader.reload());
+                    Assert.assertEquals(3, reader.getSymbolMapReader(0).getQuick("d"));
+                    Assert.assertEquals(4, reader.size());
+                }
+            }
+        });
+    }
+
     @Test
     public void testReloadWithoutData() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
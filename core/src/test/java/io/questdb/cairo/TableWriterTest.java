@@ -26,6 +26,7 @@ package io.questdb.cairo;
 
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RowCursor;
 import io.questdb.cutlass.json.JsonException;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
@@ -38,6 +39,9 @@ import io.questdb.test.tools.TestUtils;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class TableWriterTest extends AbstractCairoTest {
@@ -45,6 +49,18 @@ public class TableWriterTest extends AbstractCairoTest {
     public static final String PRODUCT = "product";
     private static final FilesFacade FF = FilesFacadeImpl.INSTANCE;
     private static final Log LOG = LogFactory.getLog(TableWriterTest.class);
+    private final CairoConfiguration o3Configuration = new DefaultCairoConfiguration(root) {
+        @Override
+        public int getOutOfOrderPageSize() {
+            // small pages to exercise page boundaries
+            return 4096;
+        }
+
+        @Override
+        public boolean isOutOfOrderEnabled() {
+            return true;
+        }
+    };
 
     @Test
     public void tesFrequentCommit() throws Exception {
@@ -676,6 +692,62 @@ public class TableWriterTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testAppendBlock() throws Exception {
+        testAppendBlock(PartitionBy.DAY);
+    }
+
+    @Test
+    public void testAppendBlockNonPartitioned() throws Exception {
+        testAppendBlock(PartitionBy.NONE);
+    }
+
+    @Test
+    public void testAppendBlockOutOfOrder() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            createBlockTable(PartitionBy.DAY);
+            final long ts = DateFormatUtils.parseDateTime("2020-01-01T00:00:00.000Z");
+            final long timestamps = Unsafe.malloc(3 * Long.BYTES);
+            try (TableWriter writer = new TableWriter(configuration, "blk")) {
+                TableWriter.Row r = writer.newRow(ts);
+                r.putInt(0, 1);
+                r.append();
+
+                final LongList addresses = new LongList();
+                addresses.seed(5, 0);
+                addresses.setQuick(4, timestamps);
+
+                // block is not sorted
+                Unsafe.getUnsafe().putLong(timestamps, ts + 2);
+                Unsafe.getUnsafe().putLong(timestamps + Long.BYTES, ts + 1);
+                Unsafe.getUnsafe().putLong(timestamps + 2 * Long.BYTES, ts + 3);
+                assertAppendBlockFails(writer, addresses, "out of order");
+
+                // block starts before last row
+                Unsafe.getUnsafe().putLong(timestamps, ts - 1);
+                Unsafe.getUnsafe().putLong(timestamps + Long.BYTES, ts + 1);
+                assertAppendBlockFails(writer, addresses, "out of order");
+
+                // values of variable length column
+                Unsafe.getUnsafe().putLong(timestamps, ts + 1);
+                addresses.setQuick(3, timestamps);
+                assertAppendBlockFails(writer, addresses, "Only null values");
+
+                // no timestamps
+                addresses.setQuick(3, 0);
+                addresses.setQuick(4, 0);
+                assertAppendBlockFails(writer, addresses, "timestamp values are required");
+
+                addresses.setQuick(4, timestamps);
+                writer.appendBlock(addresses, 3);
+                writer.commit();
+                Assert.assertEquals(4, writer.size());
+            } finally {
+                Unsafe.free(timestamps, 3 * Long.BYTES);
+            }
+        });
+    }
+
     @Test
     public void testAppendOutOfOrder() throws Exception {
         int N = 10000;
@@ -1744,6 +1816,367 @@ public class TableWriterTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testOutOfOrderCancelRow() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            createOutOfOrderTable(PartitionBy.DAY);
+            final long ts = DateFormatUtils.parseDateTime("2013-03-04T00:00:00.000Z");
+            try (TableWriter writer = new TableWriter(o3Configuration, "o3")) {
+                TableWriter.Row r = writer.newRow(ts);
+                r.putInt(0, 1);
+                r.append();
+                writer.commit();
+
+                r = writer.newRow(ts - Timestamps.DAY_MICROS);
+                r.putInt(0, 2);
+                r.putStr(1, "cancelled");
+                r.cancel();
+
+                r = writer.newRow(ts - 10);
+                r.putInt(0, 3);
+                r.putStr(1, "abc");
+                r.append();
+
+                // row is cancelled implicitly
+                r = writer.newRow(ts - 5);
+                r.putStr(1, "cancelled too");
+
+                Assert.assertEquals(2, writer.size());
+                writer.commit();
+                Assert.assertEquals(2, writer.size());
+            }
+
+            try (TableReader reader = new TableReader(o3Configuration, "o3")) {
+                Assert.assertEquals(2, reader.size());
+                Assert.assertEquals(2, reader.getPartitionCount());
+                RecordCursor cursor = reader.getCursor();
+                Record record = cursor.getRecord();
+                Assert.assertTrue(cursor.hasNext());
+                Assert.assertEquals(3, record.getInt(0));
+                TestUtils.assertEquals("abc", record.getStr(1));
+                Assert.assertEquals(ts - 10, record.getTimestamp(3));
+                Assert.assertTrue(cursor.hasNext());
+                Assert.assertEquals(1, record.getInt(0));
+                Assert.assertNull(record.getStr(1));
+                Assert.assertEquals(ts, record.getTimestamp(3));
+                Assert.assertFalse(cursor.hasNext());
+            }
+        });
+    }
+
+    @Test
+    public void testOutOfOrderDay() throws Exception {
+        testOutOfOrderMerge(PartitionBy.DAY);
+    }
+
+    @Test
+    public void testOutOfOrderMonth() throws Exception {
+        testOutOfOrderMerge(PartitionBy.MONTH);
+    }
+
+    @Test
+    public void testOutOfOrderNonPartitioned() throws Exception {
+        testOutOfOrderMerge(PartitionBy.NONE);
+    }
+
+    @Test
+    public void testOutOfOrderDiscardBackupOfCommittedMerge() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            createOutOfOrderTable(PartitionBy.DAY);
+            // commit cannot remove backup and marker
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public FilesFacade getFilesFacade() {
+                    return new FilesFacadeImpl() {
+                        @Override
+                        public boolean remove(LPSZ name) {
+                            return !Chars.endsWith(name, ".o3txn") && super.remove(name);
+                        }
+
+                        @Override
+                        public boolean rmdir(Path name) {
+                            return !Chars.endsWith(name, ".o3bak") && super.rmdir(name);
+                        }
+                    };
+                }
+
+                @Override
+                public boolean isOutOfOrderEnabled() {
+                    return true;
+                }
+            };
+
+            final long ts = DateFormatUtils.parseDateTime("2013-03-04T00:00:00.000Z");
+            try (TableWriter writer = new TableWriter(configuration, "o3")) {
+                appendOutOfOrderPartitions(writer, ts);
+                Assert.assertEquals(22, writer.size());
+            }
+            // partitions, their backups and directory entries "." and ".."
+            Assert.assertEquals(6, getDirCount("o3"));
+
+            // merge has been committed, recovery keeps merged partitions
+            try (TableWriter writer = new TableWriter(o3Configuration, "o3")) {
+                Assert.assertEquals(22, writer.size());
+            }
+            Assert.assertEquals(4, getDirCount("o3"));
+            assertOutOfOrderPartitions(100, 101);
+        });
+    }
+
+    @Test
+    public void testOutOfOrderDiscardUncommittedMerge() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            createOutOfOrderTable(PartitionBy.DAY);
+            // first partition is merged, merge of the second one fails before transaction is committed
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public FilesFacade getFilesFacade() {
+                    return new FilesFacadeImpl() {
+                        @Override
+                        public long openRW(LPSZ name) {
+                            return Chars.endsWith(name, "2013-03-05.o3txn") ? -1 : super.openRW(name);
+                        }
+                    };
+                }
+
+                @Override
+                public boolean isOutOfOrderEnabled() {
+                    return true;
+                }
+            };
+
+            final long ts = DateFormatUtils.parseDateTime("2013-03-04T00:00:00.000Z");
+            try (TableWriter writer = new TableWriter(configuration, "o3")) {
+                try {
+                    appendOutOfOrderPartitions(writer, ts);
+                    Assert.fail();
+                } catch (CairoError ignore) {
+                }
+            }
+
+            // partitions are not touched until transaction is committed
+            try (Path path = new Path()) {
+                Assert.assertTrue(FF.exists(path.of(root).concat("o3").concat("2013-03-04.o3").$()));
+                Assert.assertFalse(FF.exists(path.of(root).concat("o3").concat("2013-03-04.o3bak").$()));
+            }
+            assertOutOfOrderPartitions();
+
+            // merged copies are discarded
+            try (TableWriter writer = new TableWriter(o3Configuration, "o3")) {
+                Assert.assertEquals(20, writer.size());
+            }
+            Assert.assertEquals(4, getDirCount("o3"));
+            assertOutOfOrderPartitions();
+        });
+    }
+
+    @Test
+    public void testOutOfOrderReaderBeforeCommit() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            createOutOfOrderTable(PartitionBy.DAY);
+            final AtomicInteger readerCount = new AtomicInteger();
+            // reader is opened when first partition has been merged and second one is about to be marked
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public FilesFacade getFilesFacade() {
+                    return new FilesFacadeImpl() {
+                        @Override
+                        public long openRW(LPSZ name) {
+                            if (Chars.endsWith(name, "2013-03-05.o3txn")) {
+                                assertOutOfOrderPartitions();
+                                readerCount.incrementAndGet();
+                            }
+                            return super.openRW(name);
+                        }
+                    };
+                }
+
+                @Override
+                public boolean isOutOfOrderEnabled() {
+                    return true;
+                }
+            };
+
+            final long ts = DateFormatUtils.parseDateTime("2013-03-04T00:00:00.000Z");
+            try (TableWriter writer = new TableWriter(configuration, "o3")) {
+                appendOutOfOrderPartitions(writer, ts);
+                Assert.assertEquals(22, writer.size());
+            }
+            Assert.assertEquals(1, readerCount.get());
+            Assert.assertEquals(4, getDirCount("o3"));
+            assertOutOfOrderPartitions(100, 101);
+        });
+    }
+
+    @Test
+    public void testOutOfOrderReaderDuringSwap() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            createOutOfOrderTable(PartitionBy.DAY);
+            final AtomicInteger readerCount = new AtomicInteger();
+            // reader is opened when first partition has been swapped and second one has been moved to backup
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public FilesFacade getFilesFacade() {
+                    return new FilesFacadeImpl() {
+                        @Override
+                        public boolean rename(LPSZ from, LPSZ to) {
+                            if (Chars.endsWith(from, "2013-03-05.o3")) {
+                                assertOutOfOrderPartitions(100, 101);
+                                readerCount.incrementAndGet();
+                            }
+                            return super.rename(from, to);
+                        }
+                    };
+                }
+
+                @Override
+                public boolean isOutOfOrderEnabled() {
+                    return true;
+                }
+            };
+
+            final long ts = DateFormatUtils.parseDateTime("2013-03-04T00:00:00.000Z");
+            try (TableWriter writer = new TableWriter(configuration, "o3")) {
+                appendOutOfOrderPartitions(writer, ts);
+                Assert.assertEquals(22, writer.size());
+            }
+            Assert.assertEquals(1, readerCount.get());
+            Assert.assertEquals(4, getDirCount("o3"));
+            assertOutOfOrderPartitions(100, 101);
+        });
+    }
+
+    @Test
+    public void testOutOfOrderRollForwardCommittedSwap() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            createOutOfOrderTable(PartitionBy.DAY);
+            // first partition is swapped, swap of the second one fails after transaction is committed
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public FilesFacade getFilesFacade() {
+                    return new FilesFacadeImpl() {
+                        @Override
+                        public boolean rename(LPSZ from, LPSZ to) {
+                            return !Chars.endsWith(from, "2013-03-05.o3") && super.rename(from, to);
+                        }
+                    };
+                }
+
+                @Override
+                public boolean isOutOfOrderEnabled() {
+                    return true;
+                }
+            };
+
+            final long ts = DateFormatUtils.parseDateTime("2013-03-04T00:00:00.000Z");
+            try (TableWriter writer = new TableWriter(configuration, "o3")) {
+                try {
+                    appendOutOfOrderPartitions(writer, ts);
+                    Assert.fail();
+                } catch (CairoError ignore) {
+                }
+            }
+
+            // readers of committed transaction find merged copy that has not been swapped in
+            try (Path path = new Path()) {
+                Assert.assertFalse(FF.exists(path.of(root).concat("o3").concat("2013-03-05").$()));
+                Assert.assertTrue(FF.exists(path.of(root).concat("o3").concat("2013-03-05.o3").$()));
+            }
+            assertOutOfOrderPartitions(100, 101);
+
+            // recovery completes the swap
+            try (TableWriter writer = new TableWriter(o3Configuration, "o3")) {
+                Assert.assertEquals(22, writer.size());
+            }
+            Assert.assertEquals(4, getDirCount("o3"));
+            assertOutOfOrderPartitions(100, 101);
+        });
+    }
+
+    @Test
+    public void testOutOfOrderRestoreInterruptedSwap() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            createOutOfOrderTable(PartitionBy.DAY);
+            final long ts = DateFormatUtils.parseDateTime("2013-03-04T00:00:00.000Z");
+            try (TableWriter writer = new TableWriter(o3Configuration, "o3")) {
+                for (int i = 0; i < 10; i++) {
+                    TableWriter.Row r = writer.newRow(ts + i * Timestamps.HOUR_MICROS);
+                    r.putInt(0, i);
+                    r.append();
+                }
+                writer.commit();
+            }
+
+            // simulate writer dying between the renames of partition directory swap
+            try (Path path = new Path(); Path other = new Path()) {
+                path.of(root).concat("o3").concat("2013-03-04").$();
+                other.of(root).concat("o3").concat("2013-03-04.o3bak").$();
+                Assert.assertTrue(FF.rename(path, other));
+                other.of(root).concat("o3").concat("2013-03-04.o3").put(Files.SEPARATOR).$();
+                Assert.assertEquals(0, FF.mkdirs(other, configuration.getMkDirMode()));
+            }
+
+            try (TableWriter writer = new TableWriter(o3Configuration, "o3")) {
+                Assert.assertEquals(10, writer.size());
+                TableWriter.Row r = writer.newRow(ts - 1);
+                r.putInt(0, -1);
+                r.append();
+                writer.commit();
+            }
+
+            try (TableReader reader = new TableReader(o3Configuration, "o3")) {
+                Assert.assertEquals(11, reader.size());
+                RecordCursor cursor = reader.getCursor();
+                Record record = cursor.getRecord();
+                int expected = -1;
+                while (cursor.hasNext()) {
+                    Assert.assertEquals(expected++, record.getInt(0));
+                }
+                Assert.assertEquals(10, expected);
+            }
+            // restored partition and the one out-of-order row went to
+            Assert.assertEquals(4, getDirCount("o3"));
+        });
+    }
+
+    @Test
+    public void testOutOfOrderRollback() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            createOutOfOrderTable(PartitionBy.DAY);
+            final long ts = DateFormatUtils.parseDateTime("2013-03-04T00:00:00.000Z");
+            try (TableWriter writer = new TableWriter(o3Configuration, "o3")) {
+                TableWriter.Row r = writer.newRow(ts);
+                r.putInt(0, 1);
+                r.append();
+                writer.commit();
+
+                r = writer.newRow(ts - Timestamps.DAY_MICROS);
+                r.putInt(0, 2);
+                r.append();
+                Assert.assertTrue(writer.inTransaction());
+                writer.rollback();
+                Assert.assertFalse(writer.inTransaction());
+                Assert.assertEquals(1, writer.size());
+
+                r = writer.newRow(ts - 1);
+                r.putInt(0, 3);
+                r.append();
+                writer.commit();
+            }
+
+            try (TableReader reader = new TableReader(o3Configuration, "o3")) {
+                Assert.assertEquals(2, reader.size());
+                RecordCursor cursor = reader.getCursor();
+                Record record = cursor.getRecord();
+                Assert.assertTrue(cursor.hasNext());
+                Assert.assertEquals(3, record.getInt(0));
+                Assert.assertTrue(cursor.hasNext());
+                Assert.assertEquals(1, record.getInt(0));
+                Assert.assertFalse(cursor.hasNext());
+            }
+        });
+    }
+
     @Test
     public void testOutOfOrderAfterReopen() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
@@ -2408,6 +2841,125 @@ public class TableWriterTest extends AbstractCairoTest {
         }
     }
 
+    private void appendBlockTableRow(TableWriter writer, int row, long[] timestamps, int[] ids, double[] prices, String[] symbols) {
+        TableWriter.Row r = writer.newRow(timestamps[row]);
+        r.putInt(0, ids[row]);
+        r.putDouble(1, prices[row]);
+        r.putSym(2, symbols[row]);
+        r.append();
+    }
+
+    private void appendOutOfOrderRow(
+            TableWriter writer,
+            Rnd rnd,
+            int row,
+            long[] timestamps,
+            int[] ids,
+            String[] strings,
+            String[] symbols,
+            long[] extras
+    ) {
+        TableWriter.Row r = writer.newRow(timestamps[row]);
+        ids[row] = row;
+        r.putInt(0, row);
+        strings[row] = rnd.nextInt() % 5 == 0 ? null : rnd.nextString(rnd.nextPositiveInt() % 12);
+        r.putStr(1, strings[row]);
+        symbols[row] = rnd.nextInt() % 9 == 0 ? null : "sym" + rnd.nextPositiveInt() % 16;
+        r.putSym(2, symbols[row]);
+        if (extras != null) {
+            extras[row] = rnd.nextLong();
+            r.putLong(4, extras[row]);
+        }
+        r.append();
+    }
+
+    private void assertOutOfOrderTable(
+            TableReader reader,
+            int count,
+            long[] timestamps,
+            int[] ids,
+            String[] strings,
+            String[] symbols,
+            long[] extras
+    ) {
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        // stable sort, rows with the same timestamp keep insertion order
+        Arrays.sort(order, (l, r) -> Long.compare(timestamps[l], timestamps[r]));
+
+        Assert.assertEquals(count, reader.size());
+        RecordCursor cursor = reader.getCursor();
+        Record record = cursor.getRecord();
+        int k = 0;
+        while (cursor.hasNext()) {
+            final int row = order[k++];
+            Assert.assertEquals(timestamps[row], record.getTimestamp(3));
+            Assert.assertEquals(ids[row], record.getInt(0));
+            TestUtils.assertEquals(strings[row], record.getStr(1));
+            TestUtils.assertEquals(symbols[row], record.getSym(2));
+            if (extras != null) {
+                Assert.assertEquals(extras[row], record.getLong(4));
+            }
+        }
+        Assert.assertEquals(count, k);
+
+        // every row of every partition has to be indexed exactly once
+        final Map<String, Integer> expectedSymbolCounts = new HashMap<>();
+        int expectedNullCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (symbols[i] == null) {
+                expectedNullCount++;
+            } else {
+                expectedSymbolCounts.merge(symbols[i], 1, Integer::sum);
+            }
+        }
+
+        final SymbolMapReader symbolMapReader = reader.getSymbolMapReader(2);
+        int nullCount = 0;
+        int indexedCount = 0;
+        for (int p = 0, n = reader.getPartitionCount(); p < n; p++) {
+            final long partitionSize = reader.openPartition(p);
+            if (partitionSize < 1) {
+                continue;
+            }
+            final BitmapIndexReader indexReader = reader.getBitmapIndexReader(reader.getColumnBase(p), 2, BitmapIndexReader.DIR_FORWARD);
+            for (int key = 0, keyCount = symbolMapReader.size() + 1; key < keyCount; key++) {
+                RowCursor rowCursor = indexReader.getCursor(true, key, 0, Long.MAX_VALUE);
+                long prev = -1;
+                int keyRowCount = 0;
+                while (rowCursor.hasNext()) {
+                    long value = rowCursor.next();
+                    Assert.assertTrue(value > prev && value < partitionSize);
+                    prev = value;
+                    keyRowCount++;
+                }
+                if (key == 0) {
+                    nullCount += keyRowCount;
+                } else {
+                    expectedSymbolCounts.merge(symbolMapReader.value(key - 1).toString(), -keyRowCount, Integer::sum);
+                }
+                indexedCount += keyRowCount;
+            }
+        }
+        Assert.assertEquals(count, indexedCount);
+        Assert.assertEquals(expectedNullCount, nullCount);
+        for (Integer symbolCount : expectedSymbolCounts.values()) {
+            Assert.assertEquals(0, (int) symbolCount);
+        }
+    }
+
+    private void assertAppendBlockFails(TableWriter writer, LongList addresses, String message) {
+        try {
+            writer.appendBlock(addresses, 3);
+            Assert.fail();
+        } catch (CairoException e) {
+            TestUtils.assertContains(e.getMessage(), message);
+        }
+        Assert.assertEquals(1, writer.size());
+    }
+
     private void create(FilesFacade ff, int partitionBy, int N) throws JsonException {
         try (TableModel model = new TableModel(new DefaultCairoConfiguration(root) {
             @Override
@@ -2425,10 +2977,71 @@ public class TableWriterTest extends AbstractCairoTest {
         }
     }
 
+    private void createBlockTable(int partitionBy) {
+        try (TableModel model = new TableModel(configuration, "blk", partitionBy)
+                .col("id", ColumnType.INT)
+                .col("price", ColumnType.DOUBLE)
+                .col("sym", ColumnType.SYMBOL).indexed(true, 256)
+                .col("str", ColumnType.STRING)
+                .timestamp()) {
+            CairoTestUtils.create(model);
+        }
+    }
+
+    private void appendOutOfOrderPartitions(TableWriter writer, long ts) {
+        for (int i = 0; i < 20; i++) {
+            TableWriter.Row r = writer.newRow(ts + (i / 10) * Timestamps.DAY_MICROS + (i % 10) * Timestamps.HOUR_MICROS);
+            r.putInt(0, i);
+            r.append();
+        }
+        writer.commit();
+
+        // one out-of-order row for each of the partitions
+        TableWriter.Row r = writer.newRow(ts + Timestamps.HOUR_MICROS / 2);
+        r.putInt(0, 100);
+        r.append();
+        r = writer.newRow(ts + Timestamps.DAY_MICROS + Timestamps.HOUR_MICROS / 2);
+        r.putInt(0, 101);
+        r.append();
+        writer.commit();
+    }
+
+    private void assertOutOfOrderPartitions(int... merged) {
+        try (TableReader reader = new TableReader(o3Configuration, "o3")) {
+            Assert.assertEquals(20 + merged.length, reader.size());
+            RecordCursor cursor = reader.getCursor();
+            Record record = cursor.getRecord();
+            int m = 0;
+            for (int i = 0; i < 20; i++) {
+                Assert.assertTrue(cursor.hasNext());
+                Assert.assertEquals(i, record.getInt(0));
+                if (i % 10 == 0 && m < merged.length) {
+                    Assert.assertTrue(cursor.hasNext());
+                    Assert.assertEquals(merged[m++], record.getInt(0));
+                }
+            }
+            Assert.assertFalse(cursor.hasNext());
+        }
+    }
+
+    private void createOutOfOrderTable(int partitionBy) {
+        try (TableModel model = new TableModel(configuration, "o3", partitionBy)
+                .col("id", ColumnType.INT)
+                .col("str", ColumnType.STRING)
+                .col("sym", ColumnType.SYMBOL).indexed(true, 256)
+                .timestamp()) {
+            CairoTestUtils.create(model);
+        }
+    }
+
     private int getDirCount() {
+        return getDirCount(PRODUCT);
+    }
+
+    private int getDirCount(CharSequence tableName) {
         AtomicInteger count = new AtomicInteger();
         try (Path path = new Path()) {
-            FF.iterateDir(path.of(root).concat(PRODUCT).$(), (name, type) -> {
+            FF.iterateDir(path.of(root).concat(tableName).$(), (name, type) -> {
                 if (type == Files.DT_DIR) {
                     count.incrementAndGet();
                 }
@@ -2675,6 +3288,108 @@ public class TableWriterTest extends AbstractCairoTest {
         });
     }
 
+    private void testAppendBlock(int partitionBy) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            createBlockTable(partitionBy);
+            final int rowsBefore = 10;
+            final int blockSize = 500;
+            final int rowsAfter = 10;
+            final int count = rowsBefore + 2 * blockSize + rowsAfter;
+            final long[] timestamps = new long[count];
+            final int[] ids = new int[count];
+            final double[] prices = new double[count];
+            final String[] symbols = new String[count];
+
+            long ts = DateFormatUtils.parseDateTime("2020-01-01T00:00:00.000Z");
+            for (int i = 0; i < count; i++) {
+                timestamps[i] = ts;
+                ids[i] = i;
+                prices[i] = i >= rowsBefore + blockSize && i < rowsBefore + 2 * blockSize ? Double.NaN : i * 0.5;
+                symbols[i] = i % 7 == 0 ? null : "s" + i % 5;
+                // blocks span several days
+                ts += (i % 100 == 0 ? 0 : 10) * 60000000L;
+            }
+
+            final long blockTimestamps = Unsafe.malloc(blockSize * Long.BYTES);
+            final long blockIds = Unsafe.malloc(blockSize * Integer.BYTES);
+            final long blockPrices = Unsafe.malloc(blockSize * Double.BYTES);
+            final long blockSymbols = Unsafe.malloc(blockSize * Integer.BYTES);
+            try (TableWriter writer = new TableWriter(configuration, "blk")) {
+                int row = 0;
+                for (; row < rowsBefore; row++) {
+                    appendBlockTableRow(writer, row, timestamps, ids, prices, symbols);
+                }
+
+                final LongList addresses = new LongList();
+                addresses.add(blockIds);
+                addresses.add(blockPrices);
+                addresses.add(blockSymbols);
+                addresses.add(0);
+                addresses.add(blockTimestamps);
+                for (int b = 0; b < 2; b++) {
+                    for (int i = 0; i < blockSize; i++, row++) {
+                        Unsafe.getUnsafe().putLong(blockTimestamps + i * Long.BYTES, timestamps[row]);
+                        Unsafe.getUnsafe().putInt(blockIds + i * Integer.BYTES, ids[row]);
+                        Unsafe.getUnsafe().putDouble(blockPrices + i * Double.BYTES, prices[row]);
+                        Unsafe.getUnsafe().putInt(blockSymbols + i * Integer.BYTES, writer.putSymbol(2, symbols[row]));
+                    }
+                    // second block has no prices
+                    addresses.setQuick(1, b == 0 ? blockPrices : 0);
+                    writer.appendBlock(addresses, blockSize);
+                }
+
+                for (; row < count; row++) {
+                    appendBlockTableRow(writer, row, timestamps, ids, prices, symbols);
+                }
+                Assert.assertEquals(count, writer.size());
+                writer.commit();
+            } finally {
+                Unsafe.free(blockTimestamps, blockSize * Long.BYTES);
+                Unsafe.free(blockIds, blockSize * Integer.BYTES);
+                Unsafe.free(blockPrices, blockSize * Double.BYTES);
+                Unsafe.free(blockSymbols, blockSize * Integer.BYTES);
+            }
+
+            try (TableReader reader = new TableReader(configuration, "blk")) {
+                Assert.assertEquals(count, reader.size());
+                if (partitionBy == PartitionBy.DAY) {
+                    Assert.assertTrue(reader.getPartitionCount() > 2);
+                }
+
+                RecordCursor cursor = reader.getCursor();
+                Record record = cursor.getRecord();
+                int k = 0;
+                while (cursor.hasNext()) {
+                    Assert.assertEquals(timestamps[k], record.getTimestamp(4));
+                    Assert.assertEquals(ids[k], record.getInt(0));
+                    Assert.assertEquals(prices[k], record.getDouble(1), 0.0000001);
+                    TestUtils.assertEquals(symbols[k], record.getSym(2));
+                    Assert.assertNull(record.getStr(3));
+                    k++;
+                }
+                Assert.assertEquals(count, k);
+
+                // every row has to be indexed
+                int indexedCount = 0;
+                for (int p = 0, n = reader.getPartitionCount(); p < n; p++) {
+                    final long partitionSize = reader.openPartition(p);
+                    if (partitionSize < 1) {
+                        continue;
+                    }
+                    final BitmapIndexReader indexReader = reader.getBitmapIndexReader(reader.getColumnBase(p), 2, BitmapIndexReader.DIR_FORWARD);
+                    for (int key = 0, keyCount = reader.getSymbolMapReader(2).size() + 1; key < keyCount; key++) {
+                        RowCursor rowCursor = indexReader.getCursor(true, key, 0, Long.MAX_VALUE);
+                        while (rowCursor.hasNext()) {
+                            Assert.assertTrue(rowCursor.next() < partitionSize);
+                            indexedCount++;
+                        }
+                    }
+                }
+                Assert.assertEquals(count, indexedCount);
+            }
+        });
+    }
+
     private long testAppendNulls(Rnd rnd, long ts) throws JsonException {
         final int blobLen = 64 * 1024;
         long blob = Unsafe.malloc(blobLen);
@@ -2812,6 +3527,75 @@ public class TableWriterTest extends AbstractCairoTest {
         });
     }
 
+    private void testOutOfOrderMerge(int partitionBy) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            createOutOfOrderTable(partitionBy);
+
+            final int N = 2000;
+            final long[] timestamps = new long[N];
+            final int[] ids = new int[N];
+            final String[] strings = new String[N];
+            final String[] symbols = new String[N];
+            final long[] extras = new long[N];
+            final long ts = DateFormatUtils.parseDateTime("2013-03-04T00:00:00.000Z");
+            final long range = 40 * Timestamps.DAY_MICROS;
+            final Rnd rnd = new Rnd();
+
+            int count = 0;
+            try (TableWriter writer = new TableWriter(o3Configuration, "o3")) {
+                // in-order batch to start with
+                for (int i = 0; i < 200; i++) {
+                    timestamps[count] = ts + range / 2 + i * Timestamps.HOUR_MICROS;
+                    extras[count] = Numbers.LONG_NaN;
+                    appendOutOfOrderRow(writer, rnd, count++, timestamps, ids, strings, symbols, null);
+                }
+                writer.commit();
+
+                try (TableReader reader = new TableReader(o3Configuration, "o3")) {
+                    assertOutOfOrderTable(reader, count, timestamps, ids, strings, symbols, null);
+
+                    writer.addColumn("extra", ColumnType.LONG);
+                    for (int batch = 0; batch < 4; batch++) {
+                        for (int i = 0, n = 300 + batch * 50; i < n; i++) {
+                            timestamps[count] = ts + rnd.nextPositiveLong() % range;
+                            if (rnd.nextInt() % 7 == 0) {
+                                // partially populated row has to be discarded
+                                TableWriter.Row r = writer.newRow(timestamps[count]);
+                                r.putStr(1, "cancelled");
+                                r.putLong(4, -1);
+                                r.cancel();
+                            }
+                            appendOutOfOrderRow(writer, rnd, count++, timestamps, ids, strings, symbols, extras);
+                        }
+                        Assert.assertEquals(count, writer.size());
+                        writer.commit();
+
+                        Assert.assertTrue(reader.reload());
+                        assertOutOfOrderTable(reader, count, timestamps, ids, strings, symbols, extras);
+                    }
+                }
+            }
+
+            try (TableReader reader = new TableReader(o3Configuration, "o3")) {
+                assertOutOfOrderTable(reader, count, timestamps, ids, strings, symbols, extras);
+            }
+
+            // reopened writer has to be able to continue appending
+            try (TableWriter writer = new TableWriter(o3Configuration, "o3")) {
+                Assert.assertEquals(count, writer.size());
+                timestamps[count] = writer.getMaxTimestamp();
+                appendOutOfOrderRow(writer, rnd, count++, timestamps, ids, strings, symbols, extras);
+                timestamps[count] = ts - Timestamps.DAY_MICROS;
+                appendOutOfOrderRow(writer, rnd, count++, timestamps, ids, strings, symbols, extras);
+                writer.commit();
+            }
+
+            try (TableReader reader = new TableReader(o3Configuration, "o3")) {
+                assertOutOfOrderTable(reader, count, timestamps, ids, strings, symbols, extras);
+            }
+        });
+    }
+
     private void testOutOfOrderRecords(int N) throws Exception {
         TestUtils.assertMemoryLeak(() -> {
             try (TableWriter writer = new TableWriter(configuration, PRODUCT)) {
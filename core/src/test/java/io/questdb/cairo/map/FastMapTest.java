@@ -400,6 +400,82 @@ public class FastMapTest extends AbstractCairoTest {
         }
     }
 
+    @Test
+    public void testMerge() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            Rnd rnd = new Rnd();
+            int N = 10000;
+            ArrayColumnTypes keyTypes = new ArrayColumnTypes().add(ColumnType.STRING).add(ColumnType.INT);
+            ArrayColumnTypes valueTypes = new ArrayColumnTypes().add(ColumnType.LONG).add(ColumnType.DOUBLE);
+            // small page size makes destination map grow while entries are copied
+            try (
+                    FastMap dest = new FastMap(64, keyTypes, valueTypes, 16, 0.5f);
+                    FastMap src = new FastMap(Numbers.SIZE_1MB, keyTypes, valueTypes, 16, 0.5f)
+            ) {
+                ObjList<String> keys = new ObjList<>();
+                for (int i = 0; i < N; i++) {
+                    keys.add(rnd.nextChars(rnd.nextPositiveInt() % 16).toString());
+                }
+
+                // even keys go to destination, every other key to source
+                for (int i = 0; i < N; i += 2) {
+                    MapKey key = dest.withKey();
+                    key.putStr(keys.getQuick(i));
+                    key.putInt(i);
+                    MapValue value = key.createValue();
+                    value.putLong(0, i);
+                    value.putDouble(1, i * 0.5);
+                }
+
+                for (int i = 0; i < N; i++) {
+                    if (i % 2 == 0 && i % 4 != 0) {
+                        continue;
+                    }
+                    MapKey key = src.withKey();
+                    key.putStr(keys.getQuick(i));
+                    key.putInt(i);
+                    MapValue value = key.createValue();
+                    value.putLong(0, i);
+                    value.putDouble(1, i * 0.5);
+                }
+
+                dest.merge(src, (destValue, srcValue) -> {
+                    destValue.addLong(0, srcValue.getLong(0));
+                    destValue.addDouble(1, srcValue.getDouble(1));
+                });
+
+                Assert.assertEquals(N, dest.size());
+
+                // destination keys come first followed by new keys in source order
+                RecordCursor cursor = dest.getCursor();
+                Record record = cursor.getRecord();
+                for (int i = 0; i < N; i += 2) {
+                    Assert.assertTrue(cursor.hasNext());
+                    final long expected = i % 4 == 0 ? 2 * i : i;
+                    TestUtils.assertEquals(keys.getQuick(i), record.getStr(2));
+                    Assert.assertEquals(i, record.getInt(3));
+                    Assert.assertEquals(expected, record.getLong(0));
+                    Assert.assertEquals(expected * 0.5, record.getDouble(1), 0.0000001);
+                }
+                for (int i = 1; i < N; i += 2) {
+                    Assert.assertTrue(cursor.hasNext());
+                    TestUtils.assertEquals(keys.getQuick(i), record.getStr(2));
+                    Assert.assertEquals(i, record.getInt(3));
+                    Assert.assertEquals(i, record.getLong(0));
+                    Assert.assertEquals(i * 0.5, record.getDouble(1), 0.0000001);
+                }
+                Assert.assertFalse(cursor.hasNext());
+
+                for (int i = 0; i < N; i++) {
+                    MapKey key = dest.withKey();
+                    key.putStr(keys.getQuick(i));
+                    key.putInt(i);
+                    Assert.assertNotNull(key.findValue());
+                }
+            }
+        });
+    }
+
     @Test
     public void testNoValueColumns() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
@@ -30,6 +30,8 @@ import io.questdb.cutlass.NetUtils;
 import io.questdb.cutlass.http.processors.JsonQueryProcessor;
 import io.questdb.cutlass.http.processors.StaticContentProcessor;
 import io.questdb.cutlass.http.processors.StaticContentProcessorConfiguration;
+import io.questdb.cutlass.http.processors.TableTailProcessor;
+import io.questdb.cutlass.http.processors.TableTailSubscriptions;
 import io.questdb.cutlass.http.processors.TextImportProcessor;
 import io.questdb.cutlass.json.JsonException;
 import io.questdb.log.Log;
@@ -45,17 +47,30 @@ import org.jetbrains.annotations.NotNull;
 import org.junit.*;
 import org.junit.rules.TemporaryFolder;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntConsumer;
+import java.util.zip.GZIPInputStream;
 
 public class IODispatcherTest {
     private static final Log LOG = LogFactory.getLog(IODispatcherTest.class);
     @Rule
     public TemporaryFolder temp = new TemporaryFolder();
 
+    private static void appendTailRow(TableWriter writer, CharSequence sym, long v, long timestamp) {
+        TableWriter.Row r = writer.newRow(timestamp);
+        r.putSym(0, sym);
+        r.putLong(1, v);
+        r.append();
+    }
+
     private static void assertDownloadResponse(long fd, Rnd rnd, long buffer, int len, int nonRepeatedContentLength, String expectedResponseHeader, long expectedResponseLen) {
         int expectedHeaderLen = expectedResponseHeader.length();
         int headerCheckRemaining = expectedResponseHeader.length();
@@ -92,6 +107,62 @@ public class IODispatcherTest {
         }
     }
 
+    private static void assertReceived(NetworkFacade nf, long fd, long buf, int bufLen, String expected) {
+        final int len = expected.length();
+        Assert.assertTrue(len <= bufLen);
+        int received = 0;
+        while (received < len) {
+            int n = nf.recv(fd, buf + received, len - received);
+            Assert.assertTrue(n > -1);
+            received += n;
+        }
+        final StringSink sink = new StringSink();
+        for (int i = 0; i < len; i++) {
+            sink.put((char) Unsafe.getUnsafe().getByte(buf + i));
+        }
+        TestUtils.assertEquals(expected, sink);
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[4096];
+            int n;
+            while ((n = in.read(buf)) > 0) {
+                out.write(buf, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private static byte[] receiveResponse(long fd, long buffer, int bufferLen, StringSink header) {
+        // read response header byte by byte to avoid consuming body
+        header.clear();
+        while (!Chars.endsWith(header, "\r\n\r\n")) {
+            int n = Net.recv(fd, buffer, 1);
+            Assert.assertTrue(n > -1);
+            if (n > 0) {
+                header.put((char) Unsafe.getUnsafe().getByte(buffer));
+            }
+        }
+
+        final String headerStr = header.toString();
+        final String contentLengthHeader = "Content-Length: ";
+        final int lo = headerStr.indexOf(contentLengthHeader) + contentLengthHeader.length();
+        final int len = Integer.parseInt(headerStr.substring(lo, headerStr.indexOf('\r', lo)));
+        final byte[] body = new byte[len];
+        int received = 0;
+        while (received < len) {
+            int n = Net.recv(fd, buffer, Math.min(bufferLen, len - received));
+            Assert.assertTrue(n > -1);
+            for (int i = 0; i < n; i++) {
+                body[received + i] = Unsafe.getUnsafe().getByte(buffer + i);
+            }
+            received += n;
+        }
+        return body;
+    }
+
     private static void sendRequest(String request, long fd, long buffer) {
         final int requestLen = request.length();
         Chars.strcpy(request, requestLen, buffer);
@@ -1126,7 +1197,8 @@ public class IODispatcherTest {
                     public HttpRequestProcessor newInstance() {
                         return new JsonQueryProcessor(
                                 httpConfiguration.getJsonQueryProcessorConfiguration(),
-                                engine
+                                engine,
+                                httpServer.getQueryCache()
                         );
                     }
                 });
@@ -1743,7 +1815,8 @@ public class IODispatcherTest {
                     public HttpRequestProcessor newInstance() {
                         return new JsonQueryProcessor(
                                 httpConfiguration.getJsonQueryProcessorConfiguration(),
-                                engine
+                                engine,
+                                httpServer.getQueryCache()
                         );
                     }
                 });
@@ -1975,6 +2048,143 @@ public class IODispatcherTest {
         });
     }
 
+    @Test
+    public void testSCPCachedGzipDownload() throws Exception {
+        // gzip header is allocated when Zip is first used, keep it out of leak accounting
+        Assert.assertNotEquals(0, Zip.gzipHeader);
+        TestUtils.assertMemoryLeak(() -> {
+            final String baseDir = temp.getRoot().getAbsolutePath();
+            final DefaultHttpServerConfiguration httpConfiguration = createHttpServerConfiguration(baseDir, false, false);
+            final WorkerPool workerPool = new WorkerPool(new WorkerPoolConfiguration() {
+                @Override
+                public int[] getWorkerAffinity() {
+                    return new int[]{-1, -1};
+                }
+
+                @Override
+                public int getWorkerCount() {
+                    return 2;
+                }
+
+                @Override
+                public boolean haltOnError() {
+                    return false;
+                }
+            });
+            try (HttpServer httpServer = new HttpServer(httpConfiguration, workerPool, false)) {
+                httpServer.bind(new HttpRequestProcessorFactory() {
+                    @Override
+                    public String getUrl() {
+                        return HttpServerConfiguration.DEFAULT_PROCESSOR_URL;
+                    }
+
+                    @Override
+                    public HttpRequestProcessor newInstance() {
+                        return new StaticContentProcessor(httpConfiguration.getStaticContentProcessorConfiguration());
+                    }
+                });
+
+                workerPool.start(LOG);
+
+                final StringBuilder content = new StringBuilder();
+                for (int i = 0; i < 2000; i++) {
+                    content.append("static content line ").append(i).append('\n');
+                }
+                final byte[] expected = content.toString().getBytes();
+
+                try (Path path = new Path().of(baseDir).concat("questdb-temp.txt").$()) {
+                    try {
+                        writeTextFile(path, content, 122222212222L);
+
+                        long fd = Net.socketTcp(true);
+                        try {
+                            long sockAddr = Net.sockaddr("127.0.0.1", 9001);
+                            try {
+                                Assert.assertTrue(fd > -1);
+                                Assert.assertEquals(0, Net.connect(fd, sockAddr));
+
+                                final int netBufferLen = 4 * 1024;
+                                final long buffer = Unsafe.calloc(netBufferLen);
+                                try {
+                                    final String request = "GET /questdb-temp.txt HTTP/1.1\r\n" +
+                                            "Host: localhost:9000\r\n" +
+                                            "Connection: keep-alive\r\n" +
+                                            "Accept-Encoding: gzip,deflate,sdch\r\n" +
+                                            "\r\n";
+
+                                    final String plainRequest = "GET /questdb-temp.txt HTTP/1.1\r\n" +
+                                            "Host: localhost:9000\r\n" +
+                                            "Connection: keep-alive\r\n" +
+                                            "\r\n";
+
+                                    final StringSink header = new StringSink();
+                                    for (int j = 0; j < 3; j++) {
+                                        sendRequest(request, fd, buffer);
+                                        byte[] body = receiveResponse(fd, buffer, netBufferLen, header);
+                                        Assert.assertTrue(body.length < expected.length);
+                                        TestUtils.assertEquals("HTTP/1.1 200 OK\r\n" +
+                                                        "Server: questDB/1.0\r\n" +
+                                                        "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                                                        "Content-Length: " + body.length + "\r\n" +
+                                                        "Content-Type: text/plain\r\n" +
+                                                        "Vary: Accept-Encoding\r\n" +
+                                                        "Content-Encoding: gzip\r\n" +
+                                                        "ETag: \"122222212222\"\r\n" +
+                                                        "\r\n",
+                                                header
+                                        );
+                                        Assert.assertArrayEquals(expected, gunzip(body));
+
+                                        sendRequest(plainRequest, fd, buffer);
+                                        body = receiveResponse(fd, buffer, netBufferLen, header);
+                                        TestUtils.assertEquals("HTTP/1.1 200 OK\r\n" +
+                                                        "Server: questDB/1.0\r\n" +
+                                                        "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                                                        "Content-Length: " + expected.length + "\r\n" +
+                                                        "Content-Type: text/plain\r\n" +
+                                                        "Vary: Accept-Encoding\r\n" +
+                                                        "ETag: \"122222212222\"\r\n" +
+                                                        "\r\n",
+                                                header
+                                        );
+                                        Assert.assertArrayEquals(expected, body);
+                                    }
+
+                                    // file changes, cache has to pick up new content
+                                    content.setLength(0);
+                                    content.append("updated content");
+                                    writeTextFile(path, content, 122222213333L);
+                                    sendRequest(plainRequest, fd, buffer);
+                                    byte[] body = receiveResponse(fd, buffer, netBufferLen, header);
+                                    TestUtils.assertEquals("HTTP/1.1 200 OK\r\n" +
+                                                    "Server: questDB/1.0\r\n" +
+                                                    "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                                                    "Content-Length: 15\r\n" +
+                                                    "Content-Type: text/plain\r\n" +
+                                                    "ETag: \"122222213333\"\r\n" +
+                                                    "\r\n",
+                                            header
+                                    );
+                                    Assert.assertArrayEquals("updated content".getBytes(), body);
+                                } finally {
+                                    Unsafe.free(buffer, netBufferLen);
+                                }
+                            } finally {
+                                Net.freeSockAddr(sockAddr);
+                            }
+                        } finally {
+                            Net.close(fd);
+                        }
+
+                        workerPool.halt();
+                    } finally {
+                        Files.remove(path);
+                    }
+                }
+            }
+        });
+    }
+
     @Test
     public void testSCPConnectDownloadDisconnect() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
@@ -2336,6 +2546,49 @@ public class IODispatcherTest {
         });
     }
 
+    @Test
+    public void testSCPRangeDownload() throws Exception {
+        testSCPRangeDownload(NetworkFacadeImpl.INSTANCE, null);
+    }
+
+    @Test
+    public void testSCPRangeDownloadSendFile() throws Exception {
+        // native library may not export sendFile(), facade emulates it with partial
+        // sends and full socket buffer on every third call
+        final AtomicInteger sendFileCount = new AtomicInteger();
+        final AtomicInteger slowPeerCount = new AtomicInteger();
+        final AtomicLong lastSendFileEnd = new AtomicLong();
+        final NetworkFacade nf = new NetworkFacadeImpl() {
+            @Override
+            public boolean isSendFileSupported() {
+                return true;
+            }
+
+            @Override
+            public long sendFile(long fd, long fileFd, long offset, long count) {
+                lastSendFileEnd.set(offset + count);
+                if (sendFileCount.incrementAndGet() % 3 == 0) {
+                    slowPeerCount.incrementAndGet();
+                    return 0;
+                }
+                final int len = (int) Math.min(count, 1000);
+                final long buf = Unsafe.malloc(len);
+                try {
+                    final long n = Files.read(fileFd, buf, len, offset);
+                    return n > 0 ? send(fd, buf, (int) n) : n;
+                } finally {
+                    Unsafe.free(buf, len);
+                }
+            }
+        };
+
+        testSCPRangeDownload(nf, hi -> Assert.assertEquals(hi, lastSendFileEnd.get()));
+
+        // ranges are 249000, 1 and 27680 bytes long
+        Assert.assertTrue(sendFileCount.get() > (249000 + 1 + 27680) / 1000);
+        Assert.assertTrue(slowPeerCount.get() > 0);
+    }
+
     @Test
     public void testSendHttpGet() throws Exception {
 
@@ -2822,6 +3075,161 @@ public class IODispatcherTest {
         });
     }
 
+    @Test
+    public void testTableTail() throws Exception {
+        testTableTail(engine -> {
+            try (TableWriter writer = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                // rows committed before subscription are not streamed
+                appendTailRow(writer, "A", 0, 0);
+                writer.commit();
+
+                final NetworkFacade nf = NetworkFacadeImpl.INSTANCE;
+                final long fd = nf.socketTcp(true);
+                final long sockAddr = nf.sockaddr("127.0.0.1", 9001);
+                final int bufLen = 1024;
+                final long buf = Unsafe.malloc(bufLen);
+                try {
+                    Assert.assertTrue(fd > -1);
+                    Assert.assertEquals(0, nf.connect(fd, sockAddr));
+                    Assert.assertEquals(0, nf.setTcpNoDelay(fd, true));
+
+                    // symbol 'C' does not exist at the time of subscription
+                    // chunk trailer is sent ahead of next chunk header, hence leading line ends
+                    sendRequest("GET /tail?table=x&filter=sym%3D%27C%27 HTTP/1.1\r\n\r\n", fd, buf);
+                    assertReceived(
+                            nf,
+                            fd,
+                            buf,
+                            bufLen,
+                            "HTTP/1.1 200 OK\r\n" +
+                                    "Server: questDB/1.0\r\n" +
+                                    "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                                    "Transfer-Encoding: chunked\r\n" +
+                                    "Content-Type: text/csv; charset=utf-8\r\n" +
+                                    "Keep-Alive: timeout=5, max=10000\r\n" +
+                                    "\r\n" +
+                                    "17\r\n" +
+                                    "\"sym\",\"v\",\"timestamp\"\r\n"
+                    );
+
+                    appendTailRow(writer, "A", 1, 1);
+                    appendTailRow(writer, "C", 2, 2);
+                    writer.commit();
+                    assertReceived(
+                            nf,
+                            fd,
+                            buf,
+                            bufLen,
+                            "\r\n" +
+                                    "25\r\n" +
+                                    "\"C\",2,\"1970-01-01T00:00:00.000002Z\"\r\n"
+                    );
+
+                    appendTailRow(writer, "A", 3, 3);
+                    writer.commit();
+                    appendTailRow(writer, "C", 4, 4);
+                    appendTailRow(writer, "C", 5, 5);
+                    writer.commit();
+                    assertReceived(
+                            nf,
+                            fd,
+                            buf,
+                            bufLen,
+                            "\r\n" +
+                                    "4a\r\n" +
+                                    "\"C\",4,\"1970-01-01T00:00:00.000004Z\"\r\n" +
+                                    "\"C\",5,\"1970-01-01T00:00:00.000005Z\"\r\n"
+                    );
+                } finally {
+                    Unsafe.free(buf, bufLen);
+                    nf.freeSockAddr(sockAddr);
+                    nf.close(fd);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testTableTailInvalidFilter() throws Exception {
+        testTableTail(engine -> sendAndReceive(
+                NetworkFacadeImpl.INSTANCE,
+                "GET /tail?table=x&filter=v HTTP/1.1\r\n\r\n",
+                "HTTP/1.1 400 Bad request\r\n" +
+                        "Server: questDB/1.0\r\n" +
+                        "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                        "Transfer-Encoding: chunked\r\n" +
+                        "Content-Type: text/csv; charset=utf-8\r\n" +
+                        "Keep-Alive: timeout=5, max=10000\r\n" +
+                        "\r\n" +
+                        "41\r\n" +
+                        "{\"filter\":\"v\",\"error\":\"boolean expression expected\",\"position\":0}\r\n" +
+                        "00\r\n" +
+                        "\r\n",
+                10,
+                0,
+                false,
+                false
+        ));
+    }
+
+    @Test
+    public void testTableTailSubscriptionLimit() throws Exception {
+        testTableTail(1, engine -> {
+            final NetworkFacade nf = NetworkFacadeImpl.INSTANCE;
+            final long fd = nf.socketTcp(true);
+            final long sockAddr = nf.sockaddr("127.0.0.1", 9001);
+            final int bufLen = 1024;
+            final long buf = Unsafe.malloc(bufLen);
+            try {
+                Assert.assertTrue(fd > -1);
+                Assert.assertEquals(0, nf.connect(fd, sockAddr));
+                Assert.assertEquals(0, nf.setTcpNoDelay(fd, true));
+
+                sendRequest("GET /tail?table=x HTTP/1.1\r\n\r\n", fd, buf);
+                assertReceived(
+                        nf,
+                        fd,
+                        buf,
+                        bufLen,
+                        "HTTP/1.1 200 OK\r\n" +
+                                "Server: questDB/1.0\r\n" +
+                                "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                                "Transfer-Encoding: chunked\r\n" +
+                                "Content-Type: text/csv; charset=utf-8\r\n" +
+                                "Keep-Alive: timeout=5, max=10000\r\n" +
+                                "\r\n" +
+                                "17\r\n" +
+                                "\"sym\",\"v\",\"timestamp\"\r\n"
+                );
+
+                // first subscription is parked and holds the only slot
+                sendAndReceive(
+                        nf,
+                        "GET /tail?table=x HTTP/1.1\r\n\r\n",
+                        "HTTP/1.1 400 Bad request\r\n" +
+                                "Server: questDB/1.0\r\n" +
+                                "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                                "Transfer-Encoding: chunked\r\n" +
+                                "Content-Type: text/csv; charset=utf-8\r\n" +
+                                "Keep-Alive: timeout=5, max=10000\r\n" +
+                                "\r\n" +
+                                "44\r\n" +
+                                "{\"filter\":\"\",\"error\":\"Too many subscriptions to table\",\"position\":0}\r\n" +
+                                "00\r\n" +
+                                "\r\n",
+                        1,
+                        0,
+                        false,
+                        false
+                );
+            } finally {
+                Unsafe.free(buf, bufLen);
+                nf.freeSockAddr(sockAddr);
+                nf.close(fd);
+            }
+        });
+    }
+
     @Test
     // this test is ignore for the time being because it is unstable on OSX and I
     // have not figured out the reason yet. I would like to see if this test
@@ -3077,7 +3485,8 @@ public class IODispatcherTest {
                     public HttpRequestProcessor newInstance() {
                         return new JsonQueryProcessor(
                                 httpConfiguration.getJsonQueryProcessorConfiguration(),
-                                engine
+                                engine,
+                                httpServer.getQueryCache()
                         );
                     }
                 });
@@ -3146,6 +3555,21 @@ public class IODispatcherTest {
                 public String getKeepAliveHeader() {
                     return null;
                 }
+
+                @Override
+                public boolean isSendFileEnabled() {
+                    return true;
+                }
+
+                @Override
+                public int getCacheMaxSize() {
+                    return 1024 * 1024;
+                }
+
+                @Override
+                public int getCacheFileMaxSize() {
+                    return 128 * 1024;
+                }
             };
 
             @Override
@@ -3329,7 +3753,8 @@ public class IODispatcherTest {
                     public HttpRequestProcessor newInstance() {
                         return new JsonQueryProcessor(
                                 httpConfiguration.getJsonQueryProcessorConfiguration(),
-                                engine
+                                engine,
+                                httpServer.getQueryCache()
                         );
                     }
                 });
@@ -3349,6 +3774,185 @@ public class IODispatcherTest {
         testJsonQuery(recordCount, request, expectedResponse, 100);
     }
 
+    private void testSCPRangeDownload(NetworkFacade nf, IntConsumer rangeSentAssert) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final String baseDir = temp.getRoot().getAbsolutePath();
+            final DefaultHttpServerConfiguration httpConfiguration = createHttpServerConfiguration(nf, baseDir, 1024 * 1024, false, false);
+            final WorkerPool workerPool = new WorkerPool(new WorkerPoolConfiguration() {
+                @Override
+                public int[] getWorkerAffinity() {
+                    return new int[]{-1, -1};
+                }
+
+                @Override
+                public int getWorkerCount() {
+                    return 2;
+                }
+
+                @Override
+                public boolean haltOnError() {
+                    return false;
+                }
+            });
+            try (HttpServer httpServer = new HttpServer(httpConfiguration, workerPool, false)) {
+                httpServer.bind(new HttpRequestProcessorFactory() {
+                    @Override
+                    public String getUrl() {
+                        return HttpServerConfiguration.DEFAULT_PROCESSOR_URL;
+                    }
+
+                    @Override
+                    public HttpRequestProcessor newInstance() {
+                        return new StaticContentProcessor(httpConfiguration.getStaticContentProcessorConfiguration());
+                    }
+                });
+
+                workerPool.start(LOG);
+
+                try (Path path = new Path().of(baseDir).concat("questdb-temp.txt").$()) {
+                    try {
+                        // file is too large to be cached, range is sent from disk
+                        final int diskBufferLen = 16 * 1024;
+                        writeRandomFile(path, new Rnd(), 122222212222L, diskBufferLen);
+                        final byte[] expected = new byte[diskBufferLen * 20];
+                        final Rnd rnd = new Rnd();
+                        for (int i = 0; i < diskBufferLen; i++) {
+                            expected[i] = rnd.nextByte();
+                        }
+                        for (int i = 1; i < 20; i++) {
+                            System.arraycopy(expected, 0, expected, i * diskBufferLen, diskBufferLen);
+                        }
+
+                        long fd = Net.socketTcp(true);
+                        try {
+                            long sockAddr = Net.sockaddr("127.0.0.1", 9001);
+                            try {
+                                Assert.assertTrue(fd > -1);
+                                Assert.assertEquals(0, Net.connect(fd, sockAddr));
+
+                                final int netBufferLen = 4 * 1024;
+                                final long buffer = Unsafe.calloc(netBufferLen);
+                                try {
+                                    final StringSink header = new StringSink();
+                                    final int[][] ranges = {{1000, 250000}, {0, 1}, {300000, expected.length}};
+                                    for (int j = 0; j < ranges.length; j++) {
+                                        final int lo = ranges[j][0];
+                                        final int hi = ranges[j][1];
+                                        final String request = "GET /questdb-temp.txt HTTP/1.1\r\n" +
+                                                "Host: localhost:9000\r\n" +
+                                                "Connection: keep-alive\r\n" +
+                                                "Range: bytes=" + lo + "-" + (hi == expected.length ? "" : Integer.toString(hi)) + "\r\n" +
+                                                "\r\n";
+                                        sendRequest(request, fd, buffer);
+                                        byte[] body = receiveResponse(fd, buffer, netBufferLen, header);
+                                        TestUtils.assertEquals("HTTP/1.1 206 Partial content\r\n" +
+                                                        "Server: questDB/1.0\r\n" +
+                                                        "Date: Thu, 1 Jan 1970 00:00:00 GMT\r\n" +
+                                                        "Content-Length: " + (hi - lo) + "\r\n" +
+                                                        "Content-Type: text/plain\r\n" +
+                                                        "Accept-Ranges: bytes\r\n" +
+                                                        "Content-Range: bytes " + lo + "-" + hi + "/" + expected.length + "\r\n" +
+                                                        "ETag: 122222212222\r\n" +
+                                                        "\r\n",
+                                                header
+                                        );
+                                        Assert.assertArrayEquals(Arrays.copyOfRange(expected, lo, hi), body);
+                                        if (rangeSentAssert != null) {
+                                            rangeSentAssert.accept(hi);
+                                        }
+                                    }
+                                } finally {
+                                    Unsafe.free(buffer, netBufferLen);
+                                }
+                            } finally {
+                                Net.freeSockAddr(sockAddr);
+                            }
+                        } finally {
+                            Net.close(fd);
+                        }
+
+                        workerPool.halt();
+                    } finally {
+                        Files.remove(path);
+                    }
+                }
+            }
+        });
+    }
+
+    private void testTableTail(HttpClientCode code) throws Exception {
+        testTableTail(32, code);
+    }
+
+    private void testTableTail(int subscriptionLimit, HttpClientCode code) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final String baseDir = temp.getRoot().getAbsolutePath();
+            final DefaultHttpServerConfiguration httpConfiguration = createHttpServerConfiguration(baseDir, false, false);
+            final WorkerPool workerPool = new WorkerPool(new WorkerPoolConfiguration() {
+                @Override
+                public int[] getWorkerAffinity() {
+                    return new int[]{-1};
+                }
+
+                @Override
+                public int getWorkerCount() {
+                    return 1;
+                }
+
+                @Override
+                public boolean haltOnError() {
+                    return false;
+                }
+            });
+
+            try (
+                    CairoEngine engine = new CairoEngine(new DefaultCairoConfiguration(baseDir));
+                    HttpServer httpServer = new HttpServer(httpConfiguration, workerPool, false)
+            ) {
+                final TableTailSubscriptions subscriptions = new TableTailSubscriptions(subscriptionLimit);
+                httpServer.bind(new HttpRequestProcessorFactory() {
+                    @Override
+                    public String getUrl() {
+                        return "/tail";
+                    }
+
+                    @Override
+                    public HttpRequestProcessor newInstance() {
+                        return new TableTailProcessor(httpConfiguration.getJsonQueryProcessorConfiguration(), engine, subscriptions);
+                    }
+                });
+
+                try (TableModel model = new TableModel(engine.getConfiguration(), "x", PartitionBy.DAY)
+                        .col("sym", ColumnType.SYMBOL)
+                        .col("v", ColumnType.LONG)
+                        .timestamp()) {
+                    CairoTestUtils.create(model);
+                }
+
+                workerPool.start(LOG);
+                try {
+                    code.run(engine);
+                } finally {
+                    workerPool.halt();
+                }
+            }
+        });
+    }
+
+    private void writeTextFile(Path path, CharSequence content, long lastModified) {
+        if (Files.exists(path)) {
+            Assert.assertTrue(Files.remove(path));
+        }
+        final long fd = Files.openAppend(path);
+        final int len = content.length();
+        final long buf = Unsafe.malloc(len);
+        Chars.strcpy(content, len, buf);
+        Assert.assertEquals(len, Files.append(fd, buf, len));
+        Files.close(fd);
+        Files.setLastModified(path, lastModified);
+        Unsafe.free(buf, len);
+    }
+
     private void writeRandomFile(Path path, Rnd rnd, long lastModified, int bufLen) {
         if (Files.exists(path)) {
             Assert.assertTrue(Files.remove(path));
@@ -31,6 +31,7 @@ import io.questdb.std.microtime.DateFormatUtils;
 import io.questdb.std.microtime.MicrosecondClock;
 import io.questdb.std.str.LPSZ;
 import io.questdb.std.str.Path;
+import io.questdb.std.time.MillisecondClock;
 import io.questdb.test.tools.TestMicroClock;
 import io.questdb.test.tools.TestUtils;
 import org.junit.Assert;
@@ -305,6 +306,89 @@ public class CairoLineProtoParserTest extends AbstractCairoTest {
         }
     }
 
+    @Test
+    public void testCommitPolicy() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final long[] ticks = {0};
+            final LineProtoCommitConfiguration commitConfiguration = new LineProtoCommitConfiguration() {
+                @Override
+                public long getCommitIdleTimeout() {
+                    return 25;
+                }
+
+                @Override
+                public long getMaxUncommittedLatency() {
+                    return 50;
+                }
+
+                @Override
+                public int getMaxUncommittedRows() {
+                    return 4;
+                }
+
+                @Override
+                public MillisecondClock getMillisecondClock() {
+                    return () -> ticks[0];
+                }
+            };
+
+            try (
+                    CairoEngine engine = new CairoEngine(configuration, null);
+                    CairoLineProtoParser parser = new CairoLineProtoParser(engine, AllowAllCairoSecurityContext.INSTANCE, commitConfiguration);
+                    LineProtoLexer lexer = new LineProtoLexer(4096)
+            ) {
+                lexer.withParser(parser);
+
+                // "y" reaches row threshold
+                parse(lexer, "x,tag=a field=1i 1000000\n" +
+                        "y,tag=a field=1i 1000000\n" +
+                        "y,tag=b field=2i 2000000\n" +
+                        "x,tag=b field=2i 2000000\n" +
+                        "y,tag=c field=3i 3000000\n" +
+                        "y,tag=d field=4i 4000000\n");
+                Assert.assertFalse(parser.commitIfDue());
+                try (
+                        TableReader x = new TableReader(configuration, "x");
+                        TableReader y = new TableReader(configuration, "y")
+                ) {
+                    Assert.assertEquals(0, x.size());
+                    Assert.assertEquals(4, y.size());
+
+                    // "x" stops receiving rows
+                    ticks[0] = 24;
+                    Assert.assertFalse(parser.commitIfDue());
+                    ticks[0] = 25;
+                    Assert.assertTrue(parser.commitIfDue());
+                    x.reload();
+                    Assert.assertEquals(2, x.size());
+
+                    // "x" receives rows more often than idle timeout
+                    long start = ticks[0] = 30;
+                    for (int i = 0; i < 3; i++) {
+                        parse(lexer, "x,tag=c field=3i " + (i + 3) + "000000\n");
+                        ticks[0] += 15;
+                        Assert.assertFalse(parser.commitIfDue());
+                    }
+                    x.reload();
+                    Assert.assertEquals(2, x.size());
+
+                    ticks[0] = start + 50;
+                    Assert.assertTrue(parser.commitIfDue());
+                    x.reload();
+                    Assert.assertEquals(5, x.size());
+
+                    // nothing left to commit
+                    ticks[0] += 1000;
+                    Assert.assertFalse(parser.commitIfDue());
+                    parse(lexer, "y,tag=e field=5i 5000000\n");
+                    parser.commitAll();
+                    y.reload();
+                    Assert.assertEquals(5, y.size());
+                }
+            }
+        });
+    }
+
     @Test
     public void testCreateAndAppend() throws Exception {
         final String expected = "tag\ttag2\tfield\tf4\tfield2\tfx\ttimestamp\n" +
@@ -532,4 +616,18 @@ public class CairoLineProtoParserTest extends AbstractCairoTest {
     private void assertThat(String expected, String lines, CharSequence tableName) throws Exception {
         assertThat(expected, lines, tableName, configuration);
     }
+
+    private void parse(LineProtoLexer lexer, String lines) {
+        byte[] bytes = lines.getBytes(StandardCharsets.UTF_8);
+        int len = bytes.length;
+        long mem = Unsafe.malloc(len);
+        try {
+            for (int i = 0; i < len; i++) {
+                Unsafe.getUnsafe().putByte(mem + i, bytes[i]);
+            }
+            lexer.parse(mem, mem + len);
+        } finally {
+            Unsafe.free(mem, len);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,412 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.cairo.AbstractCairoTest;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.WorkerPool;
+import io.questdb.mp.WorkerPoolConfiguration;
+import io.questdb.network.*;
+import io.questdb.std.Chars;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+public class LineTcpServerTest extends AbstractCairoTest {
+    private static final Log LOG = LogFactory.getLog(LineTcpServerTest.class);
+    private static final int PORT = 9019;
+    private static final NetworkFacade NF = NetworkFacadeImpl.INSTANCE;
+
+    @Test
+    public void testCommitIdleTimeout() throws Exception {
+        assertServer(new TestLineTcpReceiverConfiguration() {
+            @Override
+            public long getCommitIdleTimeout() {
+                return 10;
+            }
+        }, engine -> {
+            long fd = connect();
+            try {
+                send(fd, "weather,location=north temperature=10.5 100000000\n" +
+                        "weather,location=south temperature=21.0 200000000\n");
+                // connection stays open, rows are committed once table stops receiving rows
+                assertTable(engine, "weather", "location\ttemperature\ttimestamp\n" +
+                        "north\t10.500000000000\t1970-01-01T00:01:40.000000Z\n" +
+                        "south\t21.000000000000\t1970-01-01T00:03:20.000000Z\n", 2);
+            } finally {
+                NF.close(fd);
+            }
+        });
+    }
+
+    @Test
+    public void testCommitOnDisconnect() throws Exception {
+        assertServer(new TestLineTcpReceiverConfiguration(), engine -> {
+            long fd = connect();
+            try {
+                // lines are split across sends and the last line is not terminated
+                send(fd, "weather,location=north temperature=10.5 1000");
+                send(fd, "00000\nweather,location=south tempera");
+                send(fd, "ture=21.0 200000000\r\nweather,location=east temperature=-3.25 300000000");
+            } finally {
+                NF.close(fd);
+            }
+            assertTable(engine, "weather", "location\ttemperature\ttimestamp\n" +
+                    "north\t10.500000000000\t1970-01-01T00:01:40.000000Z\n" +
+                    "south\t21.000000000000\t1970-01-01T00:03:20.000000Z\n" +
+                    "east\t-3.250000000000\t1970-01-01T00:05:00.000000Z\n", 3);
+        });
+    }
+
+    @Test
+    public void testLineDoesNotFitBuffer() throws Exception {
+        assertServer(new TestLineTcpReceiverConfiguration() {
+            @Override
+            public int getRecvBufferSize() {
+                return 64;
+            }
+        }, engine -> {
+            long fd = connect();
+            try {
+                send(fd, "weather,location=north temperature=10.5 100000000\n" +
+                        "weather,location=south,description=this_line_is_longer_than_receive_buffer temperature=21.0 200000000\n");
+                // server drops connection, lines received before long one are committed
+                assertTable(engine, "weather", "location\ttemperature\ttimestamp\n" +
+                        "north\t10.500000000000\t1970-01-01T00:01:40.000000Z\n", 1);
+            } finally {
+                NF.close(fd);
+            }
+        });
+    }
+
+    @Test
+    public void testMaxUncommittedLatency() throws Exception {
+        assertServer(new TestLineTcpReceiverConfiguration() {
+            @Override
+            public long getMaxUncommittedLatency() {
+                return 10;
+            }
+        }, engine -> {
+            long fd = connect();
+            try {
+                send(fd, "weather,location=north temperature=10.5 100000000\n" +
+                        "weather,location=south temperature=21.0 200000000\n");
+                // connection stays open, rows are committed by latency limit
+                assertTable(engine, "weather", "location\ttemperature\ttimestamp\n" +
+                        "north\t10.500000000000\t1970-01-01T00:01:40.000000Z\n" +
+                        "south\t21.000000000000\t1970-01-01T00:03:20.000000Z\n", 2);
+            } finally {
+                NF.close(fd);
+            }
+        });
+    }
+
+    @Test
+    public void testMaxUncommittedRows() throws Exception {
+        assertServer(new TestLineTcpReceiverConfiguration() {
+            @Override
+            public int getMaxUncommittedRows() {
+                return 3;
+            }
+        }, engine -> {
+            long fd = connect();
+            try {
+                send(fd, "weather,location=north temperature=10.5 100000000\n" +
+                        "weather,location=south temperature=21.0 200000000\n");
+                send(fd, "weather,location=east temperature=-3.25 300000000\n");
+                // connection stays open, rows are committed by row threshold
+                assertTable(engine, "weather", "location\ttemperature\ttimestamp\n" +
+                        "north\t10.500000000000\t1970-01-01T00:01:40.000000Z\n" +
+                        "south\t21.000000000000\t1970-01-01T00:03:20.000000Z\n" +
+                        "east\t-3.250000000000\t1970-01-01T00:05:00.000000Z\n", 3);
+            } finally {
+                NF.close(fd);
+            }
+        });
+    }
+
+    @Test
+    public void testSeveralConnections() throws Exception {
+        assertServer(new TestLineTcpReceiverConfiguration() {
+            @Override
+            public int getMaxUncommittedRows() {
+                return 1;
+            }
+        }, engine -> {
+            long fd1 = connect();
+            long fd2 = connect();
+            try {
+                send(fd1, "weather,location=north temperature=10.5 100000000\nweather,location=so");
+                send(fd2, "weather,location=east temperature=-3.25 300000000\n");
+                // both connections share the writer, wait for "east" before completing
+                // the partial line, otherwise the order rows are appended in is a race
+                assertTableSize(engine, "weather", 2);
+                send(fd1, "uth temperature=21.0 400000000\n");
+            } finally {
+                NF.close(fd1);
+                NF.close(fd2);
+            }
+            assertTable(engine, "weather", "location\ttemperature\ttimestamp\n" +
+                    "north\t10.500000000000\t1970-01-01T00:01:40.000000Z\n" +
+                    "east\t-3.250000000000\t1970-01-01T00:05:00.000000Z\n" +
+                    "south\t21.000000000000\t1970-01-01T00:06:40.000000Z\n", 3);
+        });
+    }
+
+    @Test
+    public void testWriterJobs() throws Exception {
+        assertServer(new TestLineTcpReceiverConfiguration() {
+            @Override
+            public long getMaxUncommittedLatency() {
+                return 10;
+            }
+
+            @Override
+            public int getWriterCount() {
+                return 3;
+            }
+        }, 2, engine -> {
+            final int tableCount = 6;
+            final int rowCount = 20;
+            final StringSink[] expected = new StringSink[tableCount];
+            for (int i = 0; i < tableCount; i++) {
+                expected[i] = new StringSink();
+                expected[i].put("location\ttemperature\ttimestamp\n");
+            }
+
+            long fd1 = connect();
+            long fd2 = connect();
+            try {
+                final StringSink lines1 = new StringSink();
+                final StringSink lines2 = new StringSink();
+                for (int r = 0; r < rowCount; r++) {
+                    lines1.clear();
+                    lines2.clear();
+                    for (int t = 0; t < tableCount; t++) {
+                        // order is kept for rows of the same connection only
+                        (t % 2 == 0 ? lines1 : lines2).put("weather").put(t).put(",location=l").put(r).put(" temperature=").put(t).put(".5 ").put(r + 1).put("000000\n");
+                        expected[t].put('l').put(r).put('\t').put(t).put(".500000000000\t1970-01-01T00:00:").put(r + 1 < 10 ? "0" : "").put(r + 1).put(".000000Z\n");
+                    }
+                    send(fd1, lines1.toString());
+                    send(fd2, lines2.toString());
+                }
+            } finally {
+                NF.close(fd1);
+                NF.close(fd2);
+            }
+
+            for (int t = 0; t < tableCount; t++) {
+                assertTable(engine, "weather" + t, expected[t], rowCount);
+            }
+        });
+    }
+
+    @Test
+    public void testWriterQueueFull() throws Exception {
+        assertServer(new TestLineTcpReceiverConfiguration() {
+            @Override
+            public long getMaxUncommittedLatency() {
+                return 10;
+            }
+
+            @Override
+            public int getRecvBufferSize() {
+                return 256;
+            }
+
+            @Override
+            public int getWriterCount() {
+                return 2;
+            }
+
+            @Override
+            public int getWriterQueueCapacity() {
+                return 2;
+            }
+        }, engine -> {
+            final int tableCount = 4;
+            final int rowCount = 500;
+            final StringSink lines = new StringSink();
+            for (int r = 0; r < rowCount; r++) {
+                lines.put("weather").put(r % tableCount).put(" temperature=").put(r).put(".0 ").put(r + 1).put("000000\n");
+            }
+
+            long fd = connect();
+            try {
+                send(fd, lines.toString());
+            } finally {
+                NF.close(fd);
+            }
+
+            for (int t = 0; t < tableCount; t++) {
+                assertTableSize(engine, "weather" + t, rowCount / tableCount);
+            }
+        });
+    }
+
+    private static void assertTable(CairoEngine engine, String tableName, CharSequence expected, int expectedSize) {
+        final long deadline = System.currentTimeMillis() + 10_000;
+        while (true) {
+            try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, tableName)) {
+                if (reader.size() >= expectedSize) {
+                    sink.clear();
+                    printer.print(reader.getCursor(), reader.getMetadata(), true);
+                    TestUtils.assertEquals(expected, sink);
+                    return;
+                }
+            } catch (CairoException ignore) {
+                // table is yet to be created
+            }
+            Assert.assertTrue("timed out waiting for rows", System.currentTimeMillis() < deadline);
+            LockSupport.parkNanos(1_000_000);
+        }
+    }
+
+    private static void assertTableSize(CairoEngine engine, String tableName, int expectedSize) {
+        final long deadline = System.currentTimeMillis() + 10_000;
+        while (true) {
+            // reader is not pooled, pooled reader opened before the first commit would be
+            // reloaded by assertTable()
+            try (TableReader reader = new TableReader(engine.getConfiguration(), tableName)) {
+                if (reader.size() >= expectedSize) {
+                    Assert.assertEquals(expectedSize, reader.size());
+                    return;
+                }
+            } catch (CairoException ignore) {
+                // table is yet to be created
+            }
+            Assert.assertTrue("timed out waiting for rows", System.currentTimeMillis() < deadline);
+            LockSupport.parkNanos(1_000_000);
+        }
+    }
+
+    private static long connect() {
+        long fd = NF.socketTcp(true);
+        long sockAddress = NF.sockaddr(Net.parseIPv4("127.0.0.1"), PORT);
+        try {
+            Assert.assertEquals(0, NF.connect(fd, sockAddress));
+        } finally {
+            NF.freeSockAddr(sockAddress);
+        }
+        return fd;
+    }
+
+    private static void send(long fd, String lines) {
+        final int len = lines.length();
+        final long buf = Unsafe.malloc(len);
+        try {
+            Chars.strcpy(lines, len, buf);
+            Assert.assertEquals(len, NF.send(fd, buf, len));
+            // let server receive this chunk separately
+            LockSupport.parkNanos(10_000_000);
+        } finally {
+            Unsafe.free(buf, len);
+        }
+    }
+
+    private void assertServer(LineTcpReceiverConfiguration receiverConfiguration, ServerCode code) throws Exception {
+        assertServer(receiverConfiguration, 1, code);
+    }
+
+    private void assertServer(LineTcpReceiverConfiguration receiverConfiguration, int workerCount, ServerCode code) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final WorkerPool workerPool = new WorkerPool(new WorkerPoolConfiguration() {
+                @Override
+                public int[] getWorkerAffinity() {
+                    final int[] affinity = new int[workerCount];
+                    Arrays.fill(affinity, -1);
+                    return affinity;
+                }
+
+                @Override
+                public int getWorkerCount() {
+                    return workerCount;
+                }
+
+                @Override
+                public boolean haltOnError() {
+                    return false;
+                }
+            });
+
+            try (
+                    CairoEngine engine = new CairoEngine(new DefaultCairoConfiguration(root), null);
+                    LineTcpServer ignored = new LineTcpServer(receiverConfiguration, engine, workerPool)
+            ) {
+                workerPool.start(LOG);
+                try {
+                    code.run(engine);
+                } finally {
+                    workerPool.halt();
+                }
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface ServerCode {
+        void run(CairoEngine engine) throws Exception;
+    }
+
+    private static class TestLineTcpReceiverConfiguration extends DefaultLineTcpReceiverConfiguration {
+        private final IODispatcherConfiguration dispatcherConfiguration = new DefaultIODispatcherConfiguration() {
+            @Override
+            public int getBindPort() {
+                return PORT;
+            }
+        };
+
+        @Override
+        public long getCommitIdleTimeout() {
+            return Long.MAX_VALUE / 2;
+        }
+
+        @Override
+        public IODispatcherConfiguration getDispatcherConfiguration() {
+            return dispatcherConfiguration;
+        }
+
+        @Override
+        public long getMaxUncommittedLatency() {
+            return Long.MAX_VALUE / 2;
+        }
+
+        @Override
+        public int getMaxUncommittedRows() {
+            return Integer.MAX_VALUE;
+        }
+    }
+}
@@ -37,6 +37,8 @@ import io.questdb.std.Misc;
 import io.questdb.std.ObjHashSet;
 import io.questdb.std.Os;
 import io.questdb.std.str.StringSink;
+import io.questdb.std.time.MillisecondClock;
+import io.questdb.std.time.MillisecondClockImpl;
 import io.questdb.test.tools.TestUtils;
 import org.junit.Assert;
 import org.junit.Test;
@@ -217,7 +219,7 @@ public class LinuxLineProtoReceiverTest extends AbstractCairoTest {
     private void assertFrequentCommit(ReceiverFactory factory) throws Exception {
         LineUdpReceiverConfiguration configuration = new TestLineUdpReceiverConfiguration() {
             @Override
-            public int getCommitRate() {
+            public int getMaxUncommittedRows() {
                 return 0;
             }
         };
@@ -308,8 +310,8 @@ public class LinuxLineProtoReceiverTest extends AbstractCairoTest {
         }
 
         @Override
-        public int getCommitRate() {
-            return 1024 * 1024;
+        public long getCommitIdleTimeout() {
+            return 100;
         }
 
         @Override
@@ -317,6 +319,21 @@ public class LinuxLineProtoReceiverTest extends AbstractCairoTest {
             return Net.parseIPv4("224.1.1.1");
         }
 
+        @Override
+        public long getMaxUncommittedLatency() {
+            return 1000;
+        }
+
+        @Override
+        public int getMaxUncommittedRows() {
+            return 1024 * 1024;
+        }
+
+        @Override
+        public MillisecondClock getMillisecondClock() {
+            return MillisecondClockImpl.INSTANCE;
+        }
+
         @Override
         public int getMsgBufferSize() {
             return 2048;
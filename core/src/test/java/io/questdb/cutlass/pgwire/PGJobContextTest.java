@@ -24,6 +24,7 @@
 
 package io.questdb.cutlass.pgwire;
 
+import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cutlass.NetUtils;
 import io.questdb.griffin.AbstractGriffinTest;
 import io.questdb.griffin.engine.functions.rnd.SharedRandom;
@@ -31,6 +32,7 @@ import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.network.*;
 import io.questdb.std.Chars;
+import io.questdb.std.ConcurrentAssociativeCache;
 import io.questdb.std.Numbers;
 import io.questdb.std.Rnd;
 import io.questdb.std.str.CharSink;
@@ -105,93 +107,93 @@ public class PGJobContextTest extends AbstractGriffinTest {
                 ">70000000076f6800\n" +
                 "<520000000800000000530000001154696d655a6f6e6500474d5400530000001d6170706c69636174696f6e5f6e616d6500517565737444420053000000187365727665725f76657273696f6e0031312e33005300000019696e74656765725f6461746574696d6573006f6e005a0000000549\n" +
                 ">5000000022005345542065787472615f666c6f61745f646967697473203d2033000000420000000c0000000000000000450000000900000000015300000004\n" +
-                "<31000000045a0000000549\n" +
+                "<31000000043200000004430000001f5345542065787472615f666c6f61745f646967697473203d2033005a0000000549\n" +
                 ">500000003700534554206170706c69636174696f6e5f6e616d65203d2027506f737467726553514c204a4442432044726976657227000000420000000c0000000000000000450000000900000000015300000004\n" +
-                "<31000000045a0000000549\n" +
+                "<310000000432000000044300000034534554206170706c69636174696f6e5f6e616d65203d2027506f737467726553514c204a4442432044726976657227005a0000000549\n" +
                 ">500000002a0073656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
-                "<54000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
+                "<3100000004320000000454000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
                 "<44000000150003000000013100000001320000000133\n" +
                 "<430000002773656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129005a0000000549\n" +
                 ">50000000260073656c65637420312066726f6d206c6f6e675f73657175656e6365283229000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
-                "<540000001a00013100000000000000000000170000000000000000\n" +
+                "<31000000043200000004540000001a00013100000000000000000000170000000000000000\n" +
                 "<440000000b00010000000131440000000b00010000000131\n" +
                 "<430000002373656c65637420312066726f6d206c6f6e675f73657175656e6365283229005a0000000549\n" +
                 ">500000002a0073656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
-                "<54000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
+                "<3100000004320000000454000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
                 "<44000000150003000000013100000001320000000133\n" +
                 "<430000002773656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129005a0000000549\n" +
                 ">50000000260073656c65637420312066726f6d206c6f6e675f73657175656e6365283229000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
-                "<540000001a00013100000000000000000000170000000000000000\n" +
+                "<31000000043200000004540000001a00013100000000000000000000170000000000000000\n" +
                 "<440000000b00010000000131440000000b00010000000131\n" +
                 "<430000002373656c65637420312066726f6d206c6f6e675f73657175656e6365283229005a0000000549\n" +
                 ">500000002a0073656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
-                "<54000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
+                "<3100000004320000000454000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
                 "<44000000150003000000013100000001320000000133\n" +
                 "<430000002773656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129005a0000000549\n" +
                 ">50000000260073656c65637420312066726f6d206c6f6e675f73657175656e6365283229000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
-                "<540000001a00013100000000000000000000170000000000000000\n" +
+                "<31000000043200000004540000001a00013100000000000000000000170000000000000000\n" +
                 "<440000000b00010000000131440000000b00010000000131\n" +
                 "<430000002373656c65637420312066726f6d206c6f6e675f73657175656e6365283229005a0000000549\n" +
                 ">500000002a0073656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
-                "<54000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
+                "<3100000004320000000454000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
                 "<44000000150003000000013100000001320000000133\n" +
                 "<430000002773656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129005a0000000549\n" +
                 ">50000000260073656c65637420312066726f6d206c6f6e675f73657175656e6365283229000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
-                "<540000001a00013100000000000000000000170000000000000000\n" +
+                "<31000000043200000004540000001a00013100000000000000000000170000000000000000\n" +
                 "<440000000b00010000000131440000000b00010000000131\n" +
                 "<430000002373656c65637420312066726f6d206c6f6e675f73657175656e6365283229005a0000000549\n" +
                 ">500000002d535f310073656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129000000420000000f00535f310000000000000044000000065000450000000900000000005300000004\n" +
-                "<54000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
+                "<3100000004320000000454000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
                 "<44000000150003000000013100000001320000000133\n" +
                 "<430000002773656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129005a0000000549\n" +
                 ">430000000953535f310050000000260073656c65637420312066726f6d206c6f6e675f73657175656e6365283229000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
                 "<3300000004\n" +
-                "<540000001a00013100000000000000000000170000000000000000\n" +
+                "<31000000043200000004540000001a00013100000000000000000000170000000000000000\n" +
                 "<440000000b00010000000131440000000b00010000000131\n" +
                 "<430000002373656c65637420312066726f6d206c6f6e675f73657175656e6365283229005a0000000549\n" +
                 ">500000002d535f320073656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129000000420000000f00535f320000000000000044000000065000450000000900000000005300000004\n" +
-                "<54000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
+                "<3100000004320000000454000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
                 "<44000000150003000000013100000001320000000133\n" +
                 "<430000002773656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129005a0000000549\n" +
                 ">430000000953535f320050000000260073656c65637420312066726f6d206c6f6e675f73657175656e6365283229000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
                 "<3300000004\n" +
-                "<540000001a00013100000000000000000000170000000000000000\n" +
+                "<31000000043200000004540000001a00013100000000000000000000170000000000000000\n" +
                 "<440000000b00010000000131440000000b00010000000131\n" +
                 "<430000002373656c65637420312066726f6d206c6f6e675f73657175656e6365283229005a0000000549\n" +
                 ">500000002d535f330073656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129000000420000000f00535f330000000000000044000000065000450000000900000000005300000004\n" +
-                "<54000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
+                "<3100000004320000000454000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
                 "<44000000150003000000013100000001320000000133\n" +
                 "<430000002773656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129005a0000000549\n" +
                 ">430000000953535f330050000000260073656c65637420312066726f6d206c6f6e675f73657175656e6365283229000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
                 "<3300000004\n" +
-                "<540000001a00013100000000000000000000170000000000000000\n" +
+                "<31000000043200000004540000001a00013100000000000000000000170000000000000000\n" +
                 "<440000000b00010000000131440000000b00010000000131\n" +
                 "<430000002373656c65637420312066726f6d206c6f6e675f73657175656e6365283229005a0000000549\n" +
                 ">500000002d535f340073656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129000000420000000f00535f340000000000000044000000065000450000000900000000005300000004\n" +
-                "<54000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
+                "<3100000004320000000454000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
                 "<44000000150003000000013100000001320000000133\n" +
                 "<430000002773656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129005a0000000549\n" +
                 ">430000000953535f340050000000260073656c65637420312066726f6d206c6f6e675f73657175656e6365283229000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
                 "<3300000004\n" +
-                "<540000001a00013100000000000000000000170000000000000000\n" +
+                "<31000000043200000004540000001a00013100000000000000000000170000000000000000\n" +
                 "<440000000b00010000000131440000000b00010000000131\n" +
                 "<430000002373656c65637420312066726f6d206c6f6e675f73657175656e6365283229005a0000000549\n" +
                 ">500000002d535f350073656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129000000420000000f00535f350000000000000044000000065000450000000900000000005300000004\n" +
-                "<54000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
+                "<3100000004320000000454000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
                 "<44000000150003000000013100000001320000000133\n" +
                 "<430000002773656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129005a0000000549\n" +
                 ">430000000953535f350050000000260073656c65637420312066726f6d206c6f6e675f73657175656e6365283229000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
                 "<3300000004\n" +
-                "<540000001a00013100000000000000000000170000000000000000\n" +
+                "<31000000043200000004540000001a00013100000000000000000000170000000000000000\n" +
                 "<440000000b00010000000131440000000b00010000000131\n" +
                 "<430000002373656c65637420312066726f6d206c6f6e675f73657175656e6365283229005a0000000549\n" +
                 ">500000002d535f360073656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129000000420000000f00535f360000000000000044000000065000450000000900000000005300000004\n" +
-                "<54000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
+                "<3100000004320000000454000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
                 "<44000000150003000000013100000001320000000133\n" +
                 "<430000002773656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129005a0000000549\n" +
                 ">430000000953535f360050000000260073656c65637420312066726f6d206c6f6e675f73657175656e6365283229000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
                 "<3300000004\n" +
-                "<540000001a00013100000000000000000000170000000000000000\n" +
+                "<31000000043200000004540000001a00013100000000000000000000170000000000000000\n" +
                 "<440000000b00010000000131440000000b00010000000131\n" +
                 "<430000002373656c65637420312066726f6d206c6f6e675f73657175656e6365283229005a0000000549\n" +
                 ">5800000004\n";
@@ -213,6 +215,52 @@ public class PGJobContextTest extends AbstractGriffinTest {
         );
     }
 
+    @Test
+    public void testAlterTableInvalidatesCachedQuery() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final CountDownLatch haltLatch = new CountDownLatch(1);
+            final AtomicBoolean running = new AtomicBoolean(true);
+            try {
+                startBasicServer(
+                        NetworkFacadeImpl.INSTANCE,
+                        new DefaultPGWireConfiguration(),
+                        haltLatch,
+                        running
+                );
+
+                Properties properties = new Properties();
+                properties.setProperty("user", "admin");
+                properties.setProperty("password", "quest");
+                properties.setProperty("sslmode", "disable");
+
+                final Connection connection = DriverManager.getConnection("jdbc:postgresql://127.0.0.1:9120/nabu_app", properties);
+                connection.createStatement().execute("create table x as (select x a from long_sequence(3))");
+                for (int i = 0; i < 2; i++) {
+                    try (ResultSet rs = connection.createStatement().executeQuery("select * from x")) {
+                        Assert.assertEquals(1, rs.getMetaData().getColumnCount());
+                    }
+                }
+                connection.createStatement().execute("alter table x add column b int");
+                // cached factory of the query still describes single column
+                try (ResultSet rs = connection.createStatement().executeQuery("select * from x")) {
+                    Assert.assertEquals(2, rs.getMetaData().getColumnCount());
+                    int count = 0;
+                    while (rs.next()) {
+                        count++;
+                        Assert.assertEquals(count, rs.getLong(1));
+                    }
+                    Assert.assertEquals(3, count);
+                }
+                connection.close();
+            } finally {
+                running.set(false);
+                haltLatch.await();
+            }
+            engine.releaseAllWriters();
+            engine.releaseAllReaders();
+        });
+    }
+
     @Test
     public void testBadMessageLength() throws Exception {
         final String script =
@@ -344,6 +392,50 @@ public class PGJobContextTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testFetchSize() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final CountDownLatch haltLatch = new CountDownLatch(1);
+            final AtomicBoolean running = new AtomicBoolean(true);
+            try {
+                startBasicServer(
+                        NetworkFacadeImpl.INSTANCE,
+                        new DefaultPGWireConfiguration(),
+                        haltLatch,
+                        running
+                );
+
+                Properties properties = new Properties();
+                properties.setProperty("user", "admin");
+                properties.setProperty("password", "quest");
+                properties.setProperty("sslmode", "disable");
+
+                final Connection connection = DriverManager.getConnection("jdbc:postgresql://127.0.0.1:9120/nabu_app", properties);
+                // driver uses cursor based fetch only when auto-commit is off
+                connection.setAutoCommit(false);
+                PreparedStatement statement = connection.prepareStatement("select x, x * 2 y from long_sequence(1000)");
+                statement.setFetchSize(64);
+                for (int i = 0; i < 3; i++) {
+                    ResultSet rs = statement.executeQuery();
+                    long expected = 0;
+                    while (rs.next()) {
+                        expected++;
+                        Assert.assertEquals(expected, rs.getLong(1));
+                        Assert.assertEquals(expected * 2, rs.getLong(2));
+                    }
+                    Assert.assertEquals(1000, expected);
+                    rs.close();
+                }
+                connection.commit();
+                statement.close();
+                connection.close();
+            } finally {
+                running.set(false);
+                haltLatch.await();
+            }
+        });
+    }
+
     @Test
     public void testHexFragmentedSend() throws Exception {
         // this is a HEX encoded bytes of the same script as 'testSimple' sends using postgres jdbc driver
@@ -352,11 +444,11 @@ public class PGJobContextTest extends AbstractGriffinTest {
                 ">70000000076f6800\n" +
                 "<520000000800000000530000001154696d655a6f6e6500474d5400530000001d6170706c69636174696f6e5f6e616d6500517565737444420053000000187365727665725f76657273696f6e0031312e33005300000019696e74656765725f6461746574696d6573006f6e005a0000000549\n" +
                 ">5000000022005345542065787472615f666c6f61745f646967697473203d2033000000420000000c0000000000000000450000000900000000015300000004\n" +
-                "<31000000045a0000000549\n" +
+                "<31000000043200000004430000001f5345542065787472615f666c6f61745f646967697473203d2033005a0000000549\n" +
                 ">500000003700534554206170706c69636174696f6e5f6e616d65203d2027506f737467726553514c204a4442432044726976657227000000420000000c0000000000000000450000000900000000015300000004\n" +
-                "<31000000045a0000000549\n" +
+                "<310000000432000000044300000034534554206170706c69636174696f6e5f6e616d65203d2027506f737467726553514c204a4442432044726976657227005a0000000549\n" +
                 ">50000001a20073656c65637420726e645f73747228342c342c342920732c20726e645f696e7428302c203235362c20342920692c20726e645f646f75626c6528342920642c2074696d657374616d705f73657175656e636528746f5f74696d657374616d702830292c31303030302920742c20726e645f666c6f617428342920662c20726e645f73686f72742829205f73686f72742c20726e645f6c6f6e6728302c2031303030303030302c203529206c2c20726e645f74696d657374616d7028746f5f74696d657374616d70282732303135272c277979797927292c746f5f74696d657374616d70282732303136272c277979797927292c3229207473322c20726e645f6279746528302c313237292062622c20726e645f626f6f6c65616e282920622c20726e645f73796d626f6c28342c342c342c32292c20726e645f6461746528746f5f64617465282732303135272c20277979797927292c20746f5f64617465282732303136272c20277979797927292c2032292c726e645f62696e2831302c32302c32292066726f6d206c6f6e675f73657175656e636528353029000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
-                "<5400000128000d730000000000000000000413000000000000000069000000000000000000001700000000000000006400000000000000000002bd000000000000000074000000000000000000045a00000000000000006600000000000000000002bc00000000000000005f73686f7274000000000000000000001500000000000000006c00000000000000000000140000000000000000747332000000000000000000045a00000000000000006262000000000000000000001500000000000000006200000000000000000000100000000000000000726e645f73796d626f6c00000000000000000004130000000000000000726e645f64617465000000000000000000045a0000000000000000726e645f62696e00000000000000000000110000000000000001\n" +
+                "<310000000432000000045400000128000d730000000000000000000413000000000000000069000000000000000000001700000000000000006400000000000000000002bd000000000000000074000000000000000000045a00000000000000006600000000000000000002bc00000000000000005f73686f7274000000000000000000001500000000000000006c00000000000000000000140000000000000000747332000000000000000000045a00000000000000006262000000000000000000001500000000000000006200000000000000000000100000000000000000726e645f73796d626f6c00000000000000000004130000000000000000726e645f64617465000000000000000000045a0000000000000000726e645f62696e00000000000000000000110000000000000001\n" +
                 "<4400000099000dffffffff00000002353700000005302e3632350000001a313937302d30312d30312030303a30303a30302e30303030303000000005302e343632000000052d313539330000000733343235323332ffffffff000000033132310000000166000000045045484e00000017323031352d30332d31372030343a32353a35322e3736350000000e19c49594365349b4597e3b08a11e44000000bb000d00000004585953420000000331343200000005302e3537390000001a313937302d30312d30312030303a30303a30302e30313030303000000005302e39363900000005323030383800000007313531373439300000001a323031352d30312d31372032303a34313a31392e343830363835000000033130300000000174000000045045484e00000017323031352d30362d32302030313a31303a35382e35393900000011795f8b812b934d1a8e78b5b91153d0fb6444000000b4000d000000044f5a5a560000000332313900000005302e3136340000001a313937302d30312d30312030303a30303a30302e30323030303000000005302e363539000000062d313233303300000007393438393530380000001a323031352d30382d31332031373a31303a31392e37353235323100000001360000000166ffffffff00000017323031352d30352d32302030313a34383a33372e3431380000000f2b4d5ff64690c3b3598ee5612f640e44000000a4000d000000044f4c595800000002333000000005302e3731330000001a313937302d30312d30312030303a30303a30302e30333030303000000005302e363535000000043636313000000007363530343432380000001a323031352d30382d30382030303a34323a32342e353435363339000000033132330000000166ffffffff00000017323031352d30312d30332031333a35333a30332e313635ffffffff440000009f000d000000045449514200000002343200000005302e3638310000001a313937302d30312d30312030303a30303a30302e30343030303000000005302e363236000000052d3136303500000007383831343038360000001a323031352d30372d32382031353a30383a35332e34363234393500000002323800000001740000000443505357ffffffff0000000e3ba6dc3b7d2be392fe6938e1779a44000000a2000d000000044c544f560000000331333700000005302e3736330000001a313937302d30312d30312030303a30303a30302e30353030303000000005302e3838320000000439303534ffffffff0000001a323031352d30342d32302030353a30393a30332e353830353734000000033130360000000166000000045045484e00000017323031352d30312d30392030363a35373a31372e353132ffffffff44000000a0000d000000045a494d4e00000003313235ffffffff0000001a313937302d30312d30312030303a30303a30302e303630303030ffffffff00000005313135323400000007383333353236310000001a323031352d31302d32362030323a31303a35302e363838333934000000033131310000000174000000045045484e00000017323031352d30382d32312031353a34363a33322e363234ffffffff4400000093000d000000044f504a4f0000000331363800000005302e3130350000001a313937302d30312d30312030303a30303a30302e30373030303000000005302e353335000000052d3539323000000007373038303730340000001a323031352d30372d31312030393a31353a33382e3334323731370000000331303300000001660000000456544a57ffffffffffffffff44000000a9000d00000004474c554f0000000331343500000005302e3533390000001a313937302d30312d30312030303a30303a30302e30383030303000000005302e37363700000005313432343200000007323439393932320000001a323031352d31312d30322030393a30313a33312e3331323830340000000238340000000166000000045045484e00000017323031352d31312d31342031373a33373a33362e303433ffffffff44000000b6000d000000045a5651450000000331303300000005302e3637330000001a313937302d30312d30312030303a30303a30302e303930303030ffffffff00000005313337323700000007373837353834360000001a323031352d31322d31322031333a31363a32362e3133343536320000000232320000000174000000045045484e00000017323031352d30312d32302030343a35303a33342e30393800000012143380c9eba3677a1a79e435e43adc5c65ff440000009a000d000000044c4947590000000331393900000005302e3238340000001a313937302d30312d30312030303a30303a30302e313030303030ffffffff00000005333034323600000007333231353536320000001a323031352d30382d32312031343a35353a30372e30353537323200000002313100000001660000000456544a57ffffffff0000000dff703ac78ab314cd470b0c3912440000009a000d000000044d514e5400000002343300000005302e3538360000001a313937302d30312d30312030303a30303a30302e31313030303000000005302e333335000000053237303139ffffffffffffffff0000000232370000000174000000045045484e00000017323031352d30372d31322031323a35393a34372e3636350000001326fb2e42faf56e8f80e354b807b13257ff9aef44000000bb000d00000004575743430000000332313300000005302e3736370000001a313937302d30312d30312030303a30303a30302e31323030303000000005302e35383000000005313336343000000007343132313932330000001a323031352d30382d30362030323a32373a33302e3436393736320000000237330000000166000000045045484e00000017323031352d30342d33302030383a31383a31302e3435330000001271a7d5af11963708dd98ef54882aa2ade7d444000000a2000d00000004564647500000000331323000000005302e3834300000001a313937302d30312d30312030303a30303a30302e31333030303000000005302e373733000000043732323300000007373234313432330000001a323031352d31322d31382030373a33323a31382e34353630323500000002343300000001660000000456544a57ffffffff00000011244e44a80dfe27ec53135db215e7b8356744000000a9000d00000004524d44470000000331333400000005302e3131300000001a313937302d30312d30312030303a30303a30302e31343030303000000005302e30343300000005323132323700000007373135353730380000001a323031352d30372d30332030343a31323a34352e3737343238310000000234320000000174000000044350535700000017323031352d30322d32342031323a31303a34332e313939ffffffff44000000a5000d0000000457464f5100000003323535ffffffff0000001a313937302d30312d30312030303a30303a30302e31353030303000000005302e31313600000005333135363900000007363638383237370000001a323031352d30352d31392030333a33303a34352e373739393939000000033132360000000174000000045045484e00000017323031352d31322d30392030393a35373a31372e303738ffffffff440000008b000d000000044d58444b00000002353600000005312e3030300000001a313937302d30312d30312030303a30303a30302e31363030303000000005302e353233000000062d33323337320000000736383834313332ffffffff0000000235380000000166ffffffff00000017323031352d30312d32302030363a31383a31382e353833ffffffff44000000ae000d00000004584d4b4a0000000331333900000005302e3834310000001a313937302d30312d30312030303a30303a30302e31373030303000000005302e333036000000053235383536ffffffff0000001a323031352d30352d31382030333a35303a32322e373331343337000000013200000001740000000456544a5700000017323031352d30362d32352031303a34353a30312e3031340000000d007cfb0119caf2bf845a6f383544000000af000d0000000456494844ffffffffffffffff0000001a313937302d30312d30312030303a30303a30302e31383030303000000005302e35353000000005323232383000000007393130393834320000001a323031352d30312d32352031333a35313a33382e3237303538330000000239340000000166000000044350535700000017323031352d31302d32372030323a35323a31392e3933350000000e2d16f389a38364ded6fdc45bc4e944000000b0000d0000000457504e58ffffffff00000005302e3934370000001a313937302d30312d30312030303a30303a30302e31393030303000000005302e343135000000062d3137393333000000063637343236310000001a323031352d30332d30342031353a34333a31352e3231333638360000000234330000000174000000044859525800000017323031352d31322d31382032313a32383a32352e3332350000000ab34c0e8ff10cc560b7d144000000b0000d0000000459504f5600000002333600000005302e3637340000001a313937302d30312d30312030303a30303a30302e32303030303000000005302e303331000000052d3538383800000007313337353432330000001a323031352d31322d31302032303a35303a33352e38363636313400000001330000000174ffffffff00000017323031352d30372d32332032303a31373a30342e3233360000000dd4abbe30fa8dac3d98a0ad9a5d44000000b9000d000000044e55484effffffff00000005302e3639340000001a313937302d30312d30312030303a30303a30302e32313030303000000005302e333339000000062d323532323600000007333532343734380000001a323031352d30352d30372030343a30373a31382e31353239363800000002333900000001740000000456544a5700000017323031352d30342d30342031353a32333a33342e31333000000012b8bef8a146872892a39be3cbc2648ab035d8440000008e000d00000004424f53450000000332343000000005302e3036300000001a313937302d30312d30312030303a30303a30302e32323030303000000005302e33373900000005323339303400000007393036393333390000001a323031352d30332d32312030333a34323a34322e3634333138360000000238340000000174ffffffffffffffffffffffff44000000b8000d00000004494e4b470000000331323400000005302e3836320000001a313937302d30312d30312030303a30303a30302e32333030303000000005302e343034000000062d333033383300000007373233333534320000001a323031352d30372d32312031363a34323a34372e3031323134380000000239390000000166ffffffff00000017323031352d30382d32372031373a32353a33352e3330380000001287fc9283fc88f3322770c801b0dcc93a5b7e44000000a4000d000000044655584300000002353200000005302e3734330000001a313937302d30312d30312030303a30303a30302e323430303030ffffffff000000062d313437323900000007313034323036340000001a323031352d30382d32312030323a31303a35382e3934393637340000000232380000000174000000044350535700000017323031352d30382d32392032303a31353a35312e383335ffffffff44000000b1000d00000004554e595100000002373100000005302e3434320000001a313937302d30312d30312030303a30303a30302e32353030303000000005302e353339000000062d3232363131ffffffff0000001a323031352d31322d32332031383a34313a34322e3331393835390000000239380000000174000000045045484e00000017323031352d30312d32362030303a35353a35302e3230320000000f28ed9799d877333fb267da984747bf44000000a3000d000000044b424d51ffffffff00000005302e3238300000001a313937302d30312d30312030303a30303a30302e323630303030ffffffff000000053132323430ffffffff0000001a323031352d30382d31362030313a30323a35352e3736363632320000000232310000000166ffffffff00000017323031352d30352d31392030303a34373a31382e3639380000000d6ade4604d381e7a21622353b1c4400000091000d000000044a534f4c00000003323433ffffffff0000001a313937302d30312d30312030303a30303a30302e32373030303000000005302e303638000000062d3137343638ffffffffffffffff0000000232300000000174ffffffff00000017323031352d30362d31392031303a33383a35342e343833000000113de02d0486e7ca29980769ca5bd6cf0969440000007f000d00000004484e535300000003313530ffffffff0000001a313937302d30312d30312030303a30303a30302e32383030303000000005302e3134380000000531343834310000000735393932343433ffffffff0000000232350000000166000000045045484effffffff0000000c14d6fcee032281b806c406af44000000b4000d00000004505a50420000000331303100000005302e3036320000001a313937302d30312d30312030303a30303a30302e323930303030ffffffff00000005313232333700000007393837383137390000001a323031352d30392d30332032323a31333a31382e38353234363500000002373900000001660000000456544a5700000017323031352d31322d31372031353a31323a35342e3935380000001012613a9aad982e7552ad62878845b99d44000000b6000d000000044f594e4e00000002323500000005302e3333390000001a313937302d30312d30312030303a30303a30302e33303030303000000005302e36323800000005323234313200000007343733363337380000001a323031352d31302d31302031323a31393a34322e353238323234000000033130360000000174000000044350535700000017323031352d30372d30312030303a32333a34392e3738390000000d54133fffb67ecd0427669489db4400000076000dffffffff0000000331313700000005302e3536340000001a313937302d30312d30312030303a30303a30302e333130303030ffffffff000000052d353630340000000736333533303138ffffffff0000000238340000000166ffffffffffffffff0000000b2bad2507db6244336e008e440000008b000d00000004485652490000000332333300000005302e3232340000001a313937302d30312d30312030303a30303a30302e33323030303000000005302e3432350000000531303436390000000731373135323133ffffffff0000000238360000000166ffffffff00000017323031352d30322d30322030353a34383a31372e333733ffffffff44000000a9000d000000044f59544f00000002393600000005302e3734310000001a313937302d30312d30312030303a30303a30302e33333030303000000005302e353238000000062d313232333900000007333439393632300000001a323031352d30322d30372032323a33353a30332e3231323236380000000231370000000166000000045045484e00000017323031352d30332d32392031323a35353a31312e363832ffffffff4400000098000d000000044c46435900000002363300000005302e3732320000001a313937302d30312d30312030303a30303a30302e333430303030ffffffff0000000532333334340000000739353233393832ffffffff000000033132330000000166000000044350535700000017323031352d30352d31382030343a33353a32372e3232380000000e05e5c04eccd6e37b34cd1535bba444000000b4000d0000000447484c580000000331343800000005302e3330360000001a313937302d30312d30312030303a30303a30302e33353030303000000005302e363336000000062d333134353700000007323332323333370000001a323031352d31302d32322031323a30363a30352e3534343730310000000239310000000174000000044859525800000017323031352d30352d32312030393a33333a31382e3135380000000a571d91723004b702cb0344000000a4000d000000045954535a00000003313233ffffffff0000001a313937302d30312d30312030303a30303a30302e33363030303000000005302e35313900000005323235333400000007343434363233360000001a323031352d30372d32372030373a32333a33372e3233333731310000000235330000000166000000044350535700000017323031352d30312d31332030343a33373a31302e303336ffffffff44000000a3000d0000000453574c5500000003323531ffffffff0000001a313937302d30312d30312030303a30303a30302e33373030303000000005302e313739000000043737333400000007343038323437350000001a323031352d31302d32312031383a32343a33342e3430303334350000000236390000000166000000045045484e00000017323031352d30342d30312031343a33333a34322e303035ffffffff44000000b1000d0000000454514a4c00000003323435ffffffff0000001a313937302d30312d30312030303a30303a30302e33383030303000000005302e3836350000000439353136000000063932393334300000001a323031352d30352d32382030343a31383a31382e36343035363700000002363900000001660000000456544a5700000017323031352d30362d31322032303a31323a32382e3838310000000f6c3e51d7ebb10771321faf404e8c47440000009e000d000000045245494a000000023934ffffffff0000001a313937302d30312d30312030303a30303a30302e33393030303000000005302e313330000000062d3239393234ffffffff0000001a323031352d30332d32302032323a31343a34362e323034373138000000033131330000000174000000044859525800000017323031352d31322d31392031333a35383a34312e383139ffffffff44000000b5000d000000044844485100000002393400000005302e3732330000001a313937302d30312d30312030303a30303a30302e34303030303000000005302e373330000000053139393730000000063635343133310000001a323031352d30312d31302032323a35363a30382e3438303435300000000238340000000174ffffffff00000017323031352d30332d30352031373a31343a34382e323735000000124f566b65a45338e9cdc1a7ee8675ada52d4944000000a9000d00000004554d455500000002343000000005302e3030380000001a313937302d30312d30312030303a30303a30302e34313030303000000005302e383035000000062d313136323300000007343539393836320000001a323031352d31312d32302030343a30323a34342e3333353934370000000237360000000166000000045045484e00000017323031352d30352d31372031373a33333a32302e393232ffffffff44000000ad000d00000004594a494800000003313834ffffffff0000001a313937302d30312d30312030303a30303a30302e34323030303000000005302e33383300000005313736313400000007333130313637310000001a323031352d30312d32382031323a30353a34362e363833303031000000033130350000000174ffffffff00000017323031352d31322d30372031393a32343a33362e3833380000000cec69cd73bb9bc595db6191ce4400000096000d000000044359584700000002323700000005302e3239320000001a313937302d30312d30312030303a30303a30302e34333030303000000005302e393533000000043339343400000006323439313635ffffffff0000000236370000000174ffffffff00000017323031352d30332d30322030383a31393a34342e3536360000000e0148153e0c7f3f8fe4b5ab34212944000000a6000d000000044d5254470000000331343300000005302e3032360000001a313937302d30312d30312030303a30303a30302e34343030303000000005302e393433000000062d323733323000000007313636373834320000001a323031352d30312d32342031393a35363a31352e3937333130390000000231310000000166ffffffff00000017323031352d30312d32342030373a31353a30322e373732ffffffff44000000b7000d00000004444f4e500000000332343600000005302e3635340000001a313937302d30312d30312030303a30303a30302e34353030303000000005302e35353600000005323734373700000007343136303031380000001a323031352d31322d31342030333a34303a30352e3931313833390000000232300000000174000000045045484e00000017323031352d31302d32392031343a33353a31302e3136370000000e079201f56aa131cdcbc2a2b48e9944000000b6000d00000004495158530000000332333200000005302e3233310000001a313937302d30312d30312030303a30303a30302e34363030303000000005302e303439000000062d313831313300000007343030353232380000001a323031352d30362d31312031333a30303a30372e32343831383800000001380000000174000000044350535700000017323031352d30382d31362031313a30393a32342e3331310000000dfa1f9224b1b8676508b7f8410044000000b1000dffffffff00000003313738ffffffff0000001a313937302d30312d30312030303a30303a30302e34373030303000000005302e393033000000062d313436323600000007323933343537300000001a323031352d30342d30342030383a35313a35342e3036383135340000000238380000000174ffffffff00000017323031352d30372d30312030343a33323a32332e30383300000014843625632b6361431c477db646babb98ca08bea444000000a4000d000000044855575a00000002393400000005302e3131300000001a313937302d30312d30312030303a30303a30302e34383030303000000005302e343230000000052d3337333600000007353638373531340000001a323031352d30312d30322031373a31383a30352e3632373633330000000237340000000166ffffffff00000017323031352d30332d32392030363a33393a31312e363432ffffffff440000009d000d000000045352454400000002363600000005302e3131330000001a313937302d30312d30312030303a30303a30302e34393030303000000005302e303630000000062d313035343300000007333636393337370000001a323031352d31302d32322030323a35333a30322e3338313335310000000237370000000174000000045045484effffffff0000000b7c3fd6883a93ef24a5e2bc\n" +
                 "<430000019f73656c65637420726e645f73747228342c342c342920732c20726e645f696e7428302c203235362c20342920692c20726e645f646f75626c6528342920642c2074696d657374616d705f73657175656e636528746f5f74696d657374616d702830292c31303030302920742c20726e645f666c6f617428342920662c20726e645f73686f72742829205f73686f72742c20726e645f6c6f6e6728302c2031303030303030302c203529206c2c20726e645f74696d657374616d7028746f5f74696d657374616d70282732303135272c277979797927292c746f5f74696d657374616d70282732303136272c277979797927292c3229207473322c20726e645f6279746528302c313237292062622c20726e645f626f6f6c65616e282920622c20726e645f73796d626f6c28342c342c342c32292c20726e645f6461746528746f5f64617465282732303135272c20277979797927292c20746f5f64617465282732303136272c20277979797927292c2032292c726e645f62696e2831302c32302c32292066726f6d206c6f6e675f73657175656e636528353029005a0000000549\n" +
                 ">5800000004\n";
@@ -482,113 +574,113 @@ public class PGJobContextTest extends AbstractGriffinTest {
                 ">70000000076f6800\n" +
                 "<520000000800000000530000001154696d655a6f6e6500474d5400530000001d6170706c69636174696f6e5f6e616d6500517565737444420053000000187365727665725f76657273696f6e0031312e33005300000019696e74656765725f6461746574696d6573006f6e005a0000000549\n" +
                 ">5000000022005345542065787472615f666c6f61745f646967697473203d2033000000420000000c0000000000000000450000000900000000015300000004\n" +
-                "<31000000045a0000000549\n" +
+                "<31000000043200000004430000001f5345542065787472615f666c6f61745f646967697473203d2033005a0000000549\n" +
                 ">500000003700534554206170706c69636174696f6e5f6e616d65203d2027506f737467726553514c204a4442432044726976657227000000420000000c0000000000000000450000000900000000015300000004\n" +
-                "<31000000045a0000000549\n" +
+                "<310000000432000000044300000034534554206170706c69636174696f6e5f6e616d65203d2027506f737467726553514c204a4442432044726976657227005a0000000549\n" +
                 ">500000002b0073656c65637420312c322c332066726f6d206c6f6e675f73657175656e636528353029000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
-                "<54000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
+                "<3100000004320000000454000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
                 "<4400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133\n" +
                 "<4400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133\n" +
                 "<44000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133\n" +
                 "<430000002873656c65637420312c322c332066726f6d206c6f6e675f73657175656e636528353029005a0000000549\n" +
                 ">50000000260073656c65637420312066726f6d206c6f6e675f73657175656e6365283229000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
-                "<540000001a00013100000000000000000000170000000000000000\n" +
+                "<31000000043200000004540000001a00013100000000000000000000170000000000000000\n" +
                 "<440000000b00010000000131440000000b00010000000131\n" +
                 "<430000002373656c65637420312066726f6d206c6f6e675f73657175656e6365283229005a0000000549\n" +
                 ">500000002b0073656c65637420312c322c332066726f6d206c6f6e675f73657175656e636528353029000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
-                "<54000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
+                "<3100000004320000000454000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
                 "<4400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133\n" +
                 "<4400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133\n" +
                 "<44000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133\n" +
                 "<430000002873656c65637420312c322c332066726f6d206c6f6e675f73657175656e636528353029005a0000000549\n" +
                 ">50000000260073656c65637420312066726f6d206c6f6e675f73657175656e6365283229000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
-                "<540000001a00013100000000000000000000170000000000000000\n" +
+                "<31000000043200000004540000001a00013100000000000000000000170000000000000000\n" +
                 "<440000000b00010000000131440000000b00010000000131\n" +
                 "<430000002373656c65637420312066726f6d206c6f6e675f73657175656e6365283229005a0000000549\n" +
                 ">500000002b0073656c65637420312c322c332066726f6d206c6f6e675f73657175656e636528353029000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
-                "<54000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
+                "<3100000004320000000454000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
                 "<4400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133\n" +
                 "<4400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133\n" +
                 "<44000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133\n" +
                 "<430000002873656c65637420312c322c332066726f6d206c6f6e675f73657175656e636528353029005a0000000549\n" +
                 ">50000000260073656c65637420312066726f6d206c6f6e675f73657175656e6365283229000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
-                "<540000001a00013100000000000000000000170000000000000000\n" +
+                "<31000000043200000004540000001a00013100000000000000000000170000000000000000\n" +
                 "<440000000b00010000000131440000000b00010000000131\n" +
                 "<430000002373656c65637420312066726f6d206c6f6e675f73657175656e6365283229005a0000000549\n" +
                 ">500000002b0073656c65637420312c322c332066726f6d206c6f6e675f73657175656e636528353029000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
-                "<54000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
+                "<3100000004320000000454000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
                 "<4400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133\n" +
                 "<4400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133\n" +
                 "<44000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133\n" +
                 "<430000002873656c65637420312c322c332066726f6d206c6f6e675f73657175656e636528353029005a0000000549\n" +
                 ">50000000260073656c65637420312066726f6d206c6f6e675f73657175656e6365283229000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
-                "<540000001a00013100000000000000000000170000000000000000\n" +
+                "<31000000043200000004540000001a00013100000000000000000000170000000000000000\n" +
                 "<440000000b00010000000131440000000b00010000000131\n" +
                 "<430000002373656c65637420312066726f6d206c6f6e675f73657175656e6365283229005a0000000549\n" +
                 ">500000002e535f310073656c65637420312c322c332066726f6d206c6f6e675f73657175656e636528353029000000420000000f00535f310000000000000044000000065000450000000900000000005300000004\n" +
-                "<54000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
+                "<3100000004320000000454000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
                 "<4400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133\n" +
                 "<4400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133\n" +
                 "<44000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133\n" +
                 "<430000002873656c65637420312c322c332066726f6d206c6f6e675f73657175656e636528353029005a0000000549\n" +
                 ">430000000953535f310050000000260073656c65637420312066726f6d206c6f6e675f73657175656e6365283229000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
                 "<3300000004\n" +
-                "<540000001a00013100000000000000000000170000000000000000\n" +
+                "<31000000043200000004540000001a00013100000000000000000000170000000000000000\n" +
                 "<440000000b00010000000131440000000b00010000000131\n" +
                 "<430000002373656c65637420312066726f6d206c6f6e675f73657175656e6365283229005a0000000549\n" +
                 ">500000002e535f320073656c65637420312c322c332066726f6d206c6f6e675f73657175656e636528353029000000420000000f00535f320000000000000044000000065000450000000900000000005300000004\n" +
-                "<54000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
+                "<3100000004320000000454000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
                 "<4400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133\n" +
                 "<4400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133\n" +
                 "<44000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133\n" +
                 "<430000002873656c65637420312c322c332066726f6d206c6f6e675f73657175656e636528353029005a0000000549\n" +
                 ">430000000953535f320050000000260073656c65637420312066726f6d206c6f6e675f73657175656e6365283229000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
                 "<3300000004\n" +
-                "<540000001a00013100000000000000000000170000000000000000\n" +
+                "<31000000043200000004540000001a00013100000000000000000000170000000000000000\n" +
                 "<440000000b00010000000131440000000b00010000000131\n" +
                 "<430000002373656c65637420312066726f6d206c6f6e675f73657175656e6365283229005a0000000549\n" +
                 ">500000002e535f330073656c65637420312c322c332066726f6d206c6f6e675f73657175656e636528353029000000420000000f00535f330000000000000044000000065000450000000900000000005300000004\n" +
-                "<54000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
+                "<3100000004320000000454000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
                 "<4400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133\n" +
                 "<4400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133\n" +
                 "<44000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133\n" +
                 "<430000002873656c65637420312c322c332066726f6d206c6f6e675f73657175656e636528353029005a0000000549\n" +
                 ">430000000953535f330050000000260073656c65637420312066726f6d206c6f6e675f73657175656e6365283229000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
                 "<3300000004\n" +
-                "<540000001a00013100000000000000000000170000000000000000\n" +
+                "<31000000043200000004540000001a00013100000000000000000000170000000000000000\n" +
                 "<440000000b00010000000131440000000b00010000000131\n" +
                 "<430000002373656c65637420312066726f6d206c6f6e675f73657175656e6365283229005a0000000549\n" +
                 ">500000002e535f340073656c65637420312c322c332066726f6d206c6f6e675f73657175656e636528353029000000420000000f00535f340000000000000044000000065000450000000900000000005300000004\n" +
-                "<54000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
+                "<3100000004320000000454000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
                 "<4400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133\n" +
                 "<4400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133\n" +
                 "<44000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133\n" +
                 "<430000002873656c65637420312c322c332066726f6d206c6f6e675f73657175656e636528353029005a0000000549\n" +
                 ">430000000953535f340050000000260073656c65637420312066726f6d206c6f6e675f73657175656e6365283229000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
                 "<3300000004\n" +
-                "<540000001a00013100000000000000000000170000000000000000\n" +
+                "<31000000043200000004540000001a00013100000000000000000000170000000000000000\n" +
                 "<440000000b00010000000131440000000b00010000000131\n" +
                 "<430000002373656c65637420312066726f6d206c6f6e675f73657175656e6365283229005a0000000549\n" +
                 ">500000002e535f350073656c65637420312c322c332066726f6d206c6f6e675f73657175656e636528353029000000420000000f00535f350000000000000044000000065000450000000900000000005300000004\n" +
-                "<54000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
+                "<3100000004320000000454000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
                 "<4400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133\n" +
                 "<4400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133\n" +
                 "<44000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133\n" +
                 "<430000002873656c65637420312c322c332066726f6d206c6f6e675f73657175656e636528353029005a0000000549\n" +
                 ">430000000953535f350050000000260073656c65637420312066726f6d206c6f6e675f73657175656e6365283229000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
                 "<3300000004\n" +
-                "<540000001a00013100000000000000000000170000000000000000\n" +
+                "<31000000043200000004540000001a00013100000000000000000000170000000000000000\n" +
                 "<440000000b00010000000131440000000b00010000000131\n" +
                 "<430000002373656c65637420312066726f6d206c6f6e675f73657175656e6365283229005a0000000549\n" +
                 ">500000002e535f360073656c65637420312c322c332066726f6d206c6f6e675f73657175656e636528353029000000420000000f00535f360000000000000044000000065000450000000900000000005300000004\n" +
-                "<54000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
+                "<3100000004320000000454000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
                 "<4400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133\n" +
                 "<4400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133\n" +
                 "<44000000150003000000013100000001320000000133440000001500030000000131000000013200000001334400000015000300000001310000000132000000013344000000150003000000013100000001320000000133\n" +
                 "<430000002873656c65637420312c322c332066726f6d206c6f6e675f73657175656e636528353029005a0000000549\n" +
                 ">430000000953535f360050000000260073656c65637420312066726f6d206c6f6e675f73657175656e6365283229000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
                 "<3300000004\n" +
-                "<540000001a00013100000000000000000000170000000000000000\n" +
+                "<31000000043200000004540000001a00013100000000000000000000170000000000000000\n" +
                 "<440000000b00010000000131440000000b00010000000131\n" +
                 "<430000002373656c65637420312066726f6d206c6f6e675f73657175656e6365283229005a0000000549\n" +
                 ">5800000004\n";
@@ -626,6 +718,68 @@ public class PGJobContextTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testLargeOutputSlowPeer() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final CountDownLatch haltLatch = new CountDownLatch(1);
+            final AtomicBoolean running = new AtomicBoolean(true);
+            try {
+                // server sends little at a time and often finds socket not ready,
+                // it has to resume sending cursor each time client catches up
+                startBasicServer(
+                        new NetworkFacadeImpl() {
+                            private boolean stall = false;
+
+                            @Override
+                            public int send(long fd, long buffer, int bufferLen) {
+                                stall = !stall;
+                                if (stall) {
+                                    return 0;
+                                }
+                                return super.send(fd, buffer, Math.min(bufferLen, 113));
+                            }
+                        },
+                        new DefaultPGWireConfiguration() {
+                            @Override
+                            public int getIdleSendCountBeforeGivingUp() {
+                                return 1;
+                            }
+
+                            @Override
+                            public int getSendBufferSize() {
+                                return 512;
+                            }
+                        },
+                        haltLatch,
+                        running
+                );
+
+                Properties properties = new Properties();
+                properties.setProperty("user", "admin");
+                properties.setProperty("password", "quest");
+                properties.setProperty("sslmode", "disable");
+
+                final Connection connection = DriverManager.getConnection("jdbc:postgresql://127.0.0.1:9120/nabu_app", properties);
+                PreparedStatement statement = connection.prepareStatement("select x, rnd_str(5,20,0) s from long_sequence(2000)");
+                for (int i = 0; i < 6; i++) {
+                    ResultSet rs = statement.executeQuery();
+                    long expected = 0;
+                    while (rs.next()) {
+                        expected++;
+                        Assert.assertEquals(expected, rs.getLong(1));
+                        Assert.assertNotNull(rs.getString(2));
+                    }
+                    Assert.assertEquals(2000, expected);
+                    rs.close();
+                }
+                connection.close();
+            } finally {
+                running.set(false);
+                haltLatch.await();
+            }
+        });
+    }
+
     @Test
     public void testLoginBadPassword() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
@@ -704,6 +858,68 @@ public class PGJobContextTest extends AbstractGriffinTest {
         );
     }
 
+    @Test
+    public void testMultiStatementPipeline() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final CountDownLatch haltLatch = new CountDownLatch(1);
+            final AtomicBoolean running = new AtomicBoolean(true);
+            try {
+                startBasicServer(
+                        NetworkFacadeImpl.INSTANCE,
+                        new DefaultPGWireConfiguration(),
+                        haltLatch,
+                        running
+                );
+
+                Properties properties = new Properties();
+                properties.setProperty("user", "admin");
+                properties.setProperty("password", "quest");
+                properties.setProperty("sslmode", "disable");
+
+                final Connection connection = DriverManager.getConnection("jdbc:postgresql://127.0.0.1:9120/nabu_app", properties);
+                Statement statement = connection.createStatement();
+                // driver sends all three queries in one batch followed by single Sync
+                Assert.assertTrue(statement.execute(
+                        "select x from long_sequence(2); select x * 10 from long_sequence(3); select x * 100 from long_sequence(1)"
+                ));
+                final long[][] expected = {{1, 2}, {10, 20, 30}, {100}};
+                for (int i = 0; i < expected.length; i++) {
+                    if (i > 0) {
+                        Assert.assertTrue(statement.getMoreResults());
+                    }
+                    ResultSet rs = statement.getResultSet();
+                    for (int j = 0; j < expected[i].length; j++) {
+                        Assert.assertTrue(rs.next());
+                        Assert.assertEquals(expected[i][j], rs.getLong(1));
+                    }
+                    Assert.assertFalse(rs.next());
+                    rs.close();
+                }
+                Assert.assertFalse(statement.getMoreResults());
+
+                // error skips the rest of the batch, connection has to remain usable
+                try {
+                    statement.execute("select x from long_sequence(2); select * from doesnotexist; select x from long_sequence(3)");
+                    Assert.fail();
+                } catch (SQLException e) {
+                    TestUtils.assertContains(e.getMessage(), "table does not exist");
+                }
+
+                ResultSet rs = statement.executeQuery("select x from long_sequence(4)");
+                int count = 0;
+                while (rs.next()) {
+                    Assert.assertEquals(++count, rs.getLong(1));
+                }
+                Assert.assertEquals(4, count);
+                rs.close();
+                connection.close();
+            } finally {
+                running.set(false);
+                haltLatch.await();
+            }
+        });
+    }
+
     @Test
     public void testParseMessageBadQueryTerminator() throws Exception {
         final String script = ">0000006900030000757365720078797a006461746162617365006e6162755f61707000636c69656e745f656e636f64696e67005554463800446174655374796c650049534f0054696d655a6f6e6500474d540065787472615f666c6f61745f64696769747300320000\n" +
@@ -763,9 +979,9 @@ public class PGJobContextTest extends AbstractGriffinTest {
                 ">70000000076f6800\n" +
                 "<520000000800000000530000001154696d655a6f6e6500474d5400530000001d6170706c69636174696f6e5f6e616d6500517565737444420053000000187365727665725f76657273696f6e0031312e33005300000019696e74656765725f6461746574696d6573006f6e005a0000000549\n" +
                 ">5000000022005345542065787472615f666c6f61745f646967697473203d2033000000420000000c0000000000000000450000000900000000015300000004\n" +
-                "<31000000045a0000000549\n" +
+                "<31000000043200000004430000001f5345542065787472615f666c6f61745f646967697473203d2033005a0000000549\n" +
                 ">500000003700534554206170706c69636174696f6e5f6e616d65203d2027506f737467726553514c204a4442432044726976657227000000420000000c0000000000000000450000000900000000015300000004\n" +
-                "<31000000045a0000000549\n" +
+                "<310000000432000000044300000034534554206170706c69636174696f6e5f6e616d65203d2027506f737467726553514c204a4442432044726976657227005a0000000549\n" +
                 ">50000000cd0073656c65637420782c24312c24322c24332c24342c24352c24362c24372c24382c24392c2431302c2431312c2431322c2431332c2431342c2431352c2431362c2431372c2431382c2431392c2432302c2432312c2432322066726f6d206c6f6e675f73657175656e636528352900fefe0000001700000014000002bc000002bd0000001500000010000004130000041300000000000000000000001700000014000002bc000002bd000000150000001000000413000004130000043a000000000000045a000004a0420000012c0000001600010001000100010001000000000000000000000001000100010001000100000000000000010000000000000016000000040000000400000008000000000000007b0000000440adc28f000000083fe22c27a63736ce00000002005b00000004545255450000000568656c6c6f0000001dd0b3d180d183d0bfd0bfd0b020d182d183d180d0b8d181d182d0bed0b20000000e313937302d30312d3031202b30300000001a313937302d30382d32302031313a33333a32302e3033332b3030ffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff0000001a313937302d30312d30312030303a30353a30302e3031312b30300000001a313937302d30312d30312030303a30383a32302e3032332b3030000044000000065000450000000900000000005300000004\n" +
                 "<!!";
         assertHexScript(
@@ -793,9 +1009,9 @@ public class PGJobContextTest extends AbstractGriffinTest {
                 ">70000000076f6800\n" +
                 "<520000000800000000530000001154696d655a6f6e6500474d5400530000001d6170706c69636174696f6e5f6e616d6500517565737444420053000000187365727665725f76657273696f6e0031312e33005300000019696e74656765725f6461746574696d6573006f6e005a0000000549\n" +
                 ">5000000022005345542065787472615f666c6f61745f646967697473203d2033000000420000000c0000000000000000450000000900000000015300000004\n" +
-                "<31000000045a0000000549\n" +
+                "<31000000043200000004430000001f5345542065787472615f666c6f61745f646967697473203d2033005a0000000549\n" +
                 ">500000003700534554206170706c69636174696f6e5f6e616d65203d2027506f737467726553514c204a4442432044726976657227000000420000000c0000000000000000450000000900000000015300000004\n" +
-                "<31000000045a0000000549\n" +
+                "<310000000432000000044300000034534554206170706c69636174696f6e5f6e616d65203d2027506f737467726553514c204a4442432044726976657227005a0000000549\n" +
                 ">50000000cd0073656c65637420782c24312c24322c24332c24342c24352c24362c24372c24382c24392c2431302c2431312c2431322c2431332c2431342c2431352c2431362c2431372c2431382c2431392c2432302c2432312c2432322066726f6d206c6f6e675f73657175656e63652835290000260000001700000014000002bc000002bd0000001500000010000004130000041300000000000000000000001700000014000002bc000002bd000000150000001000000413000004130000043a000000000000045a000004a0420000012c0000001600010001000100010001000000000000000000000001000100010001000100000000000000010000000000000016000000040000000400000008000000000000007b0000000440adc28f000000083fe22c27a63736ce00000002005b00000004545255450000000568656c6c6f0000001dd0b3d180d183d0bfd0bfd0b020d182d183d180d0b8d181d182d0bed0b20000000e313937302d30312d3031202b30300000001a313937302d30382d32302031313a33333a32302e3033332b3030ffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff0000001a313937302d30312d30312030303a30353a30302e3031312b30300000001a313937302d30312d30312030303a30383a32302e3032332b3030000044000000065000450000000900000000005300000004\n" +
                 "<!!";
         assertHexScript(
@@ -823,9 +1039,9 @@ public class PGJobContextTest extends AbstractGriffinTest {
                 ">70000000076f6800\n" +
                 "<520000000800000000530000001154696d655a6f6e6500474d5400530000001d6170706c69636174696f6e5f6e616d6500517565737444420053000000187365727665725f76657273696f6e0031312e33005300000019696e74656765725f6461746574696d6573006f6e005a0000000549\n" +
                 ">5000000022005345542065787472615f666c6f61745f646967697473203d2033000000420000000c0000000000000000450000000900000000015300000004\n" +
-                "<31000000045a0000000549\n" +
+                "<31000000043200000004430000001f5345542065787472615f666c6f61745f646967697473203d2033005a0000000549\n" +
                 ">500000003700534554206170706c69636174696f6e5f6e616d65203d2027506f737467726553514c204a4442432044726976657227000000420000000c0000000000000000450000000900000000015300000004\n" +
-                "<31000000045a0000000549\n" +
+                "<310000000432000000044300000034534554206170706c69636174696f6e5f6e616d65203d2027506f737467726553514c204a4442432044726976657227005a0000000549\n" +
                 //        II
                 ">50000000740073656c65637420782c24312c24322c24332c24342c24352c24362c24372c24382c24392c2431302c2431312c2431322c2431332c2431342c2431352c2431362c2431372c2431382c2431392c2432302c2432312c2432322066726f6d206c6f6e675f73657175656e63652835290000160000001700000014000002bc000002bd0000001500000010000004130000041300000000000000000000001700000014000002bc000002bd000000150000001000000413000004130000043a000000000000045a000004a0420000012c0000001600010001000100010001000000000000000000000001000100010001000100000000000000010000000000000016000000040000000400000008000000000000007b0000000440adc28f000000083fe22c27a63736ce00000002005b00000004545255450000000568656c6c6f0000001dd0b3d180d183d0bfd0bfd0b020d182d183d180d0b8d181d182d0bed0b20000000e313937302d30312d3031202b30300000001a313937302d30382d32302031313a33333a32302e3033332b3030ffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff0000001a313937302d30312d30312030303a30353a30302e3031312b30300000001a313937302d30312d30312030303a30383a32302e3032332b3030000044000000065000450000000900000000005300000004\n" +
                 "<!!";
@@ -889,6 +1105,282 @@ public class PGJobContextTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testPreparedStatementBinaryResults() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final CountDownLatch haltLatch = new CountDownLatch(1);
+            final AtomicBoolean running = new AtomicBoolean(true);
+            try {
+                startBasicServer(
+                        NetworkFacadeImpl.INSTANCE,
+                        new DefaultPGWireConfiguration(),
+                        haltLatch,
+                        running
+                );
+
+                Properties properties = new Properties();
+                properties.setProperty("user", "admin");
+                properties.setProperty("password", "quest");
+                properties.setProperty("sslmode", "disable");
+                // driver uses named statement and requests binary results from first execution
+                properties.setProperty("prepareThreshold", "-1");
+                TimeZone.setDefault(TimeZone.getTimeZone("EDT"));
+
+                final Connection connection = DriverManager.getConnection("jdbc:postgresql://127.0.0.1:9120/nabu_app", properties);
+                PreparedStatement statement = connection.prepareStatement(
+                        "select x, to_int(x) i, x * 0.125 d, x = 2 bo, " +
+                                "to_timestamp(x * 1000001) ts, to_date(x * 86400000) dt, 'abc' str " +
+                                "from long_sequence(3)"
+                );
+
+                final String expected = "x[BIGINT],i[INTEGER],d[DOUBLE],bo[BIT],ts[TIMESTAMP],dt[TIMESTAMP],str[VARCHAR]\n" +
+                        "1,1,0.12500000,false,1970-01-01 00:00:01.000001,1970-01-02 00:00:00.0,abc\n" +
+                        "2,2,0.25000000,true,1970-01-01 00:00:02.000002,1970-01-03 00:00:00.0,abc\n" +
+                        "3,3,0.37500000,false,1970-01-01 00:00:03.000003,1970-01-04 00:00:00.0,abc\n";
+
+                StringSink sink = new StringSink();
+                for (int i = 0; i < 10; i++) {
+                    sink.clear();
+                    ResultSet rs = statement.executeQuery();
+                    assertResultSet(expected, sink, rs);
+                    rs.close();
+                }
+                statement.close();
+                connection.close();
+            } finally {
+                running.set(false);
+                haltLatch.await();
+            }
+        });
+    }
+
+    @Test
+    public void testInsertBatch() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final CountDownLatch haltLatch = new CountDownLatch(1);
+            final AtomicBoolean running = new AtomicBoolean(true);
+            try {
+                startBasicServer(
+                        NetworkFacadeImpl.INSTANCE,
+                        new DefaultPGWireConfiguration() {
+                            @Override
+                            public int getMaxUncommittedRows() {
+                                return 100;
+                            }
+                        },
+                        haltLatch,
+                        running
+                );
+
+                Properties properties = new Properties();
+                properties.setProperty("user", "admin");
+                properties.setProperty("password", "quest");
+                properties.setProperty("sslmode", "disable");
+
+                final Connection connection = DriverManager.getConnection("jdbc:postgresql://127.0.0.1:9120/nabu_app", properties);
+                connection.createStatement().execute("create table xyz (a int, d double, s string)");
+
+                long expectedSum = 0;
+                PreparedStatement insert = connection.prepareStatement("insert into xyz values (?, ?, ?)");
+                // one Sync for the whole batch, which is longer than uncommitted row limit
+                for (int i = 0; i < 1000; i++) {
+                    insert.setInt(1, i);
+                    insert.setDouble(2, i * 0.5);
+                    insert.setString(3, "s" + i);
+                    insert.addBatch();
+                    expectedSum += i;
+                }
+                int[] counts = insert.executeBatch();
+                Assert.assertEquals(1000, counts.length);
+                for (int i = 0; i < counts.length; i++) {
+                    Assert.assertEquals(1, counts[i]);
+                }
+
+                // driver switches to named statement after a few executions
+                for (int i = 1000; i < 1010; i++) {
+                    insert.setInt(1, i);
+                    insert.setDouble(2, i * 0.5);
+                    insert.setString(3, "s" + i);
+                    Assert.assertEquals(1, insert.executeUpdate());
+                    expectedSum += i;
+                }
+                insert.close();
+
+                Assert.assertFalse(connection.createStatement().execute("insert into xyz values (1010, 505.0, 's1010')"));
+                expectedSum += 1010;
+
+                ResultSet rs = connection.prepareStatement("select count(), sum(a), sum(d) from xyz").executeQuery();
+                Assert.assertTrue(rs.next());
+                Assert.assertEquals(1011, rs.getLong(1));
+                Assert.assertEquals(expectedSum, rs.getLong(2));
+                Assert.assertEquals(expectedSum * 0.5, rs.getDouble(3), 0.0000001);
+                rs.close();
+
+                rs = connection.prepareStatement("select a, d, s from xyz where a = 567").executeQuery();
+                Assert.assertTrue(rs.next());
+                Assert.assertEquals(567, rs.getInt(1));
+                Assert.assertEquals(283.5, rs.getDouble(2), 0.0000001);
+                Assert.assertEquals("s567", rs.getString(3));
+                Assert.assertFalse(rs.next());
+                rs.close();
+
+                connection.close();
+            } finally {
+                running.set(false);
+                haltLatch.await();
+            }
+            engine.releaseAllWriters();
+            engine.releaseAllReaders();
+        });
+    }
+
+    @Test
+    public void testTransactionControl() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final CountDownLatch haltLatch = new CountDownLatch(1);
+            final AtomicBoolean running = new AtomicBoolean(true);
+            try {
+                startBasicServer(
+                        NetworkFacadeImpl.INSTANCE,
+                        new DefaultPGWireConfiguration(),
+                        haltLatch,
+                        running
+                );
+
+                Properties properties = new Properties();
+                properties.setProperty("user", "admin");
+                properties.setProperty("password", "quest");
+                properties.setProperty("sslmode", "disable");
+
+                final Connection connection = DriverManager.getConnection("jdbc:postgresql://127.0.0.1:9120/nabu_app", properties);
+                connection.createStatement().execute("create table xyz (a int)");
+
+                Statement statement = connection.createStatement();
+                Assert.assertFalse(statement.execute("begin"));
+                Assert.assertFalse(statement.execute("insert into xyz values (1)"));
+                Assert.assertFalse(statement.execute(" COMMIT; "));
+
+                Assert.assertFalse(statement.execute("BEGIN"));
+                Assert.assertFalse(statement.execute("insert into xyz values (2)"));
+                try {
+                    statement.execute("rollback");
+                    Assert.fail();
+                } catch (PSQLException e) {
+                    TestUtils.assertContains(e.getMessage(), "transactions are not supported");
+                }
+                statement.close();
+
+                // rows cannot be rolled back
+                ResultSet rs = connection.prepareStatement("select count() from xyz").executeQuery();
+                Assert.assertTrue(rs.next());
+                Assert.assertEquals(2, rs.getLong(1));
+                rs.close();
+
+                connection.close();
+            } finally {
+                running.set(false);
+                haltLatch.await();
+            }
+            engine.releaseAllWriters();
+            engine.releaseAllReaders();
+        });
+    }
+
+    @Test
+    public void testTransactionControlSimpleQuery() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final CountDownLatch haltLatch = new CountDownLatch(1);
+            final AtomicBoolean running = new AtomicBoolean(true);
+            try {
+                startBasicServer(
+                        NetworkFacadeImpl.INSTANCE,
+                        new DefaultPGWireConfiguration(),
+                        haltLatch,
+                        running
+                );
+
+                Properties properties = new Properties();
+                properties.setProperty("user", "admin");
+                properties.setProperty("password", "quest");
+                properties.setProperty("sslmode", "disable");
+                properties.setProperty("preferQueryMode", "simple");
+
+                final Connection connection = DriverManager.getConnection("jdbc:postgresql://127.0.0.1:9120/nabu_app", properties);
+                Statement statement = connection.createStatement();
+                Assert.assertFalse(statement.execute("begin"));
+                Assert.assertFalse(statement.execute("commit"));
+                try {
+                    statement.execute("ROLLBACK");
+                    Assert.fail();
+                } catch (PSQLException e) {
+                    TestUtils.assertContains(e.getMessage(), "transactions are not supported");
+                }
+
+                // connection is usable after error
+                ResultSet rs = statement.executeQuery("select x from long_sequence(1)");
+                Assert.assertTrue(rs.next());
+                Assert.assertEquals(1, rs.getLong(1));
+                rs.close();
+
+                statement.close();
+                connection.close();
+            } finally {
+                running.set(false);
+                haltLatch.await();
+            }
+        });
+    }
+
+    @Test
+    public void testPreparedStatementNamedLifecycle() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final CountDownLatch haltLatch = new CountDownLatch(1);
+            final AtomicBoolean running = new AtomicBoolean(true);
+            try {
+                startBasicServer(
+                        NetworkFacadeImpl.INSTANCE,
+                        new DefaultPGWireConfiguration(),
+                        haltLatch,
+                        running
+                );
+
+                Properties properties = new Properties();
+                properties.setProperty("user", "admin");
+                properties.setProperty("password", "quest");
+                properties.setProperty("sslmode", "disable");
+                properties.setProperty("prepareThreshold", "1");
+
+                final Connection connection = DriverManager.getConnection("jdbc:postgresql://127.0.0.1:9120/nabu_app", properties);
+                StringSink sink = new StringSink();
+                // more statements than factory cache and statement pool can hold
+                for (int i = 0; i < 64; i++) {
+                    PreparedStatement statement = connection.prepareStatement("select x, ? from long_sequence(" + (i % 8 + 1) + ")");
+                    for (int j = 0; j < 3; j++) {
+                        statement.setInt(1, i * j);
+                        sink.clear();
+                        ResultSet rs = statement.executeQuery();
+                        int count = 0;
+                        while (rs.next()) {
+                            count++;
+                            Assert.assertEquals(count, rs.getLong(1));
+                            Assert.assertEquals(i * j, rs.getInt(2));
+                        }
+                        Assert.assertEquals(i % 8 + 1, count);
+                        rs.close();
+                    }
+                    // closing every other statement leaves the rest to be released with connection
+                    if (i % 2 == 0) {
+                        statement.close();
+                    }
+                }
+                connection.close();
+            } finally {
+                running.set(false);
+                haltLatch.await();
+            }
+        });
+    }
+
     @Test
     public void testPreparedStatementHex() throws Exception {
         assertPreparedStatementHex(NetworkFacadeImpl.INSTANCE, new DefaultPGWireConfiguration() {
@@ -1042,9 +1534,9 @@ public class PGJobContextTest extends AbstractGriffinTest {
                         ">700000000a717565737400\n" +
                         "<520000000800000000530000001154696d655a6f6e6500474d5400530000001d6170706c69636174696f6e5f6e616d6500517565737444420053000000187365727665725f76657273696f6e0031312e33005300000019696e74656765725f6461746574696d6573006f6e005a0000000549\n" +
                         ">5000000022005345542065787472615f666c6f61745f646967697473203d2033000000420000000c0000000000000000450000000900000000015300000004\n" +
-                        "<31000000045a0000000549\n" +
+                        "<31000000043200000004430000001f5345542065787472615f666c6f61745f646967697473203d2033005a0000000549\n" +
                         ">500000003700534554206170706c69636174696f6e5f6e616d65203d2027506f737467726553514c204a4442432044726976657227000000420000000c0000000000000000450000000900000000015300000004\n" +
-                        "<31000000045a0000000549\n" +
+                        "<310000000432000000044300000034534554206170706c69636174696f6e5f6e616d65203d2027506f737467726553514c204a4442432044726976657227005a0000000549\n" +
                         ">50000000cd0073656c65637420782c24312c24322c24332c24342c24352c24362c24372c24382c24392c2431302c2431312c2431322c2431332c2431342c2431352c2431362c2431372c2431382c2431392c2432302c2432312c2432322066726f6d206c6f6e675f73657175656e63652835290000160000001700000014000002bd000002bd0000001500000010000004130000041300000000000000000000001700000014000002bc000002bd000000150000001000000413000004130000043a000000000000045a000004a04200000123000000160000000000000000000000000000000000000000000000000000000000000000000000000000000000000000001600000001340000000331323300000004352e343300000007302e353637383900000002993100000004545255450000000568656c6c6f0000001dd0b3d180d183d0bfd0bfd0b020d182d183d180d0b8d181d182d0bed0b20000000e313937302d30312d3031202b30300000001a313937302d30382d32302031313a33333a32302e3033332b3030ffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff0000001a313937302d30312d30312030303a30353a30302e3031312b30300000001a313937302d30312d30312030303a30383a32302e3032332b3030000044000000065000450000000900000000005300000004\n" +
                         "<!!",
                 new DefaultPGWireConfiguration()
@@ -1061,9 +1553,9 @@ public class PGJobContextTest extends AbstractGriffinTest {
                         ">700000000a717565737400\n" +
                         "<520000000800000000530000001154696d655a6f6e6500474d5400530000001d6170706c69636174696f6e5f6e616d6500517565737444420053000000187365727665725f76657273696f6e0031312e33005300000019696e74656765725f6461746574696d6573006f6e005a0000000549\n" +
                         ">5000000022005345542065787472615f666c6f61745f646967697473203d2033000000420000000c0000000000000000450000000900000000015300000004\n" +
-                        "<31000000045a0000000549\n" +
+                        "<31000000043200000004430000001f5345542065787472615f666c6f61745f646967697473203d2033005a0000000549\n" +
                         ">500000003700534554206170706c69636174696f6e5f6e616d65203d2027506f737467726553514c204a4442432044726976657227000000420000000c0000000000000000450000000900000000015300000004\n" +
-                        "<31000000045a0000000549\n" +
+                        "<310000000432000000044300000034534554206170706c69636174696f6e5f6e616d65203d2027506f737467726553514c204a4442432044726976657227005a0000000549\n" +
                         ">50000000cd0073656c65637420782c24312c24322c24332c24342c24352c24362c24372c24382c24392c2431302c2431312c2431322c2431332c2431342c2431352c2431362c2431372c2431382c2431392c2432302c2432312c2432322066726f6d206c6f6e675f73657175656e63652835290000160000001700000014000002bd000002bd0000001500000010000004130000041300000000000000000000001700000014000002bc000002bd000000150000001000000413000004130000043a000000000000045a000004a04200000123000000160000000000000000000000000000000000000000000000000000000000000000000000000000000000000000001600000001340000000331323300000004352f343300000007302e353637383900000002393100000004545255450000000568656c6c6f0000001dd0b3d180d183d0bfd0bfd0b020d182d183d180d0b8d181d182d0bed0b20000000e313937302d30312d3031202b30300000001a313937302d30382d32302031313a33333a32302e3033332b3030ffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff0000001a313937302d30312d30312030303a30353a30302e3031312b30300000001a313937302d30312d30312030303a30383a32302e3032332b3030000044000000065000450000000900000000005300000004\n" +
                         "<!!",
                 new DefaultPGWireConfiguration()
@@ -1080,9 +1572,9 @@ public class PGJobContextTest extends AbstractGriffinTest {
                         ">700000000a717565737400\n" +
                         "<520000000800000000530000001154696d655a6f6e6500474d5400530000001d6170706c69636174696f6e5f6e616d6500517565737444420053000000187365727665725f76657273696f6e0031312e33005300000019696e74656765725f6461746574696d6573006f6e005a0000000549\n" +
                         ">5000000022005345542065787472615f666c6f61745f646967697473203d2033000000420000000c0000000000000000450000000900000000015300000004\n" +
-                        "<31000000045a0000000549\n" +
+                        "<31000000043200000004430000001f5345542065787472615f666c6f61745f646967697473203d2033005a0000000549\n" +
                         ">500000003700534554206170706c69636174696f6e5f6e616d65203d2027506f737467726553514c204a4442432044726976657227000000420000000c0000000000000000450000000900000000015300000004\n" +
-                        "<31000000045a0000000549\n" +
+                        "<310000000432000000044300000034534554206170706c69636174696f6e5f6e616d65203d2027506f737467726553514c204a4442432044726976657227005a0000000549\n" +
                         ">50000000cd0073656c65637420782c24312c24322c24332c24342c24352c24362c24372c24382c24392c2431302c2431312c2431322c2431332c2431342c2431352c2431362c2431372c2431382c2431392c2432302c2432312c2432322066726f6d206c6f6e675f73657175656e63652835290000160000001700000014000002bd000002bd0000001500000010000004130000041300000000000000000000001700000014000002bc000002bd000000150000001000000413000004130000043a000000000000045a000004a04200000123000000160000000000000000000000000000000000000000000000000000000000000000000000000000000000000000001600000001FC0000000331323300000004352e343300000007302e353637383900000002393100000004545255450000000568656c6c6f0000001dd0b3d180d183d0bfd0bfd0b020d182d183d180d0b8d181d182d0bed0b20000000e313937302d30312d3031202b30300000001a313937302d30382d32302031313a33333a32302e3033332b3030ffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff0000001a313937302d30312d30312030303a30353a30302e3031312b30300000001a313937302d30312d30312030303a30383a32302e3032332b3030000044000000065000450000000900000000005300000004\n" +
                         "<!!",
                 new DefaultPGWireConfiguration()
@@ -1099,9 +1591,9 @@ public class PGJobContextTest extends AbstractGriffinTest {
                         ">700000000a717565737400\n" +
                         "<520000000800000000530000001154696d655a6f6e6500474d5400530000001d6170706c69636174696f6e5f6e616d6500517565737444420053000000187365727665725f76657273696f6e0031312e33005300000019696e74656765725f6461746574696d6573006f6e005a0000000549\n" +
                         ">5000000022005345542065787472615f666c6f61745f646967697473203d2033000000420000000c0000000000000000450000000900000000015300000004\n" +
-                        "<31000000045a0000000549\n" +
+                        "<31000000043200000004430000001f5345542065787472615f666c6f61745f646967697473203d2033005a0000000549\n" +
                         ">500000003700534554206170706c69636174696f6e5f6e616d65203d2027506f737467726553514c204a4442432044726976657227000000420000000c0000000000000000450000000900000000015300000004\n" +
-                        "<31000000045a0000000549\n" +
+                        "<310000000432000000044300000034534554206170706c69636174696f6e5f6e616d65203d2027506f737467726553514c204a4442432044726976657227005a0000000549\n" +
                         ">50000000cd0073656c65637420782c24312c24322c24332c24342c24352c24362c24372c24382c24392c2431302c2431312c2431322c2431332c2431342c2431352c2431362c2431372c2431382c2431392c2432302c2432312c2432322066726f6d206c6f6e675f73657175656e63652835290000160000001700000014000002bd000002bd0000001500000010000004130000041300000000000000000000001700000014000002bc000002bd000000150000001000000413000004130000043a000000000000045a000004a04200000123000000160000000000000000000000000000000000000000000000000000000000000000000000000000000000000000001600000001340000000331B23300000004352e343300000007302e353637383900000002393100000004545255450000000568656c6c6f0000001dd0b3d180d183d0bfd0bfd0b020d182d183d180d0b8d181d182d0bed0b20000000e313937302d30312d3031202b30300000001a313937302d30382d32302031313a33333a32302e3033332b3030ffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff0000001a313937302d30312d30312030303a30353a30302e3031312b30300000001a313937302d30312d30312030303a30383a32302e3032332b3030000044000000065000450000000900000000005300000004\n" +
                         "<!!",
                 new DefaultPGWireConfiguration()
@@ -1118,9 +1610,9 @@ public class PGJobContextTest extends AbstractGriffinTest {
                         ">700000000a717565737400\n" +
                         "<520000000800000000530000001154696d655a6f6e6500474d5400530000001d6170706c69636174696f6e5f6e616d6500517565737444420053000000187365727665725f76657273696f6e0031312e33005300000019696e74656765725f6461746574696d6573006f6e005a0000000549\n" +
                         ">5000000022005345542065787472615f666c6f61745f646967697473203d2033000000420000000c0000000000000000450000000900000000015300000004\n" +
-                        "<31000000045a0000000549\n" +
+                        "<31000000043200000004430000001f5345542065787472615f666c6f61745f646967697473203d2033005a0000000549\n" +
                         ">500000003700534554206170706c69636174696f6e5f6e616d65203d2027506f737467726553514c204a4442432044726976657227000000420000000c0000000000000000450000000900000000015300000004\n" +
-                        "<31000000045a0000000549\n" +
+                        "<310000000432000000044300000034534554206170706c69636174696f6e5f6e616d65203d2027506f737467726553514c204a4442432044726976657227005a0000000549\n" +
                         ">50000000cd0073656c65637420782c24312c24322c24332c24342c24352c24362c24372c24382c24392c2431302c2431312c2431322c2431332c2431342c2431352c2431362c2431372c2431382c2431392c2432302c2432312c2432322066726f6d206c6f6e675f73657175656e63652835290000160000001700000014000002bd000002bd0000001500000010000004130000041300000000000000000000001700000014000002bc000002bd000000150000001000000413000004130000043a000000000000045a000004a04200000123000000160000000000000000000000000000000000000000000000000000000000000000000000000000000000000000001600000001340000333331B23300000004352e343300000007302e353637383900000002393100000004545255450000000568656c6c6f0000001dd0b3d180d183d0bfd0bfd0b020d182d183d180d0b8d181d182d0bed0b20000000e313937302d30312d3031202b30300000001a313937302d30382d32302031313a33333a32302e3033332b3030ffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff0000001a313937302d30312d30312030303a30353a30302e3031312b30300000001a313937302d30312d30312030303a30383a32302e3032332b3030000044000000065000450000000900000000005300000004\n" +
                         "<!!",
                 new DefaultPGWireConfiguration()
@@ -1184,11 +1676,14 @@ public class PGJobContextTest extends AbstractGriffinTest {
                         "4,4,123,5.4300,0.56800000,91,true,hello,группа туристов,1970-01-01 00:00:00.0,1970-08-20 11:33:20.033,null,null,null,null,0,false,null,null,null,null,1970-01-01 00:05:00.011,1970-01-01 00:08:20.023\n" +
                         "5,4,123,5.4300,0.56800000,91,true,hello,группа туристов,1970-01-01 00:00:00.0,1970-08-20 11:33:20.033,null,null,null,null,0,false,null,null,null,null,1970-01-01 00:05:00.011,1970-01-01 00:08:20.023\n";
 
+                // after prepareThreshold (5) executions driver switches to named statement and receives doubles in binary form, which are not rounded
+                final String expectedBinary = expected.replace("0.56800000", "0.56789000");
+
                 StringSink sink = new StringSink();
                 for (int i = 0; i < 10; i++) {
                     sink.clear();
                     ResultSet rs = statement.executeQuery();
-                    assertResultSet(expected, sink, rs);
+                    assertResultSet(i < 5 ? expected : expectedBinary, sink, rs);
                     rs.close();
                 }
                 connection.close();
@@ -1285,11 +1780,11 @@ public class PGJobContextTest extends AbstractGriffinTest {
                 ">70000000076f6800\n" +
                 "<520000000800000000530000001154696d655a6f6e6500474d5400530000001d6170706c69636174696f6e5f6e616d6500517565737444420053000000187365727665725f76657273696f6e0031312e33005300000019696e74656765725f6461746574696d6573006f6e005a0000000549\n" +
                 ">5000000022005345542065787472615f666c6f61745f646967697473203d2033000000420000000c0000000000000000450000000900000000015300000004\n" +
-                "<31000000045a0000000549\n" +
+                "<31000000043200000004430000001f5345542065787472615f666c6f61745f646967697473203d2033005a0000000549\n" +
                 ">500000003700534554206170706c69636174696f6e5f6e616d65203d2027506f737467726553514c204a4442432044726976657227000000420000000c0000000000000000450000000900000000015300000004\n" +
-                "<31000000045a0000000549\n" +
+                "<310000000432000000044300000034534554206170706c69636174696f6e5f6e616d65203d2027506f737467726553514c204a4442432044726976657227005a0000000549\n" +
                 ">50000001a20073656c65637420726e645f73747228342c342c342920732c20726e645f696e7428302c203235362c20342920692c20726e645f646f75626c6528342920642c2074696d657374616d705f73657175656e636528746f5f74696d657374616d702830292c31303030302920742c20726e645f666c6f617428342920662c20726e645f73686f72742829205f73686f72742c20726e645f6c6f6e6728302c2031303030303030302c203529206c2c20726e645f74696d657374616d7028746f5f74696d657374616d70282732303135272c277979797927292c746f5f74696d657374616d70282732303136272c277979797927292c3229207473322c20726e645f6279746528302c313237292062622c20726e645f626f6f6c65616e282920622c20726e645f73796d626f6c28342c342c342c32292c20726e645f6461746528746f5f64617465282732303135272c20277979797927292c20746f5f64617465282732303136272c20277979797927292c2032292c726e645f62696e2831302c32302c32292066726f6d206c6f6e675f73657175656e636528353029000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
-                "<5400000128000d730000000000000000000413000000000000000069000000000000000000001700000000000000006400000000000000000002bd000000000000000074000000000000000000045a00000000000000006600000000000000000002bc00000000000000005f73686f7274000000000000000000001500000000000000006c00000000000000000000140000000000000000747332000000000000000000045a00000000000000006262000000000000000000001500000000000000006200000000000000000000100000000000000000726e645f73796d626f6c00000000000000000004130000000000000000726e645f64617465000000000000000000045a0000000000000000726e645f62696e00000000000000000000110000000000000001\n" +
+                "<310000000432000000045400000128000d730000000000000000000413000000000000000069000000000000000000001700000000000000006400000000000000000002bd000000000000000074000000000000000000045a00000000000000006600000000000000000002bc00000000000000005f73686f7274000000000000000000001500000000000000006c00000000000000000000140000000000000000747332000000000000000000045a00000000000000006262000000000000000000001500000000000000006200000000000000000000100000000000000000726e645f73796d626f6c00000000000000000004130000000000000000726e645f64617465000000000000000000045a0000000000000000726e645f62696e00000000000000000000110000000000000001\n" +
                 "<4400000099000dffffffff00000002353700000005302e3632350000001a313937302d30312d30312030303a30303a30302e30303030303000000005302e343632000000052d313539330000000733343235323332ffffffff000000033132310000000166000000045045484e00000017323031352d30332d31372030343a32353a35322e3736350000000e19c49594365349b4597e3b08a11e44000000bb000d00000004585953420000000331343200000005302e3537390000001a313937302d30312d30312030303a30303a30302e30313030303000000005302e39363900000005323030383800000007313531373439300000001a323031352d30312d31372032303a34313a31392e343830363835000000033130300000000174000000045045484e00000017323031352d30362d32302030313a31303a35382e35393900000011795f8b812b934d1a8e78b5b91153d0fb6444000000b4000d000000044f5a5a560000000332313900000005302e3136340000001a313937302d30312d30312030303a30303a30302e30323030303000000005302e363539000000062d313233303300000007393438393530380000001a323031352d30382d31332031373a31303a31392e37353235323100000001360000000166ffffffff00000017323031352d30352d32302030313a34383a33372e3431380000000f2b4d5ff64690c3b3598ee5612f640e44000000a4000d000000044f4c595800000002333000000005302e3731330000001a313937302d30312d30312030303a30303a30302e30333030303000000005302e363535000000043636313000000007363530343432380000001a323031352d30382d30382030303a34323a32342e353435363339000000033132330000000166ffffffff00000017323031352d30312d30332031333a35333a30332e313635ffffffff440000009f000d000000045449514200000002343200000005302e3638310000001a313937302d30312d30312030303a30303a30302e30343030303000000005302e363236000000052d3136303500000007383831343038360000001a323031352d30372d32382031353a30383a35332e34363234393500000002323800000001740000000443505357ffffffff0000000e3ba6dc3b7d2be392fe6938e1779a44000000a2000d000000044c544f560000000331333700000005302e3736330000001a313937302d30312d30312030303a30303a30302e30353030303000000005302e3838320000000439303534ffffffff0000001a323031352d30342d32302030353a30393a30332e353830353734000000033130360000000166000000045045484e00000017323031352d30312d30392030363a35373a31372e353132ffffffff44000000a0000d000000045a494d4e00000003313235ffffffff0000001a313937302d30312d30312030303a30303a30302e303630303030ffffffff00000005313135323400000007383333353236310000001a323031352d31302d32362030323a31303a35302e363838333934000000033131310000000174000000045045484e00000017323031352d30382d32312031353a34363a33322e363234ffffffff4400000093000d000000044f504a4f0000000331363800000005302e3130350000001a313937302d30312d30312030303a30303a30302e30373030303000000005302e353335000000052d3539323000000007373038303730340000001a323031352d30372d31312030393a31353a33382e3334323731370000000331303300000001660000000456544a57ffffffffffffffff44000000a9000d00000004474c554f0000000331343500000005302e3533390000001a313937302d30312d30312030303a30303a30302e30383030303000000005302e37363700000005313432343200000007323439393932320000001a323031352d31312d30322030393a30313a33312e3331323830340000000238340000000166000000045045484e00000017323031352d31312d31342031373a33373a33362e303433ffffffff44000000b6000d000000045a5651450000000331303300000005302e3637330000001a313937302d30312d30312030303a30303a30302e303930303030ffffffff00000005313337323700000007373837353834360000001a323031352d31322d31322031333a31363a32362e3133343536320000000232320000000174000000045045484e00000017323031352d30312d32302030343a35303a33342e30393800000012143380c9eba3677a1a79e435e43adc5c65ff440000009a000d000000044c4947590000000331393900000005302e3238340000001a313937302d30312d30312030303a30303a30302e313030303030ffffffff00000005333034323600000007333231353536320000001a323031352d30382d32312031343a35353a30372e30353537323200000002313100000001660000000456544a57ffffffff0000000dff703ac78ab314cd470b0c3912440000009a000d000000044d514e5400000002343300000005302e3538360000001a313937302d30312d30312030303a30303a30302e31313030303000000005302e333335000000053237303139ffffffffffffffff0000000232370000000174000000045045484e00000017323031352d30372d31322031323a35393a34372e3636350000001326fb2e42faf56e8f80e354b807b13257ff9aef44000000bb000d00000004575743430000000332313300000005302e3736370000001a313937302d30312d30312030303a30303a30302e31323030303000000005302e35383000000005313336343000000007343132313932330000001a323031352d30382d30362030323a32373a33302e3436393736320000000237330000000166000000045045484e00000017323031352d30342d33302030383a31383a31302e3435330000001271a7d5af11963708dd98ef54882aa2ade7d444000000a2000d00000004564647500000000331323000000005302e3834300000001a313937302d30312d30312030303a30303a30302e31333030303000000005302e373733000000043732323300000007373234313432330000001a323031352d31322d31382030373a33323a31382e34353630323500000002343300000001660000000456544a57ffffffff00000011244e44a80dfe27ec53135db215e7b8356744000000a9000d00000004524d44470000000331333400000005302e3131300000001a313937302d30312d30312030303a30303a30302e31343030303000000005302e30343300000005323132323700000007373135353730380000001a323031352d30372d30332030343a31323a34352e3737343238310000000234320000000174000000044350535700000017323031352d30322d32342031323a31303a34332e313939ffffffff44000000a5000d0000000457464f5100000003323535ffffffff0000001a313937302d30312d30312030303a30303a30302e31353030303000000005302e31313600000005333135363900000007363638383237370000001a323031352d30352d31392030333a33303a34352e373739393939000000033132360000000174000000045045484e00000017323031352d31322d30392030393a35373a31372e303738ffffffff440000008b000d000000044d58444b00000002353600000005312e3030300000001a313937302d30312d30312030303a30303a30302e31363030303000000005302e353233000000062d33323337320000000736383834313332ffffffff0000000235380000000166ffffffff00000017323031352d30312d32302030363a31383a31382e353833ffffffff44000000ae000d00000004584d4b4a0000000331333900000005302e3834310000001a313937302d30312d30312030303a30303a30302e31373030303000000005302e333036000000053235383536ffffffff0000001a323031352d30352d31382030333a35303a32322e373331343337000000013200000001740000000456544a5700000017323031352d30362d32352031303a34353a30312e3031340000000d007cfb0119caf2bf845a6f383544000000af000d0000000456494844ffffffffffffffff0000001a313937302d30312d30312030303a30303a30302e31383030303000000005302e35353000000005323232383000000007393130393834320000001a323031352d30312d32352031333a35313a33382e3237303538330000000239340000000166000000044350535700000017323031352d31302d32372030323a35323a31392e3933350000000e2d16f389a38364ded6fdc45bc4e944000000b0000d0000000457504e58ffffffff00000005302e3934370000001a313937302d30312d30312030303a30303a30302e31393030303000000005302e343135000000062d3137393333000000063637343236310000001a323031352d30332d30342031353a34333a31352e3231333638360000000234330000000174000000044859525800000017323031352d31322d31382032313a32383a32352e3332350000000ab34c0e8ff10cc560b7d144000000b0000d0000000459504f5600000002333600000005302e3637340000001a313937302d30312d30312030303a30303a30302e32303030303000000005302e303331000000052d3538383800000007313337353432330000001a323031352d31322d31302032303a35303a33352e38363636313400000001330000000174ffffffff00000017323031352d30372d32332032303a31373a30342e3233360000000dd4abbe30fa8dac3d98a0ad9a5d44000000b9000d000000044e55484effffffff00000005302e3639340000001a313937302d30312d30312030303a30303a30302e32313030303000000005302e333339000000062d323532323600000007333532343734380000001a323031352d30352d30372030343a30373a31382e31353239363800000002333900000001740000000456544a5700000017323031352d30342d30342031353a32333a33342e31333000000012b8bef8a146872892a39be3cbc2648ab035d8440000008e000d00000004424f53450000000332343000000005302e3036300000001a313937302d30312d30312030303a30303a30302e32323030303000000005302e33373900000005323339303400000007393036393333390000001a323031352d30332d32312030333a34323a34322e3634333138360000000238340000000174ffffffffffffffffffffffff44000000b8000d00000004494e4b470000000331323400000005302e3836320000001a313937302d30312d30312030303a30303a30302e32333030303000000005302e343034000000062d333033383300000007373233333534320000001a323031352d30372d32312031363a34323a34372e3031323134380000000239390000000166ffffffff00000017323031352d30382d32372031373a32353a33352e3330380000001287fc9283fc88f3322770c801b0dcc93a5b7e44000000a4000d000000044655584300000002353200000005302e3734330000001a313937302d30312d30312030303a30303a30302e323430303030ffffffff000000062d313437323900000007313034323036340000001a323031352d30382d32312030323a31303a35382e3934393637340000000232380000000174000000044350535700000017323031352d30382d32392032303a31353a35312e383335ffffffff44000000b1000d00000004554e595100000002373100000005302e3434320000001a313937302d30312d30312030303a30303a30302e32353030303000000005302e353339000000062d3232363131ffffffff0000001a323031352d31322d32332031383a34313a34322e3331393835390000000239380000000174000000045045484e00000017323031352d30312d32362030303a35353a35302e3230320000000f28ed9799d877333fb267da984747bf44000000a3000d000000044b424d51ffffffff00000005302e3238300000001a313937302d30312d30312030303a30303a30302e323630303030ffffffff000000053132323430ffffffff0000001a323031352d30382d31362030313a30323a35352e3736363632320000000232310000000166ffffffff00000017323031352d30352d31392030303a34373a31382e3639380000000d6ade4604d381e7a21622353b1c4400000091000d000000044a534f4c00000003323433ffffffff0000001a313937302d30312d30312030303a30303a30302e32373030303000000005302e303638000000062d3137343638ffffffffffffffff0000000232300000000174ffffffff00000017323031352d30362d31392031303a33383a35342e343833000000113de02d0486e7ca29980769ca5bd6cf0969440000007f000d00000004484e535300000003313530ffffffff0000001a313937302d30312d30312030303a30303a30302e32383030303000000005302e3134380000000531343834310000000735393932343433ffffffff0000000232350000000166000000045045484effffffff0000000c14d6fcee032281b806c406af44000000b4000d00000004505a50420000000331303100000005302e3036320000001a313937302d30312d30312030303a30303a30302e323930303030ffffffff00000005313232333700000007393837383137390000001a323031352d30392d30332032323a31333a31382e38353234363500000002373900000001660000000456544a5700000017323031352d31322d31372031353a31323a35342e3935380000001012613a9aad982e7552ad62878845b99d44000000b6000d000000044f594e4e00000002323500000005302e3333390000001a313937302d30312d30312030303a30303a30302e33303030303000000005302e36323800000005323234313200000007343733363337380000001a323031352d31302d31302031323a31393a34322e353238323234000000033130360000000174000000044350535700000017323031352d30372d30312030303a32333a34392e3738390000000d54133fffb67ecd0427669489db4400000076000dffffffff0000000331313700000005302e3536340000001a313937302d30312d30312030303a30303a30302e333130303030ffffffff000000052d353630340000000736333533303138ffffffff0000000238340000000166ffffffffffffffff0000000b2bad2507db6244336e008e440000008b000d00000004485652490000000332333300000005302e3232340000001a313937302d30312d30312030303a30303a30302e33323030303000000005302e3432350000000531303436390000000731373135323133ffffffff0000000238360000000166ffffffff00000017323031352d30322d30322030353a34383a31372e333733ffffffff44000000a9000d000000044f59544f00000002393600000005302e3734310000001a313937302d30312d30312030303a30303a30302e33333030303000000005302e353238000000062d313232333900000007333439393632300000001a323031352d30322d30372032323a33353a30332e3231323236380000000231370000000166000000045045484e00000017323031352d30332d32392031323a35353a31312e363832ffffffff4400000098000d000000044c46435900000002363300000005302e3732320000001a313937302d30312d30312030303a30303a30302e333430303030ffffffff0000000532333334340000000739353233393832ffffffff000000033132330000000166000000044350535700000017323031352d30352d31382030343a33353a32372e3232380000000e05e5c04eccd6e37b34cd1535bba444000000b4000d0000000447484c580000000331343800000005302e3330360000001a313937302d30312d30312030303a30303a30302e33353030303000000005302e363336000000062d333134353700000007323332323333370000001a323031352d31302d32322031323a30363a30352e3534343730310000000239310000000174000000044859525800000017323031352d30352d32312030393a33333a31382e3135380000000a571d91723004b702cb0344000000a4000d000000045954535a00000003313233ffffffff0000001a313937302d30312d30312030303a30303a30302e33363030303000000005302e35313900000005323235333400000007343434363233360000001a323031352d30372d32372030373a32333a33372e3233333731310000000235330000000166000000044350535700000017323031352d30312d31332030343a33373a31302e303336ffffffff44000000a3000d0000000453574c5500000003323531ffffffff0000001a313937302d30312d30312030303a30303a30302e33373030303000000005302e313739000000043737333400000007343038323437350000001a323031352d31302d32312031383a32343a33342e3430303334350000000236390000000166000000045045484e00000017323031352d30342d30312031343a33333a34322e303035ffffffff44000000b1000d0000000454514a4c00000003323435ffffffff0000001a313937302d30312d30312030303a30303a30302e33383030303000000005302e3836350000000439353136000000063932393334300000001a323031352d30352d32382030343a31383a31382e36343035363700000002363900000001660000000456544a5700000017323031352d30362d31322032303a31323a32382e3838310000000f6c3e51d7ebb10771321faf404e8c47440000009e000d000000045245494a000000023934ffffffff0000001a313937302d30312d30312030303a30303a30302e33393030303000000005302e313330000000062d3239393234ffffffff0000001a323031352d30332d32302032323a31343a34362e323034373138000000033131330000000174000000044859525800000017323031352d31322d31392031333a35383a34312e383139ffffffff44000000b5000d000000044844485100000002393400000005302e3732330000001a313937302d30312d30312030303a30303a30302e34303030303000000005302e373330000000053139393730000000063635343133310000001a323031352d30312d31302032323a35363a30382e3438303435300000000238340000000174ffffffff00000017323031352d30332d30352031373a31343a34382e323735000000124f566b65a45338e9cdc1a7ee8675ada52d4944000000a9000d00000004554d455500000002343000000005302e3030380000001a313937302d30312d30312030303a30303a30302e34313030303000000005302e383035000000062d313136323300000007343539393836320000001a323031352d31312d32302030343a30323a34342e3333353934370000000237360000000166000000045045484e00000017323031352d30352d31372031373a33333a32302e393232ffffffff44000000ad000d00000004594a494800000003313834ffffffff0000001a313937302d30312d30312030303a30303a30302e34323030303000000005302e33383300000005313736313400000007333130313637310000001a323031352d30312d32382031323a30353a34362e363833303031000000033130350000000174ffffffff00000017323031352d31322d30372031393a32343a33362e3833380000000cec69cd73bb9bc595db6191ce4400000096000d000000044359584700000002323700000005302e3239320000001a313937302d30312d30312030303a30303a30302e34333030303000000005302e393533000000043339343400000006323439313635ffffffff0000000236370000000174ffffffff00000017323031352d30332d30322030383a31393a34342e3536360000000e0148153e0c7f3f8fe4b5ab34212944000000a6000d000000044d5254470000000331343300000005302e3032360000001a313937302d30312d30312030303a30303a30302e34343030303000000005302e393433000000062d323733323000000007313636373834320000001a323031352d30312d32342031393a35363a31352e3937333130390000000231310000000166ffffffff00000017323031352d30312d32342030373a31353a30322e373732ffffffff44000000b7000d00000004444f4e500000000332343600000005302e3635340000001a313937302d30312d30312030303a30303a30302e34353030303000000005302e35353600000005323734373700000007343136303031380000001a323031352d31322d31342030333a34303a30352e3931313833390000000232300000000174000000045045484e00000017323031352d31302d32392031343a33353a31302e3136370000000e079201f56aa131cdcbc2a2b48e9944000000b6000d00000004495158530000000332333200000005302e3233310000001a313937302d30312d30312030303a30303a30302e34363030303000000005302e303439000000062d313831313300000007343030353232380000001a323031352d30362d31312031333a30303a30372e32343831383800000001380000000174000000044350535700000017323031352d30382d31362031313a30393a32342e3331310000000dfa1f9224b1b8676508b7f8410044000000b1000dffffffff00000003313738ffffffff0000001a313937302d30312d30312030303a30303a30302e34373030303000000005302e393033000000062d313436323600000007323933343537300000001a323031352d30342d30342030383a35313a35342e3036383135340000000238380000000174ffffffff00000017323031352d30372d30312030343a33323a32332e30383300000014843625632b6361431c477db646babb98ca08bea444000000a4000d000000044855575a00000002393400000005302e3131300000001a313937302d30312d30312030303a30303a30302e34383030303000000005302e343230000000052d3337333600000007353638373531340000001a323031352d30312d30322031373a31383a30352e3632373633330000000237340000000166ffffffff00000017323031352d30332d32392030363a33393a31312e363432ffffffff440000009d000d000000045352454400000002363600000005302e3131330000001a313937302d30312d30312030303a30303a30302e34393030303000000005302e303630000000062d313035343300000007333636393337370000001a323031352d31302d32322030323a35333a30322e3338313335310000000237370000000174000000045045484effffffff0000000b7c3fd6883a93ef24a5e2bc\n" +
                 "<430000019f73656c65637420726e645f73747228342c342c342920732c20726e645f696e7428302c203235362c20342920692c20726e645f646f75626c6528342920642c2074696d657374616d705f73657175656e636528746f5f74696d657374616d702830292c31303030302920742c20726e645f666c6f617428342920662c20726e645f73686f72742829205f73686f72742c20726e645f6c6f6e6728302c2031303030303030302c203529206c2c20726e645f74696d657374616d7028746f5f74696d657374616d70282732303135272c277979797927292c746f5f74696d657374616d70282732303136272c277979797927292c3229207473322c20726e645f6279746528302c313237292062622c20726e645f626f6f6c65616e282920622c20726e645f73796d626f6c28342c342c342c32292c20726e645f6461746528746f5f64617465282732303135272c20277979797927292c20746f5f64617465282732303136272c20277979797927292c2032292c726e645f62696e2831302c32302c32292066726f6d206c6f6e675f73657175656e636528353029005a0000000549\n" +
                 ">5800000004\n";
@@ -1533,93 +2028,93 @@ public class PGJobContextTest extends AbstractGriffinTest {
                 ">70000000076f6800\n" +
                 "<520000000800000000530000001154696d655a6f6e6500474d5400530000001d6170706c69636174696f6e5f6e616d6500517565737444420053000000187365727665725f76657273696f6e0031312e33005300000019696e74656765725f6461746574696d6573006f6e005a0000000549\n" +
                 ">5000000022005345542065787472615f666c6f61745f646967697473203d2033000000420000000c0000000000000000450000000900000000015300000004\n" +
-                "<31000000045a0000000549\n" +
+                "<31000000043200000004430000001f5345542065787472615f666c6f61745f646967697473203d2033005a0000000549\n" +
                 ">500000003700534554206170706c69636174696f6e5f6e616d65203d2027506f737467726553514c204a4442432044726976657227000000420000000c0000000000000000450000000900000000015300000004\n" +
-                "<31000000045a0000000549\n" +
+                "<310000000432000000044300000034534554206170706c69636174696f6e5f6e616d65203d2027506f737467726553514c204a4442432044726976657227005a0000000549\n" +
                 ">500000002a0073656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
-                "<54000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
+                "<3100000004320000000454000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
                 "<44000000150003000000013100000001320000000133\n" +
                 "<430000002773656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129005a0000000549\n" +
                 ">50000000260073656c65637420312066726f6d206c6f6e675f73657175656e6365283229000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
-                "<540000001a00013100000000000000000000170000000000000000\n" +
+                "<31000000043200000004540000001a00013100000000000000000000170000000000000000\n" +
                 "<440000000b00010000000131440000000b00010000000131\n" +
                 "<430000002373656c65637420312066726f6d206c6f6e675f73657175656e6365283229005a0000000549\n" +
                 ">500000002a0073656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
-                "<54000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
+                "<3100000004320000000454000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
                 "<44000000150003000000013100000001320000000133\n" +
                 "<430000002773656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129005a0000000549\n" +
                 ">50000000260073656c65637420312066726f6d206c6f6e675f73657175656e6365283229000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
-                "<540000001a00013100000000000000000000170000000000000000\n" +
+                "<31000000043200000004540000001a00013100000000000000000000170000000000000000\n" +
                 "<440000000b00010000000131440000000b00010000000131\n" +
                 "<430000002373656c65637420312066726f6d206c6f6e675f73657175656e6365283229005a0000000549\n" +
                 ">500000002a0073656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
-                "<54000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
+                "<3100000004320000000454000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
                 "<44000000150003000000013100000001320000000133\n" +
                 "<430000002773656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129005a0000000549\n" +
                 ">50000000260073656c65637420312066726f6d206c6f6e675f73657175656e6365283229000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
-                "<540000001a00013100000000000000000000170000000000000000\n" +
+                "<31000000043200000004540000001a00013100000000000000000000170000000000000000\n" +
                 "<440000000b00010000000131440000000b00010000000131\n" +
                 "<430000002373656c65637420312066726f6d206c6f6e675f73657175656e6365283229005a0000000549\n" +
                 ">500000002a0073656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
-                "<54000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
+                "<3100000004320000000454000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
                 "<44000000150003000000013100000001320000000133\n" +
                 "<430000002773656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129005a0000000549\n" +
                 ">50000000260073656c65637420312066726f6d206c6f6e675f73657175656e6365283229000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
-                "<540000001a00013100000000000000000000170000000000000000\n" +
+                "<31000000043200000004540000001a00013100000000000000000000170000000000000000\n" +
                 "<440000000b00010000000131440000000b00010000000131\n" +
                 "<430000002373656c65637420312066726f6d206c6f6e675f73657175656e6365283229005a0000000549\n" +
                 ">500000002d535f310073656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129000000420000000f00535f310000000000000044000000065000450000000900000000005300000004\n" +
-                "<54000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
+                "<3100000004320000000454000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
                 "<44000000150003000000013100000001320000000133\n" +
                 "<430000002773656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129005a0000000549\n" +
                 ">430000000953535f310050000000260073656c65637420312066726f6d206c6f6e675f73657175656e6365283229000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
                 "<3300000004\n" +
-                "<540000001a00013100000000000000000000170000000000000000\n" +
+                "<31000000043200000004540000001a00013100000000000000000000170000000000000000\n" +
                 "<440000000b00010000000131440000000b00010000000131\n" +
                 "<430000002373656c65637420312066726f6d206c6f6e675f73657175656e6365283229005a0000000549\n" +
                 ">500000002d535f320073656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129000000420000000f00535f320000000000000044000000065000450000000900000000005300000004\n" +
-                "<54000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
+                "<3100000004320000000454000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
                 "<44000000150003000000013100000001320000000133\n" +
                 "<430000002773656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129005a0000000549\n" +
                 ">430000000953535f320050000000260073656c65637420312066726f6d206c6f6e675f73657175656e6365283229000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
                 "<3300000004\n" +
-                "<540000001a00013100000000000000000000170000000000000000\n" +
+                "<31000000043200000004540000001a00013100000000000000000000170000000000000000\n" +
                 "<440000000b00010000000131440000000b00010000000131\n" +
                 "<430000002373656c65637420312066726f6d206c6f6e675f73657175656e6365283229005a0000000549\n" +
                 ">500000002d535f330073656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129000000420000000f00535f330000000000000044000000065000450000000900000000005300000004\n" +
-                "<54000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
+                "<3100000004320000000454000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
                 "<44000000150003000000013100000001320000000133\n" +
                 "<430000002773656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129005a0000000549\n" +
                 ">430000000953535f330050000000260073656c65637420312066726f6d206c6f6e675f73657175656e6365283229000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
                 "<3300000004\n" +
-                "<540000001a00013100000000000000000000170000000000000000\n" +
+                "<31000000043200000004540000001a00013100000000000000000000170000000000000000\n" +
                 "<440000000b00010000000131440000000b00010000000131\n" +
                 "<430000002373656c65637420312066726f6d206c6f6e675f73657175656e6365283229005a0000000549\n" +
                 ">500000002d535f340073656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129000000420000000f00535f340000000000000044000000065000450000000900000000005300000004\n" +
-                "<54000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
+                "<3100000004320000000454000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
                 "<44000000150003000000013100000001320000000133\n" +
                 "<430000002773656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129005a0000000549\n" +
                 ">430000000953535f340050000000260073656c65637420312066726f6d206c6f6e675f73657175656e6365283229000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
                 "<3300000004\n" +
-                "<540000001a00013100000000000000000000170000000000000000\n" +
+                "<31000000043200000004540000001a00013100000000000000000000170000000000000000\n" +
                 "<440000000b00010000000131440000000b00010000000131\n" +
                 "<430000002373656c65637420312066726f6d206c6f6e675f73657175656e6365283229005a0000000549\n" +
                 ">500000002d535f350073656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129000000420000000f00535f350000000000000044000000065000450000000900000000005300000004\n" +
-                "<54000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
+                "<3100000004320000000454000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
                 "<44000000150003000000013100000001320000000133\n" +
                 "<430000002773656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129005a0000000549\n" +
                 ">430000000953535f350050000000260073656c65637420312066726f6d206c6f6e675f73657175656e6365283229000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
                 "<3300000004\n" +
-                "<540000001a00013100000000000000000000170000000000000000\n" +
+                "<31000000043200000004540000001a00013100000000000000000000170000000000000000\n" +
                 "<440000000b00010000000131440000000b00010000000131\n" +
                 "<430000002373656c65637420312066726f6d206c6f6e675f73657175656e6365283229005a0000000549\n" +
                 ">500000002d535f360073656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129000000420000000f00535f360000000000000044000000065000450000000900000000005300000004\n" +
-                "<54000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
+                "<3100000004320000000454000000420003310000000000000000000017000000000000000032000000000000000000001700000000000000003300000000000000000000170000000000000000\n" +
                 "<44000000150003000000013100000001320000000133\n" +
                 "<430000002773656c65637420312c322c332066726f6d206c6f6e675f73657175656e6365283129005a0000000549\n" +
                 ">430000000953535f360050000000260073656c65637420312066726f6d206c6f6e675f73657175656e6365283229000000420000000c000000000000000044000000065000450000000900000000005300000004\n" +
                 "<3300000004\n" +
-                "<540000001a00013100000000000000000000170000000000000000\n" +
+                "<31000000043200000004540000001a00013100000000000000000000170000000000000000\n" +
                 "<440000000b00010000000131440000000b00010000000131\n" +
                 "<430000002373656c65637420312066726f6d206c6f6e675f73657175656e6365283229005a0000000549\n" +
                 ">5800000004\n", configuration);
@@ -1759,7 +2254,13 @@ public class PGJobContextTest extends AbstractGriffinTest {
 
                 LOG.info().$("listening [fd=").$(fd).$(']').$();
 
-                try (PGJobContext PGJobContext = new PGJobContext(configuration, engine)) {
+                try (
+                        PGJobContext PGJobContext = new PGJobContext(configuration, engine);
+                        ConcurrentAssociativeCache<RecordCursorFactory> factoryCache = new ConcurrentAssociativeCache<>(
+                                configuration.getFactoryCacheColumnCount(),
+                                configuration.getFactoryCacheRowCount()
+                        )
+                ) {
                     SharedRandom.RANDOM.set(new Rnd());
                     try {
                         barrier.await();
@@ -1768,7 +2269,7 @@ public class PGJobContextTest extends AbstractGriffinTest {
                     }
                     final long clientFd = Net.accept(fd);
                     nf.configureNonBlocking(clientFd);
-                    try (PGConnectionContext context = new PGConnectionContext(configuration)) {
+                    try (PGConnectionContext context = new PGConnectionContext(configuration, factoryCache)) {
                         context.of(clientFd);
                         LOG.info().$("connected [clientFd=").$(clientFd).$(']').$();
                         while (running.get()) {
@@ -31,7 +31,10 @@ import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cutlass.json.JsonLexer;
 import io.questdb.griffin.AbstractGriffinTest;
 import io.questdb.griffin.SqlException;
+import io.questdb.mp.WorkerPool;
+import io.questdb.mp.WorkerPoolConfiguration;
 import io.questdb.std.Files;
+import io.questdb.std.Rnd;
 import io.questdb.std.Unsafe;
 import io.questdb.std.str.Path;
 import io.questdb.std.time.DateLocale;
@@ -1539,6 +1542,54 @@ public class TextLoaderTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testParseMappedChunkSmallerThanLine() throws Exception {
+        assertParseMapped(generateText(500), 4);
+    }
+
+    @Test
+    public void testParseMappedParallel() throws Exception {
+        final String text = generateText(3000);
+        assertParseMapped(text, 64);
+        assertParseMapped(text, 1024);
+    }
+
+    @Test
+    public void testParseMappedQuotedLineEnds() throws Exception {
+        final String expected = "f0\tf1\tf2\tf3\tf4\tf5\tf6\n" +
+                "123\tabc\t2015-01-20T21:00:00.000Z\t3.141500000000\ttrue\tLorem ipsum dolor sit amet.\t122\n" +
+                "124\tabc\t2015-01-20T21:00:00.000Z\t7.342000000000\tfalse\tLorem ipsum \n" +
+                "\n" +
+                "dolor \"sit\" amet.\t546756\n" +
+                "125\tabc\t2015-01-20T21:00:00.000Z\t9.334000000000\tfalse\tLorem ipsum \"dolor\" sit amet.\t23\n" +
+                "126\tabc\t2015-01-20T21:00:00.000Z\t1.345000000000\ttrue\tLorem, ipsum, dolor sit amet.\t434\n" +
+                "127\tabc\t2015-01-20T21:00:00.000Z\t1.533210000000\ttrue\tLorem ipsum dolor sit amet.\t112\n" +
+                "128\tabc\t2015-01-20T21:00:00.000Z\t2.456000000000\ttrue\tLorem ipsum dolor sit amet.\t122\n";
+
+        final String csv = "123\tabc\t2015-01-20T21:00:00.000Z\t3.1415\tTRUE\tLorem ipsum dolor sit amet.\t122\n" +
+                "124\tabc\t2015-01-20T21:00:00.000Z\t7.342\tFALSE\t\"Lorem ipsum \n" +
+                "\n" +
+                "dolor \"\"sit\"\" amet.\"\t546756\n" +
+                "125\tabc\t2015-01-20T21:00:00.000Z\t9.334\t\t\"Lorem ipsum \"\"dolor\"\" sit amet.\"\t23\n" +
+                "126\tabc\t2015-01-20T21:00:00.000Z\t1.345\tTRUE\t\"Lorem, ipsum, dolor sit amet.\"\t434\n" +
+                "120\tabc\t2015-01-20T21:00:00.000Z\t1.345\tTRUE\t\"Lorem, ipsum, dolor sit amet.\"\t434\tasdfasdf\tasdfasdf\tasdfasd\n" +
+                "127\tabc\t2015-01-20T21:00:00.000Z\t1.53321\tTRUE\tLorem ipsum dolor sit amet.\t112\n" +
+                "128\tabc\t2015-01-20T21:00:00.000Z\t2.456\tTRUE\tLorem ipsum dolor sit amet.\t122";
+
+        for (int chunkSize = 1; chunkSize < 64; chunkSize += 7) {
+            final int size = chunkSize;
+            assertParallel(engine -> {
+                try (TextLoader textLoader = new TextLoader(engine)) {
+                    configureLoaderDefaults(textLoader, (byte) -1, Atomicity.SKIP_ROW, true);
+                    playMapped(textLoader, csv, size);
+                    Assert.assertEquals(6, textLoader.getParsedLineCount());
+                    Assert.assertEquals(6, textLoader.getWrittenLineCount());
+                }
+            });
+            assertTable(expected);
+        }
+    }
+
     @Test
     public void testReduceLinesForStats() throws Exception {
         final TextConfiguration textConfiguration = new DefaultTextConfiguration() {
@@ -2223,6 +2274,111 @@ public class TextLoaderTest extends AbstractGriffinTest {
         });
     }
 
+    private static String generateText(int rowCount) {
+        final Rnd rnd = new Rnd();
+        final StringBuilder b = new StringBuilder();
+        b.append("id,name,price,flag,ts,comment\n");
+        for (int i = 0; i < rowCount; i++) {
+            // bad integers exercise conversion errors, they are left out of analysed lines
+            if (i > 20 && i % 97 == 0) {
+                b.append("bad");
+            } else {
+                b.append(i);
+            }
+            b.append(',').append(rnd.nextString(rnd.nextPositiveInt() % 10 + 1));
+            b.append(',').append(rnd.nextPositiveInt() % 100000 / 100.0);
+            b.append(',').append(rnd.nextBoolean());
+            b.append(",2020-01-0").append(1 + i % 9).append("T10:00:00.000Z,");
+            switch (i % 4) {
+                case 0:
+                    b.append("plain");
+                    break;
+                case 1:
+                    b.append("\"quoted, with comma\"");
+                    break;
+                case 2:
+                    b.append("\"line\nbreak and \"\"quotes\"\"\"");
+                    break;
+                default:
+                    break;
+            }
+            b.append('\n');
+        }
+        return b.toString();
+    }
+
+    private void assertParallel(ParallelCode code) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public long getIdleCheckInterval() {
+                    // keep pool maintenance off worker threads, their log buffers are never released
+                    return Long.MAX_VALUE / 1000;
+                }
+            };
+            final WorkerPool pool = new WorkerPool(new WorkerPoolConfiguration() {
+                @Override
+                public int[] getWorkerAffinity() {
+                    return new int[]{-1, -1};
+                }
+
+                @Override
+                public int getWorkerCount() {
+                    return 2;
+                }
+
+                @Override
+                public boolean haltOnError() {
+                    return false;
+                }
+            });
+
+            try (CairoEngine engine = new CairoEngine(configuration, new DefaultCairoWorkScheduler(configuration, pool))) {
+                pool.start(null);
+                try {
+                    code.run(engine);
+                } finally {
+                    pool.halt();
+                }
+                Assert.assertEquals(0, engine.getBusyWriterCount());
+                Assert.assertEquals(0, engine.getBusyReaderCount());
+            }
+        });
+    }
+
+    private void assertParseMapped(String text, int chunkSize) throws Exception {
+        // sequential load by engine without workers is the reference
+        final String expected;
+        final long expectedErrorCount;
+        try (TextLoader textLoader = new TextLoader(engine)) {
+            configureLoaderDefaults(textLoader, (byte) -1, Atomicity.SKIP_ROW, true);
+            playMapped(textLoader, text, chunkSize);
+            expectedErrorCount = textLoader.getColumnErrorCounts().getQuick(0);
+            Assert.assertTrue(expectedErrorCount > 0);
+        }
+        engine.releaseAllWriters();
+        engine.releaseAllReaders();
+        try (
+                RecordCursorFactory factory = compiler.compile("test").getRecordCursorFactory();
+                RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+        ) {
+            sink.clear();
+            printer.print(cursor, factory.getMetadata(), true);
+            expected = sink.toString();
+        }
+        engine.releaseAllReaders();
+
+        assertParallel(engine -> {
+            try (TextLoader textLoader = new TextLoader(engine)) {
+                configureLoaderDefaults(textLoader, (byte) -1, Atomicity.SKIP_ROW, true);
+                playMapped(textLoader, text, chunkSize);
+                Assert.assertEquals(expectedErrorCount, textLoader.getColumnErrorCounts().getQuick(0));
+            }
+        });
+        assertTable(expected);
+        engine.releaseAllReaders();
+    }
+
     private void assertTable(String expected) throws SqlException {
         try (
                 RecordCursorFactory factory = compiler.compile("test").getRecordCursorFactory();
@@ -2277,6 +2433,21 @@ public class TextLoaderTest extends AbstractGriffinTest {
         }
     }
 
+    private void playMapped(TextLoader textLoader, String text, int chunkSize) throws TextException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        int len = bytes.length;
+        long buf = Unsafe.malloc(len);
+        try {
+            for (int i = 0; i < len; i++) {
+                Unsafe.getUnsafe().putByte(buf + i, bytes[i]);
+            }
+            textLoader.parseMapped(buf, buf + len, 200, chunkSize, AllowAllCairoSecurityContext.INSTANCE);
+            textLoader.wrapUp();
+        } finally {
+            Unsafe.free(buf, len);
+        }
+    }
+
     private void playText(
             TextLoader textLoader,
             String text,
@@ -2389,6 +2560,11 @@ public class TextLoaderTest extends AbstractGriffinTest {
         byte translate(int index, int len, byte b);
     }
 
+    @FunctionalInterface
+    private interface ParallelCode {
+        void run(CairoEngine engine) throws Exception;
+    }
+
     @FunctionalInterface
     private interface TestCode {
         void run(TextLoader textLoader) throws Exception;
@@ -0,0 +1,235 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.RecordCursorPrinter;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.sql.InsertMethod;
+import io.questdb.cairo.sql.InsertStatement;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.griffin.engine.functions.rnd.SharedRandom;
+import io.questdb.std.Rnd;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static io.questdb.griffin.CompiledQuery.ALTER;
+
+public class AlterTableAddIndexTest extends AbstractGriffinTest {
+
+    @Before
+    public void setUp3() {
+        SharedRandom.RANDOM.set(new Rnd());
+    }
+
+    @Test
+    public void testAddIndex() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try {
+                createX();
+
+                final String query = "x where sym = 'ibm'";
+                final String expected = print(query);
+
+                Assert.assertEquals(ALTER, compiler.compile("alter table x alter column sym add index capacity 300", sqlExecutionContext).getType());
+
+                try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "x")) {
+                    final int columnIndex = reader.getMetadata().getColumnIndex("sym");
+                    Assert.assertTrue(reader.getMetadata().isColumnIndexed(columnIndex));
+                    Assert.assertEquals(512, reader.getMetadata().getIndexValueBlockCapacity(columnIndex));
+                }
+
+                TestUtils.assertEquals(expected, print(query));
+
+                // rows appended after index is built
+                try (
+                        InsertStatement insertStatement = compiler.compile("insert into x values (201, 'ibm', 1.5, to_timestamp('2018-01-10', 'yyyy-MM-dd'))", sqlExecutionContext).getInsertStatement();
+                        InsertMethod method = insertStatement.createMethod(sqlExecutionContext)
+                ) {
+                    method.execute();
+                    method.commit();
+                }
+                TestUtils.assertEquals(
+                        expected + "201\tibm\t1.500000000000\t2018-01-10T00:00:00.000000Z\n",
+                        print(query)
+                );
+            } finally {
+                engine.releaseAllReaders();
+                engine.releaseAllWriters();
+            }
+        });
+    }
+
+    @Test
+    public void testAddIndexBadCapacity() throws Exception {
+        assertFailure("alter table x alter column sym add index capacity abc", 50, "numeric capacity expected");
+    }
+
+    @Test
+    public void testAddIndexBadSyntax() throws Exception {
+        assertFailure("alter table x alter column sym add index xyz", 41, "unexpected token: xyz");
+    }
+
+    @Test
+    public void testAddIndexExpectAddKeyword() throws Exception {
+        assertFailure("alter table x alter column sym", 30, "'add' expected");
+    }
+
+    @Test
+    public void testAddIndexExpectColumnKeyword() throws Exception {
+        assertFailure("alter table x alter", 19, "'column' expected");
+    }
+
+    @Test
+    public void testAddIndexExpectIndexKeyword() throws Exception {
+        assertFailure("alter table x alter column sym add", 34, "'index' expected");
+    }
+
+    @Test
+    public void testAddIndexInvalidColumn() throws Exception {
+        assertFailure("alter table x alter column z add index", 27, "Invalid column: z");
+    }
+
+    @Test
+    public void testAddIndexNotSymbol() throws Exception {
+        assertFailure("alter table x alter column i add index", 27, "indexes are supported only for SYMBOL columns");
+    }
+
+    @Test
+    public void testAddIndexPacked() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public boolean isIndexPackingEnabled() {
+                    return true;
+                }
+            };
+            try (
+                    CairoEngine engine = new CairoEngine(configuration);
+                    SqlCompiler compiler = new SqlCompiler(engine)
+            ) {
+                createX(compiler);
+
+                final String query = "x where sym = 'ibm'";
+                final String expected = print(compiler, query);
+
+                compiler.compile("alter table x alter column sym add index capacity 4", sqlExecutionContext);
+                TestUtils.assertEquals(expected, print(compiler, query));
+
+                // rows appended to existing index and to index of new partition
+                try (
+                        InsertStatement insertStatement = compiler.compile("insert into x values (201, 'ibm', 1.5, to_timestamp('2018-01-10', 'yyyy-MM-dd'))", sqlExecutionContext).getInsertStatement();
+                        InsertMethod method = insertStatement.createMethod(sqlExecutionContext)
+                ) {
+                    method.execute();
+                    method.commit();
+                }
+                compiler.compile("insert into x select * from (select" +
+                        " to_int(x + 201) i," +
+                        " rnd_symbol('msft','ibm', 'googl') sym," +
+                        " round(rnd_double(0)*100, 3) amt," +
+                        " timestamp_sequence(to_timestamp('2018-01-10', 'yyyy-MM-dd'), 60000000) ts" +
+                        " from long_sequence(2000)) timestamp(ts)", sqlExecutionContext);
+
+                final String all = print(compiler, "x where sym = 'ibm' or i < 0");
+                Assert.assertTrue(all.startsWith(expected + "201\tibm\t1.500000000000\t2018-01-10T00:00:00.000000Z\n"));
+                TestUtils.assertEquals(all, print(compiler, query));
+            }
+        });
+    }
+
+    @Test
+    public void testAddIndexTwice() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try {
+                createX();
+                compiler.compile("alter table x alter column sym add index", sqlExecutionContext);
+                compiler.compile("alter table x alter column sym add index", sqlExecutionContext);
+                Assert.fail();
+            } catch (SqlException e) {
+                Assert.assertEquals(27, e.getPosition());
+                TestUtils.assertContains(e.getFlyweightMessage(), "column 'sym' is already indexed");
+            } finally {
+                engine.releaseAllReaders();
+                engine.releaseAllWriters();
+            }
+        });
+    }
+
+    private void assertFailure(String sql, int position, String message) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try {
+                createX();
+                compiler.compile(sql, sqlExecutionContext);
+                Assert.fail();
+            } catch (SqlException e) {
+                Assert.assertEquals(position, e.getPosition());
+                TestUtils.assertContains(e.getFlyweightMessage(), message);
+            }
+
+            engine.releaseAllReaders();
+            engine.releaseAllWriters();
+        });
+    }
+
+    private void createX() throws SqlException {
+        createX(compiler);
+    }
+
+    private void createX(SqlCompiler compiler) throws SqlException {
+        compiler.compile(
+                "create table x as (" +
+                        "select" +
+                        " to_int(x) i," +
+                        " rnd_symbol('msft','ibm', 'googl') sym," +
+                        " round(rnd_double(0)*100, 3) amt," +
+                        " timestamp_sequence(to_timestamp('2018-01', 'yyyy-MM'), 3600000000) timestamp" +
+                        " from long_sequence(200)" +
+                        ") timestamp (timestamp) partition by DAY",
+                sqlExecutionContext
+        );
+    }
+
+    private String print(CharSequence query) throws SqlException {
+        return print(compiler, query);
+    }
+
+    private String print(SqlCompiler compiler, CharSequence query) throws SqlException {
+        final StringSink sink = new StringSink();
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                new RecordCursorPrinter(sink).print(cursor, factory.getMetadata(), true);
+            }
+        }
+        return sink.toString();
+    }
+}
@@ -0,0 +1,188 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.engine.functions.rnd.SharedRandom;
+import io.questdb.std.Rnd;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+
+public class HashJoinSpillTest extends AbstractGriffinTest {
+
+    @Before
+    public void setUp3() {
+        SharedRandom.RANDOM.set(new Rnd());
+    }
+
+    @Test
+    public void testCompositeKey() throws Exception {
+        assertSpilled("select x.i, x.s, x.v, y.v from x join y on (i, s)", false);
+    }
+
+    @Test
+    public void testCompositeKeyFullFat() throws Exception {
+        assertSpilled("select x.i, x.s, x.v, y.v from x join y on (i, s)", true);
+    }
+
+    @Test
+    public void testIntKey() throws Exception {
+        assertSpilled("select x.i, x.v, y.v, y.t from x join y on (i)", false);
+    }
+
+    @Test
+    public void testIntKeyFullFat() throws Exception {
+        assertSpilled("select x.i, x.v, y.v, y.t from x join y on (i)", true);
+    }
+
+    @Test
+    public void testStringKey() throws Exception {
+        assertSpilled("select x.s, x.v, y.s, y.v from x join y on (s)", false);
+    }
+
+    @Test
+    public void testStringKeyFullFat() throws Exception {
+        assertSpilled("select x.s, x.v, y.s, y.v from x join y on (s)", true);
+    }
+
+    @Test
+    public void testSymbolKey() throws Exception {
+        assertSpilled("select x.k, x.v, y.k, y.v from x join y on (k)", false);
+    }
+
+    @Test
+    public void testSymbolKeyFullFat() throws Exception {
+        assertSpilled("select x.k, x.v, y.k, y.v from x join y on (k)", true);
+    }
+
+    private static int countSpillFiles(CairoConfiguration configuration) {
+        final String[] files = new File(configuration.getSqlSpillRoot().toString()).list();
+        if (files == null) {
+            return 0;
+        }
+        int count = 0;
+        for (int i = 0; i < files.length; i++) {
+            if (files[i].startsWith("join-")) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static String print(SqlCompiler compiler, CharSequence query, CairoConfiguration spillConfiguration) throws SqlException {
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            final String[] first;
+            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                if (spillConfiguration != null) {
+                    // master and slave partitions
+                    Assert.assertEquals(2 * spillConfiguration.getSqlHashJoinSpillPartitionCount(), countSpillFiles(spillConfiguration));
+                }
+                first = print(cursor, factory);
+                // rewound cursor returns the same rows
+                cursor.toTop();
+                Assert.assertArrayEquals(first, print(cursor, factory));
+            }
+            if (spillConfiguration != null) {
+                Assert.assertEquals(0, countSpillFiles(spillConfiguration));
+            }
+            // spilled join returns rows grouped by partition
+            Arrays.sort(first);
+            return String.join("\n", first);
+        }
+    }
+
+    private static String[] print(RecordCursor cursor, RecordCursorFactory factory) {
+        sink.clear();
+        printer.print(cursor, factory.getMetadata(), false);
+        return sink.length() == 0 ? new String[0] : sink.toString().split("\n");
+    }
+
+    private void assertSpilled(String query, boolean fullFat) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public long getSqlHashJoinSpillThreshold() {
+                    return 1024;
+                }
+
+                @Override
+                public int getSqlHashJoinSpillPartitionCount() {
+                    return 4;
+                }
+            };
+            try (
+                    CairoEngine spillEngine = new CairoEngine(configuration);
+                    SqlCompiler spillCompiler = new SqlCompiler(spillEngine)
+            ) {
+                try {
+                    compiler.compile(
+                            "create table x as (" +
+                                    "select" +
+                                    " rnd_int(0, 200, 0) i," +
+                                    " rnd_str(2, 2, 0) s," +
+                                    " rnd_symbol('a', 'b', 'c', 'd', 'e', 'f', 'g', 'h') k," +
+                                    " rnd_long() v" +
+                                    " from long_sequence(2000)" +
+                                    ")",
+                            sqlExecutionContext
+                    );
+                    compiler.compile(
+                            "create table y as (" +
+                                    "select" +
+                                    " rnd_int(0, 200, 0) i," +
+                                    " rnd_str(2, 2, 0) s," +
+                                    " rnd_symbol('a', 'b', 'c', 'd', 'e', 'f', 'g', 'h') k," +
+                                    " rnd_long() v," +
+                                    " rnd_timestamp(to_timestamp(0), to_timestamp(100000000000), 0) t" +
+                                    " from long_sequence(1000)" +
+                                    ")",
+                            sqlExecutionContext
+                    );
+
+                    compiler.setFullSatJoins(fullFat);
+                    spillCompiler.setFullSatJoins(fullFat);
+                    final String expected = print(compiler, query, null);
+                    Assert.assertTrue(expected.length() > 0);
+                    TestUtils.assertEquals(expected, print(spillCompiler, query, configuration));
+                } finally {
+                    compiler.setFullSatJoins(false);
+                    spillEngine.releaseAllWriters();
+                    spillEngine.releaseAllReaders();
+                    engine.releaseAllWriters();
+                    engine.releaseAllReaders();
+                }
+            }
+        });
+    }
+}
@@ -170,6 +170,53 @@ public class InsertTest extends AbstractGriffinTest {
 
     }
 
+    @Test
+    public void testInsertBatchRebindAfterClear() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            compiler.compile("create table balances(cust_id int, balance double)");
+
+            final BindVariableService bindVariableService = sqlExecutionContext.getBindVariableService();
+            bindVariableService.clear();
+            bindVariableService.setInt(0, 0);
+            bindVariableService.setDouble(1, 0);
+            CompiledQuery cq = compiler.compile("insert into balances values ($1, $2)", sqlExecutionContext);
+            Assert.assertEquals(CompiledQuery.INSERT, cq.getType());
+
+            try (InsertStatement insertStatement = cq.getInsertStatement()) {
+                try (InsertMethod method = insertStatement.createMethod(sqlExecutionContext)) {
+                    for (int i = 0; i < 3; i++) {
+                        // pgwire clears variables before every row of the batch
+                        bindVariableService.clear();
+                        bindVariableService.setInt(0, i);
+                        bindVariableService.setDouble(1, i * 10.5);
+                        method.execute();
+                    }
+                    method.commit();
+
+                    bindVariableService.clear();
+                    bindVariableService.setInt(0, 100);
+                    bindVariableService.setDouble(1, 100);
+                    method.execute();
+                    method.rollback();
+                }
+            }
+
+            assertQuery(
+                    "cust_id\tbalance\n" +
+                            "0\t0.000000000000\n" +
+                            "1\t10.500000000000\n" +
+                            "2\t21.000000000000\n",
+                    "balances",
+                    null,
+                    true
+            );
+
+            bindVariableService.clear();
+            engine.releaseAllWriters();
+            engine.releaseAllReaders();
+        });
+    }
+
     @Test
     public void testInsertNoTimestamp() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
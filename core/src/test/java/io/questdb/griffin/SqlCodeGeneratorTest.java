@@ -407,6 +407,43 @@ public class SqlCodeGeneratorTest extends AbstractGriffinTest {
                         "3.993124821273\t\n");
     }
 
+    @Test
+    public void testFilterOnPartitionStats() throws Exception {
+        assertQuery("i\tl\tk\n" +
+                        "14\t14\t1970-01-04T06:00:00.000000Z\n" +
+                        "15\t15\t1970-01-04T12:00:00.000000Z\n" +
+                        "16\t16\t1970-01-04T18:00:00.000000Z\n" +
+                        "17\t17\t1970-01-05T00:00:00.000000Z\n",
+                "select * from x where l > 13 and 18 > i",
+                "create table x as " +
+                        "(" +
+                        "select" +
+                        " x i," +
+                        " x l," +
+                        " timestamp_sequence(to_timestamp(0), 21600000000) k" +
+                        " from" +
+                        " long_sequence(20)" +
+                        "), cast(i as INT) timestamp(k) partition by DAY",
+                "k");
+    }
+
+    @Test
+    public void testFilterOnPartitionStatsEquals() throws Exception {
+        assertQuery("i\tl\tk\n" +
+                        "6\t6\t1970-01-02T06:00:00.000000Z\n",
+                "select * from x where i = 6 and 5 < l",
+                "create table x as " +
+                        "(" +
+                        "select" +
+                        " x i," +
+                        " x l," +
+                        " timestamp_sequence(to_timestamp(0), 21600000000) k" +
+                        " from" +
+                        " long_sequence(20)" +
+                        "), cast(i as INT) timestamp(k) partition by DAY",
+                "k");
+    }
+
     @Test
     public void testFilterOnSubQueryIndexed() throws Exception {
         final String expected = "a\tb\tk\n" +
@@ -33,6 +33,7 @@ import io.questdb.griffin.engine.functions.rnd.SharedRandom;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.std.Chars;
+import io.questdb.std.Files;
 import io.questdb.std.FilesFacade;
 import io.questdb.std.FilesFacadeImpl;
 import io.questdb.std.Rnd;
@@ -43,6 +44,7 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.TimeUnit;
@@ -1679,6 +1681,40 @@ public class SqlCompilerTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testCopyLocal() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final String fileName = root.toString() + Files.SEPARATOR + "copy.csv";
+            java.nio.file.Files.write(
+                    java.nio.file.Paths.get(fileName),
+                    ("a,b,c\n" +
+                            "1,\"x, y\",2020-01-01T00:00:00.000Z\n" +
+                            "2,\"multi\nline\",2020-01-02T00:00:00.000Z\n" +
+                            "3,z,2020-01-03T00:00:00.000Z").getBytes(StandardCharsets.UTF_8)
+            );
+            try {
+                compiler.compile("copy x from '" + fileName + "'");
+                try (
+                        RecordCursorFactory factory = compiler.compile("x").getRecordCursorFactory();
+                        RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+                ) {
+                    sink.clear();
+                    printer.print(cursor, factory.getMetadata(), true);
+                    TestUtils.assertEquals(
+                            "a\tb\tc\n" +
+                                    "1\tx, y\t2020-01-01T00:00:00.000Z\n" +
+                                    "2\tmulti\nline\t2020-01-02T00:00:00.000Z\n" +
+                                    "3\tz\t2020-01-03T00:00:00.000Z\n",
+                            sink
+                    );
+                }
+            } finally {
+                engine.releaseAllWriters();
+                engine.releaseAllReaders();
+            }
+        });
+    }
+
     @Test
     public void testCreateAsSelect() throws SqlException {
         String expectedData = "a1\ta\tb\tc\td\te\tf\tf1\tg\th\ti\tj\tj1\tk\tl\tm\n" +
@@ -0,0 +1,65 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.std.IntList;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Test;
+
+public class SqlUtilTest {
+    private final StringSink sink = new StringSink();
+
+    @Test
+    public void testQueryCacheKeyBindVariableTypes() {
+        IntList types = new IntList();
+        types.add(4);
+        types.add(6);
+        assertKey("select * from x where a = $1 and b = $2\u00004,6,", "select * from x where a = $1 and b = $2", types);
+        assertKey("select 1", "select 1", new IntList());
+    }
+
+    @Test
+    public void testQueryCacheKeyComments() {
+        assertKey("select 1 -- two  spaces\nfrom x", "select 1 -- two  spaces\n  from x", null);
+        assertKey("select /* a   b */ 1", "select   /* a   b */  1", null);
+    }
+
+    @Test
+    public void testQueryCacheKeyQuotes() {
+        assertKey("select 'a  b', \"c  d\" from x", "select  'a  b',\t\"c  d\"  from x", null);
+    }
+
+    @Test
+    public void testQueryCacheKeyWhitespace() {
+        assertKey("select a, b\nfrom x\nwhere a > 1", "  select   a,\tb \r\n  from x\n\twhere a > 1 \n", null);
+    }
+
+    private void assertKey(CharSequence expected, CharSequence query, IntList types) {
+        sink.clear();
+        SqlUtil.putQueryCacheKey(sink, query, types);
+        TestUtils.assertEquals(expected, sink);
+    }
+}
@@ -0,0 +1,353 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package io.questdb.griffin.engine.functions.jit;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.BaseFunctionFactoryTest;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.FunctionParser;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.functions.BinaryFunction;
+import io.questdb.griffin.engine.functions.DoubleFunction;
+import io.questdb.griffin.engine.functions.OperatorFunction;
+import io.questdb.griffin.engine.functions.columns.DoubleColumn;
+import io.questdb.griffin.engine.functions.rnd.SharedRandom;
+import io.questdb.std.BytecodeAssembler;
+import io.questdb.std.Numbers;
+import io.questdb.std.Rnd;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ServiceLoader;
+
+public class FunctionCompilerTest extends BaseFunctionFactoryTest {
+    private static final GenericRecordMetadata metadata = new GenericRecordMetadata();
+    private static final byte[] bytes = {0, 3, 1, -2, 8};
+    private static final short[] shorts = {0, 5, 2, 300, -4};
+    private static final int[] ints = {3, Numbers.INT_NaN, 0, -7, 100_000};
+    private static final long[] longs = {7, 12, Numbers.LONG_NaN, 0, 5_000_000_000L};
+    private static final float[] floats = {0.5f, Float.NaN, -1.25f, 3f, 0f};
+    private static final double[] doubles = {2, 0.25, Double.NaN, -0.5, 1e10};
+    private static final boolean[] booleans = {true, false, true, false, true};
+    private static final String[] strings = {"a", "bb", null, "", "cccc"};
+    private final FunctionCompiler functionCompiler = new FunctionCompiler(new BytecodeAssembler());
+    private FunctionParser functionParser;
+    private int row;
+    private final Record record = new Record() {
+        @Override
+        public boolean getBool(int col) {
+            return booleans[row];
+        }
+
+        @Override
+        public byte getByte(int col) {
+            return bytes[row];
+        }
+
+        @Override
+        public double getDouble(int col) {
+            return doubles[row];
+        }
+
+        @Override
+        public float getFloat(int col) {
+            return floats[row];
+        }
+
+        @Override
+        public int getInt(int col) {
+            return col == 2 ? ints[row] : ints[ints.length - row - 1];
+        }
+
+        @Override
+        public long getLong(int col) {
+            return longs[row];
+        }
+
+        @Override
+        public short getShort(int col) {
+            return shorts[row];
+        }
+
+        @Override
+        public CharSequence getStr(int col) {
+            return strings[row];
+        }
+
+        @Override
+        public int getStrLen(int col) {
+            return strings[row] == null ? -1 : strings[row].length();
+        }
+    };
+
+    @Before
+    public void setUp5() {
+        functionParser = new FunctionParser(configuration, ServiceLoader.load(FunctionFactory.class));
+        SharedRandom.RANDOM.set(new Rnd());
+    }
+
+    @Test
+    public void testArithmetic() throws SqlException {
+        assertCompiled(
+                "d * 2.5 + i - l / 3",
+                "i + h * i2",
+                "i - i2 + 70000",
+                "l - i + 7",
+                "l * 3 - b",
+                "l / (i - 3)",
+                "f * f + d",
+                "f + 1.5 + d / 0",
+                "b + 1.0",
+                "d + length(s)"
+        );
+    }
+
+    @Test
+    public void testComparisons() throws SqlException {
+        assertCompiled(
+                "d < 0.5",
+                "0.5 < d",
+                "i > l",
+                "d * 2 > f",
+                "i = 3",
+                "i = i2",
+                "l = 7",
+                "d = 2",
+                "i = NaN",
+                "l = NaN",
+                "f = NaN",
+                "d = NaN",
+                "l - i = NaN",
+                "i * 2 = l",
+                "length(s) > 1"
+        );
+    }
+
+    @Test
+    public void testLogical() throws SqlException {
+        assertCompiled(
+                "t and i < 3",
+                "t or d > 0.5 and l = 7",
+                "(i = NaN or d < 1) and (l > 5 or t)"
+        );
+    }
+
+    @Test
+    public void testNotCompiled() throws SqlException {
+        assertNotCompiled(
+                "d",
+                "t",
+                "1 + 2",
+                "f * f",
+                "s",
+                "length(s)",
+                "t and length(s) > 1",
+                "concat(s, 'x')"
+        );
+    }
+
+    @Test
+    public void testOperatorFunction() {
+        // operator is taken from the function, which is not known to compiler otherwise
+        final Function add = new DoubleOperator(OperatorFunction.ADD_DOUBLE);
+        final Function compiled = functionCompiler.compile(add);
+        Assert.assertTrue(compiled instanceof CompiledFunction);
+        for (row = 0; row < doubles.length; row++) {
+            Assert.assertEquals(add.getDouble(record), compiled.getDouble(record), 0.0);
+        }
+        compiled.close();
+
+        // unknown operator and operator that does not fit the function are not compiled
+        final Function unknown = new DoubleOperator(1000);
+        Assert.assertSame(unknown, functionCompiler.compile(unknown));
+        final Function unary = new DoubleOperator(OperatorFunction.IS_NAN_DOUBLE);
+        Assert.assertSame(unary, functionCompiler.compile(unary));
+    }
+
+    @Test
+    public void testQueries() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final CairoConfiguration jitConfiguration = new DefaultCairoConfiguration(root) {
+                @Override
+                public boolean isSqlJitEnabled() {
+                    return true;
+                }
+
+                @Override
+                public boolean isVectorFilterEnabled() {
+                    return false;
+                }
+            };
+            final CairoConfiguration interpreterConfiguration = new DefaultCairoConfiguration(root) {
+                @Override
+                public boolean isSqlJitEnabled() {
+                    return false;
+                }
+
+                @Override
+                public boolean isVectorFilterEnabled() {
+                    return false;
+                }
+            };
+
+            try (
+                    CairoEngine jitEngine = new CairoEngine(jitConfiguration);
+                    SqlCompiler jitCompiler = new SqlCompiler(jitEngine);
+                    CairoEngine interpreterEngine = new CairoEngine(interpreterConfiguration);
+                    SqlCompiler interpreterCompiler = new SqlCompiler(interpreterEngine)
+            ) {
+                jitCompiler.compile("create table x as (select" +
+                        " rnd_byte(0, 8) b," +
+                        " rnd_short(0, 8) h," +
+                        " rnd_int(-2, 8, 4) i," +
+                        " rnd_long(0, 10, 4) l," +
+                        " rnd_float(4) f," +
+                        " rnd_double(4) d," +
+                        " rnd_str(1, 3, 4) s," +
+                        " rnd_boolean() t," +
+                        " timestamp_sequence(to_timestamp(0), 1000000) ts" +
+                        " from long_sequence(1000)) timestamp(ts)", sqlExecutionContext);
+
+                final String[] queries = {
+                        "select d * 2.5 + i - l / 3, i + h * i, l - i + 7, f * f + d, l / (i - 3), d + length(s) from x",
+                        "x where d < 0.5 and i > 2",
+                        "x where t or d * 2 > f",
+                        "x where i = NaN or l = NaN",
+                        "x where length(s) > 1 and i * 2 = l",
+                        "select i + 1, l * 2, d - f from x where d > 0.5",
+                        "select sum(d * i), max(l - b) from x"
+                };
+
+                for (String query : queries) {
+                    TestUtils.assertEquals(print(interpreterCompiler, query), print(jitCompiler, query));
+                }
+            } finally {
+                engine.releaseAllWriters();
+                engine.releaseAllReaders();
+            }
+        });
+    }
+
+    private static void assertEquals(String expression, Function expected, Function actual, Record record) {
+        switch (expected.getType()) {
+            case ColumnType.BOOLEAN:
+                Assert.assertEquals(expression, expected.getBool(record), actual.getBool(record));
+                break;
+            case ColumnType.INT:
+                Assert.assertEquals(expression, expected.getInt(record), actual.getInt(record));
+                break;
+            case ColumnType.LONG:
+                Assert.assertEquals(expression, expected.getLong(record), actual.getLong(record));
+                break;
+            default:
+                Assert.assertEquals(expression, expected.getDouble(record), actual.getDouble(record), 0.0);
+                break;
+        }
+    }
+
+    private static String print(SqlCompiler compiler, String query) throws SqlException {
+        final StringSink sink = new StringSink();
+        try (
+                RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory();
+                RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+        ) {
+            new RecordCursorPrinter(sink).print(cursor, factory.getMetadata(), true);
+        }
+        return sink.toString();
+    }
+
+    private void assertCompiled(String... expressions) throws SqlException {
+        for (String expression : expressions) {
+            final Function expected = parseFunction(expression, metadata, functionParser);
+            final Function actual = functionCompiler.compile(parseFunction(expression, metadata, functionParser));
+            Assert.assertTrue(expression, actual instanceof CompiledFunction);
+            Assert.assertEquals(expression, expected.getType(), actual.getType());
+            Assert.assertEquals(expression, expected.getPosition(), actual.getPosition());
+            for (row = 0; row < ints.length; row++) {
+                assertEquals(expression, expected, actual, record);
+            }
+            expected.close();
+            actual.close();
+        }
+    }
+
+    private void assertNotCompiled(String... expressions) throws SqlException {
+        for (String expression : expressions) {
+            final Function function = parseFunction(expression, metadata, functionParser);
+            Assert.assertSame(expression, function, functionCompiler.compile(function));
+            function.close();
+        }
+    }
+
+    private static class DoubleOperator extends DoubleFunction implements BinaryFunction, OperatorFunction {
+        private final Function left = new DoubleColumn(0, 5);
+        private final Function right = new DoubleColumn(0, 5);
+        private final int operator;
+
+        public DoubleOperator(int operator) {
+            super(0);
+            this.operator = operator;
+        }
+
+        @Override
+        public double getDouble(Record rec) {
+            return left.getDouble(rec) + right.getDouble(rec);
+        }
+
+        @Override
+        public Function getLeft() {
+            return left;
+        }
+
+        @Override
+        public int getOperator() {
+            return operator;
+        }
+
+        @Override
+        public Function getRight() {
+            return right;
+        }
+    }
+
+    static {
+        metadata.add(new TableColumnMetadata("b", ColumnType.BYTE));
+        metadata.add(new TableColumnMetadata("h", ColumnType.SHORT));
+        metadata.add(new TableColumnMetadata("i", ColumnType.INT));
+        metadata.add(new TableColumnMetadata("l", ColumnType.LONG));
+        metadata.add(new TableColumnMetadata("f", ColumnType.FLOAT));
+        metadata.add(new TableColumnMetadata("d", ColumnType.DOUBLE));
+        metadata.add(new TableColumnMetadata("t", ColumnType.BOOLEAN));
+        metadata.add(new TableColumnMetadata("i2", ColumnType.INT));
+        metadata.add(new TableColumnMetadata("s", ColumnType.STRING));
+    }
+}
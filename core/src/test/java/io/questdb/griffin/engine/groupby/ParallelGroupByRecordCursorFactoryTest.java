@@ -0,0 +1,204 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.functions.rnd.SharedRandom;
+import io.questdb.mp.WorkerPool;
+import io.questdb.mp.WorkerPoolConfiguration;
+import io.questdb.std.Rnd;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelGroupByRecordCursorFactoryTest extends AbstractGriffinTest {
+
+    private static final String SELECT = "select s, sum(h) sh, avg(h) ah, min(d) mind, max(d) maxd, sum(l) sl, min(l) minl, count() c from x";
+
+    @Before
+    public void setUp3() {
+        SharedRandom.RANDOM.set(new Rnd());
+    }
+
+    @Test
+    public void testColumnTop() throws Exception {
+        assertParallel(compiler -> {
+            compiler.compile(createTable(10000));
+            compiler.compile("alter table x add column e double");
+            compiler.compile("alter table x add column m long");
+            compiler.compile("insert into x select * from (select" +
+                    " rnd_symbol(100, 4, 4, 2) s," +
+                    " x * 0.5 h," +
+                    " rnd_double(2) d," +
+                    " rnd_long(-100, 100, 2) l," +
+                    " timestamp_sequence(to_timestamp(6000000000000), 60000000) ts," +
+                    " rnd_double(2) e," +
+                    " rnd_long(-100, 100, 2) m" +
+                    " from long_sequence(10000)) timestamp(ts)");
+
+            assertRowByRow(compiler, "select s, min(e) mine, max(e) maxe, min(m) minm, sum(m) sm, count() c from x");
+        });
+    }
+
+    @Test
+    public void testEmptyTable() throws Exception {
+        assertParallel(compiler -> {
+            compiler.compile("create table x (s symbol, h double, d double, l long, ts timestamp) timestamp(ts) partition by DAY");
+            TestUtils.assertEquals(
+                    "s\tsh\tah\tmind\tmaxd\tsl\tminl\tc\n",
+                    print(compiler, SELECT, ParallelGroupByRecordCursorFactory.class)
+            );
+        });
+    }
+
+    @Test
+    public void testExpressionArgument() throws Exception {
+        // expression is evaluated by single shard
+        assertParallel(compiler -> {
+            compiler.compile(createTable(20000));
+            assertRowByRow(compiler, "select s, sum(h * 2) sh, count() c from x");
+        });
+    }
+
+    @Test
+    public void testNonPartitioned() throws Exception {
+        assertParallel(compiler -> {
+            compiler.compile("create table x as (select" +
+                    " rnd_symbol(100, 4, 4, 2) s," +
+                    " x * 0.5 h," +
+                    " rnd_double(2) d," +
+                    " rnd_long(-100, 100, 2) l," +
+                    " timestamp_sequence(to_timestamp(0), 60000000) ts" +
+                    " from long_sequence(20000)) timestamp(ts) partition by NONE");
+            assertRowByRow(compiler, SELECT);
+        });
+    }
+
+    @Test
+    public void testNotMergeableFunction() throws Exception {
+        assertParallel(compiler -> {
+            compiler.compile(createTable(20000));
+            assertRowByRow(compiler, "select s, isOrdered(l) o, count() c from x");
+        });
+    }
+
+    @Test
+    public void testPartitioned() throws Exception {
+        assertParallel(compiler -> {
+            compiler.compile(createTable(50000));
+            for (int i = 0; i < 10; i++) {
+                assertRowByRow(compiler, SELECT);
+            }
+        });
+    }
+
+    @Test
+    public void testSeveralKeys() throws Exception {
+        assertParallel(compiler -> {
+            compiler.compile(createTable(20000));
+            assertRowByRow(compiler, "select s, l, sum(h) sh, min(d) mind, count() c from x");
+        });
+    }
+
+    private static void assertParallel(ParallelCode code) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public long getIdleCheckInterval() {
+                    // keep pool maintenance off worker threads, their log buffers are never released
+                    return Long.MAX_VALUE / 1000;
+                }
+            };
+
+            final WorkerPool pool = new WorkerPool(new WorkerPoolConfiguration() {
+                @Override
+                public int[] getWorkerAffinity() {
+                    return new int[]{-1, -1};
+                }
+
+                @Override
+                public int getWorkerCount() {
+                    return 2;
+                }
+
+                @Override
+                public boolean haltOnError() {
+                    return false;
+                }
+            });
+
+            try (
+                    CairoEngine engine = new CairoEngine(configuration, new DefaultCairoWorkScheduler(configuration, pool));
+                    SqlCompiler compiler = new SqlCompiler(engine)
+            ) {
+                pool.start(null);
+                try {
+                    code.run(compiler);
+                } finally {
+                    pool.halt();
+                }
+            }
+        });
+    }
+
+    private static void assertRowByRow(SqlCompiler compiler, String query) throws SqlException {
+        // interval on designated timestamp makes same query go through single-threaded group-by
+        final String expected = print(compiler, query + " where ts >= '1970-01-01T00:00:00.000Z'", GroupByRecordCursorFactory.class);
+        TestUtils.assertEquals(expected, print(compiler, query, ParallelGroupByRecordCursorFactory.class));
+    }
+
+    private static String createTable(int rowCount) {
+        // sum of halves is exact regardless of the order values are added in
+        return "create table x as (select" +
+                " rnd_symbol(100, 4, 4, 2) s," +
+                " x * 0.5 h," +
+                " rnd_double(2) d," +
+                " rnd_long(-100, 100, 2) l," +
+                " timestamp_sequence(to_timestamp(0), 60000000) ts" +
+                " from long_sequence(" + rowCount + ")) timestamp(ts) partition by DAY";
+    }
+
+    private static String print(SqlCompiler compiler, String query, Class<?> factoryClass) throws SqlException {
+        final StringSink sink = new StringSink();
+        try (RecordCursorFactory factory = compiler.compile(query).getRecordCursorFactory()) {
+            Assert.assertEquals(factoryClass, factory.getClass());
+            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                new RecordCursorPrinter(sink).print(cursor, factory.getMetadata(), true);
+            }
+        }
+        return sink.toString();
+    }
+
+    @FunctionalInterface
+    private interface ParallelCode {
+        void run(SqlCompiler compiler) throws SqlException;
+    }
+}
@@ -0,0 +1,247 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.groupby.vect;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.functions.rnd.SharedRandom;
+import io.questdb.griffin.engine.groupby.GroupByRecordCursorFactory;
+import io.questdb.mp.WorkerPool;
+import io.questdb.mp.WorkerPoolConfiguration;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.FilesFacadeImpl;
+import io.questdb.std.Rnd;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class VectorAggregateRecordCursorFactoryTest extends AbstractGriffinTest {
+
+    private static final String SELECT = "select sum(h) sh, min(d) mind, max(d) maxd, sum(l) sl, min(l) minl, count() c from x";
+
+    @Before
+    public void setUp3() {
+        SharedRandom.RANDOM.set(new Rnd());
+    }
+
+    @Test
+    public void testColumnTop() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try {
+                compiler.compile(createTable(1000));
+                compiler.compile("alter table x add column e double");
+                compiler.compile("alter table x add column m long");
+                compiler.compile("insert into x select * from (select" +
+                        " x * 0.5 h," +
+                        " rnd_double(2) d," +
+                        " rnd_long(-100, 100, 2) l," +
+                        " timestamp_sequence(to_timestamp(600000000000), 600000000) ts," +
+                        " rnd_double(2) e," +
+                        " rnd_long(-100, 100, 2) m" +
+                        " from long_sequence(1000)) timestamp(ts)");
+
+                assertRowByRow(
+                        compiler,
+                        "select min(e) mine, max(e) maxe, sum(e) se, min(m) minm, sum(m) sm, count() c from x"
+                );
+            } finally {
+                engine.releaseAllWriters();
+                engine.releaseAllReaders();
+            }
+        });
+    }
+
+    @Test
+    public void testEmptyTable() throws Exception {
+        assertQuery(
+                "sh\tmind\tmaxd\tsl\tminl\tc\n",
+                SELECT,
+                "create table x (h double, d double, l long, ts timestamp) timestamp(ts) partition by DAY",
+                null,
+                "insert into x select * from (select" +
+                        " x * 0.5 h," +
+                        " rnd_double(2) d," +
+                        " rnd_long(-100, 100, 2) l," +
+                        " timestamp_sequence(to_timestamp(0), 600000000) ts" +
+                        " from long_sequence(5)) timestamp(ts)",
+                "sh\tmind\tmaxd\tsl\tminl\tc\n" +
+                        "7.500000000000\t0.131233600413\t0.804322409997\t-82\t-78\t5\n",
+                true
+        );
+    }
+
+    @Test
+    public void testKeyedQueryIsNotVectorised() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try {
+                compiler.compile(createTable(10));
+                try (RecordCursorFactory factory = compiler.compile("select l, sum(d) from x").getRecordCursorFactory()) {
+                    Assert.assertTrue(factory instanceof GroupByRecordCursorFactory);
+                }
+            } finally {
+                engine.releaseAllWriters();
+                engine.releaseAllReaders();
+            }
+        });
+    }
+
+    @Test
+    public void testNonPartitioned() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try {
+                compiler.compile("create table x as (select" +
+                        " x * 0.5 h," +
+                        " rnd_double(2) d," +
+                        " rnd_long(-100, 100, 2) l," +
+                        " timestamp_sequence(to_timestamp(0), 600000000) ts" +
+                        " from long_sequence(1000)) timestamp(ts) partition by NONE");
+                assertRowByRow(compiler, SELECT);
+            } finally {
+                engine.releaseAllWriters();
+                engine.releaseAllReaders();
+            }
+        });
+    }
+
+    @Test
+    public void testParallel() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            // small pages split each partition into many chunks
+            final FilesFacade ff = new FilesFacadeImpl() {
+                @Override
+                public long getMapPageSize() {
+                    return 4096;
+                }
+            };
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public FilesFacade getFilesFacade() {
+                    return ff;
+                }
+
+                @Override
+                public long getIdleCheckInterval() {
+                    // keep pool maintenance off worker threads, their log buffers are never released
+                    return Long.MAX_VALUE / 1000;
+                }
+            };
+
+            final WorkerPool pool = new WorkerPool(new WorkerPoolConfiguration() {
+                @Override
+                public int[] getWorkerAffinity() {
+                    return new int[]{-1, -1};
+                }
+
+                @Override
+                public int getWorkerCount() {
+                    return 2;
+                }
+
+                @Override
+                public boolean haltOnError() {
+                    return false;
+                }
+            });
+
+            try (
+                    CairoEngine engine = new CairoEngine(configuration, new DefaultCairoWorkScheduler(configuration, pool));
+                    SqlCompiler compiler = new SqlCompiler(engine)
+            ) {
+                pool.start(null);
+                try {
+                    compiler.compile(createTable(20000));
+                    for (int i = 0; i < 10; i++) {
+                        assertRowByRow(compiler, SELECT);
+                    }
+                } finally {
+                    pool.halt();
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testPartitioned() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try {
+                compiler.compile(createTable(10000));
+                assertRowByRow(compiler, SELECT);
+            } finally {
+                engine.releaseAllWriters();
+                engine.releaseAllReaders();
+            }
+        });
+    }
+
+    @Test
+    public void testUnsupportedFunctionIsNotVectorised() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try {
+                compiler.compile(createTable(10));
+                try (RecordCursorFactory factory = compiler.compile("select sum(d), max(l) from x").getRecordCursorFactory()) {
+                    Assert.assertTrue(factory instanceof GroupByRecordCursorFactory);
+                }
+            } finally {
+                engine.releaseAllWriters();
+                engine.releaseAllReaders();
+            }
+        });
+    }
+
+    private static void assertRowByRow(SqlCompiler compiler, String query) throws SqlException {
+        // interval on designated timestamp makes same query go through row-by-row group-by
+        final String expected = print(compiler, query + " where ts >= '1970-01-01T00:00:00.000Z'", GroupByRecordCursorFactory.class);
+        TestUtils.assertEquals(expected, print(compiler, query, VectorAggregateRecordCursorFactory.class));
+    }
+
+    private static String createTable(int rowCount) {
+        // sum of halves is exact regardless of the order values are added in
+        return "create table x as (select" +
+                " x * 0.5 h," +
+                " rnd_double(2) d," +
+                " rnd_long(-100, 100, 2) l," +
+                " timestamp_sequence(to_timestamp(0), 600000000) ts" +
+                " from long_sequence(" + rowCount + ")) timestamp(ts) partition by DAY";
+    }
+
+    private static String print(SqlCompiler compiler, String query, Class<?> factoryClass) throws SqlException {
+        final StringSink sink = new StringSink();
+        try (RecordCursorFactory factory = compiler.compile(query).getRecordCursorFactory()) {
+            Assert.assertEquals(factoryClass, factory.getClass());
+            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                new RecordCursorPrinter(sink).print(cursor, factory.getMetadata(), true);
+            }
+        }
+        Assert.assertTrue(sink.length() > 0);
+        return sink.toString();
+    }
+}
@@ -0,0 +1,233 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.functions.rnd.SharedRandom;
+import io.questdb.mp.WorkerPool;
+import io.questdb.mp.WorkerPoolConfiguration;
+import io.questdb.std.Rnd;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelHashJoinTest extends AbstractGriffinTest {
+
+    @Before
+    public void setUp3() {
+        SharedRandom.RANDOM.set(new Rnd());
+    }
+
+    @Test
+    public void testCompositeKey() throws Exception {
+        assertParallel(compiler -> {
+            createTables(compiler, 50000, 500);
+            assertSameAsSingleThreaded(compiler, "select x.i, x.s, x.v, y.v from x join y on (i, s)");
+        });
+    }
+
+    @Test
+    public void testIntKey() throws Exception {
+        assertParallel(compiler -> {
+            createTables(compiler, 50000, 500);
+            for (int i = 0; i < 5; i++) {
+                assertSameAsSingleThreaded(compiler, "select x.i, x.v, y.v, y.t from x join y on (i)");
+            }
+        });
+    }
+
+    @Test
+    public void testLimit() throws Exception {
+        // cursor is closed while shards are still in-flight
+        assertParallel(compiler -> {
+            createTables(compiler, 100000, 500);
+            assertSameAsSingleThreaded(compiler, "select x.i, x.v, y.v from x join y on (i) limit 10");
+        });
+    }
+
+    @Test
+    public void testMatchesExceedChunkMemory() throws Exception {
+        // slave chain fits under spill threshold, matches of each shard take several chunks
+        assertParallel(64 * 1024, 4096, compiler -> {
+            createTables(compiler, 50000, 500);
+            assertSameAsSingleThreaded(compiler, "select x.i, x.v, y.v, y.t from x join y on (i)");
+        });
+    }
+
+    @Test
+    public void testNonPartitioned() throws Exception {
+        assertParallel(compiler -> {
+            compiler.compile("create table x as (select" +
+                    " rnd_int(0, 200, 0) i," +
+                    " rnd_long() v" +
+                    " from long_sequence(20000))");
+            compiler.compile("create table y as (select" +
+                    " rnd_int(0, 200, 0) i," +
+                    " rnd_long() v" +
+                    " from long_sequence(500))");
+            assertSameAsSingleThreaded(compiler, "select x.i, x.v, y.v from x join y on (i)");
+        });
+    }
+
+    @Test
+    public void testSmallMasterTable() throws Exception {
+        // too small to be split into shards
+        assertParallel(compiler -> {
+            createTables(compiler, 100, 500);
+            assertSameAsSingleThreaded(compiler, "select x.i, x.v, y.v from x join y on (i)");
+        });
+    }
+
+    @Test
+    public void testStringKey() throws Exception {
+        assertParallel(compiler -> {
+            createTables(compiler, 50000, 500);
+            assertSameAsSingleThreaded(compiler, "select x.s, x.v, y.s, y.v from x join y on (s)");
+        });
+    }
+
+    @Test
+    public void testSymbolKey() throws Exception {
+        assertParallel(compiler -> {
+            // few distinct keys, slave is kept small to keep result small
+            createTables(compiler, 20000, 40);
+            assertSameAsSingleThreaded(compiler, "select x.k, x.v, y.k, y.v from x join y on (k)");
+        });
+    }
+
+    private static void assertParallel(ParallelCode code) throws Exception {
+        assertParallel(configuration.getSqlHashJoinSpillThreshold(), configuration.getSqlHashJoinLightValuePageSize(), code);
+    }
+
+    private static void assertParallel(long spillThreshold, int lightValuePageSize, ParallelCode code) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public long getIdleCheckInterval() {
+                    // keep pool maintenance off worker threads, their log buffers are never released
+                    return Long.MAX_VALUE / 1000;
+                }
+
+                @Override
+                public int getSqlHashJoinLightValuePageSize() {
+                    return lightValuePageSize;
+                }
+
+                @Override
+                public long getSqlHashJoinSpillThreshold() {
+                    return spillThreshold;
+                }
+            };
+
+            final WorkerPool pool = new WorkerPool(new WorkerPoolConfiguration() {
+                @Override
+                public int[] getWorkerAffinity() {
+                    return new int[]{-1, -1};
+                }
+
+                @Override
+                public int getWorkerCount() {
+                    return 2;
+                }
+
+                @Override
+                public boolean haltOnError() {
+                    return false;
+                }
+            });
+
+            try (
+                    CairoEngine engine = new CairoEngine(configuration, new DefaultCairoWorkScheduler(configuration, pool));
+                    SqlCompiler compiler = new SqlCompiler(engine)
+            ) {
+                pool.start(null);
+                try {
+                    code.run(compiler);
+                } finally {
+                    pool.halt();
+                }
+            }
+        });
+    }
+
+    private static void assertSameAsSingleThreaded(SqlCompiler compiler, String query) throws SqlException {
+        // engine without work scheduler probes on calling thread
+        final String expected;
+        try (
+                CairoEngine engine = new CairoEngine(configuration);
+                SqlCompiler singleThreadedCompiler = new SqlCompiler(engine)
+        ) {
+            expected = print(singleThreadedCompiler, query);
+        }
+        Assert.assertTrue(expected.length() > 0);
+        TestUtils.assertEquals(expected, print(compiler, query));
+    }
+
+    private static void createTables(SqlCompiler compiler, int masterRowCount, int slaveRowCount) throws SqlException {
+        compiler.compile("create table x as (select" +
+                " rnd_int(0, 200, 0) i," +
+                " rnd_str(2, 2, 0) s," +
+                " rnd_symbol('a', 'b', 'c', 'd', 'e', 'f', 'g', 'h') k," +
+                " rnd_long() v," +
+                " timestamp_sequence(to_timestamp(0), 60000000) ts" +
+                " from long_sequence(" + masterRowCount + ")) timestamp(ts) partition by DAY");
+        compiler.compile("create table y as (select" +
+                " rnd_int(0, 200, 0) i," +
+                " rnd_str(2, 2, 0) s," +
+                " rnd_symbol('a', 'b', 'c', 'd', 'e', 'f', 'g', 'h') k," +
+                " rnd_long() v," +
+                " rnd_timestamp(to_timestamp(0), to_timestamp(100000000000), 0) t" +
+                " from long_sequence(" + slaveRowCount + "))");
+    }
+
+    private static String print(SqlCompiler compiler, String query) throws SqlException {
+        final StringSink sink = new StringSink();
+        final RecordCursorPrinter printer = new RecordCursorPrinter(sink);
+        try (RecordCursorFactory factory = compiler.compile(query).getRecordCursorFactory()) {
+            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                printer.print(cursor, factory.getMetadata(), true);
+                final String result = sink.toString();
+                // rewound cursor returns the same rows
+                sink.clear();
+                cursor.toTop();
+                printer.print(cursor, factory.getMetadata(), true);
+                TestUtils.assertEquals(result, sink);
+                return result;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ParallelCode {
+        void run(SqlCompiler compiler) throws SqlException;
+    }
+}
@@ -0,0 +1,168 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.functions.rnd.SharedRandom;
+import io.questdb.std.Rnd;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LimitedSizeSortedLightRecordCursorFactoryTest extends AbstractGriffinTest {
+    private static final int N = 10_000;
+
+    @Before
+    public void setUp3() {
+        SharedRandom.RANDOM.set(new Rnd());
+    }
+
+    @Test
+    public void testBooleanFirst() throws Exception {
+        // most rows have equal sort value, ties are returned most recent first
+        assertLimit("select t, x from t order by t", "10", 0, 10);
+    }
+
+    @Test
+    public void testBooleanLast() throws Exception {
+        assertLimit("select t, x from t order by t", "-10", N - 10, N);
+    }
+
+    @Test
+    public void testCompositeFirst() throws Exception {
+        assertLimit("select b, s, x from t order by b desc, s", "25", 0, 25);
+    }
+
+    @Test
+    public void testCompositeLast() throws Exception {
+        assertLimit("select b, s, x from t order by b desc, s", "-25", N - 25, N);
+    }
+
+    @Test
+    public void testLimitExceedsRowCount() throws Exception {
+        assertLimit("select i, x from t order by i", "20000", 0, N);
+    }
+
+    @Test
+    public void testLimitLastExceedsRowCount() throws Exception {
+        assertLimit("select i, x from t order by i desc", "-20000", 0, N);
+    }
+
+    @Test
+    public void testLimitZero() throws Exception {
+        assertLimit("select i, x from t order by i", "0", 0, 0);
+    }
+
+    @Test
+    public void testLongDescFirst() throws Exception {
+        assertLimit("select l, x from t order by l desc", "100", 0, 100);
+    }
+
+    @Test
+    public void testRangeFirst() throws Exception {
+        assertLimit("select h, x from t order by h", "10,30", 10, 30);
+    }
+
+    @Test
+    public void testRangeLast() throws Exception {
+        assertLimit("select h, x from t order by h", "-30,-10", N - 30, N - 10);
+    }
+
+    @Test
+    public void testSingleRow() throws Exception {
+        assertLimit("select c, x from t order by c desc", "1", 0, 1);
+    }
+
+    @Test
+    public void testSingleRowLast() throws Exception {
+        assertLimit("select c, x from t order by c desc", "-1", N - 1, N);
+    }
+
+    @Test
+    public void testTimestampWithFilter() throws Exception {
+        assertLimit("select m, x from t where i > 0 order by m", "50", 0, 50);
+    }
+
+    private static String[] print(CharSequence query) throws SqlException {
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            sink.clear();
+            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                printer.print(cursor, factory.getMetadata(), false);
+                final String first = sink.toString();
+                // rewound cursor returns the same rows
+                sink.clear();
+                cursor.toTop();
+                printer.print(cursor, factory.getMetadata(), false);
+                TestUtils.assertEquals(first, sink);
+            }
+        }
+        return sink.length() == 0 ? new String[0] : sink.toString().split("\n");
+    }
+
+    private void assertLimit(String query, String limit, int lo, int hi) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try {
+                compiler.compile(
+                        "create table t as (" +
+                                "select" +
+                                " x," +
+                                " rnd_boolean() t," +
+                                " rnd_byte(0, 100) b," +
+                                " rnd_short(0, 1000) h," +
+                                " rnd_char() c," +
+                                " rnd_int(-1000, 1000, 2) i," +
+                                " rnd_long() l," +
+                                " rnd_str(2, 3, 2) s," +
+                                " rnd_timestamp(to_timestamp(0), to_timestamp(100000000000), 2) m," +
+                                " timestamp_sequence(to_timestamp(0), 60000000) k" +
+                                " from long_sequence(" + N + ")" +
+                                ") timestamp(k)",
+                        sqlExecutionContext
+                );
+
+                final String[] all = print(query);
+                final String[] limited = print(query + " limit " + limit);
+
+                final StringBuilder expected = new StringBuilder();
+                final int from = Math.min(lo, all.length);
+                final int to = Math.min(hi, all.length);
+                for (int i = from; i < to; i++) {
+                    expected.append(all[i]).append('\n');
+                }
+                final StringBuilder actual = new StringBuilder();
+                for (int i = 0; i < limited.length; i++) {
+                    actual.append(limited[i]).append('\n');
+                }
+                TestUtils.assertEquals(expected, actual);
+            } finally {
+                engine.releaseAllWriters();
+                engine.releaseAllReaders();
+            }
+        });
+    }
+}
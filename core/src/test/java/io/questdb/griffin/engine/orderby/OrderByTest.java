@@ -0,0 +1,298 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.functions.rnd.SharedRandom;
+import io.questdb.std.Chars;
+import io.questdb.std.Numbers;
+import io.questdb.std.Rnd;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+
+public class OrderByTest extends AbstractGriffinTest {
+    private static final int N = 100_000;
+
+    @Before
+    public void setUp3() {
+        SharedRandom.RANDOM.set(new Rnd());
+    }
+
+    @Test
+    public void testBoolean() throws Exception {
+        // equal values are returned most recent first
+        assertOrdered("select t, x from t order by t", N, 1, -2);
+    }
+
+    @Test
+    public void testByteDesc() throws Exception {
+        assertOrdered("select b, x from t order by b desc", N, -1, -2);
+    }
+
+    @Test
+    public void testChar() throws Exception {
+        assertOrdered("select c, x from t order by c", N, 1, -2);
+    }
+
+    @Test
+    public void testComposite() throws Exception {
+        assertOrdered("select i, s, x from t order by i, s desc", N, 1, -2, -3);
+    }
+
+    @Test
+    public void testCompositeNonIntegralFirst() throws Exception {
+        assertOrdered("select s, l, x from t order by s desc, l", N, -1, 2, -3);
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        assertOrdered("select i, x from t where i > 2000 order by i", 0, 1);
+    }
+
+    @Test
+    public void testInt() throws Exception {
+        assertOrdered("select i, x from t order by i", N, 1, -2);
+    }
+
+    @Test
+    public void testIntDesc() throws Exception {
+        assertOrdered("select i, x from t order by i desc", N, -1, -2);
+    }
+
+    @Test
+    public void testLong() throws Exception {
+        assertOrdered("select l, x from t order by l", N, 1, -2);
+    }
+
+    @Test
+    public void testLongDesc() throws Exception {
+        assertOrdered("select l, x from t order by l desc", N, -1, -2);
+    }
+
+    @Test
+    public void testNonRandomAccess() throws Exception {
+        // sample by cursor is not random access, records are copied before they are sorted,
+        // equal values are returned in the order of base cursor
+        assertOrdered("select k, s from (select k, sum(i) s from t sample by 1h) order by s desc", -1, -2, 1);
+    }
+
+    @Test
+    public void testNonRandomAccessString() throws Exception {
+        assertOrdered("select k, s, c from (select k, s, count() c from t sample by 1h) order by s, c desc", -1, 2, -3, 1);
+    }
+
+    @Test
+    public void testNonRandomAccessTwoStrings() throws Exception {
+        // comparator holds values of both string columns of the same copied record
+        assertOrdered("select s, a, k from (select k, s, concat(s, c) a from (select k, s, count() c from t sample by 1h)) order by s desc, a", -1, -1, 2, 3);
+    }
+
+    @Test
+    public void testShort() throws Exception {
+        assertOrdered("select h, x from t order by h", N, 1, -2);
+    }
+
+    @Test
+    public void testSpillComposite() throws Exception {
+        assertSpilled("select i, s, x from t order by i, s desc", N, 1, -2, -3);
+    }
+
+    @Test
+    public void testSpillCompositeNonIntegralFirst() throws Exception {
+        assertSpilled("select s, l, x from t order by s desc, l", N, -1, 2, -3);
+    }
+
+    @Test
+    public void testSpillInt() throws Exception {
+        // equal values are returned most recent first across all runs
+        assertSpilled("select i, x from t order by i", N, 1, -2);
+    }
+
+    @Test
+    public void testSpillLongDesc() throws Exception {
+        assertSpilled("select l, x from t order by l desc", N, -1, -2);
+    }
+
+    @Test
+    public void testSpillNonRandomAccess() throws Exception {
+        assertSpilled("select k, s from (select k, sum(i) s from t sample by 1h) order by s desc", -1, -2, 1);
+    }
+
+    @Test
+    public void testString() throws Exception {
+        assertOrdered("select s, x from t order by s", N, 1, -2);
+    }
+
+    @Test
+    public void testTimestampDesc() throws Exception {
+        assertOrdered("select m, x from t order by m desc", N, -1, -2);
+    }
+
+    private static int compare(Record left, Record right, int columnIndex, int columnType) {
+        switch (columnType) {
+            case ColumnType.BOOLEAN:
+                return Boolean.compare(left.getBool(columnIndex), right.getBool(columnIndex));
+            case ColumnType.BYTE:
+                return Byte.compare(left.getByte(columnIndex), right.getByte(columnIndex));
+            case ColumnType.SHORT:
+                return Short.compare(left.getShort(columnIndex), right.getShort(columnIndex));
+            case ColumnType.CHAR:
+                return Character.compare(left.getChar(columnIndex), right.getChar(columnIndex));
+            case ColumnType.INT:
+                return Integer.compare(left.getInt(columnIndex), right.getInt(columnIndex));
+            case ColumnType.DOUBLE:
+                return Numbers.compare(left.getDouble(columnIndex), right.getDouble(columnIndex));
+            case ColumnType.STRING:
+                return Chars.compare(left.getStr(columnIndex), right.getStrB(columnIndex));
+            case ColumnType.SYMBOL:
+                return Chars.compare(left.getSym(columnIndex), right.getSym(columnIndex));
+            default:
+                return Long.compare(left.getLong(columnIndex), right.getLong(columnIndex));
+        }
+    }
+
+    private static int countSpillFiles(CairoConfiguration configuration) {
+        final String[] files = new File(configuration.getSqlSpillRoot().toString()).list();
+        return files == null ? 0 : files.length;
+    }
+
+    private void assertOrdered(String query, int expectedCount, int... orderBy) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try {
+                createT(compiler);
+                assertOrdered(compiler, query, expectedCount, orderBy);
+            } finally {
+                engine.releaseAllWriters();
+                engine.releaseAllReaders();
+            }
+        });
+    }
+
+    private void assertOrdered(SqlCompiler compiler, String query, int expectedCount, int... orderBy) throws SqlException {
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            final RecordMetadata metadata = factory.getMetadata();
+            // iterate twice to make sure cursor can be rewound
+            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                assertOrdered(cursor, metadata, expectedCount, orderBy);
+                cursor.toTop();
+                assertOrdered(cursor, metadata, expectedCount, orderBy);
+            }
+        }
+    }
+
+    private void assertOrdered(RecordCursor cursor, RecordMetadata metadata, int expectedCount, int... orderBy) {
+        final Record record = cursor.getRecord();
+        final Record prev = cursor.newRecord();
+        int count = 0;
+        while (cursor.hasNext()) {
+            if (count > 0) {
+                int cmp = 0;
+                for (int i = 0; i < orderBy.length && cmp == 0; i++) {
+                    final int index = Math.abs(orderBy[i]) - 1;
+                    cmp = compare(prev, record, index, metadata.getColumnType(index));
+                    if (orderBy[i] < 0) {
+                        cmp = -cmp;
+                    }
+                }
+                Assert.assertTrue("row " + count + " is out of order", cmp < 0);
+            }
+            cursor.recordAt(prev, record.getRowId());
+            count++;
+        }
+        if (expectedCount > -1) {
+            Assert.assertEquals(expectedCount, count);
+        } else {
+            Assert.assertTrue(count > 0);
+        }
+    }
+
+    private void assertSpilled(String query, int expectedCount, int... orderBy) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final CairoConfiguration configuration = new DefaultCairoConfiguration(root) {
+                @Override
+                public long getSqlSortSpillThreshold() {
+                    // 512 entries per run
+                    return 16 * 1024;
+                }
+            };
+            try (
+                    CairoEngine engine = new CairoEngine(configuration);
+                    SqlCompiler compiler = new SqlCompiler(engine)
+            ) {
+                try {
+                    createT(compiler);
+                    try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+                        final RecordMetadata metadata = factory.getMetadata();
+                        try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                            Assert.assertEquals(1, countSpillFiles(configuration));
+                            assertOrdered(cursor, metadata, expectedCount, orderBy);
+                            cursor.toTop();
+                            assertOrdered(cursor, metadata, expectedCount, orderBy);
+                        }
+                        // run file is removed once cursor is closed
+                        Assert.assertEquals(0, countSpillFiles(configuration));
+                    }
+                } finally {
+                    engine.releaseAllWriters();
+                    engine.releaseAllReaders();
+                }
+            }
+        });
+    }
+
+    private void createT(SqlCompiler compiler) throws SqlException {
+        compiler.compile(
+                "create table t as (" +
+                        "select" +
+                        " x," +
+                        " rnd_boolean() t," +
+                        " rnd_byte(0, 100) b," +
+                        " rnd_short(0, 1000) h," +
+                        " rnd_char() c," +
+                        " rnd_int(-1000, 1000, 2) i," +
+                        " rnd_long() l," +
+                        " rnd_str(2, 3, 2) s," +
+                        " rnd_timestamp(to_timestamp(0), to_timestamp(100000000000), 2) m," +
+                        " timestamp_sequence(to_timestamp(0), 60000000) k" +
+                        " from long_sequence(" + N + ")" +
+                        ") timestamp(k)",
+                sqlExecutionContext
+        );
+    }
+}
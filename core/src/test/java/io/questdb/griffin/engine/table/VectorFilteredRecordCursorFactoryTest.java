@@ -0,0 +1,263 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.functions.rnd.SharedRandom;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.FilesFacadeImpl;
+import io.questdb.std.Rnd;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class VectorFilteredRecordCursorFactoryTest extends AbstractGriffinTest {
+
+    @Before
+    public void setUp3() {
+        SharedRandom.RANDOM.set(new Rnd());
+    }
+
+    @Test
+    public void testBindVariables() throws Exception {
+        assertFilters(
+                "i > :lo and i < :hi",
+                "l = $1 or s = 'b'"
+        );
+    }
+
+    @Test
+    public void testColumnTop() throws Exception {
+        assertFilters(
+                "i2 = 3",
+                "i2 = NaN",
+                "t2",
+                "t2 or i2 = 3",
+                "s2 = 'y'",
+                "s2 = null",
+                "s2 = 'y' or i2 > 40",
+                "l2 = NaN and d > 0.5",
+                "d2 < 0.3"
+        );
+    }
+
+    @Test
+    public void testComparisons() throws Exception {
+        assertFilters(
+                "b = 3",
+                "b > 4",
+                "3 < h",
+                "h = NaN",
+                "i = 3",
+                "i = NaN",
+                "i < 0",
+                "i > 2.5",
+                "l = 7",
+                "l = NaN",
+                "l > 5000000000",
+                "10 > l",
+                "f < 0.5",
+                "f = NaN",
+                "d = 2",
+                "d = NaN",
+                "d > 0.25",
+                "i = 3L",
+                "b = 3.0"
+        );
+    }
+
+    @Test
+    public void testLogical() throws Exception {
+        assertFilters(
+                "i > 5 and d < 0.5",
+                "i = 3 or l = 7",
+                "t",
+                "t or f < 0.5",
+                "t and s = 'a'",
+                "(b = 1 or b = 2) and (h = 3 or t)"
+        );
+    }
+
+    @Test
+    public void testResidualFilter() throws Exception {
+        assertFilters(
+                "i > 5 and d < l",
+                "t and i = l2",
+                "f < d and (s = 'a' or i2 = NaN)"
+        );
+    }
+
+    @Test
+    public void testSymbol() throws Exception {
+        assertFilters(
+                "s = 'a'",
+                "s = 'bb'",
+                "s = 'zz'",
+                "s = null",
+                "s = 'c' or s = 'bb'"
+        );
+    }
+
+    @Test
+    public void testTimestampInterval() throws Exception {
+        assertFilters(
+                "ts > '1970-01-02T05:00:00.000Z' and i < 4",
+                "ts > '1970-01-02T05:00:00.000Z' and ts < '1970-01-03T05:00:00.000Z' and s = 'bb'"
+        );
+    }
+
+    @Test
+    public void testUnsupportedFilterIsNotVectorised() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try {
+                compiler.compile("create table x (i int, s string, ts timestamp) timestamp(ts)");
+                try (RecordCursorFactory factory = compiler.compile("x where s = 'a' or i > 2").getRecordCursorFactory()) {
+                    Assert.assertFalse(isVectorised(factory));
+                }
+                try (RecordCursorFactory factory = compiler.compile("x where i > 2 and s = 'a'").getRecordCursorFactory()) {
+                    Assert.assertTrue(isVectorised(factory));
+                }
+            } finally {
+                engine.releaseAllWriters();
+                engine.releaseAllReaders();
+            }
+        });
+    }
+
+    private static void assertFilters(String... filters) throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            // small pages make batches cross page boundaries
+            final FilesFacade ff = new FilesFacadeImpl() {
+                @Override
+                public long getMapPageSize() {
+                    return 4096;
+                }
+            };
+            final CairoConfiguration vectorConfiguration = new DefaultCairoConfiguration(root) {
+                @Override
+                public FilesFacade getFilesFacade() {
+                    return ff;
+                }
+            };
+            final CairoConfiguration rowConfiguration = new DefaultCairoConfiguration(root) {
+                @Override
+                public FilesFacade getFilesFacade() {
+                    return ff;
+                }
+
+                @Override
+                public boolean isVectorFilterEnabled() {
+                    return false;
+                }
+            };
+
+            try (
+                    CairoEngine vectorEngine = new CairoEngine(vectorConfiguration);
+                    SqlCompiler vectorCompiler = new SqlCompiler(vectorEngine);
+                    CairoEngine rowEngine = new CairoEngine(rowConfiguration);
+                    SqlCompiler rowCompiler = new SqlCompiler(rowEngine)
+            ) {
+                vectorCompiler.compile(createTable(), sqlExecutionContext);
+                vectorCompiler.compile("alter table x add column i2 int", sqlExecutionContext);
+                vectorCompiler.compile("alter table x add column l2 long", sqlExecutionContext);
+                vectorCompiler.compile("alter table x add column d2 double", sqlExecutionContext);
+                vectorCompiler.compile("alter table x add column s2 symbol", sqlExecutionContext);
+                vectorCompiler.compile("alter table x add column t2 boolean", sqlExecutionContext);
+                vectorCompiler.compile("insert into x select * from (select" +
+                        " rnd_byte(0, 8) b," +
+                        " rnd_short(0, 8) h," +
+                        " rnd_int(-2, 8, 4) i," +
+                        " rnd_long(0, 10, 4) l," +
+                        " rnd_float(4) f," +
+                        " rnd_double(4) * 0 + rnd_int(0, 4, 0) d," +
+                        " rnd_symbol('a', 'bb', 'c') s," +
+                        " rnd_boolean() t," +
+                        " timestamp_sequence(to_timestamp(260000000000), 7000000) ts," +
+                        " rnd_int(0, 50, 4) i2," +
+                        " rnd_long(0, 10, 4) l2," +
+                        " rnd_double(4) d2," +
+                        " rnd_symbol('x', 'y') s2," +
+                        " rnd_boolean() t2" +
+                        " from long_sequence(15000)) timestamp(ts)", sqlExecutionContext);
+
+                bindVariableService.clear();
+                bindVariableService.setInt("lo", 1);
+                bindVariableService.setInt("hi", 6);
+                bindVariableService.setLong(0, 7);
+
+                for (String filter : filters) {
+                    final String query = "x where " + filter;
+                    final String expected = print(rowCompiler, query, false);
+                    TestUtils.assertEquals(expected, print(vectorCompiler, query, true));
+                }
+            }
+        });
+    }
+
+    private static String createTable() {
+        return "create table x as (select" +
+                " rnd_byte(0, 8) b," +
+                " rnd_short(0, 8) h," +
+                " rnd_int(-2, 8, 4) i," +
+                " rnd_long(0, 10, 4) l," +
+                " rnd_float(4) f," +
+                " rnd_double(4) * 0 + rnd_int(0, 4, 0) d," +
+                " rnd_symbol('a', 'bb', 'c') s," +
+                " rnd_boolean() t," +
+                " timestamp_sequence(to_timestamp(0), 7000000) ts" +
+                " from long_sequence(37000)) timestamp(ts) partition by DAY";
+    }
+
+    private static boolean isVectorised(RecordCursorFactory factory) {
+        // projection of table with designated timestamp wraps table factory
+        if (factory instanceof SelectedRecordCursorFactory) {
+            return isVectorised(((SelectedRecordCursorFactory) factory).getBase());
+        }
+        return factory instanceof VectorFilteredRecordCursorFactory;
+    }
+
+    private static String print(SqlCompiler compiler, String query, boolean vectorised) throws SqlException {
+        final StringSink sink = new StringSink();
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertEquals(query, vectorised, isVectorised(factory));
+            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                new RecordCursorPrinter(sink).print(cursor, factory.getMetadata(), true);
+                // second pass checks that cursor rewinds
+                cursor.toTop();
+                final StringSink sink2 = new StringSink();
+                new RecordCursorPrinter(sink2).print(cursor, factory.getMetadata(), true);
+                TestUtils.assertEquals(sink, sink2);
+            }
+        }
+        return sink.toString();
+    }
+}
@@ -0,0 +1,251 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2020 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.std;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.Closeable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ConcurrentAssociativeCacheTest {
+
+    @Test
+    public void testCheckout() {
+        try (ConcurrentAssociativeCache<Value> cache = new ConcurrentAssociativeCache<>(8, 64)) {
+            Value v1 = new Value();
+            Value v2 = new Value();
+            cache.put("X", v1, 0);
+            cache.put("X", v2, 0);
+
+            // most recently returned value first
+            Assert.assertSame(v2, cache.poll("X", 0));
+            Assert.assertSame(v1, cache.poll("X", 0));
+            Assert.assertNull(cache.poll("X", 0));
+
+            Assert.assertEquals(2, cache.getHitCount());
+            Assert.assertEquals(1, cache.getMissCount());
+            Assert.assertFalse(v1.closed);
+            Assert.assertFalse(v2.closed);
+            cache.put("X", v1, 0);
+            cache.put("X", v2, 0);
+        }
+    }
+
+    @Test
+    public void testClose() {
+        Value v1 = new Value();
+        Value v2 = new Value();
+        ConcurrentAssociativeCache<Value> cache = new ConcurrentAssociativeCache<>(8, 64);
+        cache.put("X", v1, 0);
+        cache.close();
+        Assert.assertTrue(v1.closed);
+
+        // value returned after cache is closed has nowhere to go
+        cache.put("X", v2, 0);
+        Assert.assertTrue(v2.closed);
+    }
+
+    @Test
+    public void testConcurrentCheckout() throws Exception {
+        final int threadCount = 4;
+        final int iterations = 10_000;
+        final ConcurrentAssociativeCache<Value> cache = new ConcurrentAssociativeCache<>(4, 16);
+        final CyclicBarrier barrier = new CyclicBarrier(threadCount);
+        final CountDownLatch haltLatch = new CountDownLatch(threadCount);
+        final AtomicInteger errors = new AtomicInteger();
+        final AtomicInteger created = new AtomicInteger();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        for (int t = 0; t < threadCount; t++) {
+            final int seed = t;
+            new Thread(() -> {
+                final Rnd rnd = new Rnd(seed, seed);
+                try {
+                    barrier.await();
+                    for (int i = 0; i < iterations; i++) {
+                        final String key = "q" + rnd.nextPositiveInt() % 32;
+                        Value value = cache.poll(key, 0);
+                        if (value == null) {
+                            value = new Value();
+                            created.incrementAndGet();
+                        }
+                        // value must not be used by two threads at the same time
+                        if (!value.inUse.compareAndSet(false, true) || value.closed) {
+                            errors.incrementAndGet();
+                        }
+                        value.inUse.set(false);
+                        cache.put(key, value, 0);
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    haltLatch.countDown();
+                }
+            }).start();
+        }
+
+        haltLatch.await();
+        if (failure.get() != null) {
+            throw new AssertionError("worker failed", failure.get());
+        }
+        Assert.assertEquals(0, errors.get());
+        Assert.assertEquals(threadCount * iterations, cache.getHitCount() + cache.getMissCount());
+        Assert.assertEquals(created.get(), cache.getMissCount());
+        cache.close();
+    }
+
+    @Test
+    public void testConcurrentClose() throws Exception {
+        final int rounds = 20;
+        final int threadCount = 4;
+        for (int r = 0; r < rounds; r++) {
+            final ConcurrentAssociativeCache<Value> cache = new ConcurrentAssociativeCache<>(2, 4096);
+            final CyclicBarrier barrier = new CyclicBarrier(threadCount + 1);
+            final CountDownLatch haltLatch = new CountDownLatch(threadCount);
+            final AtomicBoolean cacheClosed = new AtomicBoolean();
+            final AtomicReference<Throwable> failure = new AtomicReference<>();
+            final ObjList<ObjList<Value>> values = new ObjList<>();
+
+            for (int t = 0; t < threadCount; t++) {
+                final ObjList<Value> threadValues = new ObjList<>();
+                values.add(threadValues);
+                final Rnd rnd = new Rnd(r, t);
+                new Thread(() -> {
+                    try {
+                        barrier.await();
+                        // keep returning values to the cache until it is closed
+                        while (!cacheClosed.get()) {
+                            final Value value = new Value();
+                            threadValues.add(value);
+                            cache.put("q" + rnd.nextPositiveInt(), value, 0);
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        haltLatch.countDown();
+                    }
+                }).start();
+            }
+
+            barrier.await();
+            cache.close();
+            cacheClosed.set(true);
+            haltLatch.await();
+            if (failure.get() != null) {
+                throw new AssertionError("worker failed", failure.get());
+            }
+
+            // value is either cleared by close() or closed by put() that finds cache closed
+            for (int t = 0; t < threadCount; t++) {
+                final ObjList<Value> threadValues = values.getQuick(t);
+                for (int i = 0, n = threadValues.size(); i < n; i++) {
+                    Assert.assertTrue("value leaked [round=" + r + ", thread=" + t + ", index=" + i + ']', threadValues.getQuick(i).closed);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testEviction() {
+        try (ConcurrentAssociativeCache<Value> cache = new ConcurrentAssociativeCache<>(2, 16)) {
+            Value v1 = new Value();
+            Value v2 = new Value();
+            Value v3 = new Value();
+            cache.put("X", v1, 0);
+            cache.put("X", v2, 0);
+            // row is full, least recently returned value is evicted
+            cache.put("X", v3, 0);
+            Assert.assertTrue(v1.closed);
+            Assert.assertFalse(v2.closed);
+            Assert.assertEquals(1, cache.getEvictionCount());
+            Assert.assertSame(v3, cache.poll("X", 0));
+            Assert.assertSame(v2, cache.poll("X", 0));
+            Assert.assertNull(cache.poll("X", 0));
+            cache.put("X", v3, 0);
+        }
+    }
+
+    @Test
+    public void testInvalidate() {
+        try (ConcurrentAssociativeCache<Value> cache = new ConcurrentAssociativeCache<>(8, 16)) {
+            Value v1 = new Value();
+            Value v2 = new Value();
+            Value v3 = new Value();
+            cache.put("X", v1, 0);
+            cache.put("Y", v2, 0);
+            cache.put("X", v3, 0);
+            cache.invalidate("X");
+            Assert.assertEquals(2, cache.getInvalidationCount());
+            Assert.assertTrue(v1.closed);
+            Assert.assertTrue(v3.closed);
+            Assert.assertFalse(v2.closed);
+            Assert.assertNull(cache.poll("X", 0));
+            // remaining values are still reachable after the row was compacted
+            Assert.assertSame(v2, cache.poll("Y", 0));
+            cache.put("Y", v2, 0);
+        }
+    }
+
+    @Test
+    public void testStaleVersion() {
+        try (ConcurrentAssociativeCache<Value> cache = new ConcurrentAssociativeCache<>(8, 16)) {
+            Value v1 = new Value();
+            Value v2 = new Value();
+            Value v3 = new Value();
+            cache.put("X", v1, 1);
+            cache.put("X", v2, 2);
+            cache.put("X", v3, 1);
+            // most recent value is stale, it is closed and older but current value is returned
+            Assert.assertSame(v2, cache.poll("X", 2));
+            Assert.assertTrue(v3.closed);
+            Assert.assertFalse(v1.closed);
+            Assert.assertEquals(1, cache.getHitCount());
+            Assert.assertEquals(1, cache.getInvalidationCount());
+
+            Assert.assertNull(cache.poll("X", 3));
+            Assert.assertTrue(v1.closed);
+            Assert.assertEquals(1, cache.getMissCount());
+            Assert.assertEquals(2, cache.getInvalidationCount());
+            cache.put("X", v2, 3);
+            Assert.assertSame(v2, cache.poll("X", 3));
+            cache.put("X", v2, 3);
+        }
+    }
+
+    private static class Value implements Closeable {
+        private final AtomicBoolean inUse = new AtomicBoolean();
+        private boolean closed = false;
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}